@@ -70,10 +70,14 @@ TYPED_OUTPUTS = $(ARRAY)@TYPE@Array.java $(ARRAY)@TYPE@Scalar.java \
                 $(foreach RANK,$(RANKS),$(ARRAY)@TYPE@$(RANK)D.java) \
                 $(foreach RANK,$(RANKS),$(ARRAY_IMPL)Flat@TYPE@$(RANK)D.java) \
                 $(foreach RANK,$(RANKS),$(ARRAY_IMPL)Selected@TYPE@$(RANK)D.java) \
-                $(foreach RANK,$(RANKS),$(ARRAY_IMPL)Stridden@TYPE@$(RANK)D.java)
+                $(foreach RANK,$(RANKS),$(ARRAY_IMPL)Stridden@TYPE@$(RANK)D.java) \
+                $(foreach RANK,$(RANKS),$(ARRAY_IMPL)Mapped@TYPE@$(RANK)D.java) \
+                $(foreach RANK,$(RANKS),$(ARRAY_IMPL)MappedSelected@TYPE@$(RANK)D.java)
 
 MISC_OUTPUTS = $(ARRAY)ArrayFactory.java \
                $(ARRAY)ArrayUtils.java \
+               $(ARRAY)Statistics.java \
+               $(ARRAY)Histogram.java \
                $(BASE)Shape.java \
                $(TOP)/io/ColorModel.java \
                $(TOP)/io/DataFormat.java
@@ -106,6 +110,22 @@ STRIDDEN_ARRAY_INPUTS = StriddenArray.javax $(ARRAY_IMPL_INPUTS)
 
 SELECTED_ARRAY_INPUTS = SelectedArray.javax $(ARRAY_IMPL_INPUTS)
 
+MAPPED_ARRAY_INPUTS = MappedArray.javax $(ARRAY_IMPL_INPUTS)
+
+MAPPED_SELECTED_ARRAY_INPUTS = MappedSelectedArray.javax $(ARRAY_IMPL_INPUTS)
+
+BOOLEAN_OUTPUTS = $(foreach RANK,$(RANKS),$(ARRAY)Boolean$(RANK)D.java) \
+                  $(foreach RANK,$(RANKS),$(ARRAY_IMPL)FlatBoolean$(RANK)D.java) \
+                  $(foreach RANK,$(RANKS),$(ARRAY_IMPL)StriddenBoolean$(RANK)D.java)
+
+TILED_TYPES = Float Double
+TILED_INPUTS = TiledArray.javax $(ARRAY_IMPL_INPUTS)
+TILED_OUTPUTS = $(foreach TYPE,$(TILED_TYPES),$(ARRAY_IMPL)Tiled$(TYPE)3D.java)
+
+CHUNKED_TYPES = Float Double
+CHUNKED_INPUTS = ChunkedArray.javax common.javax
+CHUNKED_OUTPUTS = $(foreach TYPE,$(CHUNKED_TYPES),$(ARRAY)Chunked$(TYPE)Array.java)
+
 CONVOLUTION_IMPL = $(TOP)/deconv/impl/
 CONVOLUTION_RANKS = 1 2 3
 CONVOLUTION_TYPES = Float Double
@@ -116,7 +136,7 @@ CONVOLUTION_OUTPUTS = $(foreach TYPE,$(CONVOLUTION_TYPES),$(foreach RANK,$(CONVO
 default:
 
 all: all-array all-byte all-short all-int all-long all-float all-double \
-     all-misc all-convolution
+     all-boolean all-misc all-tiled all-chunked all-convolution
 
 clean:
 	rm -f *~
@@ -132,6 +152,12 @@ Makefile: Makefile.x
 $(ARRAY)ArrayFactory.java: ArrayFactory.javax
 	$(CODGER) -Dpackage=mitiv.array $< $@
 
+$(ARRAY)Histogram.java: Histogram.javax common.javax
+	$(CODGER) -Dpackage=mitiv.array $< $@
+
+$(ARRAY)Statistics.java: Statistics.javax common.javax
+	$(CODGER) -Dpackage=mitiv.array $< $@
+
 $(BASE)Shape.java: Shape.javax
 	$(CODGER) -Dpackage=mitiv.array $< $@
 
@@ -144,6 +170,50 @@ $(TOP)/io/ColorModel.java: ColorModel.javax common.javax
 $(TOP)/io/DataFormat.java: DataFormat.javax common.javax
 	$(CODGER) -Dpackage=mitiv.io $< $@
 
+#-----------------------------------------------------------------------------
+# Boolean arrays
+
+all-boolean: $(BOOLEAN_OUTPUTS)
+
+//# for rank in 1:9
+$(ARRAY)Boolean${rank}D.java: BooleanND.javax common.javax
+	$(CODGER) -Dpackage=mitiv.array -Drank=${rank} $< $@
+
+$(ARRAY_IMPL)FlatBoolean${rank}D.java: BooleanFlatArray.javax common.javax
+	$(CODGER) -Dpackage=mitiv.array -Drank=${rank} $< $@
+
+$(ARRAY_IMPL)StriddenBoolean${rank}D.java: BooleanStriddenArray.javax common.javax
+	$(CODGER) -Dpackage=mitiv.array -Drank=${rank} $< $@
+
+//# end
+#-----------------------------------------------------------------------------
+# Tiled arrays
+
+all-tiled: $(TILED_OUTPUTS)
+
+//# for typeId in ${FLOAT} ${DOUBLE}
+//#     def type = ${}{type_${typeId}}
+//#     def type = ${type}
+//#     def Type = ${}{Type_${typeId}}
+//#     def Type = ${Type}
+$(ARRAY_IMPL)Tiled${Type}3D.java: $(TILED_INPUTS)
+	$(CODGER) -Dpackage=mitiv.array -Dtype=${type} $< $@
+
+//# end
+#-----------------------------------------------------------------------------
+# Chunked arrays
+
+all-chunked: $(CHUNKED_OUTPUTS)
+
+//# for typeId in ${FLOAT} ${DOUBLE}
+//#     def type = ${}{type_${typeId}}
+//#     def type = ${type}
+//#     def Type = ${}{Type_${typeId}}
+//#     def Type = ${Type}
+$(ARRAY)Chunked${Type}Array.java: $(CHUNKED_INPUTS)
+	$(CODGER) -Dpackage=mitiv.array -Dtype=${type} $< $@
+
+//# end
 #-----------------------------------------------------------------------------
 # Convolution operators
 
@@ -220,6 +290,18 @@ $(ARRAY_IMPL)Selected${Type}${rank}D.java: $(SELECTED_ARRAY_INPUTS)
 $(ARRAY_IMPL)Stridden${Type}${rank}D.java: $(STRIDDEN_ARRAY_INPUTS)
 	$(CODGER) -Dpackage=mitiv.array -Dtype=${type} -Drank=${rank} $< $@
 
+//#     end
+//#
+//#     for rank in 1:9
+$(ARRAY_IMPL)Mapped${Type}${rank}D.java: $(MAPPED_ARRAY_INPUTS)
+	$(CODGER) -Dpackage=mitiv.array -Dtype=${type} -Drank=${rank} $< $@
+
+//#     end
+//#
+//#     for rank in 1:9
+$(ARRAY_IMPL)MappedSelected${Type}${rank}D.java: $(MAPPED_SELECTED_ARRAY_INPUTS)
+	$(CODGER) -Dpackage=mitiv.array -Dtype=${type} -Drank=${rank} $< $@
+
 //#     end
 //# end // loop over typeId
 
@@ -477,6 +477,9 @@ public class TotalVariationDeconvolution implements ReconstructionJob {
 
         // Build the cost functions
         QuadraticCost fdata = new QuadraticCost(H, y, W);
+        if (fdata.canUseNormalMode()) {
+            fdata.setNormalMode(true);
+        }
         HyperbolicTotalVariation fprior = new HyperbolicTotalVariation(resultSpace, epsilon);
         CompositeDifferentiableCostFunction cost = new CompositeDifferentiableCostFunction(1.0, fdata, mu, fprior);
         fcost = 0.0;
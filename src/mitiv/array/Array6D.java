@@ -133,6 +133,23 @@ public abstract class Array6D implements ShapedArray {
      */
     public abstract Array5D slice(int idx, int dim);
 
+    /**
+     * Reduce the array along one of its dimensions.
+     *
+     * @param axis - The index of the dimension to reduce.  The same rules
+     *               as for {@link #slice(int, int)} apply for negative
+     *               index.
+     * @param op   - The reduction: {@link ShapedArray#SUM},
+     *               {@link ShapedArray#MEAN}, {@link ShapedArray#MIN},
+     *               {@link ShapedArray#MAX}, {@link ShapedArray#ARGMAX} or
+     *               {@link ShapedArray#VARIANCE}.
+     * @return A new Array5D with the reduced values.
+     * @see ArrayUtils#reduce(ShapedArray, int, int)
+     */
+    public Array5D reduce(int axis, int op) {
+        return (Array5D)ArrayUtils.reduce(this, axis, op);
+    }
+
     /**
      * Get a view of the array for given ranges of indices.
      *
@@ -181,6 +198,39 @@ public abstract class Array6D implements ShapedArray {
      */
     public abstract Array1D as1D();
 
+    /**
+     * Permute the dimensions of the array.
+     *
+     * <p>
+     * The {@code k}-th dimension of the result is the {@code perm[k]}-th
+     * dimension of this array.  For arrays whose elements are stored with
+     * strides, the result is a view which shares its storage with this
+     * array and is built in constant time; otherwise the result is a copy.
+     * </p>
+     *
+     * @param perm - The permutation of the dimensions: a list of the
+     *               indices from 0 to 5 in any order.  The same
+     *               indexing rules as for {@link mitiv.base.indexing.Range}
+     *               apply for negative index.
+     * @return The array with permuted dimensions.
+     * @throws IllegalArgumentException if {@code perm} is not a valid
+     *         permutation.
+     */
+    public abstract Array6D permute(int... perm);
+
+    /**
+     * Reverse the order of the dimensions of the array.
+     *
+     * <p>
+     * This is the same as {@code permute(5, 4, 3, 2, 1, 0)}.
+     * </p>
+     *
+     * @return The array with reversed dimensions.
+     */
+    public Array6D transpose() {
+        return permute(5, 4, 3, 2, 1, 0);
+    }
+
     /**
      * Check the parameters of a 6D view with strides and get ordering.
      * @param number  - The number of elements in the wrapped array.
@@ -24,6 +24,61 @@
  */
 
 package mitiv.array;
+import mitiv.array.impl.MappedByte1D;
+import mitiv.array.impl.MappedByte2D;
+import mitiv.array.impl.MappedByte3D;
+import mitiv.array.impl.MappedByte4D;
+import mitiv.array.impl.MappedByte5D;
+import mitiv.array.impl.MappedByte6D;
+import mitiv.array.impl.MappedByte7D;
+import mitiv.array.impl.MappedByte8D;
+import mitiv.array.impl.MappedByte9D;
+import mitiv.array.impl.MappedShort1D;
+import mitiv.array.impl.MappedShort2D;
+import mitiv.array.impl.MappedShort3D;
+import mitiv.array.impl.MappedShort4D;
+import mitiv.array.impl.MappedShort5D;
+import mitiv.array.impl.MappedShort6D;
+import mitiv.array.impl.MappedShort7D;
+import mitiv.array.impl.MappedShort8D;
+import mitiv.array.impl.MappedShort9D;
+import mitiv.array.impl.MappedInt1D;
+import mitiv.array.impl.MappedInt2D;
+import mitiv.array.impl.MappedInt3D;
+import mitiv.array.impl.MappedInt4D;
+import mitiv.array.impl.MappedInt5D;
+import mitiv.array.impl.MappedInt6D;
+import mitiv.array.impl.MappedInt7D;
+import mitiv.array.impl.MappedInt8D;
+import mitiv.array.impl.MappedInt9D;
+import mitiv.array.impl.MappedLong1D;
+import mitiv.array.impl.MappedLong2D;
+import mitiv.array.impl.MappedLong3D;
+import mitiv.array.impl.MappedLong4D;
+import mitiv.array.impl.MappedLong5D;
+import mitiv.array.impl.MappedLong6D;
+import mitiv.array.impl.MappedLong7D;
+import mitiv.array.impl.MappedLong8D;
+import mitiv.array.impl.MappedLong9D;
+import mitiv.array.impl.MappedFloat1D;
+import mitiv.array.impl.MappedFloat2D;
+import mitiv.array.impl.MappedFloat3D;
+import mitiv.array.impl.MappedFloat4D;
+import mitiv.array.impl.MappedFloat5D;
+import mitiv.array.impl.MappedFloat6D;
+import mitiv.array.impl.MappedFloat7D;
+import mitiv.array.impl.MappedFloat8D;
+import mitiv.array.impl.MappedFloat9D;
+import mitiv.array.impl.MappedDouble1D;
+import mitiv.array.impl.MappedDouble2D;
+import mitiv.array.impl.MappedDouble3D;
+import mitiv.array.impl.MappedDouble4D;
+import mitiv.array.impl.MappedDouble5D;
+import mitiv.array.impl.MappedDouble6D;
+import mitiv.array.impl.MappedDouble7D;
+import mitiv.array.impl.MappedDouble8D;
+import mitiv.array.impl.MappedDouble9D;
+import mitiv.array.impl.MappedStorage;
 import mitiv.base.Shape;
 import mitiv.base.Shaped;
 import mitiv.base.Traits;
@@ -2629,6 +2684,188 @@ public class ArrayFactory {
         }
     }
 
+
+    /* ROUTINES FOR MAPPED ARRAYS ========================================== */
+
+    /**
+     * Create a ShapedArray object whose elements are in a memory mapped file.
+     * <p>
+     * The elements are assumed to be stored contiguously, in
+     * {@link Shaped#COLUMN_MAJOR} order, from the beginning of the storage.
+     * The type of the result is that of the storage and the result can be
+     * safely casted into a {@link Array1D}, {@link Array2D}, ... according
+     * to the number of dimensions in {@code dims}.
+     * </p>
+     * @param storage - The memory mapped storage of the elements.
+     * @param dims    - The dimension list of the result.
+     *
+     * @return An instance of ShapedArray sharing its elements with the
+     *         storage.
+     */
+    public static ShapedArray wrap(MappedStorage storage, int[] dims) {
+        return wrap(storage, 0, dims);
+    }
+
+    /**
+     * Create a ShapedArray object whose elements are in a memory mapped file
+     * from a given offset.
+     * <p>
+     * This is the same as {@link #wrap(MappedStorage, int[])} except that
+     * the first element is at index {@code offset} in the storage.
+     * </p>
+     * @param storage - The memory mapped storage of the elements.
+     * @param offset  - The index of the first element in the storage.
+     * @param dims    - The dimension list of the result.
+     *
+     * @return An instance of ShapedArray sharing its elements with the
+     *         storage.
+     */
+    public static ShapedArray wrap(MappedStorage storage, int offset, int[] dims) {
+        int rank = dims.length;
+        int[] strides = new int[rank];
+        int stride = 1;
+        for (int k = 0; k < rank; ++k) {
+            strides[k] = stride;
+            stride *= dims[k];
+        }
+        switch (storage.getType()) {
+            case Traits.BYTE:
+                switch (rank) {
+                    case 1:
+                        return new MappedByte1D(storage, offset, strides, dims);
+                    case 2:
+                        return new MappedByte2D(storage, offset, strides, dims);
+                    case 3:
+                        return new MappedByte3D(storage, offset, strides, dims);
+                    case 4:
+                        return new MappedByte4D(storage, offset, strides, dims);
+                    case 5:
+                        return new MappedByte5D(storage, offset, strides, dims);
+                    case 6:
+                        return new MappedByte6D(storage, offset, strides, dims);
+                    case 7:
+                        return new MappedByte7D(storage, offset, strides, dims);
+                    case 8:
+                        return new MappedByte8D(storage, offset, strides, dims);
+                    case 9:
+                        return new MappedByte9D(storage, offset, strides, dims);
+                }
+                break;
+            case Traits.SHORT:
+                switch (rank) {
+                    case 1:
+                        return new MappedShort1D(storage, offset, strides, dims);
+                    case 2:
+                        return new MappedShort2D(storage, offset, strides, dims);
+                    case 3:
+                        return new MappedShort3D(storage, offset, strides, dims);
+                    case 4:
+                        return new MappedShort4D(storage, offset, strides, dims);
+                    case 5:
+                        return new MappedShort5D(storage, offset, strides, dims);
+                    case 6:
+                        return new MappedShort6D(storage, offset, strides, dims);
+                    case 7:
+                        return new MappedShort7D(storage, offset, strides, dims);
+                    case 8:
+                        return new MappedShort8D(storage, offset, strides, dims);
+                    case 9:
+                        return new MappedShort9D(storage, offset, strides, dims);
+                }
+                break;
+            case Traits.INT:
+                switch (rank) {
+                    case 1:
+                        return new MappedInt1D(storage, offset, strides, dims);
+                    case 2:
+                        return new MappedInt2D(storage, offset, strides, dims);
+                    case 3:
+                        return new MappedInt3D(storage, offset, strides, dims);
+                    case 4:
+                        return new MappedInt4D(storage, offset, strides, dims);
+                    case 5:
+                        return new MappedInt5D(storage, offset, strides, dims);
+                    case 6:
+                        return new MappedInt6D(storage, offset, strides, dims);
+                    case 7:
+                        return new MappedInt7D(storage, offset, strides, dims);
+                    case 8:
+                        return new MappedInt8D(storage, offset, strides, dims);
+                    case 9:
+                        return new MappedInt9D(storage, offset, strides, dims);
+                }
+                break;
+            case Traits.LONG:
+                switch (rank) {
+                    case 1:
+                        return new MappedLong1D(storage, offset, strides, dims);
+                    case 2:
+                        return new MappedLong2D(storage, offset, strides, dims);
+                    case 3:
+                        return new MappedLong3D(storage, offset, strides, dims);
+                    case 4:
+                        return new MappedLong4D(storage, offset, strides, dims);
+                    case 5:
+                        return new MappedLong5D(storage, offset, strides, dims);
+                    case 6:
+                        return new MappedLong6D(storage, offset, strides, dims);
+                    case 7:
+                        return new MappedLong7D(storage, offset, strides, dims);
+                    case 8:
+                        return new MappedLong8D(storage, offset, strides, dims);
+                    case 9:
+                        return new MappedLong9D(storage, offset, strides, dims);
+                }
+                break;
+            case Traits.FLOAT:
+                switch (rank) {
+                    case 1:
+                        return new MappedFloat1D(storage, offset, strides, dims);
+                    case 2:
+                        return new MappedFloat2D(storage, offset, strides, dims);
+                    case 3:
+                        return new MappedFloat3D(storage, offset, strides, dims);
+                    case 4:
+                        return new MappedFloat4D(storage, offset, strides, dims);
+                    case 5:
+                        return new MappedFloat5D(storage, offset, strides, dims);
+                    case 6:
+                        return new MappedFloat6D(storage, offset, strides, dims);
+                    case 7:
+                        return new MappedFloat7D(storage, offset, strides, dims);
+                    case 8:
+                        return new MappedFloat8D(storage, offset, strides, dims);
+                    case 9:
+                        return new MappedFloat9D(storage, offset, strides, dims);
+                }
+                break;
+            case Traits.DOUBLE:
+                switch (rank) {
+                    case 1:
+                        return new MappedDouble1D(storage, offset, strides, dims);
+                    case 2:
+                        return new MappedDouble2D(storage, offset, strides, dims);
+                    case 3:
+                        return new MappedDouble3D(storage, offset, strides, dims);
+                    case 4:
+                        return new MappedDouble4D(storage, offset, strides, dims);
+                    case 5:
+                        return new MappedDouble5D(storage, offset, strides, dims);
+                    case 6:
+                        return new MappedDouble6D(storage, offset, strides, dims);
+                    case 7:
+                        return new MappedDouble7D(storage, offset, strides, dims);
+                    case 8:
+                        return new MappedDouble8D(storage, offset, strides, dims);
+                    case 9:
+                        return new MappedDouble9D(storage, offset, strides, dims);
+                }
+                break;
+            default:
+                throw new IllegalTypeException();
+        }
+        throw new IllegalArgumentException("Invalid rank in shape.");
+    }
 }
 
 /*
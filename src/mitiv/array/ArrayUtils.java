@@ -35,6 +35,7 @@ import mitiv.array.Array7D;
 import mitiv.array.Array8D;
 import mitiv.array.Array9D;
 import mitiv.array.ArrayFactory;
+import mitiv.array.BooleanArray;
 import mitiv.array.ByteArray;
 import mitiv.array.DoubleArray;
 import mitiv.array.FloatArray;
@@ -42,11 +43,22 @@ import mitiv.array.IntArray;
 import mitiv.array.LongArray;
 import mitiv.array.ShapedArray;
 import mitiv.array.ShortArray;
+import mitiv.array.impl.StorageLayout;
+import mitiv.base.Parallel;
 import mitiv.base.Shape;
 import mitiv.base.Traits;
 import mitiv.base.indexing.Range;
+import mitiv.base.mapping.ByteScanner;
+import mitiv.base.mapping.DoubleScanner;
+import mitiv.base.mapping.FloatScanner;
+import mitiv.base.mapping.IntScanner;
+import mitiv.base.mapping.LongScanner;
+import mitiv.base.mapping.ShortScanner;
 import mitiv.exception.IllegalTypeException;
 import mitiv.exception.NonConformableArrayException;
+import mitiv.linalg.shaped.DoubleShapedVector;
+import mitiv.linalg.shaped.FloatShapedVector;
+import mitiv.linalg.shaped.ShapedVector;
 
 public class ArrayUtils {
 
@@ -708,6 +720,5549 @@ public class ArrayUtils {
     }
 
 
+    /*=======================================================================*/
+    /* CONVERSION INTO EXISTING STORAGE */
+
+    /**
+     * Convert the elements of an array into another existing array.
+     * <p>
+     * The values are converted as by a cast, except that bytes are assumed
+     * to be unsigned (in the range 0 to 255) as for the reductions of byte
+     * arrays.  No temporary array is created when the destination is a flat
+     * array and the conversion is done in parallel.
+     * </p>
+     * @param src - The source array.
+     * @param dst - The destination array, with the same shape as
+     *              {@code src}.
+     */
+    public static void convert(ShapedArray src, ShapedArray dst) {
+        convert(src, dst, false, 1.0, 0.0);
+    }
+
+    /**
+     * Convert the elements of an array into another existing array with an
+     * affine correction.
+     * <p>
+     * Each destination value is {@code scale*x + bias} where {@code x} is
+     * the corresponding source value (this is meant for gain and dark
+     * corrections), the conversion is done in a single parallel pass
+     * without temporary arrays when the destination is a flat array.
+     * Integer destination values are rounded to the nearest integer and
+     * saturated to the range of their type (NaN's yield zero).  Bytes are
+     * unsigned as explained for {@link #convert(ShapedArray, ShapedArray)}.
+     * </p>
+     * @param src   - The source array.
+     * @param dst   - The destination array, with the same shape as
+     *                {@code src}.
+     * @param scale - The factor applied to the source values.
+     * @param bias  - The offset added to the scaled values.
+     */
+    public static void convert(ShapedArray src, ShapedArray dst,
+            double scale, double bias) {
+        convert(src, dst, true, scale, bias);
+    }
+
+    /**
+     * Convert the elements of an array into an existing vector.
+     * @param src - The source array.
+     * @param dst - The destination vector, with the same shape as
+     *              {@code src}.
+     * @see #convert(ShapedArray, ShapedArray)
+     */
+    public static void convert(ShapedArray src, ShapedVector dst) {
+        convert(src, dst, false, 1.0, 0.0);
+    }
+
+    /**
+     * Convert the elements of an array into an existing vector with an
+     * affine correction.
+     * @param src   - The source array.
+     * @param dst   - The destination vector, with the same shape as
+     *                {@code src}.
+     * @param scale - The factor applied to the source values.
+     * @param bias  - The offset added to the scaled values.
+     * @see #convert(ShapedArray, ShapedArray, double, double)
+     */
+    public static void convert(ShapedArray src, ShapedVector dst,
+            double scale, double bias) {
+        convert(src, dst, true, scale, bias);
+    }
+
+    private static void convert(ShapedArray src, ShapedArray dst,
+            boolean affine, double scale, double bias) {
+        Shape shape = src.getShape();
+        if (! shape.equals(dst.getShape())) {
+            throw new NonConformableArrayException("Source and destination must have the same shape.");
+        }
+        int number = src.getNumber();
+        int type = dst.getType();
+        Object storage = getFlatStorage(dst);
+        if (storage == null) {
+            /* Convert into a temporary flat array, then copy. */
+            ShapedArray tmp = ArrayFactory.create(type, shape);
+            convert(getFlatData(src), src.getType(), getFlatStorage(tmp), type,
+                    number, affine, scale, bias);
+            dst.assign(tmp);
+        } else {
+            convert(getFlatData(src), src.getType(), storage, type,
+                    number, affine, scale, bias);
+        }
+    }
+
+    private static void convert(ShapedArray src, ShapedVector dst,
+            boolean affine, double scale, double bias) {
+        Shape shape = src.getShape();
+        if (! shape.equals(dst.getShape())) {
+            throw new NonConformableArrayException("Source and destination must have the same shape.");
+        }
+        int number = src.getNumber();
+        if (dst instanceof FloatShapedVector) {
+            convert(getFlatData(src), src.getType(),
+                    ((FloatShapedVector)dst).getData(), Traits.FLOAT,
+                    number, affine, scale, bias);
+        } else if (dst instanceof DoubleShapedVector) {
+            convert(getFlatData(src), src.getType(),
+                    ((DoubleShapedVector)dst).getData(), Traits.DOUBLE,
+                    number, affine, scale, bias);
+        } else {
+            /* Other storage (e.g. half precision), go through floats. */
+            float[] tmp = new float[number];
+            convert(getFlatData(src), src.getType(), tmp, Traits.FLOAT,
+                    number, affine, scale, bias);
+            dst.assign(ArrayFactory.wrap(tmp, shape));
+        }
+    }
+
+    /* Get the elements of an array in column-major order, without copying
+     * them if possible. */
+    private static Object getFlatData(ShapedArray arr) {
+        switch (arr.getType()) {
+        case Traits.BYTE:
+            return ((ByteArray)arr).flatten(false);
+        case Traits.SHORT:
+            return ((ShortArray)arr).flatten(false);
+        case Traits.INT:
+            return ((IntArray)arr).flatten(false);
+        case Traits.LONG:
+            return ((LongArray)arr).flatten(false);
+        case Traits.FLOAT:
+            return ((FloatArray)arr).flatten(false);
+        case Traits.DOUBLE:
+            return ((DoubleArray)arr).flatten(false);
+        default:
+            throw new IllegalTypeException();
+        }
+    }
+
+    /* Get the storage of an array whose elements are contiguous and in
+     * column-major order from the start of the storage, null otherwise. */
+    private static Object getFlatStorage(ShapedArray arr) {
+        if (! (arr instanceof StorageLayout)) {
+            return null;
+        }
+        StorageLayout layout = (StorageLayout)arr;
+        if (layout.getStorageOffset() != 0) {
+            return null;
+        }
+        int[] strides = layout.getStorageStrides();
+        int rank = arr.getRank();
+        int stride = 1;
+        for (int k = 0; k < rank; ++k) {
+            int dim = arr.getDimension(k);
+            if (dim > 1 && strides[k] != stride) {
+                return null;
+            }
+            stride *= dim;
+        }
+        return layout.getStorage();
+    }
+
+    /* Convert the first elements of a flat storage into another one. */
+    private static void convert(Object src, int srcType, Object dst, int dstType,
+            int number, boolean affine, double scale, double bias) {
+        switch (dstType) {
+        case Traits.BYTE:
+            switch (srcType) {
+            case Traits.BYTE:
+                if (affine) {
+                    convert((byte[])src, (byte[])dst, number, scale, bias);
+                } else {
+                    convert((byte[])src, (byte[])dst, number);
+                }
+                return;
+            case Traits.SHORT:
+                if (affine) {
+                    convert((short[])src, (byte[])dst, number, scale, bias);
+                } else {
+                    convert((short[])src, (byte[])dst, number);
+                }
+                return;
+            case Traits.INT:
+                if (affine) {
+                    convert((int[])src, (byte[])dst, number, scale, bias);
+                } else {
+                    convert((int[])src, (byte[])dst, number);
+                }
+                return;
+            case Traits.LONG:
+                if (affine) {
+                    convert((long[])src, (byte[])dst, number, scale, bias);
+                } else {
+                    convert((long[])src, (byte[])dst, number);
+                }
+                return;
+            case Traits.FLOAT:
+                if (affine) {
+                    convert((float[])src, (byte[])dst, number, scale, bias);
+                } else {
+                    convert((float[])src, (byte[])dst, number);
+                }
+                return;
+            case Traits.DOUBLE:
+                if (affine) {
+                    convert((double[])src, (byte[])dst, number, scale, bias);
+                } else {
+                    convert((double[])src, (byte[])dst, number);
+                }
+                return;
+            }
+            break;
+        case Traits.SHORT:
+            switch (srcType) {
+            case Traits.BYTE:
+                if (affine) {
+                    convert((byte[])src, (short[])dst, number, scale, bias);
+                } else {
+                    convert((byte[])src, (short[])dst, number);
+                }
+                return;
+            case Traits.SHORT:
+                if (affine) {
+                    convert((short[])src, (short[])dst, number, scale, bias);
+                } else {
+                    convert((short[])src, (short[])dst, number);
+                }
+                return;
+            case Traits.INT:
+                if (affine) {
+                    convert((int[])src, (short[])dst, number, scale, bias);
+                } else {
+                    convert((int[])src, (short[])dst, number);
+                }
+                return;
+            case Traits.LONG:
+                if (affine) {
+                    convert((long[])src, (short[])dst, number, scale, bias);
+                } else {
+                    convert((long[])src, (short[])dst, number);
+                }
+                return;
+            case Traits.FLOAT:
+                if (affine) {
+                    convert((float[])src, (short[])dst, number, scale, bias);
+                } else {
+                    convert((float[])src, (short[])dst, number);
+                }
+                return;
+            case Traits.DOUBLE:
+                if (affine) {
+                    convert((double[])src, (short[])dst, number, scale, bias);
+                } else {
+                    convert((double[])src, (short[])dst, number);
+                }
+                return;
+            }
+            break;
+        case Traits.INT:
+            switch (srcType) {
+            case Traits.BYTE:
+                if (affine) {
+                    convert((byte[])src, (int[])dst, number, scale, bias);
+                } else {
+                    convert((byte[])src, (int[])dst, number);
+                }
+                return;
+            case Traits.SHORT:
+                if (affine) {
+                    convert((short[])src, (int[])dst, number, scale, bias);
+                } else {
+                    convert((short[])src, (int[])dst, number);
+                }
+                return;
+            case Traits.INT:
+                if (affine) {
+                    convert((int[])src, (int[])dst, number, scale, bias);
+                } else {
+                    convert((int[])src, (int[])dst, number);
+                }
+                return;
+            case Traits.LONG:
+                if (affine) {
+                    convert((long[])src, (int[])dst, number, scale, bias);
+                } else {
+                    convert((long[])src, (int[])dst, number);
+                }
+                return;
+            case Traits.FLOAT:
+                if (affine) {
+                    convert((float[])src, (int[])dst, number, scale, bias);
+                } else {
+                    convert((float[])src, (int[])dst, number);
+                }
+                return;
+            case Traits.DOUBLE:
+                if (affine) {
+                    convert((double[])src, (int[])dst, number, scale, bias);
+                } else {
+                    convert((double[])src, (int[])dst, number);
+                }
+                return;
+            }
+            break;
+        case Traits.LONG:
+            switch (srcType) {
+            case Traits.BYTE:
+                if (affine) {
+                    convert((byte[])src, (long[])dst, number, scale, bias);
+                } else {
+                    convert((byte[])src, (long[])dst, number);
+                }
+                return;
+            case Traits.SHORT:
+                if (affine) {
+                    convert((short[])src, (long[])dst, number, scale, bias);
+                } else {
+                    convert((short[])src, (long[])dst, number);
+                }
+                return;
+            case Traits.INT:
+                if (affine) {
+                    convert((int[])src, (long[])dst, number, scale, bias);
+                } else {
+                    convert((int[])src, (long[])dst, number);
+                }
+                return;
+            case Traits.LONG:
+                if (affine) {
+                    convert((long[])src, (long[])dst, number, scale, bias);
+                } else {
+                    convert((long[])src, (long[])dst, number);
+                }
+                return;
+            case Traits.FLOAT:
+                if (affine) {
+                    convert((float[])src, (long[])dst, number, scale, bias);
+                } else {
+                    convert((float[])src, (long[])dst, number);
+                }
+                return;
+            case Traits.DOUBLE:
+                if (affine) {
+                    convert((double[])src, (long[])dst, number, scale, bias);
+                } else {
+                    convert((double[])src, (long[])dst, number);
+                }
+                return;
+            }
+            break;
+        case Traits.FLOAT:
+            switch (srcType) {
+            case Traits.BYTE:
+                if (affine) {
+                    convert((byte[])src, (float[])dst, number, scale, bias);
+                } else {
+                    convert((byte[])src, (float[])dst, number);
+                }
+                return;
+            case Traits.SHORT:
+                if (affine) {
+                    convert((short[])src, (float[])dst, number, scale, bias);
+                } else {
+                    convert((short[])src, (float[])dst, number);
+                }
+                return;
+            case Traits.INT:
+                if (affine) {
+                    convert((int[])src, (float[])dst, number, scale, bias);
+                } else {
+                    convert((int[])src, (float[])dst, number);
+                }
+                return;
+            case Traits.LONG:
+                if (affine) {
+                    convert((long[])src, (float[])dst, number, scale, bias);
+                } else {
+                    convert((long[])src, (float[])dst, number);
+                }
+                return;
+            case Traits.FLOAT:
+                if (affine) {
+                    convert((float[])src, (float[])dst, number, scale, bias);
+                } else {
+                    convert((float[])src, (float[])dst, number);
+                }
+                return;
+            case Traits.DOUBLE:
+                if (affine) {
+                    convert((double[])src, (float[])dst, number, scale, bias);
+                } else {
+                    convert((double[])src, (float[])dst, number);
+                }
+                return;
+            }
+            break;
+        case Traits.DOUBLE:
+            switch (srcType) {
+            case Traits.BYTE:
+                if (affine) {
+                    convert((byte[])src, (double[])dst, number, scale, bias);
+                } else {
+                    convert((byte[])src, (double[])dst, number);
+                }
+                return;
+            case Traits.SHORT:
+                if (affine) {
+                    convert((short[])src, (double[])dst, number, scale, bias);
+                } else {
+                    convert((short[])src, (double[])dst, number);
+                }
+                return;
+            case Traits.INT:
+                if (affine) {
+                    convert((int[])src, (double[])dst, number, scale, bias);
+                } else {
+                    convert((int[])src, (double[])dst, number);
+                }
+                return;
+            case Traits.LONG:
+                if (affine) {
+                    convert((long[])src, (double[])dst, number, scale, bias);
+                } else {
+                    convert((long[])src, (double[])dst, number);
+                }
+                return;
+            case Traits.FLOAT:
+                if (affine) {
+                    convert((float[])src, (double[])dst, number, scale, bias);
+                } else {
+                    convert((float[])src, (double[])dst, number);
+                }
+                return;
+            case Traits.DOUBLE:
+                if (affine) {
+                    convert((double[])src, (double[])dst, number, scale, bias);
+                } else {
+                    convert((double[])src, (double[])dst, number);
+                }
+                return;
+            }
+            break;
+        }
+        throw new IllegalTypeException();
+    }
+
+    /**
+     * Convert the first elements of an array of byte's into an existing
+     * array of byte's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final byte[] src, final byte[] dst,
+            final int number) {
+        if (src != dst) {
+            System.arraycopy(src, 0, dst, 0, number);
+        }
+    }
+
+    /**
+     * Convert the first elements of an array of byte's into an existing
+     * array of byte's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final byte[] src, final byte[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*(src[j] & 0xFF) + bias;
+                    if (value <= 0.0) {
+                        dst[j] = 0;
+                    } else if (value >= 255.0) {
+                        dst[j] = (byte)255;
+                    } else {
+                        dst[j] = (byte)Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of short's into an existing
+     * array of byte's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final short[] src, final byte[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (byte)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of short's into an existing
+     * array of byte's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final short[] src, final byte[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= 0.0) {
+                        dst[j] = 0;
+                    } else if (value >= 255.0) {
+                        dst[j] = (byte)255;
+                    } else {
+                        dst[j] = (byte)Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of int's into an existing
+     * array of byte's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final int[] src, final byte[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (byte)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of int's into an existing
+     * array of byte's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final int[] src, final byte[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= 0.0) {
+                        dst[j] = 0;
+                    } else if (value >= 255.0) {
+                        dst[j] = (byte)255;
+                    } else {
+                        dst[j] = (byte)Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of long's into an existing
+     * array of byte's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final long[] src, final byte[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (byte)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of long's into an existing
+     * array of byte's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final long[] src, final byte[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= 0.0) {
+                        dst[j] = 0;
+                    } else if (value >= 255.0) {
+                        dst[j] = (byte)255;
+                    } else {
+                        dst[j] = (byte)Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of float's into an existing
+     * array of byte's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final float[] src, final byte[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (byte)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of float's into an existing
+     * array of byte's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final float[] src, final byte[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= 0.0) {
+                        dst[j] = 0;
+                    } else if (value >= 255.0) {
+                        dst[j] = (byte)255;
+                    } else {
+                        dst[j] = (byte)Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of double's into an existing
+     * array of byte's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final double[] src, final byte[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (byte)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of double's into an existing
+     * array of byte's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final double[] src, final byte[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= 0.0) {
+                        dst[j] = 0;
+                    } else if (value >= 255.0) {
+                        dst[j] = (byte)255;
+                    } else {
+                        dst[j] = (byte)Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of byte's into an existing
+     * array of short's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final byte[] src, final short[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (short)(src[j] & 0xFF);
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of byte's into an existing
+     * array of short's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final byte[] src, final short[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*(src[j] & 0xFF) + bias;
+                    if (value <= Short.MIN_VALUE) {
+                        dst[j] = Short.MIN_VALUE;
+                    } else if (value >= Short.MAX_VALUE) {
+                        dst[j] = Short.MAX_VALUE;
+                    } else {
+                        dst[j] = (short)Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of short's into an existing
+     * array of short's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final short[] src, final short[] dst,
+            final int number) {
+        if (src != dst) {
+            System.arraycopy(src, 0, dst, 0, number);
+        }
+    }
+
+    /**
+     * Convert the first elements of an array of short's into an existing
+     * array of short's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final short[] src, final short[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= Short.MIN_VALUE) {
+                        dst[j] = Short.MIN_VALUE;
+                    } else if (value >= Short.MAX_VALUE) {
+                        dst[j] = Short.MAX_VALUE;
+                    } else {
+                        dst[j] = (short)Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of int's into an existing
+     * array of short's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final int[] src, final short[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (short)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of int's into an existing
+     * array of short's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final int[] src, final short[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= Short.MIN_VALUE) {
+                        dst[j] = Short.MIN_VALUE;
+                    } else if (value >= Short.MAX_VALUE) {
+                        dst[j] = Short.MAX_VALUE;
+                    } else {
+                        dst[j] = (short)Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of long's into an existing
+     * array of short's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final long[] src, final short[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (short)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of long's into an existing
+     * array of short's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final long[] src, final short[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= Short.MIN_VALUE) {
+                        dst[j] = Short.MIN_VALUE;
+                    } else if (value >= Short.MAX_VALUE) {
+                        dst[j] = Short.MAX_VALUE;
+                    } else {
+                        dst[j] = (short)Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of float's into an existing
+     * array of short's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final float[] src, final short[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (short)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of float's into an existing
+     * array of short's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final float[] src, final short[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= Short.MIN_VALUE) {
+                        dst[j] = Short.MIN_VALUE;
+                    } else if (value >= Short.MAX_VALUE) {
+                        dst[j] = Short.MAX_VALUE;
+                    } else {
+                        dst[j] = (short)Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of double's into an existing
+     * array of short's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final double[] src, final short[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (short)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of double's into an existing
+     * array of short's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final double[] src, final short[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= Short.MIN_VALUE) {
+                        dst[j] = Short.MIN_VALUE;
+                    } else if (value >= Short.MAX_VALUE) {
+                        dst[j] = Short.MAX_VALUE;
+                    } else {
+                        dst[j] = (short)Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of byte's into an existing
+     * array of int's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final byte[] src, final int[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = src[j] & 0xFF;
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of byte's into an existing
+     * array of int's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final byte[] src, final int[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*(src[j] & 0xFF) + bias;
+                    if (value <= Integer.MIN_VALUE) {
+                        dst[j] = Integer.MIN_VALUE;
+                    } else if (value >= Integer.MAX_VALUE) {
+                        dst[j] = Integer.MAX_VALUE;
+                    } else {
+                        dst[j] = (int)Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of short's into an existing
+     * array of int's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final short[] src, final int[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (int)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of short's into an existing
+     * array of int's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final short[] src, final int[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= Integer.MIN_VALUE) {
+                        dst[j] = Integer.MIN_VALUE;
+                    } else if (value >= Integer.MAX_VALUE) {
+                        dst[j] = Integer.MAX_VALUE;
+                    } else {
+                        dst[j] = (int)Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of int's into an existing
+     * array of int's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final int[] src, final int[] dst,
+            final int number) {
+        if (src != dst) {
+            System.arraycopy(src, 0, dst, 0, number);
+        }
+    }
+
+    /**
+     * Convert the first elements of an array of int's into an existing
+     * array of int's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final int[] src, final int[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= Integer.MIN_VALUE) {
+                        dst[j] = Integer.MIN_VALUE;
+                    } else if (value >= Integer.MAX_VALUE) {
+                        dst[j] = Integer.MAX_VALUE;
+                    } else {
+                        dst[j] = (int)Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of long's into an existing
+     * array of int's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final long[] src, final int[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (int)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of long's into an existing
+     * array of int's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final long[] src, final int[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= Integer.MIN_VALUE) {
+                        dst[j] = Integer.MIN_VALUE;
+                    } else if (value >= Integer.MAX_VALUE) {
+                        dst[j] = Integer.MAX_VALUE;
+                    } else {
+                        dst[j] = (int)Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of float's into an existing
+     * array of int's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final float[] src, final int[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (int)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of float's into an existing
+     * array of int's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final float[] src, final int[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= Integer.MIN_VALUE) {
+                        dst[j] = Integer.MIN_VALUE;
+                    } else if (value >= Integer.MAX_VALUE) {
+                        dst[j] = Integer.MAX_VALUE;
+                    } else {
+                        dst[j] = (int)Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of double's into an existing
+     * array of int's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final double[] src, final int[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (int)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of double's into an existing
+     * array of int's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final double[] src, final int[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= Integer.MIN_VALUE) {
+                        dst[j] = Integer.MIN_VALUE;
+                    } else if (value >= Integer.MAX_VALUE) {
+                        dst[j] = Integer.MAX_VALUE;
+                    } else {
+                        dst[j] = (int)Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of byte's into an existing
+     * array of long's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final byte[] src, final long[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = src[j] & 0xFF;
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of byte's into an existing
+     * array of long's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final byte[] src, final long[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*(src[j] & 0xFF) + bias;
+                    if (value <= Long.MIN_VALUE) {
+                        dst[j] = Long.MIN_VALUE;
+                    } else if (value >= Long.MAX_VALUE) {
+                        dst[j] = Long.MAX_VALUE;
+                    } else {
+                        dst[j] = Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of short's into an existing
+     * array of long's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final short[] src, final long[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (long)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of short's into an existing
+     * array of long's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final short[] src, final long[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= Long.MIN_VALUE) {
+                        dst[j] = Long.MIN_VALUE;
+                    } else if (value >= Long.MAX_VALUE) {
+                        dst[j] = Long.MAX_VALUE;
+                    } else {
+                        dst[j] = Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of int's into an existing
+     * array of long's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final int[] src, final long[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (long)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of int's into an existing
+     * array of long's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final int[] src, final long[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= Long.MIN_VALUE) {
+                        dst[j] = Long.MIN_VALUE;
+                    } else if (value >= Long.MAX_VALUE) {
+                        dst[j] = Long.MAX_VALUE;
+                    } else {
+                        dst[j] = Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of long's into an existing
+     * array of long's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final long[] src, final long[] dst,
+            final int number) {
+        if (src != dst) {
+            System.arraycopy(src, 0, dst, 0, number);
+        }
+    }
+
+    /**
+     * Convert the first elements of an array of long's into an existing
+     * array of long's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final long[] src, final long[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= Long.MIN_VALUE) {
+                        dst[j] = Long.MIN_VALUE;
+                    } else if (value >= Long.MAX_VALUE) {
+                        dst[j] = Long.MAX_VALUE;
+                    } else {
+                        dst[j] = Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of float's into an existing
+     * array of long's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final float[] src, final long[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (long)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of float's into an existing
+     * array of long's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final float[] src, final long[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= Long.MIN_VALUE) {
+                        dst[j] = Long.MIN_VALUE;
+                    } else if (value >= Long.MAX_VALUE) {
+                        dst[j] = Long.MAX_VALUE;
+                    } else {
+                        dst[j] = Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of double's into an existing
+     * array of long's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final double[] src, final long[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (long)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of double's into an existing
+     * array of long's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final double[] src, final long[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    double value = scale*src[j] + bias;
+                    if (value <= Long.MIN_VALUE) {
+                        dst[j] = Long.MIN_VALUE;
+                    } else if (value >= Long.MAX_VALUE) {
+                        dst[j] = Long.MAX_VALUE;
+                    } else {
+                        dst[j] = Math.round(value);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of byte's into an existing
+     * array of float's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final byte[] src, final float[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = src[j] & 0xFF;
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of byte's into an existing
+     * array of float's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final byte[] src, final float[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (float)(scale*(src[j] & 0xFF) + bias);
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of short's into an existing
+     * array of float's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final short[] src, final float[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (float)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of short's into an existing
+     * array of float's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final short[] src, final float[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (float)(scale*src[j] + bias);
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of int's into an existing
+     * array of float's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final int[] src, final float[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (float)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of int's into an existing
+     * array of float's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final int[] src, final float[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (float)(scale*src[j] + bias);
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of long's into an existing
+     * array of float's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final long[] src, final float[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (float)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of long's into an existing
+     * array of float's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final long[] src, final float[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (float)(scale*src[j] + bias);
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of float's into an existing
+     * array of float's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final float[] src, final float[] dst,
+            final int number) {
+        if (src != dst) {
+            System.arraycopy(src, 0, dst, 0, number);
+        }
+    }
+
+    /**
+     * Convert the first elements of an array of float's into an existing
+     * array of float's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final float[] src, final float[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (float)(scale*src[j] + bias);
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of double's into an existing
+     * array of float's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final double[] src, final float[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (float)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of double's into an existing
+     * array of float's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final double[] src, final float[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (float)(scale*src[j] + bias);
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of byte's into an existing
+     * array of double's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final byte[] src, final double[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = src[j] & 0xFF;
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of byte's into an existing
+     * array of double's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final byte[] src, final double[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = scale*(src[j] & 0xFF) + bias;
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of short's into an existing
+     * array of double's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final short[] src, final double[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (double)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of short's into an existing
+     * array of double's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final short[] src, final double[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = scale*src[j] + bias;
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of int's into an existing
+     * array of double's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final int[] src, final double[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (double)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of int's into an existing
+     * array of double's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final int[] src, final double[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = scale*src[j] + bias;
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of long's into an existing
+     * array of double's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final long[] src, final double[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (double)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of long's into an existing
+     * array of double's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final long[] src, final double[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = scale*src[j] + bias;
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of float's into an existing
+     * array of double's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final float[] src, final double[] dst,
+            final int number) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = (double)src[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of float's into an existing
+     * array of double's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final float[] src, final double[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = scale*src[j] + bias;
+                }
+            }
+        });
+    }
+
+    /**
+     * Convert the first elements of an array of double's into an existing
+     * array of double's.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray)} for the rules of the
+     * conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array.
+     * @param number - The number of elements to convert.
+     */
+    public static void convert(final double[] src, final double[] dst,
+            final int number) {
+        if (src != dst) {
+            System.arraycopy(src, 0, dst, 0, number);
+        }
+    }
+
+    /**
+     * Convert the first elements of an array of double's into an existing
+     * array of double's with an affine correction.
+     * <p>
+     * See {@link #convert(ShapedArray, ShapedArray, double, double)} for
+     * the rules of the conversion.
+     * </p>
+     * @param src    - The source values.
+     * @param dst    - The destination array (may be the same as {@code src}).
+     * @param number - The number of elements to convert.
+     * @param scale  - The factor applied to the source values.
+     * @param bias   - The offset added to the scaled values.
+     */
+    public static void convert(final double[] src, final double[] dst,
+            final int number, final double scale, final double bias) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = scale*src[j] + bias;
+                }
+            }
+        });
+    }
+
+
+    /*=======================================================================*/
+    /* ELEMENT-WISE OPERATIONS */
+
+    /* Identifiers of the element-wise operations. */
+    private static final int ADD = 0;
+    private static final int SUB = 1;
+    private static final int MUL = 2;
+    private static final int DIV = 3;
+    private static final int MIN = 4;
+    private static final int MAX = 5;
+    private static final int FMA = 6;
+
+    /**
+     * Compute the element-wise sum of two arrays.
+     * <p>
+     * The operands are broadcast to a common shape (see
+     * {@link #broadcast(Shape, Shape)}), the result has the type of the
+     * operand with the largest type (e.g. {@code float} for an array of
+     * {@code float}'s and an array of {@code int}'s).
+     * </p>
+     * @param a - The first operand.
+     * @param b - The second operand.
+     * @return A new array with the element-wise sum of {@code a} and
+     *         {@code b}.
+     */
+    public static ShapedArray add(ShapedArray a, ShapedArray b) {
+        return apply(ADD, a, b, null);
+    }
+
+    /**
+     * Store the element-wise sum of two arrays into an existing array.
+     * <p>
+     * The operands must be broadcastable to the shape of the destination (see
+     * {@link #broadcast(Shape, Shape)}), their values are converted to the
+     * type of the destination.  The destination may be one of the operands:
+     * for instance {@code add(x, x, y)} updates {@code x} in place.
+     * The operation is done in parallel, without temporary arrays when the
+     * destination is a flat array and the operands have its type.
+     * </p>
+     * @param dst - The destination array.
+     * @param a   - The first operand.
+     * @param b   - The second operand.
+     */
+    public static void add(ShapedArray dst, ShapedArray a, ShapedArray b) {
+        apply(ADD, dst, a, b, null);
+    }
+
+    /**
+     * Compute the element-wise difference of two arrays.
+     * <p>
+     * The operands are broadcast to a common shape (see
+     * {@link #broadcast(Shape, Shape)}), the result has the type of the
+     * operand with the largest type (e.g. {@code float} for an array of
+     * {@code float}'s and an array of {@code int}'s).
+     * </p>
+     * @param a - The first operand.
+     * @param b - The second operand.
+     * @return A new array with the element-wise difference of {@code a} and
+     *         {@code b}.
+     */
+    public static ShapedArray sub(ShapedArray a, ShapedArray b) {
+        return apply(SUB, a, b, null);
+    }
+
+    /**
+     * Store the element-wise difference of two arrays into an existing array.
+     * <p>
+     * The operands must be broadcastable to the shape of the destination (see
+     * {@link #broadcast(Shape, Shape)}), their values are converted to the
+     * type of the destination.  The destination may be one of the operands:
+     * for instance {@code sub(x, x, y)} updates {@code x} in place.
+     * The operation is done in parallel, without temporary arrays when the
+     * destination is a flat array and the operands have its type.
+     * </p>
+     * @param dst - The destination array.
+     * @param a   - The first operand.
+     * @param b   - The second operand.
+     */
+    public static void sub(ShapedArray dst, ShapedArray a, ShapedArray b) {
+        apply(SUB, dst, a, b, null);
+    }
+
+    /**
+     * Compute the element-wise product of two arrays.
+     * <p>
+     * The operands are broadcast to a common shape (see
+     * {@link #broadcast(Shape, Shape)}), the result has the type of the
+     * operand with the largest type (e.g. {@code float} for an array of
+     * {@code float}'s and an array of {@code int}'s).
+     * </p>
+     * @param a - The first operand.
+     * @param b - The second operand.
+     * @return A new array with the element-wise product of {@code a} and
+     *         {@code b}.
+     */
+    public static ShapedArray mul(ShapedArray a, ShapedArray b) {
+        return apply(MUL, a, b, null);
+    }
+
+    /**
+     * Store the element-wise product of two arrays into an existing array.
+     * <p>
+     * The operands must be broadcastable to the shape of the destination (see
+     * {@link #broadcast(Shape, Shape)}), their values are converted to the
+     * type of the destination.  The destination may be one of the operands:
+     * for instance {@code mul(x, x, y)} updates {@code x} in place.
+     * The operation is done in parallel, without temporary arrays when the
+     * destination is a flat array and the operands have its type.
+     * </p>
+     * @param dst - The destination array.
+     * @param a   - The first operand.
+     * @param b   - The second operand.
+     */
+    public static void mul(ShapedArray dst, ShapedArray a, ShapedArray b) {
+        apply(MUL, dst, a, b, null);
+    }
+
+    /**
+     * Compute the element-wise quotient of two arrays.
+     * <p>
+     * The operands are broadcast to a common shape (see
+     * {@link #broadcast(Shape, Shape)}), the result has the type of the
+     * operand with the largest type (e.g. {@code float} for an array of
+     * {@code float}'s and an array of {@code int}'s).
+     * </p>
+     * @param a - The first operand.
+     * @param b - The second operand.
+     * @return A new array with the element-wise quotient of {@code a} and
+     *         {@code b}.
+     */
+    public static ShapedArray div(ShapedArray a, ShapedArray b) {
+        return apply(DIV, a, b, null);
+    }
+
+    /**
+     * Store the element-wise quotient of two arrays into an existing array.
+     * <p>
+     * The operands must be broadcastable to the shape of the destination (see
+     * {@link #broadcast(Shape, Shape)}), their values are converted to the
+     * type of the destination.  The destination may be one of the operands:
+     * for instance {@code div(x, x, y)} updates {@code x} in place.
+     * The operation is done in parallel, without temporary arrays when the
+     * destination is a flat array and the operands have its type.
+     * </p>
+     * @param dst - The destination array.
+     * @param a   - The first operand.
+     * @param b   - The second operand.
+     */
+    public static void div(ShapedArray dst, ShapedArray a, ShapedArray b) {
+        apply(DIV, dst, a, b, null);
+    }
+
+    /**
+     * Compute the element-wise minimum of two arrays.
+     * <p>
+     * The operands are broadcast to a common shape (see
+     * {@link #broadcast(Shape, Shape)}), the result has the type of the
+     * operand with the largest type (e.g. {@code float} for an array of
+     * {@code float}'s and an array of {@code int}'s).
+     * </p>
+     * @param a - The first operand.
+     * @param b - The second operand.
+     * @return A new array with the element-wise minimum of {@code a} and
+     *         {@code b}.
+     */
+    public static ShapedArray min(ShapedArray a, ShapedArray b) {
+        return apply(MIN, a, b, null);
+    }
+
+    /**
+     * Store the element-wise minimum of two arrays into an existing array.
+     * <p>
+     * The operands must be broadcastable to the shape of the destination (see
+     * {@link #broadcast(Shape, Shape)}), their values are converted to the
+     * type of the destination.  The destination may be one of the operands:
+     * for instance {@code min(x, x, y)} updates {@code x} in place.
+     * The operation is done in parallel, without temporary arrays when the
+     * destination is a flat array and the operands have its type.
+     * </p>
+     * @param dst - The destination array.
+     * @param a   - The first operand.
+     * @param b   - The second operand.
+     */
+    public static void min(ShapedArray dst, ShapedArray a, ShapedArray b) {
+        apply(MIN, dst, a, b, null);
+    }
+
+    /**
+     * Compute the element-wise maximum of two arrays.
+     * <p>
+     * The operands are broadcast to a common shape (see
+     * {@link #broadcast(Shape, Shape)}), the result has the type of the
+     * operand with the largest type (e.g. {@code float} for an array of
+     * {@code float}'s and an array of {@code int}'s).
+     * </p>
+     * @param a - The first operand.
+     * @param b - The second operand.
+     * @return A new array with the element-wise maximum of {@code a} and
+     *         {@code b}.
+     */
+    public static ShapedArray max(ShapedArray a, ShapedArray b) {
+        return apply(MAX, a, b, null);
+    }
+
+    /**
+     * Store the element-wise maximum of two arrays into an existing array.
+     * <p>
+     * The operands must be broadcastable to the shape of the destination (see
+     * {@link #broadcast(Shape, Shape)}), their values are converted to the
+     * type of the destination.  The destination may be one of the operands:
+     * for instance {@code max(x, x, y)} updates {@code x} in place.
+     * The operation is done in parallel, without temporary arrays when the
+     * destination is a flat array and the operands have its type.
+     * </p>
+     * @param dst - The destination array.
+     * @param a   - The first operand.
+     * @param b   - The second operand.
+     */
+    public static void max(ShapedArray dst, ShapedArray a, ShapedArray b) {
+        apply(MAX, dst, a, b, null);
+    }
+
+    /**
+     * Compute the element-wise multiply-add of three arrays.
+     * <p>
+     * Each element of the result is {@code a*b + c} (with the rounding of
+     * the multiplication and of the addition), the operands are broadcast
+     * as for {@link #add(ShapedArray, ShapedArray)}.
+     * </p>
+     * @param a - The first factor.
+     * @param b - The second factor.
+     * @param c - The addend.
+     * @return A new array with the element-wise values of {@code a*b + c}.
+     */
+    public static ShapedArray fma(ShapedArray a, ShapedArray b, ShapedArray c) {
+        return apply(FMA, a, b, c);
+    }
+
+    /**
+     * Store the element-wise multiply-add of three arrays into an existing
+     * array.
+     * <p>
+     * The rules are the same as for
+     * {@link #add(ShapedArray, ShapedArray, ShapedArray)}.  For instance
+     * {@code fma(x, w, y, x)} adds {@code w*y} to {@code x} in place.
+     * </p>
+     * @param dst - The destination array.
+     * @param a   - The first factor.
+     * @param b   - The second factor.
+     * @param c   - The addend.
+     */
+    public static void fma(ShapedArray dst, ShapedArray a, ShapedArray b,
+            ShapedArray c) {
+        apply(FMA, dst, a, b, c);
+    }
+
+    /**
+     * Get the shape resulting from broadcasting two shapes.
+     * <p>
+     * The dimensions are matched from the first (fastest varying) one, the
+     * missing trailing dimensions of the shape with the smallest rank are
+     * taken as being equal to one.  Matching dimensions must be equal or one
+     * of them must be equal to one, the resulting dimension is then the
+     * largest of the two.  For instance, a map of dimensions
+     * {@code (n1,n2)} is broadcast to every plane of a stack of dimensions
+     * {@code (n1,n2,n3)}.
+     * </p>
+     * @param a - The first shape.
+     * @param b - The second shape.
+     * @return The shape of the result of an element-wise operation between
+     *         arrays of shapes {@code a} and {@code b}.
+     * @throws NonConformableArrayException if the shapes cannot be
+     *         broadcast.
+     */
+    public static Shape broadcast(Shape a, Shape b) {
+        if (a.equals(b)) {
+            return a;
+        }
+        int rank = Math.max(a.rank(), b.rank());
+        int[] dims = new int[rank];
+        for (int k = 0; k < rank; ++k) {
+            int adim = (k < a.rank() ? a.dimension(k) : 1);
+            int bdim = (k < b.rank() ? b.dimension(k) : 1);
+            if (adim == bdim || bdim == 1) {
+                dims[k] = adim;
+            } else if (adim == 1) {
+                dims[k] = bdim;
+            } else {
+                throw new NonConformableArrayException("Shapes cannot be broadcast.");
+            }
+        }
+        return Shape.make(dims);
+    }
+
+    private static ShapedArray apply(int op, ShapedArray a, ShapedArray b,
+            ShapedArray c) {
+        Shape shape = broadcast(a.getShape(), b.getShape());
+        int type = Math.max(a.getType(), b.getType());
+        if (c != null) {
+            shape = broadcast(shape, c.getShape());
+            type = Math.max(type, c.getType());
+        }
+        if (type < Traits.BYTE || type > Traits.DOUBLE) {
+            throw new IllegalTypeException();
+        }
+        ShapedArray dst = ArrayFactory.create(type, shape);
+        apply(op, dst, a, b, c);
+        return dst;
+    }
+
+    private static void apply(final int op, ShapedArray dst, ShapedArray a,
+            ShapedArray b, ShapedArray c) {
+        final Shape shape = dst.getShape();
+        final int type = dst.getType();
+        final int number = dst.getNumber();
+
+        /* Get the elements of the operands with the type of the destination
+           and their strides along the dimensions of the destination (before
+           writing anything as the destination may be an operand). */
+        int rank = shape.rank();
+        int count = (c == null ? 2 : 3);
+        final Object[] data = new Object[3];
+        int[][] strides = new int[count][];
+        for (int i = 0; i < count; ++i) {
+            ShapedArray arr = (i == 0 ? a : (i == 1 ? b : c));
+            strides[i] = broadcastStrides(arr.getShape(), shape);
+            data[i] = getFlatData(arr, type);
+        }
+        Object storage = getFlatStorage(dst);
+        ShapedArray tmp = null;
+        if (storage == null) {
+            tmp = ArrayFactory.create(type, shape);
+            storage = getFlatStorage(tmp);
+        }
+        final Object out = storage;
+
+        /* Drop the dimensions of length one and merge the consecutive
+           dimensions along which all operands are contiguous (or
+           broadcast). */
+        final int[] dim = new int[rank];
+        final int[][] stride = new int[3][rank];
+        int n = 0;
+        for (int k = 0; k < rank; ++k) {
+            int len = shape.dimension(k);
+            if (len == 1) {
+                continue;
+            }
+            boolean merge = (n > 0);
+            for (int i = 0; i < count && merge; ++i) {
+                merge = (strides[i][k] == stride[i][n - 1]*dim[n - 1]);
+            }
+            if (merge) {
+                dim[n - 1] *= len;
+            } else {
+                dim[n] = len;
+                for (int i = 0; i < count; ++i) {
+                    stride[i][n] = strides[i][k];
+                }
+                ++n;
+            }
+        }
+        if (n == 0) {
+            /* All dimensions are equal to one. */
+            dim[0] = 1;
+            n = 1;
+        }
+        final int r = n; // number of remaining dimensions
+
+        /* Process the runs along the first dimension, possibly splitting
+           them between the threads. */
+        if (number > 0) {
+            Parallel.run(number, new Parallel.Loop() {
+                @Override
+                public void run(int first, int last) {
+                    int length = dim[0];
+                    int[] idx = new int[r];
+                    int[] base = new int[3];
+                    int q = first/length;
+                    int k0 = first - q*length;
+                    for (int k = 1; k < r; ++k) {
+                        idx[k] = q % dim[k];
+                        q /= dim[k];
+                        for (int i = 0; i < 3; ++i) {
+                            base[i] += idx[k]*stride[i][k];
+                        }
+                    }
+                    int j = first;
+                    while (true) {
+                        int len = Math.min(length - k0, last - j);
+                        apply(op, type, out, j,
+                              data[0], base[0] + k0*stride[0][0], stride[0][0],
+                              data[1], base[1] + k0*stride[1][0], stride[1][0],
+                              data[2], base[2] + k0*stride[2][0], stride[2][0],
+                              len);
+                        j += len;
+                        if (j >= last) {
+                            break;
+                        }
+                        /* Move to the next run. */
+                        k0 = 0;
+                        for (int k = 1; k < r; ++k) {
+                            if (++idx[k] < dim[k]) {
+                                for (int i = 0; i < 3; ++i) {
+                                    base[i] += stride[i][k];
+                                }
+                                break;
+                            }
+                            idx[k] = 0;
+                            for (int i = 0; i < 3; ++i) {
+                                base[i] -= (dim[k] - 1)*stride[i][k];
+                            }
+                        }
+                    }
+                }
+            });
+        }
+        if (tmp != null) {
+            dst.assign(tmp);
+        }
+    }
+
+    /* Get the strides of an operand along the dimensions of the result of
+     * an element-wise operation (broadcast dimensions have a zero
+     * stride). */
+    private static int[] broadcastStrides(Shape shape, Shape result) {
+        int rank = result.rank();
+        int[] strides = new int[rank];
+        int stride = 1;
+        for (int k = 0; k < Math.max(rank, shape.rank()); ++k) {
+            int dim = (k < shape.rank() ? shape.dimension(k) : 1);
+            int len = (k < rank ? result.dimension(k) : 1);
+            if (dim == len && k < rank) {
+                strides[k] = stride;
+            } else if (dim != 1) {
+                throw new NonConformableArrayException("Operand cannot be broadcast to the shape of the destination.");
+            }
+            stride *= dim;
+        }
+        return strides;
+    }
+
+    /* Get the elements of an array in column-major order and with a given
+     * type, without copying them if possible. */
+    private static Object getFlatData(ShapedArray arr, int type) {
+        Object data = getFlatData(arr);
+        if (arr.getType() == type) {
+            return data;
+        }
+        Object copy = getFlatData(ArrayFactory.create(type, arr.getShape()));
+        convert(data, arr.getType(), copy, type, arr.getNumber(), false, 1.0, 0.0);
+        return copy;
+    }
+
+    /* Apply an element-wise operation to a run of elements. */
+    private static void apply(int op, int type, Object dst, int j,
+            Object x, int jx, int sx, Object y, int jy, int sy,
+            Object z, int jz, int sz, int n) {
+        switch (type) {
+        case Traits.BYTE:
+            apply(op, (byte[])dst, j, (byte[])x, jx, sx,
+                  (byte[])y, jy, sy, (byte[])z, jz, sz, n);
+            return;
+        case Traits.SHORT:
+            apply(op, (short[])dst, j, (short[])x, jx, sx,
+                  (short[])y, jy, sy, (short[])z, jz, sz, n);
+            return;
+        case Traits.INT:
+            apply(op, (int[])dst, j, (int[])x, jx, sx,
+                  (int[])y, jy, sy, (int[])z, jz, sz, n);
+            return;
+        case Traits.LONG:
+            apply(op, (long[])dst, j, (long[])x, jx, sx,
+                  (long[])y, jy, sy, (long[])z, jz, sz, n);
+            return;
+        case Traits.FLOAT:
+            apply(op, (float[])dst, j, (float[])x, jx, sx,
+                  (float[])y, jy, sy, (float[])z, jz, sz, n);
+            return;
+        case Traits.DOUBLE:
+            apply(op, (double[])dst, j, (double[])x, jx, sx,
+                  (double[])y, jy, sy, (double[])z, jz, sz, n);
+            return;
+        default:
+            throw new IllegalTypeException();
+        }
+    }
+
+    private static void apply(int op, byte[] dst, int j,
+            byte[] x, int jx, int sx, byte[] y, int jy, int sy,
+            byte[] z, int jz, int sz, int n) {
+        int end = j + n;
+        switch (op) {
+        case ADD:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = (byte)(x[jx] + y[jy]);
+            }
+            break;
+        case SUB:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = (byte)(x[jx] - y[jy]);
+            }
+            break;
+        case MUL:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = (byte)(x[jx]*y[jy]);
+            }
+            break;
+        case DIV:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = (byte)((x[jx] & 0xFF)/(y[jy] & 0xFF));
+            }
+            break;
+        case MIN:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = ((x[jx] & 0xFF) <= (y[jy] & 0xFF) ? x[jx] : y[jy]);
+            }
+            break;
+        case MAX:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = ((x[jx] & 0xFF) >= (y[jy] & 0xFF) ? x[jx] : y[jy]);
+            }
+            break;
+        case FMA:
+            for (; j < end; ++j, jx += sx, jy += sy, jz += sz) {
+                dst[j] = (byte)(x[jx]*y[jy] + z[jz]);
+            }
+            break;
+        }
+    }
+
+    private static void apply(int op, short[] dst, int j,
+            short[] x, int jx, int sx, short[] y, int jy, int sy,
+            short[] z, int jz, int sz, int n) {
+        int end = j + n;
+        switch (op) {
+        case ADD:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = (short)(x[jx] + y[jy]);
+            }
+            break;
+        case SUB:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = (short)(x[jx] - y[jy]);
+            }
+            break;
+        case MUL:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = (short)(x[jx]*y[jy]);
+            }
+            break;
+        case DIV:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = (short)(x[jx]/y[jy]);
+            }
+            break;
+        case MIN:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = (x[jx] <= y[jy] ? x[jx] : y[jy]);
+            }
+            break;
+        case MAX:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = (x[jx] >= y[jy] ? x[jx] : y[jy]);
+            }
+            break;
+        case FMA:
+            for (; j < end; ++j, jx += sx, jy += sy, jz += sz) {
+                dst[j] = (short)(x[jx]*y[jy] + z[jz]);
+            }
+            break;
+        }
+    }
+
+    private static void apply(int op, int[] dst, int j,
+            int[] x, int jx, int sx, int[] y, int jy, int sy,
+            int[] z, int jz, int sz, int n) {
+        int end = j + n;
+        switch (op) {
+        case ADD:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = x[jx] + y[jy];
+            }
+            break;
+        case SUB:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = x[jx] - y[jy];
+            }
+            break;
+        case MUL:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = x[jx]*y[jy];
+            }
+            break;
+        case DIV:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = x[jx]/y[jy];
+            }
+            break;
+        case MIN:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = Math.min(x[jx], y[jy]);
+            }
+            break;
+        case MAX:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = Math.max(x[jx], y[jy]);
+            }
+            break;
+        case FMA:
+            for (; j < end; ++j, jx += sx, jy += sy, jz += sz) {
+                dst[j] = x[jx]*y[jy] + z[jz];
+            }
+            break;
+        }
+    }
+
+    private static void apply(int op, long[] dst, int j,
+            long[] x, int jx, int sx, long[] y, int jy, int sy,
+            long[] z, int jz, int sz, int n) {
+        int end = j + n;
+        switch (op) {
+        case ADD:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = x[jx] + y[jy];
+            }
+            break;
+        case SUB:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = x[jx] - y[jy];
+            }
+            break;
+        case MUL:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = x[jx]*y[jy];
+            }
+            break;
+        case DIV:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = x[jx]/y[jy];
+            }
+            break;
+        case MIN:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = Math.min(x[jx], y[jy]);
+            }
+            break;
+        case MAX:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = Math.max(x[jx], y[jy]);
+            }
+            break;
+        case FMA:
+            for (; j < end; ++j, jx += sx, jy += sy, jz += sz) {
+                dst[j] = x[jx]*y[jy] + z[jz];
+            }
+            break;
+        }
+    }
+
+    private static void apply(int op, float[] dst, int j,
+            float[] x, int jx, int sx, float[] y, int jy, int sy,
+            float[] z, int jz, int sz, int n) {
+        int end = j + n;
+        switch (op) {
+        case ADD:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = x[jx] + y[jy];
+            }
+            break;
+        case SUB:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = x[jx] - y[jy];
+            }
+            break;
+        case MUL:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = x[jx]*y[jy];
+            }
+            break;
+        case DIV:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = x[jx]/y[jy];
+            }
+            break;
+        case MIN:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = Math.min(x[jx], y[jy]);
+            }
+            break;
+        case MAX:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = Math.max(x[jx], y[jy]);
+            }
+            break;
+        case FMA:
+            for (; j < end; ++j, jx += sx, jy += sy, jz += sz) {
+                dst[j] = x[jx]*y[jy] + z[jz];
+            }
+            break;
+        }
+    }
+
+    private static void apply(int op, double[] dst, int j,
+            double[] x, int jx, int sx, double[] y, int jy, int sy,
+            double[] z, int jz, int sz, int n) {
+        int end = j + n;
+        switch (op) {
+        case ADD:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = x[jx] + y[jy];
+            }
+            break;
+        case SUB:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = x[jx] - y[jy];
+            }
+            break;
+        case MUL:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = x[jx]*y[jy];
+            }
+            break;
+        case DIV:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = x[jx]/y[jy];
+            }
+            break;
+        case MIN:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = Math.min(x[jx], y[jy]);
+            }
+            break;
+        case MAX:
+            for (; j < end; ++j, jx += sx, jy += sy) {
+                dst[j] = Math.max(x[jx], y[jy]);
+            }
+            break;
+        case FMA:
+            for (; j < end; ++j, jx += sx, jy += sy, jz += sz) {
+                dst[j] = x[jx]*y[jy] + z[jz];
+            }
+            break;
+        }
+    }
+
+    /*=======================================================================*/
+    /* REDUCTIONS ALONG A DIMENSION */
+
+    /**
+     * Reduce an array along one of its dimensions.
+     * <p>
+     * The result has the dimensions of {@code arr} except the reduced one,
+     * each of its elements is the reduction of the values along the reduced
+     * dimension.  For instance, the maximum intensity projection of a 3D
+     * stack along its third dimension is {@code reduce(arr, 2, MAX)}.  The
+     * possible reductions are:
+     * </p><ul>
+     * <li>{@link ShapedArray#SUM} and {@link ShapedArray#MEAN} for the sum
+     *     and the average of the values;</li>
+     * <li>{@link ShapedArray#VARIANCE} for the unbiased variance of the
+     *     values (NaN if the reduced dimension is less than 2);</li>
+     * <li>{@link ShapedArray#MIN} and {@link ShapedArray#MAX} for the
+     *     minimum and the maximum values, the result has the same type as
+     *     {@code arr} (NaN values are ignored as for
+     *     {@link FloatArray#min()});</li>
+     * <li>{@link ShapedArray#ARGMAX} for the index of the first maximum along
+     *     the reduced dimension, the result is an array of {@code int}'s
+     *     (NaN values are ignored as for {@link ShapedArray#MAX}, the index
+     *     is 0 if all values are NaN).</li>
+     * </ul><p>
+     * Sums, averages and variances are computed in double precision and
+     * stored as {@code float}'s for an array of {@code float}'s and as
+     * {@code double}'s otherwise.  Bytes are assumed to be unsigned.
+     * </p><p>
+     * The elements are read in the order of their storage, without
+     * making permuted copies: the values are accumulated by runs of
+     * elements which are contiguous in the storage, one position along the
+     * reduced dimension after the other.  The computation is split between
+     * threads along the elements of the result.
+     * </p>
+     * @param arr  - The array to reduce.
+     * @param axis - The index of the dimension to reduce, a negative index
+     *               is taken with respect to the end (-1 for the last
+     *               dimension).
+     * @param op   - The reduction.
+     * @return An array whose rank is one less than that of {@code arr} (a
+     *         scalar for a 1-D array).
+     * @throws IllegalArgumentException if {@code op} is not a valid
+     *         reduction or if {@code arr} is a scalar.
+     */
+    public static ShapedArray reduce(ShapedArray arr, int axis, final int op) {
+        final int rank = arr.getRank();
+        if (rank < 1) {
+            throw new IllegalArgumentException("Cannot reduce a scalar.");
+        }
+        if (axis < 0) {
+            /* A negative index is taken with respect to the end. */
+            axis += rank;
+        }
+        if (axis < 0 || axis >= rank) {
+            throw new IndexOutOfBoundsException("Dimension index out of bounds.");
+        }
+        final int type = arr.getType();
+        if (type < Traits.BYTE || type > Traits.DOUBLE) {
+            throw new IllegalTypeException();
+        }
+        int outType;
+        switch (op) {
+        case ShapedArray.SUM:
+        case ShapedArray.MEAN:
+        case ShapedArray.VARIANCE:
+            outType = (type == Traits.FLOAT ? Traits.FLOAT : Traits.DOUBLE);
+            break;
+        case ShapedArray.MIN:
+        case ShapedArray.MAX:
+            outType = type;
+            break;
+        case ShapedArray.ARGMAX:
+            outType = Traits.INT;
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown reduction.");
+        }
+
+        /* Get the storage of the elements with their strides. */
+        int[] dims = arr.getShape().copyDimensions();
+        final Object data;
+        final int origin;
+        int[] strides;
+        if (arr instanceof StorageLayout) {
+            StorageLayout layout = (StorageLayout)arr;
+            data = layout.getStorage();
+            origin = layout.getStorageOffset();
+            strides = layout.getStorageStrides();
+        } else {
+            data = getFlatData(arr);
+            origin = 0;
+            strides = new int[rank];
+            for (int k = 0, s = 1; k < rank; ++k) {
+                strides[k] = s;
+                s *= dims[k];
+            }
+        }
+        final int n = dims[axis];
+        final int step = strides[axis];
+        if (n == 0 && op != ShapedArray.SUM) {
+            throw new IllegalArgumentException("Cannot reduce a dimension of length zero.");
+        }
+
+        /* Merge the leading dimensions into rows of equally spaced
+           elements, the other dimensions (but the reduced one) are
+           iterated. */
+        int m = 0;
+        int rowLength = 1;
+        int rowStride = 1;
+        while (m < axis) {
+            if (dims[m] != 1) {
+                if (rowLength == 1) {
+                    rowStride = strides[m];
+                } else if (strides[m] != rowStride*rowLength) {
+                    break;
+                }
+                rowLength *= dims[m];
+            }
+            ++m;
+        }
+        final int length = rowLength;
+        final int stride = rowStride;
+        final int[] dim = new int[rank];
+        final int[] outerStride = new int[rank];
+        int r = 0;
+        for (int k = m; k < rank; ++k) {
+            if (k != axis && dims[k] != 1) {
+                dim[r] = dims[k];
+                outerStride[r] = strides[k];
+                ++r;
+            }
+        }
+        final int outer = r; // number of iterated dimensions
+
+        /* Create the result. */
+        int[] outDims = new int[rank - 1];
+        int number = 1;
+        for (int k = 0, j = 0; k < rank; ++k) {
+            if (k != axis) {
+                outDims[j++] = dims[k];
+                number *= dims[k];
+            }
+        }
+        final Object out = getFlatData(ArrayFactory.create(outType, Shape.make(number)));
+        if (number > 0) {
+            Parallel.run(number, Parallel.getGrain(number, (long)number*n),
+                    new Parallel.Loop() {
+                @Override
+                public void run(int first, int last) {
+                    int[] idx = new int[outer];
+                    int q = first/length;
+                    int i0 = first - q*length;
+                    int offset = origin;
+                    for (int k = 0; k < outer; ++k) {
+                        idx[k] = q % dim[k];
+                        q /= dim[k];
+                        offset += idx[k]*outerStride[k];
+                    }
+                    int size = Math.min(length, last - first);
+                    double[] acc = null, acc2 = null;
+                    if (op == ShapedArray.SUM || op == ShapedArray.MEAN) {
+                        acc = new double[size];
+                    } else if (op == ShapedArray.VARIANCE) {
+                        acc = new double[size];
+                        acc2 = new double[size];
+                    }
+                    int j = first;
+                    while (true) {
+                        int len = Math.min(length - i0, last - j);
+                        reduce(op, type, data, offset + i0*stride, stride,
+                               step, n, out, j, len, acc, acc2);
+                        j += len;
+                        if (j >= last) {
+                            break;
+                        }
+                        /* Move to the next row. */
+                        i0 = 0;
+                        for (int k = 0; k < outer; ++k) {
+                            if (++idx[k] < dim[k]) {
+                                offset += outerStride[k];
+                                break;
+                            }
+                            idx[k] = 0;
+                            offset -= (dim[k] - 1)*outerStride[k];
+                        }
+                    }
+                }
+            });
+        }
+        return wrap(out, Shape.make(outDims));
+    }
+
+    /* Wrap a Java array into a shaped array. */
+    private static ShapedArray wrap(Object data, Shape shape) {
+        if (data instanceof byte[]) {
+            return ArrayFactory.wrap((byte[])data, shape);
+        } else if (data instanceof short[]) {
+            return ArrayFactory.wrap((short[])data, shape);
+        } else if (data instanceof int[]) {
+            return ArrayFactory.wrap((int[])data, shape);
+        } else if (data instanceof long[]) {
+            return ArrayFactory.wrap((long[])data, shape);
+        } else if (data instanceof float[]) {
+            return ArrayFactory.wrap((float[])data, shape);
+        } else if (data instanceof double[]) {
+            return ArrayFactory.wrap((double[])data, shape);
+        } else {
+            throw new IllegalTypeException();
+        }
+    }
+
+    /* Store accumulated values into a run of the result of a reduction. */
+    private static void store(Object out, int j, double[] acc, int len,
+            double scale) {
+        if (out instanceof float[]) {
+            float[] y = (float[])out;
+            for (int i = 0; i < len; ++i) {
+                y[j + i] = (float)(scale*acc[i]);
+            }
+        } else {
+            double[] y = (double[])out;
+            for (int i = 0; i < len; ++i) {
+                y[j + i] = scale*acc[i];
+            }
+        }
+    }
+
+    /* Reduce a run of elements of the result. */
+    private static void reduce(int op, int type, Object data, int offset,
+            int stride, int step, int n, Object out, int j, int len,
+            double[] acc, double[] acc2) {
+        switch (type) {
+        case Traits.BYTE:
+            reduce(op, (byte[])data, offset, stride, step, n, out, j, len,
+                   acc, acc2);
+            return;
+        case Traits.SHORT:
+            reduce(op, (short[])data, offset, stride, step, n, out, j, len,
+                   acc, acc2);
+            return;
+        case Traits.INT:
+            reduce(op, (int[])data, offset, stride, step, n, out, j, len,
+                   acc, acc2);
+            return;
+        case Traits.LONG:
+            reduce(op, (long[])data, offset, stride, step, n, out, j, len,
+                   acc, acc2);
+            return;
+        case Traits.FLOAT:
+            reduce(op, (float[])data, offset, stride, step, n, out, j, len,
+                   acc, acc2);
+            return;
+        case Traits.DOUBLE:
+            reduce(op, (double[])data, offset, stride, step, n, out, j, len,
+                   acc, acc2);
+            return;
+        default:
+            throw new IllegalTypeException();
+        }
+    }
+
+    /*
+     * Reduce values of byte's along a dimension.  The i-th element of
+     * the run of the result is computed from the elements x[offset + k*step
+     * + i*stride] for k = 0, ..., n - 1.
+     */
+    private static void reduce(int op, byte[] x, int offset, int stride,
+            int step, int n, Object out, int j, int len,
+            double[] acc, double[] acc2) {
+        switch (op) {
+        case ShapedArray.SUM:
+        case ShapedArray.MEAN:
+            for (int i = 0; i < len; ++i) {
+                acc[i] = 0.0;
+            }
+            for (int k = 0; k < n; ++k, offset += step) {
+                for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                    acc[i] += (x[jx] & 0xFF);
+                }
+            }
+            store(out, j, acc, len, (op == ShapedArray.MEAN ? 1.0/n : 1.0));
+            break;
+        case ShapedArray.VARIANCE:
+            /* Welford's algorithm for each element of the result. */
+            for (int i = 0; i < len; ++i) {
+                acc[i] = 0.0;
+                acc2[i] = 0.0;
+            }
+            for (int k = 0; k < n; ++k, offset += step) {
+                double w = 1.0/(k + 1);
+                for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                    double value = (x[jx] & 0xFF);
+                    double delta = value - acc[i];
+                    acc[i] += w*delta;
+                    acc2[i] += delta*(value - acc[i]);
+                }
+            }
+            store(out, j, acc2, len, (n > 1 ? 1.0/(n - 1) : Double.NaN));
+            break;
+        case ShapedArray.MIN:
+        case ShapedArray.MAX: {
+            byte[] best = (byte[])out;
+            for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                best[j + i] = x[jx];
+            }
+            boolean min = (op == ShapedArray.MIN);
+            for (int k = 1; k < n; ++k) {
+                offset += step;
+                for (int i = j, jx = offset; i < j + len; ++i, jx += stride) {
+                    int value = (x[jx] & 0xFF);
+                    if (min ? value < (best[i] & 0xFF) : value > (best[i] & 0xFF)) {
+                        best[i] = x[jx];
+                    }
+                }
+            }
+            break;
+        }
+        case ShapedArray.ARGMAX: {
+            int[] index = (int[])out;
+            byte[] best = new byte[len];
+            for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                best[i] = x[jx];
+                index[j + i] = 0;
+            }
+            for (int k = 1; k < n; ++k) {
+                offset += step;
+                for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                    if ((x[jx] & 0xFF) > (best[i] & 0xFF)) {
+                        best[i] = x[jx];
+                        index[j + i] = k;
+                    }
+                }
+            }
+            break;
+        }
+        }
+    }
+
+    /*
+     * Reduce values of short's along a dimension.  The i-th element of
+     * the run of the result is computed from the elements x[offset + k*step
+     * + i*stride] for k = 0, ..., n - 1.
+     */
+    private static void reduce(int op, short[] x, int offset, int stride,
+            int step, int n, Object out, int j, int len,
+            double[] acc, double[] acc2) {
+        switch (op) {
+        case ShapedArray.SUM:
+        case ShapedArray.MEAN:
+            for (int i = 0; i < len; ++i) {
+                acc[i] = 0.0;
+            }
+            for (int k = 0; k < n; ++k, offset += step) {
+                for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                    acc[i] += x[jx];
+                }
+            }
+            store(out, j, acc, len, (op == ShapedArray.MEAN ? 1.0/n : 1.0));
+            break;
+        case ShapedArray.VARIANCE:
+            /* Welford's algorithm for each element of the result. */
+            for (int i = 0; i < len; ++i) {
+                acc[i] = 0.0;
+                acc2[i] = 0.0;
+            }
+            for (int k = 0; k < n; ++k, offset += step) {
+                double w = 1.0/(k + 1);
+                for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                    double value = x[jx];
+                    double delta = value - acc[i];
+                    acc[i] += w*delta;
+                    acc2[i] += delta*(value - acc[i]);
+                }
+            }
+            store(out, j, acc2, len, (n > 1 ? 1.0/(n - 1) : Double.NaN));
+            break;
+        case ShapedArray.MIN:
+        case ShapedArray.MAX: {
+            short[] best = (short[])out;
+            for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                best[j + i] = x[jx];
+            }
+            boolean min = (op == ShapedArray.MIN);
+            for (int k = 1; k < n; ++k) {
+                offset += step;
+                for (int i = j, jx = offset; i < j + len; ++i, jx += stride) {
+                    short value = x[jx];
+                    if (min ? value < best[i] : value > best[i]) {
+                        best[i] = x[jx];
+                    }
+                }
+            }
+            break;
+        }
+        case ShapedArray.ARGMAX: {
+            int[] index = (int[])out;
+            short[] best = new short[len];
+            for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                best[i] = x[jx];
+                index[j + i] = 0;
+            }
+            for (int k = 1; k < n; ++k) {
+                offset += step;
+                for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                    if (x[jx] > best[i]) {
+                        best[i] = x[jx];
+                        index[j + i] = k;
+                    }
+                }
+            }
+            break;
+        }
+        }
+    }
+
+    /*
+     * Reduce values of int's along a dimension.  The i-th element of
+     * the run of the result is computed from the elements x[offset + k*step
+     * + i*stride] for k = 0, ..., n - 1.
+     */
+    private static void reduce(int op, int[] x, int offset, int stride,
+            int step, int n, Object out, int j, int len,
+            double[] acc, double[] acc2) {
+        switch (op) {
+        case ShapedArray.SUM:
+        case ShapedArray.MEAN:
+            for (int i = 0; i < len; ++i) {
+                acc[i] = 0.0;
+            }
+            for (int k = 0; k < n; ++k, offset += step) {
+                for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                    acc[i] += x[jx];
+                }
+            }
+            store(out, j, acc, len, (op == ShapedArray.MEAN ? 1.0/n : 1.0));
+            break;
+        case ShapedArray.VARIANCE:
+            /* Welford's algorithm for each element of the result. */
+            for (int i = 0; i < len; ++i) {
+                acc[i] = 0.0;
+                acc2[i] = 0.0;
+            }
+            for (int k = 0; k < n; ++k, offset += step) {
+                double w = 1.0/(k + 1);
+                for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                    double value = x[jx];
+                    double delta = value - acc[i];
+                    acc[i] += w*delta;
+                    acc2[i] += delta*(value - acc[i]);
+                }
+            }
+            store(out, j, acc2, len, (n > 1 ? 1.0/(n - 1) : Double.NaN));
+            break;
+        case ShapedArray.MIN:
+        case ShapedArray.MAX: {
+            int[] best = (int[])out;
+            for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                best[j + i] = x[jx];
+            }
+            boolean min = (op == ShapedArray.MIN);
+            for (int k = 1; k < n; ++k) {
+                offset += step;
+                for (int i = j, jx = offset; i < j + len; ++i, jx += stride) {
+                    int value = x[jx];
+                    if (min ? value < best[i] : value > best[i]) {
+                        best[i] = x[jx];
+                    }
+                }
+            }
+            break;
+        }
+        case ShapedArray.ARGMAX: {
+            int[] index = (int[])out;
+            int[] best = new int[len];
+            for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                best[i] = x[jx];
+                index[j + i] = 0;
+            }
+            for (int k = 1; k < n; ++k) {
+                offset += step;
+                for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                    if (x[jx] > best[i]) {
+                        best[i] = x[jx];
+                        index[j + i] = k;
+                    }
+                }
+            }
+            break;
+        }
+        }
+    }
+
+    /*
+     * Reduce values of long's along a dimension.  The i-th element of
+     * the run of the result is computed from the elements x[offset + k*step
+     * + i*stride] for k = 0, ..., n - 1.
+     */
+    private static void reduce(int op, long[] x, int offset, int stride,
+            int step, int n, Object out, int j, int len,
+            double[] acc, double[] acc2) {
+        switch (op) {
+        case ShapedArray.SUM:
+        case ShapedArray.MEAN:
+            for (int i = 0; i < len; ++i) {
+                acc[i] = 0.0;
+            }
+            for (int k = 0; k < n; ++k, offset += step) {
+                for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                    acc[i] += x[jx];
+                }
+            }
+            store(out, j, acc, len, (op == ShapedArray.MEAN ? 1.0/n : 1.0));
+            break;
+        case ShapedArray.VARIANCE:
+            /* Welford's algorithm for each element of the result. */
+            for (int i = 0; i < len; ++i) {
+                acc[i] = 0.0;
+                acc2[i] = 0.0;
+            }
+            for (int k = 0; k < n; ++k, offset += step) {
+                double w = 1.0/(k + 1);
+                for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                    double value = x[jx];
+                    double delta = value - acc[i];
+                    acc[i] += w*delta;
+                    acc2[i] += delta*(value - acc[i]);
+                }
+            }
+            store(out, j, acc2, len, (n > 1 ? 1.0/(n - 1) : Double.NaN));
+            break;
+        case ShapedArray.MIN:
+        case ShapedArray.MAX: {
+            long[] best = (long[])out;
+            for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                best[j + i] = x[jx];
+            }
+            boolean min = (op == ShapedArray.MIN);
+            for (int k = 1; k < n; ++k) {
+                offset += step;
+                for (int i = j, jx = offset; i < j + len; ++i, jx += stride) {
+                    long value = x[jx];
+                    if (min ? value < best[i] : value > best[i]) {
+                        best[i] = x[jx];
+                    }
+                }
+            }
+            break;
+        }
+        case ShapedArray.ARGMAX: {
+            int[] index = (int[])out;
+            long[] best = new long[len];
+            for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                best[i] = x[jx];
+                index[j + i] = 0;
+            }
+            for (int k = 1; k < n; ++k) {
+                offset += step;
+                for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                    if (x[jx] > best[i]) {
+                        best[i] = x[jx];
+                        index[j + i] = k;
+                    }
+                }
+            }
+            break;
+        }
+        }
+    }
+
+    /*
+     * Reduce values of float's along a dimension.  The i-th element of
+     * the run of the result is computed from the elements x[offset + k*step
+     * + i*stride] for k = 0, ..., n - 1.
+     */
+    private static void reduce(int op, float[] x, int offset, int stride,
+            int step, int n, Object out, int j, int len,
+            double[] acc, double[] acc2) {
+        switch (op) {
+        case ShapedArray.SUM:
+        case ShapedArray.MEAN:
+            for (int i = 0; i < len; ++i) {
+                acc[i] = 0.0;
+            }
+            for (int k = 0; k < n; ++k, offset += step) {
+                for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                    acc[i] += x[jx];
+                }
+            }
+            store(out, j, acc, len, (op == ShapedArray.MEAN ? 1.0/n : 1.0));
+            break;
+        case ShapedArray.VARIANCE:
+            /* Welford's algorithm for each element of the result. */
+            for (int i = 0; i < len; ++i) {
+                acc[i] = 0.0;
+                acc2[i] = 0.0;
+            }
+            for (int k = 0; k < n; ++k, offset += step) {
+                double w = 1.0/(k + 1);
+                for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                    double value = x[jx];
+                    double delta = value - acc[i];
+                    acc[i] += w*delta;
+                    acc2[i] += delta*(value - acc[i]);
+                }
+            }
+            store(out, j, acc2, len, (n > 1 ? 1.0/(n - 1) : Double.NaN));
+            break;
+        case ShapedArray.MIN:
+        case ShapedArray.MAX: {
+            float[] best = (float[])out;
+            for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                best[j + i] = x[jx];
+            }
+            boolean min = (op == ShapedArray.MIN);
+            for (int k = 1; k < n; ++k) {
+                offset += step;
+                for (int i = j, jx = offset; i < j + len; ++i, jx += stride) {
+                    float value = x[jx];
+                    if ((min ? value < best[i] : value > best[i]) || best[i] != best[i]) {
+                        best[i] = x[jx];
+                    }
+                }
+            }
+            break;
+        }
+        case ShapedArray.ARGMAX: {
+            int[] index = (int[])out;
+            float[] best = new float[len];
+            for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                best[i] = x[jx];
+                index[j + i] = 0;
+            }
+            for (int k = 1; k < n; ++k) {
+                offset += step;
+                for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                    if (x[jx] > best[i] || (best[i] != best[i] && x[jx] == x[jx])) {
+                        best[i] = x[jx];
+                        index[j + i] = k;
+                    }
+                }
+            }
+            break;
+        }
+        }
+    }
+
+    /*
+     * Reduce values of double's along a dimension.  The i-th element of
+     * the run of the result is computed from the elements x[offset + k*step
+     * + i*stride] for k = 0, ..., n - 1.
+     */
+    private static void reduce(int op, double[] x, int offset, int stride,
+            int step, int n, Object out, int j, int len,
+            double[] acc, double[] acc2) {
+        switch (op) {
+        case ShapedArray.SUM:
+        case ShapedArray.MEAN:
+            for (int i = 0; i < len; ++i) {
+                acc[i] = 0.0;
+            }
+            for (int k = 0; k < n; ++k, offset += step) {
+                for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                    acc[i] += x[jx];
+                }
+            }
+            store(out, j, acc, len, (op == ShapedArray.MEAN ? 1.0/n : 1.0));
+            break;
+        case ShapedArray.VARIANCE:
+            /* Welford's algorithm for each element of the result. */
+            for (int i = 0; i < len; ++i) {
+                acc[i] = 0.0;
+                acc2[i] = 0.0;
+            }
+            for (int k = 0; k < n; ++k, offset += step) {
+                double w = 1.0/(k + 1);
+                for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                    double value = x[jx];
+                    double delta = value - acc[i];
+                    acc[i] += w*delta;
+                    acc2[i] += delta*(value - acc[i]);
+                }
+            }
+            store(out, j, acc2, len, (n > 1 ? 1.0/(n - 1) : Double.NaN));
+            break;
+        case ShapedArray.MIN:
+        case ShapedArray.MAX: {
+            double[] best = (double[])out;
+            for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                best[j + i] = x[jx];
+            }
+            boolean min = (op == ShapedArray.MIN);
+            for (int k = 1; k < n; ++k) {
+                offset += step;
+                for (int i = j, jx = offset; i < j + len; ++i, jx += stride) {
+                    double value = x[jx];
+                    if ((min ? value < best[i] : value > best[i]) || best[i] != best[i]) {
+                        best[i] = x[jx];
+                    }
+                }
+            }
+            break;
+        }
+        case ShapedArray.ARGMAX: {
+            int[] index = (int[])out;
+            double[] best = new double[len];
+            for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                best[i] = x[jx];
+                index[j + i] = 0;
+            }
+            for (int k = 1; k < n; ++k) {
+                offset += step;
+                for (int i = 0, jx = offset; i < len; ++i, jx += stride) {
+                    if (x[jx] > best[i] || (best[i] != best[i] && x[jx] == x[jx])) {
+                        best[i] = x[jx];
+                        index[j + i] = k;
+                    }
+                }
+            }
+            break;
+        }
+        }
+    }
+
+    /*=======================================================================*/
+    /* MASKED OPERATIONS */
+
+    /* Get the k-th word of a packed mask restricted to the first "number"
+     * bits. */
+    static long maskWord(long[] mask, int k, int number) {
+        long word = mask[k];
+        int r = number - (k << 6);
+        return (r >= 64 ? word : word & ((1L << r) - 1L));
+    }
+
+    /**
+     * Compute the sum of the values of an array of byte's selected by a mask.
+     * <p>
+     * The mask is packed into words of 64 bits (see {@link BooleanArray}),
+     * the words which are zero are skipped without reading the
+     * corresponding values.
+     * Bytes are assumed to be unsigned.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask.
+     * @param number - The number of elements.
+     * @return The sum of the selected values, 0 if there are none.
+     */
+    public static int sum(final byte[] data, final long[] mask,
+            final int number) {
+        final int words = (number + 63) >>> 6;
+        if (words < 1) {
+            return 0;
+        }
+        Integer result = Parallel.reduce(words, Parallel.getGrain(words, number),
+                new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int totalValue = 0;
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        for (int j = offset; j < offset + 64; ++j) {
+                            totalValue += (data[j] & 0xFF);
+                        }
+                    } else {
+                        do {
+                            int j = offset + Long.numberOfTrailingZeros(word);
+                            totalValue += (data[j] & 0xFF);
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+                return totalValue;
+            }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return left + right;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Compute the minimum of the values of an array of byte's selected by
+     * a mask.
+     * <p>
+     * The mask is packed into words of 64 bits (see {@link BooleanArray}),
+     * the words which are zero are skipped without reading the
+     * corresponding values and the words whose bits are all set are
+     * processed as dense blocks of values.
+     * Bytes are assumed to be unsigned.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask.
+     * @param number - The number of elements.
+     * @return The minimum of the selected values.
+     * @throws IllegalArgumentException if no values are selected.
+     */
+    public static int min(final byte[] data, final long[] mask,
+            final int number) {
+        final int words = (number + 63) >>> 6;
+        if (words < 1) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        Integer result = Parallel.reduce(words, Parallel.getGrain(words, number),
+                new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                boolean found = false;
+                int minValue = 0;
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        if (! found) {
+                            int j = offset;
+                            minValue = (data[j] & 0xFF);
+                            found = true;
+                        }
+                        for (int j = offset; j < offset + 64; ++j) {
+                            int value = (data[j] & 0xFF);
+                            if (value < minValue) {
+                                minValue = value;
+                            }
+                        }
+                    } else {
+                        do {
+                            int j = offset + Long.numberOfTrailingZeros(word);
+                            int value = (data[j] & 0xFF);
+                            if (! found || value < minValue) {
+                                minValue = value;
+                                found = true;
+                            }
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+                return (found ? minValue : null);
+            }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                if (left == null) {
+                    return right;
+                }
+                if (right == null) {
+                    return left;
+                }
+                return (right < left ? right : left);
+            }
+        });
+        if (result == null) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        return result;
+    }
+
+    /**
+     * Compute the maximum of the values of an array of byte's selected by
+     * a mask.
+     * <p>
+     * The mask is packed into words of 64 bits (see {@link BooleanArray}),
+     * the words which are zero are skipped without reading the
+     * corresponding values and the words whose bits are all set are
+     * processed as dense blocks of values.
+     * Bytes are assumed to be unsigned.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask.
+     * @param number - The number of elements.
+     * @return The maximum of the selected values.
+     * @throws IllegalArgumentException if no values are selected.
+     */
+    public static int max(final byte[] data, final long[] mask,
+            final int number) {
+        final int words = (number + 63) >>> 6;
+        if (words < 1) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        Integer result = Parallel.reduce(words, Parallel.getGrain(words, number),
+                new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                boolean found = false;
+                int maxValue = 0;
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        if (! found) {
+                            int j = offset;
+                            maxValue = (data[j] & 0xFF);
+                            found = true;
+                        }
+                        for (int j = offset; j < offset + 64; ++j) {
+                            int value = (data[j] & 0xFF);
+                            if (value > maxValue) {
+                                maxValue = value;
+                            }
+                        }
+                    } else {
+                        do {
+                            int j = offset + Long.numberOfTrailingZeros(word);
+                            int value = (data[j] & 0xFF);
+                            if (! found || value > maxValue) {
+                                maxValue = value;
+                                found = true;
+                            }
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+                return (found ? maxValue : null);
+            }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                if (left == null) {
+                    return right;
+                }
+                if (right == null) {
+                    return left;
+                }
+                return (right > left ? right : left);
+            }
+        });
+        if (result == null) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        return result;
+    }
+
+    /**
+     * Scan the values of an array of byte's selected by a mask.
+     * <p>
+     * The selected values are scanned sequentially in column-major order,
+     * the words of the mask which are zero are skipped and those whose bits
+     * are all set are scanned as dense blocks of values.  The scanner is
+     * not initialized if no values are selected.
+     * </p>
+     * @param scanner - The scanner to use.
+     * @param data    - The values in column-major order.
+     * @param mask    - The packed mask (see {@link BooleanArray}).
+     * @param number  - The number of elements.
+     */
+    public static void scan(ByteScanner scanner, byte[] data,
+            long[] mask, int number) {
+        final int words = (number + 63) >>> 6;
+        boolean initialized = false;
+        for (int k = 0; k < words; ++k) {
+            long word = maskWord(mask, k, number);
+            if (word == 0L) {
+                continue;
+            }
+            int offset = (k << 6);
+            if (word == -1L) {
+                int j = offset;
+                if (! initialized) {
+                    scanner.initialize(data[j++]);
+                    initialized = true;
+                }
+                for (; j < offset + 64; ++j) {
+                    scanner.update(data[j]);
+                }
+            } else {
+                do {
+                    int j = offset + Long.numberOfTrailingZeros(word);
+                    if (initialized) {
+                        scanner.update(data[j]);
+                    } else {
+                        scanner.initialize(data[j]);
+                        initialized = true;
+                    }
+                    word &= word - 1L;
+                } while (word != 0L);
+            }
+        }
+    }
+
+    /**
+     * Set the values of an array of byte's selected by a mask.
+     * <p>
+     * The words of the mask which are zero are skipped, the values not
+     * selected by the mask are left unchanged.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask (see {@link BooleanArray}).
+     * @param number - The number of elements.
+     * @param value  - The value to set.
+     */
+    public static void fill(final byte[] data, final long[] mask,
+            final int number, final byte value) {
+        final int words = (number + 63) >>> 6;
+        Parallel.run(words, Parallel.getGrain(words, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        for (int j = offset; j < offset + 64; ++j) {
+                            data[j] = value;
+                        }
+                    } else {
+                        do {
+                            data[offset + Long.numberOfTrailingZeros(word)] = value;
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Compute the sum of the values of an array of short's selected by a mask.
+     * <p>
+     * The mask is packed into words of 64 bits (see {@link BooleanArray}),
+     * the words which are zero are skipped without reading the
+     * corresponding values.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask.
+     * @param number - The number of elements.
+     * @return The sum of the selected values, 0 if there are none.
+     */
+    public static int sum(final short[] data, final long[] mask,
+            final int number) {
+        final int words = (number + 63) >>> 6;
+        if (words < 1) {
+            return 0;
+        }
+        Integer result = Parallel.reduce(words, Parallel.getGrain(words, number),
+                new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int totalValue = 0;
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        for (int j = offset; j < offset + 64; ++j) {
+                            totalValue += data[j];
+                        }
+                    } else {
+                        do {
+                            int j = offset + Long.numberOfTrailingZeros(word);
+                            totalValue += data[j];
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+                return totalValue;
+            }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return left + right;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Compute the minimum of the values of an array of short's selected by
+     * a mask.
+     * <p>
+     * The mask is packed into words of 64 bits (see {@link BooleanArray}),
+     * the words which are zero are skipped without reading the
+     * corresponding values and the words whose bits are all set are
+     * processed as dense blocks of values.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask.
+     * @param number - The number of elements.
+     * @return The minimum of the selected values.
+     * @throws IllegalArgumentException if no values are selected.
+     */
+    public static short min(final short[] data, final long[] mask,
+            final int number) {
+        final int words = (number + 63) >>> 6;
+        if (words < 1) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        Short result = Parallel.reduce(words, Parallel.getGrain(words, number),
+                new Parallel.Reduction<Short>() {
+            @Override
+            public Short compute(int first, int last) {
+                boolean found = false;
+                short minValue = 0;
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        if (! found) {
+                            int j = offset;
+                            minValue = data[j];
+                            found = true;
+                        }
+                        for (int j = offset; j < offset + 64; ++j) {
+                            short value = data[j];
+                            if (value < minValue) {
+                                minValue = value;
+                            }
+                        }
+                    } else {
+                        do {
+                            int j = offset + Long.numberOfTrailingZeros(word);
+                            short value = data[j];
+                            if (! found || value < minValue) {
+                                minValue = value;
+                                found = true;
+                            }
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+                return (found ? minValue : null);
+            }
+
+            @Override
+            public Short combine(Short left, Short right) {
+                if (left == null) {
+                    return right;
+                }
+                if (right == null) {
+                    return left;
+                }
+                return (right < left ? right : left);
+            }
+        });
+        if (result == null) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        return result;
+    }
+
+    /**
+     * Compute the maximum of the values of an array of short's selected by
+     * a mask.
+     * <p>
+     * The mask is packed into words of 64 bits (see {@link BooleanArray}),
+     * the words which are zero are skipped without reading the
+     * corresponding values and the words whose bits are all set are
+     * processed as dense blocks of values.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask.
+     * @param number - The number of elements.
+     * @return The maximum of the selected values.
+     * @throws IllegalArgumentException if no values are selected.
+     */
+    public static short max(final short[] data, final long[] mask,
+            final int number) {
+        final int words = (number + 63) >>> 6;
+        if (words < 1) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        Short result = Parallel.reduce(words, Parallel.getGrain(words, number),
+                new Parallel.Reduction<Short>() {
+            @Override
+            public Short compute(int first, int last) {
+                boolean found = false;
+                short maxValue = 0;
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        if (! found) {
+                            int j = offset;
+                            maxValue = data[j];
+                            found = true;
+                        }
+                        for (int j = offset; j < offset + 64; ++j) {
+                            short value = data[j];
+                            if (value > maxValue) {
+                                maxValue = value;
+                            }
+                        }
+                    } else {
+                        do {
+                            int j = offset + Long.numberOfTrailingZeros(word);
+                            short value = data[j];
+                            if (! found || value > maxValue) {
+                                maxValue = value;
+                                found = true;
+                            }
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+                return (found ? maxValue : null);
+            }
+
+            @Override
+            public Short combine(Short left, Short right) {
+                if (left == null) {
+                    return right;
+                }
+                if (right == null) {
+                    return left;
+                }
+                return (right > left ? right : left);
+            }
+        });
+        if (result == null) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        return result;
+    }
+
+    /**
+     * Scan the values of an array of short's selected by a mask.
+     * <p>
+     * The selected values are scanned sequentially in column-major order,
+     * the words of the mask which are zero are skipped and those whose bits
+     * are all set are scanned as dense blocks of values.  The scanner is
+     * not initialized if no values are selected.
+     * </p>
+     * @param scanner - The scanner to use.
+     * @param data    - The values in column-major order.
+     * @param mask    - The packed mask (see {@link BooleanArray}).
+     * @param number  - The number of elements.
+     */
+    public static void scan(ShortScanner scanner, short[] data,
+            long[] mask, int number) {
+        final int words = (number + 63) >>> 6;
+        boolean initialized = false;
+        for (int k = 0; k < words; ++k) {
+            long word = maskWord(mask, k, number);
+            if (word == 0L) {
+                continue;
+            }
+            int offset = (k << 6);
+            if (word == -1L) {
+                int j = offset;
+                if (! initialized) {
+                    scanner.initialize(data[j++]);
+                    initialized = true;
+                }
+                for (; j < offset + 64; ++j) {
+                    scanner.update(data[j]);
+                }
+            } else {
+                do {
+                    int j = offset + Long.numberOfTrailingZeros(word);
+                    if (initialized) {
+                        scanner.update(data[j]);
+                    } else {
+                        scanner.initialize(data[j]);
+                        initialized = true;
+                    }
+                    word &= word - 1L;
+                } while (word != 0L);
+            }
+        }
+    }
+
+    /**
+     * Set the values of an array of short's selected by a mask.
+     * <p>
+     * The words of the mask which are zero are skipped, the values not
+     * selected by the mask are left unchanged.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask (see {@link BooleanArray}).
+     * @param number - The number of elements.
+     * @param value  - The value to set.
+     */
+    public static void fill(final short[] data, final long[] mask,
+            final int number, final short value) {
+        final int words = (number + 63) >>> 6;
+        Parallel.run(words, Parallel.getGrain(words, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        for (int j = offset; j < offset + 64; ++j) {
+                            data[j] = value;
+                        }
+                    } else {
+                        do {
+                            data[offset + Long.numberOfTrailingZeros(word)] = value;
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Compute the sum of the values of an array of int's selected by a mask.
+     * <p>
+     * The mask is packed into words of 64 bits (see {@link BooleanArray}),
+     * the words which are zero are skipped without reading the
+     * corresponding values.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask.
+     * @param number - The number of elements.
+     * @return The sum of the selected values, 0 if there are none.
+     */
+    public static int sum(final int[] data, final long[] mask,
+            final int number) {
+        final int words = (number + 63) >>> 6;
+        if (words < 1) {
+            return 0;
+        }
+        Integer result = Parallel.reduce(words, Parallel.getGrain(words, number),
+                new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int totalValue = 0;
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        for (int j = offset; j < offset + 64; ++j) {
+                            totalValue += data[j];
+                        }
+                    } else {
+                        do {
+                            int j = offset + Long.numberOfTrailingZeros(word);
+                            totalValue += data[j];
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+                return totalValue;
+            }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return left + right;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Compute the minimum of the values of an array of int's selected by
+     * a mask.
+     * <p>
+     * The mask is packed into words of 64 bits (see {@link BooleanArray}),
+     * the words which are zero are skipped without reading the
+     * corresponding values and the words whose bits are all set are
+     * processed as dense blocks of values.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask.
+     * @param number - The number of elements.
+     * @return The minimum of the selected values.
+     * @throws IllegalArgumentException if no values are selected.
+     */
+    public static int min(final int[] data, final long[] mask,
+            final int number) {
+        final int words = (number + 63) >>> 6;
+        if (words < 1) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        Integer result = Parallel.reduce(words, Parallel.getGrain(words, number),
+                new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                boolean found = false;
+                int minValue = 0;
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        if (! found) {
+                            int j = offset;
+                            minValue = data[j];
+                            found = true;
+                        }
+                        for (int j = offset; j < offset + 64; ++j) {
+                            int value = data[j];
+                            if (value < minValue) {
+                                minValue = value;
+                            }
+                        }
+                    } else {
+                        do {
+                            int j = offset + Long.numberOfTrailingZeros(word);
+                            int value = data[j];
+                            if (! found || value < minValue) {
+                                minValue = value;
+                                found = true;
+                            }
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+                return (found ? minValue : null);
+            }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                if (left == null) {
+                    return right;
+                }
+                if (right == null) {
+                    return left;
+                }
+                return (right < left ? right : left);
+            }
+        });
+        if (result == null) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        return result;
+    }
+
+    /**
+     * Compute the maximum of the values of an array of int's selected by
+     * a mask.
+     * <p>
+     * The mask is packed into words of 64 bits (see {@link BooleanArray}),
+     * the words which are zero are skipped without reading the
+     * corresponding values and the words whose bits are all set are
+     * processed as dense blocks of values.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask.
+     * @param number - The number of elements.
+     * @return The maximum of the selected values.
+     * @throws IllegalArgumentException if no values are selected.
+     */
+    public static int max(final int[] data, final long[] mask,
+            final int number) {
+        final int words = (number + 63) >>> 6;
+        if (words < 1) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        Integer result = Parallel.reduce(words, Parallel.getGrain(words, number),
+                new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                boolean found = false;
+                int maxValue = 0;
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        if (! found) {
+                            int j = offset;
+                            maxValue = data[j];
+                            found = true;
+                        }
+                        for (int j = offset; j < offset + 64; ++j) {
+                            int value = data[j];
+                            if (value > maxValue) {
+                                maxValue = value;
+                            }
+                        }
+                    } else {
+                        do {
+                            int j = offset + Long.numberOfTrailingZeros(word);
+                            int value = data[j];
+                            if (! found || value > maxValue) {
+                                maxValue = value;
+                                found = true;
+                            }
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+                return (found ? maxValue : null);
+            }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                if (left == null) {
+                    return right;
+                }
+                if (right == null) {
+                    return left;
+                }
+                return (right > left ? right : left);
+            }
+        });
+        if (result == null) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        return result;
+    }
+
+    /**
+     * Scan the values of an array of int's selected by a mask.
+     * <p>
+     * The selected values are scanned sequentially in column-major order,
+     * the words of the mask which are zero are skipped and those whose bits
+     * are all set are scanned as dense blocks of values.  The scanner is
+     * not initialized if no values are selected.
+     * </p>
+     * @param scanner - The scanner to use.
+     * @param data    - The values in column-major order.
+     * @param mask    - The packed mask (see {@link BooleanArray}).
+     * @param number  - The number of elements.
+     */
+    public static void scan(IntScanner scanner, int[] data,
+            long[] mask, int number) {
+        final int words = (number + 63) >>> 6;
+        boolean initialized = false;
+        for (int k = 0; k < words; ++k) {
+            long word = maskWord(mask, k, number);
+            if (word == 0L) {
+                continue;
+            }
+            int offset = (k << 6);
+            if (word == -1L) {
+                int j = offset;
+                if (! initialized) {
+                    scanner.initialize(data[j++]);
+                    initialized = true;
+                }
+                for (; j < offset + 64; ++j) {
+                    scanner.update(data[j]);
+                }
+            } else {
+                do {
+                    int j = offset + Long.numberOfTrailingZeros(word);
+                    if (initialized) {
+                        scanner.update(data[j]);
+                    } else {
+                        scanner.initialize(data[j]);
+                        initialized = true;
+                    }
+                    word &= word - 1L;
+                } while (word != 0L);
+            }
+        }
+    }
+
+    /**
+     * Set the values of an array of int's selected by a mask.
+     * <p>
+     * The words of the mask which are zero are skipped, the values not
+     * selected by the mask are left unchanged.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask (see {@link BooleanArray}).
+     * @param number - The number of elements.
+     * @param value  - The value to set.
+     */
+    public static void fill(final int[] data, final long[] mask,
+            final int number, final int value) {
+        final int words = (number + 63) >>> 6;
+        Parallel.run(words, Parallel.getGrain(words, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        for (int j = offset; j < offset + 64; ++j) {
+                            data[j] = value;
+                        }
+                    } else {
+                        do {
+                            data[offset + Long.numberOfTrailingZeros(word)] = value;
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Compute the sum of the values of an array of long's selected by a mask.
+     * <p>
+     * The mask is packed into words of 64 bits (see {@link BooleanArray}),
+     * the words which are zero are skipped without reading the
+     * corresponding values.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask.
+     * @param number - The number of elements.
+     * @return The sum of the selected values, 0 if there are none.
+     */
+    public static long sum(final long[] data, final long[] mask,
+            final int number) {
+        final int words = (number + 63) >>> 6;
+        if (words < 1) {
+            return 0;
+        }
+        Long result = Parallel.reduce(words, Parallel.getGrain(words, number),
+                new Parallel.Reduction<Long>() {
+            @Override
+            public Long compute(int first, int last) {
+                long totalValue = 0;
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        for (int j = offset; j < offset + 64; ++j) {
+                            totalValue += data[j];
+                        }
+                    } else {
+                        do {
+                            int j = offset + Long.numberOfTrailingZeros(word);
+                            totalValue += data[j];
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+                return totalValue;
+            }
+
+            @Override
+            public Long combine(Long left, Long right) {
+                return left + right;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Compute the minimum of the values of an array of long's selected by
+     * a mask.
+     * <p>
+     * The mask is packed into words of 64 bits (see {@link BooleanArray}),
+     * the words which are zero are skipped without reading the
+     * corresponding values and the words whose bits are all set are
+     * processed as dense blocks of values.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask.
+     * @param number - The number of elements.
+     * @return The minimum of the selected values.
+     * @throws IllegalArgumentException if no values are selected.
+     */
+    public static long min(final long[] data, final long[] mask,
+            final int number) {
+        final int words = (number + 63) >>> 6;
+        if (words < 1) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        Long result = Parallel.reduce(words, Parallel.getGrain(words, number),
+                new Parallel.Reduction<Long>() {
+            @Override
+            public Long compute(int first, int last) {
+                boolean found = false;
+                long minValue = 0;
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        if (! found) {
+                            int j = offset;
+                            minValue = data[j];
+                            found = true;
+                        }
+                        for (int j = offset; j < offset + 64; ++j) {
+                            long value = data[j];
+                            if (value < minValue) {
+                                minValue = value;
+                            }
+                        }
+                    } else {
+                        do {
+                            int j = offset + Long.numberOfTrailingZeros(word);
+                            long value = data[j];
+                            if (! found || value < minValue) {
+                                minValue = value;
+                                found = true;
+                            }
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+                return (found ? minValue : null);
+            }
+
+            @Override
+            public Long combine(Long left, Long right) {
+                if (left == null) {
+                    return right;
+                }
+                if (right == null) {
+                    return left;
+                }
+                return (right < left ? right : left);
+            }
+        });
+        if (result == null) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        return result;
+    }
+
+    /**
+     * Compute the maximum of the values of an array of long's selected by
+     * a mask.
+     * <p>
+     * The mask is packed into words of 64 bits (see {@link BooleanArray}),
+     * the words which are zero are skipped without reading the
+     * corresponding values and the words whose bits are all set are
+     * processed as dense blocks of values.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask.
+     * @param number - The number of elements.
+     * @return The maximum of the selected values.
+     * @throws IllegalArgumentException if no values are selected.
+     */
+    public static long max(final long[] data, final long[] mask,
+            final int number) {
+        final int words = (number + 63) >>> 6;
+        if (words < 1) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        Long result = Parallel.reduce(words, Parallel.getGrain(words, number),
+                new Parallel.Reduction<Long>() {
+            @Override
+            public Long compute(int first, int last) {
+                boolean found = false;
+                long maxValue = 0;
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        if (! found) {
+                            int j = offset;
+                            maxValue = data[j];
+                            found = true;
+                        }
+                        for (int j = offset; j < offset + 64; ++j) {
+                            long value = data[j];
+                            if (value > maxValue) {
+                                maxValue = value;
+                            }
+                        }
+                    } else {
+                        do {
+                            int j = offset + Long.numberOfTrailingZeros(word);
+                            long value = data[j];
+                            if (! found || value > maxValue) {
+                                maxValue = value;
+                                found = true;
+                            }
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+                return (found ? maxValue : null);
+            }
+
+            @Override
+            public Long combine(Long left, Long right) {
+                if (left == null) {
+                    return right;
+                }
+                if (right == null) {
+                    return left;
+                }
+                return (right > left ? right : left);
+            }
+        });
+        if (result == null) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        return result;
+    }
+
+    /**
+     * Scan the values of an array of long's selected by a mask.
+     * <p>
+     * The selected values are scanned sequentially in column-major order,
+     * the words of the mask which are zero are skipped and those whose bits
+     * are all set are scanned as dense blocks of values.  The scanner is
+     * not initialized if no values are selected.
+     * </p>
+     * @param scanner - The scanner to use.
+     * @param data    - The values in column-major order.
+     * @param mask    - The packed mask (see {@link BooleanArray}).
+     * @param number  - The number of elements.
+     */
+    public static void scan(LongScanner scanner, long[] data,
+            long[] mask, int number) {
+        final int words = (number + 63) >>> 6;
+        boolean initialized = false;
+        for (int k = 0; k < words; ++k) {
+            long word = maskWord(mask, k, number);
+            if (word == 0L) {
+                continue;
+            }
+            int offset = (k << 6);
+            if (word == -1L) {
+                int j = offset;
+                if (! initialized) {
+                    scanner.initialize(data[j++]);
+                    initialized = true;
+                }
+                for (; j < offset + 64; ++j) {
+                    scanner.update(data[j]);
+                }
+            } else {
+                do {
+                    int j = offset + Long.numberOfTrailingZeros(word);
+                    if (initialized) {
+                        scanner.update(data[j]);
+                    } else {
+                        scanner.initialize(data[j]);
+                        initialized = true;
+                    }
+                    word &= word - 1L;
+                } while (word != 0L);
+            }
+        }
+    }
+
+    /**
+     * Set the values of an array of long's selected by a mask.
+     * <p>
+     * The words of the mask which are zero are skipped, the values not
+     * selected by the mask are left unchanged.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask (see {@link BooleanArray}).
+     * @param number - The number of elements.
+     * @param value  - The value to set.
+     */
+    public static void fill(final long[] data, final long[] mask,
+            final int number, final long value) {
+        final int words = (number + 63) >>> 6;
+        Parallel.run(words, Parallel.getGrain(words, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        for (int j = offset; j < offset + 64; ++j) {
+                            data[j] = value;
+                        }
+                    } else {
+                        do {
+                            data[offset + Long.numberOfTrailingZeros(word)] = value;
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Compute the sum of the values of an array of float's selected by a mask.
+     * <p>
+     * The mask is packed into words of 64 bits (see {@link BooleanArray}),
+     * the words which are zero are skipped without reading the
+     * corresponding values.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask.
+     * @param number - The number of elements.
+     * @return The sum of the selected values, 0 if there are none.
+     */
+    public static float sum(final float[] data, final long[] mask,
+            final int number) {
+        final int words = (number + 63) >>> 6;
+        if (words < 1) {
+            return 0;
+        }
+        /* Accumulate in double precision. */
+        Double result = Parallel.reduce(words, Parallel.getGrain(words, number),
+                new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                double totalValue = 0;
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        for (int j = offset; j < offset + 64; ++j) {
+                            totalValue += data[j];
+                        }
+                    } else {
+                        do {
+                            int j = offset + Long.numberOfTrailingZeros(word);
+                            totalValue += data[j];
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+                return totalValue;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return left + right;
+            }
+        });
+        return result.floatValue();
+    }
+
+    /**
+     * Compute the minimum of the values of an array of float's selected by
+     * a mask.
+     * <p>
+     * The mask is packed into words of 64 bits (see {@link BooleanArray}),
+     * the words which are zero are skipped without reading the
+     * corresponding values and the words whose bits are all set are
+     * processed as dense blocks of values.
+     * NaN values are ignored as for {@link FloatArray#min()}.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask.
+     * @param number - The number of elements.
+     * @return The minimum of the selected values.
+     * @throws IllegalArgumentException if no values are selected.
+     */
+    public static float min(final float[] data, final long[] mask,
+            final int number) {
+        final int words = (number + 63) >>> 6;
+        if (words < 1) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        Float result = Parallel.reduce(words, Parallel.getGrain(words, number),
+                new Parallel.Reduction<Float>() {
+            @Override
+            public Float compute(int first, int last) {
+                boolean found = false;
+                float minValue = 0;
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        if (! found) {
+                            int j = offset;
+                            minValue = data[j];
+                            found = true;
+                        }
+                        for (int j = offset; j < offset + 64; ++j) {
+                            float value = data[j];
+                            if (value < minValue || minValue != minValue) {
+                                minValue = value;
+                            }
+                        }
+                    } else {
+                        do {
+                            int j = offset + Long.numberOfTrailingZeros(word);
+                            float value = data[j];
+                            if (! found || value < minValue || minValue != minValue) {
+                                minValue = value;
+                                found = true;
+                            }
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+                return (found ? minValue : null);
+            }
+
+            @Override
+            public Float combine(Float left, Float right) {
+                if (left == null) {
+                    return right;
+                }
+                if (right == null) {
+                    return left;
+                }
+                return (right < left || Float.isNaN(left) ? right : left);
+            }
+        });
+        if (result == null) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        return result;
+    }
+
+    /**
+     * Compute the maximum of the values of an array of float's selected by
+     * a mask.
+     * <p>
+     * The mask is packed into words of 64 bits (see {@link BooleanArray}),
+     * the words which are zero are skipped without reading the
+     * corresponding values and the words whose bits are all set are
+     * processed as dense blocks of values.
+     * NaN values are ignored as for {@link FloatArray#max()}.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask.
+     * @param number - The number of elements.
+     * @return The maximum of the selected values.
+     * @throws IllegalArgumentException if no values are selected.
+     */
+    public static float max(final float[] data, final long[] mask,
+            final int number) {
+        final int words = (number + 63) >>> 6;
+        if (words < 1) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        Float result = Parallel.reduce(words, Parallel.getGrain(words, number),
+                new Parallel.Reduction<Float>() {
+            @Override
+            public Float compute(int first, int last) {
+                boolean found = false;
+                float maxValue = 0;
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        if (! found) {
+                            int j = offset;
+                            maxValue = data[j];
+                            found = true;
+                        }
+                        for (int j = offset; j < offset + 64; ++j) {
+                            float value = data[j];
+                            if (value > maxValue || maxValue != maxValue) {
+                                maxValue = value;
+                            }
+                        }
+                    } else {
+                        do {
+                            int j = offset + Long.numberOfTrailingZeros(word);
+                            float value = data[j];
+                            if (! found || value > maxValue || maxValue != maxValue) {
+                                maxValue = value;
+                                found = true;
+                            }
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+                return (found ? maxValue : null);
+            }
+
+            @Override
+            public Float combine(Float left, Float right) {
+                if (left == null) {
+                    return right;
+                }
+                if (right == null) {
+                    return left;
+                }
+                return (right > left || Float.isNaN(left) ? right : left);
+            }
+        });
+        if (result == null) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        return result;
+    }
+
+    /**
+     * Scan the values of an array of float's selected by a mask.
+     * <p>
+     * The selected values are scanned sequentially in column-major order,
+     * the words of the mask which are zero are skipped and those whose bits
+     * are all set are scanned as dense blocks of values.  The scanner is
+     * not initialized if no values are selected.
+     * </p>
+     * @param scanner - The scanner to use.
+     * @param data    - The values in column-major order.
+     * @param mask    - The packed mask (see {@link BooleanArray}).
+     * @param number  - The number of elements.
+     */
+    public static void scan(FloatScanner scanner, float[] data,
+            long[] mask, int number) {
+        final int words = (number + 63) >>> 6;
+        boolean initialized = false;
+        for (int k = 0; k < words; ++k) {
+            long word = maskWord(mask, k, number);
+            if (word == 0L) {
+                continue;
+            }
+            int offset = (k << 6);
+            if (word == -1L) {
+                int j = offset;
+                if (! initialized) {
+                    scanner.initialize(data[j++]);
+                    initialized = true;
+                }
+                for (; j < offset + 64; ++j) {
+                    scanner.update(data[j]);
+                }
+            } else {
+                do {
+                    int j = offset + Long.numberOfTrailingZeros(word);
+                    if (initialized) {
+                        scanner.update(data[j]);
+                    } else {
+                        scanner.initialize(data[j]);
+                        initialized = true;
+                    }
+                    word &= word - 1L;
+                } while (word != 0L);
+            }
+        }
+    }
+
+    /**
+     * Set the values of an array of float's selected by a mask.
+     * <p>
+     * The words of the mask which are zero are skipped, the values not
+     * selected by the mask are left unchanged.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask (see {@link BooleanArray}).
+     * @param number - The number of elements.
+     * @param value  - The value to set.
+     */
+    public static void fill(final float[] data, final long[] mask,
+            final int number, final float value) {
+        final int words = (number + 63) >>> 6;
+        Parallel.run(words, Parallel.getGrain(words, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        for (int j = offset; j < offset + 64; ++j) {
+                            data[j] = value;
+                        }
+                    } else {
+                        do {
+                            data[offset + Long.numberOfTrailingZeros(word)] = value;
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Compute the sum of the values of an array of double's selected by a mask.
+     * <p>
+     * The mask is packed into words of 64 bits (see {@link BooleanArray}),
+     * the words which are zero are skipped without reading the
+     * corresponding values.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask.
+     * @param number - The number of elements.
+     * @return The sum of the selected values, 0 if there are none.
+     */
+    public static double sum(final double[] data, final long[] mask,
+            final int number) {
+        final int words = (number + 63) >>> 6;
+        if (words < 1) {
+            return 0;
+        }
+        Double result = Parallel.reduce(words, Parallel.getGrain(words, number),
+                new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                double totalValue = 0;
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        for (int j = offset; j < offset + 64; ++j) {
+                            totalValue += data[j];
+                        }
+                    } else {
+                        do {
+                            int j = offset + Long.numberOfTrailingZeros(word);
+                            totalValue += data[j];
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+                return totalValue;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return left + right;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Compute the minimum of the values of an array of double's selected by
+     * a mask.
+     * <p>
+     * The mask is packed into words of 64 bits (see {@link BooleanArray}),
+     * the words which are zero are skipped without reading the
+     * corresponding values and the words whose bits are all set are
+     * processed as dense blocks of values.
+     * NaN values are ignored as for {@link DoubleArray#min()}.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask.
+     * @param number - The number of elements.
+     * @return The minimum of the selected values.
+     * @throws IllegalArgumentException if no values are selected.
+     */
+    public static double min(final double[] data, final long[] mask,
+            final int number) {
+        final int words = (number + 63) >>> 6;
+        if (words < 1) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        Double result = Parallel.reduce(words, Parallel.getGrain(words, number),
+                new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                boolean found = false;
+                double minValue = 0;
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        if (! found) {
+                            int j = offset;
+                            minValue = data[j];
+                            found = true;
+                        }
+                        for (int j = offset; j < offset + 64; ++j) {
+                            double value = data[j];
+                            if (value < minValue || minValue != minValue) {
+                                minValue = value;
+                            }
+                        }
+                    } else {
+                        do {
+                            int j = offset + Long.numberOfTrailingZeros(word);
+                            double value = data[j];
+                            if (! found || value < minValue || minValue != minValue) {
+                                minValue = value;
+                                found = true;
+                            }
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+                return (found ? minValue : null);
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                if (left == null) {
+                    return right;
+                }
+                if (right == null) {
+                    return left;
+                }
+                return (right < left || Double.isNaN(left) ? right : left);
+            }
+        });
+        if (result == null) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        return result;
+    }
+
+    /**
+     * Compute the maximum of the values of an array of double's selected by
+     * a mask.
+     * <p>
+     * The mask is packed into words of 64 bits (see {@link BooleanArray}),
+     * the words which are zero are skipped without reading the
+     * corresponding values and the words whose bits are all set are
+     * processed as dense blocks of values.
+     * NaN values are ignored as for {@link DoubleArray#max()}.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask.
+     * @param number - The number of elements.
+     * @return The maximum of the selected values.
+     * @throws IllegalArgumentException if no values are selected.
+     */
+    public static double max(final double[] data, final long[] mask,
+            final int number) {
+        final int words = (number + 63) >>> 6;
+        if (words < 1) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        Double result = Parallel.reduce(words, Parallel.getGrain(words, number),
+                new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                boolean found = false;
+                double maxValue = 0;
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        if (! found) {
+                            int j = offset;
+                            maxValue = data[j];
+                            found = true;
+                        }
+                        for (int j = offset; j < offset + 64; ++j) {
+                            double value = data[j];
+                            if (value > maxValue || maxValue != maxValue) {
+                                maxValue = value;
+                            }
+                        }
+                    } else {
+                        do {
+                            int j = offset + Long.numberOfTrailingZeros(word);
+                            double value = data[j];
+                            if (! found || value > maxValue || maxValue != maxValue) {
+                                maxValue = value;
+                                found = true;
+                            }
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+                return (found ? maxValue : null);
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                if (left == null) {
+                    return right;
+                }
+                if (right == null) {
+                    return left;
+                }
+                return (right > left || Double.isNaN(left) ? right : left);
+            }
+        });
+        if (result == null) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        return result;
+    }
+
+    /**
+     * Scan the values of an array of double's selected by a mask.
+     * <p>
+     * The selected values are scanned sequentially in column-major order,
+     * the words of the mask which are zero are skipped and those whose bits
+     * are all set are scanned as dense blocks of values.  The scanner is
+     * not initialized if no values are selected.
+     * </p>
+     * @param scanner - The scanner to use.
+     * @param data    - The values in column-major order.
+     * @param mask    - The packed mask (see {@link BooleanArray}).
+     * @param number  - The number of elements.
+     */
+    public static void scan(DoubleScanner scanner, double[] data,
+            long[] mask, int number) {
+        final int words = (number + 63) >>> 6;
+        boolean initialized = false;
+        for (int k = 0; k < words; ++k) {
+            long word = maskWord(mask, k, number);
+            if (word == 0L) {
+                continue;
+            }
+            int offset = (k << 6);
+            if (word == -1L) {
+                int j = offset;
+                if (! initialized) {
+                    scanner.initialize(data[j++]);
+                    initialized = true;
+                }
+                for (; j < offset + 64; ++j) {
+                    scanner.update(data[j]);
+                }
+            } else {
+                do {
+                    int j = offset + Long.numberOfTrailingZeros(word);
+                    if (initialized) {
+                        scanner.update(data[j]);
+                    } else {
+                        scanner.initialize(data[j]);
+                        initialized = true;
+                    }
+                    word &= word - 1L;
+                } while (word != 0L);
+            }
+        }
+    }
+
+    /**
+     * Set the values of an array of double's selected by a mask.
+     * <p>
+     * The words of the mask which are zero are skipped, the values not
+     * selected by the mask are left unchanged.
+     * </p>
+     * @param data   - The values in column-major order.
+     * @param mask   - The packed mask (see {@link BooleanArray}).
+     * @param number - The number of elements.
+     * @param value  - The value to set.
+     */
+    public static void fill(final double[] data, final long[] mask,
+            final int number, final double value) {
+        final int words = (number + 63) >>> 6;
+        Parallel.run(words, Parallel.getGrain(words, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int k = first; k < last; ++k) {
+                    long word = maskWord(mask, k, number);
+                    if (word == 0L) {
+                        continue;
+                    }
+                    int offset = (k << 6);
+                    if (word == -1L) {
+                        for (int j = offset; j < offset + 64; ++j) {
+                            data[j] = value;
+                        }
+                    } else {
+                        do {
+                            data[offset + Long.numberOfTrailingZeros(word)] = value;
+                            word &= word - 1L;
+                        } while (word != 0L);
+                    }
+                }
+            }
+        });
+    }
+
+
     /*=======================================================================*/
     /* ZERO-PADDING */
 
@@ -0,0 +1,639 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array;
+
+import mitiv.array.impl.FlatBoolean2D;
+import mitiv.array.impl.StriddenBoolean2D;
+import mitiv.base.Shape;
+import mitiv.base.Shaped;
+import mitiv.base.Traits;
+import mitiv.base.indexing.Range;
+import mitiv.exception.NonConformableArrayException;
+import mitiv.linalg.shaped.ShapedVector;
+
+
+/**
+ * Define class for comprehensive 2-dimensional arrays of booleans.
+ *
+ * <p>
+ * The values are packed into words of 64 bits (see {@link BooleanArray}).
+ * </p>
+ */
+public abstract class Boolean2D extends Array2D implements BooleanArray {
+
+    protected Boolean2D(int dim1, int dim2) {
+        super(dim1,dim2);
+    }
+
+    protected Boolean2D(int[] dims) {
+        super(dims);
+    }
+
+    protected Boolean2D(Shape shape) {
+        super(shape);
+    }
+
+    @Override
+    public final int getType() {
+        return type;
+    }
+
+    /**
+     * Query the value stored at a given position.
+     * @param i1 - The index along the 1st dimension.
+     * @param i2 - The index along the 2nd dimension.
+     * @return The value stored at position {@code (i1,i2)}.
+     */
+    public abstract boolean get(int i1, int i2);
+
+    /**
+     * Set the value at a given position.
+     * @param i1    - The index along the 1st dimension.
+     * @param i2    - The index along the 2nd dimension.
+     * @param value - The value to store at position {@code (i1,i2)}.
+     */
+    public abstract void set(int i1, int i2, boolean value);
+
+    /*=======================================================================*/
+    /* Provide default (non-optimized, except for the loop ordering)
+     * implementation of methods that can be coded solely with the "set"
+     * and "get" methods.  Flat arrays override most of them to operate on
+     * whole words. */
+
+    @Override
+    public void fill(boolean value) {
+        if (getOrder() == ROW_MAJOR) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    set(i1,i2, value);
+                }
+            }
+        } else {
+            /* Assume column-major order. */
+            for (int i2 = 0; i2 < dim2; ++i2) {
+                for (int i1 = 0; i1 < dim1; ++i1) {
+                    set(i1,i2, value);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void not() {
+        if (getOrder() == ROW_MAJOR) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    set(i1,i2, ! get(i1,i2));
+                }
+            }
+        } else {
+            /* Assume column-major order. */
+            for (int i2 = 0; i2 < dim2; ++i2) {
+                for (int i1 = 0; i1 < dim1; ++i1) {
+                    set(i1,i2, ! get(i1,i2));
+                }
+            }
+        }
+    }
+
+    @Override
+    public int count() {
+        int n = 0;
+        if (getOrder() == ROW_MAJOR) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    if (get(i1,i2)) {
+                        ++n;
+                    }
+                }
+            }
+        } else {
+            /* Assume column-major order. */
+            for (int i2 = 0; i2 < dim2; ++i2) {
+                for (int i1 = 0; i1 < dim1; ++i1) {
+                    if (get(i1,i2)) {
+                        ++n;
+                    }
+                }
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public boolean any() {
+        if (getOrder() == ROW_MAJOR) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    if (get(i1,i2)) {
+                        return true;
+                    }
+                }
+            }
+        } else {
+            /* Assume column-major order. */
+            for (int i2 = 0; i2 < dim2; ++i2) {
+                for (int i1 = 0; i1 < dim1; ++i1) {
+                    if (get(i1,i2)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean all() {
+        if (getOrder() == ROW_MAJOR) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    if (! get(i1,i2)) {
+                        return false;
+                    }
+                }
+            }
+        } else {
+            /* Assume column-major order. */
+            for (int i2 = 0; i2 < dim2; ++i2) {
+                for (int i1 = 0; i1 < dim1; ++i1) {
+                    if (! get(i1,i2)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /* Note that the following default implementation of the "flatten" method
+     * is always returning a copy of the contents whatever the value of the
+     * "forceCopy" argument.
+     */
+    @Override
+    public boolean[] flatten(boolean forceCopy) {
+        /* Copy the elements in column-major order. */
+        boolean[] out = new boolean[number];
+        int j = -1;
+        for (int i2 = 0; i2 < dim2; ++i2) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                out[++j] = get(i1,i2);
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public boolean[] flatten() {
+        return flatten(false);
+    }
+
+    /* Note that, in the following loops, the left operand is evaluated
+     * first (as imposed by the Java language specification), hence j is
+     * incremented before computing the shift. */
+    @Override
+    public long[] getBits(boolean forceCopy) {
+        /* Pack the elements in column-major order. */
+        long[] bits = new long[(number + 63) >>> 6];
+        int j = -1;
+        for (int i2 = 0; i2 < dim2; ++i2) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                bits[++j >>> 6] |= (get(i1,i2) ? (1L << j) : 0L);
+            }
+        }
+        return bits;
+    }
+
+    /* Get the packed bits of another array of same shape. */
+    private long[] getOtherBits(BooleanArray other) {
+        if (! getShape().equals(other.getShape())) {
+            throw new NonConformableArrayException("Arrays must have the same shape.");
+        }
+        return other.getBits(false);
+    }
+
+    @Override
+    public void and(BooleanArray other) {
+        long[] bits = getOtherBits(other);
+        int j = -1;
+        for (int i2 = 0; i2 < dim2; ++i2) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                set(i1,i2, get(i1,i2) & (((bits[++j >>> 6] >>> j) & 1L) != 0L));
+            }
+        }
+    }
+
+    @Override
+    public void or(BooleanArray other) {
+        long[] bits = getOtherBits(other);
+        int j = -1;
+        for (int i2 = 0; i2 < dim2; ++i2) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                set(i1,i2, get(i1,i2) | (((bits[++j >>> 6] >>> j) & 1L) != 0L));
+            }
+        }
+    }
+
+    @Override
+    public void xor(BooleanArray other) {
+        long[] bits = getOtherBits(other);
+        int j = -1;
+        for (int i2 = 0; i2 < dim2; ++i2) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                set(i1,i2, get(i1,i2) ^ (((bits[++j >>> 6] >>> j) & 1L) != 0L));
+            }
+        }
+    }
+
+    @Override
+    public void andNot(BooleanArray other) {
+        long[] bits = getOtherBits(other);
+        int j = -1;
+        for (int i2 = 0; i2 < dim2; ++i2) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                set(i1,i2, get(i1,i2) & ! (((bits[++j >>> 6] >>> j) & 1L) != 0L));
+            }
+        }
+    }
+
+    /**
+     * Convert instance into a Byte2D.
+     *
+     * @return A Byte2D whose values are 1 where {@code this}
+     *         is true and 0 elsewhere.
+     */
+    @Override
+    public Byte2D toByte() {
+        byte[] out = new byte[number];
+        int j = -1;
+        for (int i2 = 0; i2 < dim2; ++i2) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                out[++j] = (get(i1,i2) ? (byte)1 : (byte)0);
+            }
+        }
+        return Byte2D.wrap(out, dim1,dim2);
+    }
+
+    /**
+     * Convert instance into a Short2D.
+     *
+     * @return A Short2D whose values are 1 where {@code this}
+     *         is true and 0 elsewhere.
+     */
+    @Override
+    public Short2D toShort() {
+        short[] out = new short[number];
+        int j = -1;
+        for (int i2 = 0; i2 < dim2; ++i2) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                out[++j] = (get(i1,i2) ? (short)1 : (short)0);
+            }
+        }
+        return Short2D.wrap(out, dim1,dim2);
+    }
+
+    /**
+     * Convert instance into an Int2D.
+     *
+     * @return An Int2D whose values are 1 where {@code this}
+     *         is true and 0 elsewhere.
+     */
+    @Override
+    public Int2D toInt() {
+        int[] out = new int[number];
+        int j = -1;
+        for (int i2 = 0; i2 < dim2; ++i2) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                out[++j] = (get(i1,i2) ? 1 : 0);
+            }
+        }
+        return Int2D.wrap(out, dim1,dim2);
+    }
+
+    /**
+     * Convert instance into a Long2D.
+     *
+     * @return A Long2D whose values are 1 where {@code this}
+     *         is true and 0 elsewhere.
+     */
+    @Override
+    public Long2D toLong() {
+        long[] out = new long[number];
+        int j = -1;
+        for (int i2 = 0; i2 < dim2; ++i2) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                out[++j] = (get(i1,i2) ? 1L : 0L);
+            }
+        }
+        return Long2D.wrap(out, dim1,dim2);
+    }
+
+    /**
+     * Convert instance into a Float2D.
+     *
+     * @return A Float2D whose values are 1 where {@code this}
+     *         is true and 0 elsewhere.
+     */
+    @Override
+    public Float2D toFloat() {
+        float[] out = new float[number];
+        int j = -1;
+        for (int i2 = 0; i2 < dim2; ++i2) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                out[++j] = (get(i1,i2) ? 1.0F : 0.0F);
+            }
+        }
+        return Float2D.wrap(out, dim1,dim2);
+    }
+
+    /**
+     * Convert instance into a Double2D.
+     *
+     * @return A Double2D whose values are 1 where {@code this}
+     *         is true and 0 elsewhere.
+     */
+    @Override
+    public Double2D toDouble() {
+        double[] out = new double[number];
+        int j = -1;
+        for (int i2 = 0; i2 < dim2; ++i2) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                out[++j] = (get(i1,i2) ? 1.0 : 0.0);
+            }
+        }
+        return Double2D.wrap(out, dim1,dim2);
+    }
+
+    @Override
+    public Boolean2D copy() {
+        return new FlatBoolean2D(getBits(true), shape);
+    }
+
+    /**
+     * Assign the values of the object from those of another shaped array.
+     * <p>
+     * The shape of the source and of the destination must match, values
+     * of arrays of numbers are converted so that non-zero values are true.
+     * </p>
+     * @param arr - The source object.
+     */
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! getShape().equals(arr.getShape())) {
+            throw new NonConformableArrayException("Source and destination must have the same shape.");
+        }
+        int j = -1;
+        if (arr.getType() == Traits.BOOLEAN) {
+            long[] bits = ((BooleanArray)arr).getBits(false);
+            for (int i2 = 0; i2 < dim2; ++i2) {
+                for (int i1 = 0; i1 < dim1; ++i1) {
+                    set(i1,i2, ((bits[++j >>> 6] >>> j) & 1L) != 0L);
+                }
+            }
+        } else {
+            double[] values = arr.toDouble().flatten(false);
+            for (int i2 = 0; i2 < dim2; ++i2) {
+                for (int i1 = 0; i1 < dim1; ++i1) {
+                    set(i1,i2, values[++j] != 0.0);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void assign(ShapedVector vec) {
+        if (! getShape().equals(vec.getShape())) {
+            throw new NonConformableArrayException("Source and destination must have the same shape.");
+        }
+        int j = -1;
+        for (int i2 = 0; i2 < dim2; ++i2) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                set(i1,i2, vec.get(++j) != 0.0);
+            }
+        }
+    }
+
+    /*=======================================================================*/
+    /* ARRAY FACTORIES */
+
+    @Override
+    public Boolean2D create() {
+        return new FlatBoolean2D(getShape());
+    }
+
+    /**
+     * Create a 2D array of booleans with given dimensions.
+     * <p>
+     * This method creates a 2D array of booleans with zero offset,
+     * contiguous elements and column-major order.  All dimensions must at
+     * least 1.  All values are initially false.
+     * @param dim1 - The 1st dimension of the 2D array.
+     * @param dim2 - The 2nd dimension of the 2D array.
+     * @return A new 2D array of booleans.
+     * @see {@link Shaped#COLUMN_MAJOR}
+     */
+    public static Boolean2D create(int dim1, int dim2) {
+        return new FlatBoolean2D(dim1,dim2);
+    }
+
+    /**
+     * Create a 2D array of booleans with given shape.
+     * <p>
+     * This method creates a 2D array of booleans with zero offset,
+     * contiguous elements and column-major order.  All values are initially
+     * false.
+     * @param dims - The list of dimensions of the 2D array (all dimensions
+     *               must at least 1).  This argument is not referenced by
+     *               the returned object and its contents can be modified
+     *               after calling this method.
+     * @return A new 2D array of booleans.
+     * @see {@link Shaped#COLUMN_MAJOR}
+     */
+    public static Boolean2D create(int[] dims) {
+        return new FlatBoolean2D(dims);
+    }
+
+    /**
+     * Create a 2D array of booleans with given shape.
+     * <p>
+     * This method creates a 2D array of booleans with zero offset,
+     * contiguous elements and column-major order.  All values are initially
+     * false.
+     * @param shape - The shape of the 2D array.
+     * @return A new 2D array of booleans.
+     * @see {@link Shaped#COLUMN_MAJOR}
+     */
+    public static Boolean2D create(Shape shape) {
+        return new FlatBoolean2D(shape);
+    }
+
+    /**
+     * Wrap packed words in a 2D array of booleans with given dimensions.
+     * <p>
+     * The returned 2D array have zero offset, contiguous elements and
+     * column-major storage order.  More specifically:
+     * <pre>arr.get(i1,i2) = (((bits[j >>> 6] >>> j) & 1L) != 0L)</pre>
+     * with {@code arr} the returned 2D array and
+     * {@code j = i1 + dim1*i2}.
+     * @param bits - The packed words to wrap in the 2D array.
+     * @param dim1 - The 1st dimension of the 2D array.
+     * @param dim2 - The 2nd dimension of the 2D array.
+     * @return A 2D array sharing the words of <b>bits</b>.
+     * @see {@link Shaped#COLUMN_MAJOR}
+     */
+    public static Boolean2D wrap(long[] bits, int dim1, int dim2) {
+        return new FlatBoolean2D(bits, dim1,dim2);
+    }
+
+    /**
+     * Wrap packed words in a 2D array of booleans with given shape.
+     * @param bits - The packed words to wrap in the 2D array.
+     * @param dims - The list of dimensions of the 2D array.  This argument is
+     *                not referenced by the returned object and its contents
+     *                can be modified after the call to this method.
+     * @return A new 2D array of booleans sharing the words of <b>bits</b>.
+     * @see #wrap(long[], int dim1, int dim2)
+     */
+    public static Boolean2D wrap(long[] bits, int[] dims) {
+        return new FlatBoolean2D(bits, dims);
+    }
+
+    /**
+     * Wrap packed words in a 2D array of booleans with given shape.
+     * @param bits  - The packed words to wrap in the 2D array.
+     * @param shape - The shape of the 2D array.
+     * @return A new 2D array of booleans sharing the words of <b>bits</b>.
+     * @see #wrap(long[], int dim1, int dim2)
+     */
+    public static Boolean2D wrap(long[] bits, Shape shape) {
+        return new FlatBoolean2D(bits, shape);
+    }
+
+    /**
+     * Wrap packed words in a 2D array of booleans with given dimensions,
+     * strides and offset.
+     * <p>
+     * This creates a 2D array of dimensions {{@code dim1,dim2}}
+     * sharing (part of) the bits of {@code bits} in arbitrary storage
+     * order.  More specifically, the value of {@code arr.get(i1,i2)}
+     * is bit {@code j} of the packed words with:
+     * <pre>j = offset + stride1*i1 + stride2*i2</pre>
+     * and {@code arr} the returned 2D array.
+     * @param bits    - The packed words to wrap in the 2D array.
+     * @param offset  - The index of the bit of element (0,0) of
+     *                  the 2D array.
+     * @param stride1 - The stride along the 1st dimension.
+     * @param stride2 - The stride along the 2nd dimension.
+     * @param dim1    - The 1st dimension of the 2D array.
+     * @param dim2    - The 2nd dimension of the 2D array.
+     * @return A 2D array sharing the words of <b>bits</b>.
+     */
+    public static Boolean2D wrap(long[] bits,
+            int offset, int stride1, int stride2, int dim1, int dim2) {
+        return new StriddenBoolean2D(bits, offset, stride1,stride2, dim1,dim2);
+    }
+
+    /**
+     * Get a slice of the array.
+     *
+     * @param idx - The index of the slice along the last dimension of
+     *              the array.  The same indexing rules as for
+     *              {@link mitiv.base.indexing.Range} apply for negative
+     *              index: 0 for the first, 1 for the second, -1 for the
+     *              last, -2 for penultimate, <i>etc.</i>
+     * @return A Boolean1D view on the given slice of the array.
+     */
+    public abstract Boolean1D slice(int idx);
+
+    /**
+     * Get a slice of the array.
+     *
+     * @param idx - The index of the slice along the last dimension of
+     *              the array.
+     * @param dim - The dimension to slice.  For these two arguments,
+     *              the same indexing rules as for
+     *              {@link mitiv.base.indexing.Range} apply for negative
+     *              index: 0 for the first, 1 for the second, -1 for the
+     *              last, -2 for penultimate, <i>etc.</i>
+     *
+     * @return A Boolean1D view on the given slice of the array.
+     */
+    public abstract Boolean1D slice(int idx, int dim);
+
+    /**
+     * Get a view of the array for given ranges of indices.
+     *
+     * @param rng1 - The range of indices to select along 1st dimension
+     *               (or {@code null} to select all.
+     * @param rng2 - The range of indices to select along 2nd dimension
+     *               (or {@code null} to select all.
+     *
+     * @return A Boolean2D view for the given ranges of the array.
+     */
+    public abstract Boolean2D view(Range rng1, Range rng2);
+
+    /**
+     * Get a view of the array for given ranges of indices.
+     *
+     * @param idx1 - The list of indices to select along 1st dimension
+     *               (or {@code null} to select all.
+     * @param idx2 - The list of indices to select along 2nd dimension
+     *               (or {@code null} to select all.
+     *
+     * @return A Boolean2D view for the given index selections of the
+     *         array.
+     */
+    public abstract Boolean2D view(int[] idx1, int[] idx2);
+
+    /**
+     * Get a view of the array as a 1D array.
+     *
+     * @return A 1D view of the array.
+     */
+    @Override
+    public abstract Boolean1D as1D();
+
+    @Override
+    public abstract Boolean2D permute(int... perm);
+
+    @Override
+    public Boolean2D transpose() {
+        return permute(1, 0);
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
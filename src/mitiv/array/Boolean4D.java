@@ -0,0 +1,759 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array;
+
+import mitiv.array.impl.FlatBoolean4D;
+import mitiv.array.impl.StriddenBoolean4D;
+import mitiv.base.Shape;
+import mitiv.base.Shaped;
+import mitiv.base.Traits;
+import mitiv.base.indexing.Range;
+import mitiv.exception.NonConformableArrayException;
+import mitiv.linalg.shaped.ShapedVector;
+
+
+/**
+ * Define class for comprehensive 4-dimensional arrays of booleans.
+ *
+ * <p>
+ * The values are packed into words of 64 bits (see {@link BooleanArray}).
+ * </p>
+ */
+public abstract class Boolean4D extends Array4D implements BooleanArray {
+
+    protected Boolean4D(int dim1, int dim2, int dim3, int dim4) {
+        super(dim1,dim2,dim3,dim4);
+    }
+
+    protected Boolean4D(int[] dims) {
+        super(dims);
+    }
+
+    protected Boolean4D(Shape shape) {
+        super(shape);
+    }
+
+    @Override
+    public final int getType() {
+        return type;
+    }
+
+    /**
+     * Query the value stored at a given position.
+     * @param i1 - The index along the 1st dimension.
+     * @param i2 - The index along the 2nd dimension.
+     * @param i3 - The index along the 3rd dimension.
+     * @param i4 - The index along the 4th dimension.
+     * @return The value stored at position {@code (i1,i2,i3,i4)}.
+     */
+    public abstract boolean get(int i1, int i2, int i3, int i4);
+
+    /**
+     * Set the value at a given position.
+     * @param i1    - The index along the 1st dimension.
+     * @param i2    - The index along the 2nd dimension.
+     * @param i3    - The index along the 3rd dimension.
+     * @param i4    - The index along the 4th dimension.
+     * @param value - The value to store at position {@code (i1,i2,i3,i4)}.
+     */
+    public abstract void set(int i1, int i2, int i3, int i4, boolean value);
+
+    /*=======================================================================*/
+    /* Provide default (non-optimized, except for the loop ordering)
+     * implementation of methods that can be coded solely with the "set"
+     * and "get" methods.  Flat arrays override most of them to operate on
+     * whole words. */
+
+    @Override
+    public void fill(boolean value) {
+        if (getOrder() == ROW_MAJOR) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i3 = 0; i3 < dim3; ++i3) {
+                        for (int i4 = 0; i4 < dim4; ++i4) {
+                            set(i1,i2,i3,i4, value);
+                        }
+                    }
+                }
+            }
+        } else {
+            /* Assume column-major order. */
+            for (int i4 = 0; i4 < dim4; ++i4) {
+                for (int i3 = 0; i3 < dim3; ++i3) {
+                    for (int i2 = 0; i2 < dim2; ++i2) {
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            set(i1,i2,i3,i4, value);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void not() {
+        if (getOrder() == ROW_MAJOR) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i3 = 0; i3 < dim3; ++i3) {
+                        for (int i4 = 0; i4 < dim4; ++i4) {
+                            set(i1,i2,i3,i4, ! get(i1,i2,i3,i4));
+                        }
+                    }
+                }
+            }
+        } else {
+            /* Assume column-major order. */
+            for (int i4 = 0; i4 < dim4; ++i4) {
+                for (int i3 = 0; i3 < dim3; ++i3) {
+                    for (int i2 = 0; i2 < dim2; ++i2) {
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            set(i1,i2,i3,i4, ! get(i1,i2,i3,i4));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public int count() {
+        int n = 0;
+        if (getOrder() == ROW_MAJOR) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i3 = 0; i3 < dim3; ++i3) {
+                        for (int i4 = 0; i4 < dim4; ++i4) {
+                            if (get(i1,i2,i3,i4)) {
+                                ++n;
+                            }
+                        }
+                    }
+                }
+            }
+        } else {
+            /* Assume column-major order. */
+            for (int i4 = 0; i4 < dim4; ++i4) {
+                for (int i3 = 0; i3 < dim3; ++i3) {
+                    for (int i2 = 0; i2 < dim2; ++i2) {
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            if (get(i1,i2,i3,i4)) {
+                                ++n;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public boolean any() {
+        if (getOrder() == ROW_MAJOR) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i3 = 0; i3 < dim3; ++i3) {
+                        for (int i4 = 0; i4 < dim4; ++i4) {
+                            if (get(i1,i2,i3,i4)) {
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+        } else {
+            /* Assume column-major order. */
+            for (int i4 = 0; i4 < dim4; ++i4) {
+                for (int i3 = 0; i3 < dim3; ++i3) {
+                    for (int i2 = 0; i2 < dim2; ++i2) {
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            if (get(i1,i2,i3,i4)) {
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean all() {
+        if (getOrder() == ROW_MAJOR) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i3 = 0; i3 < dim3; ++i3) {
+                        for (int i4 = 0; i4 < dim4; ++i4) {
+                            if (! get(i1,i2,i3,i4)) {
+                                return false;
+                            }
+                        }
+                    }
+                }
+            }
+        } else {
+            /* Assume column-major order. */
+            for (int i4 = 0; i4 < dim4; ++i4) {
+                for (int i3 = 0; i3 < dim3; ++i3) {
+                    for (int i2 = 0; i2 < dim2; ++i2) {
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            if (! get(i1,i2,i3,i4)) {
+                                return false;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /* Note that the following default implementation of the "flatten" method
+     * is always returning a copy of the contents whatever the value of the
+     * "forceCopy" argument.
+     */
+    @Override
+    public boolean[] flatten(boolean forceCopy) {
+        /* Copy the elements in column-major order. */
+        boolean[] out = new boolean[number];
+        int j = -1;
+        for (int i4 = 0; i4 < dim4; ++i4) {
+            for (int i3 = 0; i3 < dim3; ++i3) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        out[++j] = get(i1,i2,i3,i4);
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public boolean[] flatten() {
+        return flatten(false);
+    }
+
+    /* Note that, in the following loops, the left operand is evaluated
+     * first (as imposed by the Java language specification), hence j is
+     * incremented before computing the shift. */
+    @Override
+    public long[] getBits(boolean forceCopy) {
+        /* Pack the elements in column-major order. */
+        long[] bits = new long[(number + 63) >>> 6];
+        int j = -1;
+        for (int i4 = 0; i4 < dim4; ++i4) {
+            for (int i3 = 0; i3 < dim3; ++i3) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        bits[++j >>> 6] |= (get(i1,i2,i3,i4) ? (1L << j) : 0L);
+                    }
+                }
+            }
+        }
+        return bits;
+    }
+
+    /* Get the packed bits of another array of same shape. */
+    private long[] getOtherBits(BooleanArray other) {
+        if (! getShape().equals(other.getShape())) {
+            throw new NonConformableArrayException("Arrays must have the same shape.");
+        }
+        return other.getBits(false);
+    }
+
+    @Override
+    public void and(BooleanArray other) {
+        long[] bits = getOtherBits(other);
+        int j = -1;
+        for (int i4 = 0; i4 < dim4; ++i4) {
+            for (int i3 = 0; i3 < dim3; ++i3) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        set(i1,i2,i3,i4, get(i1,i2,i3,i4) & (((bits[++j >>> 6] >>> j) & 1L) != 0L));
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void or(BooleanArray other) {
+        long[] bits = getOtherBits(other);
+        int j = -1;
+        for (int i4 = 0; i4 < dim4; ++i4) {
+            for (int i3 = 0; i3 < dim3; ++i3) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        set(i1,i2,i3,i4, get(i1,i2,i3,i4) | (((bits[++j >>> 6] >>> j) & 1L) != 0L));
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void xor(BooleanArray other) {
+        long[] bits = getOtherBits(other);
+        int j = -1;
+        for (int i4 = 0; i4 < dim4; ++i4) {
+            for (int i3 = 0; i3 < dim3; ++i3) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        set(i1,i2,i3,i4, get(i1,i2,i3,i4) ^ (((bits[++j >>> 6] >>> j) & 1L) != 0L));
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void andNot(BooleanArray other) {
+        long[] bits = getOtherBits(other);
+        int j = -1;
+        for (int i4 = 0; i4 < dim4; ++i4) {
+            for (int i3 = 0; i3 < dim3; ++i3) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        set(i1,i2,i3,i4, get(i1,i2,i3,i4) & ! (((bits[++j >>> 6] >>> j) & 1L) != 0L));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Convert instance into a Byte4D.
+     *
+     * @return A Byte4D whose values are 1 where {@code this}
+     *         is true and 0 elsewhere.
+     */
+    @Override
+    public Byte4D toByte() {
+        byte[] out = new byte[number];
+        int j = -1;
+        for (int i4 = 0; i4 < dim4; ++i4) {
+            for (int i3 = 0; i3 < dim3; ++i3) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        out[++j] = (get(i1,i2,i3,i4) ? (byte)1 : (byte)0);
+                    }
+                }
+            }
+        }
+        return Byte4D.wrap(out, dim1,dim2,dim3,dim4);
+    }
+
+    /**
+     * Convert instance into a Short4D.
+     *
+     * @return A Short4D whose values are 1 where {@code this}
+     *         is true and 0 elsewhere.
+     */
+    @Override
+    public Short4D toShort() {
+        short[] out = new short[number];
+        int j = -1;
+        for (int i4 = 0; i4 < dim4; ++i4) {
+            for (int i3 = 0; i3 < dim3; ++i3) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        out[++j] = (get(i1,i2,i3,i4) ? (short)1 : (short)0);
+                    }
+                }
+            }
+        }
+        return Short4D.wrap(out, dim1,dim2,dim3,dim4);
+    }
+
+    /**
+     * Convert instance into an Int4D.
+     *
+     * @return An Int4D whose values are 1 where {@code this}
+     *         is true and 0 elsewhere.
+     */
+    @Override
+    public Int4D toInt() {
+        int[] out = new int[number];
+        int j = -1;
+        for (int i4 = 0; i4 < dim4; ++i4) {
+            for (int i3 = 0; i3 < dim3; ++i3) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        out[++j] = (get(i1,i2,i3,i4) ? 1 : 0);
+                    }
+                }
+            }
+        }
+        return Int4D.wrap(out, dim1,dim2,dim3,dim4);
+    }
+
+    /**
+     * Convert instance into a Long4D.
+     *
+     * @return A Long4D whose values are 1 where {@code this}
+     *         is true and 0 elsewhere.
+     */
+    @Override
+    public Long4D toLong() {
+        long[] out = new long[number];
+        int j = -1;
+        for (int i4 = 0; i4 < dim4; ++i4) {
+            for (int i3 = 0; i3 < dim3; ++i3) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        out[++j] = (get(i1,i2,i3,i4) ? 1L : 0L);
+                    }
+                }
+            }
+        }
+        return Long4D.wrap(out, dim1,dim2,dim3,dim4);
+    }
+
+    /**
+     * Convert instance into a Float4D.
+     *
+     * @return A Float4D whose values are 1 where {@code this}
+     *         is true and 0 elsewhere.
+     */
+    @Override
+    public Float4D toFloat() {
+        float[] out = new float[number];
+        int j = -1;
+        for (int i4 = 0; i4 < dim4; ++i4) {
+            for (int i3 = 0; i3 < dim3; ++i3) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        out[++j] = (get(i1,i2,i3,i4) ? 1.0F : 0.0F);
+                    }
+                }
+            }
+        }
+        return Float4D.wrap(out, dim1,dim2,dim3,dim4);
+    }
+
+    /**
+     * Convert instance into a Double4D.
+     *
+     * @return A Double4D whose values are 1 where {@code this}
+     *         is true and 0 elsewhere.
+     */
+    @Override
+    public Double4D toDouble() {
+        double[] out = new double[number];
+        int j = -1;
+        for (int i4 = 0; i4 < dim4; ++i4) {
+            for (int i3 = 0; i3 < dim3; ++i3) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        out[++j] = (get(i1,i2,i3,i4) ? 1.0 : 0.0);
+                    }
+                }
+            }
+        }
+        return Double4D.wrap(out, dim1,dim2,dim3,dim4);
+    }
+
+    @Override
+    public Boolean4D copy() {
+        return new FlatBoolean4D(getBits(true), shape);
+    }
+
+    /**
+     * Assign the values of the object from those of another shaped array.
+     * <p>
+     * The shape of the source and of the destination must match, values
+     * of arrays of numbers are converted so that non-zero values are true.
+     * </p>
+     * @param arr - The source object.
+     */
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! getShape().equals(arr.getShape())) {
+            throw new NonConformableArrayException("Source and destination must have the same shape.");
+        }
+        int j = -1;
+        if (arr.getType() == Traits.BOOLEAN) {
+            long[] bits = ((BooleanArray)arr).getBits(false);
+            for (int i4 = 0; i4 < dim4; ++i4) {
+                for (int i3 = 0; i3 < dim3; ++i3) {
+                    for (int i2 = 0; i2 < dim2; ++i2) {
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            set(i1,i2,i3,i4, ((bits[++j >>> 6] >>> j) & 1L) != 0L);
+                        }
+                    }
+                }
+            }
+        } else {
+            double[] values = arr.toDouble().flatten(false);
+            for (int i4 = 0; i4 < dim4; ++i4) {
+                for (int i3 = 0; i3 < dim3; ++i3) {
+                    for (int i2 = 0; i2 < dim2; ++i2) {
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            set(i1,i2,i3,i4, values[++j] != 0.0);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void assign(ShapedVector vec) {
+        if (! getShape().equals(vec.getShape())) {
+            throw new NonConformableArrayException("Source and destination must have the same shape.");
+        }
+        int j = -1;
+        for (int i4 = 0; i4 < dim4; ++i4) {
+            for (int i3 = 0; i3 < dim3; ++i3) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        set(i1,i2,i3,i4, vec.get(++j) != 0.0);
+                    }
+                }
+            }
+        }
+    }
+
+    /*=======================================================================*/
+    /* ARRAY FACTORIES */
+
+    @Override
+    public Boolean4D create() {
+        return new FlatBoolean4D(getShape());
+    }
+
+    /**
+     * Create a 4D array of booleans with given dimensions.
+     * <p>
+     * This method creates a 4D array of booleans with zero offset,
+     * contiguous elements and column-major order.  All dimensions must at
+     * least 1.  All values are initially false.
+     * @param dim1 - The 1st dimension of the 4D array.
+     * @param dim2 - The 2nd dimension of the 4D array.
+     * @param dim3 - The 3rd dimension of the 4D array.
+     * @param dim4 - The 4th dimension of the 4D array.
+     * @return A new 4D array of booleans.
+     * @see {@link Shaped#COLUMN_MAJOR}
+     */
+    public static Boolean4D create(int dim1, int dim2, int dim3, int dim4) {
+        return new FlatBoolean4D(dim1,dim2,dim3,dim4);
+    }
+
+    /**
+     * Create a 4D array of booleans with given shape.
+     * <p>
+     * This method creates a 4D array of booleans with zero offset,
+     * contiguous elements and column-major order.  All values are initially
+     * false.
+     * @param dims - The list of dimensions of the 4D array (all dimensions
+     *               must at least 1).  This argument is not referenced by
+     *               the returned object and its contents can be modified
+     *               after calling this method.
+     * @return A new 4D array of booleans.
+     * @see {@link Shaped#COLUMN_MAJOR}
+     */
+    public static Boolean4D create(int[] dims) {
+        return new FlatBoolean4D(dims);
+    }
+
+    /**
+     * Create a 4D array of booleans with given shape.
+     * <p>
+     * This method creates a 4D array of booleans with zero offset,
+     * contiguous elements and column-major order.  All values are initially
+     * false.
+     * @param shape - The shape of the 4D array.
+     * @return A new 4D array of booleans.
+     * @see {@link Shaped#COLUMN_MAJOR}
+     */
+    public static Boolean4D create(Shape shape) {
+        return new FlatBoolean4D(shape);
+    }
+
+    /**
+     * Wrap packed words in a 4D array of booleans with given dimensions.
+     * <p>
+     * The returned 4D array have zero offset, contiguous elements and
+     * column-major storage order.  More specifically:
+     * <pre>arr.get(i1,i2,i3,i4) = (((bits[j >>> 6] >>> j) & 1L) != 0L)</pre>
+     * with {@code arr} the returned 4D array and
+     * {@code j = i1 + dim1*(i2 + dim2*(i3 + dim3*i4))}.
+     * @param bits - The packed words to wrap in the 4D array.
+     * @param dim1 - The 1st dimension of the 4D array.
+     * @param dim2 - The 2nd dimension of the 4D array.
+     * @param dim3 - The 3rd dimension of the 4D array.
+     * @param dim4 - The 4th dimension of the 4D array.
+     * @return A 4D array sharing the words of <b>bits</b>.
+     * @see {@link Shaped#COLUMN_MAJOR}
+     */
+    public static Boolean4D wrap(long[] bits, int dim1, int dim2, int dim3, int dim4) {
+        return new FlatBoolean4D(bits, dim1,dim2,dim3,dim4);
+    }
+
+    /**
+     * Wrap packed words in a 4D array of booleans with given shape.
+     * @param bits - The packed words to wrap in the 4D array.
+     * @param dims - The list of dimensions of the 4D array.  This argument is
+     *                not referenced by the returned object and its contents
+     *                can be modified after the call to this method.
+     * @return A new 4D array of booleans sharing the words of <b>bits</b>.
+     * @see #wrap(long[], int dim1, int dim2, int dim3, int dim4)
+     */
+    public static Boolean4D wrap(long[] bits, int[] dims) {
+        return new FlatBoolean4D(bits, dims);
+    }
+
+    /**
+     * Wrap packed words in a 4D array of booleans with given shape.
+     * @param bits  - The packed words to wrap in the 4D array.
+     * @param shape - The shape of the 4D array.
+     * @return A new 4D array of booleans sharing the words of <b>bits</b>.
+     * @see #wrap(long[], int dim1, int dim2, int dim3, int dim4)
+     */
+    public static Boolean4D wrap(long[] bits, Shape shape) {
+        return new FlatBoolean4D(bits, shape);
+    }
+
+    /**
+     * Wrap packed words in a 4D array of booleans with given dimensions,
+     * strides and offset.
+     * <p>
+     * This creates a 4D array of dimensions {{@code dim1,dim2,dim3,dim4}}
+     * sharing (part of) the bits of {@code bits} in arbitrary storage
+     * order.  More specifically, the value of {@code arr.get(i1,i2,i3,i4)}
+     * is bit {@code j} of the packed words with:
+     * <pre>j = offset + stride1*i1 + stride2*i2 + stride3*i3 + stride4*i4</pre>
+     * and {@code arr} the returned 4D array.
+     * @param bits    - The packed words to wrap in the 4D array.
+     * @param offset  - The index of the bit of element (0,0,0,0) of
+     *                  the 4D array.
+     * @param stride1 - The stride along the 1st dimension.
+     * @param stride2 - The stride along the 2nd dimension.
+     * @param stride3 - The stride along the 3rd dimension.
+     * @param stride4 - The stride along the 4th dimension.
+     * @param dim1    - The 1st dimension of the 4D array.
+     * @param dim2    - The 2nd dimension of the 4D array.
+     * @param dim3    - The 3rd dimension of the 4D array.
+     * @param dim4    - The 4th dimension of the 4D array.
+     * @return A 4D array sharing the words of <b>bits</b>.
+     */
+    public static Boolean4D wrap(long[] bits,
+            int offset, int stride1, int stride2, int stride3, int stride4, int dim1, int dim2, int dim3, int dim4) {
+        return new StriddenBoolean4D(bits, offset, stride1,stride2,stride3,stride4, dim1,dim2,dim3,dim4);
+    }
+
+    /**
+     * Get a slice of the array.
+     *
+     * @param idx - The index of the slice along the last dimension of
+     *              the array.  The same indexing rules as for
+     *              {@link mitiv.base.indexing.Range} apply for negative
+     *              index: 0 for the first, 1 for the second, -1 for the
+     *              last, -2 for penultimate, <i>etc.</i>
+     * @return A Boolean3D view on the given slice of the array.
+     */
+    public abstract Boolean3D slice(int idx);
+
+    /**
+     * Get a slice of the array.
+     *
+     * @param idx - The index of the slice along the last dimension of
+     *              the array.
+     * @param dim - The dimension to slice.  For these two arguments,
+     *              the same indexing rules as for
+     *              {@link mitiv.base.indexing.Range} apply for negative
+     *              index: 0 for the first, 1 for the second, -1 for the
+     *              last, -2 for penultimate, <i>etc.</i>
+     *
+     * @return A Boolean3D view on the given slice of the array.
+     */
+    public abstract Boolean3D slice(int idx, int dim);
+
+    /**
+     * Get a view of the array for given ranges of indices.
+     *
+     * @param rng1 - The range of indices to select along 1st dimension
+     *               (or {@code null} to select all.
+     * @param rng2 - The range of indices to select along 2nd dimension
+     *               (or {@code null} to select all.
+     * @param rng3 - The range of indices to select along 3rd dimension
+     *               (or {@code null} to select all.
+     * @param rng4 - The range of indices to select along 4th dimension
+     *               (or {@code null} to select all.
+     *
+     * @return A Boolean4D view for the given ranges of the array.
+     */
+    public abstract Boolean4D view(Range rng1, Range rng2, Range rng3, Range rng4);
+
+    /**
+     * Get a view of the array for given ranges of indices.
+     *
+     * @param idx1 - The list of indices to select along 1st dimension
+     *               (or {@code null} to select all.
+     * @param idx2 - The list of indices to select along 2nd dimension
+     *               (or {@code null} to select all.
+     * @param idx3 - The list of indices to select along 3rd dimension
+     *               (or {@code null} to select all.
+     * @param idx4 - The list of indices to select along 4th dimension
+     *               (or {@code null} to select all.
+     *
+     * @return A Boolean4D view for the given index selections of the
+     *         array.
+     */
+    public abstract Boolean4D view(int[] idx1, int[] idx2, int[] idx3, int[] idx4);
+
+    /**
+     * Get a view of the array as a 1D array.
+     *
+     * @return A 1D view of the array.
+     */
+    @Override
+    public abstract Boolean1D as1D();
+
+    @Override
+    public abstract Boolean4D permute(int... perm);
+
+    @Override
+    public Boolean4D transpose() {
+        return permute(3, 2, 1, 0);
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,1059 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array;
+
+import mitiv.array.impl.FlatBoolean9D;
+import mitiv.array.impl.StriddenBoolean9D;
+import mitiv.base.Shape;
+import mitiv.base.Shaped;
+import mitiv.base.Traits;
+import mitiv.base.indexing.Range;
+import mitiv.exception.NonConformableArrayException;
+import mitiv.linalg.shaped.ShapedVector;
+
+
+/**
+ * Define class for comprehensive 9-dimensional arrays of booleans.
+ *
+ * <p>
+ * The values are packed into words of 64 bits (see {@link BooleanArray}).
+ * </p>
+ */
+public abstract class Boolean9D extends Array9D implements BooleanArray {
+
+    protected Boolean9D(int dim1, int dim2, int dim3, int dim4, int dim5, int dim6, int dim7, int dim8, int dim9) {
+        super(dim1,dim2,dim3,dim4,dim5,dim6,dim7,dim8,dim9);
+    }
+
+    protected Boolean9D(int[] dims) {
+        super(dims);
+    }
+
+    protected Boolean9D(Shape shape) {
+        super(shape);
+    }
+
+    @Override
+    public final int getType() {
+        return type;
+    }
+
+    /**
+     * Query the value stored at a given position.
+     * @param i1 - The index along the 1st dimension.
+     * @param i2 - The index along the 2nd dimension.
+     * @param i3 - The index along the 3rd dimension.
+     * @param i4 - The index along the 4th dimension.
+     * @param i5 - The index along the 5th dimension.
+     * @param i6 - The index along the 6th dimension.
+     * @param i7 - The index along the 7th dimension.
+     * @param i8 - The index along the 8th dimension.
+     * @param i9 - The index along the 9th dimension.
+     * @return The value stored at position {@code (i1,i2,i3,i4,i5,i6,i7,i8,i9)}.
+     */
+    public abstract boolean get(int i1, int i2, int i3, int i4, int i5, int i6, int i7, int i8, int i9);
+
+    /**
+     * Set the value at a given position.
+     * @param i1    - The index along the 1st dimension.
+     * @param i2    - The index along the 2nd dimension.
+     * @param i3    - The index along the 3rd dimension.
+     * @param i4    - The index along the 4th dimension.
+     * @param i5    - The index along the 5th dimension.
+     * @param i6    - The index along the 6th dimension.
+     * @param i7    - The index along the 7th dimension.
+     * @param i8    - The index along the 8th dimension.
+     * @param i9    - The index along the 9th dimension.
+     * @param value - The value to store at position {@code (i1,i2,i3,i4,i5,i6,i7,i8,i9)}.
+     */
+    public abstract void set(int i1, int i2, int i3, int i4, int i5, int i6, int i7, int i8, int i9, boolean value);
+
+    /*=======================================================================*/
+    /* Provide default (non-optimized, except for the loop ordering)
+     * implementation of methods that can be coded solely with the "set"
+     * and "get" methods.  Flat arrays override most of them to operate on
+     * whole words. */
+
+    @Override
+    public void fill(boolean value) {
+        if (getOrder() == ROW_MAJOR) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i3 = 0; i3 < dim3; ++i3) {
+                        for (int i4 = 0; i4 < dim4; ++i4) {
+                            for (int i5 = 0; i5 < dim5; ++i5) {
+                                for (int i6 = 0; i6 < dim6; ++i6) {
+                                    for (int i7 = 0; i7 < dim7; ++i7) {
+                                        for (int i8 = 0; i8 < dim8; ++i8) {
+                                            for (int i9 = 0; i9 < dim9; ++i9) {
+                                                set(i1,i2,i3,i4,i5,i6,i7,i8,i9, value);
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        } else {
+            /* Assume column-major order. */
+            for (int i9 = 0; i9 < dim9; ++i9) {
+                for (int i8 = 0; i8 < dim8; ++i8) {
+                    for (int i7 = 0; i7 < dim7; ++i7) {
+                        for (int i6 = 0; i6 < dim6; ++i6) {
+                            for (int i5 = 0; i5 < dim5; ++i5) {
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    for (int i3 = 0; i3 < dim3; ++i3) {
+                                        for (int i2 = 0; i2 < dim2; ++i2) {
+                                            for (int i1 = 0; i1 < dim1; ++i1) {
+                                                set(i1,i2,i3,i4,i5,i6,i7,i8,i9, value);
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void not() {
+        if (getOrder() == ROW_MAJOR) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i3 = 0; i3 < dim3; ++i3) {
+                        for (int i4 = 0; i4 < dim4; ++i4) {
+                            for (int i5 = 0; i5 < dim5; ++i5) {
+                                for (int i6 = 0; i6 < dim6; ++i6) {
+                                    for (int i7 = 0; i7 < dim7; ++i7) {
+                                        for (int i8 = 0; i8 < dim8; ++i8) {
+                                            for (int i9 = 0; i9 < dim9; ++i9) {
+                                                set(i1,i2,i3,i4,i5,i6,i7,i8,i9, ! get(i1,i2,i3,i4,i5,i6,i7,i8,i9));
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        } else {
+            /* Assume column-major order. */
+            for (int i9 = 0; i9 < dim9; ++i9) {
+                for (int i8 = 0; i8 < dim8; ++i8) {
+                    for (int i7 = 0; i7 < dim7; ++i7) {
+                        for (int i6 = 0; i6 < dim6; ++i6) {
+                            for (int i5 = 0; i5 < dim5; ++i5) {
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    for (int i3 = 0; i3 < dim3; ++i3) {
+                                        for (int i2 = 0; i2 < dim2; ++i2) {
+                                            for (int i1 = 0; i1 < dim1; ++i1) {
+                                                set(i1,i2,i3,i4,i5,i6,i7,i8,i9, ! get(i1,i2,i3,i4,i5,i6,i7,i8,i9));
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public int count() {
+        int n = 0;
+        if (getOrder() == ROW_MAJOR) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i3 = 0; i3 < dim3; ++i3) {
+                        for (int i4 = 0; i4 < dim4; ++i4) {
+                            for (int i5 = 0; i5 < dim5; ++i5) {
+                                for (int i6 = 0; i6 < dim6; ++i6) {
+                                    for (int i7 = 0; i7 < dim7; ++i7) {
+                                        for (int i8 = 0; i8 < dim8; ++i8) {
+                                            for (int i9 = 0; i9 < dim9; ++i9) {
+                                                if (get(i1,i2,i3,i4,i5,i6,i7,i8,i9)) {
+                                                    ++n;
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        } else {
+            /* Assume column-major order. */
+            for (int i9 = 0; i9 < dim9; ++i9) {
+                for (int i8 = 0; i8 < dim8; ++i8) {
+                    for (int i7 = 0; i7 < dim7; ++i7) {
+                        for (int i6 = 0; i6 < dim6; ++i6) {
+                            for (int i5 = 0; i5 < dim5; ++i5) {
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    for (int i3 = 0; i3 < dim3; ++i3) {
+                                        for (int i2 = 0; i2 < dim2; ++i2) {
+                                            for (int i1 = 0; i1 < dim1; ++i1) {
+                                                if (get(i1,i2,i3,i4,i5,i6,i7,i8,i9)) {
+                                                    ++n;
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public boolean any() {
+        if (getOrder() == ROW_MAJOR) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i3 = 0; i3 < dim3; ++i3) {
+                        for (int i4 = 0; i4 < dim4; ++i4) {
+                            for (int i5 = 0; i5 < dim5; ++i5) {
+                                for (int i6 = 0; i6 < dim6; ++i6) {
+                                    for (int i7 = 0; i7 < dim7; ++i7) {
+                                        for (int i8 = 0; i8 < dim8; ++i8) {
+                                            for (int i9 = 0; i9 < dim9; ++i9) {
+                                                if (get(i1,i2,i3,i4,i5,i6,i7,i8,i9)) {
+                                                    return true;
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        } else {
+            /* Assume column-major order. */
+            for (int i9 = 0; i9 < dim9; ++i9) {
+                for (int i8 = 0; i8 < dim8; ++i8) {
+                    for (int i7 = 0; i7 < dim7; ++i7) {
+                        for (int i6 = 0; i6 < dim6; ++i6) {
+                            for (int i5 = 0; i5 < dim5; ++i5) {
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    for (int i3 = 0; i3 < dim3; ++i3) {
+                                        for (int i2 = 0; i2 < dim2; ++i2) {
+                                            for (int i1 = 0; i1 < dim1; ++i1) {
+                                                if (get(i1,i2,i3,i4,i5,i6,i7,i8,i9)) {
+                                                    return true;
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean all() {
+        if (getOrder() == ROW_MAJOR) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i3 = 0; i3 < dim3; ++i3) {
+                        for (int i4 = 0; i4 < dim4; ++i4) {
+                            for (int i5 = 0; i5 < dim5; ++i5) {
+                                for (int i6 = 0; i6 < dim6; ++i6) {
+                                    for (int i7 = 0; i7 < dim7; ++i7) {
+                                        for (int i8 = 0; i8 < dim8; ++i8) {
+                                            for (int i9 = 0; i9 < dim9; ++i9) {
+                                                if (! get(i1,i2,i3,i4,i5,i6,i7,i8,i9)) {
+                                                    return false;
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        } else {
+            /* Assume column-major order. */
+            for (int i9 = 0; i9 < dim9; ++i9) {
+                for (int i8 = 0; i8 < dim8; ++i8) {
+                    for (int i7 = 0; i7 < dim7; ++i7) {
+                        for (int i6 = 0; i6 < dim6; ++i6) {
+                            for (int i5 = 0; i5 < dim5; ++i5) {
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    for (int i3 = 0; i3 < dim3; ++i3) {
+                                        for (int i2 = 0; i2 < dim2; ++i2) {
+                                            for (int i1 = 0; i1 < dim1; ++i1) {
+                                                if (! get(i1,i2,i3,i4,i5,i6,i7,i8,i9)) {
+                                                    return false;
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /* Note that the following default implementation of the "flatten" method
+     * is always returning a copy of the contents whatever the value of the
+     * "forceCopy" argument.
+     */
+    @Override
+    public boolean[] flatten(boolean forceCopy) {
+        /* Copy the elements in column-major order. */
+        boolean[] out = new boolean[number];
+        int j = -1;
+        for (int i9 = 0; i9 < dim9; ++i9) {
+            for (int i8 = 0; i8 < dim8; ++i8) {
+                for (int i7 = 0; i7 < dim7; ++i7) {
+                    for (int i6 = 0; i6 < dim6; ++i6) {
+                        for (int i5 = 0; i5 < dim5; ++i5) {
+                            for (int i4 = 0; i4 < dim4; ++i4) {
+                                for (int i3 = 0; i3 < dim3; ++i3) {
+                                    for (int i2 = 0; i2 < dim2; ++i2) {
+                                        for (int i1 = 0; i1 < dim1; ++i1) {
+                                            out[++j] = get(i1,i2,i3,i4,i5,i6,i7,i8,i9);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public boolean[] flatten() {
+        return flatten(false);
+    }
+
+    /* Note that, in the following loops, the left operand is evaluated
+     * first (as imposed by the Java language specification), hence j is
+     * incremented before computing the shift. */
+    @Override
+    public long[] getBits(boolean forceCopy) {
+        /* Pack the elements in column-major order. */
+        long[] bits = new long[(number + 63) >>> 6];
+        int j = -1;
+        for (int i9 = 0; i9 < dim9; ++i9) {
+            for (int i8 = 0; i8 < dim8; ++i8) {
+                for (int i7 = 0; i7 < dim7; ++i7) {
+                    for (int i6 = 0; i6 < dim6; ++i6) {
+                        for (int i5 = 0; i5 < dim5; ++i5) {
+                            for (int i4 = 0; i4 < dim4; ++i4) {
+                                for (int i3 = 0; i3 < dim3; ++i3) {
+                                    for (int i2 = 0; i2 < dim2; ++i2) {
+                                        for (int i1 = 0; i1 < dim1; ++i1) {
+                                            bits[++j >>> 6] |= (get(i1,i2,i3,i4,i5,i6,i7,i8,i9) ? (1L << j) : 0L);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return bits;
+    }
+
+    /* Get the packed bits of another array of same shape. */
+    private long[] getOtherBits(BooleanArray other) {
+        if (! getShape().equals(other.getShape())) {
+            throw new NonConformableArrayException("Arrays must have the same shape.");
+        }
+        return other.getBits(false);
+    }
+
+    @Override
+    public void and(BooleanArray other) {
+        long[] bits = getOtherBits(other);
+        int j = -1;
+        for (int i9 = 0; i9 < dim9; ++i9) {
+            for (int i8 = 0; i8 < dim8; ++i8) {
+                for (int i7 = 0; i7 < dim7; ++i7) {
+                    for (int i6 = 0; i6 < dim6; ++i6) {
+                        for (int i5 = 0; i5 < dim5; ++i5) {
+                            for (int i4 = 0; i4 < dim4; ++i4) {
+                                for (int i3 = 0; i3 < dim3; ++i3) {
+                                    for (int i2 = 0; i2 < dim2; ++i2) {
+                                        for (int i1 = 0; i1 < dim1; ++i1) {
+                                            set(i1,i2,i3,i4,i5,i6,i7,i8,i9, get(i1,i2,i3,i4,i5,i6,i7,i8,i9) & (((bits[++j >>> 6] >>> j) & 1L) != 0L));
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void or(BooleanArray other) {
+        long[] bits = getOtherBits(other);
+        int j = -1;
+        for (int i9 = 0; i9 < dim9; ++i9) {
+            for (int i8 = 0; i8 < dim8; ++i8) {
+                for (int i7 = 0; i7 < dim7; ++i7) {
+                    for (int i6 = 0; i6 < dim6; ++i6) {
+                        for (int i5 = 0; i5 < dim5; ++i5) {
+                            for (int i4 = 0; i4 < dim4; ++i4) {
+                                for (int i3 = 0; i3 < dim3; ++i3) {
+                                    for (int i2 = 0; i2 < dim2; ++i2) {
+                                        for (int i1 = 0; i1 < dim1; ++i1) {
+                                            set(i1,i2,i3,i4,i5,i6,i7,i8,i9, get(i1,i2,i3,i4,i5,i6,i7,i8,i9) | (((bits[++j >>> 6] >>> j) & 1L) != 0L));
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void xor(BooleanArray other) {
+        long[] bits = getOtherBits(other);
+        int j = -1;
+        for (int i9 = 0; i9 < dim9; ++i9) {
+            for (int i8 = 0; i8 < dim8; ++i8) {
+                for (int i7 = 0; i7 < dim7; ++i7) {
+                    for (int i6 = 0; i6 < dim6; ++i6) {
+                        for (int i5 = 0; i5 < dim5; ++i5) {
+                            for (int i4 = 0; i4 < dim4; ++i4) {
+                                for (int i3 = 0; i3 < dim3; ++i3) {
+                                    for (int i2 = 0; i2 < dim2; ++i2) {
+                                        for (int i1 = 0; i1 < dim1; ++i1) {
+                                            set(i1,i2,i3,i4,i5,i6,i7,i8,i9, get(i1,i2,i3,i4,i5,i6,i7,i8,i9) ^ (((bits[++j >>> 6] >>> j) & 1L) != 0L));
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void andNot(BooleanArray other) {
+        long[] bits = getOtherBits(other);
+        int j = -1;
+        for (int i9 = 0; i9 < dim9; ++i9) {
+            for (int i8 = 0; i8 < dim8; ++i8) {
+                for (int i7 = 0; i7 < dim7; ++i7) {
+                    for (int i6 = 0; i6 < dim6; ++i6) {
+                        for (int i5 = 0; i5 < dim5; ++i5) {
+                            for (int i4 = 0; i4 < dim4; ++i4) {
+                                for (int i3 = 0; i3 < dim3; ++i3) {
+                                    for (int i2 = 0; i2 < dim2; ++i2) {
+                                        for (int i1 = 0; i1 < dim1; ++i1) {
+                                            set(i1,i2,i3,i4,i5,i6,i7,i8,i9, get(i1,i2,i3,i4,i5,i6,i7,i8,i9) & ! (((bits[++j >>> 6] >>> j) & 1L) != 0L));
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Convert instance into a Byte9D.
+     *
+     * @return A Byte9D whose values are 1 where {@code this}
+     *         is true and 0 elsewhere.
+     */
+    @Override
+    public Byte9D toByte() {
+        byte[] out = new byte[number];
+        int j = -1;
+        for (int i9 = 0; i9 < dim9; ++i9) {
+            for (int i8 = 0; i8 < dim8; ++i8) {
+                for (int i7 = 0; i7 < dim7; ++i7) {
+                    for (int i6 = 0; i6 < dim6; ++i6) {
+                        for (int i5 = 0; i5 < dim5; ++i5) {
+                            for (int i4 = 0; i4 < dim4; ++i4) {
+                                for (int i3 = 0; i3 < dim3; ++i3) {
+                                    for (int i2 = 0; i2 < dim2; ++i2) {
+                                        for (int i1 = 0; i1 < dim1; ++i1) {
+                                            out[++j] = (get(i1,i2,i3,i4,i5,i6,i7,i8,i9) ? (byte)1 : (byte)0);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return Byte9D.wrap(out, dim1,dim2,dim3,dim4,dim5,dim6,dim7,dim8,dim9);
+    }
+
+    /**
+     * Convert instance into a Short9D.
+     *
+     * @return A Short9D whose values are 1 where {@code this}
+     *         is true and 0 elsewhere.
+     */
+    @Override
+    public Short9D toShort() {
+        short[] out = new short[number];
+        int j = -1;
+        for (int i9 = 0; i9 < dim9; ++i9) {
+            for (int i8 = 0; i8 < dim8; ++i8) {
+                for (int i7 = 0; i7 < dim7; ++i7) {
+                    for (int i6 = 0; i6 < dim6; ++i6) {
+                        for (int i5 = 0; i5 < dim5; ++i5) {
+                            for (int i4 = 0; i4 < dim4; ++i4) {
+                                for (int i3 = 0; i3 < dim3; ++i3) {
+                                    for (int i2 = 0; i2 < dim2; ++i2) {
+                                        for (int i1 = 0; i1 < dim1; ++i1) {
+                                            out[++j] = (get(i1,i2,i3,i4,i5,i6,i7,i8,i9) ? (short)1 : (short)0);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return Short9D.wrap(out, dim1,dim2,dim3,dim4,dim5,dim6,dim7,dim8,dim9);
+    }
+
+    /**
+     * Convert instance into an Int9D.
+     *
+     * @return An Int9D whose values are 1 where {@code this}
+     *         is true and 0 elsewhere.
+     */
+    @Override
+    public Int9D toInt() {
+        int[] out = new int[number];
+        int j = -1;
+        for (int i9 = 0; i9 < dim9; ++i9) {
+            for (int i8 = 0; i8 < dim8; ++i8) {
+                for (int i7 = 0; i7 < dim7; ++i7) {
+                    for (int i6 = 0; i6 < dim6; ++i6) {
+                        for (int i5 = 0; i5 < dim5; ++i5) {
+                            for (int i4 = 0; i4 < dim4; ++i4) {
+                                for (int i3 = 0; i3 < dim3; ++i3) {
+                                    for (int i2 = 0; i2 < dim2; ++i2) {
+                                        for (int i1 = 0; i1 < dim1; ++i1) {
+                                            out[++j] = (get(i1,i2,i3,i4,i5,i6,i7,i8,i9) ? 1 : 0);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return Int9D.wrap(out, dim1,dim2,dim3,dim4,dim5,dim6,dim7,dim8,dim9);
+    }
+
+    /**
+     * Convert instance into a Long9D.
+     *
+     * @return A Long9D whose values are 1 where {@code this}
+     *         is true and 0 elsewhere.
+     */
+    @Override
+    public Long9D toLong() {
+        long[] out = new long[number];
+        int j = -1;
+        for (int i9 = 0; i9 < dim9; ++i9) {
+            for (int i8 = 0; i8 < dim8; ++i8) {
+                for (int i7 = 0; i7 < dim7; ++i7) {
+                    for (int i6 = 0; i6 < dim6; ++i6) {
+                        for (int i5 = 0; i5 < dim5; ++i5) {
+                            for (int i4 = 0; i4 < dim4; ++i4) {
+                                for (int i3 = 0; i3 < dim3; ++i3) {
+                                    for (int i2 = 0; i2 < dim2; ++i2) {
+                                        for (int i1 = 0; i1 < dim1; ++i1) {
+                                            out[++j] = (get(i1,i2,i3,i4,i5,i6,i7,i8,i9) ? 1L : 0L);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return Long9D.wrap(out, dim1,dim2,dim3,dim4,dim5,dim6,dim7,dim8,dim9);
+    }
+
+    /**
+     * Convert instance into a Float9D.
+     *
+     * @return A Float9D whose values are 1 where {@code this}
+     *         is true and 0 elsewhere.
+     */
+    @Override
+    public Float9D toFloat() {
+        float[] out = new float[number];
+        int j = -1;
+        for (int i9 = 0; i9 < dim9; ++i9) {
+            for (int i8 = 0; i8 < dim8; ++i8) {
+                for (int i7 = 0; i7 < dim7; ++i7) {
+                    for (int i6 = 0; i6 < dim6; ++i6) {
+                        for (int i5 = 0; i5 < dim5; ++i5) {
+                            for (int i4 = 0; i4 < dim4; ++i4) {
+                                for (int i3 = 0; i3 < dim3; ++i3) {
+                                    for (int i2 = 0; i2 < dim2; ++i2) {
+                                        for (int i1 = 0; i1 < dim1; ++i1) {
+                                            out[++j] = (get(i1,i2,i3,i4,i5,i6,i7,i8,i9) ? 1.0F : 0.0F);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return Float9D.wrap(out, dim1,dim2,dim3,dim4,dim5,dim6,dim7,dim8,dim9);
+    }
+
+    /**
+     * Convert instance into a Double9D.
+     *
+     * @return A Double9D whose values are 1 where {@code this}
+     *         is true and 0 elsewhere.
+     */
+    @Override
+    public Double9D toDouble() {
+        double[] out = new double[number];
+        int j = -1;
+        for (int i9 = 0; i9 < dim9; ++i9) {
+            for (int i8 = 0; i8 < dim8; ++i8) {
+                for (int i7 = 0; i7 < dim7; ++i7) {
+                    for (int i6 = 0; i6 < dim6; ++i6) {
+                        for (int i5 = 0; i5 < dim5; ++i5) {
+                            for (int i4 = 0; i4 < dim4; ++i4) {
+                                for (int i3 = 0; i3 < dim3; ++i3) {
+                                    for (int i2 = 0; i2 < dim2; ++i2) {
+                                        for (int i1 = 0; i1 < dim1; ++i1) {
+                                            out[++j] = (get(i1,i2,i3,i4,i5,i6,i7,i8,i9) ? 1.0 : 0.0);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return Double9D.wrap(out, dim1,dim2,dim3,dim4,dim5,dim6,dim7,dim8,dim9);
+    }
+
+    @Override
+    public Boolean9D copy() {
+        return new FlatBoolean9D(getBits(true), shape);
+    }
+
+    /**
+     * Assign the values of the object from those of another shaped array.
+     * <p>
+     * The shape of the source and of the destination must match, values
+     * of arrays of numbers are converted so that non-zero values are true.
+     * </p>
+     * @param arr - The source object.
+     */
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! getShape().equals(arr.getShape())) {
+            throw new NonConformableArrayException("Source and destination must have the same shape.");
+        }
+        int j = -1;
+        if (arr.getType() == Traits.BOOLEAN) {
+            long[] bits = ((BooleanArray)arr).getBits(false);
+            for (int i9 = 0; i9 < dim9; ++i9) {
+                for (int i8 = 0; i8 < dim8; ++i8) {
+                    for (int i7 = 0; i7 < dim7; ++i7) {
+                        for (int i6 = 0; i6 < dim6; ++i6) {
+                            for (int i5 = 0; i5 < dim5; ++i5) {
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    for (int i3 = 0; i3 < dim3; ++i3) {
+                                        for (int i2 = 0; i2 < dim2; ++i2) {
+                                            for (int i1 = 0; i1 < dim1; ++i1) {
+                                                set(i1,i2,i3,i4,i5,i6,i7,i8,i9, ((bits[++j >>> 6] >>> j) & 1L) != 0L);
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        } else {
+            double[] values = arr.toDouble().flatten(false);
+            for (int i9 = 0; i9 < dim9; ++i9) {
+                for (int i8 = 0; i8 < dim8; ++i8) {
+                    for (int i7 = 0; i7 < dim7; ++i7) {
+                        for (int i6 = 0; i6 < dim6; ++i6) {
+                            for (int i5 = 0; i5 < dim5; ++i5) {
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    for (int i3 = 0; i3 < dim3; ++i3) {
+                                        for (int i2 = 0; i2 < dim2; ++i2) {
+                                            for (int i1 = 0; i1 < dim1; ++i1) {
+                                                set(i1,i2,i3,i4,i5,i6,i7,i8,i9, values[++j] != 0.0);
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void assign(ShapedVector vec) {
+        if (! getShape().equals(vec.getShape())) {
+            throw new NonConformableArrayException("Source and destination must have the same shape.");
+        }
+        int j = -1;
+        for (int i9 = 0; i9 < dim9; ++i9) {
+            for (int i8 = 0; i8 < dim8; ++i8) {
+                for (int i7 = 0; i7 < dim7; ++i7) {
+                    for (int i6 = 0; i6 < dim6; ++i6) {
+                        for (int i5 = 0; i5 < dim5; ++i5) {
+                            for (int i4 = 0; i4 < dim4; ++i4) {
+                                for (int i3 = 0; i3 < dim3; ++i3) {
+                                    for (int i2 = 0; i2 < dim2; ++i2) {
+                                        for (int i1 = 0; i1 < dim1; ++i1) {
+                                            set(i1,i2,i3,i4,i5,i6,i7,i8,i9, vec.get(++j) != 0.0);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /*=======================================================================*/
+    /* ARRAY FACTORIES */
+
+    @Override
+    public Boolean9D create() {
+        return new FlatBoolean9D(getShape());
+    }
+
+    /**
+     * Create a 9D array of booleans with given dimensions.
+     * <p>
+     * This method creates a 9D array of booleans with zero offset,
+     * contiguous elements and column-major order.  All dimensions must at
+     * least 1.  All values are initially false.
+     * @param dim1 - The 1st dimension of the 9D array.
+     * @param dim2 - The 2nd dimension of the 9D array.
+     * @param dim3 - The 3rd dimension of the 9D array.
+     * @param dim4 - The 4th dimension of the 9D array.
+     * @param dim5 - The 5th dimension of the 9D array.
+     * @param dim6 - The 6th dimension of the 9D array.
+     * @param dim7 - The 7th dimension of the 9D array.
+     * @param dim8 - The 8th dimension of the 9D array.
+     * @param dim9 - The 9th dimension of the 9D array.
+     * @return A new 9D array of booleans.
+     * @see {@link Shaped#COLUMN_MAJOR}
+     */
+    public static Boolean9D create(int dim1, int dim2, int dim3, int dim4, int dim5, int dim6, int dim7, int dim8, int dim9) {
+        return new FlatBoolean9D(dim1,dim2,dim3,dim4,dim5,dim6,dim7,dim8,dim9);
+    }
+
+    /**
+     * Create a 9D array of booleans with given shape.
+     * <p>
+     * This method creates a 9D array of booleans with zero offset,
+     * contiguous elements and column-major order.  All values are initially
+     * false.
+     * @param dims - The list of dimensions of the 9D array (all dimensions
+     *               must at least 1).  This argument is not referenced by
+     *               the returned object and its contents can be modified
+     *               after calling this method.
+     * @return A new 9D array of booleans.
+     * @see {@link Shaped#COLUMN_MAJOR}
+     */
+    public static Boolean9D create(int[] dims) {
+        return new FlatBoolean9D(dims);
+    }
+
+    /**
+     * Create a 9D array of booleans with given shape.
+     * <p>
+     * This method creates a 9D array of booleans with zero offset,
+     * contiguous elements and column-major order.  All values are initially
+     * false.
+     * @param shape - The shape of the 9D array.
+     * @return A new 9D array of booleans.
+     * @see {@link Shaped#COLUMN_MAJOR}
+     */
+    public static Boolean9D create(Shape shape) {
+        return new FlatBoolean9D(shape);
+    }
+
+    /**
+     * Wrap packed words in a 9D array of booleans with given dimensions.
+     * <p>
+     * The returned 9D array have zero offset, contiguous elements and
+     * column-major storage order.  More specifically:
+     * <pre>arr.get(i1,i2,i3,i4,i5,i6,i7,i8,i9) = (((bits[j >>> 6] >>> j) & 1L) != 0L)</pre>
+     * with {@code arr} the returned 9D array and
+     * {@code j = i1 + dim1*(i2 + dim2*(i3 + dim3*(i4 + dim4*(i5 + dim5*(i6 + dim6*(i7 + dim7*(i8 + dim8*i9)))))))}.
+     * @param bits - The packed words to wrap in the 9D array.
+     * @param dim1 - The 1st dimension of the 9D array.
+     * @param dim2 - The 2nd dimension of the 9D array.
+     * @param dim3 - The 3rd dimension of the 9D array.
+     * @param dim4 - The 4th dimension of the 9D array.
+     * @param dim5 - The 5th dimension of the 9D array.
+     * @param dim6 - The 6th dimension of the 9D array.
+     * @param dim7 - The 7th dimension of the 9D array.
+     * @param dim8 - The 8th dimension of the 9D array.
+     * @param dim9 - The 9th dimension of the 9D array.
+     * @return A 9D array sharing the words of <b>bits</b>.
+     * @see {@link Shaped#COLUMN_MAJOR}
+     */
+    public static Boolean9D wrap(long[] bits, int dim1, int dim2, int dim3, int dim4, int dim5, int dim6, int dim7, int dim8, int dim9) {
+        return new FlatBoolean9D(bits, dim1,dim2,dim3,dim4,dim5,dim6,dim7,dim8,dim9);
+    }
+
+    /**
+     * Wrap packed words in a 9D array of booleans with given shape.
+     * @param bits - The packed words to wrap in the 9D array.
+     * @param dims - The list of dimensions of the 9D array.  This argument is
+     *                not referenced by the returned object and its contents
+     *                can be modified after the call to this method.
+     * @return A new 9D array of booleans sharing the words of <b>bits</b>.
+     * @see #wrap(long[], int dim1, int dim2, int dim3, int dim4, int dim5, int dim6, int dim7, int dim8, int dim9)
+     */
+    public static Boolean9D wrap(long[] bits, int[] dims) {
+        return new FlatBoolean9D(bits, dims);
+    }
+
+    /**
+     * Wrap packed words in a 9D array of booleans with given shape.
+     * @param bits  - The packed words to wrap in the 9D array.
+     * @param shape - The shape of the 9D array.
+     * @return A new 9D array of booleans sharing the words of <b>bits</b>.
+     * @see #wrap(long[], int dim1, int dim2, int dim3, int dim4, int dim5, int dim6, int dim7, int dim8, int dim9)
+     */
+    public static Boolean9D wrap(long[] bits, Shape shape) {
+        return new FlatBoolean9D(bits, shape);
+    }
+
+    /**
+     * Wrap packed words in a 9D array of booleans with given dimensions,
+     * strides and offset.
+     * <p>
+     * This creates a 9D array of dimensions {{@code dim1,dim2,dim3,dim4,dim5,dim6,dim7,dim8,dim9}}
+     * sharing (part of) the bits of {@code bits} in arbitrary storage
+     * order.  More specifically, the value of {@code arr.get(i1,i2,i3,i4,i5,i6,i7,i8,i9)}
+     * is bit {@code j} of the packed words with:
+     * <pre>j = offset + stride1*i1 + stride2*i2 + stride3*i3 + stride4*i4 + stride5*i5 + stride6*i6 + stride7*i7 + stride8*i8 + stride9*i9</pre>
+     * and {@code arr} the returned 9D array.
+     * @param bits    - The packed words to wrap in the 9D array.
+     * @param offset  - The index of the bit of element (0,0,0,0,0,0,0,0,0) of
+     *                  the 9D array.
+     * @param stride1 - The stride along the 1st dimension.
+     * @param stride2 - The stride along the 2nd dimension.
+     * @param stride3 - The stride along the 3rd dimension.
+     * @param stride4 - The stride along the 4th dimension.
+     * @param stride5 - The stride along the 5th dimension.
+     * @param stride6 - The stride along the 6th dimension.
+     * @param stride7 - The stride along the 7th dimension.
+     * @param stride8 - The stride along the 8th dimension.
+     * @param stride9 - The stride along the 9th dimension.
+     * @param dim1    - The 1st dimension of the 9D array.
+     * @param dim2    - The 2nd dimension of the 9D array.
+     * @param dim3    - The 3rd dimension of the 9D array.
+     * @param dim4    - The 4th dimension of the 9D array.
+     * @param dim5    - The 5th dimension of the 9D array.
+     * @param dim6    - The 6th dimension of the 9D array.
+     * @param dim7    - The 7th dimension of the 9D array.
+     * @param dim8    - The 8th dimension of the 9D array.
+     * @param dim9    - The 9th dimension of the 9D array.
+     * @return A 9D array sharing the words of <b>bits</b>.
+     */
+    public static Boolean9D wrap(long[] bits,
+            int offset, int stride1, int stride2, int stride3, int stride4, int stride5, int stride6, int stride7, int stride8, int stride9, int dim1, int dim2, int dim3, int dim4, int dim5, int dim6, int dim7, int dim8, int dim9) {
+        return new StriddenBoolean9D(bits, offset, stride1,stride2,stride3,stride4,stride5,stride6,stride7,stride8,stride9, dim1,dim2,dim3,dim4,dim5,dim6,dim7,dim8,dim9);
+    }
+
+    /**
+     * Get a slice of the array.
+     *
+     * @param idx - The index of the slice along the last dimension of
+     *              the array.  The same indexing rules as for
+     *              {@link mitiv.base.indexing.Range} apply for negative
+     *              index: 0 for the first, 1 for the second, -1 for the
+     *              last, -2 for penultimate, <i>etc.</i>
+     * @return A Boolean8D view on the given slice of the array.
+     */
+    public abstract Boolean8D slice(int idx);
+
+    /**
+     * Get a slice of the array.
+     *
+     * @param idx - The index of the slice along the last dimension of
+     *              the array.
+     * @param dim - The dimension to slice.  For these two arguments,
+     *              the same indexing rules as for
+     *              {@link mitiv.base.indexing.Range} apply for negative
+     *              index: 0 for the first, 1 for the second, -1 for the
+     *              last, -2 for penultimate, <i>etc.</i>
+     *
+     * @return A Boolean8D view on the given slice of the array.
+     */
+    public abstract Boolean8D slice(int idx, int dim);
+
+    /**
+     * Get a view of the array for given ranges of indices.
+     *
+     * @param rng1 - The range of indices to select along 1st dimension
+     *               (or {@code null} to select all.
+     * @param rng2 - The range of indices to select along 2nd dimension
+     *               (or {@code null} to select all.
+     * @param rng3 - The range of indices to select along 3rd dimension
+     *               (or {@code null} to select all.
+     * @param rng4 - The range of indices to select along 4th dimension
+     *               (or {@code null} to select all.
+     * @param rng5 - The range of indices to select along 5th dimension
+     *               (or {@code null} to select all.
+     * @param rng6 - The range of indices to select along 6th dimension
+     *               (or {@code null} to select all.
+     * @param rng7 - The range of indices to select along 7th dimension
+     *               (or {@code null} to select all.
+     * @param rng8 - The range of indices to select along 8th dimension
+     *               (or {@code null} to select all.
+     * @param rng9 - The range of indices to select along 9th dimension
+     *               (or {@code null} to select all.
+     *
+     * @return A Boolean9D view for the given ranges of the array.
+     */
+    public abstract Boolean9D view(Range rng1, Range rng2, Range rng3, Range rng4, Range rng5, Range rng6, Range rng7, Range rng8, Range rng9);
+
+    /**
+     * Get a view of the array for given ranges of indices.
+     *
+     * @param idx1 - The list of indices to select along 1st dimension
+     *               (or {@code null} to select all.
+     * @param idx2 - The list of indices to select along 2nd dimension
+     *               (or {@code null} to select all.
+     * @param idx3 - The list of indices to select along 3rd dimension
+     *               (or {@code null} to select all.
+     * @param idx4 - The list of indices to select along 4th dimension
+     *               (or {@code null} to select all.
+     * @param idx5 - The list of indices to select along 5th dimension
+     *               (or {@code null} to select all.
+     * @param idx6 - The list of indices to select along 6th dimension
+     *               (or {@code null} to select all.
+     * @param idx7 - The list of indices to select along 7th dimension
+     *               (or {@code null} to select all.
+     * @param idx8 - The list of indices to select along 8th dimension
+     *               (or {@code null} to select all.
+     * @param idx9 - The list of indices to select along 9th dimension
+     *               (or {@code null} to select all.
+     *
+     * @return A Boolean9D view for the given index selections of the
+     *         array.
+     */
+    public abstract Boolean9D view(int[] idx1, int[] idx2, int[] idx3, int[] idx4, int[] idx5, int[] idx6, int[] idx7, int[] idx8, int[] idx9);
+
+    /**
+     * Get a view of the array as a 1D array.
+     *
+     * @return A 1D view of the array.
+     */
+    @Override
+    public abstract Boolean1D as1D();
+
+    @Override
+    public abstract Boolean9D permute(int... perm);
+
+    @Override
+    public Boolean9D transpose() {
+        return permute(8, 7, 6, 5, 4, 3, 2, 1, 0);
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,160 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array;
+
+import mitiv.base.Traits;
+
+/**
+ * Define the common interface for arrays of booleans.
+ *
+ * <p>
+ * The values of boolean arrays are packed into words of 64 bits, this
+ * takes 8 times less memory than arrays of bytes and makes logical
+ * operations and population counts applicable to 64 elements at a time.
+ * Boolean arrays are typically used as masks (see for instance
+ * {@link FloatArray#sum(BooleanArray)}).
+ * </p><p>
+ * The packed bits follow the column-major order of the elements: the value
+ * of the element with column-major index {@code j} is given by bit
+ * {@code (j & 63)} of word {@code (j >>> 6)}, that is:
+ * <pre>((bits[j >>> 6] >>> j) & 1L) != 0</pre>
+ * The bits beyond the last element of the array (in the last word) are
+ * irrelevant and must be ignored.
+ * </p>
+ */
+public interface BooleanArray extends ShapedArray {
+
+    static public final int type = Traits.BOOLEAN;
+
+    /**
+     * Set all the values of the array of booleans.
+     * @param value - The value to set.
+     */
+    public abstract void fill(boolean value);
+
+    /**
+     * Flatten the elements of the array of booleans in a simple generic array.
+     * <p>
+     * The contents of the array of booleans are stored in column-major order.
+     * As the values are packed, the result is always a copy.
+     * </p>
+     * @param forceCopy - Ignored, a copy is always returned.
+     * @return An array of booleans.
+     */
+    public abstract boolean[] flatten(boolean forceCopy);
+
+    /**
+     * Flatten the elements of the array of booleans in a simple generic array.
+     * @return An array of booleans.
+     */
+    public abstract boolean[] flatten();
+
+    /**
+     * Get the values of the array of booleans packed into words.
+     * <p>
+     * The returned array has at least {@code (getNumber() + 63)/64} words,
+     * see the description of {@link BooleanArray} for the layout of the
+     * bits.  If the array is <i>flat</i> and {@code forceCopy} is false, the
+     * packed bits of the array itself are returned (so changing the
+     * returned words changes the contents of the array).
+     * </p>
+     * @param forceCopy - Set true to force a copy of the internal data even
+     *                    though it can already be in a packed form.
+     * @return The packed values of the array.
+     */
+    public abstract long[] getBits(boolean forceCopy);
+
+    /**
+     * Count the number of true values in the array.
+     * @return The number of elements which are true.
+     */
+    public abstract int count();
+
+    /**
+     * Check whether any value of the array is true.
+     * @return Whether at least one element is true.
+     */
+    public abstract boolean any();
+
+    /**
+     * Check whether all values of the array are true.
+     * @return Whether all elements are true.
+     */
+    public abstract boolean all();
+
+    /**
+     * Negate all the values of the array.
+     */
+    public abstract void not();
+
+    /**
+     * Perform an element-wise logical AND with another array.
+     * <p>
+     * The result is stored in this array, that is:
+     * {@code this[j] = this[j] & other[j]} for all elements {@code j}.
+     * </p>
+     * @param other - An array of booleans with the same shape.
+     * @throws NonConformableArrayException if the shapes do not match.
+     */
+    public abstract void and(BooleanArray other);
+
+    /**
+     * Perform an element-wise logical OR with another array.
+     * @param other - An array of booleans with the same shape.
+     * @see #and(BooleanArray)
+     */
+    public abstract void or(BooleanArray other);
+
+    /**
+     * Perform an element-wise logical exclusive OR with another array.
+     * @param other - An array of booleans with the same shape.
+     * @see #and(BooleanArray)
+     */
+    public abstract void xor(BooleanArray other);
+
+    /**
+     * Clear the values which are true in another array.
+     * <p>
+     * The result is stored in this array, that is:
+     * {@code this[j] = this[j] & !other[j]} for all elements {@code j}.
+     * </p>
+     * @param other - An array of booleans with the same shape.
+     * @see #and(BooleanArray)
+     */
+    public abstract void andNot(BooleanArray other);
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,285 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array;
+
+import mitiv.array.impl.StriddenBoolean1D;
+import mitiv.base.Traits;
+import mitiv.exception.IllegalTypeException;
+import mitiv.exception.NonConformableArrayException;
+import mitiv.linalg.shaped.ShapedVector;
+
+/**
+ * Selected implementation of 0-dimensional boolean arrays (i.e. scalars).
+ * <p>
+ * This specific kind of scalar values can be used to <i>view</i> a single
+ * element of another multi-dimensional array of booleans, the value is a
+ * single bit of packed words (see {@link BooleanArray}).
+ * </p>
+ */
+public class BooleanScalar extends Scalar implements BooleanArray {
+    final long[] bits;
+    final int offset;
+
+    /**
+     * Create a new BooleanScalar object.
+     */
+    public BooleanScalar() {
+        super();
+        this.bits = new long[1];
+        this.offset = 0;
+    }
+
+    /**
+     * Create a new BooleanScalar object of same type.
+     */
+    @Override
+    public BooleanScalar create() {
+        return new BooleanScalar();
+    }
+
+    /**
+     * Create a BooleanScalar pointing a bit in packed words.
+     *
+     * @param bits - The packed words.
+     * @param idx  - The index of the bit of the scalar element.
+     */
+    public BooleanScalar(long[] bits, int idx) {
+        super();
+        this.bits = bits;
+        this.offset = idx;
+        checkSanity();
+    }
+
+    /**
+     * Wrap a bit in packed words into a new BooleanScalar object.
+     */
+    public static BooleanScalar wrap(long[] bits, int idx) {
+        return new BooleanScalar(bits, idx);
+    }
+
+    /**
+     * Create a BooleanScalar with an initial value.
+     *
+     * @param value - The initial value of the scalar.
+     */
+    public BooleanScalar(boolean value) {
+        super();
+        bits = new long[]{(value ? 1L : 0L)};
+        offset = 0;
+    }
+
+    @Override
+    public final void checkSanity() {
+        if (offset < 0 || (offset >>> 6) >= bits.length) {
+            throw new IndexOutOfBoundsException("Scalar offset is out of bounds.");
+        }
+    }
+
+    @Override
+    public final int getType() {
+        return type;
+    }
+
+    @Override
+    public final int getOrder() {
+        return COLUMN_MAJOR;
+    }
+
+    public final boolean get() {
+        return ((bits[offset >>> 6] >>> offset) & 1L) != 0L;
+    }
+
+    public final void set(boolean value) {
+        if (value) {
+            bits[offset >>> 6] |= (1L << offset);
+        } else {
+            bits[offset >>> 6] &= ~(1L << offset);
+        }
+    }
+
+    @Override
+    public final void fill(boolean value) {
+        set(value);
+    }
+
+    @Override
+    public final boolean[] flatten() {
+        return new boolean[]{get()};
+    }
+
+    @Override
+    public final boolean[] flatten(boolean forceCopy) {
+        return flatten();
+    }
+
+    @Override
+    public final long[] getBits(boolean forceCopy) {
+        if (offset == 0 && ! forceCopy) {
+            return bits;
+        }
+        return new long[]{(get() ? 1L : 0L)};
+    }
+
+    @Override
+    public final int count() {
+        return (get() ? 1 : 0);
+    }
+
+    @Override
+    public final boolean any() {
+        return get();
+    }
+
+    @Override
+    public final boolean all() {
+        return get();
+    }
+
+    @Override
+    public final void not() {
+        bits[offset >>> 6] ^= (1L << offset);
+    }
+
+    /* Get the value of another scalar given its packed bits. */
+    private final boolean getOther(BooleanArray other) {
+        if (! shape.equals(other.getShape())) {
+            throw new NonConformableArrayException();
+        }
+        return ((other.getBits(false)[0] & 1L) != 0L);
+    }
+
+    @Override
+    public final void and(BooleanArray other) {
+        set(get() & getOther(other));
+    }
+
+    @Override
+    public final void or(BooleanArray other) {
+        set(get() | getOther(other));
+    }
+
+    @Override
+    public final void xor(BooleanArray other) {
+        set(get() ^ getOther(other));
+    }
+
+    @Override
+    public final void andNot(BooleanArray other) {
+        set(get() & ! getOther(other));
+    }
+
+    @Override
+    public final ByteArray toByte() {
+        return new ByteScalar((byte)(get() ? 1 : 0));
+    }
+
+    @Override
+    public final ShortArray toShort() {
+        return new ShortScalar((short)(get() ? 1 : 0));
+    }
+
+    @Override
+    public final IntArray toInt() {
+        return new IntScalar(get() ? 1 : 0);
+    }
+
+    @Override
+    public final LongArray toLong() {
+        return new LongScalar(get() ? 1L : 0L);
+    }
+
+    @Override
+    public final FloatArray toFloat() {
+        return new FloatScalar(get() ? 1.0F : 0.0F);
+    }
+
+    @Override
+    public final DoubleArray toDouble() {
+        return new DoubleScalar(get() ? 1.0 : 0.0);
+    }
+
+    @Override
+    public final Boolean1D as1D() {
+        return new StriddenBoolean1D(bits, offset, 1, 1);
+    }
+
+    @Override
+    public final void assign(ShapedArray src) {
+        if (! shape.equals(src.getShape())) {
+            throw new NonConformableArrayException();
+        }
+        switch (src.getType()) {
+        case Traits.BYTE:
+            set(((ByteScalar)src).get() != 0);
+            break;
+        case Traits.SHORT:
+            set(((ShortScalar)src).get() != 0);
+            break;
+        case Traits.INT:
+            set(((IntScalar)src).get() != 0);
+            break;
+        case Traits.LONG:
+            set(((LongScalar)src).get() != 0L);
+            break;
+        case Traits.FLOAT:
+            set(((FloatScalar)src).get() != 0.0F);
+            break;
+        case Traits.DOUBLE:
+            set(((DoubleScalar)src).get() != 0.0);
+            break;
+        case Traits.BOOLEAN:
+            set(((BooleanScalar)src).get());
+            break;
+        default:
+            throw new IllegalTypeException();
+        }
+    }
+
+    @Override
+    public final void assign(ShapedVector src) {
+        if (! shape.equals(src.getShape())) {
+            throw new NonConformableArrayException();
+        }
+        set(src.get(0) != 0.0);
+    }
+
+    @Override
+    public final BooleanScalar copy() {
+        return new BooleanScalar(get());
+    }
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -25,14 +25,22 @@
 
 package mitiv.array;
 
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import mitiv.array.impl.ChunkCursor;
+import mitiv.array.impl.ChunkSpliterator;
 import mitiv.array.impl.FlatByte4D;
 import mitiv.array.impl.StriddenByte4D;
+import mitiv.array.impl.BlockCopy;
+import mitiv.array.impl.Helper;
+import mitiv.array.impl.StorageLayout;
 import mitiv.base.Shape;
 import mitiv.base.Shaped;
 import mitiv.base.Traits;
 import mitiv.base.mapping.ByteFunction;
 import mitiv.base.mapping.ByteScanner;
-import mitiv.exception.IllegalTypeException;
 import mitiv.exception.NonConformableArrayException;
 import mitiv.base.indexing.Range;
 import mitiv.linalg.shaped.DoubleShapedVector;
@@ -310,6 +318,36 @@ public abstract class Byte4D extends Array4D implements ByteArray {
         return flatten(false);
     }
 
+    @Override
+    public Spliterator.OfInt spliterator() {
+        return new ChunkSpliterator.OfByte(new ChunkCursor(this));
+    }
+
+    @Override
+    public IntStream stream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    @Override
+    public void convertInto(ShapedArray dst) {
+        ArrayUtils.convert(this, dst);
+    }
+
+    @Override
+    public void convertInto(ShapedArray dst, double scale, double bias) {
+        ArrayUtils.convert(this, dst, scale, bias);
+    }
+
+    @Override
+    public void convertInto(ShapedVector dst) {
+        ArrayUtils.convert(this, dst);
+    }
+
+    @Override
+    public void convertInto(ShapedVector dst, double scale, double bias) {
+        ArrayUtils.convert(this, dst, scale, bias);
+    }
+
     @Override
     public int min() {
         int minValue = (int)(get(0,0,0,0) & 0xFF);
@@ -487,6 +525,46 @@ public abstract class Byte4D extends Array4D implements ByteArray {
         return (double)sum()/(double)number;
     }
 
+    /* Get the packed bits of a mask with the same shape as this array. */
+    private long[] getMaskBits(BooleanArray mask) {
+        if (! getShape().equals(mask.getShape())) {
+            throw new NonConformableArrayException("Mask must have the same shape as the array.");
+        }
+        return mask.getBits(false);
+    }
+
+    @Override
+    public void fill(byte value, BooleanArray mask) {
+        long[] bits = getMaskBits(mask);
+        byte[] data = flatten(false);
+        ArrayUtils.fill(data, bits, number, value);
+        if (! (this instanceof StorageLayout) ||
+                data != ((StorageLayout)this).getStorage()) {
+            /* The values are a copy, store back the result. */
+            assign(wrap(data, shape));
+        }
+    }
+
+    @Override
+    public void scan(ByteScanner scanner, BooleanArray mask) {
+        ArrayUtils.scan(scanner, flatten(false), getMaskBits(mask), number);
+    }
+
+    @Override
+    public int min(BooleanArray mask) {
+        return ArrayUtils.min(flatten(false), getMaskBits(mask), number);
+    }
+
+    @Override
+    public int max(BooleanArray mask) {
+        return ArrayUtils.max(flatten(false), getMaskBits(mask), number);
+    }
+
+    @Override
+    public int sum(BooleanArray mask) {
+        return ArrayUtils.sum(flatten(false), getMaskBits(mask), number);
+    }
+
     /**
      * Convert instance into a Byte4D.
      * <p>
@@ -692,7 +770,17 @@ public abstract class Byte4D extends Array4D implements ByteArray {
                 }
             }
         } else {
-            throw new IllegalTypeException();
+            /* Other vectors (e.g. half precision ones) are read as doubles. */
+            ShapedVector src = vec;
+            for (int i4 = 0; i4 < dim4; ++i4) {
+                for (int i3 = 0; i3 < dim3; ++i3) {
+                    for (int i2 = 0; i2 < dim2; ++i2) {
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            set(i1,i2,i3,i4, (byte)src.get(++i));
+                        }
+                    }
+                }
+            }
         }
     }
 
@@ -908,6 +996,38 @@ public abstract class Byte4D extends Array4D implements ByteArray {
     @Override
     public abstract Byte1D as1D();
 
+    /*
+     * Note that the following default implementation of the "permute"
+     * method makes a copy.  Implementations which store their elements
+     * with strides or indirection tables override it to return a view.
+     */
+    @Override
+    public Byte4D permute(int... perm) {
+        int[] dims = shape.copyDimensions();
+        int[] strides = new int[4];
+        int stride = 1;
+        for (int k = 0; k < 4; ++k) {
+            strides[k] = stride;
+            stride *= dims[k];
+        }
+        dims = Helper.permute(dims, perm);
+        strides = Helper.permute(strides, perm);
+        int[] outStrides = new int[4];
+        stride = 1;
+        for (int k = 0; k < 4; ++k) {
+            outStrides[k] = stride;
+            stride *= dims[k];
+        }
+        byte[] out = new byte[number];
+        BlockCopy.copy(flatten(false), 0, strides, out, 0, outStrides, dims);
+        return wrap(out, dims);
+    }
+
+    @Override
+    public Byte4D transpose() {
+        return permute(3, 2, 1, 0);
+    }
+
 }
 
 /*
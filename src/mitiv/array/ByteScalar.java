@@ -25,6 +25,12 @@
 
 package mitiv.array;
 
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import mitiv.array.impl.ChunkCursor;
+import mitiv.array.impl.ChunkSpliterator;
 import mitiv.array.impl.FlatByte1D;
 import mitiv.array.impl.StriddenByte1D;
 import mitiv.base.Traits;
@@ -164,6 +170,36 @@ public class ByteScalar extends Scalar implements ByteArray {
         return flatten(false);
     }
 
+    @Override
+    public Spliterator.OfInt spliterator() {
+        return new ChunkSpliterator.OfByte(new ChunkCursor(this));
+    }
+
+    @Override
+    public IntStream stream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    @Override
+    public void convertInto(ShapedArray dst) {
+        ArrayUtils.convert(this, dst);
+    }
+
+    @Override
+    public void convertInto(ShapedArray dst, double scale, double bias) {
+        ArrayUtils.convert(this, dst, scale, bias);
+    }
+
+    @Override
+    public void convertInto(ShapedVector dst) {
+        ArrayUtils.convert(this, dst);
+    }
+
+    @Override
+    public void convertInto(ShapedVector dst, double scale, double bias) {
+        ArrayUtils.convert(this, dst, scale, bias);
+    }
+
     @Override
     public final byte[] flatten(boolean forceCopy) {
         if (! forceCopy && offset == 0 && data.length == 1) {
@@ -206,6 +242,49 @@ public class ByteScalar extends Scalar implements ByteArray {
         return (int)(data[offset] & 0xFF);
     }
 
+    /* Get the value of a scalar mask. */
+    private static boolean getMaskValue(BooleanArray mask) {
+        if (! shape.equals(mask.getShape())) {
+            throw new NonConformableArrayException("Mask must have the same shape as the array.");
+        }
+        return ((mask.getBits(false)[0] & 1L) != 0L);
+    }
+
+    @Override
+    public final void fill(byte value, BooleanArray mask) {
+        if (getMaskValue(mask)) {
+            data[offset] = value;
+        }
+    }
+
+    @Override
+    public final void scan(ByteScanner scanner, BooleanArray mask) {
+        if (getMaskValue(mask)) {
+            scanner.initialize(data[offset]);
+        }
+    }
+
+    @Override
+    public int min(BooleanArray mask) {
+        if (! getMaskValue(mask)) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        return min();
+    }
+
+    @Override
+    public int max(BooleanArray mask) {
+        if (! getMaskValue(mask)) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        return max();
+    }
+
+    @Override
+    public int sum(BooleanArray mask) {
+        return (getMaskValue(mask) ? sum() : 0);
+    }
+
     @Override
     public final ByteArray toByte() {
         return this;
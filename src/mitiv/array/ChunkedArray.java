@@ -0,0 +1,126 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array;
+
+import mitiv.base.Shape;
+
+/**
+ * Interface for arrays whose elements are stored in several chunks.
+ *
+ * <p>
+ * Chunked arrays are intended for arrays which are too large to be stored
+ * in a single Java array (that is with more than {@link Integer#MAX_VALUE}
+ * elements).  The elements are stored in column-major order and split along
+ * the last dimension: each chunk is a Java array which holds a number of
+ * consecutive slabs (sub-arrays with a fixed last index).  As a consequence,
+ * chunked arrays are indexed by {@code long} integers and do not implement
+ * the {@link ShapedArray} interface.  Their slabs and chunks however are
+ * {@link ShapedArray}'s sharing their elements with the chunked array.
+ * </p>
+ */
+public interface ChunkedArray {
+    /** Default maximum number of elements per chunk. */
+    public static final int DEFAULT_CHUNK_SIZE = (1 << 26);
+
+    /**
+     * Get the type of the elements of the chunked array.
+     * @return The type of the elements (e.g. {@link mitiv.base.Traits#FLOAT}).
+     */
+    public abstract int getType();
+
+    /**
+     * Get the number of dimensions of the chunked array.
+     * @return The rank of the chunked array.
+     */
+    public abstract int getRank();
+
+    /**
+     * Get the shape of the chunked array.
+     * @return The shape of the chunked array.
+     */
+    public abstract Shape getShape();
+
+    /**
+     * Get the length of a given dimension of the chunked array.
+     * @param k - The index of the dimension of interest.
+     * @return The length of the {@code k}-th dimension.
+     */
+    public abstract int getDimension(int k);
+
+    /**
+     * Get the number of elements of the chunked array.
+     * @return The product of the dimensions.
+     */
+    public abstract long getNumber();
+
+    /**
+     * Get the number of chunks.
+     * @return The number of chunks used to store the elements.
+     */
+    public abstract int getNumberOfChunks();
+
+    /**
+     * Get the index of the first element of a chunk.
+     * @param c - The index of the chunk.
+     * @return The index (in column-major order) of the first element of the
+     *         chunk.
+     */
+    public abstract long getChunkOffset(int c);
+
+    /**
+     * Get the number of elements in a chunk.
+     * @param c - The index of the chunk.
+     * @return The number of elements in the chunk.
+     */
+    public abstract int getChunkLength(int c);
+
+    /**
+     * Get the elements of a chunk.
+     * @param c - The index of the chunk.
+     * @return A 1-D array sharing its elements with the chunk.
+     */
+    public abstract Array1D getChunk(int c);
+
+    /**
+     * Get a slab of the chunked array.
+     * @param idx - The index along the last dimension.
+     * @return An array of rank {@code getRank() - 1} which shares its
+     *         elements with the chunked array.
+     */
+    public abstract ShapedArray slab(int idx);
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,404 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array;
+
+import mitiv.base.Shape;
+import mitiv.base.Summation;
+import mitiv.base.Traits;
+import mitiv.base.mapping.FloatFunction;
+import mitiv.base.mapping.FloatMergeableScanner;
+import mitiv.base.mapping.FloatScanner;
+import mitiv.random.FloatGenerator;
+
+/**
+ * Chunked arrays of float's.
+ *
+ * <p>
+ * The elements are stored in column-major order in a list of chunks, each
+ * chunk holds an integer number of slabs along the last dimension (see
+ * {@link ChunkedArray}).  Chunked arrays can have more than
+ * {@link Integer#MAX_VALUE} elements, only each slab must fit in a Java
+ * array.  Bulk operations process the chunks one after the other, the
+ * elements of each chunk being processed in parallel.
+ * </p>
+ */
+public class ChunkedFloatArray implements ChunkedArray {
+    private final Shape shape;
+    private final int rank;
+    private final int[] dims;
+    private final int[] strides; // strides of the slabs
+    private final long number;
+    private final int slabLength; // number of elements per slab
+    private final int slabsPerChunk; // number of slabs per chunk
+    private final int chunkLength; // number of elements per chunk (but last)
+    private final float[][] data;
+    private final Float1D[] chunks;
+
+    /**
+     * Create a chunked array with the default maximum chunk size.
+     * @param shape - The shape of the array.
+     */
+    public ChunkedFloatArray(Shape shape) {
+        this(shape, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Create a chunked array.
+     * <p>
+     * Each chunk stores as many slabs as possible such that there are no
+     * more than {@code chunkSize} elements per chunk.  There is at least one
+     * slab per chunk whatever the value of {@code chunkSize}.
+     * </p>
+     * @param shape     - The shape of the array.
+     * @param chunkSize - The maximum number of elements per chunk.
+     */
+    public ChunkedFloatArray(Shape shape, int chunkSize) {
+        rank = shape.rank();
+        if (rank < 1) {
+            throw new IllegalArgumentException("Chunked arrays must have at least one dimension.");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1.");
+        }
+        this.shape = shape;
+        number = shape.number();
+        dims = shape.copyDimensions();
+        int lastDim = dims[rank - 1];
+        long length = number/lastDim;
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Slabs are too large.");
+        }
+        slabLength = (int)length;
+        strides = new int[rank];
+        strides[0] = 1;
+        for (int k = 1; k < rank; ++k) {
+            strides[k] = strides[k - 1]*dims[k - 1];
+        }
+        slabsPerChunk = Math.min(Math.max(chunkSize/slabLength, 1), lastDim);
+        chunkLength = slabsPerChunk*slabLength;
+        int count = (lastDim + slabsPerChunk - 1)/slabsPerChunk;
+        data = new float[count][];
+        chunks = new Float1D[count];
+        for (int c = 0; c < count; ++c) {
+            int slabs = Math.min(slabsPerChunk, lastDim - c*slabsPerChunk);
+            data[c] = new float[slabs*slabLength];
+            chunks[c] = Float1D.wrap(data[c], data[c].length);
+        }
+    }
+
+    @Override
+    public final int getType() {
+        return Traits.FLOAT;
+    }
+
+    @Override
+    public final int getRank() {
+        return rank;
+    }
+
+    @Override
+    public final Shape getShape() {
+        return shape;
+    }
+
+    @Override
+    public final int getDimension(int k) {
+        return shape.dimension(k);
+    }
+
+    @Override
+    public final long getNumber() {
+        return number;
+    }
+
+    @Override
+    public final int getNumberOfChunks() {
+        return chunks.length;
+    }
+
+    @Override
+    public final long getChunkOffset(int c) {
+        return (long)c*(long)chunkLength;
+    }
+
+    @Override
+    public final int getChunkLength(int c) {
+        return data[c].length;
+    }
+
+    @Override
+    public final Float1D getChunk(int c) {
+        return chunks[c];
+    }
+
+    /**
+     * Get the elements of a chunk as a Java array.
+     * @param c - The index of the chunk.
+     * @return The array which stores the elements of the chunk (not a copy).
+     */
+    public final float[] getChunkData(int c) {
+        return data[c];
+    }
+
+    /**
+     * Get the value of an element.
+     * @param index - The index of the element in column-major order.
+     * @return The value of the element.
+     */
+    public final float get(long index) {
+        int c = (int)(index/chunkLength);
+        return data[c][(int)(index - (long)c*(long)chunkLength)];
+    }
+
+    /**
+     * Set the value of an element.
+     * @param index - The index of the element in column-major order.
+     * @param value - The value to store.
+     */
+    public final void set(long index, float value) {
+        int c = (int)(index/chunkLength);
+        data[c][(int)(index - (long)c*(long)chunkLength)] = value;
+    }
+
+    @Override
+    public FloatArray slab(int idx) {
+        int lastDim = dims[rank - 1];
+        if (idx < 0) {
+            /* A negative index is taken with respect to the end. */
+            idx += lastDim;
+        }
+        if (idx < 0 || idx >= lastDim) {
+            throw new IndexOutOfBoundsException("Slab index out of bounds.");
+        }
+        float[] arr = data[idx/slabsPerChunk];
+        int offset = (idx%slabsPerChunk)*slabLength;
+        switch (rank) {
+        case 1:
+            return FloatScalar.wrap(arr, offset);
+        case 2:
+            return Float1D.wrap(arr, offset, strides[0], dims[0]);
+        case 3:
+            return Float2D.wrap(arr, offset, strides[0], strides[1], dims[0], dims[1]);
+        case 4:
+            return Float3D.wrap(arr, offset, strides[0], strides[1], strides[2], dims[0], dims[1], dims[2]);
+        case 5:
+            return Float4D.wrap(arr, offset, strides[0], strides[1], strides[2], strides[3], dims[0], dims[1], dims[2], dims[3]);
+        case 6:
+            return Float5D.wrap(arr, offset, strides[0], strides[1], strides[2], strides[3], strides[4], dims[0], dims[1], dims[2], dims[3], dims[4]);
+        case 7:
+            return Float6D.wrap(arr, offset, strides[0], strides[1], strides[2], strides[3], strides[4], strides[5], dims[0], dims[1], dims[2], dims[3], dims[4], dims[5]);
+        case 8:
+            return Float7D.wrap(arr, offset, strides[0], strides[1], strides[2], strides[3], strides[4], strides[5], strides[6], dims[0], dims[1], dims[2], dims[3], dims[4], dims[5], dims[6]);
+        case 9:
+            return Float8D.wrap(arr, offset, strides[0], strides[1], strides[2], strides[3], strides[4], strides[5], strides[6], strides[7], dims[0], dims[1], dims[2], dims[3], dims[4], dims[5], dims[6], dims[7]);
+        default:
+            throw new IllegalArgumentException("Slabs of arrays with more than 9 dimensions are not supported.");
+        }
+    }
+
+    /**
+     * Set all the elements to a given value.
+     * @param value - The value.
+     */
+    public void fill(float value) {
+        for (int c = 0; c < chunks.length; ++c) {
+            chunks[c].fill(value);
+        }
+    }
+
+    /**
+     * Increment all the elements by a given value.
+     * @param value - The value.
+     */
+    public void increment(float value) {
+        for (int c = 0; c < chunks.length; ++c) {
+            chunks[c].increment(value);
+        }
+    }
+
+    /**
+     * Decrement all the elements by a given value.
+     * @param value - The value.
+     */
+    public void decrement(float value) {
+        for (int c = 0; c < chunks.length; ++c) {
+            chunks[c].decrement(value);
+        }
+    }
+
+    /**
+     * Multiply all the elements by a given value.
+     * @param value - The value.
+     */
+    public void scale(float value) {
+        for (int c = 0; c < chunks.length; ++c) {
+            chunks[c].scale(value);
+        }
+    }
+
+    /**
+     * Map all the elements by a function.
+     * @param function - The function to apply.
+     */
+    public void map(FloatFunction function) {
+        for (int c = 0; c < chunks.length; ++c) {
+            chunks[c].map(function);
+        }
+    }
+
+    /**
+     * Set the elements with values produced by a generator.
+     * @param generator - The generator, it is called in column-major order
+     *                    of the elements.
+     */
+    public void fill(FloatGenerator generator) {
+        for (int c = 0; c < chunks.length; ++c) {
+            chunks[c].fill(generator);
+        }
+    }
+
+    /**
+     * Scan all the elements in column-major order.
+     * @param scanner - The scanner.  If it is a {@link FloatMergeableScanner},
+     *                  the chunks are scanned in parallel.
+     */
+    public void scan(FloatScanner scanner) {
+        if (scanner instanceof FloatMergeableScanner) {
+            FloatMergeableScanner root = (FloatMergeableScanner)scanner;
+            chunks[0].scan(root);
+            for (int c = 1; c < chunks.length; ++c) {
+                FloatMergeableScanner other = root.spawn();
+                chunks[c].scan(other);
+                root.merge(other);
+            }
+        } else {
+            scanner.initialize(data[0][0]);
+            for (int c = 0; c < chunks.length; ++c) {
+                float[] arr = data[c];
+                for (int j = (c == 0 ? 1 : 0); j < arr.length; ++j) {
+                    scanner.update(arr[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the minimal value of the elements.
+     * @return The minimal value.
+     */
+    public float min() {
+        float minValue = chunks[0].min();
+        for (int c = 1; c < chunks.length; ++c) {
+            float value = chunks[c].min();
+            if (value < minValue || minValue != minValue) {
+                minValue = value;
+            }
+        }
+        return minValue;
+    }
+
+    /**
+     * Get the maximal value of the elements.
+     * @return The maximal value.
+     */
+    public float max() {
+        float maxValue = chunks[0].max();
+        for (int c = 1; c < chunks.length; ++c) {
+            float value = chunks[c].max();
+            if (value > maxValue || maxValue != maxValue) {
+                maxValue = value;
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Get the minimal and maximal values of the elements.
+     * @return An array of 2 elements: the minimal and maximal values.
+     */
+    public float[] getMinAndMax() {
+        float[] mm = new float[2];
+        getMinAndMax(mm);
+        return mm;
+    }
+
+    /**
+     * Get the minimal and maximal values of the elements.
+     * @param mm - An array of at least 2 elements to store the minimal and
+     *             maximal values.
+     */
+    public void getMinAndMax(float[] mm) {
+        float[] tmp = new float[2];
+        chunks[0].getMinAndMax(mm);
+        for (int c = 1; c < chunks.length; ++c) {
+            chunks[c].getMinAndMax(tmp);
+            if (tmp[0] < mm[0] || mm[0] != mm[0]) {
+                mm[0] = tmp[0];
+            }
+            if (tmp[1] > mm[1] || mm[1] != mm[1]) {
+                mm[1] = tmp[1];
+            }
+        }
+    }
+
+    /**
+     * Get the sum of the elements.
+     * @return The sum of all the elements.
+     */
+    public float sum() {
+        return (float)sumOfElements();
+    }
+
+    /**
+     * Get the average value of the elements.
+     * @return The average of all the elements.
+     */
+    public double average() {
+        return sumOfElements()/number;
+    }
+
+    /* Sum of the elements, the chunks being summed in parallel by pairwise
+       summation. */
+    private double sumOfElements() {
+        double totalValue = 0.0;
+        for (int c = 0; c < data.length; ++c) {
+            totalValue += Summation.sum(data[c]);
+        }
+        return totalValue;
+    }
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
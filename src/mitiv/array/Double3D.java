@@ -25,14 +25,22 @@
 
 package mitiv.array;
 
+import java.util.Spliterator;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+import mitiv.array.impl.ChunkCursor;
+import mitiv.array.impl.ChunkSpliterator;
 import mitiv.array.impl.FlatDouble3D;
 import mitiv.array.impl.StriddenDouble3D;
+import mitiv.array.impl.BlockCopy;
+import mitiv.array.impl.Helper;
+import mitiv.array.impl.StorageLayout;
 import mitiv.base.Shape;
 import mitiv.base.Shaped;
 import mitiv.base.Traits;
 import mitiv.base.mapping.DoubleFunction;
 import mitiv.base.mapping.DoubleScanner;
-import mitiv.exception.IllegalTypeException;
 import mitiv.exception.NonConformableArrayException;
 import mitiv.base.indexing.Range;
 import mitiv.linalg.shaped.DoubleShapedVector;
@@ -278,6 +286,36 @@ public abstract class Double3D extends Array3D implements DoubleArray {
         return flatten(false);
     }
 
+    @Override
+    public Spliterator.OfDouble spliterator() {
+        return new ChunkSpliterator.OfDouble(new ChunkCursor(this));
+    }
+
+    @Override
+    public DoubleStream stream() {
+        return StreamSupport.doubleStream(spliterator(), false);
+    }
+
+    @Override
+    public void convertInto(ShapedArray dst) {
+        ArrayUtils.convert(this, dst);
+    }
+
+    @Override
+    public void convertInto(ShapedArray dst, double scale, double bias) {
+        ArrayUtils.convert(this, dst, scale, bias);
+    }
+
+    @Override
+    public void convertInto(ShapedVector dst) {
+        ArrayUtils.convert(this, dst);
+    }
+
+    @Override
+    public void convertInto(ShapedVector dst, double scale, double bias) {
+        ArrayUtils.convert(this, dst, scale, bias);
+    }
+
     @Override
     public double min() {
         double minValue = get(0,0,0);
@@ -290,7 +328,7 @@ public abstract class Double3D extends Array3D implements DoubleArray {
                             skip = false;
                         } else {
                             double value = get(i1,i2,i3);
-                            if (value < minValue) {
+                            if (value < minValue || minValue != minValue) {
                                 minValue = value;
                             }
                         }
@@ -306,7 +344,7 @@ public abstract class Double3D extends Array3D implements DoubleArray {
                             skip = false;
                         } else {
                             double value = get(i1,i2,i3);
-                            if (value < minValue) {
+                            if (value < minValue || minValue != minValue) {
                                 minValue = value;
                             }
                         }
@@ -329,7 +367,7 @@ public abstract class Double3D extends Array3D implements DoubleArray {
                             skip = false;
                         } else {
                             double value = get(i1,i2,i3);
-                            if (value > maxValue) {
+                            if (value > maxValue || maxValue != maxValue) {
                                 maxValue = value;
                             }
                         }
@@ -345,7 +383,7 @@ public abstract class Double3D extends Array3D implements DoubleArray {
                             skip = false;
                         } else {
                             double value = get(i1,i2,i3);
-                            if (value > maxValue) {
+                            if (value > maxValue || maxValue != maxValue) {
                                 maxValue = value;
                             }
                         }
@@ -376,10 +414,10 @@ public abstract class Double3D extends Array3D implements DoubleArray {
                             skip = false;
                         } else {
                             double value = get(i1,i2,i3);
-                            if (value < minValue) {
+                            if (value < minValue || minValue != minValue) {
                                 minValue = value;
                             }
-                            if (value > maxValue) {
+                            if (value > maxValue || maxValue != maxValue) {
                                 maxValue = value;
                             }
                         }
@@ -395,10 +433,10 @@ public abstract class Double3D extends Array3D implements DoubleArray {
                             skip = false;
                         } else {
                             double value = get(i1,i2,i3);
-                            if (value < minValue) {
+                            if (value < minValue || minValue != minValue) {
                                 minValue = value;
                             }
-                            if (value > maxValue) {
+                            if (value > maxValue || maxValue != maxValue) {
                                 maxValue = value;
                             }
                         }
@@ -410,14 +448,18 @@ public abstract class Double3D extends Array3D implements DoubleArray {
         mm[1] = maxValue;
     }
 
-    @Override
-    public double sum() {
-        double totalValue = 0;
+    /* Sum of the elements with a compensated double precision accumulator. */
+    private double sumOfElements() {
+        double totalValue = 0.0;
+        double compensation = 0.0;
         if (getOrder() == ROW_MAJOR) {
             for (int i1 = 0; i1 < dim1; ++i1) {
                 for (int i2 = 0; i2 < dim2; ++i2) {
                     for (int i3 = 0; i3 < dim3; ++i3) {
-                        totalValue += get(i1,i2,i3);
+                        double value = get(i1,i2,i3) - compensation;
+                        double total = totalValue + value;
+                        compensation = (total - totalValue) - value;
+                        totalValue = total;
                     }
                 }
             }
@@ -426,17 +468,65 @@ public abstract class Double3D extends Array3D implements DoubleArray {
             for (int i3 = 0; i3 < dim3; ++i3) {
                 for (int i2 = 0; i2 < dim2; ++i2) {
                     for (int i1 = 0; i1 < dim1; ++i1) {
-                        totalValue += get(i1,i2,i3);
+                        double value = get(i1,i2,i3) - compensation;
+                        double total = totalValue + value;
+                        compensation = (total - totalValue) - value;
+                        totalValue = total;
                     }
                 }
             }
         }
-        return totalValue;
+        return totalValue - compensation;
+    }
+
+    @Override
+    public double sum() {
+        return sumOfElements();
     }
 
     @Override
     public double average() {
-        return (double)sum()/(double)number;
+        return sumOfElements()/number;
+    }
+
+    /* Get the packed bits of a mask with the same shape as this array. */
+    private long[] getMaskBits(BooleanArray mask) {
+        if (! getShape().equals(mask.getShape())) {
+            throw new NonConformableArrayException("Mask must have the same shape as the array.");
+        }
+        return mask.getBits(false);
+    }
+
+    @Override
+    public void fill(double value, BooleanArray mask) {
+        long[] bits = getMaskBits(mask);
+        double[] data = flatten(false);
+        ArrayUtils.fill(data, bits, number, value);
+        if (! (this instanceof StorageLayout) ||
+                data != ((StorageLayout)this).getStorage()) {
+            /* The values are a copy, store back the result. */
+            assign(wrap(data, shape));
+        }
+    }
+
+    @Override
+    public void scan(DoubleScanner scanner, BooleanArray mask) {
+        ArrayUtils.scan(scanner, flatten(false), getMaskBits(mask), number);
+    }
+
+    @Override
+    public double min(BooleanArray mask) {
+        return ArrayUtils.min(flatten(false), getMaskBits(mask), number);
+    }
+
+    @Override
+    public double max(BooleanArray mask) {
+        return ArrayUtils.max(flatten(false), getMaskBits(mask), number);
+    }
+
+    @Override
+    public double sum(BooleanArray mask) {
+        return ArrayUtils.sum(flatten(false), getMaskBits(mask), number);
     }
 
     /**
@@ -626,7 +716,15 @@ public abstract class Double3D extends Array3D implements DoubleArray {
                 }
             }
         } else {
-            throw new IllegalTypeException();
+            /* Other vectors (e.g. half precision ones) are read as doubles. */
+            ShapedVector src = vec;
+            for (int i3 = 0; i3 < dim3; ++i3) {
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        set(i1,i2,i3, src.get(++i));
+                    }
+                }
+            }
         }
     }
 
@@ -834,6 +932,38 @@ public abstract class Double3D extends Array3D implements DoubleArray {
     @Override
     public abstract Double1D as1D();
 
+    /*
+     * Note that the following default implementation of the "permute"
+     * method makes a copy.  Implementations which store their elements
+     * with strides or indirection tables override it to return a view.
+     */
+    @Override
+    public Double3D permute(int... perm) {
+        int[] dims = shape.copyDimensions();
+        int[] strides = new int[3];
+        int stride = 1;
+        for (int k = 0; k < 3; ++k) {
+            strides[k] = stride;
+            stride *= dims[k];
+        }
+        dims = Helper.permute(dims, perm);
+        strides = Helper.permute(strides, perm);
+        int[] outStrides = new int[3];
+        stride = 1;
+        for (int k = 0; k < 3; ++k) {
+            outStrides[k] = stride;
+            stride *= dims[k];
+        }
+        double[] out = new double[number];
+        BlockCopy.copy(flatten(false), 0, strides, out, 0, outStrides, dims);
+        return wrap(out, dims);
+    }
+
+    @Override
+    public Double3D transpose() {
+        return permute(2, 1, 0);
+    }
+
 }
 
 /*
@@ -25,9 +25,13 @@
 
 package mitiv.array;
 
+import java.util.Spliterator;
+import java.util.stream.DoubleStream;
+
 import mitiv.base.Shaped;
 import mitiv.base.mapping.DoubleFunction;
 import mitiv.base.mapping.DoubleScanner;
+import mitiv.linalg.shaped.ShapedVector;
 import mitiv.random.DoubleGenerator;
 
 /**
@@ -73,12 +77,22 @@ public interface DoubleArray extends ShapedArray {
 
     /**
      * Map all the values of the array of double's by a function.
+     * <p>
+     * The function may be applied concurrently by several threads (see
+     * {@link mitiv.base.Parallel}), it must therefore be thread-safe.
+     * </p>
      * @param func - The function to apply.
      */
     public abstract void map(DoubleFunction func);
 
     /**
      * Scan the values of the array of double's.
+     * <p>
+     * If the scanner is a {@link mitiv.base.mapping.DoubleMergeableScanner},
+     * the scanning may be split into parts processed concurrently by spawned
+     * scanners which are finally merged into the given one.  Otherwise, the
+     * values are scanned sequentially.
+     * </p>
      * @param scanner - The scanner to use.
      */
     public abstract void scan(DoubleScanner scanner);
@@ -122,26 +136,114 @@ public interface DoubleArray extends ShapedArray {
      */
     public abstract double[] flatten();
 
+    /**
+     * Convert the elements of this array into an existing array.
+     * <p>
+     * The values are converted as by {@code dst.assign(this)} but, when
+     * the destination is a flat array, in a single parallel pass without
+     * any temporary array.
+     * </p>
+     * @param dst - The destination array, with the same shape as this
+     *              array.
+     * @see ArrayUtils#convert(ShapedArray, ShapedArray)
+     */
+    public abstract void convertInto(ShapedArray dst);
+
+    /**
+     * Convert the elements of this array into an existing array with an
+     * affine correction.
+     * <p>
+     * The destination values are {@code scale*x + bias} where {@code x}
+     * are the values of this array, rounded and saturated for integer
+     * destinations.
+     * </p>
+     * @param dst   - The destination array, with the same shape as this
+     *                array.
+     * @param scale - The factor applied to the values (e.g. a gain).
+     * @param bias  - The offset added to the scaled values.
+     * @see ArrayUtils#convert(ShapedArray, ShapedArray, double, double)
+     */
+    public abstract void convertInto(ShapedArray dst, double scale, double bias);
+
+    /**
+     * Convert the elements of this array into an existing vector.
+     * @param dst - The destination vector, with the same shape as this
+     *              array.
+     * @see #convertInto(ShapedArray)
+     */
+    public abstract void convertInto(ShapedVector dst);
+
+    /**
+     * Convert the elements of this array into an existing vector with an
+     * affine correction.
+     * @param dst   - The destination vector, with the same shape as this
+     *                array.
+     * @param scale - The factor applied to the values (e.g. a gain).
+     * @param bias  - The offset added to the scaled values.
+     * @see #convertInto(ShapedArray, double, double)
+     */
+    public abstract void convertInto(ShapedVector dst, double scale, double bias);
+
+    /**
+     * Get a spliterator over the elements of this array.
+     *
+     * <p>
+     * The elements are visited in column-major order.  The spliterator is
+     * split on boundaries of the contiguous parts of the storage and does
+     * not copy the elements of flat and stridden arrays (see
+     * {@link mitiv.array.impl.ChunkSpliterator}).
+     * </p>
+     *
+     * @return A new spliterator.
+     */
+    public abstract Spliterator.OfDouble spliterator();
+
+    /**
+     * Get a stream of the elements of this array.
+     *
+     * <p>
+     * The returned stream is sequential, call its {@code parallel()} method
+     * to process the elements by several threads.
+     * </p>
+     *
+     * @return A new stream over the elements in column-major order.
+     */
+    public abstract DoubleStream stream();
+
     @Override
     public abstract DoubleArray copy();
 
     /**
      * Get the minimal value of all the elements.
+     * <p>
+     * NaN values are ignored: the result is NaN only if all the elements
+     * are NaN.  This does not depend on the order in which the elements
+     * are visited, nor on how the work is split between threads.
+     * </p>
      */
     public abstract double min();
 
     /**
      * Get the maximal value of all the elements.
+     * <p>
+     * NaN values are ignored as explained for {@link #min()}.
+     * </p>
      */
     public abstract double max();
 
     /**
      * Get the minimal and maximal values of all the elements.
+     * <p>
+     * NaN values are ignored as explained for {@link #min()}.
+     * </p>
      */
     public abstract double[] getMinAndMax();
 
     /**
      * Get the minimal and maximal values of all the elements.
+     * <p>
+     * NaN values are ignored as explained for {@link #min()}.
+     * </p>
      */
     public abstract void getMinAndMax(double[] mm);
 
@@ -154,6 +256,51 @@ public interface DoubleArray extends ShapedArray {
      * Get the average value of all elements.
      */
     public abstract double average();
+
+    /*=======================================================================*/
+    /* MASKED OPERATIONS */
+
+    /* Note that the following methods only read the values selected by the
+     * mask, words of 64 unselected values are skipped at once (see
+     * {@link BooleanArray}). */
+
+    /**
+     * Set the values of the array of double's selected by a mask.
+     * @param value - The value to set.
+     * @param mask  - A mask with the same shape as the array.
+     */
+    public abstract void fill(double value, BooleanArray mask);
+
+    /**
+     * Scan the values of the array of double's selected by a mask.
+     * <p>
+     * The selected values are scanned in column-major order, the scanner
+     * is not initialized if no values are selected.
+     * </p>
+     * @param scanner - The scanner to use.
+     * @param mask    - A mask with the same shape as the array.
+     */
+    public abstract void scan(DoubleScanner scanner, BooleanArray mask);
+
+    /**
+     * Get the minimal value of the elements selected by a mask.
+     * @param mask - A mask with the same shape as the array.
+     * @throws IllegalArgumentException if no values are selected.
+     */
+    public abstract double min(BooleanArray mask);
+
+    /**
+     * Get the maximal value of the elements selected by a mask.
+     * @param mask - A mask with the same shape as the array.
+     * @throws IllegalArgumentException if no values are selected.
+     */
+    public abstract double max(BooleanArray mask);
+
+    /**
+     * Get the sum of the values of the elements selected by a mask.
+     * @param mask - A mask with the same shape as the array.
+     */
+    public abstract double sum(BooleanArray mask);
 }
 
 /*
@@ -0,0 +1,1020 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mitiv.array.impl.StorageLayout;
+import mitiv.base.Parallel;
+import mitiv.base.Shape;
+import mitiv.base.Traits;
+import mitiv.base.mapping.DoubleFunction;
+import mitiv.exception.IllegalTypeException;
+import mitiv.exception.NonConformableArrayException;
+
+/**
+ * Lazy element-wise expressions over shaped arrays.
+ *
+ * <p>
+ * An expression is built by chaining element-wise operations, nothing is
+ * computed until the expression is stored into a destination array.  For
+ * instance:
+ * <pre>
+ *   expr(a).sub(bg).mul(gain).clamp(0, 1).into(dst);</pre>
+ * computes {@code dst[i] = min(max((a[i] - bg[i])*gain[i], 0), 1)} for all
+ * elements in a single pass, intermediate results are never stored in
+ * arrays of the size of the operands.  The elements are processed by small
+ * blocks which fit in the cache: each node of the expression tree computes
+ * the values of its block before passing them to its parent.  The blocks
+ * are distributed among threads by {@link Parallel}.
+ * </p><p>
+ * All operands must have the same shape, except constants which are
+ * combined with all elements.  Values are computed in double precision and
+ * converted to the type of the destination when stored (with the same
+ * rules as Java casts).  Following the conventions of the library, the
+ * elements of byte arrays are taken as unsigned values.  The destination may
+ * also be one of the operands.
+ * </p><p>
+ * The operands and the destination whose elements are stored with an
+ * offset and strides (flat arrays, views, permuted arrays, etc.) are read
+ * and written in place.  The elements are visited in the order of their
+ * storage in the destination (or in the first such operand when the
+ * destination has no such storage), by runs along the dimension with the
+ * smallest stride; dimensions which are contiguous in the destination and
+ * in all the operands are merged into longer runs.  Other operands (e.g.
+ * tiled arrays) are gathered into temporary flat arrays and the result is
+ * computed into a temporary array which is then assigned to another kind of
+ * destination.  An operand which shares the storage of the destination with
+ * a different layout is also copied first.
+ * </p>
+ */
+public abstract class Expression {
+
+    /* Number of elements processed at once by the nodes of an expression. */
+    private static final int BLOCK_SIZE = 1024;
+
+    /* Binary operations. */
+    private static final int ADD = 0;
+    private static final int SUB = 1;
+    private static final int MUL = 2;
+    private static final int DIV = 3;
+    private static final int MIN = 4;
+    private static final int MAX = 5;
+
+    /* Unary operations. */
+    private static final int NEG = 0;
+    private static final int ABS = 1;
+    private static final int SQRT = 2;
+    private static final int EXP = 3;
+    private static final int LOG = 4;
+    private static final int CLAMP = 5;
+    private static final int MAP = 6;
+
+    /** The shape of the expression, {@code null} for a constant. */
+    protected final Shape shape;
+
+    Expression(Shape shape) {
+        this.shape = shape;
+    }
+
+    /**
+     * Make an expression out of an array.
+     * @param arr - The array.
+     * @return An expression whose elements are those of {@code arr}.
+     */
+    public static Expression expr(ShapedArray arr) {
+        return new Operand(arr);
+    }
+
+    /**
+     * Make an expression out of a constant.
+     * @param value - The value of the constant.
+     * @return An expression whose elements are all equal to {@code value}.
+     */
+    public static Expression expr(double value) {
+        return new Constant(value);
+    }
+
+    /**
+     * Get the shape of the expression.
+     * @return The shape of the expression, {@code null} if the expression
+     *         is a constant.
+     */
+    public Shape getShape() {
+        return shape;
+    }
+
+    /* BINARY OPERATIONS ===================================================*/
+
+    /**
+     * Element-wise addition.
+     * @param other - The other operand (see also the methods with an array
+     *                or a constant operand).
+     * @return An expression whose elements are the sum of those of this
+     *         expression and of {@code other}.
+     */
+    public Expression add(Expression other) {
+        return binary(ADD, other);
+    }
+
+    public Expression add(ShapedArray arr) {
+        return binary(ADD, expr(arr));
+    }
+
+    public Expression add(double value) {
+        return binary(ADD, expr(value));
+    }
+
+    /**
+     * Element-wise subtraction.
+     * @param other - The other operand (see also the methods with an array
+     *                or a constant operand).
+     * @return An expression whose elements are the difference of those of
+     *         this expression and of {@code other}.
+     */
+    public Expression sub(Expression other) {
+        return binary(SUB, other);
+    }
+
+    public Expression sub(ShapedArray arr) {
+        return binary(SUB, expr(arr));
+    }
+
+    public Expression sub(double value) {
+        return binary(SUB, expr(value));
+    }
+
+    /**
+     * Element-wise multiplication.
+     * @param other - The other operand (see also the methods with an array
+     *                or a constant operand).
+     * @return An expression whose elements are the product of those of this
+     *         expression and of {@code other}.
+     */
+    public Expression mul(Expression other) {
+        return binary(MUL, other);
+    }
+
+    public Expression mul(ShapedArray arr) {
+        return binary(MUL, expr(arr));
+    }
+
+    public Expression mul(double value) {
+        return binary(MUL, expr(value));
+    }
+
+    /**
+     * Element-wise division.
+     * @param other - The other operand (see also the methods with an array
+     *                or a constant operand).
+     * @return An expression whose elements are the quotient of those of this
+     *         expression and of {@code other}.
+     */
+    public Expression div(Expression other) {
+        return binary(DIV, other);
+    }
+
+    public Expression div(ShapedArray arr) {
+        return binary(DIV, expr(arr));
+    }
+
+    public Expression div(double value) {
+        return binary(DIV, expr(value));
+    }
+
+    /**
+     * Element-wise minimum.
+     * @param other - The other operand.
+     * @return An expression whose elements are the least of those of this
+     *         expression and of {@code other}.
+     */
+    public Expression min(Expression other) {
+        return binary(MIN, other);
+    }
+
+    public Expression min(ShapedArray arr) {
+        return binary(MIN, expr(arr));
+    }
+
+    public Expression min(double value) {
+        return binary(MIN, expr(value));
+    }
+
+    /**
+     * Element-wise maximum.
+     * @param other - The other operand.
+     * @return An expression whose elements are the greatest of those of this
+     *         expression and of {@code other}.
+     */
+    public Expression max(Expression other) {
+        return binary(MAX, other);
+    }
+
+    public Expression max(ShapedArray arr) {
+        return binary(MAX, expr(arr));
+    }
+
+    public Expression max(double value) {
+        return binary(MAX, expr(value));
+    }
+
+    /* UNARY OPERATIONS ====================================================*/
+
+    /* The following methods respectively yield the opposite, the absolute
+       value, the square root, the exponential and the natural logarithm of
+       the elements. */
+
+    public Expression neg() {
+        return unary(NEG, 0.0, 0.0, null);
+    }
+
+    public Expression abs() {
+        return unary(ABS, 0.0, 0.0, null);
+    }
+
+    public Expression sqrt() {
+        return unary(SQRT, 0.0, 0.0, null);
+    }
+
+    public Expression exp() {
+        return unary(EXP, 0.0, 0.0, null);
+    }
+
+    public Expression log() {
+        return unary(LOG, 0.0, 0.0, null);
+    }
+
+    /**
+     * Clamp the values of the elements.
+     * @param lower - The lower bound.
+     * @param upper - The upper bound.
+     * @return An expression whose elements are those of this expression
+     *         restricted to the interval {@code [lower,upper]}.
+     */
+    public Expression clamp(double lower, double upper) {
+        if (lower > upper) {
+            throw new IllegalArgumentException(
+                    "Lower bound must not be greater than upper bound.");
+        }
+        return unary(CLAMP, lower, upper, null);
+    }
+
+    /**
+     * Apply a function to the elements.
+     * @param function - The function.
+     * @return An expression whose elements are the result of the function
+     *         applied to the elements of this expression.
+     */
+    public Expression map(DoubleFunction function) {
+        if (function == null) {
+            throw new NullPointerException("Function must not be null.");
+        }
+        return unary(MAP, 0.0, 0.0, function);
+    }
+
+    /* EVALUATION ==========================================================*/
+
+    /**
+     * Evaluate the expression into a new array.
+     * @param type - The type of the elements of the result.
+     * @return A new array with the values of the expression.
+     */
+    public ShapedArray toArray(int type) {
+        if (shape == null) {
+            throw new IllegalArgumentException(
+                    "The shape of a constant expression is undefined.");
+        }
+        return into(ArrayFactory.create(type, shape));
+    }
+
+    /**
+     * Evaluate the expression into an array.
+     * <p>
+     * The destination array is directly written if its elements are stored
+     * with an offset and strides, otherwise the result is first computed in
+     * a temporary array which is then assigned to the destination.
+     * </p>
+     * @param dst - The destination array, it must have the same shape as the
+     *              expression (unless the expression is a constant).
+     * @return The destination array.
+     */
+    public ShapedArray into(ShapedArray dst) {
+        if (shape != null && ! shape.equals(dst.getShape())) {
+            throw new NonConformableArrayException(
+                    "Expression and destination must have the same shape.");
+        }
+        final int type = dst.getType();
+        final int number = dst.getNumber();
+        final int rank = dst.getRank();
+        final int[] dims = dst.getShape().copyDimensions();
+
+        /* Layouts of the destination (first) and of the operands. */
+        final Object out;
+        boolean direct = (dst instanceof StorageLayout);
+        if (direct) {
+            out = ((StorageLayout)dst).getStorage();
+        } else {
+            out = newStorage(type, number);
+        }
+        List<Operand> operands = new ArrayList<Operand>();
+        prepare(operands);
+        try {
+            final int m = operands.size();
+            int[] origin = new int[m + 1];
+            int[][] strides = new int[m + 1][];
+            if (direct) {
+                origin[0] = ((StorageLayout)dst).getStorageOffset();
+                strides[0] = ((StorageLayout)dst).getStorageStrides();
+            } else {
+                strides[0] = flatStrides(dims);
+            }
+            int ref = 0; // layout giving the order of the elements
+            for (int l = 1; l <= m; ++l) {
+                Operand op = operands.get(l - 1);
+                op.slot = l;
+                op.setup(out, origin[0], strides[0]);
+                origin[l] = op.origin;
+                strides[l] = op.strides;
+                if (! direct && ref == 0 && op.arr instanceof StorageLayout) {
+                    ref = l;
+                }
+            }
+
+            /* Sort the dimensions by increasing strides of the reference
+               layout, ignoring the dimensions of length 1. */
+            int[] order = new int[rank];
+            int r = 0;
+            for (int k = 0; k < rank; ++k) {
+                if (dims[k] == 1) {
+                    continue;
+                }
+                int s = Math.abs(strides[ref][k]);
+                int i = r++;
+                while (i > 0 && Math.abs(strides[ref][order[i - 1]]) > s) {
+                    order[i] = order[i - 1];
+                    --i;
+                }
+                order[i] = k;
+            }
+
+            /* Merge the dimensions which are contiguous in all layouts.  The
+               first merged dimension gives the runs, the others are
+               iterated. */
+            final int[] dim = new int[Math.max(r, 1)];
+            final int[][] stride = new int[m + 1][Math.max(r, 1)];
+            dim[0] = 1;
+            int g = 0;
+            for (int i = 0; i < r; ++i) {
+                int k = order[i];
+                boolean merge = (i > 0);
+                for (int l = 0; merge && l <= m; ++l) {
+                    merge = (strides[l][k] == stride[l][g]*dim[g]);
+                }
+                if (merge) {
+                    dim[g] *= dims[k];
+                } else {
+                    if (i > 0) {
+                        ++g;
+                    }
+                    dim[g] = dims[k];
+                    for (int l = 0; l <= m; ++l) {
+                        stride[l][g] = strides[l][k];
+                    }
+                }
+            }
+            for (int l = 1; l <= m; ++l) {
+                operands.get(l - 1).step = stride[l][0];
+            }
+            final int outer = (r > 0 ? g + 1 : 1);
+            final int length = dim[0];
+            final int[] base = origin;
+            final int depth = getDepth();
+            if (number > 0) {
+                Parallel.run(number, new Parallel.Loop() {
+                    @Override
+                    public void run(int first, int last) {
+                        double[] buf = new double[BLOCK_SIZE];
+                        double[][] work = new double[depth][BLOCK_SIZE];
+                        int[] idx = new int[outer];
+                        int[] offset = base.clone();
+                        int q = first/length;
+                        int i0 = first - q*length;
+                        for (int k = 1; k < outer; ++k) {
+                            idx[k] = q % dim[k];
+                            q /= dim[k];
+                            for (int l = 0; l <= m; ++l) {
+                                offset[l] += idx[k]*stride[l][k];
+                            }
+                        }
+                        int[] pos = new int[m + 1];
+                        int j = first;
+                        while (true) {
+                            /* Process the rest of the run by blocks. */
+                            int end = Math.min(j + length - i0, last);
+                            while (j < end) {
+                                int n = Math.min(BLOCK_SIZE, end - j);
+                                for (int l = 0; l <= m; ++l) {
+                                    pos[l] = offset[l] + i0*stride[l][0];
+                                }
+                                eval(pos, n, buf, work, 0);
+                                store(type, out, pos[0], stride[0][0], n,
+                                      buf);
+                                i0 += n;
+                                j += n;
+                            }
+                            if (j >= last) {
+                                break;
+                            }
+                            /* Move to the next run. */
+                            i0 = 0;
+                            for (int k = 1; k < outer; ++k) {
+                                if (++idx[k] < dim[k]) {
+                                    for (int l = 0; l <= m; ++l) {
+                                        offset[l] += stride[l][k];
+                                    }
+                                    break;
+                                }
+                                idx[k] = 0;
+                                for (int l = 0; l <= m; ++l) {
+                                    offset[l] -= (dim[k] - 1)*stride[l][k];
+                                }
+                            }
+                        }
+                    }
+                });
+            }
+        } finally {
+            release();
+        }
+        if (! direct) {
+            /* The result has been computed in a temporary array. */
+            dst.assign(wrap(type, out, dst.getShape()));
+        }
+        return dst;
+    }
+
+    /* Strides of the elements of a flat array in column-major order. */
+    private static int[] flatStrides(int[] dims) {
+        int[] strides = new int[dims.length];
+        for (int k = 0, s = 1; k < dims.length; ++k) {
+            strides[k] = s;
+            s *= dims[k];
+        }
+        return strides;
+    }
+
+    /* Allocate a flat storage, its contents are not copied from the
+       destination as they are all overwritten. */
+    private static Object newStorage(int type, int number) {
+        switch (type) {
+        case Traits.BYTE:
+            return new byte[number];
+        case Traits.SHORT:
+            return new short[number];
+        case Traits.INT:
+            return new int[number];
+        case Traits.LONG:
+            return new long[number];
+        case Traits.FLOAT:
+            return new float[number];
+        case Traits.DOUBLE:
+            return new double[number];
+        default:
+            throw new IllegalTypeException();
+        }
+    }
+
+    private static ShapedArray wrap(int type, Object data, Shape shape) {
+        switch (type) {
+        case Traits.BYTE:
+            return ArrayFactory.wrap((byte[])data, shape);
+        case Traits.SHORT:
+            return ArrayFactory.wrap((short[])data, shape);
+        case Traits.INT:
+            return ArrayFactory.wrap((int[])data, shape);
+        case Traits.LONG:
+            return ArrayFactory.wrap((long[])data, shape);
+        case Traits.FLOAT:
+            return ArrayFactory.wrap((float[])data, shape);
+        default:
+            return ArrayFactory.wrap((double[])data, shape);
+        }
+    }
+
+    /* Store a block of values into a storage with a given step. */
+    private static void store(int type, Object out, int offset, int step,
+            int length, double[] buf) {
+        switch (type) {
+        case Traits.BYTE:
+        {
+            byte[] arr = (byte[])out;
+            for (int i = 0, j = offset; i < length; ++i, j += step) {
+                arr[j] = (byte)buf[i];
+            }
+            break;
+        }
+        case Traits.SHORT:
+        {
+            short[] arr = (short[])out;
+            for (int i = 0, j = offset; i < length; ++i, j += step) {
+                arr[j] = (short)buf[i];
+            }
+            break;
+        }
+        case Traits.INT:
+        {
+            int[] arr = (int[])out;
+            for (int i = 0, j = offset; i < length; ++i, j += step) {
+                arr[j] = (int)buf[i];
+            }
+            break;
+        }
+        case Traits.LONG:
+        {
+            long[] arr = (long[])out;
+            for (int i = 0, j = offset; i < length; ++i, j += step) {
+                arr[j] = (long)buf[i];
+            }
+            break;
+        }
+        case Traits.FLOAT:
+        {
+            float[] arr = (float[])out;
+            for (int i = 0, j = offset; i < length; ++i, j += step) {
+                arr[j] = (float)buf[i];
+            }
+            break;
+        }
+        default:
+            if (step == 1) {
+                System.arraycopy(buf, 0, (double[])out, offset, length);
+            } else {
+                double[] arr = (double[])out;
+                for (int i = 0, j = offset; i < length; ++i, j += step) {
+                    arr[j] = buf[i];
+                }
+            }
+        }
+    }
+
+    /* Build a binary operation, constant sub-expressions are folded. */
+    private Expression binary(int op, Expression other) {
+        if (shape != null && other.shape != null
+                && ! shape.equals(other.shape)) {
+            throw new NonConformableArrayException(
+                    "Operands must have the same shape.");
+        }
+        Expression result = new Binary(op, this, other);
+        if (this instanceof Constant && other instanceof Constant) {
+            return new Constant(result.valueOf());
+        }
+        return result;
+    }
+
+    /* Build a unary operation, constant sub-expressions are folded. */
+    private Expression unary(int op, double lower, double upper,
+            DoubleFunction function) {
+        Expression result = new Unary(op, this, lower, upper, function);
+        if (this instanceof Constant) {
+            return new Constant(result.valueOf());
+        }
+        return result;
+    }
+
+    /* Value of a constant expression. */
+    private double valueOf() {
+        double[] buf = new double[1];
+        eval(null, 1, buf, new double[getDepth()][1], 0);
+        return buf[0];
+    }
+
+    /**
+     * Get ready for evaluation.
+     * @param operands - The list where to append the array operands of the
+     *                   expression.
+     */
+    abstract void prepare(List<Operand> operands);
+
+    /**
+     * Release resources after evaluation.
+     */
+    abstract void release();
+
+    /**
+     * Get the number of work buffers needed for evaluation.
+     */
+    abstract int getDepth();
+
+    /**
+     * Compute the values of a block of elements.
+     * @param pos    - The index of the first element of the block in the
+     *                 storage of every operand (given by their slot).
+     * @param length - The number of elements.
+     * @param out    - The buffer to store the values.
+     * @param work   - Work buffers.
+     * @param level  - The index of the first work buffer which can be used.
+     */
+    abstract void eval(int[] pos, int length, double[] out,
+            double[][] work, int level);
+
+    /*=======================================================================*/
+    /* NODES OF EXPRESSIONS */
+
+    private static final class Constant extends Expression {
+        final double value;
+
+        Constant(double value) {
+            super(null);
+            this.value = value;
+        }
+
+        @Override
+        void prepare(List<Operand> operands) {
+        }
+
+        @Override
+        void release() {
+        }
+
+        @Override
+        int getDepth() {
+            return 0;
+        }
+
+        @Override
+        void eval(int[] pos, int length, double[] out,
+                double[][] work, int level) {
+            for (int i = 0; i < length; ++i) {
+                out[i] = value;
+            }
+        }
+    }
+
+    private static final class Operand extends Expression {
+        final ShapedArray arr;
+
+        /* The storage of the elements, the index of the first element and
+           the strides along the dimensions (only valid during an
+           evaluation). */
+        Object data = null;
+        int origin;
+        int[] strides;
+
+        /* The step between the elements of a run and the index of the
+           operand in the positions given to eval(). */
+        int step;
+        int slot;
+
+        Operand(ShapedArray arr) {
+            super(arr.getShape());
+            this.arr = arr;
+        }
+
+        @Override
+        void prepare(List<Operand> operands) {
+            operands.add(this);
+        }
+
+        /* Get the storage of the elements given that of the destination. */
+        void setup(Object out, int outOrigin, int[] outStrides) {
+            if (arr instanceof StorageLayout) {
+                StorageLayout layout = (StorageLayout)arr;
+                data = layout.getStorage();
+                origin = layout.getStorageOffset();
+                strides = layout.getStorageStrides();
+                if (data != out || sameLayout(outOrigin, outStrides)) {
+                    return;
+                }
+            }
+            /* Gather the elements in a flat array.  A copy is forced if the
+               storage is shared with the destination. */
+            boolean copy = (data == out);
+            switch (arr.getType()) {
+            case Traits.BYTE:
+                data = ((ByteArray)arr).flatten(copy);
+                break;
+            case Traits.SHORT:
+                data = ((ShortArray)arr).flatten(copy);
+                break;
+            case Traits.INT:
+                data = ((IntArray)arr).flatten(copy);
+                break;
+            case Traits.LONG:
+                data = ((LongArray)arr).flatten(copy);
+                break;
+            case Traits.FLOAT:
+                data = ((FloatArray)arr).flatten(copy);
+                break;
+            case Traits.DOUBLE:
+                data = ((DoubleArray)arr).flatten(copy);
+                break;
+            default:
+                throw new IllegalTypeException();
+            }
+            origin = 0;
+            strides = flatStrides(arr.getShape().copyDimensions());
+        }
+
+        private boolean sameLayout(int outOrigin, int[] outStrides) {
+            if (origin != outOrigin) {
+                return false;
+            }
+            for (int k = 0; k < strides.length; ++k) {
+                if (arr.getDimension(k) > 1 && strides[k] != outStrides[k]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        void release() {
+            data = null;
+            strides = null;
+        }
+
+        @Override
+        int getDepth() {
+            return 0;
+        }
+
+        @Override
+        void eval(int[] pos, int length, double[] out,
+                double[][] work, int level) {
+            switch (arr.getType()) {
+            case Traits.BYTE:
+            {
+                byte[] src = (byte[])data;
+                for (int i = 0, j = pos[slot]; i < length; ++i, j += step) {
+                    out[i] = (src[j] & 0xFF);
+                }
+                break;
+            }
+            case Traits.SHORT:
+            {
+                short[] src = (short[])data;
+                for (int i = 0, j = pos[slot]; i < length; ++i, j += step) {
+                    out[i] = src[j];
+                }
+                break;
+            }
+            case Traits.INT:
+            {
+                int[] src = (int[])data;
+                for (int i = 0, j = pos[slot]; i < length; ++i, j += step) {
+                    out[i] = src[j];
+                }
+                break;
+            }
+            case Traits.LONG:
+            {
+                long[] src = (long[])data;
+                for (int i = 0, j = pos[slot]; i < length; ++i, j += step) {
+                    out[i] = src[j];
+                }
+                break;
+            }
+            case Traits.FLOAT:
+            {
+                float[] src = (float[])data;
+                for (int i = 0, j = pos[slot]; i < length; ++i, j += step) {
+                    out[i] = src[j];
+                }
+                break;
+            }
+            default:
+                if (step == 1) {
+                    System.arraycopy((double[])data, pos[slot], out, 0,
+                            length);
+                } else {
+                    double[] src = (double[])data;
+                    int j = pos[slot];
+                    for (int i = 0; i < length; ++i, j += step) {
+                        out[i] = src[j];
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Binary extends Expression {
+        final int op;
+        final Expression left;
+        final Expression right;
+
+        Binary(int op, Expression left, Expression right) {
+            super(left.shape != null ? left.shape : right.shape);
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        void prepare(List<Operand> operands) {
+            left.prepare(operands);
+            right.prepare(operands);
+        }
+
+        @Override
+        void release() {
+            left.release();
+            right.release();
+        }
+
+        @Override
+        int getDepth() {
+            if (right instanceof Constant) {
+                return left.getDepth();
+            }
+            return Math.max(left.getDepth(), 1 + right.getDepth());
+        }
+
+        @Override
+        void eval(int[] pos, int length, double[] out,
+                double[][] work, int level) {
+            left.eval(pos, length, out, work, level);
+            if (right instanceof Constant) {
+                /* Avoid filling a buffer with a constant. */
+                final double value = ((Constant)right).value;
+                switch (op) {
+                case ADD:
+                    for (int i = 0; i < length; ++i) {
+                        out[i] += value;
+                    }
+                    break;
+                case SUB:
+                    for (int i = 0; i < length; ++i) {
+                        out[i] -= value;
+                    }
+                    break;
+                case MUL:
+                    for (int i = 0; i < length; ++i) {
+                        out[i] *= value;
+                    }
+                    break;
+                case DIV:
+                    for (int i = 0; i < length; ++i) {
+                        out[i] /= value;
+                    }
+                    break;
+                case MIN:
+                    for (int i = 0; i < length; ++i) {
+                        out[i] = Math.min(out[i], value);
+                    }
+                    break;
+                default:
+                    for (int i = 0; i < length; ++i) {
+                        out[i] = Math.max(out[i], value);
+                    }
+                }
+            } else {
+                final double[] tmp = work[level];
+                right.eval(pos, length, tmp, work, level + 1);
+                switch (op) {
+                case ADD:
+                    for (int i = 0; i < length; ++i) {
+                        out[i] += tmp[i];
+                    }
+                    break;
+                case SUB:
+                    for (int i = 0; i < length; ++i) {
+                        out[i] -= tmp[i];
+                    }
+                    break;
+                case MUL:
+                    for (int i = 0; i < length; ++i) {
+                        out[i] *= tmp[i];
+                    }
+                    break;
+                case DIV:
+                    for (int i = 0; i < length; ++i) {
+                        out[i] /= tmp[i];
+                    }
+                    break;
+                case MIN:
+                    for (int i = 0; i < length; ++i) {
+                        out[i] = Math.min(out[i], tmp[i]);
+                    }
+                    break;
+                default:
+                    for (int i = 0; i < length; ++i) {
+                        out[i] = Math.max(out[i], tmp[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Unary extends Expression {
+        final int op;
+        final Expression arg;
+        final double lower;
+        final double upper;
+        final DoubleFunction function;
+
+        Unary(int op, Expression arg, double lower, double upper,
+                DoubleFunction function) {
+            super(arg.shape);
+            this.op = op;
+            this.arg = arg;
+            this.lower = lower;
+            this.upper = upper;
+            this.function = function;
+        }
+
+        @Override
+        void prepare(List<Operand> operands) {
+            arg.prepare(operands);
+        }
+
+        @Override
+        void release() {
+            arg.release();
+        }
+
+        @Override
+        int getDepth() {
+            return arg.getDepth();
+        }
+
+        @Override
+        void eval(int[] pos, int length, double[] out,
+                double[][] work, int level) {
+            arg.eval(pos, length, out, work, level);
+            switch (op) {
+            case NEG:
+                for (int i = 0; i < length; ++i) {
+                    out[i] = -out[i];
+                }
+                break;
+            case ABS:
+                for (int i = 0; i < length; ++i) {
+                    out[i] = Math.abs(out[i]);
+                }
+                break;
+            case SQRT:
+                for (int i = 0; i < length; ++i) {
+                    out[i] = Math.sqrt(out[i]);
+                }
+                break;
+            case EXP:
+                for (int i = 0; i < length; ++i) {
+                    out[i] = Math.exp(out[i]);
+                }
+                break;
+            case LOG:
+                for (int i = 0; i < length; ++i) {
+                    out[i] = Math.log(out[i]);
+                }
+                break;
+            case CLAMP:
+                for (int i = 0; i < length; ++i) {
+                    double value = out[i];
+                    out[i] = (value < lower ? lower :
+                              (value > upper ? upper : value));
+                }
+                break;
+            default:
+                for (int i = 0; i < length; ++i) {
+                    out[i] = function.apply(out[i]);
+                }
+            }
+        }
+    }
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
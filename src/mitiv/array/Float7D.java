@@ -25,14 +25,22 @@
 
 package mitiv.array;
 
+import java.util.Spliterator;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+import mitiv.array.impl.ChunkCursor;
+import mitiv.array.impl.ChunkSpliterator;
 import mitiv.array.impl.FlatFloat7D;
 import mitiv.array.impl.StriddenFloat7D;
+import mitiv.array.impl.BlockCopy;
+import mitiv.array.impl.Helper;
+import mitiv.array.impl.StorageLayout;
 import mitiv.base.Shape;
 import mitiv.base.Shaped;
 import mitiv.base.Traits;
 import mitiv.base.mapping.FloatFunction;
 import mitiv.base.mapping.FloatScanner;
-import mitiv.exception.IllegalTypeException;
 import mitiv.exception.NonConformableArrayException;
 import mitiv.base.indexing.Range;
 import mitiv.linalg.shaped.DoubleShapedVector;
@@ -406,6 +414,36 @@ public abstract class Float7D extends Array7D implements FloatArray {
         return flatten(false);
     }
 
+    @Override
+    public Spliterator.OfDouble spliterator() {
+        return new ChunkSpliterator.OfFloat(new ChunkCursor(this));
+    }
+
+    @Override
+    public DoubleStream stream() {
+        return StreamSupport.doubleStream(spliterator(), false);
+    }
+
+    @Override
+    public void convertInto(ShapedArray dst) {
+        ArrayUtils.convert(this, dst);
+    }
+
+    @Override
+    public void convertInto(ShapedArray dst, double scale, double bias) {
+        ArrayUtils.convert(this, dst, scale, bias);
+    }
+
+    @Override
+    public void convertInto(ShapedVector dst) {
+        ArrayUtils.convert(this, dst);
+    }
+
+    @Override
+    public void convertInto(ShapedVector dst, double scale, double bias) {
+        ArrayUtils.convert(this, dst, scale, bias);
+    }
+
     @Override
     public float min() {
         float minValue = get(0,0,0,0,0,0,0);
@@ -422,7 +460,7 @@ public abstract class Float7D extends Array7D implements FloatArray {
                                             skip = false;
                                         } else {
                                             float value = get(i1,i2,i3,i4,i5,i6,i7);
-                                            if (value < minValue) {
+                                            if (value < minValue || minValue != minValue) {
                                                 minValue = value;
                                             }
                                         }
@@ -446,7 +484,7 @@ public abstract class Float7D extends Array7D implements FloatArray {
                                             skip = false;
                                         } else {
                                             float value = get(i1,i2,i3,i4,i5,i6,i7);
-                                            if (value < minValue) {
+                                            if (value < minValue || minValue != minValue) {
                                                 minValue = value;
                                             }
                                         }
@@ -477,7 +515,7 @@ public abstract class Float7D extends Array7D implements FloatArray {
                                             skip = false;
                                         } else {
                                             float value = get(i1,i2,i3,i4,i5,i6,i7);
-                                            if (value > maxValue) {
+                                            if (value > maxValue || maxValue != maxValue) {
                                                 maxValue = value;
                                             }
                                         }
@@ -501,7 +539,7 @@ public abstract class Float7D extends Array7D implements FloatArray {
                                             skip = false;
                                         } else {
                                             float value = get(i1,i2,i3,i4,i5,i6,i7);
-                                            if (value > maxValue) {
+                                            if (value > maxValue || maxValue != maxValue) {
                                                 maxValue = value;
                                             }
                                         }
@@ -540,10 +578,10 @@ public abstract class Float7D extends Array7D implements FloatArray {
                                             skip = false;
                                         } else {
                                             float value = get(i1,i2,i3,i4,i5,i6,i7);
-                                            if (value < minValue) {
+                                            if (value < minValue || minValue != minValue) {
                                                 minValue = value;
                                             }
-                                            if (value > maxValue) {
+                                            if (value > maxValue || maxValue != maxValue) {
                                                 maxValue = value;
                                             }
                                         }
@@ -567,10 +605,10 @@ public abstract class Float7D extends Array7D implements FloatArray {
                                             skip = false;
                                         } else {
                                             float value = get(i1,i2,i3,i4,i5,i6,i7);
-                                            if (value < minValue) {
+                                            if (value < minValue || minValue != minValue) {
                                                 minValue = value;
                                             }
-                                            if (value > maxValue) {
+                                            if (value > maxValue || maxValue != maxValue) {
                                                 maxValue = value;
                                             }
                                         }
@@ -586,9 +624,10 @@ public abstract class Float7D extends Array7D implements FloatArray {
         mm[1] = maxValue;
     }
 
-    @Override
-    public float sum() {
-        float totalValue = 0;
+    /* Sum of the elements with a compensated double precision accumulator. */
+    private double sumOfElements() {
+        double totalValue = 0.0;
+        double compensation = 0.0;
         if (getOrder() == ROW_MAJOR) {
             for (int i1 = 0; i1 < dim1; ++i1) {
                 for (int i2 = 0; i2 < dim2; ++i2) {
@@ -597,7 +636,10 @@ public abstract class Float7D extends Array7D implements FloatArray {
                             for (int i5 = 0; i5 < dim5; ++i5) {
                                 for (int i6 = 0; i6 < dim6; ++i6) {
                                     for (int i7 = 0; i7 < dim7; ++i7) {
-                                        totalValue += get(i1,i2,i3,i4,i5,i6,i7);
+                                        double value = get(i1,i2,i3,i4,i5,i6,i7) - compensation;
+                                        double total = totalValue + value;
+                                        compensation = (total - totalValue) - value;
+                                        totalValue = total;
                                     }
                                 }
                             }
@@ -614,7 +656,10 @@ public abstract class Float7D extends Array7D implements FloatArray {
                             for (int i3 = 0; i3 < dim3; ++i3) {
                                 for (int i2 = 0; i2 < dim2; ++i2) {
                                     for (int i1 = 0; i1 < dim1; ++i1) {
-                                        totalValue += get(i1,i2,i3,i4,i5,i6,i7);
+                                        double value = get(i1,i2,i3,i4,i5,i6,i7) - compensation;
+                                        double total = totalValue + value;
+                                        compensation = (total - totalValue) - value;
+                                        totalValue = total;
                                     }
                                 }
                             }
@@ -623,12 +668,57 @@ public abstract class Float7D extends Array7D implements FloatArray {
                 }
             }
         }
-        return totalValue;
+        return totalValue - compensation;
+    }
+
+    @Override
+    public float sum() {
+        return (float)sumOfElements();
     }
 
     @Override
     public double average() {
-        return (double)sum()/(double)number;
+        return sumOfElements()/number;
+    }
+
+    /* Get the packed bits of a mask with the same shape as this array. */
+    private long[] getMaskBits(BooleanArray mask) {
+        if (! getShape().equals(mask.getShape())) {
+            throw new NonConformableArrayException("Mask must have the same shape as the array.");
+        }
+        return mask.getBits(false);
+    }
+
+    @Override
+    public void fill(float value, BooleanArray mask) {
+        long[] bits = getMaskBits(mask);
+        float[] data = flatten(false);
+        ArrayUtils.fill(data, bits, number, value);
+        if (! (this instanceof StorageLayout) ||
+                data != ((StorageLayout)this).getStorage()) {
+            /* The values are a copy, store back the result. */
+            assign(wrap(data, shape));
+        }
+    }
+
+    @Override
+    public void scan(FloatScanner scanner, BooleanArray mask) {
+        ArrayUtils.scan(scanner, flatten(false), getMaskBits(mask), number);
+    }
+
+    @Override
+    public float min(BooleanArray mask) {
+        return ArrayUtils.min(flatten(false), getMaskBits(mask), number);
+    }
+
+    @Override
+    public float max(BooleanArray mask) {
+        return ArrayUtils.max(flatten(false), getMaskBits(mask), number);
+    }
+
+    @Override
+    public float sum(BooleanArray mask) {
+        return ArrayUtils.sum(flatten(false), getMaskBits(mask), number);
     }
 
     /**
@@ -890,7 +980,23 @@ public abstract class Float7D extends Array7D implements FloatArray {
                 }
             }
         } else {
-            throw new IllegalTypeException();
+            /* Other vectors (e.g. half precision ones) are read as doubles. */
+            ShapedVector src = vec;
+            for (int i7 = 0; i7 < dim7; ++i7) {
+                for (int i6 = 0; i6 < dim6; ++i6) {
+                    for (int i5 = 0; i5 < dim5; ++i5) {
+                        for (int i4 = 0; i4 < dim4; ++i4) {
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                for (int i2 = 0; i2 < dim2; ++i2) {
+                                    for (int i1 = 0; i1 < dim1; ++i1) {
+                                        set(i1,i2,i3,i4,i5,i6,i7, (float)src.get(++i));
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
         }
     }
 
@@ -1130,6 +1236,38 @@ public abstract class Float7D extends Array7D implements FloatArray {
     @Override
     public abstract Float1D as1D();
 
+    /*
+     * Note that the following default implementation of the "permute"
+     * method makes a copy.  Implementations which store their elements
+     * with strides or indirection tables override it to return a view.
+     */
+    @Override
+    public Float7D permute(int... perm) {
+        int[] dims = shape.copyDimensions();
+        int[] strides = new int[7];
+        int stride = 1;
+        for (int k = 0; k < 7; ++k) {
+            strides[k] = stride;
+            stride *= dims[k];
+        }
+        dims = Helper.permute(dims, perm);
+        strides = Helper.permute(strides, perm);
+        int[] outStrides = new int[7];
+        stride = 1;
+        for (int k = 0; k < 7; ++k) {
+            outStrides[k] = stride;
+            stride *= dims[k];
+        }
+        float[] out = new float[number];
+        BlockCopy.copy(flatten(false), 0, strides, out, 0, outStrides, dims);
+        return wrap(out, dims);
+    }
+
+    @Override
+    public Float7D transpose() {
+        return permute(6, 5, 4, 3, 2, 1, 0);
+    }
+
 }
 
 /*
@@ -25,6 +25,12 @@
 
 package mitiv.array;
 
+import java.util.Spliterator;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+import mitiv.array.impl.ChunkCursor;
+import mitiv.array.impl.ChunkSpliterator;
 import mitiv.array.impl.FlatFloat1D;
 import mitiv.array.impl.StriddenFloat1D;
 import mitiv.base.Traits;
@@ -164,6 +170,36 @@ public class FloatScalar extends Scalar implements FloatArray {
         return flatten(false);
     }
 
+    @Override
+    public Spliterator.OfDouble spliterator() {
+        return new ChunkSpliterator.OfFloat(new ChunkCursor(this));
+    }
+
+    @Override
+    public DoubleStream stream() {
+        return StreamSupport.doubleStream(spliterator(), false);
+    }
+
+    @Override
+    public void convertInto(ShapedArray dst) {
+        ArrayUtils.convert(this, dst);
+    }
+
+    @Override
+    public void convertInto(ShapedArray dst, double scale, double bias) {
+        ArrayUtils.convert(this, dst, scale, bias);
+    }
+
+    @Override
+    public void convertInto(ShapedVector dst) {
+        ArrayUtils.convert(this, dst);
+    }
+
+    @Override
+    public void convertInto(ShapedVector dst, double scale, double bias) {
+        ArrayUtils.convert(this, dst, scale, bias);
+    }
+
     @Override
     public final float[] flatten(boolean forceCopy) {
         if (! forceCopy && offset == 0 && data.length == 1) {
@@ -206,6 +242,49 @@ public class FloatScalar extends Scalar implements FloatArray {
         return data[offset];
     }
 
+    /* Get the value of a scalar mask. */
+    private static boolean getMaskValue(BooleanArray mask) {
+        if (! shape.equals(mask.getShape())) {
+            throw new NonConformableArrayException("Mask must have the same shape as the array.");
+        }
+        return ((mask.getBits(false)[0] & 1L) != 0L);
+    }
+
+    @Override
+    public final void fill(float value, BooleanArray mask) {
+        if (getMaskValue(mask)) {
+            data[offset] = value;
+        }
+    }
+
+    @Override
+    public final void scan(FloatScanner scanner, BooleanArray mask) {
+        if (getMaskValue(mask)) {
+            scanner.initialize(data[offset]);
+        }
+    }
+
+    @Override
+    public float min(BooleanArray mask) {
+        if (! getMaskValue(mask)) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        return min();
+    }
+
+    @Override
+    public float max(BooleanArray mask) {
+        if (! getMaskValue(mask)) {
+            throw new IllegalArgumentException("No values selected by the mask.");
+        }
+        return max();
+    }
+
+    @Override
+    public float sum(BooleanArray mask) {
+        return (getMaskValue(mask) ? sum() : 0);
+    }
+
     @Override
     public final ByteArray toByte() {
         return new ByteScalar((byte)data[offset]);
@@ -0,0 +1,287 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array;
+
+import mitiv.base.Half;
+import mitiv.base.Parallel;
+import mitiv.base.Shape;
+import mitiv.base.Shaped;
+import mitiv.base.Traits;
+import mitiv.base.Typed;
+import mitiv.exception.NonConformableArrayException;
+
+/**
+ * Compact storage of arrays of half precision floating-point values.
+ *
+ * <p>
+ * The values are stored as {@code short}'s in column-major order (see
+ * {@link Half}) and are converted to and from {@code float}'s by the bulk
+ * methods ({@link #assign(ShapedArray)}, {@link #flatten()},
+ * {@link #toFloat()}, <i>etc.</i>) which are executed in parallel.  This
+ * takes half the memory of an array of floats and is meant to store large
+ * amounts of data (e.g. multi-channel time series, saved iterates) whose
+ * precision is not critical.  Computations are to be carried out on the
+ * converted values.
+ * </p>
+ */
+public class HalfArray implements Shaped, Typed {
+    private final Shape shape;
+    private final int number;
+    private final short[] data;
+
+    /**
+     * Create a new array of half precision values.
+     * @param shape - The shape of the array.
+     */
+    public HalfArray(Shape shape) {
+        this.shape = shape;
+        this.number = getNumber(shape);
+        this.data = new short[number];
+    }
+
+    /**
+     * Create a new array of half precision values.
+     * @param dims - The dimensions of the array.
+     */
+    public HalfArray(int[] dims) {
+        this(Shape.make(dims));
+    }
+
+    /**
+     * Wrap existing half precision values into an array.
+     * @param data  - The half precision values in column-major order.
+     * @param shape - The shape of the array.
+     */
+    public HalfArray(short[] data, Shape shape) {
+        this.shape = shape;
+        this.number = getNumber(shape);
+        if (data == null || data.length < number) {
+            throw new NonConformableArrayException("Wrapped array is too small.");
+        }
+        this.data = data;
+    }
+
+    private static int getNumber(Shape shape) {
+        if (shape.number() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Total number of elements is too large.");
+        }
+        return (int)shape.number();
+    }
+
+    /**
+     * Create a new array of half precision values from a shaped array.
+     * @param arr - The source array.
+     * @return A new array of half precision values with the same shape and
+     *         values (rounded to the nearest half precision value) as
+     *         {@code arr}.
+     */
+    public static HalfArray create(ShapedArray arr) {
+        HalfArray result = new HalfArray(arr.getShape());
+        result.assign(arr);
+        return result;
+    }
+
+    @Override
+    public final int getType() {
+        return Traits.HALF;
+    }
+
+    @Override
+    public final int getOrder() {
+        return COLUMN_MAJOR;
+    }
+
+    @Override
+    public final int getRank() {
+        return shape.rank();
+    }
+
+    @Override
+    public final int getNumber() {
+        return number;
+    }
+
+    @Override
+    public final int getDimension(int k) {
+        return shape.dimension(k);
+    }
+
+    @Override
+    public final Shape getShape() {
+        return shape;
+    }
+
+    /**
+     * Get the stored half precision values.
+     * @return The values in column-major order (shared with the array).
+     */
+    public short[] getData() {
+        return data;
+    }
+
+    /**
+     * Get a value of the array.
+     * @param j - The index of the value in column-major order.
+     * @return The value converted to a float.
+     */
+    public final float get(int j) {
+        return Half.toFloat(data[j]);
+    }
+
+    /**
+     * Set a value of the array.
+     * @param j     - The index of the value in column-major order.
+     * @param value - The value to store (it is rounded to the nearest half
+     *                precision value).
+     */
+    public final void set(int j, float value) {
+        data[j] = Half.fromFloat(value);
+    }
+
+    /**
+     * Set all the values of the array.
+     * @param value - The value to store (it is rounded to the nearest half
+     *                precision value).
+     */
+    public void fill(float value) {
+        short h = Half.fromFloat(value);
+        for (int j = 0; j < number; ++j) {
+            data[j] = h;
+        }
+    }
+
+    /**
+     * Set the values of the array from those of a shaped array.
+     * @param arr - The source array, it must have the same shape.
+     */
+    public void assign(ShapedArray arr) {
+        if (! shape.equals(arr.getShape())) {
+            throw new NonConformableArrayException("Source and destination must have the same shape.");
+        }
+        if (arr.getType() == Traits.DOUBLE) {
+            final double[] src = ((DoubleArray)arr).flatten(false);
+            Parallel.run(number, new Parallel.Loop() {
+                @Override
+                public void run(int first, int last) {
+                    Half.fromDouble(src, first, data, first, last - first);
+                }
+            });
+        } else {
+            assign(arr.toFloat().flatten(false));
+        }
+    }
+
+    /**
+     * Set the values of the array from single precision values.
+     * @param src - The source values in column-major order.
+     */
+    public void assign(final float[] src) {
+        if (src.length < number) {
+            throw new NonConformableArrayException("Source array is too small.");
+        }
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                Half.fromFloat(src, first, data, first, last - first);
+            }
+        });
+    }
+
+    /**
+     * Convert the values of the array into single precision values.
+     * @param dst - The destination array, it must have at least as many
+     *              elements as this array.
+     */
+    public void flatten(final float[] dst) {
+        if (dst.length < number) {
+            throw new NonConformableArrayException("Destination array is too small.");
+        }
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                Half.toFloat(data, first, dst, first, last - first);
+            }
+        });
+    }
+
+    /**
+     * Convert the values of the array into single precision values.
+     * @return A new array of floats in column-major order.
+     */
+    public float[] flatten() {
+        float[] dst = new float[number];
+        flatten(dst);
+        return dst;
+    }
+
+    /**
+     * Convert the array into an array of floats.
+     * @return A new array of floats with the same shape.
+     */
+    public FloatArray toFloat() {
+        return ArrayFactory.wrap(flatten(), shape);
+    }
+
+    /**
+     * Convert the array into an array of doubles.
+     * @return A new array of doubles with the same shape.
+     */
+    public DoubleArray toDouble() {
+        final double[] dst = new double[number];
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = Half.toFloat(data[j]);
+                }
+            }
+        });
+        return ArrayFactory.wrap(dst, shape);
+    }
+
+    /**
+     * Copy the array.
+     * @return A new array of half precision values with the same shape and
+     *         values which does not share its storage with this array.
+     */
+    public HalfArray copy() {
+        short[] cpy = new short[number];
+        System.arraycopy(data, 0, cpy, 0, number);
+        return new HalfArray(cpy, shape);
+    }
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
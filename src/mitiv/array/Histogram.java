@@ -0,0 +1,764 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array;
+
+import mitiv.base.Parallel;
+import mitiv.base.Shape;
+import mitiv.base.Traits;
+import mitiv.exception.IllegalTypeException;
+import mitiv.exception.NonConformableArrayException;
+
+/**
+ * Histogram of the values of arrays with approximate quantiles.
+ *
+ * <p>
+ * A histogram has a given number of bins of equal width which cover a range
+ * of values {@code [lo,hi]}, the values below and above the range and the
+ * NaN values are counted apart.  Values are accumulated in a single pass, by
+ * blocks processed in parallel (see {@link Parallel}) whose counts are
+ * summed.  Histograms with the same bins can be merged, a histogram is thus
+ * a sketch of a distribution of values which can be built in pieces (for
+ * instance slab by slab).
+ * </p><p>
+ * The quantiles are approximated by linear interpolation of the cumulative
+ * distribution within the bins, the error is at most the width of a bin.
+ * This is an alternative to sorting the values which only needs a linear
+ * pass and a small amount of memory.  Bytes are assumed to be unsigned.
+ * </p>
+ */
+public class Histogram {
+    /** Default number of bins. */
+    public static final int DEFAULT_BINS = 4096;
+
+    /** Maximum number of refinements of the quantiles computed by
+     *  {@link #quantiles(ShapedArray, BooleanArray, double...)}. */
+    public static final int REFINEMENTS = 2;
+
+    private final double lo;
+    private final double hi;
+    private final double scale; // number of bins per unit of value
+    private final long[] counts;
+    private long underflow = 0;
+    private long overflow = 0;
+    private long nanCount = 0;
+
+    /**
+     * Create an empty histogram.
+     * @param lo   - The lower bound of the range of the bins.
+     * @param hi   - The upper bound of the range of the bins.
+     * @param bins - The number of bins.
+     */
+    public Histogram(double lo, double hi, int bins) {
+        if (bins < 1) {
+            throw new IllegalArgumentException("There must be at least one bin.");
+        }
+        if (Double.isNaN(lo) || Double.isNaN(hi) || Double.isInfinite(lo)
+                || Double.isInfinite(hi) || hi <= lo) {
+            throw new IllegalArgumentException("Invalid range of values.");
+        }
+        this.lo = lo;
+        this.hi = hi;
+        this.scale = bins/(hi - lo);
+        this.counts = new long[bins];
+    }
+
+    /**
+     * Build the histogram of the values of an array.
+     * <p>
+     * The bins cover the range of the finite values of the array (which
+     * takes an additional pass to compute the {@link Statistics}).
+     * </p>
+     * @param arr  - The array.
+     * @param bins - The number of bins.
+     * @return The histogram of the values of {@code arr}.
+     */
+    public static Histogram compute(ShapedArray arr, int bins) {
+        return compute(arr, null, bins);
+    }
+
+    /**
+     * Build the histogram of the values of an array selected by a mask.
+     * @param arr  - The array.
+     * @param mask - The mask, an array of booleans with the same shape as
+     *               {@code arr}; can be {@code null} to select all values.
+     * @param bins - The number of bins.
+     * @return The histogram of the selected values of {@code arr}.
+     * @see #compute(ShapedArray, int)
+     */
+    public static Histogram compute(ShapedArray arr, BooleanArray mask, int bins) {
+        Statistics stats = Statistics.compute(arr, mask);
+        double lo, hi;
+        if (stats.getCount() < 1) {
+            lo = 0.0;
+            hi = 1.0;
+        } else {
+            lo = stats.getMin();
+            hi = stats.getMax();
+            if (hi <= lo) {
+                /* All values are the same. */
+                hi = Math.nextUp(lo);
+            }
+        }
+        Histogram hist = new Histogram(lo, hi, bins);
+        hist.add(arr, mask);
+        return hist;
+    }
+
+    /**
+     * Compute quantiles of the values of an array selected by a mask.
+     * <p>
+     * The quantiles are first approximated from the histogram of the
+     * values, then each quantile is refined by building the histogram of
+     * the values in the bin where it lies (the values outside this bin are
+     * accounted for by the underflow and overflow counts).  This takes a
+     * few linear passes through the values (one for the range, one for the
+     * first histogram and at most {@link #REFINEMENTS} per quantile) and
+     * gives precise quantiles even though a few outliers make the range of
+     * the values much larger than their spread.
+     * </p>
+     * @param arr  - The array.
+     * @param mask - The mask, an array of booleans with the same shape as
+     *               {@code arr}; can be {@code null} to select all values.
+     * @param p    - The cumulative probabilities, in the range {@code [0,1]}.
+     * @return The quantiles of the selected values of {@code arr}.
+     */
+    public static double[] quantiles(ShapedArray arr, BooleanArray mask, double... p) {
+        Histogram hist = compute(arr, mask, DEFAULT_BINS);
+        long total = hist.getTotalCount();
+        double[] q = new double[p.length];
+        for (int i = 0; i < p.length; ++i) {
+            Histogram h = hist;
+            q[i] = h.getQuantile(p[i]);
+            for (int level = 0; level < REFINEMENTS && total > 0; ++level) {
+                int k = h.findBin(p[i]*total);
+                if (k < 0 || k >= h.counts.length || h.counts[k] <= 1) {
+                    break;
+                }
+                double binLo = h.lo + k*h.getBinWidth();
+                double binHi = (k == h.counts.length - 1 ? h.hi : binLo + h.getBinWidth());
+                if (! (binHi > binLo)) {
+                    break;
+                }
+                h = new Histogram(binLo, binHi, DEFAULT_BINS);
+                h.add(arr, mask);
+                q[i] = h.getQuantile(p[i]);
+            }
+        }
+        return q;
+    }
+
+    /**
+     * Accumulate the values of an array.
+     * @param arr - The array.
+     */
+    public void add(ShapedArray arr) {
+        add(arr, null);
+    }
+
+    /**
+     * Accumulate the values of an array selected by a mask.
+     * @param arr  - The array.
+     * @param mask - The mask, an array of booleans with the same shape as
+     *               {@code arr}; can be {@code null} to select all values.
+     */
+    public void add(ShapedArray arr, BooleanArray mask) {
+        long[] bits = null;
+        if (mask != null) {
+            if (! arr.getShape().equals(mask.getShape())) {
+                throw new NonConformableArrayException("Mask must have the same shape as the array.");
+            }
+            bits = mask.getBits(false);
+        }
+        int number = arr.getNumber();
+        switch (arr.getType()) {
+        case Traits.BYTE:
+            add(((ByteArray)arr).flatten(false), bits, number);
+            break;
+        case Traits.SHORT:
+            add(((ShortArray)arr).flatten(false), bits, number);
+            break;
+        case Traits.INT:
+            add(((IntArray)arr).flatten(false), bits, number);
+            break;
+        case Traits.LONG:
+            add(((LongArray)arr).flatten(false), bits, number);
+            break;
+        case Traits.FLOAT:
+            add(((FloatArray)arr).flatten(false), bits, number);
+            break;
+        case Traits.DOUBLE:
+            add(((DoubleArray)arr).flatten(false), bits, number);
+            break;
+        default:
+            throw new IllegalTypeException();
+        }
+    }
+
+    /* Accumulate the first values of an array of byte's selected by an
+     * optional packed mask. */
+    private void add(final byte[] data, final long[] mask, final int number) {
+        if (number <= 0) {
+            return;
+        }
+        Parallel.Reduction<Histogram> reduction;
+        int length, grain;
+        if (mask == null) {
+            length = number;
+            grain = blockSize();
+            reduction = new Parallel.Reduction<Histogram>() {
+                @Override
+                public Histogram compute(int first, int last) {
+                    Histogram hist = new Histogram(lo, hi, counts.length);
+                    for (int j = first; j < last; ++j) {
+                        hist.update((data[j] & 0xFF));
+                    }
+                    return hist;
+                }
+
+                @Override
+                public Histogram combine(Histogram left, Histogram right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        } else {
+            length = (number + 63) >>> 6;
+            grain = Math.max(blockSize() >>> 6, 1);
+            reduction = new Parallel.Reduction<Histogram>() {
+                @Override
+                public Histogram compute(int first, int last) {
+                    Histogram hist = new Histogram(lo, hi, counts.length);
+                    for (int k = first; k < last; ++k) {
+                        long word = ArrayUtils.maskWord(mask, k, number);
+                        while (word != 0L) {
+                            int j = (k << 6) + Long.numberOfTrailingZeros(word);
+                            hist.update((data[j] & 0xFF));
+                            word &= word - 1L;
+                        }
+                    }
+                    return hist;
+                }
+
+                @Override
+                public Histogram combine(Histogram left, Histogram right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        }
+        merge(Parallel.reduce(length, grain, reduction));
+    }
+
+    /* Accumulate the first values of an array of short's selected by an
+     * optional packed mask. */
+    private void add(final short[] data, final long[] mask, final int number) {
+        if (number <= 0) {
+            return;
+        }
+        Parallel.Reduction<Histogram> reduction;
+        int length, grain;
+        if (mask == null) {
+            length = number;
+            grain = blockSize();
+            reduction = new Parallel.Reduction<Histogram>() {
+                @Override
+                public Histogram compute(int first, int last) {
+                    Histogram hist = new Histogram(lo, hi, counts.length);
+                    for (int j = first; j < last; ++j) {
+                        hist.update(data[j]);
+                    }
+                    return hist;
+                }
+
+                @Override
+                public Histogram combine(Histogram left, Histogram right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        } else {
+            length = (number + 63) >>> 6;
+            grain = Math.max(blockSize() >>> 6, 1);
+            reduction = new Parallel.Reduction<Histogram>() {
+                @Override
+                public Histogram compute(int first, int last) {
+                    Histogram hist = new Histogram(lo, hi, counts.length);
+                    for (int k = first; k < last; ++k) {
+                        long word = ArrayUtils.maskWord(mask, k, number);
+                        while (word != 0L) {
+                            int j = (k << 6) + Long.numberOfTrailingZeros(word);
+                            hist.update(data[j]);
+                            word &= word - 1L;
+                        }
+                    }
+                    return hist;
+                }
+
+                @Override
+                public Histogram combine(Histogram left, Histogram right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        }
+        merge(Parallel.reduce(length, grain, reduction));
+    }
+
+    /* Accumulate the first values of an array of int's selected by an
+     * optional packed mask. */
+    private void add(final int[] data, final long[] mask, final int number) {
+        if (number <= 0) {
+            return;
+        }
+        Parallel.Reduction<Histogram> reduction;
+        int length, grain;
+        if (mask == null) {
+            length = number;
+            grain = blockSize();
+            reduction = new Parallel.Reduction<Histogram>() {
+                @Override
+                public Histogram compute(int first, int last) {
+                    Histogram hist = new Histogram(lo, hi, counts.length);
+                    for (int j = first; j < last; ++j) {
+                        hist.update(data[j]);
+                    }
+                    return hist;
+                }
+
+                @Override
+                public Histogram combine(Histogram left, Histogram right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        } else {
+            length = (number + 63) >>> 6;
+            grain = Math.max(blockSize() >>> 6, 1);
+            reduction = new Parallel.Reduction<Histogram>() {
+                @Override
+                public Histogram compute(int first, int last) {
+                    Histogram hist = new Histogram(lo, hi, counts.length);
+                    for (int k = first; k < last; ++k) {
+                        long word = ArrayUtils.maskWord(mask, k, number);
+                        while (word != 0L) {
+                            int j = (k << 6) + Long.numberOfTrailingZeros(word);
+                            hist.update(data[j]);
+                            word &= word - 1L;
+                        }
+                    }
+                    return hist;
+                }
+
+                @Override
+                public Histogram combine(Histogram left, Histogram right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        }
+        merge(Parallel.reduce(length, grain, reduction));
+    }
+
+    /* Accumulate the first values of an array of long's selected by an
+     * optional packed mask. */
+    private void add(final long[] data, final long[] mask, final int number) {
+        if (number <= 0) {
+            return;
+        }
+        Parallel.Reduction<Histogram> reduction;
+        int length, grain;
+        if (mask == null) {
+            length = number;
+            grain = blockSize();
+            reduction = new Parallel.Reduction<Histogram>() {
+                @Override
+                public Histogram compute(int first, int last) {
+                    Histogram hist = new Histogram(lo, hi, counts.length);
+                    for (int j = first; j < last; ++j) {
+                        hist.update(data[j]);
+                    }
+                    return hist;
+                }
+
+                @Override
+                public Histogram combine(Histogram left, Histogram right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        } else {
+            length = (number + 63) >>> 6;
+            grain = Math.max(blockSize() >>> 6, 1);
+            reduction = new Parallel.Reduction<Histogram>() {
+                @Override
+                public Histogram compute(int first, int last) {
+                    Histogram hist = new Histogram(lo, hi, counts.length);
+                    for (int k = first; k < last; ++k) {
+                        long word = ArrayUtils.maskWord(mask, k, number);
+                        while (word != 0L) {
+                            int j = (k << 6) + Long.numberOfTrailingZeros(word);
+                            hist.update(data[j]);
+                            word &= word - 1L;
+                        }
+                    }
+                    return hist;
+                }
+
+                @Override
+                public Histogram combine(Histogram left, Histogram right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        }
+        merge(Parallel.reduce(length, grain, reduction));
+    }
+
+    /* Accumulate the first values of an array of float's selected by an
+     * optional packed mask. */
+    private void add(final float[] data, final long[] mask, final int number) {
+        if (number <= 0) {
+            return;
+        }
+        Parallel.Reduction<Histogram> reduction;
+        int length, grain;
+        if (mask == null) {
+            length = number;
+            grain = blockSize();
+            reduction = new Parallel.Reduction<Histogram>() {
+                @Override
+                public Histogram compute(int first, int last) {
+                    Histogram hist = new Histogram(lo, hi, counts.length);
+                    for (int j = first; j < last; ++j) {
+                        hist.update(data[j]);
+                    }
+                    return hist;
+                }
+
+                @Override
+                public Histogram combine(Histogram left, Histogram right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        } else {
+            length = (number + 63) >>> 6;
+            grain = Math.max(blockSize() >>> 6, 1);
+            reduction = new Parallel.Reduction<Histogram>() {
+                @Override
+                public Histogram compute(int first, int last) {
+                    Histogram hist = new Histogram(lo, hi, counts.length);
+                    for (int k = first; k < last; ++k) {
+                        long word = ArrayUtils.maskWord(mask, k, number);
+                        while (word != 0L) {
+                            int j = (k << 6) + Long.numberOfTrailingZeros(word);
+                            hist.update(data[j]);
+                            word &= word - 1L;
+                        }
+                    }
+                    return hist;
+                }
+
+                @Override
+                public Histogram combine(Histogram left, Histogram right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        }
+        merge(Parallel.reduce(length, grain, reduction));
+    }
+
+    /* Accumulate the first values of an array of double's selected by an
+     * optional packed mask. */
+    private void add(final double[] data, final long[] mask, final int number) {
+        if (number <= 0) {
+            return;
+        }
+        Parallel.Reduction<Histogram> reduction;
+        int length, grain;
+        if (mask == null) {
+            length = number;
+            grain = blockSize();
+            reduction = new Parallel.Reduction<Histogram>() {
+                @Override
+                public Histogram compute(int first, int last) {
+                    Histogram hist = new Histogram(lo, hi, counts.length);
+                    for (int j = first; j < last; ++j) {
+                        hist.update(data[j]);
+                    }
+                    return hist;
+                }
+
+                @Override
+                public Histogram combine(Histogram left, Histogram right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        } else {
+            length = (number + 63) >>> 6;
+            grain = Math.max(blockSize() >>> 6, 1);
+            reduction = new Parallel.Reduction<Histogram>() {
+                @Override
+                public Histogram compute(int first, int last) {
+                    Histogram hist = new Histogram(lo, hi, counts.length);
+                    for (int k = first; k < last; ++k) {
+                        long word = ArrayUtils.maskWord(mask, k, number);
+                        while (word != 0L) {
+                            int j = (k << 6) + Long.numberOfTrailingZeros(word);
+                            hist.update(data[j]);
+                            word &= word - 1L;
+                        }
+                    }
+                    return hist;
+                }
+
+                @Override
+                public Histogram combine(Histogram left, Histogram right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        }
+        merge(Parallel.reduce(length, grain, reduction));
+    }
+
+    /* Number of values per block, large enough for the cost of the partial
+     * histograms to be negligible. */
+    private int blockSize() {
+        return Math.max(Parallel.getBlockSize(), 16*counts.length);
+    }
+
+    /* Account for a value. */
+    private void update(double x) {
+        if (x >= lo) {
+            if (x <= hi) {
+                int k = (int)((x - lo)*scale);
+                ++counts[(k < counts.length ? k : counts.length - 1)];
+            } else {
+                ++overflow;
+            }
+        } else if (x < lo) {
+            ++underflow;
+        } else {
+            ++nanCount;
+        }
+    }
+
+    /**
+     * Merge the counts of another histogram into this one.
+     * @param other - A histogram with the same bins as this one.
+     */
+    public void merge(Histogram other) {
+        if (other.lo != lo || other.hi != hi || other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Histograms must have the same bins.");
+        }
+        for (int k = 0; k < counts.length; ++k) {
+            counts[k] += other.counts[k];
+        }
+        underflow += other.underflow;
+        overflow += other.overflow;
+        nanCount += other.nanCount;
+    }
+
+    /**
+     * Get the number of bins.
+     * @return The number of bins.
+     */
+    public int getNumberOfBins() {
+        return counts.length;
+    }
+
+    /**
+     * Get the lower bound of the bins.
+     * @return The lower bound of the first bin.
+     */
+    public double getLowerBound() {
+        return lo;
+    }
+
+    /**
+     * Get the upper bound of the bins.
+     * @return The upper bound of the last bin.
+     */
+    public double getUpperBound() {
+        return hi;
+    }
+
+    /**
+     * Get the width of the bins.
+     * @return The width of a bin.
+     */
+    public double getBinWidth() {
+        return (hi - lo)/counts.length;
+    }
+
+    /**
+     * Get the center of a bin.
+     * @param k - The index of the bin.
+     * @return The value at the center of the bin.
+     */
+    public double getBinCenter(int k) {
+        return lo + (k + 0.5)*getBinWidth();
+    }
+
+    /**
+     * Get the number of values in a bin.
+     * @param k - The index of the bin.
+     * @return The number of values in the bin.
+     */
+    public long getCount(int k) {
+        return counts[k];
+    }
+
+    /**
+     * Get the numbers of values in the bins.
+     * @return A copy of the counts of the bins.
+     */
+    public long[] getCounts() {
+        return counts.clone();
+    }
+
+    /**
+     * Get the number of values below the range of the bins.
+     * @return The number of values less than the lower bound.
+     */
+    public long getUnderflowCount() {
+        return underflow;
+    }
+
+    /**
+     * Get the number of values above the range of the bins.
+     * @return The number of values greater than the upper bound.
+     */
+    public long getOverflowCount() {
+        return overflow;
+    }
+
+    /**
+     * Get the number of NaN values.
+     * @return The number of accumulated values which are NaN.
+     */
+    public long getNaNCount() {
+        return nanCount;
+    }
+
+    /**
+     * Get the number of values which are not NaN.
+     * @return The number of values in the bins plus the number of values
+     *         outside the range of the bins.
+     */
+    public long getTotalCount() {
+        long total = underflow + overflow;
+        for (int k = 0; k < counts.length; ++k) {
+            total += counts[k];
+        }
+        return total;
+    }
+
+    /**
+     * Get an approximate quantile of the values.
+     * <p>
+     * Values outside the range of the bins are accounted for, but the
+     * result is clamped to the range of the bins.
+     * </p>
+     * @param p - The cumulative probability, in the range {@code [0,1]}
+     *            (e.g. 0.5 for the median).
+     * @return The approximate value below which a fraction {@code p} of
+     *         the values are found, NaN if there are no values.
+     */
+    public double getQuantile(double p) {
+        if (! (p >= 0.0 && p <= 1.0)) {
+            throw new IllegalArgumentException("Probability must be in [0,1].");
+        }
+        long total = getTotalCount();
+        if (total < 1) {
+            return Double.NaN;
+        }
+        double target = p*total;
+        int k = findBin(target);
+        if (k < 0) {
+            return lo;
+        }
+        if (k >= counts.length) {
+            return hi;
+        }
+        return lo + (k + (target - cumulativeCount(k))/counts[k])*getBinWidth();
+    }
+
+    /* Find the bin where the cumulative count reaches a given value, -1 for
+     * values below the bins, the number of bins for values above the
+     * bins. */
+    private int findBin(double target) {
+        double cumul = underflow;
+        if (underflow > 0 && target <= cumul) {
+            return -1;
+        }
+        for (int k = 0; k < counts.length; ++k) {
+            long c = counts[k];
+            if (c > 0 && cumul + c >= target) {
+                return k;
+            }
+            cumul += c;
+        }
+        return counts.length;
+    }
+
+    /* Number of values before a given bin. */
+    private long cumulativeCount(int k) {
+        long cumul = underflow;
+        for (int i = 0; i < k; ++i) {
+            cumul += counts[i];
+        }
+        return cumul;
+    }
+
+    /**
+     * Get approximate quantiles of the values.
+     * @param p - The cumulative probabilities.
+     * @return The approximate quantiles (see {@link #getQuantile(double)}).
+     */
+    public double[] getQuantiles(double... p) {
+        double[] q = new double[p.length];
+        for (int i = 0; i < p.length; ++i) {
+            q[i] = getQuantile(p[i]);
+        }
+        return q;
+    }
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
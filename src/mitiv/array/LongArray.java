@@ -25,9 +25,13 @@
 
 package mitiv.array;
 
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+
 import mitiv.base.Shaped;
 import mitiv.base.mapping.LongFunction;
 import mitiv.base.mapping.LongScanner;
+import mitiv.linalg.shaped.ShapedVector;
 import mitiv.random.LongGenerator;
 
 /**
@@ -73,12 +77,22 @@ public interface LongArray extends ShapedArray {
 
     /**
      * Map all the values of the array of long's by a function.
+     * <p>
+     * The function may be applied concurrently by several threads (see
+     * {@link mitiv.base.Parallel}), it must therefore be thread-safe.
+     * </p>
      * @param func - The function to apply.
      */
     public abstract void map(LongFunction func);
 
     /**
      * Scan the values of the array of long's.
+     * <p>
+     * If the scanner is a {@link mitiv.base.mapping.LongMergeableScanner},
+     * the scanning may be split into parts processed concurrently by spawned
+     * scanners which are finally merged into the given one.  Otherwise, the
+     * values are scanned sequentially.
+     * </p>
      * @param scanner - The scanner to use.
      */
     public abstract void scan(LongScanner scanner);
@@ -122,6 +136,80 @@ public interface LongArray extends ShapedArray {
      */
     public abstract long[] flatten();
 
+    /**
+     * Convert the elements of this array into an existing array.
+     * <p>
+     * The values are converted as by {@code dst.assign(this)} but, when
+     * the destination is a flat array, in a single parallel pass without
+     * any temporary array.
+     * </p>
+     * @param dst - The destination array, with the same shape as this
+     *              array.
+     * @see ArrayUtils#convert(ShapedArray, ShapedArray)
+     */
+    public abstract void convertInto(ShapedArray dst);
+
+    /**
+     * Convert the elements of this array into an existing array with an
+     * affine correction.
+     * <p>
+     * The destination values are {@code scale*x + bias} where {@code x}
+     * are the values of this array, rounded and saturated for integer
+     * destinations.
+     * </p>
+     * @param dst   - The destination array, with the same shape as this
+     *                array.
+     * @param scale - The factor applied to the values (e.g. a gain).
+     * @param bias  - The offset added to the scaled values.
+     * @see ArrayUtils#convert(ShapedArray, ShapedArray, double, double)
+     */
+    public abstract void convertInto(ShapedArray dst, double scale, double bias);
+
+    /**
+     * Convert the elements of this array into an existing vector.
+     * @param dst - The destination vector, with the same shape as this
+     *              array.
+     * @see #convertInto(ShapedArray)
+     */
+    public abstract void convertInto(ShapedVector dst);
+
+    /**
+     * Convert the elements of this array into an existing vector with an
+     * affine correction.
+     * @param dst   - The destination vector, with the same shape as this
+     *                array.
+     * @param scale - The factor applied to the values (e.g. a gain).
+     * @param bias  - The offset added to the scaled values.
+     * @see #convertInto(ShapedArray, double, double)
+     */
+    public abstract void convertInto(ShapedVector dst, double scale, double bias);
+
+    /**
+     * Get a spliterator over the elements of this array.
+     *
+     * <p>
+     * The elements are visited in column-major order.  The spliterator is
+     * split on boundaries of the contiguous parts of the storage and does
+     * not copy the elements of flat and stridden arrays (see
+     * {@link mitiv.array.impl.ChunkSpliterator}).
+     * </p>
+     *
+     * @return A new spliterator.
+     */
+    public abstract Spliterator.OfLong spliterator();
+
+    /**
+     * Get a stream of the elements of this array.
+     *
+     * <p>
+     * The returned stream is sequential, call its {@code parallel()} method
+     * to process the elements by several threads.
+     * </p>
+     *
+     * @return A new stream over the elements in column-major order.
+     */
+    public abstract LongStream stream();
+
     @Override
     public abstract LongArray copy();
 
@@ -154,6 +242,51 @@ public interface LongArray extends ShapedArray {
      * Get the average value of all elements.
      */
     public abstract double average();
+
+    /*=======================================================================*/
+    /* MASKED OPERATIONS */
+
+    /* Note that the following methods only read the values selected by the
+     * mask, words of 64 unselected values are skipped at once (see
+     * {@link BooleanArray}). */
+
+    /**
+     * Set the values of the array of long's selected by a mask.
+     * @param value - The value to set.
+     * @param mask  - A mask with the same shape as the array.
+     */
+    public abstract void fill(long value, BooleanArray mask);
+
+    /**
+     * Scan the values of the array of long's selected by a mask.
+     * <p>
+     * The selected values are scanned in column-major order, the scanner
+     * is not initialized if no values are selected.
+     * </p>
+     * @param scanner - The scanner to use.
+     * @param mask    - A mask with the same shape as the array.
+     */
+    public abstract void scan(LongScanner scanner, BooleanArray mask);
+
+    /**
+     * Get the minimal value of the elements selected by a mask.
+     * @param mask - A mask with the same shape as the array.
+     * @throws IllegalArgumentException if no values are selected.
+     */
+    public abstract long min(BooleanArray mask);
+
+    /**
+     * Get the maximal value of the elements selected by a mask.
+     * @param mask - A mask with the same shape as the array.
+     * @throws IllegalArgumentException if no values are selected.
+     */
+    public abstract long max(BooleanArray mask);
+
+    /**
+     * Get the sum of the values of the elements selected by a mask.
+     * @param mask - A mask with the same shape as the array.
+     */
+    public abstract long sum(BooleanArray mask);
 }
 
 /*
@@ -0,0 +1,216 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import mitiv.array.impl.MappedStorage;
+import mitiv.base.Shape;
+import mitiv.base.Traits;
+
+/**
+ * Chunked arrays whose elements are in a memory mapped file.
+ *
+ * <p>
+ * This is the form of memory mapped arrays with more than
+ * {@link Integer#MAX_VALUE} elements (see
+ * {@link mitiv.io.MdaFormat#mapChunked(String, boolean)}).  As for the
+ * other chunked arrays, each chunk holds an integer number of slabs along
+ * the last dimension (see {@link ChunkedArray}); each chunk is mapped by
+ * its own {@link MappedStorage}, so the chunks and the slabs are mapped
+ * arrays which share their elements with the file.
+ * </p>
+ */
+public class MappedChunkedArray implements ChunkedArray {
+    private final Shape shape;
+    private final int type;
+    private final int rank;
+    private final int[] dims;
+    private final long number;
+    private final int slabLength; // number of elements per slab
+    private final int slabsPerChunk; // number of slabs per chunk
+    private final int chunkLength; // number of elements per chunk (but last)
+    private final MappedStorage[] storages;
+    private final Array1D[] chunks;
+
+    /**
+     * Map a region of a file as a chunked array.
+     * <p>
+     * Each chunk maps as many slabs as possible such that there are no more
+     * than {@code chunkSize} elements per chunk.  There is at least one slab
+     * per chunk whatever the value of {@code chunkSize}.
+     * </p>
+     * @param channel   - The file channel.
+     * @param position  - The position (in bytes) of the first element in the
+     *                    file.
+     * @param type      - The type of the elements (e.g.
+     *                    {@link mitiv.base.Traits#FLOAT}).
+     * @param shape     - The shape of the array, the elements are stored in
+     *                    column-major order.
+     * @param order     - The byte order of the stored values.
+     * @param writable  - Map the file for reading and writing?
+     * @param chunkSize - The maximum number of elements per chunk.
+     * @throws IOException if the file region cannot be mapped.
+     */
+    public MappedChunkedArray(FileChannel channel, long position, int type,
+            Shape shape, ByteOrder order, boolean writable, int chunkSize)
+                    throws IOException {
+        rank = shape.rank();
+        if (rank < 1) {
+            throw new IllegalArgumentException("Chunked arrays must have at least one dimension.");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1.");
+        }
+        this.shape = shape;
+        this.type = type;
+        number = shape.number();
+        dims = shape.copyDimensions();
+        int lastDim = dims[rank - 1];
+        long length = number/lastDim;
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Slabs are too large.");
+        }
+        slabLength = (int)length;
+        slabsPerChunk = Math.min(Math.max(chunkSize/slabLength, 1), lastDim);
+        chunkLength = slabsPerChunk*slabLength;
+        int count = (lastDim + slabsPerChunk - 1)/slabsPerChunk;
+        int elementSize = Traits.sizes[type];
+        storages = new MappedStorage[count];
+        chunks = new Array1D[count];
+        for (int c = 0; c < count; ++c) {
+            int slabs = Math.min(slabsPerChunk, lastDim - c*slabsPerChunk);
+            storages[c] = new MappedStorage(channel,
+                    position + getChunkOffset(c)*elementSize, type,
+                    slabs*slabLength, order, writable);
+            chunks[c] = (Array1D)ArrayFactory.wrap(storages[c],
+                    new int[] {slabs*slabLength});
+        }
+    }
+
+    @Override
+    public final int getType() {
+        return type;
+    }
+
+    @Override
+    public final int getRank() {
+        return rank;
+    }
+
+    @Override
+    public final Shape getShape() {
+        return shape;
+    }
+
+    @Override
+    public final int getDimension(int k) {
+        return dims[k];
+    }
+
+    @Override
+    public final long getNumber() {
+        return number;
+    }
+
+    @Override
+    public final int getNumberOfChunks() {
+        return chunks.length;
+    }
+
+    @Override
+    public final long getChunkOffset(int c) {
+        return (long)c*(long)chunkLength;
+    }
+
+    @Override
+    public final int getChunkLength(int c) {
+        return chunks[c].getNumber();
+    }
+
+    @Override
+    public final Array1D getChunk(int c) {
+        return chunks[c];
+    }
+
+    /**
+     * Get the memory mapped storage of a chunk.
+     * @param c - The index of the chunk.
+     * @return The storage of the elements of the chunk.
+     */
+    public final MappedStorage getChunkStorage(int c) {
+        return storages[c];
+    }
+
+    /**
+     * Write any pending changes to the file.
+     */
+    public void force() {
+        for (int c = 0; c < storages.length; ++c) {
+            storages[c].force();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The slabs of a mapped 1D array are single elements which cannot be
+     * mapped arrays, use {@link #getChunk(int)} instead.
+     * </p>
+     */
+    @Override
+    public ShapedArray slab(int idx) {
+        int lastDim = dims[rank - 1];
+        if (idx < 0) {
+            /* A negative index is taken with respect to the end. */
+            idx += lastDim;
+        }
+        if (idx < 0 || idx >= lastDim) {
+            throw new IndexOutOfBoundsException("Slab index out of bounds.");
+        }
+        if (rank < 2) {
+            throw new IllegalArgumentException("Slabs of mapped 1D arrays are not supported.");
+        }
+        int[] slabDims = new int[rank - 1];
+        System.arraycopy(dims, 0, slabDims, 0, rank - 1);
+        return ArrayFactory.wrap(storages[idx/slabsPerChunk],
+                (idx%slabsPerChunk)*slabLength, slabDims);
+    }
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -41,6 +41,39 @@ import mitiv.linalg.shaped.ShapedVector;
  * @author Éric Thiébaut.
  */
 public interface ShapedArray extends Shaped, Typed {
+    /**
+     * Reduction giving the sum of the values (see {@link ArrayUtils#reduce}).
+     */
+    static final int SUM = 0;
+
+    /**
+     * Reduction giving the average of the values (see
+     * {@link ArrayUtils#reduce}).
+     */
+    static final int MEAN = 1;
+
+    /**
+     * Reduction giving the minimum value (see {@link ArrayUtils#reduce}).
+     */
+    static final int MIN = 2;
+
+    /**
+     * Reduction giving the maximum value (see {@link ArrayUtils#reduce}).
+     */
+    static final int MAX = 3;
+
+    /**
+     * Reduction giving the index of the first maximum value (see
+     * {@link ArrayUtils#reduce}).
+     */
+    static final int ARGMAX = 4;
+
+    /**
+     * Reduction giving the unbiased variance of the values (see
+     * {@link ArrayUtils#reduce}).
+     */
+    static final int VARIANCE = 5;
+
     /**
      * Convert array elements to type {@code byte}.
      * @return A {@link ByteArray} object which may be the object itself
@@ -0,0 +1,799 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array;
+
+import mitiv.base.Parallel;
+import mitiv.base.Shape;
+import mitiv.base.Traits;
+import mitiv.exception.IllegalTypeException;
+import mitiv.exception.NonConformableArrayException;
+import mitiv.linalg.Vector;
+import mitiv.linalg.shaped.DoubleShapedVector;
+import mitiv.linalg.shaped.FloatShapedVector;
+import mitiv.linalg.shaped.ShapedVector;
+
+/**
+ * Statistics of the values of an array or of a vector computed in a single
+ * pass.
+ *
+ * <p>
+ * The statistics are the extreme values and their positions, the number of
+ * values, their sum, their mean and their variance (updated by Welford's
+ * method) and, optionally, the third and fourth central moments (giving the
+ * skewness and the kurtosis).  The values are scanned in column-major order
+ * by consecutive blocks processed in parallel (see {@link Parallel}) whose
+ * statistics are merged following a decomposition which does not depend on
+ * the number of threads.  The values may be selected by a mask.
+ * </p><p>
+ * Only finite values are taken into account, the numbers of NaN and
+ * infinite values are counted separately.  Bytes are assumed to be unsigned
+ * and integer values are converted to {@code double}'s.
+ * </p>
+ */
+public class Statistics {
+    private final Shape shape;
+    private final boolean moments;
+    private long count = 0; // number of finite values
+    private long nanCount = 0;
+    private long infCount = 0;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private long minIndex = -1;
+    private long maxIndex = -1;
+    private double sum = 0.0;
+    private double mean = 0.0;
+    private double m2 = 0.0; // sums of powers of differences to the mean
+    private double m3 = 0.0;
+    private double m4 = 0.0;
+
+    private Statistics(Shape shape, boolean moments) {
+        this.shape = shape;
+        this.moments = moments;
+    }
+
+    /**
+     * Compute the statistics of the values of an array.
+     * @param arr - The array.
+     * @return The statistics of the values of {@code arr} (without the
+     *         higher order moments).
+     */
+    public static Statistics compute(ShapedArray arr) {
+        return compute(arr, null, false);
+    }
+
+    /**
+     * Compute the statistics of the values of an array.
+     * @param arr     - The array.
+     * @param moments - Compute the third and fourth central moments?
+     * @return The statistics of the values of {@code arr}.
+     */
+    public static Statistics compute(ShapedArray arr, boolean moments) {
+        return compute(arr, null, moments);
+    }
+
+    /**
+     * Compute the statistics of the values of an array selected by a mask.
+     * @param arr  - The array.
+     * @param mask - The mask, an array of booleans with the same shape as
+     *               {@code arr}; can be {@code null} to select all values.
+     * @return The statistics of the values of {@code arr} (without the
+     *         higher order moments).
+     */
+    public static Statistics compute(ShapedArray arr, BooleanArray mask) {
+        return compute(arr, mask, false);
+    }
+
+    /**
+     * Compute the statistics of the values of an array selected by a mask.
+     * @param arr     - The array.
+     * @param mask    - The mask, an array of booleans with the same shape as
+     *                  {@code arr}; can be {@code null} to select all values.
+     * @param moments - Compute the third and fourth central moments?
+     * @return The statistics of the values of {@code arr}.
+     */
+    public static Statistics compute(ShapedArray arr, BooleanArray mask,
+            boolean moments) {
+        Shape shape = arr.getShape();
+        long[] bits = null;
+        if (mask != null) {
+            if (! shape.equals(mask.getShape())) {
+                throw new NonConformableArrayException("Mask must have the same shape as the array.");
+            }
+            bits = mask.getBits(false);
+        }
+        int number = arr.getNumber();
+        switch (arr.getType()) {
+        case Traits.BYTE:
+            return compute(shape, ((ByteArray)arr).flatten(false), bits, number, moments);
+        case Traits.SHORT:
+            return compute(shape, ((ShortArray)arr).flatten(false), bits, number, moments);
+        case Traits.INT:
+            return compute(shape, ((IntArray)arr).flatten(false), bits, number, moments);
+        case Traits.LONG:
+            return compute(shape, ((LongArray)arr).flatten(false), bits, number, moments);
+        case Traits.FLOAT:
+            return compute(shape, ((FloatArray)arr).flatten(false), bits, number, moments);
+        case Traits.DOUBLE:
+            return compute(shape, ((DoubleArray)arr).flatten(false), bits, number, moments);
+        default:
+            throw new IllegalTypeException();
+        }
+    }
+
+    /**
+     * Compute the statistics of the values of a vector.
+     * @param vec - The vector.
+     * @return The statistics of the values of {@code vec} (without the
+     *         higher order moments).
+     */
+    public static Statistics compute(ShapedVector vec) {
+        return compute(vec, false);
+    }
+
+    /**
+     * Compute the statistics of the values of a vector.
+     * @param vec     - The vector.
+     * @param moments - Compute the third and fourth central moments?
+     * @return The statistics of the values of {@code vec}.
+     */
+    public static Statistics compute(ShapedVector vec, boolean moments) {
+        Shape shape = vec.getShape();
+        int number = vec.getNumber();
+        if (vec instanceof FloatShapedVector) {
+            return compute(shape, ((FloatShapedVector)vec).getData(), null, number, moments);
+        } else if (vec instanceof DoubleShapedVector) {
+            return compute(shape, ((DoubleShapedVector)vec).getData(), null, number, moments);
+        } else {
+            return compute(shape, vec, number, moments);
+        }
+    }
+
+    /* Statistics of the values given by the generic accessor of a vector. */
+    private static Statistics compute(final Shape shape, final Vector vec,
+            final int number, final boolean moments) {
+        if (number <= 0) {
+            return new Statistics(shape, moments);
+        }
+        return Parallel.reduce(number, new Parallel.Reduction<Statistics>() {
+            @Override
+            public Statistics compute(int first, int last) {
+                Statistics stats = new Statistics(shape, moments);
+                for (int j = first; j < last; ++j) {
+                    stats.update(vec.get(j), j);
+                }
+                return stats;
+            }
+
+            @Override
+            public Statistics combine(Statistics left, Statistics right) {
+                left.merge(right);
+                return left;
+            }
+        });
+    }
+
+    /* Statistics of the first values of an array of byte's in column-major
+     * order and selected by an optional packed mask. */
+    private static Statistics compute(final Shape shape, final byte[] data,
+            final long[] mask, final int number, final boolean moments) {
+        if (number <= 0) {
+            return new Statistics(shape, moments);
+        }
+        Parallel.Reduction<Statistics> reduction;
+        int length, grain;
+        if (mask == null) {
+            length = number;
+            grain = Parallel.getBlockSize();
+            reduction = new Parallel.Reduction<Statistics>() {
+                @Override
+                public Statistics compute(int first, int last) {
+                    Statistics stats = new Statistics(shape, moments);
+                    for (int j = first; j < last; ++j) {
+                        stats.add((data[j] & 0xFF), j);
+                    }
+                    return stats;
+                }
+
+                @Override
+                public Statistics combine(Statistics left, Statistics right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        } else {
+            length = (number + 63) >>> 6;
+            grain = Parallel.getGrain(length, number);
+            reduction = new Parallel.Reduction<Statistics>() {
+                @Override
+                public Statistics compute(int first, int last) {
+                    Statistics stats = new Statistics(shape, moments);
+                    for (int k = first; k < last; ++k) {
+                        long word = ArrayUtils.maskWord(mask, k, number);
+                        while (word != 0L) {
+                            int j = (k << 6) + Long.numberOfTrailingZeros(word);
+                            stats.add((data[j] & 0xFF), j);
+                            word &= word - 1L;
+                        }
+                    }
+                    return stats;
+                }
+
+                @Override
+                public Statistics combine(Statistics left, Statistics right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        }
+        return Parallel.reduce(length, grain, reduction);
+    }
+
+    /* Statistics of the first values of an array of short's in column-major
+     * order and selected by an optional packed mask. */
+    private static Statistics compute(final Shape shape, final short[] data,
+            final long[] mask, final int number, final boolean moments) {
+        if (number <= 0) {
+            return new Statistics(shape, moments);
+        }
+        Parallel.Reduction<Statistics> reduction;
+        int length, grain;
+        if (mask == null) {
+            length = number;
+            grain = Parallel.getBlockSize();
+            reduction = new Parallel.Reduction<Statistics>() {
+                @Override
+                public Statistics compute(int first, int last) {
+                    Statistics stats = new Statistics(shape, moments);
+                    for (int j = first; j < last; ++j) {
+                        stats.add(data[j], j);
+                    }
+                    return stats;
+                }
+
+                @Override
+                public Statistics combine(Statistics left, Statistics right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        } else {
+            length = (number + 63) >>> 6;
+            grain = Parallel.getGrain(length, number);
+            reduction = new Parallel.Reduction<Statistics>() {
+                @Override
+                public Statistics compute(int first, int last) {
+                    Statistics stats = new Statistics(shape, moments);
+                    for (int k = first; k < last; ++k) {
+                        long word = ArrayUtils.maskWord(mask, k, number);
+                        while (word != 0L) {
+                            int j = (k << 6) + Long.numberOfTrailingZeros(word);
+                            stats.add(data[j], j);
+                            word &= word - 1L;
+                        }
+                    }
+                    return stats;
+                }
+
+                @Override
+                public Statistics combine(Statistics left, Statistics right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        }
+        return Parallel.reduce(length, grain, reduction);
+    }
+
+    /* Statistics of the first values of an array of int's in column-major
+     * order and selected by an optional packed mask. */
+    private static Statistics compute(final Shape shape, final int[] data,
+            final long[] mask, final int number, final boolean moments) {
+        if (number <= 0) {
+            return new Statistics(shape, moments);
+        }
+        Parallel.Reduction<Statistics> reduction;
+        int length, grain;
+        if (mask == null) {
+            length = number;
+            grain = Parallel.getBlockSize();
+            reduction = new Parallel.Reduction<Statistics>() {
+                @Override
+                public Statistics compute(int first, int last) {
+                    Statistics stats = new Statistics(shape, moments);
+                    for (int j = first; j < last; ++j) {
+                        stats.add(data[j], j);
+                    }
+                    return stats;
+                }
+
+                @Override
+                public Statistics combine(Statistics left, Statistics right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        } else {
+            length = (number + 63) >>> 6;
+            grain = Parallel.getGrain(length, number);
+            reduction = new Parallel.Reduction<Statistics>() {
+                @Override
+                public Statistics compute(int first, int last) {
+                    Statistics stats = new Statistics(shape, moments);
+                    for (int k = first; k < last; ++k) {
+                        long word = ArrayUtils.maskWord(mask, k, number);
+                        while (word != 0L) {
+                            int j = (k << 6) + Long.numberOfTrailingZeros(word);
+                            stats.add(data[j], j);
+                            word &= word - 1L;
+                        }
+                    }
+                    return stats;
+                }
+
+                @Override
+                public Statistics combine(Statistics left, Statistics right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        }
+        return Parallel.reduce(length, grain, reduction);
+    }
+
+    /* Statistics of the first values of an array of long's in column-major
+     * order and selected by an optional packed mask. */
+    private static Statistics compute(final Shape shape, final long[] data,
+            final long[] mask, final int number, final boolean moments) {
+        if (number <= 0) {
+            return new Statistics(shape, moments);
+        }
+        Parallel.Reduction<Statistics> reduction;
+        int length, grain;
+        if (mask == null) {
+            length = number;
+            grain = Parallel.getBlockSize();
+            reduction = new Parallel.Reduction<Statistics>() {
+                @Override
+                public Statistics compute(int first, int last) {
+                    Statistics stats = new Statistics(shape, moments);
+                    for (int j = first; j < last; ++j) {
+                        stats.add(data[j], j);
+                    }
+                    return stats;
+                }
+
+                @Override
+                public Statistics combine(Statistics left, Statistics right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        } else {
+            length = (number + 63) >>> 6;
+            grain = Parallel.getGrain(length, number);
+            reduction = new Parallel.Reduction<Statistics>() {
+                @Override
+                public Statistics compute(int first, int last) {
+                    Statistics stats = new Statistics(shape, moments);
+                    for (int k = first; k < last; ++k) {
+                        long word = ArrayUtils.maskWord(mask, k, number);
+                        while (word != 0L) {
+                            int j = (k << 6) + Long.numberOfTrailingZeros(word);
+                            stats.add(data[j], j);
+                            word &= word - 1L;
+                        }
+                    }
+                    return stats;
+                }
+
+                @Override
+                public Statistics combine(Statistics left, Statistics right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        }
+        return Parallel.reduce(length, grain, reduction);
+    }
+
+    /* Statistics of the first values of an array of float's in column-major
+     * order and selected by an optional packed mask. */
+    private static Statistics compute(final Shape shape, final float[] data,
+            final long[] mask, final int number, final boolean moments) {
+        if (number <= 0) {
+            return new Statistics(shape, moments);
+        }
+        Parallel.Reduction<Statistics> reduction;
+        int length, grain;
+        if (mask == null) {
+            length = number;
+            grain = Parallel.getBlockSize();
+            reduction = new Parallel.Reduction<Statistics>() {
+                @Override
+                public Statistics compute(int first, int last) {
+                    Statistics stats = new Statistics(shape, moments);
+                    for (int j = first; j < last; ++j) {
+                        stats.update(data[j], j);
+                    }
+                    return stats;
+                }
+
+                @Override
+                public Statistics combine(Statistics left, Statistics right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        } else {
+            length = (number + 63) >>> 6;
+            grain = Parallel.getGrain(length, number);
+            reduction = new Parallel.Reduction<Statistics>() {
+                @Override
+                public Statistics compute(int first, int last) {
+                    Statistics stats = new Statistics(shape, moments);
+                    for (int k = first; k < last; ++k) {
+                        long word = ArrayUtils.maskWord(mask, k, number);
+                        while (word != 0L) {
+                            int j = (k << 6) + Long.numberOfTrailingZeros(word);
+                            stats.update(data[j], j);
+                            word &= word - 1L;
+                        }
+                    }
+                    return stats;
+                }
+
+                @Override
+                public Statistics combine(Statistics left, Statistics right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        }
+        return Parallel.reduce(length, grain, reduction);
+    }
+
+    /* Statistics of the first values of an array of double's in column-major
+     * order and selected by an optional packed mask. */
+    private static Statistics compute(final Shape shape, final double[] data,
+            final long[] mask, final int number, final boolean moments) {
+        if (number <= 0) {
+            return new Statistics(shape, moments);
+        }
+        Parallel.Reduction<Statistics> reduction;
+        int length, grain;
+        if (mask == null) {
+            length = number;
+            grain = Parallel.getBlockSize();
+            reduction = new Parallel.Reduction<Statistics>() {
+                @Override
+                public Statistics compute(int first, int last) {
+                    Statistics stats = new Statistics(shape, moments);
+                    for (int j = first; j < last; ++j) {
+                        stats.update(data[j], j);
+                    }
+                    return stats;
+                }
+
+                @Override
+                public Statistics combine(Statistics left, Statistics right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        } else {
+            length = (number + 63) >>> 6;
+            grain = Parallel.getGrain(length, number);
+            reduction = new Parallel.Reduction<Statistics>() {
+                @Override
+                public Statistics compute(int first, int last) {
+                    Statistics stats = new Statistics(shape, moments);
+                    for (int k = first; k < last; ++k) {
+                        long word = ArrayUtils.maskWord(mask, k, number);
+                        while (word != 0L) {
+                            int j = (k << 6) + Long.numberOfTrailingZeros(word);
+                            stats.update(data[j], j);
+                            word &= word - 1L;
+                        }
+                    }
+                    return stats;
+                }
+
+                @Override
+                public Statistics combine(Statistics left, Statistics right) {
+                    left.merge(right);
+                    return left;
+                }
+            };
+        }
+        return Parallel.reduce(length, grain, reduction);
+    }
+
+    /* Account for a value which may be NaN or infinite. */
+    private void update(double x, long index) {
+        if (Double.isNaN(x)) {
+            ++nanCount;
+        } else if (Double.isInfinite(x)) {
+            ++infCount;
+        } else {
+            add(x, index);
+        }
+    }
+
+    /* Account for a finite value (Welford's update of the central moments,
+     * extended to the third and fourth moments by Terriberry). */
+    private void add(double x, long index) {
+        if (count == 0) {
+            min = x;
+            max = x;
+            minIndex = index;
+            maxIndex = index;
+        } else if (x < min) {
+            min = x;
+            minIndex = index;
+        } else if (x > max) {
+            max = x;
+            maxIndex = index;
+        }
+        double n1 = count;
+        double n = ++count;
+        double delta = x - mean;
+        double deltaN = delta/n;
+        double term = delta*deltaN*n1;
+        mean += deltaN;
+        if (moments) {
+            double deltaN2 = deltaN*deltaN;
+            m4 += term*deltaN2*(n*n - 3.0*n + 3.0) + 6.0*deltaN2*m2 - 4.0*deltaN*m3;
+            m3 += term*deltaN*(n - 2.0) - 3.0*deltaN*m2;
+        }
+        m2 += term;
+        sum += x;
+    }
+
+    /* Merge the statistics of values which follow those of this instance
+     * (Chan et al. pairwise update of the central moments). */
+    private void merge(Statistics other) {
+        nanCount += other.nanCount;
+        infCount += other.infCount;
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            min = other.min;
+            max = other.max;
+            minIndex = other.minIndex;
+            maxIndex = other.maxIndex;
+            sum = other.sum;
+            mean = other.mean;
+            m2 = other.m2;
+            m3 = other.m3;
+            m4 = other.m4;
+            return;
+        }
+        if (other.min < min) {
+            min = other.min;
+            minIndex = other.minIndex;
+        }
+        if (other.max > max) {
+            max = other.max;
+            maxIndex = other.maxIndex;
+        }
+        double na = count;
+        double nb = other.count;
+        double delta = other.mean - mean;
+        double deltaN = delta/(na + nb);
+        if (moments) {
+            double deltaN2 = deltaN*deltaN;
+            m4 += other.m4 + delta*deltaN*deltaN2*na*nb*(na*na - na*nb + nb*nb)
+                    + 6.0*deltaN2*(na*na*other.m2 + nb*nb*m2)
+                    + 4.0*deltaN*(na*other.m3 - nb*m3);
+            m3 += other.m3 + delta*deltaN2*na*nb*(na - nb)
+                    + 3.0*deltaN*(na*other.m2 - nb*m2);
+        }
+        m2 += other.m2 + delta*deltaN*na*nb;
+        mean += deltaN*nb;
+        sum += other.sum;
+        count += other.count;
+    }
+
+    /**
+     * Get the shape of the scanned array or vector.
+     * @return The shape.
+     */
+    public Shape getShape() {
+        return shape;
+    }
+
+    /**
+     * Check whether the higher order moments have been computed.
+     * @return Whether the skewness and the kurtosis are available.
+     */
+    public boolean hasMoments() {
+        return moments;
+    }
+
+    /**
+     * Get the number of finite values taken into account.
+     * @return The number of finite values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the number of NaN values.
+     * @return The number of scanned values which are NaN.
+     */
+    public long getNaNCount() {
+        return nanCount;
+    }
+
+    /**
+     * Get the number of infinite values.
+     * @return The number of scanned values which are infinite.
+     */
+    public long getInfiniteCount() {
+        return infCount;
+    }
+
+    /**
+     * Get the minimum finite value.
+     * @return The minimum value, NaN if there are no finite values.
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Get the maximum finite value.
+     * @return The maximum value, NaN if there are no finite values.
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Get the index of the minimum value.
+     * @return The index (in column-major order) of the first occurrence of
+     *         the minimum value, -1 if there are no finite values.
+     */
+    public long getMinIndex() {
+        return minIndex;
+    }
+
+    /**
+     * Get the index of the maximum value.
+     * @return The index (in column-major order) of the first occurrence of
+     *         the maximum value, -1 if there are no finite values.
+     */
+    public long getMaxIndex() {
+        return maxIndex;
+    }
+
+    /**
+     * Get the position of the minimum value.
+     * @return The coordinates of the first occurrence of the minimum value,
+     *         {@code null} if there are no finite values.
+     */
+    public int[] getMinPosition() {
+        return position(minIndex);
+    }
+
+    /**
+     * Get the position of the maximum value.
+     * @return The coordinates of the first occurrence of the maximum value,
+     *         {@code null} if there are no finite values.
+     */
+    public int[] getMaxPosition() {
+        return position(maxIndex);
+    }
+
+    /* Convert an index in column-major order into coordinates. */
+    private int[] position(long index) {
+        if (index < 0) {
+            return null;
+        }
+        int rank = shape.rank();
+        int[] pos = new int[rank];
+        for (int k = 0; k < rank; ++k) {
+            int dim = shape.dimension(k);
+            pos[k] = (int)(index % dim);
+            index /= dim;
+        }
+        return pos;
+    }
+
+    /**
+     * Get the sum of the finite values.
+     * @return The sum of the values, 0 if there are none.
+     */
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * Get the mean of the finite values.
+     * @return The mean of the values, NaN if there are none.
+     */
+    public double getMean() {
+        return (count > 0 ? mean : Double.NaN);
+    }
+
+    /**
+     * Get the variance of the finite values.
+     * @return The unbiased estimator of the variance, NaN if there are less
+     *         than 2 values.
+     */
+    public double getVariance() {
+        return (count > 1 ? m2/(count - 1) : Double.NaN);
+    }
+
+    /**
+     * Get the standard deviation of the finite values.
+     * @return The square root of the variance, NaN if there are less than
+     *         2 values.
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Get the skewness of the finite values.
+     * @return The sample skewness, NaN if the higher order moments have not
+     *         been computed or if the variance is zero.
+     */
+    public double getSkewness() {
+        if (! moments || count < 2 || m2 <= 0.0) {
+            return Double.NaN;
+        }
+        return Math.sqrt((double)count)*m3/Math.pow(m2, 1.5);
+    }
+
+    /**
+     * Get the excess kurtosis of the finite values.
+     * @return The sample excess kurtosis (0 for a normal distribution), NaN
+     *         if the higher order moments have not been computed or if the
+     *         variance is zero.
+     */
+    public double getKurtosis() {
+        if (! moments || count < 2 || m2 <= 0.0) {
+            return Double.NaN;
+        }
+        return count*m4/(m2*m2) - 3.0;
+    }
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,340 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array.impl;
+
+import mitiv.array.ShapedArray;
+import mitiv.base.Parallel;
+import mitiv.exception.NonConformableArrayException;
+
+/**
+ * Copy elements between arrays stored with offsets and strides.
+ *
+ * <p>
+ * The strides of both operands are analyzed: dimensions of length one are
+ * dropped, the remaining dimensions are sorted by increasing destination
+ * stride and consecutive dimensions which are contiguous in the source and
+ * in the destination are merged.  When the innermost stride is one for both
+ * operands, each run of elements is moved by {@link System#arraycopy}; for
+ * instance, copying a 3D volume into a region of interest of a larger volume
+ * (as done for zero padding) moves whole rows, and whole slabs when the
+ * region spans the leading dimensions.
+ * </p><p>
+ * When the operands do not agree on their fastest dimension (e.g. when
+ * copying a view with permuted dimensions), the block is recursively split
+ * in halves along its longest dimension until the sub-blocks are small
+ * enough to fit in the cache.  This cache-oblivious scheme keeps the number
+ * of cache and TLB misses low whatever the size of the arrays.
+ * </p><p>
+ * The source and the destination must not overlap (unless they are
+ * identical).
+ * </p>
+ */
+public final class BlockCopy {
+    /* Maximum number of elements of the sub-blocks copied by the
+       cache-oblivious scheme. */
+    private static final int BLOCK_SIZE = 1024;
+
+    /* This class is not instantiable. */
+    private BlockCopy() {}
+
+    /**
+     * Copy the elements of an array into another one, if possible.
+     *
+     * @param src - The source array.
+     * @param dst - The destination array.
+     * @return Whether the elements have been copied; {@code false} is
+     *         returned if the operands do not have the same type or if
+     *         one of them does not implement {@link StorageLayout}.
+     * @throws NonConformableArrayException if the operands do not have the
+     *         same shape.
+     */
+    public static boolean copy(ShapedArray src, ShapedArray dst) {
+        if (! (src instanceof StorageLayout) || ! (dst instanceof StorageLayout)
+                || src.getType() != dst.getType()) {
+            return false;
+        }
+        if (! src.getShape().equals(dst.getShape())) {
+            throw new NonConformableArrayException("Source and destination must have the same shape.");
+        }
+        StorageLayout s = (StorageLayout)src;
+        StorageLayout d = (StorageLayout)dst;
+        copy(s.getStorage(), s.getStorageOffset(), s.getStorageStrides(),
+             d.getStorage(), d.getStorageOffset(), d.getStorageStrides(),
+             src.getShape().copyDimensions());
+        return true;
+    }
+
+    /**
+     * Copy a strided block of elements.
+     *
+     * <p>
+     * The element at position {@code (i1,i2,...)} is copied from
+     * {@code src[srcOffset + srcStrides[0]*i1 + srcStrides[1]*i2 + ...]} to
+     * {@code dst[dstOffset + dstStrides[0]*i1 + dstStrides[1]*i2 + ...]}.
+     * </p>
+     *
+     * @param src        - The source storage (a Java array of a primitive
+     *                     type).
+     * @param srcOffset  - The offset of the first element in the source.
+     * @param srcStrides - The strides in the source.
+     * @param dst        - The destination storage (a Java array of the same
+     *                     type as the source).
+     * @param dstOffset  - The offset of the first element in the
+     *                     destination.
+     * @param dstStrides - The strides in the destination.
+     * @param dims       - The dimensions of the block.
+     */
+    public static void copy(final Object src, int srcOffset, int[] srcStrides,
+            final Object dst, int dstOffset, int[] dstStrides, int[] dims) {
+        if (src == null || dst == null || src.getClass() != dst.getClass()
+                || ! src.getClass().isArray()
+                || ! src.getClass().getComponentType().isPrimitive()) {
+            throw new IllegalArgumentException("Source and destination must be arrays of the same primitive type.");
+        }
+        int rank = dims.length;
+        if (srcStrides.length != rank || dstStrides.length != rank) {
+            throw new IllegalArgumentException("There must be as many strides as the rank.");
+        }
+
+        /* Drop the dimensions of length one. */
+        final int[] dim = new int[rank];
+        final int[] srcStride = new int[rank];
+        final int[] dstStride = new int[rank];
+        int n = 0;
+        for (int k = 0; k < rank; ++k) {
+            if (dims[k] <= 0) {
+                return;
+            }
+            if (dims[k] > 1) {
+                dim[n] = dims[k];
+                srcStride[n] = srcStrides[k];
+                dstStride[n] = dstStrides[k];
+                ++n;
+            }
+        }
+        if (n == 0) {
+            System.arraycopy(src, srcOffset, dst, dstOffset, 1);
+            return;
+        }
+
+        /* Sort the dimensions by increasing destination stride (insertion
+           sort, the order is preserved for equal strides). */
+        for (int k = 1; k < n; ++k) {
+            int d = dim[k], s = srcStride[k], t = dstStride[k];
+            int j = k;
+            while (j > 0 && Math.abs(dstStride[j - 1]) > Math.abs(t)) {
+                dim[j] = dim[j - 1];
+                srcStride[j] = srcStride[j - 1];
+                dstStride[j] = dstStride[j - 1];
+                --j;
+            }
+            dim[j] = d;
+            srcStride[j] = s;
+            dstStride[j] = t;
+        }
+
+        /* Merge the dimensions which are contiguous in both operands. */
+        int m = 0;
+        for (int k = 1; k < n; ++k) {
+            if (srcStride[k] == srcStride[m]*dim[m] && dstStride[k] == dstStride[m]*dim[m]) {
+                dim[m] *= dim[k];
+            } else {
+                ++m;
+                dim[m] = dim[k];
+                srcStride[m] = srcStride[k];
+                dstStride[m] = dstStride[k];
+            }
+        }
+        final int r = m + 1; // number of remaining dimensions
+
+        /* Check whether the fastest dimension of the source is not the
+           innermost one. */
+        boolean blocking = false;
+        for (int k = 1; k < r; ++k) {
+            if (Math.abs(srcStride[k]) < Math.abs(srcStride[0])) {
+                blocking = true;
+                break;
+            }
+        }
+        final int s0 = srcOffset;
+        final int d0 = dstOffset;
+        if (blocking) {
+            /* Split the outermost dimension between the threads, then copy
+               by recursive blocking. */
+            final int outer = r - 1;
+            Parallel.run(dim[outer], Parallel.getGrain(dim[outer], countElements(dim, r)),
+                    new Parallel.Loop() {
+                @Override
+                public void run(int first, int last) {
+                    int[] n = new int[r];
+                    System.arraycopy(dim, 0, n, 0, r);
+                    n[outer] = last - first;
+                    copyBlock(src, s0 + first*srcStride[outer], srcStride,
+                              dst, d0 + first*dstStride[outer], dstStride, n, r);
+                }
+            });
+            return;
+        }
+
+        /* Copy the runs along the innermost dimension, in parallel. */
+        int runs = 1;
+        for (int k = 1; k < r; ++k) {
+            runs *= dim[k];
+        }
+        Parallel.run(runs, Parallel.getGrain(runs, (long)runs*dim[0]), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                copyRuns(src, s0, srcStride, dst, d0, dstStride, dim, r,
+                         first, last);
+            }
+        });
+    }
+
+    private static long countElements(int[] dim, int r) {
+        long count = 1;
+        for (int k = 0; k < r; ++k) {
+            count *= dim[k];
+        }
+        return count;
+    }
+
+    /* Copy the runs first, ..., last - 1 along the innermost dimension of a
+       block. */
+    private static void copyRuns(Object src, int s, int[] srcStride,
+            Object dst, int d, int[] dstStride, int[] dim, int r,
+            int first, int last) {
+        /* Position of the first run. */
+        int[] idx = new int[r];
+        int q = first;
+        for (int k = 1; k < r; ++k) {
+            idx[k] = q % dim[k];
+            q /= dim[k];
+            s += idx[k]*srcStride[k];
+            d += idx[k]*dstStride[k];
+        }
+        for (int j = first; j < last; ++j) {
+            copyRun(src, s, srcStride[0], dst, d, dstStride[0], dim[0]);
+            /* Move to the next run. */
+            for (int k = 1; k < r; ++k) {
+                if (++idx[k] < dim[k]) {
+                    s += srcStride[k];
+                    d += dstStride[k];
+                    break;
+                }
+                idx[k] = 0;
+                s -= (dim[k] - 1)*srcStride[k];
+                d -= (dim[k] - 1)*dstStride[k];
+            }
+        }
+    }
+
+    /* Copy a block by recursively splitting its longest dimension. */
+    private static void copyBlock(Object src, int s, int[] srcStride,
+            Object dst, int d, int[] dstStride, int[] dim, int r) {
+        int longest = 0;
+        for (int k = 1; k < r; ++k) {
+            if (dim[k] > dim[longest]) {
+                longest = k;
+            }
+        }
+        long count = countElements(dim, r);
+        if (count <= BLOCK_SIZE || dim[longest] < 2) {
+            copyRuns(src, s, srcStride, dst, d, dstStride, dim, r,
+                     0, (int)(count/dim[0]));
+            return;
+        }
+        int n = dim[longest];
+        int h = n/2;
+        dim[longest] = h;
+        copyBlock(src, s, srcStride, dst, d, dstStride, dim, r);
+        dim[longest] = n - h;
+        copyBlock(src, s + h*srcStride[longest], srcStride,
+                  dst, d + h*dstStride[longest], dstStride, dim, r);
+        dim[longest] = n;
+    }
+
+    /* Copy a run of elements. */
+    private static void copyRun(Object src, int s, int srcStride,
+            Object dst, int d, int dstStride, int len) {
+        if (srcStride == 1 && dstStride == 1) {
+            System.arraycopy(src, s, dst, d, len);
+        } else if (src instanceof float[]) {
+            float[] a = (float[])src;
+            float[] b = (float[])dst;
+            for (int i = 0; i < len; ++i, s += srcStride, d += dstStride) {
+                b[d] = a[s];
+            }
+        } else if (src instanceof double[]) {
+            double[] a = (double[])src;
+            double[] b = (double[])dst;
+            for (int i = 0; i < len; ++i, s += srcStride, d += dstStride) {
+                b[d] = a[s];
+            }
+        } else if (src instanceof int[]) {
+            int[] a = (int[])src;
+            int[] b = (int[])dst;
+            for (int i = 0; i < len; ++i, s += srcStride, d += dstStride) {
+                b[d] = a[s];
+            }
+        } else if (src instanceof long[]) {
+            long[] a = (long[])src;
+            long[] b = (long[])dst;
+            for (int i = 0; i < len; ++i, s += srcStride, d += dstStride) {
+                b[d] = a[s];
+            }
+        } else if (src instanceof short[]) {
+            short[] a = (short[])src;
+            short[] b = (short[])dst;
+            for (int i = 0; i < len; ++i, s += srcStride, d += dstStride) {
+                b[d] = a[s];
+            }
+        } else if (src instanceof byte[]) {
+            byte[] a = (byte[])src;
+            byte[] b = (byte[])dst;
+            for (int i = 0; i < len; ++i, s += srcStride, d += dstStride) {
+                b[d] = a[s];
+            }
+        } else {
+            /* Other primitive types are rarely used, copy one element at a
+               time. */
+            for (int i = 0; i < len; ++i, s += srcStride, d += dstStride) {
+                System.arraycopy(src, s, dst, d, 1);
+            }
+        }
+    }
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,370 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array.impl;
+
+import mitiv.array.BooleanArray;
+import mitiv.array.ByteArray;
+import mitiv.array.DoubleArray;
+import mitiv.array.FloatArray;
+import mitiv.array.IntArray;
+import mitiv.array.LongArray;
+import mitiv.array.ShapedArray;
+import mitiv.array.ShortArray;
+import mitiv.base.Traits;
+import mitiv.exception.IllegalTypeException;
+
+/**
+ * Cursor to walk through the elements of an array chunk by chunk.
+ *
+ * <p>
+ * A chunk is a run of elements which are equally spaced in the storage of
+ * the array: the {@code n}-th element of a chunk is stored at index
+ * {@code getOffset() + getStride()*n} of the Java array returned by
+ * {@link #getStorage()} for {@code n = 0, ..., getLength() - 1}.  The
+ * leading dimensions of the array are merged as long as their elements
+ * remain equally spaced, hence the chunks are as long as possible: a flat
+ * array is a single chunk, the chunks of a region of interest of a 3D volume
+ * are its rows (or its planes if the region spans the first two dimensions),
+ * etc.  The chunks are visited in column-major order, the coordinates of the
+ * first element of the current chunk are given by {@link #getCoordinate}.
+ * </p><p>
+ * The elements are not copied for arrays which implement
+ * {@link StorageLayout} (flat and stridden arrays), the chunks are then
+ * pieces of the storage of the array and modifying them modifies the array.
+ * Other arrays are flattened and seen as a single chunk (see
+ * {@link #isDirect()}).
+ * </p><p>
+ * The chunks can be processed in parallel: a cursor can be split (see
+ * {@link #split()}) or restricted to a range of chunks (see
+ * {@link #cursor(int, int)}), for instance:
+ * <pre>
+ *     final ChunkCursor chunks = new ChunkCursor(arr);
+ *     Parallel.run(chunks.getChunkCount(), new Parallel.Loop() {
+ *         public void run(int first, int last) {
+ *             ChunkCursor c = chunks.cursor(first, last);
+ *             float[] data = (float[])c.getStorage();
+ *             while (c.next()) {
+ *                 int j = c.getOffset();
+ *                 for (int n = c.getLength(); n &gt; 0; --n, j += c.getStride()) {
+ *                     ... // process data[j]
+ *                 }
+ *             }
+ *         }
+ *     });</pre>
+ * Cursors are not thread safe, each thread must use its own cursor.
+ * </p>
+ */
+public final class ChunkCursor {
+    private final Object storage; // Java array where the elements are stored
+    private final boolean direct; // the storage is that of the array?
+    private final int[] dims;     // dimensions of the array
+    private final int[] strides;  // strides of the array
+    private final int origin;     // offset of the first element of the array
+    private final int inner;      // number of dimensions merged in a chunk
+    private final int length;     // number of elements per chunk
+    private final int stride;     // step between elements of a chunk
+    private final int count;      // total number of chunks
+    private final int[] pos;      // coordinates of the current chunk
+    private int offset;           // offset of the current chunk
+    private int index;            // index of the current chunk
+    private int start;            // index of the first chunk to visit
+    private int next;             // index of the next chunk to visit
+    private int end;              // index of the last chunk to visit plus one
+
+    /**
+     * Create a cursor to visit all the chunks of an array.
+     *
+     * @param arr - The array.
+     * @throws IllegalTypeException if the type of the array is not
+     *         supported.
+     */
+    public ChunkCursor(ShapedArray arr) {
+        int rank = arr.getRank();
+        dims = arr.getShape().copyDimensions();
+        if (arr instanceof StorageLayout) {
+            StorageLayout layout = (StorageLayout)arr;
+            storage = layout.getStorage();
+            origin = layout.getStorageOffset();
+            strides = layout.getStorageStrides();
+            direct = true;
+        } else {
+            storage = flatten(arr);
+            origin = 0;
+            strides = new int[rank];
+            for (int k = 0, s = 1; k < rank; ++k) {
+                strides[k] = s;
+                s *= dims[k];
+            }
+            direct = false;
+        }
+
+        /* Merge the leading dimensions while their elements are equally
+           spaced.  Dimensions of length one can always be merged. */
+        int n = 1;
+        int s = 1;
+        int k = 0;
+        while (k < rank) {
+            if (dims[k] != 1) {
+                if (n == 1) {
+                    s = strides[k];
+                } else if (strides[k] != s*n) {
+                    break;
+                }
+                n *= dims[k];
+            }
+            ++k;
+        }
+        inner = k;
+        length = n;
+        stride = s;
+        int c = 1;
+        for (k = inner; k < rank; ++k) {
+            c *= dims[k];
+        }
+        count = (length == 0 ? 0 : c);
+        pos = new int[rank];
+        index = -1;
+        start = next = 0;
+        end = count;
+    }
+
+    /* Create a cursor for a range of chunks of the same array. */
+    private ChunkCursor(ChunkCursor other, int first, int last) {
+        storage = other.storage;
+        direct = other.direct;
+        dims = other.dims;
+        strides = other.strides;
+        origin = other.origin;
+        inner = other.inner;
+        length = other.length;
+        stride = other.stride;
+        count = other.count;
+        pos = new int[dims.length];
+        index = -1;
+        start = next = first;
+        end = last;
+    }
+
+    private static Object flatten(ShapedArray arr) {
+        switch (arr.getType()) {
+        case Traits.BOOLEAN:
+            return ((BooleanArray)arr).flatten(false);
+        case Traits.BYTE:
+            return ((ByteArray)arr).flatten(false);
+        case Traits.SHORT:
+            return ((ShortArray)arr).flatten(false);
+        case Traits.INT:
+            return ((IntArray)arr).flatten(false);
+        case Traits.LONG:
+            return ((LongArray)arr).flatten(false);
+        case Traits.FLOAT:
+            return ((FloatArray)arr).flatten(false);
+        case Traits.DOUBLE:
+            return ((DoubleArray)arr).flatten(false);
+        default:
+            throw new IllegalTypeException();
+        }
+    }
+
+    /**
+     * Get a cursor for a range of chunks.
+     *
+     * <p>
+     * The returned cursor is independent from this one, it is positioned
+     * before its first chunk.
+     * </p>
+     *
+     * @param first - The index of the first chunk to visit.
+     * @param last  - The index of the last chunk to visit plus one.
+     * @return A new cursor.
+     * @throws IndexOutOfBoundsException if the range is not a part of
+     *         {@code 0, ..., getChunkCount() - 1}.
+     */
+    public ChunkCursor cursor(int first, int last) {
+        if (first < 0 || last > count || first > last) {
+            throw new IndexOutOfBoundsException("Invalid range of chunks.");
+        }
+        return new ChunkCursor(this, first, last);
+    }
+
+    /**
+     * Split the chunks which remain to be visited.
+     *
+     * <p>
+     * The first half of the chunks not yet visited by this cursor are
+     * left to the returned cursor, this cursor then only visits the second
+     * half.  This is intended to recursively split the work between several
+     * threads.
+     * </p>
+     *
+     * @return A new cursor for the first half of the remaining chunks,
+     *         {@code null} if there are less than 2 remaining chunks.
+     */
+    public ChunkCursor split() {
+        int remaining = end - next;
+        if (remaining < 2) {
+            return null;
+        }
+        int middle = next + remaining/2;
+        ChunkCursor other = new ChunkCursor(this, next, middle);
+        start = next = middle;
+        return other;
+    }
+
+    /**
+     * Move to the next chunk.
+     *
+     * @return Whether there is a next chunk; if {@code false} is returned,
+     *         all the chunks have been visited and the cursor remains
+     *         unchanged.
+     */
+    public boolean next() {
+        if (next >= end) {
+            return false;
+        }
+        if (index >= 0 && next == index + 1) {
+            /* Move to the following chunk. */
+            for (int k = inner; k < pos.length; ++k) {
+                if (++pos[k] < dims[k]) {
+                    offset += strides[k];
+                    break;
+                }
+                pos[k] = 0;
+                offset -= (dims[k] - 1)*strides[k];
+            }
+        } else {
+            /* Locate the chunk. */
+            offset = origin;
+            int q = next;
+            for (int k = inner; k < pos.length; ++k) {
+                pos[k] = q % dims[k];
+                q /= dims[k];
+                offset += pos[k]*strides[k];
+            }
+        }
+        index = next++;
+        return true;
+    }
+
+    /**
+     * Rewind the cursor before its first chunk.
+     */
+    public void reset() {
+        next = start;
+        index = -1;
+    }
+
+    /**
+     * Get the storage of the elements.
+     * @return The Java array (of a primitive type) where the elements are
+     *         stored.
+     */
+    public Object getStorage() {
+        return storage;
+    }
+
+    /**
+     * Check whether the chunks are directly taken from the storage of the
+     * array.
+     * @return Whether modifying the elements of the chunks modifies the
+     *         array; if {@code false}, the elements may have been copied.
+     */
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * Check whether the elements of the chunks are contiguous.
+     * @return Whether the stride of the chunks is one.
+     */
+    public boolean isContiguous() {
+        return (stride == 1 || length <= 1);
+    }
+
+    /**
+     * Get the total number of chunks of the array.
+     * @return The number of chunks.
+     */
+    public int getChunkCount() {
+        return count;
+    }
+
+    /**
+     * Get the number of elements per chunk.
+     * @return The length of every chunk.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Get the step between successive elements of a chunk in the storage.
+     * @return The stride of every chunk.
+     */
+    public int getStride() {
+        return stride;
+    }
+
+    /**
+     * Get the index of the current chunk.
+     * @return The index of the current chunk, {@code -1} if the cursor is
+     *         not yet positioned.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Get the offset of the first element of the current chunk.
+     * @return The index of the first element of the current chunk in the
+     *         storage.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Get a coordinate of the first element of the current chunk.
+     * @param k - The index of the dimension.
+     * @return The position along the {@code k}-th dimension of the first
+     *         element of the current chunk.
+     */
+    public int getCoordinate(int k) {
+        return pos[k];
+    }
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,541 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array.impl;
+
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+import mitiv.array.ShapedArray;
+import mitiv.base.Half;
+import mitiv.base.Traits;
+import mitiv.exception.IllegalTypeException;
+
+/**
+ * Spliterators over the elements of arrays.
+ *
+ * <p>
+ * The elements are visited in column-major order, chunk by chunk (see
+ * {@link ChunkCursor}), and without copies for flat and stridden arrays.
+ * Splitting is done on chunk boundaries whenever the remaining elements
+ * span several chunks and in the middle of the chunk otherwise, hence a
+ * flat array is split in halves of contiguous elements.  The spliterators
+ * are {@link Spliterator#SIZED SIZED} and
+ * {@link Spliterator#SUBSIZED SUBSIZED}, parallel streams built on them
+ * (with {@link java.util.stream.StreamSupport}) therefore share the work
+ * evenly between the threads.
+ * </p><p>
+ * Arrays of {@code float}'s are streamed as {@code double}'s, arrays of
+ * {@code byte}'s and {@code short}'s as {@code int}'s (bytes being
+ * taken as unsigned values as elsewhere in the library).  The array must not
+ * be modified while it is traversed.
+ * </p>
+ */
+public abstract class ChunkSpliterator {
+    /* Minimum number of elements to split a spliterator. */
+    private static final int MIN_SPLIT = 1024;
+
+    protected final ChunkCursor chunks; // the chunks of the array
+    protected final int length;         // number of elements per chunk
+    protected final int stride;         // step between elements of a chunk
+    protected int first;                // index of the next element to visit
+    protected final int last;           // index of the last element plus one
+    protected int position;             // storage index of the next element
+    private ChunkCursor cursor;         // cursor over the remaining chunks
+    private int left;                   // number of elements left in chunk
+
+    protected ChunkSpliterator(ChunkCursor chunks, int first, int last) {
+        this.chunks = chunks;
+        this.length = chunks.getLength();
+        this.stride = chunks.getStride();
+        this.first = first;
+        this.last = last;
+        cursor = null;
+        left = 0;
+    }
+
+    /**
+     * Create a spliterator over the elements of an array.
+     *
+     * @param arr - The array.
+     * @return A spliterator whose type depends on that of the array:
+     *         {@link Spliterator.OfInt} for arrays of {@code byte}'s,
+     *         {@code short}'s and {@code int}'s,
+     *         {@link Spliterator.OfLong} for arrays of {@code long}'s and
+     *         {@link Spliterator.OfDouble} for arrays of {@code float}'s
+     *         and {@code double}'s.
+     * @throws IllegalTypeException if the type of the array is not
+     *         supported.
+     */
+    public static Spliterator<?> create(ShapedArray arr) {
+        ChunkCursor chunks = new ChunkCursor(arr);
+        switch (arr.getType()) {
+        case Traits.BYTE:
+            return new OfByte(chunks);
+        case Traits.SHORT:
+            return new OfShort(chunks);
+        case Traits.INT:
+            return new OfInt(chunks);
+        case Traits.LONG:
+            return new OfLong(chunks);
+        case Traits.FLOAT:
+            return new OfFloat(chunks);
+        case Traits.DOUBLE:
+            return new OfDouble(chunks);
+        default:
+            throw new IllegalTypeException();
+        }
+    }
+
+    public long estimateSize() {
+        return last - first;
+    }
+
+    public long getExactSizeIfKnown() {
+        return last - first;
+    }
+
+    public int characteristics() {
+        return (Spliterator.ORDERED | Spliterator.SIZED |
+                Spliterator.SUBSIZED | Spliterator.NONNULL);
+    }
+
+    public boolean hasCharacteristics(int characteristics) {
+        return ((characteristics() & characteristics) == characteristics);
+    }
+
+    /**
+     * Split the remaining elements.
+     *
+     * <p>
+     * On return, this spliterator only covers the elements after the split
+     * point, the caller is responsible for covering the elements before.
+     * </p>
+     *
+     * @return The index of the first element after the split point or -1
+     *         if the remaining elements are too few to be split.
+     */
+    protected final int split() {
+        int n = last - first;
+        if (n < MIN_SPLIT) {
+            return -1;
+        }
+        int middle = first + n/2;
+        int c0 = first/length;
+        int c1 = (last - 1)/length;
+        if (c1 > c0) {
+            /* Split on the chunk boundary which is the nearest to the
+               middle. */
+            int c = (middle + length/2)/length;
+            middle = Math.min(Math.max(c, c0 + 1), c1)*length;
+        }
+        first = middle;
+        cursor = null;
+        left = 0;
+        return middle;
+    }
+
+    /* Position the cursor on the chunk of the next element to visit. */
+    private void locate() {
+        int c = first/length;
+        int k = first - c*length;
+        cursor = chunks.cursor(c, (last - 1)/length + 1);
+        cursor.next();
+        position = cursor.getOffset() + k*stride;
+        left = length - k;
+    }
+
+    /**
+     * Move to the next element.
+     *
+     * <p>
+     * The caller must have checked that there are remaining elements.
+     * </p>
+     *
+     * @return The storage index of the element.
+     */
+    protected final int advance() {
+        if (left <= 0) {
+            if (cursor == null) {
+                locate();
+            } else {
+                cursor.next();
+                position = cursor.getOffset();
+                left = length;
+            }
+        }
+        int j = position;
+        position += stride;
+        --left;
+        ++first;
+        return j;
+    }
+
+    /**
+     * Consume the next run of elements.
+     *
+     * <p>
+     * The run starts at storage index {@link #position} with a step
+     * {@link #stride}.  It is consumed when this method is called again.
+     * </p>
+     *
+     * @return The number of elements of the run, 0 if there are no
+     *         remaining elements.
+     */
+    protected final int nextRun() {
+        if (first >= last) {
+            return 0;
+        }
+        if (left <= 0) {
+            if (cursor == null) {
+                locate();
+            } else {
+                cursor.next();
+                position = cursor.getOffset();
+                left = length;
+            }
+        }
+        int n = Math.min(left, last - first);
+        first += n;
+        left -= n;
+        return n;
+    }
+
+    /**
+     * Spliterator over an array of {@code double}'s.
+     */
+    public static final class OfDouble extends ChunkSpliterator
+            implements Spliterator.OfDouble {
+        private final double[] data;
+
+        public OfDouble(ChunkCursor chunks) {
+            this(chunks, 0, chunks.getChunkCount()*chunks.getLength());
+        }
+
+        private OfDouble(ChunkCursor chunks, int first, int last) {
+            super(chunks, first, last);
+            data = (double[])chunks.getStorage();
+        }
+
+        @Override
+        public ChunkSpliterator.OfDouble trySplit() {
+            int start = first;
+            int middle = split();
+            return (middle < 0 ? null : new ChunkSpliterator.OfDouble(chunks, start, middle));
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            if (first >= last) {
+                return false;
+            }
+            int j = advance();
+            action.accept(data[j]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            for (int n = nextRun(); n > 0; n = nextRun()) {
+                for (int j = position; n > 0; --n, j += stride) {
+                    action.accept(data[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Spliterator over an array of {@code float}'s, streamed as {@code double}'s.
+     */
+    public static final class OfFloat extends ChunkSpliterator
+            implements Spliterator.OfDouble {
+        private final float[] data;
+
+        public OfFloat(ChunkCursor chunks) {
+            this(chunks, 0, chunks.getChunkCount()*chunks.getLength());
+        }
+
+        private OfFloat(ChunkCursor chunks, int first, int last) {
+            super(chunks, first, last);
+            data = (float[])chunks.getStorage();
+        }
+
+        @Override
+        public ChunkSpliterator.OfFloat trySplit() {
+            int start = first;
+            int middle = split();
+            return (middle < 0 ? null : new ChunkSpliterator.OfFloat(chunks, start, middle));
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            if (first >= last) {
+                return false;
+            }
+            int j = advance();
+            action.accept((double)data[j]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            for (int n = nextRun(); n > 0; n = nextRun()) {
+                for (int j = position; n > 0; --n, j += stride) {
+                    action.accept((double)data[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Spliterator over an array of {@code long}'s.
+     */
+    public static final class OfLong extends ChunkSpliterator
+            implements Spliterator.OfLong {
+        private final long[] data;
+
+        public OfLong(ChunkCursor chunks) {
+            this(chunks, 0, chunks.getChunkCount()*chunks.getLength());
+        }
+
+        private OfLong(ChunkCursor chunks, int first, int last) {
+            super(chunks, first, last);
+            data = (long[])chunks.getStorage();
+        }
+
+        @Override
+        public ChunkSpliterator.OfLong trySplit() {
+            int start = first;
+            int middle = split();
+            return (middle < 0 ? null : new ChunkSpliterator.OfLong(chunks, start, middle));
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (first >= last) {
+                return false;
+            }
+            int j = advance();
+            action.accept(data[j]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            for (int n = nextRun(); n > 0; n = nextRun()) {
+                for (int j = position; n > 0; --n, j += stride) {
+                    action.accept(data[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Spliterator over an array of {@code int}'s.
+     */
+    public static final class OfInt extends ChunkSpliterator
+            implements Spliterator.OfInt {
+        private final int[] data;
+
+        public OfInt(ChunkCursor chunks) {
+            this(chunks, 0, chunks.getChunkCount()*chunks.getLength());
+        }
+
+        private OfInt(ChunkCursor chunks, int first, int last) {
+            super(chunks, first, last);
+            data = (int[])chunks.getStorage();
+        }
+
+        @Override
+        public ChunkSpliterator.OfInt trySplit() {
+            int start = first;
+            int middle = split();
+            return (middle < 0 ? null : new ChunkSpliterator.OfInt(chunks, start, middle));
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (first >= last) {
+                return false;
+            }
+            int j = advance();
+            action.accept(data[j]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            for (int n = nextRun(); n > 0; n = nextRun()) {
+                for (int j = position; n > 0; --n, j += stride) {
+                    action.accept(data[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Spliterator over an array of {@code short}'s, streamed as {@code int}'s.
+     */
+    public static final class OfShort extends ChunkSpliterator
+            implements Spliterator.OfInt {
+        private final short[] data;
+
+        public OfShort(ChunkCursor chunks) {
+            this(chunks, 0, chunks.getChunkCount()*chunks.getLength());
+        }
+
+        private OfShort(ChunkCursor chunks, int first, int last) {
+            super(chunks, first, last);
+            data = (short[])chunks.getStorage();
+        }
+
+        @Override
+        public ChunkSpliterator.OfShort trySplit() {
+            int start = first;
+            int middle = split();
+            return (middle < 0 ? null : new ChunkSpliterator.OfShort(chunks, start, middle));
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (first >= last) {
+                return false;
+            }
+            int j = advance();
+            action.accept((int)data[j]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            for (int n = nextRun(); n > 0; n = nextRun()) {
+                for (int j = position; n > 0; --n, j += stride) {
+                    action.accept((int)data[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Spliterator over values stored in half precision (see {@link Half})
+     * in an array of {@code short}'s, streamed as {@code double}'s.
+     */
+    public static final class OfHalf extends ChunkSpliterator
+            implements Spliterator.OfDouble {
+        private final short[] data;
+
+        public OfHalf(ChunkCursor chunks) {
+            this(chunks, 0, chunks.getChunkCount()*chunks.getLength());
+        }
+
+        private OfHalf(ChunkCursor chunks, int first, int last) {
+            super(chunks, first, last);
+            data = (short[])chunks.getStorage();
+        }
+
+        @Override
+        public ChunkSpliterator.OfHalf trySplit() {
+            int start = first;
+            int middle = split();
+            return (middle < 0 ? null : new ChunkSpliterator.OfHalf(chunks, start, middle));
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            if (first >= last) {
+                return false;
+            }
+            int j = advance();
+            action.accept((double)Half.toFloat(data[j]));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            for (int n = nextRun(); n > 0; n = nextRun()) {
+                for (int j = position; n > 0; --n, j += stride) {
+                    action.accept((double)Half.toFloat(data[j]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Spliterator over an array of {@code byte}'s, streamed as unsigned {@code int}'s.
+     */
+    public static final class OfByte extends ChunkSpliterator
+            implements Spliterator.OfInt {
+        private final byte[] data;
+
+        public OfByte(ChunkCursor chunks) {
+            this(chunks, 0, chunks.getChunkCount()*chunks.getLength());
+        }
+
+        private OfByte(ChunkCursor chunks, int first, int last) {
+            super(chunks, first, last);
+            data = (byte[])chunks.getStorage();
+        }
+
+        @Override
+        public ChunkSpliterator.OfByte trySplit() {
+            int start = first;
+            int middle = split();
+            return (middle < 0 ? null : new ChunkSpliterator.OfByte(chunks, start, middle));
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (first >= last) {
+                return false;
+            }
+            int j = advance();
+            action.accept((data[j] & 0xFF));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            for (int n = nextRun(); n > 0; n = nextRun()) {
+                for (int j = position; n > 0; --n, j += stride) {
+                    action.accept((data[j] & 0xFF));
+                }
+            }
+        }
+    }
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,310 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array.impl;
+
+import java.util.Arrays;
+
+import mitiv.array.Boolean1D;
+import mitiv.array.Boolean2D;
+import mitiv.array.BooleanArray;
+import mitiv.base.Shape;
+import mitiv.base.indexing.CompiledRange;
+import mitiv.base.indexing.Range;
+import mitiv.exception.NonConformableArrayException;
+
+/**
+ * Flat implementation of 2-dimensional arrays of booleans.
+ *
+ * <p>
+ * The values are packed in column-major order into words of 64 bits (see
+ * {@link BooleanArray}), filling, logical operations and counting are
+ * applied to whole words.  Slices and views are <i>stridden</i> arrays
+ * which share the same words.
+ * </p>
+ */
+public class FlatBoolean2D extends Boolean2D {
+    static final int order = COLUMN_MAJOR;
+    final long[] bits;
+    private final int words; // number of significant words
+    private final long last; // mask of the significant bits of the last word
+
+    public FlatBoolean2D(int dim1, int dim2) {
+        super(dim1,dim2);
+        words = (number + 63) >>> 6;
+        last = lastMask(number);
+        bits = new long[words];
+    }
+
+    public FlatBoolean2D(int[] dims) {
+        super(dims);
+        words = (number + 63) >>> 6;
+        last = lastMask(number);
+        bits = new long[words];
+    }
+
+    public FlatBoolean2D(Shape shape) {
+        super(shape);
+        words = (number + 63) >>> 6;
+        last = lastMask(number);
+        bits = new long[words];
+    }
+
+    public FlatBoolean2D(long[] arr, int dim1, int dim2) {
+        super(dim1,dim2);
+        words = (number + 63) >>> 6;
+        last = lastMask(number);
+        checkSize(arr);
+        bits = arr;
+    }
+
+    public FlatBoolean2D(long[] arr, int[] dims) {
+        super(dims);
+        words = (number + 63) >>> 6;
+        last = lastMask(number);
+        checkSize(arr);
+        bits = arr;
+    }
+
+    public FlatBoolean2D(long[] arr, Shape shape) {
+        super(shape);
+        words = (number + 63) >>> 6;
+        last = lastMask(number);
+        checkSize(arr);
+        bits = arr;
+    }
+
+    private static long lastMask(int number) {
+        int r = (number & 63);
+        return (r == 0 ? -1L : (1L << r) - 1L);
+    }
+
+    @Override
+    public void checkSanity() {
+        if (bits == null) {
+           throw new NonConformableArrayException("Wrapped array is null.");
+        }
+        if (bits.length < words) {
+            throw new NonConformableArrayException("Wrapped array is too small.");
+        }
+    }
+
+    private void checkSize(long[] arr) {
+        if (arr == null || arr.length < words) {
+            throw new NonConformableArrayException("Wrapped array is too small.");
+        }
+    }
+
+    final int index(int i1, int i2) {
+        return i1 + dim1*i2;
+    }
+
+    @Override
+    public final boolean get(int i1, int i2) {
+        int j = i1 + dim1*i2;
+        return ((bits[j >>> 6] >>> j) & 1L) != 0L;
+    }
+
+    @Override
+    public final void set(int i1, int i2, boolean value) {
+        int j = i1 + dim1*i2;
+        if (value) {
+            bits[j >>> 6] |= (1L << j);
+        } else {
+            bits[j >>> 6] &= ~(1L << j);
+        }
+    }
+
+    @Override
+    public final int getOrder() {
+        return order;
+    }
+
+    @Override
+    public void fill(boolean value) {
+        if (words > 0) {
+            Arrays.fill(bits, 0, words, (value ? -1L : 0L));
+            bits[words - 1] &= last;
+        }
+    }
+
+    @Override
+    public void not() {
+        for (int k = 0; k < words; ++k) {
+            bits[k] = ~bits[k];
+        }
+        if (words > 0) {
+            bits[words - 1] &= last;
+        }
+    }
+
+    @Override
+    public int count() {
+        int n = 0;
+        for (int k = 0; k < words - 1; ++k) {
+            n += Long.bitCount(bits[k]);
+        }
+        if (words > 0) {
+            n += Long.bitCount(bits[words - 1] & last);
+        }
+        return n;
+    }
+
+    @Override
+    public boolean any() {
+        for (int k = 0; k < words - 1; ++k) {
+            if (bits[k] != 0L) {
+                return true;
+            }
+        }
+        return (words > 0 && (bits[words - 1] & last) != 0L);
+    }
+
+    @Override
+    public boolean all() {
+        for (int k = 0; k < words - 1; ++k) {
+            if (bits[k] != -1L) {
+                return false;
+            }
+        }
+        return (words == 0 || (bits[words - 1] & last) == last);
+    }
+
+    /* Get the packed bits of another array of same shape. */
+    private long[] getOtherBits(BooleanArray other) {
+        if (! getShape().equals(other.getShape())) {
+            throw new NonConformableArrayException("Arrays must have the same shape.");
+        }
+        return other.getBits(false);
+    }
+
+    @Override
+    public void and(BooleanArray other) {
+        long[] src = getOtherBits(other);
+        for (int k = 0; k < words; ++k) {
+            bits[k] &= src[k];
+        }
+    }
+
+    @Override
+    public void or(BooleanArray other) {
+        long[] src = getOtherBits(other);
+        for (int k = 0; k < words; ++k) {
+            bits[k] |= src[k];
+        }
+        if (words > 0) {
+            bits[words - 1] &= last;
+        }
+    }
+
+    @Override
+    public void xor(BooleanArray other) {
+        long[] src = getOtherBits(other);
+        for (int k = 0; k < words; ++k) {
+            bits[k] ^= src[k];
+        }
+        if (words > 0) {
+            bits[words - 1] &= last;
+        }
+    }
+
+    @Override
+    public void andNot(BooleanArray other) {
+        long[] src = getOtherBits(other);
+        for (int k = 0; k < words; ++k) {
+            bits[k] &= ~src[k];
+        }
+    }
+
+    @Override
+    public boolean[] flatten(boolean forceCopy) {
+        boolean[] out = new boolean[number];
+        for (int j = 0; j < number; ++j) {
+            out[j] = (((bits[j >>> 6] >>> j) & 1L) != 0L);
+        }
+        return out;
+    }
+
+    @Override
+    public long[] getBits(boolean forceCopy) {
+        return (forceCopy ? Arrays.copyOf(bits, words) : bits);
+    }
+
+    /* Get a stridden view of this array sharing the same words. */
+    private StriddenBoolean2D stridden() {
+        return new StriddenBoolean2D(bits, 0, 1, dim1, dim1,dim2);
+    }
+
+    @Override
+    public Boolean2D permute(int... perm) {
+        return stridden().permute(perm);
+    }
+
+    @Override
+    public Boolean1D slice(int idx) {
+        return stridden().slice(idx);
+    }
+
+    @Override
+    public Boolean1D slice(int idx, int dim) {
+        return stridden().slice(idx, dim);
+    }
+
+    @Override
+    public Boolean2D view(Range rng1, Range rng2) {
+        CompiledRange cr1 = new CompiledRange(rng1, dim1, 0, 1);
+        CompiledRange cr2 = new CompiledRange(rng2, dim2, 0, dim1);
+        if (cr1.doesNothing() && cr2.doesNothing()) {
+            return this;
+        }
+        return new StriddenBoolean2D(this.bits,
+                cr1.getOffset() + cr2.getOffset(),
+                cr1.getStride(), cr2.getStride(),
+                cr1.getNumber(), cr2.getNumber());
+    }
+
+    @Override
+    public Boolean2D view(int[] idx1, int[] idx2) {
+        return stridden().view(idx1, idx2);
+    }
+
+    @Override
+    public Boolean1D as1D() {
+        return new FlatBoolean1D(bits, number);
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
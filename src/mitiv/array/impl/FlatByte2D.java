@@ -31,7 +31,15 @@ import mitiv.base.indexing.Range;
 import mitiv.base.mapping.ByteFunction;
 import mitiv.base.mapping.ByteScanner;
 import mitiv.random.ByteGenerator;
+import mitiv.array.Short2D;
+import mitiv.array.Int2D;
+import mitiv.array.Long2D;
+import mitiv.array.Float2D;
+import mitiv.array.Double2D;
+import mitiv.array.ShapedArray;
+import mitiv.base.Parallel;
 import mitiv.base.Shape;
+import mitiv.base.mapping.ByteMergeableScanner;
 import mitiv.base.indexing.CompiledRange;
 import mitiv.exception.NonConformableArrayException;
 
@@ -41,7 +49,7 @@ import mitiv.exception.NonConformableArrayException;
  *
  * @author Éric Thiébaut.
  */
-public class FlatByte2D extends Byte2D {
+public class FlatByte2D extends Byte2D implements StorageLayout {
     static final int order = COLUMN_MAJOR;
     final byte[] data;
 
@@ -114,55 +122,302 @@ public class FlatByte2D extends Byte2D {
     }
 
     @Override
-    public void fill(byte value) {
-         for (int j = 0; j < number; ++j) {
-            data[j] = value;
-         }
+    public Object getStorage() {
+        return data;
+    }
+
+    @Override
+    public int getStorageOffset() {
+        return 0;
+    }
+
+    @Override
+    public int[] getStorageStrides() {
+        return new int[]{1, dim1};
+    }
+
+    @Override
+    public Byte2D permute(int... perm) {
+        return new StriddenByte2D(data, 0,
+                Helper.permute(getStorageStrides(), perm),
+                Helper.permute(shape.copyDimensions(), perm));
+    }
+
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! BlockCopy.copy(arr, this)) {
+            super.assign(arr);
+        }
+    }
+
+    @Override
+    public void fill(final byte value) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    data[j] = value;
+                }
+            }
+        });
     }
 
     @Override
     public void fill(ByteGenerator generator) {
+        /* Generators are sequential, this loop cannot be split. */
         for (int j = 0; j < number; ++j) {
             data[j] = generator.nextByte();
         }
     }
 
     @Override
-    public void increment(byte value) {
-        for (int j = 0; j < number; ++j) {
-            data[j] += value;
-        }
+    public void increment(final byte value) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    data[j] += value;
+                }
+            }
+        });
     }
 
     @Override
-    public void decrement(byte value) {
-        for (int j = 0; j < number; ++j) {
-            data[j] -= value;
-        }
+    public void decrement(final byte value) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    data[j] -= value;
+                }
+            }
+        });
     }
 
     @Override
-    public void scale(byte value) {
-        for (int j = 0; j < number; ++j) {
-            data[j] *= value;
-        }
+    public void scale(final byte value) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    data[j] *= value;
+                }
+            }
+        });
     }
 
     @Override
-    public void map(ByteFunction function) {
-        for (int j = 0; j < number; ++j) {
-            data[j] = function.apply(data[j]);
-        }
+    public void map(final ByteFunction function) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    data[j] = function.apply(data[j]);
+                }
+            }
+        });
     }
 
     @Override
     public void scan(ByteScanner scanner)  {
-        scanner.initialize(data[0]);
-        for (int j = 1; j < number; ++j) {
-            scanner.update(data[j]);
+        if (scanner instanceof ByteMergeableScanner) {
+            final ByteMergeableScanner root = (ByteMergeableScanner)scanner;
+            Parallel.reduce(number, new Parallel.Reduction<ByteMergeableScanner>() {
+                @Override
+                public ByteMergeableScanner compute(int first, int last) {
+                    ByteMergeableScanner part = (first == 0 ? root : root.spawn());
+                    part.initialize(data[first]);
+                    for (int j = first + 1; j < last; ++j) {
+                        part.update(data[j]);
+                    }
+                    return part;
+                }
+
+                @Override
+                public ByteMergeableScanner combine(ByteMergeableScanner left,
+                        ByteMergeableScanner right) {
+                    left.merge(right);
+                    return left;
+                }
+            });
+        } else {
+            scanner.initialize(data[0]);
+            for (int j = 1; j < number; ++j) {
+                scanner.update(data[j]);
+            }
         }
     }
 
+    @Override
+    public int min() {
+        return Parallel.reduce(number, new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int j = first;
+                int minValue = (data[j] & 0xFF);
+                while (++j < last) {
+                    int value = (data[j] & 0xFF);
+                    if (value < minValue) {
+                        minValue = value;
+                    }
+                }
+                return minValue;
+            }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return (right < left ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public int max() {
+        return Parallel.reduce(number, new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int j = first;
+                int maxValue = (data[j] & 0xFF);
+                while (++j < last) {
+                    int value = (data[j] & 0xFF);
+                    if (value > maxValue) {
+                        maxValue = value;
+                    }
+                }
+                return maxValue;
+            }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return (right > left ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public void getMinAndMax(int[] mm) {
+        int[] result = Parallel.reduce(number, new Parallel.Reduction<int[]>() {
+            @Override
+            public int[] compute(int first, int last) {
+                int j = first;
+                int minValue = (data[j] & 0xFF);
+                int maxValue = minValue;
+                while (++j < last) {
+                    int value = (data[j] & 0xFF);
+                    if (value < minValue) {
+                        minValue = value;
+                    }
+                    if (value > maxValue) {
+                        maxValue = value;
+                    }
+                }
+                return new int[]{minValue, maxValue};
+            }
+
+            @Override
+            public int[] combine(int[] left, int[] right) {
+                if (right[0] < left[0]) {
+                    left[0] = right[0];
+                }
+                if (right[1] > left[1]) {
+                    left[1] = right[1];
+                }
+                return left;
+            }
+        });
+        mm[0] = result[0];
+        mm[1] = result[1];
+    }
+
+    @Override
+    public int sum() {
+        return Parallel.reduce(number, new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int totalValue = 0;
+                for (int j = first; j < last; ++j) {
+                    totalValue += (data[j] & 0xFF);
+                }
+                return totalValue;
+            }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return left + right;
+            }
+        });
+    }
+
+    @Override
+    public Short2D toShort() {
+        final short[] out = new short[number];
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    out[j] = (short)data[j];
+                }
+            }
+        });
+        return new FlatShort2D(out, shape);
+    }
+
+    @Override
+    public Int2D toInt() {
+        final int[] out = new int[number];
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    out[j] = (int)data[j];
+                }
+            }
+        });
+        return new FlatInt2D(out, shape);
+    }
+
+    @Override
+    public Long2D toLong() {
+        final long[] out = new long[number];
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    out[j] = (long)data[j];
+                }
+            }
+        });
+        return new FlatLong2D(out, shape);
+    }
+
+    @Override
+    public Float2D toFloat() {
+        final float[] out = new float[number];
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    out[j] = (float)data[j];
+                }
+            }
+        });
+        return new FlatFloat2D(out, shape);
+    }
+
+    @Override
+    public Double2D toDouble() {
+        final double[] out = new double[number];
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    out[j] = (double)data[j];
+                }
+            }
+        });
+        return new FlatDouble2D(out, shape);
+    }
+
     @Override
     public byte[] flatten(boolean forceCopy) {
         if (forceCopy) {
@@ -31,7 +31,16 @@ import mitiv.base.indexing.Range;
 import mitiv.base.mapping.DoubleFunction;
 import mitiv.base.mapping.DoubleScanner;
 import mitiv.random.DoubleGenerator;
+import mitiv.array.Byte1D;
+import mitiv.array.Short1D;
+import mitiv.array.Int1D;
+import mitiv.array.Long1D;
+import mitiv.array.Float1D;
+import mitiv.array.ShapedArray;
+import mitiv.base.Parallel;
 import mitiv.base.Shape;
+import mitiv.base.Summation;
+import mitiv.base.mapping.DoubleMergeableScanner;
 import mitiv.base.indexing.CompiledRange;
 import mitiv.exception.NonConformableArrayException;
 
@@ -41,7 +50,7 @@ import mitiv.exception.NonConformableArrayException;
  *
  * @author Éric Thiébaut.
  */
-public class FlatDouble1D extends Double1D {
+public class FlatDouble1D extends Double1D implements StorageLayout {
     static final int order = COLUMN_MAJOR;
     final double[] data;
 
@@ -114,55 +123,293 @@ public class FlatDouble1D extends Double1D {
     }
 
     @Override
-    public void fill(double value) {
-         for (int j = 0; j < number; ++j) {
-            data[j] = value;
-         }
+    public Object getStorage() {
+        return data;
+    }
+
+    @Override
+    public int getStorageOffset() {
+        return 0;
+    }
+
+    @Override
+    public int[] getStorageStrides() {
+        return new int[]{1};
+    }
+
+    @Override
+    public Double1D permute(int... perm) {
+        return new StriddenDouble1D(data, 0,
+                Helper.permute(getStorageStrides(), perm),
+                Helper.permute(shape.copyDimensions(), perm));
+    }
+
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! BlockCopy.copy(arr, this)) {
+            super.assign(arr);
+        }
+    }
+
+    @Override
+    public void fill(final double value) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    data[j] = value;
+                }
+            }
+        });
     }
 
     @Override
     public void fill(DoubleGenerator generator) {
+        /* Generators are sequential, this loop cannot be split. */
         for (int j = 0; j < number; ++j) {
             data[j] = generator.nextDouble();
         }
     }
 
     @Override
-    public void increment(double value) {
-        for (int j = 0; j < number; ++j) {
-            data[j] += value;
-        }
+    public void increment(final double value) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    data[j] += value;
+                }
+            }
+        });
     }
 
     @Override
-    public void decrement(double value) {
-        for (int j = 0; j < number; ++j) {
-            data[j] -= value;
-        }
+    public void decrement(final double value) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    data[j] -= value;
+                }
+            }
+        });
     }
 
     @Override
-    public void scale(double value) {
-        for (int j = 0; j < number; ++j) {
-            data[j] *= value;
-        }
+    public void scale(final double value) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    data[j] *= value;
+                }
+            }
+        });
     }
 
     @Override
-    public void map(DoubleFunction function) {
-        for (int j = 0; j < number; ++j) {
-            data[j] = function.apply(data[j]);
-        }
+    public void map(final DoubleFunction function) {
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    data[j] = function.apply(data[j]);
+                }
+            }
+        });
     }
 
     @Override
     public void scan(DoubleScanner scanner)  {
-        scanner.initialize(data[0]);
-        for (int j = 1; j < number; ++j) {
-            scanner.update(data[j]);
+        if (scanner instanceof DoubleMergeableScanner) {
+            final DoubleMergeableScanner root = (DoubleMergeableScanner)scanner;
+            Parallel.reduce(number, new Parallel.Reduction<DoubleMergeableScanner>() {
+                @Override
+                public DoubleMergeableScanner compute(int first, int last) {
+                    DoubleMergeableScanner part = (first == 0 ? root : root.spawn());
+                    part.initialize(data[first]);
+                    for (int j = first + 1; j < last; ++j) {
+                        part.update(data[j]);
+                    }
+                    return part;
+                }
+
+                @Override
+                public DoubleMergeableScanner combine(DoubleMergeableScanner left,
+                        DoubleMergeableScanner right) {
+                    left.merge(right);
+                    return left;
+                }
+            });
+        } else {
+            scanner.initialize(data[0]);
+            for (int j = 1; j < number; ++j) {
+                scanner.update(data[j]);
+            }
         }
     }
 
+    @Override
+    public double min() {
+        return Parallel.reduce(number, new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                int j = first;
+                double minValue = data[j];
+                while (++j < last) {
+                    double value = data[j];
+                    if (value < minValue || minValue != minValue) {
+                        minValue = value;
+                    }
+                }
+                return minValue;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return (right < left || Double.isNaN(left) ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public double max() {
+        return Parallel.reduce(number, new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                int j = first;
+                double maxValue = data[j];
+                while (++j < last) {
+                    double value = data[j];
+                    if (value > maxValue || maxValue != maxValue) {
+                        maxValue = value;
+                    }
+                }
+                return maxValue;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return (right > left || Double.isNaN(left) ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public void getMinAndMax(double[] mm) {
+        double[] result = Parallel.reduce(number, new Parallel.Reduction<double[]>() {
+            @Override
+            public double[] compute(int first, int last) {
+                int j = first;
+                double minValue = data[j];
+                double maxValue = minValue;
+                while (++j < last) {
+                    double value = data[j];
+                    if (value < minValue || minValue != minValue) {
+                        minValue = value;
+                    }
+                    if (value > maxValue || maxValue != maxValue) {
+                        maxValue = value;
+                    }
+                }
+                return new double[]{minValue, maxValue};
+            }
+
+            @Override
+            public double[] combine(double[] left, double[] right) {
+                if (right[0] < left[0] || left[0] != left[0]) {
+                    left[0] = right[0];
+                }
+                if (right[1] > left[1] || left[1] != left[1]) {
+                    left[1] = right[1];
+                }
+                return left;
+            }
+        });
+        mm[0] = result[0];
+        mm[1] = result[1];
+    }
+
+    @Override
+    public double sum() {
+        return (double)Summation.sum(data, 0, number);
+    }
+
+    @Override
+    public double average() {
+        return Summation.sum(data, 0, number)/number;
+    }
+
+    @Override
+    public Byte1D toByte() {
+        final byte[] out = new byte[number];
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    out[j] = (byte)data[j];
+                }
+            }
+        });
+        return new FlatByte1D(out, shape);
+    }
+
+    @Override
+    public Short1D toShort() {
+        final short[] out = new short[number];
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    out[j] = (short)data[j];
+                }
+            }
+        });
+        return new FlatShort1D(out, shape);
+    }
+
+    @Override
+    public Int1D toInt() {
+        final int[] out = new int[number];
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    out[j] = (int)data[j];
+                }
+            }
+        });
+        return new FlatInt1D(out, shape);
+    }
+
+    @Override
+    public Long1D toLong() {
+        final long[] out = new long[number];
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    out[j] = (long)data[j];
+                }
+            }
+        });
+        return new FlatLong1D(out, shape);
+    }
+
+    @Override
+    public Float1D toFloat() {
+        final float[] out = new float[number];
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    out[j] = (float)data[j];
+                }
+            }
+        });
+        return new FlatFloat1D(out, shape);
+    }
+
     @Override
     public double[] flatten(boolean forceCopy) {
         if (forceCopy) {
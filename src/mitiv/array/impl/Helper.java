@@ -48,6 +48,64 @@ public class Helper {
         return index;
     }
 
+    /**
+     * Permute a list of values.
+     * @param values - The values (e.g. the dimensions or the strides of an
+     *                 array).
+     * @param perm   - The permutation: a list of the indices 0, 1, ...,
+     *                 {@code values.length - 1} in any order.  The same
+     *                 rules as for {@link mitiv.base.indexing.Range} apply
+     *                 for negative indices.
+     * @return A new list whose {@code k}-th value is
+     *         {@code values[perm[k]]}.
+     * @throws IllegalArgumentException if {@code perm} is not a valid
+     *         permutation.
+     */
+    public static int[] permute(int[] values, int[] perm) {
+        int n = values.length;
+        if (perm == null || perm.length != n) {
+            throw new IllegalArgumentException("Invalid permutation.");
+        }
+        int[] result = new int[n];
+        boolean[] seen = new boolean[n];
+        for (int k = 0; k < n; ++k) {
+            int p = perm[k];
+            if (p < 0) {
+                p += n;
+            }
+            if (p < 0 || p >= n || seen[p]) {
+                throw new IllegalArgumentException("Invalid permutation.");
+            }
+            seen[p] = true;
+            result[k] = values[p];
+        }
+        return result;
+    }
+
+    /**
+     * Permute a list of tables.
+     * @param values - The tables (e.g. the indirection tables of an array).
+     * @param perm   - The permutation.
+     * @return A new list whose {@code k}-th table is
+     *         {@code values[perm[k]]}, the tables are not copied.
+     * @throws IllegalArgumentException if {@code perm} is not a valid
+     *         permutation.
+     * @see #permute(int[], int[])
+     */
+    public static int[][] permute(int[][] values, int[] perm) {
+        int n = values.length;
+        int[] index = new int[n];
+        for (int k = 0; k < n; ++k) {
+            index[k] = k;
+        }
+        index = permute(index, perm);
+        int[][] result = new int[n][];
+        for (int k = 0; k < n; ++k) {
+            result[k] = values[index[k]];
+        }
+        return result;
+    }
+
 
     /*=======================================================================*/
     /* SELECTION */
@@ -110,7 +168,7 @@ public class Helper {
             if (first < 0 || last >= length) {
                 badEndPoints();
             }
-            length = (last - first + 1)/step;
+            length = (last - first)/step + 1;
         } else {
             if (step > 0) {
                 badStepDirection();
@@ -121,7 +179,7 @@ public class Helper {
             if (last < 0 || first >= length) {
                 badEndPoints();
             }
-            length = (first - last + 1)/(-step);
+            length = (first - last)/(-step) + 1;
         }
         int[] idx = new int[length];
         for (int j = 0, k = first; j < length; ++j, k += step) {
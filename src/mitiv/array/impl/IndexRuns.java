@@ -0,0 +1,97 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array.impl;
+
+/**
+ * A list of indices compiled into runs of equally spaced indices.
+ *
+ * <p>
+ * The indices {@code idx[0], idx[1], ...} of a list are split into runs
+ * such that the {@code r}-th run is made of the {@code length[r]} indices
+ * {@code offset[r] + stride[r]*n} for {@code n = 0, 1, ...}.  Lists of
+ * selected indices are frequently made of a few long runs (e.g. cropped
+ * ranges or the two runs of a circular shift), the selected arrays then
+ * walk through their storage by strided loops rather than by indirection.
+ * </p>
+ */
+final class IndexRuns {
+    final int count;    // number of runs
+    final int[] offset; // first index of each run
+    final int[] stride; // step between successive indices of each run
+    final int[] length; // number of indices in each run
+
+    /**
+     * Compile a list of indices.
+     * @param idx - The list of indices.
+     */
+    IndexRuns(int[] idx) {
+        int n = idx.length;
+        /* Count the runs. */
+        int count = 0;
+        for (int i = 0; i < n; i = next(idx, i)) {
+            ++count;
+        }
+        this.count = count;
+        offset = new int[count];
+        stride = new int[count];
+        length = new int[count];
+        int r = 0;
+        for (int i = 0; i < n; ) {
+            int j = next(idx, i);
+            offset[r] = idx[i];
+            stride[r] = (j - i > 1 ? idx[i + 1] - idx[i] : 1);
+            length[r] = j - i;
+            ++r;
+            i = j;
+        }
+    }
+
+    /* Get the index of the first element after the run starting at i. */
+    private static int next(int[] idx, int i) {
+        int n = idx.length;
+        if (i + 2 > n) {
+            return n;
+        }
+        int step = idx[i + 1] - idx[i];
+        int j = i + 2;
+        while (j < n && idx[j] - idx[j - 1] == step) {
+            ++j;
+        }
+        return j;
+    }
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
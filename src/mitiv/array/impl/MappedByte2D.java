@@ -0,0 +1,196 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array.impl;
+
+import mitiv.array.Byte1D;
+import mitiv.array.Byte2D;
+import mitiv.base.indexing.Range;
+import mitiv.base.mapping.ByteFunction;
+import mitiv.base.mapping.ByteScanner;
+import mitiv.random.ByteGenerator;
+import mitiv.base.indexing.CompiledRange;
+
+
+/**
+ * Memory mapped implementation of 2-dimensional arrays of byte's.
+ *
+ * <p>
+ * The elements are stored in a file mapped in memory (see
+ * {@link MappedStorage}), they are only read when accessed.  Slices and
+ * views defined by ranges share the same storage and are built in constant
+ * time.  Views defined by lists of indices also share the same storage
+ * (see {@link MappedSelectedByte2D}).  Slices of a 1-dimensional array
+ * (which are scalars) are however copies.
+ * </p>
+ */
+public class MappedByte2D extends Byte2D {
+    final int order;
+    final MappedStorage storage;
+    final int offset;
+    final int stride1;
+    final int stride2;
+
+    public MappedByte2D(MappedStorage storage, int offset, int[] stride, int[] dims) {
+        super(dims);
+        if (stride.length != 2) {
+            throw new IllegalArgumentException("There must be as many strides as the rank.");
+        }
+        this.storage = storage;
+        this.offset = offset;
+        stride1 = stride[0];
+        stride2 = stride[1];
+        this.order = Byte2D.checkViewStrides(storage.getNumber(), offset, stride1, stride2, dim1, dim2);
+    }
+
+    public MappedByte2D(MappedStorage storage, int offset, int stride1, int stride2, int dim1, int dim2) {
+        super(dim1, dim2);
+        this.storage = storage;
+        this.offset = offset;
+        this.stride1 = stride1;
+        this.stride2 = stride2;
+        this.order = Byte2D.checkViewStrides(storage.getNumber(), offset, stride1, stride2, dim1, dim2);
+    }
+
+    @Override
+    public void checkSanity() {
+        Byte2D.checkViewStrides(storage.getNumber(), offset, stride1, stride2, dim1, dim2);
+    }
+
+    /**
+     * Get the storage of the elements of this array.
+     * @return The memory mapped storage.
+     */
+    public MappedStorage getStorage() {
+        return storage;
+    }
+
+    /* Are the elements contiguous and in column-major order? */
+    private boolean isContiguous() {
+        return (stride1 == 1 && stride2 == dim1);
+    }
+
+    final int index(int i1, int i2) {
+        return offset + stride2*i2 + stride1*i1;
+    }
+
+    @Override
+    public final byte get(int i1, int i2) {
+        return storage.getByte(offset + stride2*i2 + stride1*i1);
+    }
+
+    @Override
+    public final void set(int i1, int i2, byte value) {
+        storage.setByte(offset + stride2*i2 + stride1*i1, value);
+    }
+
+    @Override
+    public final int getOrder() {
+        return order;
+    }
+
+    @Override
+    public Byte2D permute(int... perm) {
+        return new MappedByte2D(storage, offset,
+                Helper.permute(new int[]{stride1, stride2}, perm),
+                Helper.permute(shape.copyDimensions(), perm));
+    }
+
+    @Override
+    public Byte1D slice(int idx) {
+        return new MappedByte1D(storage,
+               offset + stride2*idx, // offset
+               stride1, // strides
+               dim1); // dimensions
+    }
+
+    @Override
+    public Byte1D slice(int idx, int dim) {
+        int sliceOffset;
+        int sliceStride1;
+        int sliceDim1;
+        if (dim < 0) {
+            /* A negative index is taken with respect to the end. */
+            dim += 2;
+        }
+        if (dim == 0) {
+            /* Slice along 1st dimension. */
+            sliceOffset = offset + stride1*idx;
+            sliceStride1 = stride2;
+            sliceDim1 = dim2;
+        } else if (dim == 1) {
+            /* Slice along 2nd dimension. */
+            sliceOffset = offset + stride2*idx;
+            sliceStride1 = stride1;
+            sliceDim1 = dim1;
+        } else {
+            throw new IndexOutOfBoundsException("Dimension index out of bounds.");
+        }
+        return new MappedByte1D(storage, sliceOffset,
+                sliceStride1,
+                sliceDim1);
+    }
+
+    @Override
+    public Byte2D view(Range rng1, Range rng2) {
+        CompiledRange cr1 = new CompiledRange(rng1, dim1, offset, stride1);
+        CompiledRange cr2 = new CompiledRange(rng2, dim2, 0, stride2);
+        if (cr1.doesNothing() && cr2.doesNothing()) {
+            return this;
+        }
+        return new MappedByte2D(this.storage,
+                cr1.getOffset() + cr2.getOffset(),
+                cr1.getStride(), cr2.getStride(),
+                cr1.getNumber(), cr2.getNumber());
+    }
+
+    @Override
+    public Byte2D view(int[] sel1, int[] sel2) {
+        int[] idx1 = Helper.select(offset, stride1, dim1, sel1);
+        int[] idx2 = Helper.select(0, stride2, dim2, sel2);
+        return new MappedSelectedByte2D(storage, idx1, idx2);
+    }
+
+    @Override
+    public Byte1D as1D() {
+        if (isContiguous()) {
+            return new MappedByte1D(storage, offset, 1, number);
+        }
+        return new FlatByte1D(flatten(), number);
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,353 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array.impl;
+
+import mitiv.array.Byte1D;
+import mitiv.array.Byte7D;
+import mitiv.array.Byte8D;
+import mitiv.base.indexing.Range;
+import mitiv.base.mapping.ByteFunction;
+import mitiv.base.mapping.ByteScanner;
+import mitiv.random.ByteGenerator;
+import mitiv.base.indexing.CompiledRange;
+
+
+/**
+ * Memory mapped implementation of 8-dimensional arrays of byte's.
+ *
+ * <p>
+ * The elements are stored in a file mapped in memory (see
+ * {@link MappedStorage}), they are only read when accessed.  Slices and
+ * views defined by ranges share the same storage and are built in constant
+ * time.  Views defined by lists of indices also share the same storage
+ * (see {@link MappedSelectedByte8D}).  Slices of a 1-dimensional array
+ * (which are scalars) are however copies.
+ * </p>
+ */
+public class MappedByte8D extends Byte8D {
+    final int order;
+    final MappedStorage storage;
+    final int offset;
+    final int stride1;
+    final int stride2;
+    final int stride3;
+    final int stride4;
+    final int stride5;
+    final int stride6;
+    final int stride7;
+    final int stride8;
+
+    public MappedByte8D(MappedStorage storage, int offset, int[] stride, int[] dims) {
+        super(dims);
+        if (stride.length != 8) {
+            throw new IllegalArgumentException("There must be as many strides as the rank.");
+        }
+        this.storage = storage;
+        this.offset = offset;
+        stride1 = stride[0];
+        stride2 = stride[1];
+        stride3 = stride[2];
+        stride4 = stride[3];
+        stride5 = stride[4];
+        stride6 = stride[5];
+        stride7 = stride[6];
+        stride8 = stride[7];
+        this.order = Byte8D.checkViewStrides(storage.getNumber(), offset, stride1, stride2, stride3, stride4, stride5, stride6, stride7, stride8, dim1, dim2, dim3, dim4, dim5, dim6, dim7, dim8);
+    }
+
+    public MappedByte8D(MappedStorage storage, int offset, int stride1, int stride2, int stride3, int stride4, int stride5, int stride6, int stride7, int stride8, int dim1, int dim2, int dim3, int dim4, int dim5, int dim6, int dim7, int dim8) {
+        super(dim1, dim2, dim3, dim4, dim5, dim6, dim7, dim8);
+        this.storage = storage;
+        this.offset = offset;
+        this.stride1 = stride1;
+        this.stride2 = stride2;
+        this.stride3 = stride3;
+        this.stride4 = stride4;
+        this.stride5 = stride5;
+        this.stride6 = stride6;
+        this.stride7 = stride7;
+        this.stride8 = stride8;
+        this.order = Byte8D.checkViewStrides(storage.getNumber(), offset, stride1, stride2, stride3, stride4, stride5, stride6, stride7, stride8, dim1, dim2, dim3, dim4, dim5, dim6, dim7, dim8);
+    }
+
+    @Override
+    public void checkSanity() {
+        Byte8D.checkViewStrides(storage.getNumber(), offset, stride1, stride2, stride3, stride4, stride5, stride6, stride7, stride8, dim1, dim2, dim3, dim4, dim5, dim6, dim7, dim8);
+    }
+
+    /**
+     * Get the storage of the elements of this array.
+     * @return The memory mapped storage.
+     */
+    public MappedStorage getStorage() {
+        return storage;
+    }
+
+    /* Are the elements contiguous and in column-major order? */
+    private boolean isContiguous() {
+        return (stride1 == 1 && stride2 == dim1 && stride3 == dim2*stride2 && stride4 == dim3*stride3 && stride5 == dim4*stride4 && stride6 == dim5*stride5 && stride7 == dim6*stride6 && stride8 == dim7*stride7);
+    }
+
+    final int index(int i1, int i2, int i3, int i4, int i5, int i6, int i7, int i8) {
+        return offset + stride8*i8 + stride7*i7 + stride6*i6 + stride5*i5 + stride4*i4 + stride3*i3 + stride2*i2 + stride1*i1;
+    }
+
+    @Override
+    public final byte get(int i1, int i2, int i3, int i4, int i5, int i6, int i7, int i8) {
+        return storage.getByte(offset + stride8*i8 + stride7*i7 + stride6*i6 + stride5*i5 + stride4*i4 + stride3*i3 + stride2*i2 + stride1*i1);
+    }
+
+    @Override
+    public final void set(int i1, int i2, int i3, int i4, int i5, int i6, int i7, int i8, byte value) {
+        storage.setByte(offset + stride8*i8 + stride7*i7 + stride6*i6 + stride5*i5 + stride4*i4 + stride3*i3 + stride2*i2 + stride1*i1, value);
+    }
+
+    @Override
+    public final int getOrder() {
+        return order;
+    }
+
+    @Override
+    public Byte8D permute(int... perm) {
+        return new MappedByte8D(storage, offset,
+                Helper.permute(new int[]{stride1, stride2, stride3, stride4, stride5, stride6, stride7, stride8}, perm),
+                Helper.permute(shape.copyDimensions(), perm));
+    }
+
+    @Override
+    public Byte7D slice(int idx) {
+        return new MappedByte7D(storage,
+               offset + stride8*idx, // offset
+               stride1, stride2, stride3, stride4, stride5, stride6, stride7, // strides
+               dim1, dim2, dim3, dim4, dim5, dim6, dim7); // dimensions
+    }
+
+    @Override
+    public Byte7D slice(int idx, int dim) {
+        int sliceOffset;
+        int sliceStride1, sliceStride2, sliceStride3, sliceStride4, sliceStride5, sliceStride6, sliceStride7;
+        int sliceDim1, sliceDim2, sliceDim3, sliceDim4, sliceDim5, sliceDim6, sliceDim7;
+        if (dim < 0) {
+            /* A negative index is taken with respect to the end. */
+            dim += 8;
+        }
+        if (dim == 0) {
+            /* Slice along 1st dimension. */
+            sliceOffset = offset + stride1*idx;
+            sliceStride1 = stride2;
+            sliceStride2 = stride3;
+            sliceStride3 = stride4;
+            sliceStride4 = stride5;
+            sliceStride5 = stride6;
+            sliceStride6 = stride7;
+            sliceStride7 = stride8;
+            sliceDim1 = dim2;
+            sliceDim2 = dim3;
+            sliceDim3 = dim4;
+            sliceDim4 = dim5;
+            sliceDim5 = dim6;
+            sliceDim6 = dim7;
+            sliceDim7 = dim8;
+        } else if (dim == 1) {
+            /* Slice along 2nd dimension. */
+            sliceOffset = offset + stride2*idx;
+            sliceStride1 = stride1;
+            sliceStride2 = stride3;
+            sliceStride3 = stride4;
+            sliceStride4 = stride5;
+            sliceStride5 = stride6;
+            sliceStride6 = stride7;
+            sliceStride7 = stride8;
+            sliceDim1 = dim1;
+            sliceDim2 = dim3;
+            sliceDim3 = dim4;
+            sliceDim4 = dim5;
+            sliceDim5 = dim6;
+            sliceDim6 = dim7;
+            sliceDim7 = dim8;
+        } else if (dim == 2) {
+            /* Slice along 3rd dimension. */
+            sliceOffset = offset + stride3*idx;
+            sliceStride1 = stride1;
+            sliceStride2 = stride2;
+            sliceStride3 = stride4;
+            sliceStride4 = stride5;
+            sliceStride5 = stride6;
+            sliceStride6 = stride7;
+            sliceStride7 = stride8;
+            sliceDim1 = dim1;
+            sliceDim2 = dim2;
+            sliceDim3 = dim4;
+            sliceDim4 = dim5;
+            sliceDim5 = dim6;
+            sliceDim6 = dim7;
+            sliceDim7 = dim8;
+        } else if (dim == 3) {
+            /* Slice along 4th dimension. */
+            sliceOffset = offset + stride4*idx;
+            sliceStride1 = stride1;
+            sliceStride2 = stride2;
+            sliceStride3 = stride3;
+            sliceStride4 = stride5;
+            sliceStride5 = stride6;
+            sliceStride6 = stride7;
+            sliceStride7 = stride8;
+            sliceDim1 = dim1;
+            sliceDim2 = dim2;
+            sliceDim3 = dim3;
+            sliceDim4 = dim5;
+            sliceDim5 = dim6;
+            sliceDim6 = dim7;
+            sliceDim7 = dim8;
+        } else if (dim == 4) {
+            /* Slice along 5th dimension. */
+            sliceOffset = offset + stride5*idx;
+            sliceStride1 = stride1;
+            sliceStride2 = stride2;
+            sliceStride3 = stride3;
+            sliceStride4 = stride4;
+            sliceStride5 = stride6;
+            sliceStride6 = stride7;
+            sliceStride7 = stride8;
+            sliceDim1 = dim1;
+            sliceDim2 = dim2;
+            sliceDim3 = dim3;
+            sliceDim4 = dim4;
+            sliceDim5 = dim6;
+            sliceDim6 = dim7;
+            sliceDim7 = dim8;
+        } else if (dim == 5) {
+            /* Slice along 6th dimension. */
+            sliceOffset = offset + stride6*idx;
+            sliceStride1 = stride1;
+            sliceStride2 = stride2;
+            sliceStride3 = stride3;
+            sliceStride4 = stride4;
+            sliceStride5 = stride5;
+            sliceStride6 = stride7;
+            sliceStride7 = stride8;
+            sliceDim1 = dim1;
+            sliceDim2 = dim2;
+            sliceDim3 = dim3;
+            sliceDim4 = dim4;
+            sliceDim5 = dim5;
+            sliceDim6 = dim7;
+            sliceDim7 = dim8;
+        } else if (dim == 6) {
+            /* Slice along 7th dimension. */
+            sliceOffset = offset + stride7*idx;
+            sliceStride1 = stride1;
+            sliceStride2 = stride2;
+            sliceStride3 = stride3;
+            sliceStride4 = stride4;
+            sliceStride5 = stride5;
+            sliceStride6 = stride6;
+            sliceStride7 = stride8;
+            sliceDim1 = dim1;
+            sliceDim2 = dim2;
+            sliceDim3 = dim3;
+            sliceDim4 = dim4;
+            sliceDim5 = dim5;
+            sliceDim6 = dim6;
+            sliceDim7 = dim8;
+        } else if (dim == 7) {
+            /* Slice along 8th dimension. */
+            sliceOffset = offset + stride8*idx;
+            sliceStride1 = stride1;
+            sliceStride2 = stride2;
+            sliceStride3 = stride3;
+            sliceStride4 = stride4;
+            sliceStride5 = stride5;
+            sliceStride6 = stride6;
+            sliceStride7 = stride7;
+            sliceDim1 = dim1;
+            sliceDim2 = dim2;
+            sliceDim3 = dim3;
+            sliceDim4 = dim4;
+            sliceDim5 = dim5;
+            sliceDim6 = dim6;
+            sliceDim7 = dim7;
+        } else {
+            throw new IndexOutOfBoundsException("Dimension index out of bounds.");
+        }
+        return new MappedByte7D(storage, sliceOffset,
+                sliceStride1, sliceStride2, sliceStride3, sliceStride4, sliceStride5, sliceStride6, sliceStride7,
+                sliceDim1, sliceDim2, sliceDim3, sliceDim4, sliceDim5, sliceDim6, sliceDim7);
+    }
+
+    @Override
+    public Byte8D view(Range rng1, Range rng2, Range rng3, Range rng4, Range rng5, Range rng6, Range rng7, Range rng8) {
+        CompiledRange cr1 = new CompiledRange(rng1, dim1, offset, stride1);
+        CompiledRange cr2 = new CompiledRange(rng2, dim2, 0, stride2);
+        CompiledRange cr3 = new CompiledRange(rng3, dim3, 0, stride3);
+        CompiledRange cr4 = new CompiledRange(rng4, dim4, 0, stride4);
+        CompiledRange cr5 = new CompiledRange(rng5, dim5, 0, stride5);
+        CompiledRange cr6 = new CompiledRange(rng6, dim6, 0, stride6);
+        CompiledRange cr7 = new CompiledRange(rng7, dim7, 0, stride7);
+        CompiledRange cr8 = new CompiledRange(rng8, dim8, 0, stride8);
+        if (cr1.doesNothing() && cr2.doesNothing() && cr3.doesNothing() && cr4.doesNothing() && cr5.doesNothing() && cr6.doesNothing() && cr7.doesNothing() && cr8.doesNothing()) {
+            return this;
+        }
+        return new MappedByte8D(this.storage,
+                cr1.getOffset() + cr2.getOffset() + cr3.getOffset() + cr4.getOffset() + cr5.getOffset() + cr6.getOffset() + cr7.getOffset() + cr8.getOffset(),
+                cr1.getStride(), cr2.getStride(), cr3.getStride(), cr4.getStride(), cr5.getStride(), cr6.getStride(), cr7.getStride(), cr8.getStride(),
+                cr1.getNumber(), cr2.getNumber(), cr3.getNumber(), cr4.getNumber(), cr5.getNumber(), cr6.getNumber(), cr7.getNumber(), cr8.getNumber());
+    }
+
+    @Override
+    public Byte8D view(int[] sel1, int[] sel2, int[] sel3, int[] sel4, int[] sel5, int[] sel6, int[] sel7, int[] sel8) {
+        int[] idx1 = Helper.select(offset, stride1, dim1, sel1);
+        int[] idx2 = Helper.select(0, stride2, dim2, sel2);
+        int[] idx3 = Helper.select(0, stride3, dim3, sel3);
+        int[] idx4 = Helper.select(0, stride4, dim4, sel4);
+        int[] idx5 = Helper.select(0, stride5, dim5, sel5);
+        int[] idx6 = Helper.select(0, stride6, dim6, sel6);
+        int[] idx7 = Helper.select(0, stride7, dim7, sel7);
+        int[] idx8 = Helper.select(0, stride8, dim8, sel8);
+        return new MappedSelectedByte8D(storage, idx1, idx2, idx3, idx4, idx5, idx6, idx7, idx8);
+    }
+
+    @Override
+    public Byte1D as1D() {
+        if (isContiguous()) {
+            return new MappedByte1D(storage, offset, 1, number);
+        }
+        return new FlatByte1D(flatten(), number);
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,213 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array.impl;
+
+import mitiv.array.Double1D;
+import mitiv.array.Double2D;
+import mitiv.array.Double3D;
+import mitiv.base.indexing.Range;
+import mitiv.base.mapping.DoubleFunction;
+import mitiv.base.mapping.DoubleScanner;
+import mitiv.random.DoubleGenerator;
+import mitiv.base.indexing.CompiledRange;
+
+
+/**
+ * Memory mapped implementation of 3-dimensional arrays of double's.
+ *
+ * <p>
+ * The elements are stored in a file mapped in memory (see
+ * {@link MappedStorage}), they are only read when accessed.  Slices and
+ * views defined by ranges share the same storage and are built in constant
+ * time.  Views defined by lists of indices also share the same storage
+ * (see {@link MappedSelectedDouble3D}).  Slices of a 1-dimensional array
+ * (which are scalars) are however copies.
+ * </p>
+ */
+public class MappedDouble3D extends Double3D {
+    final int order;
+    final MappedStorage storage;
+    final int offset;
+    final int stride1;
+    final int stride2;
+    final int stride3;
+
+    public MappedDouble3D(MappedStorage storage, int offset, int[] stride, int[] dims) {
+        super(dims);
+        if (stride.length != 3) {
+            throw new IllegalArgumentException("There must be as many strides as the rank.");
+        }
+        this.storage = storage;
+        this.offset = offset;
+        stride1 = stride[0];
+        stride2 = stride[1];
+        stride3 = stride[2];
+        this.order = Double3D.checkViewStrides(storage.getNumber(), offset, stride1, stride2, stride3, dim1, dim2, dim3);
+    }
+
+    public MappedDouble3D(MappedStorage storage, int offset, int stride1, int stride2, int stride3, int dim1, int dim2, int dim3) {
+        super(dim1, dim2, dim3);
+        this.storage = storage;
+        this.offset = offset;
+        this.stride1 = stride1;
+        this.stride2 = stride2;
+        this.stride3 = stride3;
+        this.order = Double3D.checkViewStrides(storage.getNumber(), offset, stride1, stride2, stride3, dim1, dim2, dim3);
+    }
+
+    @Override
+    public void checkSanity() {
+        Double3D.checkViewStrides(storage.getNumber(), offset, stride1, stride2, stride3, dim1, dim2, dim3);
+    }
+
+    /**
+     * Get the storage of the elements of this array.
+     * @return The memory mapped storage.
+     */
+    public MappedStorage getStorage() {
+        return storage;
+    }
+
+    /* Are the elements contiguous and in column-major order? */
+    private boolean isContiguous() {
+        return (stride1 == 1 && stride2 == dim1 && stride3 == dim2*stride2);
+    }
+
+    final int index(int i1, int i2, int i3) {
+        return offset + stride3*i3 + stride2*i2 + stride1*i1;
+    }
+
+    @Override
+    public final double get(int i1, int i2, int i3) {
+        return storage.getDouble(offset + stride3*i3 + stride2*i2 + stride1*i1);
+    }
+
+    @Override
+    public final void set(int i1, int i2, int i3, double value) {
+        storage.setDouble(offset + stride3*i3 + stride2*i2 + stride1*i1, value);
+    }
+
+    @Override
+    public final int getOrder() {
+        return order;
+    }
+
+    @Override
+    public Double3D permute(int... perm) {
+        return new MappedDouble3D(storage, offset,
+                Helper.permute(new int[]{stride1, stride2, stride3}, perm),
+                Helper.permute(shape.copyDimensions(), perm));
+    }
+
+    @Override
+    public Double2D slice(int idx) {
+        return new MappedDouble2D(storage,
+               offset + stride3*idx, // offset
+               stride1, stride2, // strides
+               dim1, dim2); // dimensions
+    }
+
+    @Override
+    public Double2D slice(int idx, int dim) {
+        int sliceOffset;
+        int sliceStride1, sliceStride2;
+        int sliceDim1, sliceDim2;
+        if (dim < 0) {
+            /* A negative index is taken with respect to the end. */
+            dim += 3;
+        }
+        if (dim == 0) {
+            /* Slice along 1st dimension. */
+            sliceOffset = offset + stride1*idx;
+            sliceStride1 = stride2;
+            sliceStride2 = stride3;
+            sliceDim1 = dim2;
+            sliceDim2 = dim3;
+        } else if (dim == 1) {
+            /* Slice along 2nd dimension. */
+            sliceOffset = offset + stride2*idx;
+            sliceStride1 = stride1;
+            sliceStride2 = stride3;
+            sliceDim1 = dim1;
+            sliceDim2 = dim3;
+        } else if (dim == 2) {
+            /* Slice along 3rd dimension. */
+            sliceOffset = offset + stride3*idx;
+            sliceStride1 = stride1;
+            sliceStride2 = stride2;
+            sliceDim1 = dim1;
+            sliceDim2 = dim2;
+        } else {
+            throw new IndexOutOfBoundsException("Dimension index out of bounds.");
+        }
+        return new MappedDouble2D(storage, sliceOffset,
+                sliceStride1, sliceStride2,
+                sliceDim1, sliceDim2);
+    }
+
+    @Override
+    public Double3D view(Range rng1, Range rng2, Range rng3) {
+        CompiledRange cr1 = new CompiledRange(rng1, dim1, offset, stride1);
+        CompiledRange cr2 = new CompiledRange(rng2, dim2, 0, stride2);
+        CompiledRange cr3 = new CompiledRange(rng3, dim3, 0, stride3);
+        if (cr1.doesNothing() && cr2.doesNothing() && cr3.doesNothing()) {
+            return this;
+        }
+        return new MappedDouble3D(this.storage,
+                cr1.getOffset() + cr2.getOffset() + cr3.getOffset(),
+                cr1.getStride(), cr2.getStride(), cr3.getStride(),
+                cr1.getNumber(), cr2.getNumber(), cr3.getNumber());
+    }
+
+    @Override
+    public Double3D view(int[] sel1, int[] sel2, int[] sel3) {
+        int[] idx1 = Helper.select(offset, stride1, dim1, sel1);
+        int[] idx2 = Helper.select(0, stride2, dim2, sel2);
+        int[] idx3 = Helper.select(0, stride3, dim3, sel3);
+        return new MappedSelectedDouble3D(storage, idx1, idx2, idx3);
+    }
+
+    @Override
+    public Double1D as1D() {
+        if (isContiguous()) {
+            return new MappedDouble1D(storage, offset, 1, number);
+        }
+        return new FlatDouble1D(flatten(), number);
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,176 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array.impl;
+
+import mitiv.array.Float1D;
+import mitiv.array.FloatScalar;
+import mitiv.base.indexing.Range;
+import mitiv.base.mapping.FloatFunction;
+import mitiv.base.mapping.FloatScanner;
+import mitiv.random.FloatGenerator;
+import mitiv.base.indexing.CompiledRange;
+
+
+/**
+ * Memory mapped implementation of 1-dimensional arrays of float's.
+ *
+ * <p>
+ * The elements are stored in a file mapped in memory (see
+ * {@link MappedStorage}), they are only read when accessed.  Slices and
+ * views defined by ranges share the same storage and are built in constant
+ * time.  Views defined by lists of indices also share the same storage
+ * (see {@link MappedSelectedFloat1D}).  Slices of a 1-dimensional array
+ * (which are scalars) are however copies.
+ * </p>
+ */
+public class MappedFloat1D extends Float1D {
+    final int order;
+    final MappedStorage storage;
+    final int offset;
+    final int stride1;
+
+    public MappedFloat1D(MappedStorage storage, int offset, int[] stride, int[] dims) {
+        super(dims);
+        if (stride.length != 1) {
+            throw new IllegalArgumentException("There must be as many strides as the rank.");
+        }
+        this.storage = storage;
+        this.offset = offset;
+        stride1 = stride[0];
+        this.order = Float1D.checkViewStrides(storage.getNumber(), offset, stride1, dim1);
+    }
+
+    public MappedFloat1D(MappedStorage storage, int offset, int stride1, int dim1) {
+        super(dim1);
+        this.storage = storage;
+        this.offset = offset;
+        this.stride1 = stride1;
+        this.order = Float1D.checkViewStrides(storage.getNumber(), offset, stride1, dim1);
+    }
+
+    @Override
+    public void checkSanity() {
+        Float1D.checkViewStrides(storage.getNumber(), offset, stride1, dim1);
+    }
+
+    /**
+     * Get the storage of the elements of this array.
+     * @return The memory mapped storage.
+     */
+    public MappedStorage getStorage() {
+        return storage;
+    }
+
+    /* Are the elements contiguous and in column-major order? */
+    private boolean isContiguous() {
+        return (stride1 == 1);
+    }
+
+    final int index(int i1) {
+        return offset + stride1*i1;
+    }
+
+    @Override
+    public final float get(int i1) {
+        return storage.getFloat(offset + stride1*i1);
+    }
+
+    @Override
+    public final void set(int i1, float value) {
+        storage.setFloat(offset + stride1*i1, value);
+    }
+
+    @Override
+    public final int getOrder() {
+        return order;
+    }
+
+    @Override
+    public Float1D permute(int... perm) {
+        return new MappedFloat1D(storage, offset,
+                Helper.permute(new int[]{stride1}, perm),
+                Helper.permute(shape.copyDimensions(), perm));
+    }
+
+    @Override
+    public FloatScalar slice(int idx) {
+        /* A scalar cannot be backed by the mapped storage, make a copy. */
+        return new FloatScalar(storage.getFloat(offset + stride1*Helper.fixIndex(idx, dim1)));
+    }
+
+    @Override
+    public FloatScalar slice(int idx, int dim) {
+        int sliceOffset;
+        if (dim < 0) {
+            /* A negative index is taken with respect to the end. */
+            dim += 1;
+        }
+        if (dim == 0) {
+            /* Slice along 1st dimension. */
+            sliceOffset = offset + stride1*Helper.fixIndex(idx, dim1);
+        } else {
+            throw new IndexOutOfBoundsException("Dimension index out of bounds.");
+        }
+        /* A scalar cannot be backed by the mapped storage, make a copy. */
+        return new FloatScalar(storage.getFloat(sliceOffset));
+    }
+
+    @Override
+    public Float1D view(Range rng1) {
+        CompiledRange cr1 = new CompiledRange(rng1, dim1, offset, stride1);
+        if (cr1.doesNothing()) {
+            return this;
+        }
+        return new MappedFloat1D(this.storage,
+                cr1.getOffset(),
+                cr1.getStride(),
+                cr1.getNumber());
+    }
+
+    @Override
+    public Float1D view(int[] sel1) {
+        int[] idx1 = Helper.select(offset, stride1, dim1, sel1);
+        return new MappedSelectedFloat1D(storage, idx1);
+    }
+
+    @Override
+    public Float1D as1D() {
+        return this;
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
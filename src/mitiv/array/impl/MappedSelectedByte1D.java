@@ -0,0 +1,168 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package mitiv.array.impl;
+
+import mitiv.array.Byte1D;
+import mitiv.array.ByteScalar;
+import mitiv.base.indexing.Range;
+import mitiv.base.mapping.ByteFunction;
+import mitiv.base.mapping.ByteScanner;
+import mitiv.random.ByteGenerator;
+
+
+/**
+ * Memory mapped implementation of 1-dimensional arrays of byte's
+ * accessed via indirection tables.
+ *
+ * <p>
+ * This kind of arrays are the views of memory mapped arrays (see
+ * {@link MappedByte1D}) defined by lists of indices.  As for
+ * {@link SelectedByte1D}, there is one indirection table per
+ * dimension and the index of an element in the storage is the sum of the
+ * entries of the tables for its coordinates.  The elements remain in the
+ * mapped storage (see {@link MappedStorage}), they are only read when
+ * accessed.
+ * </p>
+ */
+public class MappedSelectedByte1D extends Byte1D {
+    static final int order = NONSPECIFIC_ORDER;
+    final MappedStorage storage;
+    final int[] idx1;
+
+    /**
+     * Create a new instance of a view via lists of selected indices.
+     *
+     * <p>
+     * All lists of selected indices must be immutable as, for efficiency,
+     * a simple reference is kept.
+     * </p>
+     */
+    public MappedSelectedByte1D(MappedStorage storage, int[] idx1) {
+        super(idx1.length);
+        this.storage = storage;
+        this.idx1 = idx1;
+    }
+
+    @Override
+    public final void checkSanity() {
+        int offsetMin = 0, offsetMax = 0, indexMin, indexMax;
+        indexMin = indexMax = idx1[0];
+        for (int i1 = 1; i1 < dim1; ++i1) {
+            int index = idx1[i1];
+            if (index < indexMin) indexMin = index;
+            if (index > indexMax) indexMax = index;
+        }
+        offsetMin += indexMin;
+        offsetMax += indexMax;
+        if (offsetMin < 0 || offsetMax >= storage.getNumber()) {
+            throw new IndexOutOfBoundsException("Selected indices are out of bounds.");
+        }
+    }
+
+    /**
+     * Get the storage of the elements of this array.
+     * @return The memory mapped storage.
+     */
+    public MappedStorage getStorage() {
+        return storage;
+    }
+
+    final int index(int i1) {
+        return idx1[i1];
+    }
+
+    @Override
+    public final byte get(int i1) {
+        return storage.getByte(idx1[i1]);
+    }
+
+    @Override
+    public final void set(int i1, byte value) {
+        storage.setByte(idx1[i1], value);
+    }
+
+    @Override
+    public final int getOrder() {
+        return order;
+    }
+
+
+    @Override
+    public ByteScalar slice(int idx) {
+        /* A scalar cannot be backed by the mapped storage, make a copy. */
+        return new ByteScalar(storage.getByte(idx1[Helper.fixIndex(idx, dim1)]));
+    }
+
+    @Override
+    public ByteScalar slice(int idx, int dim) {
+        Helper.fixSliceIndex(dim, 1); // throws an exception if dim != 0
+        return slice(idx);
+    }
+
+    @Override
+    public Byte1D view(Range rng1) {
+        int[] viewIndex1 = Helper.select(idx1, rng1);
+        if (viewIndex1 == idx1) {
+            return this;
+        } else {
+            return new MappedSelectedByte1D(storage, viewIndex1);
+        }
+    }
+
+    @Override
+    public Byte1D view(int[] sel1) {
+        int[] viewIndex1 = Helper.select(idx1, sel1);
+        if (viewIndex1 == idx1) {
+            return this;
+        } else {
+            return new MappedSelectedByte1D(storage, viewIndex1);
+        }
+    }
+
+    @Override
+    public Byte1D as1D() {
+        return this;
+    }
+
+    @Override
+    public Byte1D permute(int... perm) {
+        /* The indirection tables are shared, not copied. */
+        int[][] permIdx = Helper.permute(new int[][]{idx1}, perm);
+        return new MappedSelectedByte1D(storage, permIdx[0]);
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,230 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array.impl;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import mitiv.base.Traits;
+import mitiv.exception.IllegalTypeException;
+
+/**
+ * Elements of a primitive type stored in a memory mapped file.
+ *
+ * <p>
+ * The file region is mapped in chunks of at most 1 GiB (a single
+ * {@link MappedByteBuffer} cannot exceed 2 GiB), elements never straddle two
+ * chunks.  The values are read and written in the byte order given at
+ * construction, they are only transferred (by the operating system) when
+ * accessed.  The mapping remains valid after the file channel has been
+ * closed.
+ * </p><p>
+ * The accessors do not check the type of the stored elements, this is left
+ * to the mapped arrays (see {@link MappedFloat3D} for instance) which are
+ * built on top of a storage.
+ * </p>
+ */
+public final class MappedStorage {
+    /* Base 2 logarithm of the maximum number of bytes per chunk. */
+    private static final int CHUNK_BITS = 30;
+
+    private final MappedByteBuffer[] chunks;
+    private final int type;
+    private final int number;
+    private final boolean writable;
+    private final ByteOrder order;
+    private final int bits; // base 2 logarithm of the element size
+    private final int shift;
+    private final int mask;
+
+    /**
+     * Map a region of a file.
+     *
+     * @param channel  - The file channel.
+     * @param position - The position (in bytes) of the first element in the
+     *                   file.
+     * @param type     - The type of the elements (e.g. {@link Traits#FLOAT}).
+     * @param number   - The number of elements.
+     * @param order    - The byte order of the stored values.
+     * @param writable - Map the file for reading and writing?
+     * @throws IOException if the file region cannot be mapped.
+     */
+    public MappedStorage(FileChannel channel, long position, int type,
+            int number, ByteOrder order, boolean writable) throws IOException {
+        switch (type) {
+        case Traits.BYTE:
+            bits = 0;
+            break;
+        case Traits.SHORT:
+            bits = 1;
+            break;
+        case Traits.INT:
+        case Traits.FLOAT:
+            bits = 2;
+            break;
+        case Traits.LONG:
+        case Traits.DOUBLE:
+            bits = 3;
+            break;
+        default:
+            throw new IllegalTypeException();
+        }
+        if (number < 0) {
+            throw new IllegalArgumentException("Invalid number of elements.");
+        }
+        if (position < 0) {
+            throw new IllegalArgumentException("Invalid file position.");
+        }
+        this.type = type;
+        this.number = number;
+        this.writable = writable;
+        this.order = order;
+        shift = CHUNK_BITS - bits;
+        mask = (1 << shift) - 1;
+        FileChannel.MapMode mode = (writable ? FileChannel.MapMode.READ_WRITE
+                                             : FileChannel.MapMode.READ_ONLY);
+        long size = ((long)number) << bits;
+        long chunkSize = 1L << CHUNK_BITS;
+        int count = (int)((size + chunkSize - 1) >> CHUNK_BITS);
+        chunks = new MappedByteBuffer[count];
+        for (int c = 0; c < count; ++c) {
+            long start = ((long)c) << CHUNK_BITS;
+            long length = Math.min(chunkSize, size - start);
+            chunks[c] = channel.map(mode, position + start, length);
+            chunks[c].order(order);
+        }
+    }
+
+    /**
+     * Get the type of the stored elements.
+     * @return The type of the elements (e.g. {@link Traits#FLOAT}).
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * Get the number of stored elements.
+     * @return The number of elements.
+     */
+    public int getNumber() {
+        return number;
+    }
+
+    /**
+     * Check whether the stored elements can be modified.
+     * @return Whether the file has been mapped for reading and writing.
+     */
+    public boolean isWritable() {
+        return writable;
+    }
+
+    /**
+     * Get the byte order of the stored values.
+     * @return The byte order.
+     */
+    public ByteOrder getByteOrder() {
+        return order;
+    }
+
+    /**
+     * Write any pending changes to the file.
+     */
+    public void force() {
+        if (writable) {
+            for (int c = 0; c < chunks.length; ++c) {
+                chunks[c].force();
+            }
+        }
+    }
+
+    /* Byte position of an element in its chunk. */
+    private final int position(int index) {
+        return (index & mask) << bits;
+    }
+
+    public final byte getByte(int index) {
+        return chunks[index >>> shift].get(position(index));
+    }
+
+    public final void setByte(int index, byte value) {
+        chunks[index >>> shift].put(position(index), value);
+    }
+
+    public final short getShort(int index) {
+        return chunks[index >>> shift].getShort(position(index));
+    }
+
+    public final void setShort(int index, short value) {
+        chunks[index >>> shift].putShort(position(index), value);
+    }
+
+    public final int getInt(int index) {
+        return chunks[index >>> shift].getInt(position(index));
+    }
+
+    public final void setInt(int index, int value) {
+        chunks[index >>> shift].putInt(position(index), value);
+    }
+
+    public final long getLong(int index) {
+        return chunks[index >>> shift].getLong(position(index));
+    }
+
+    public final void setLong(int index, long value) {
+        chunks[index >>> shift].putLong(position(index), value);
+    }
+
+    public final float getFloat(int index) {
+        return chunks[index >>> shift].getFloat(position(index));
+    }
+
+    public final void setFloat(int index, float value) {
+        chunks[index >>> shift].putFloat(position(index), value);
+    }
+
+    public final double getDouble(int index) {
+        return chunks[index >>> shift].getDouble(position(index));
+    }
+
+    public final void setDouble(int index, double value) {
+        chunks[index >>> shift].putDouble(position(index), value);
+    }
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
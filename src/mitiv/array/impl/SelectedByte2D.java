@@ -31,13 +31,18 @@ import mitiv.base.indexing.Range;
 import mitiv.base.mapping.ByteFunction;
 import mitiv.base.mapping.ByteScanner;
 import mitiv.random.ByteGenerator;
+import mitiv.array.ShapedArray;
+import mitiv.base.Traits;
+import mitiv.exception.NonConformableArrayException;
 
 
 /**
  * Selected implementation of 2-dimensional arrays of byte's.
  *
  * This specific kind of arrays/views are accessed via indirection tables (one
- * for each dimension).
+ * for each dimension).  For bulk operations, the indirection table of the
+ * first dimension is compiled into runs of equally spaced indices (see
+ * {@link IndexRuns}) which are processed by strided loops.
  *
  * @author Éric Thiébaut.
  */
@@ -46,6 +51,7 @@ public class SelectedByte2D extends Byte2D {
     final byte[] data;
     final int[] idx1;
     final int[] idx2;
+    final IndexRuns runs1;
 
     /**
      * Create a new instance of a view via lists of selected indices.
@@ -60,6 +66,7 @@ public class SelectedByte2D extends Byte2D {
         this.data = arr;
         this.idx1 = idx1;
         this.idx2 = idx2;
+        this.runs1 = new IndexRuns(idx1);
     }
 
     @Override
@@ -109,9 +116,12 @@ public class SelectedByte2D extends Byte2D {
     public void fill(byte value) {
         for (int i2 = 0; i2 < dim2; ++i2) {
             int j2 = idx2[i2];
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = idx1[i1] + j2;
-                data[j1] = value;
+            for (int r = 0; r < runs1.count; ++r) {
+                int step = runs1.stride[r];
+                int j1 = runs1.offset[r] + j2;
+                for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                    data[j1] = value;
+                }
             }
         }
     }
@@ -120,9 +130,12 @@ public class SelectedByte2D extends Byte2D {
     public void fill(ByteGenerator generator) {
         for (int i2 = 0; i2 < dim2; ++i2) {
             int j2 = idx2[i2];
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = idx1[i1] + j2;
-                data[j1] = generator.nextByte();
+            for (int r = 0; r < runs1.count; ++r) {
+                int step = runs1.stride[r];
+                int j1 = runs1.offset[r] + j2;
+                for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                    data[j1] = generator.nextByte();
+                }
             }
         }
     }
@@ -131,9 +144,12 @@ public class SelectedByte2D extends Byte2D {
     public void increment(byte value) {
         for (int i2 = 0; i2 < dim2; ++i2) {
             int j2 = idx2[i2];
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = idx1[i1] + j2;
-                data[j1] += value;
+            for (int r = 0; r < runs1.count; ++r) {
+                int step = runs1.stride[r];
+                int j1 = runs1.offset[r] + j2;
+                for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                    data[j1] += value;
+                }
             }
         }
     }
@@ -142,9 +158,12 @@ public class SelectedByte2D extends Byte2D {
     public void decrement(byte value) {
         for (int i2 = 0; i2 < dim2; ++i2) {
             int j2 = idx2[i2];
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = idx1[i1] + j2;
-                data[j1] -= value;
+            for (int r = 0; r < runs1.count; ++r) {
+                int step = runs1.stride[r];
+                int j1 = runs1.offset[r] + j2;
+                for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                    data[j1] -= value;
+                }
             }
         }
     }
@@ -153,9 +172,12 @@ public class SelectedByte2D extends Byte2D {
     public void scale(byte value) {
         for (int i2 = 0; i2 < dim2; ++i2) {
             int j2 = idx2[i2];
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = idx1[i1] + j2;
-                data[j1] *= value;
+            for (int r = 0; r < runs1.count; ++r) {
+                int step = runs1.stride[r];
+                int j1 = runs1.offset[r] + j2;
+                for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                    data[j1] *= value;
+                }
             }
         }
     }
@@ -164,9 +186,12 @@ public class SelectedByte2D extends Byte2D {
     public void map(ByteFunction function) {
         for (int i2 = 0; i2 < dim2; ++i2) {
             int j2 = idx2[i2];
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = idx1[i1] + j2;
-                data[j1] = function.apply(data[j1]);
+            for (int r = 0; r < runs1.count; ++r) {
+                int step = runs1.stride[r];
+                int j1 = runs1.offset[r] + j2;
+                for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                    data[j1] = function.apply(data[j1]);
+                }
             }
         }
     }
@@ -176,13 +201,16 @@ public class SelectedByte2D extends Byte2D {
         boolean initialized = false;
         for (int i2 = 0; i2 < dim2; ++i2) {
             int j2 = idx2[i2];
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = idx1[i1] + j2;
-                if (initialized) {
-                    scanner.update(data[j1]);
-                } else {
-                    scanner.initialize(data[j1]);
-                    initialized = true;
+            for (int r = 0; r < runs1.count; ++r) {
+                int step = runs1.stride[r];
+                int j1 = runs1.offset[r] + j2;
+                for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                    if (initialized) {
+                        scanner.update(data[j1]);
+                    } else {
+                        scanner.initialize(data[j1]);
+                        initialized = true;
+                    }
                 }
             }
         }
@@ -191,17 +219,58 @@ public class SelectedByte2D extends Byte2D {
     @Override
     public byte[] flatten(boolean forceCopy) {
         byte[] out = new byte[number];
-        int j = -1;
+        int j = 0;
         for (int i2 = 0; i2 < dim2; ++i2) {
             int j2 = idx2[i2];
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = idx1[i1] + j2;
-                out[++j] = data[j1];
+            for (int r = 0; r < runs1.count; ++r) {
+                int step = runs1.stride[r];
+                int j1 = runs1.offset[r] + j2;
+                int n = runs1.length[r];
+                if (step == 1) {
+                    System.arraycopy(data, j1, out, j, n);
+                    j += n;
+                } else {
+                    for (; n > 0; --n, j1 += step) {
+                        out[j++] = data[j1];
+                    }
+                }
             }
         }
         return out;
     }
 
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! shape.equals(arr.getShape())) {
+            throw new NonConformableArrayException("Source and destination must have the same shape.");
+        }
+        Byte2D src;
+        if (arr.getType() == Traits.BYTE) {
+            src = (Byte2D)arr;
+        } else {
+            src = (Byte2D)arr.toByte();
+        }
+        /* Copy the source in column-major order, run by run. */
+        byte[] inp = src.flatten(false);
+        int j = 0;
+        for (int i2 = 0; i2 < dim2; ++i2) {
+            int j2 = idx2[i2];
+            for (int r = 0; r < runs1.count; ++r) {
+                int step = runs1.stride[r];
+                int j1 = runs1.offset[r] + j2;
+                int n = runs1.length[r];
+                if (step == 1) {
+                    System.arraycopy(inp, j, data, j1, n);
+                    j += n;
+                } else {
+                    for (; n > 0; --n, j1 += step) {
+                        data[j1] = inp[j++];
+                    }
+                }
+            }
+        }
+    }
+
     @Override
     public Byte1D slice(int idx) {
         int[] sliceIndex1;
@@ -272,14 +341,24 @@ public class SelectedByte2D extends Byte2D {
         int j = -1;
         for (int i2 = 0; i2 < dim2; ++i2) {
             int j2 = idx2[i2];
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = idx1[i1] + j2;
-                idx[++j] = j1;
+            for (int r = 0; r < runs1.count; ++r) {
+                int step = runs1.stride[r];
+                int j1 = runs1.offset[r] + j2;
+                for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                    idx[++j] = j1;
+                }
             }
         }
         return new SelectedByte1D(data, idx);
     }
 
+    @Override
+    public Byte2D permute(int... perm) {
+        /* The indirection tables are shared, not copied. */
+        int[][] permIdx = Helper.permute(new int[][]{idx1, idx2}, perm);
+        return new SelectedByte2D(data, permIdx[0], permIdx[1]);
+    }
+
 }
 
 /*
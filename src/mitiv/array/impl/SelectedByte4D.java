@@ -32,13 +32,18 @@ import mitiv.base.indexing.Range;
 import mitiv.base.mapping.ByteFunction;
 import mitiv.base.mapping.ByteScanner;
 import mitiv.random.ByteGenerator;
+import mitiv.array.ShapedArray;
+import mitiv.base.Traits;
+import mitiv.exception.NonConformableArrayException;
 
 
 /**
  * Selected implementation of 4-dimensional arrays of byte's.
  *
  * This specific kind of arrays/views are accessed via indirection tables (one
- * for each dimension).
+ * for each dimension).  For bulk operations, the indirection table of the
+ * first dimension is compiled into runs of equally spaced indices (see
+ * {@link IndexRuns}) which are processed by strided loops.
  *
  * @author Éric Thiébaut.
  */
@@ -49,6 +54,7 @@ public class SelectedByte4D extends Byte4D {
     final int[] idx2;
     final int[] idx3;
     final int[] idx4;
+    final IndexRuns runs1;
 
     /**
      * Create a new instance of a view via lists of selected indices.
@@ -65,6 +71,7 @@ public class SelectedByte4D extends Byte4D {
         this.idx2 = idx2;
         this.idx3 = idx3;
         this.idx4 = idx4;
+        this.runs1 = new IndexRuns(idx1);
     }
 
     @Override
@@ -134,9 +141,12 @@ public class SelectedByte4D extends Byte4D {
                 int j3 = idx3[i3] + j4;
                 for (int i2 = 0; i2 < dim2; ++i2) {
                     int j2 = idx2[i2] + j3;
-                    for (int i1 = 0; i1 < dim1; ++i1) {
-                        int j1 = idx1[i1] + j2;
-                        data[j1] = value;
+                    for (int r = 0; r < runs1.count; ++r) {
+                        int step = runs1.stride[r];
+                        int j1 = runs1.offset[r] + j2;
+                        for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                            data[j1] = value;
+                        }
                     }
                 }
             }
@@ -151,9 +161,12 @@ public class SelectedByte4D extends Byte4D {
                 int j3 = idx3[i3] + j4;
                 for (int i2 = 0; i2 < dim2; ++i2) {
                     int j2 = idx2[i2] + j3;
-                    for (int i1 = 0; i1 < dim1; ++i1) {
-                        int j1 = idx1[i1] + j2;
-                        data[j1] = generator.nextByte();
+                    for (int r = 0; r < runs1.count; ++r) {
+                        int step = runs1.stride[r];
+                        int j1 = runs1.offset[r] + j2;
+                        for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                            data[j1] = generator.nextByte();
+                        }
                     }
                 }
             }
@@ -168,9 +181,12 @@ public class SelectedByte4D extends Byte4D {
                 int j3 = idx3[i3] + j4;
                 for (int i2 = 0; i2 < dim2; ++i2) {
                     int j2 = idx2[i2] + j3;
-                    for (int i1 = 0; i1 < dim1; ++i1) {
-                        int j1 = idx1[i1] + j2;
-                        data[j1] += value;
+                    for (int r = 0; r < runs1.count; ++r) {
+                        int step = runs1.stride[r];
+                        int j1 = runs1.offset[r] + j2;
+                        for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                            data[j1] += value;
+                        }
                     }
                 }
             }
@@ -185,9 +201,12 @@ public class SelectedByte4D extends Byte4D {
                 int j3 = idx3[i3] + j4;
                 for (int i2 = 0; i2 < dim2; ++i2) {
                     int j2 = idx2[i2] + j3;
-                    for (int i1 = 0; i1 < dim1; ++i1) {
-                        int j1 = idx1[i1] + j2;
-                        data[j1] -= value;
+                    for (int r = 0; r < runs1.count; ++r) {
+                        int step = runs1.stride[r];
+                        int j1 = runs1.offset[r] + j2;
+                        for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                            data[j1] -= value;
+                        }
                     }
                 }
             }
@@ -202,9 +221,12 @@ public class SelectedByte4D extends Byte4D {
                 int j3 = idx3[i3] + j4;
                 for (int i2 = 0; i2 < dim2; ++i2) {
                     int j2 = idx2[i2] + j3;
-                    for (int i1 = 0; i1 < dim1; ++i1) {
-                        int j1 = idx1[i1] + j2;
-                        data[j1] *= value;
+                    for (int r = 0; r < runs1.count; ++r) {
+                        int step = runs1.stride[r];
+                        int j1 = runs1.offset[r] + j2;
+                        for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                            data[j1] *= value;
+                        }
                     }
                 }
             }
@@ -219,9 +241,12 @@ public class SelectedByte4D extends Byte4D {
                 int j3 = idx3[i3] + j4;
                 for (int i2 = 0; i2 < dim2; ++i2) {
                     int j2 = idx2[i2] + j3;
-                    for (int i1 = 0; i1 < dim1; ++i1) {
-                        int j1 = idx1[i1] + j2;
-                        data[j1] = function.apply(data[j1]);
+                    for (int r = 0; r < runs1.count; ++r) {
+                        int step = runs1.stride[r];
+                        int j1 = runs1.offset[r] + j2;
+                        for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                            data[j1] = function.apply(data[j1]);
+                        }
                     }
                 }
             }
@@ -237,13 +262,16 @@ public class SelectedByte4D extends Byte4D {
                 int j3 = idx3[i3] + j4;
                 for (int i2 = 0; i2 < dim2; ++i2) {
                     int j2 = idx2[i2] + j3;
-                    for (int i1 = 0; i1 < dim1; ++i1) {
-                        int j1 = idx1[i1] + j2;
-                        if (initialized) {
-                            scanner.update(data[j1]);
-                        } else {
-                            scanner.initialize(data[j1]);
-                            initialized = true;
+                    for (int r = 0; r < runs1.count; ++r) {
+                        int step = runs1.stride[r];
+                        int j1 = runs1.offset[r] + j2;
+                        for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                            if (initialized) {
+                                scanner.update(data[j1]);
+                            } else {
+                                scanner.initialize(data[j1]);
+                                initialized = true;
+                            }
                         }
                     }
                 }
@@ -254,16 +282,25 @@ public class SelectedByte4D extends Byte4D {
     @Override
     public byte[] flatten(boolean forceCopy) {
         byte[] out = new byte[number];
-        int j = -1;
+        int j = 0;
         for (int i4 = 0; i4 < dim4; ++i4) {
             int j4 = idx4[i4];
             for (int i3 = 0; i3 < dim3; ++i3) {
                 int j3 = idx3[i3] + j4;
                 for (int i2 = 0; i2 < dim2; ++i2) {
                     int j2 = idx2[i2] + j3;
-                    for (int i1 = 0; i1 < dim1; ++i1) {
-                        int j1 = idx1[i1] + j2;
-                        out[++j] = data[j1];
+                    for (int r = 0; r < runs1.count; ++r) {
+                        int step = runs1.stride[r];
+                        int j1 = runs1.offset[r] + j2;
+                        int n = runs1.length[r];
+                        if (step == 1) {
+                            System.arraycopy(data, j1, out, j, n);
+                            j += n;
+                        } else {
+                            for (; n > 0; --n, j1 += step) {
+                                out[j++] = data[j1];
+                            }
+                        }
                     }
                 }
             }
@@ -271,6 +308,44 @@ public class SelectedByte4D extends Byte4D {
         return out;
     }
 
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! shape.equals(arr.getShape())) {
+            throw new NonConformableArrayException("Source and destination must have the same shape.");
+        }
+        Byte4D src;
+        if (arr.getType() == Traits.BYTE) {
+            src = (Byte4D)arr;
+        } else {
+            src = (Byte4D)arr.toByte();
+        }
+        /* Copy the source in column-major order, run by run. */
+        byte[] inp = src.flatten(false);
+        int j = 0;
+        for (int i4 = 0; i4 < dim4; ++i4) {
+            int j4 = idx4[i4];
+            for (int i3 = 0; i3 < dim3; ++i3) {
+                int j3 = idx3[i3] + j4;
+                for (int i2 = 0; i2 < dim2; ++i2) {
+                    int j2 = idx2[i2] + j3;
+                    for (int r = 0; r < runs1.count; ++r) {
+                        int step = runs1.stride[r];
+                        int j1 = runs1.offset[r] + j2;
+                        int n = runs1.length[r];
+                        if (step == 1) {
+                            System.arraycopy(inp, j, data, j1, n);
+                            j += n;
+                        } else {
+                            for (; n > 0; --n, j1 += step) {
+                                data[j1] = inp[j++];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     @Override
     public Byte3D slice(int idx) {
         int[] sliceIndex1;
@@ -367,9 +442,12 @@ public class SelectedByte4D extends Byte4D {
                 int j3 = idx3[i3] + j4;
                 for (int i2 = 0; i2 < dim2; ++i2) {
                     int j2 = idx2[i2] + j3;
-                    for (int i1 = 0; i1 < dim1; ++i1) {
-                        int j1 = idx1[i1] + j2;
-                        idx[++j] = j1;
+                    for (int r = 0; r < runs1.count; ++r) {
+                        int step = runs1.stride[r];
+                        int j1 = runs1.offset[r] + j2;
+                        for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                            idx[++j] = j1;
+                        }
                     }
                 }
             }
@@ -377,6 +455,13 @@ public class SelectedByte4D extends Byte4D {
         return new SelectedByte1D(data, idx);
     }
 
+    @Override
+    public Byte4D permute(int... perm) {
+        /* The indirection tables are shared, not copied. */
+        int[][] permIdx = Helper.permute(new int[][]{idx1, idx2, idx3, idx4}, perm);
+        return new SelectedByte4D(data, permIdx[0], permIdx[1], permIdx[2], permIdx[3]);
+    }
+
 }
 
 /*
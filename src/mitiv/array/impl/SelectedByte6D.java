@@ -32,13 +32,18 @@ import mitiv.base.indexing.Range;
 import mitiv.base.mapping.ByteFunction;
 import mitiv.base.mapping.ByteScanner;
 import mitiv.random.ByteGenerator;
+import mitiv.array.ShapedArray;
+import mitiv.base.Traits;
+import mitiv.exception.NonConformableArrayException;
 
 
 /**
  * Selected implementation of 6-dimensional arrays of byte's.
  *
  * This specific kind of arrays/views are accessed via indirection tables (one
- * for each dimension).
+ * for each dimension).  For bulk operations, the indirection table of the
+ * first dimension is compiled into runs of equally spaced indices (see
+ * {@link IndexRuns}) which are processed by strided loops.
  *
  * @author Éric Thiébaut.
  */
@@ -51,6 +56,7 @@ public class SelectedByte6D extends Byte6D {
     final int[] idx4;
     final int[] idx5;
     final int[] idx6;
+    final IndexRuns runs1;
 
     /**
      * Create a new instance of a view via lists of selected indices.
@@ -69,6 +75,7 @@ public class SelectedByte6D extends Byte6D {
         this.idx4 = idx4;
         this.idx5 = idx5;
         this.idx6 = idx6;
+        this.runs1 = new IndexRuns(idx1);
     }
 
     @Override
@@ -158,9 +165,12 @@ public class SelectedByte6D extends Byte6D {
                         int j3 = idx3[i3] + j4;
                         for (int i2 = 0; i2 < dim2; ++i2) {
                             int j2 = idx2[i2] + j3;
-                            for (int i1 = 0; i1 < dim1; ++i1) {
-                                int j1 = idx1[i1] + j2;
-                                data[j1] = value;
+                            for (int r = 0; r < runs1.count; ++r) {
+                                int step = runs1.stride[r];
+                                int j1 = runs1.offset[r] + j2;
+                                for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                    data[j1] = value;
+                                }
                             }
                         }
                     }
@@ -181,9 +191,12 @@ public class SelectedByte6D extends Byte6D {
                         int j3 = idx3[i3] + j4;
                         for (int i2 = 0; i2 < dim2; ++i2) {
                             int j2 = idx2[i2] + j3;
-                            for (int i1 = 0; i1 < dim1; ++i1) {
-                                int j1 = idx1[i1] + j2;
-                                data[j1] = generator.nextByte();
+                            for (int r = 0; r < runs1.count; ++r) {
+                                int step = runs1.stride[r];
+                                int j1 = runs1.offset[r] + j2;
+                                for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                    data[j1] = generator.nextByte();
+                                }
                             }
                         }
                     }
@@ -204,9 +217,12 @@ public class SelectedByte6D extends Byte6D {
                         int j3 = idx3[i3] + j4;
                         for (int i2 = 0; i2 < dim2; ++i2) {
                             int j2 = idx2[i2] + j3;
-                            for (int i1 = 0; i1 < dim1; ++i1) {
-                                int j1 = idx1[i1] + j2;
-                                data[j1] += value;
+                            for (int r = 0; r < runs1.count; ++r) {
+                                int step = runs1.stride[r];
+                                int j1 = runs1.offset[r] + j2;
+                                for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                    data[j1] += value;
+                                }
                             }
                         }
                     }
@@ -227,9 +243,12 @@ public class SelectedByte6D extends Byte6D {
                         int j3 = idx3[i3] + j4;
                         for (int i2 = 0; i2 < dim2; ++i2) {
                             int j2 = idx2[i2] + j3;
-                            for (int i1 = 0; i1 < dim1; ++i1) {
-                                int j1 = idx1[i1] + j2;
-                                data[j1] -= value;
+                            for (int r = 0; r < runs1.count; ++r) {
+                                int step = runs1.stride[r];
+                                int j1 = runs1.offset[r] + j2;
+                                for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                    data[j1] -= value;
+                                }
                             }
                         }
                     }
@@ -250,9 +269,12 @@ public class SelectedByte6D extends Byte6D {
                         int j3 = idx3[i3] + j4;
                         for (int i2 = 0; i2 < dim2; ++i2) {
                             int j2 = idx2[i2] + j3;
-                            for (int i1 = 0; i1 < dim1; ++i1) {
-                                int j1 = idx1[i1] + j2;
-                                data[j1] *= value;
+                            for (int r = 0; r < runs1.count; ++r) {
+                                int step = runs1.stride[r];
+                                int j1 = runs1.offset[r] + j2;
+                                for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                    data[j1] *= value;
+                                }
                             }
                         }
                     }
@@ -273,9 +295,12 @@ public class SelectedByte6D extends Byte6D {
                         int j3 = idx3[i3] + j4;
                         for (int i2 = 0; i2 < dim2; ++i2) {
                             int j2 = idx2[i2] + j3;
-                            for (int i1 = 0; i1 < dim1; ++i1) {
-                                int j1 = idx1[i1] + j2;
-                                data[j1] = function.apply(data[j1]);
+                            for (int r = 0; r < runs1.count; ++r) {
+                                int step = runs1.stride[r];
+                                int j1 = runs1.offset[r] + j2;
+                                for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                    data[j1] = function.apply(data[j1]);
+                                }
                             }
                         }
                     }
@@ -297,13 +322,16 @@ public class SelectedByte6D extends Byte6D {
                         int j3 = idx3[i3] + j4;
                         for (int i2 = 0; i2 < dim2; ++i2) {
                             int j2 = idx2[i2] + j3;
-                            for (int i1 = 0; i1 < dim1; ++i1) {
-                                int j1 = idx1[i1] + j2;
-                                if (initialized) {
-                                    scanner.update(data[j1]);
-                                } else {
-                                    scanner.initialize(data[j1]);
-                                    initialized = true;
+                            for (int r = 0; r < runs1.count; ++r) {
+                                int step = runs1.stride[r];
+                                int j1 = runs1.offset[r] + j2;
+                                for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                    if (initialized) {
+                                        scanner.update(data[j1]);
+                                    } else {
+                                        scanner.initialize(data[j1]);
+                                        initialized = true;
+                                    }
                                 }
                             }
                         }
@@ -316,7 +344,7 @@ public class SelectedByte6D extends Byte6D {
     @Override
     public byte[] flatten(boolean forceCopy) {
         byte[] out = new byte[number];
-        int j = -1;
+        int j = 0;
         for (int i6 = 0; i6 < dim6; ++i6) {
             int j6 = idx6[i6];
             for (int i5 = 0; i5 < dim5; ++i5) {
@@ -327,9 +355,18 @@ public class SelectedByte6D extends Byte6D {
                         int j3 = idx3[i3] + j4;
                         for (int i2 = 0; i2 < dim2; ++i2) {
                             int j2 = idx2[i2] + j3;
-                            for (int i1 = 0; i1 < dim1; ++i1) {
-                                int j1 = idx1[i1] + j2;
-                                out[++j] = data[j1];
+                            for (int r = 0; r < runs1.count; ++r) {
+                                int step = runs1.stride[r];
+                                int j1 = runs1.offset[r] + j2;
+                                int n = runs1.length[r];
+                                if (step == 1) {
+                                    System.arraycopy(data, j1, out, j, n);
+                                    j += n;
+                                } else {
+                                    for (; n > 0; --n, j1 += step) {
+                                        out[j++] = data[j1];
+                                    }
+                                }
                             }
                         }
                     }
@@ -339,6 +376,50 @@ public class SelectedByte6D extends Byte6D {
         return out;
     }
 
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! shape.equals(arr.getShape())) {
+            throw new NonConformableArrayException("Source and destination must have the same shape.");
+        }
+        Byte6D src;
+        if (arr.getType() == Traits.BYTE) {
+            src = (Byte6D)arr;
+        } else {
+            src = (Byte6D)arr.toByte();
+        }
+        /* Copy the source in column-major order, run by run. */
+        byte[] inp = src.flatten(false);
+        int j = 0;
+        for (int i6 = 0; i6 < dim6; ++i6) {
+            int j6 = idx6[i6];
+            for (int i5 = 0; i5 < dim5; ++i5) {
+                int j5 = idx5[i5] + j6;
+                for (int i4 = 0; i4 < dim4; ++i4) {
+                    int j4 = idx4[i4] + j5;
+                    for (int i3 = 0; i3 < dim3; ++i3) {
+                        int j3 = idx3[i3] + j4;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = idx2[i2] + j3;
+                            for (int r = 0; r < runs1.count; ++r) {
+                                int step = runs1.stride[r];
+                                int j1 = runs1.offset[r] + j2;
+                                int n = runs1.length[r];
+                                if (step == 1) {
+                                    System.arraycopy(inp, j, data, j1, n);
+                                    j += n;
+                                } else {
+                                    for (; n > 0; --n, j1 += step) {
+                                        data[j1] = inp[j++];
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     @Override
     public Byte5D slice(int idx) {
         int[] sliceIndex1;
@@ -469,9 +550,12 @@ public class SelectedByte6D extends Byte6D {
                         int j3 = idx3[i3] + j4;
                         for (int i2 = 0; i2 < dim2; ++i2) {
                             int j2 = idx2[i2] + j3;
-                            for (int i1 = 0; i1 < dim1; ++i1) {
-                                int j1 = idx1[i1] + j2;
-                                idx[++j] = j1;
+                            for (int r = 0; r < runs1.count; ++r) {
+                                int step = runs1.stride[r];
+                                int j1 = runs1.offset[r] + j2;
+                                for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                    idx[++j] = j1;
+                                }
                             }
                         }
                     }
@@ -481,6 +565,13 @@ public class SelectedByte6D extends Byte6D {
         return new SelectedByte1D(data, idx);
     }
 
+    @Override
+    public Byte6D permute(int... perm) {
+        /* The indirection tables are shared, not copied. */
+        int[][] permIdx = Helper.permute(new int[][]{idx1, idx2, idx3, idx4, idx5, idx6}, perm);
+        return new SelectedByte6D(data, permIdx[0], permIdx[1], permIdx[2], permIdx[3], permIdx[4], permIdx[5]);
+    }
+
 }
 
 /*
@@ -32,13 +32,18 @@ import mitiv.base.indexing.Range;
 import mitiv.base.mapping.DoubleFunction;
 import mitiv.base.mapping.DoubleScanner;
 import mitiv.random.DoubleGenerator;
+import mitiv.array.ShapedArray;
+import mitiv.base.Traits;
+import mitiv.exception.NonConformableArrayException;
 
 
 /**
  * Selected implementation of 5-dimensional arrays of double's.
  *
  * This specific kind of arrays/views are accessed via indirection tables (one
- * for each dimension).
+ * for each dimension).  For bulk operations, the indirection table of the
+ * first dimension is compiled into runs of equally spaced indices (see
+ * {@link IndexRuns}) which are processed by strided loops.
  *
  * @author Éric Thiébaut.
  */
@@ -50,6 +55,7 @@ public class SelectedDouble5D extends Double5D {
     final int[] idx3;
     final int[] idx4;
     final int[] idx5;
+    final IndexRuns runs1;
 
     /**
      * Create a new instance of a view via lists of selected indices.
@@ -67,6 +73,7 @@ public class SelectedDouble5D extends Double5D {
         this.idx3 = idx3;
         this.idx4 = idx4;
         this.idx5 = idx5;
+        this.runs1 = new IndexRuns(idx1);
     }
 
     @Override
@@ -146,9 +153,12 @@ public class SelectedDouble5D extends Double5D {
                     int j3 = idx3[i3] + j4;
                     for (int i2 = 0; i2 < dim2; ++i2) {
                         int j2 = idx2[i2] + j3;
-                        for (int i1 = 0; i1 < dim1; ++i1) {
-                            int j1 = idx1[i1] + j2;
-                            data[j1] = value;
+                        for (int r = 0; r < runs1.count; ++r) {
+                            int step = runs1.stride[r];
+                            int j1 = runs1.offset[r] + j2;
+                            for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                data[j1] = value;
+                            }
                         }
                     }
                 }
@@ -166,9 +176,12 @@ public class SelectedDouble5D extends Double5D {
                     int j3 = idx3[i3] + j4;
                     for (int i2 = 0; i2 < dim2; ++i2) {
                         int j2 = idx2[i2] + j3;
-                        for (int i1 = 0; i1 < dim1; ++i1) {
-                            int j1 = idx1[i1] + j2;
-                            data[j1] = generator.nextDouble();
+                        for (int r = 0; r < runs1.count; ++r) {
+                            int step = runs1.stride[r];
+                            int j1 = runs1.offset[r] + j2;
+                            for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                data[j1] = generator.nextDouble();
+                            }
                         }
                     }
                 }
@@ -186,9 +199,12 @@ public class SelectedDouble5D extends Double5D {
                     int j3 = idx3[i3] + j4;
                     for (int i2 = 0; i2 < dim2; ++i2) {
                         int j2 = idx2[i2] + j3;
-                        for (int i1 = 0; i1 < dim1; ++i1) {
-                            int j1 = idx1[i1] + j2;
-                            data[j1] += value;
+                        for (int r = 0; r < runs1.count; ++r) {
+                            int step = runs1.stride[r];
+                            int j1 = runs1.offset[r] + j2;
+                            for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                data[j1] += value;
+                            }
                         }
                     }
                 }
@@ -206,9 +222,12 @@ public class SelectedDouble5D extends Double5D {
                     int j3 = idx3[i3] + j4;
                     for (int i2 = 0; i2 < dim2; ++i2) {
                         int j2 = idx2[i2] + j3;
-                        for (int i1 = 0; i1 < dim1; ++i1) {
-                            int j1 = idx1[i1] + j2;
-                            data[j1] -= value;
+                        for (int r = 0; r < runs1.count; ++r) {
+                            int step = runs1.stride[r];
+                            int j1 = runs1.offset[r] + j2;
+                            for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                data[j1] -= value;
+                            }
                         }
                     }
                 }
@@ -226,9 +245,12 @@ public class SelectedDouble5D extends Double5D {
                     int j3 = idx3[i3] + j4;
                     for (int i2 = 0; i2 < dim2; ++i2) {
                         int j2 = idx2[i2] + j3;
-                        for (int i1 = 0; i1 < dim1; ++i1) {
-                            int j1 = idx1[i1] + j2;
-                            data[j1] *= value;
+                        for (int r = 0; r < runs1.count; ++r) {
+                            int step = runs1.stride[r];
+                            int j1 = runs1.offset[r] + j2;
+                            for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                data[j1] *= value;
+                            }
                         }
                     }
                 }
@@ -246,9 +268,12 @@ public class SelectedDouble5D extends Double5D {
                     int j3 = idx3[i3] + j4;
                     for (int i2 = 0; i2 < dim2; ++i2) {
                         int j2 = idx2[i2] + j3;
-                        for (int i1 = 0; i1 < dim1; ++i1) {
-                            int j1 = idx1[i1] + j2;
-                            data[j1] = function.apply(data[j1]);
+                        for (int r = 0; r < runs1.count; ++r) {
+                            int step = runs1.stride[r];
+                            int j1 = runs1.offset[r] + j2;
+                            for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                data[j1] = function.apply(data[j1]);
+                            }
                         }
                     }
                 }
@@ -267,13 +292,16 @@ public class SelectedDouble5D extends Double5D {
                     int j3 = idx3[i3] + j4;
                     for (int i2 = 0; i2 < dim2; ++i2) {
                         int j2 = idx2[i2] + j3;
-                        for (int i1 = 0; i1 < dim1; ++i1) {
-                            int j1 = idx1[i1] + j2;
-                            if (initialized) {
-                                scanner.update(data[j1]);
-                            } else {
-                                scanner.initialize(data[j1]);
-                                initialized = true;
+                        for (int r = 0; r < runs1.count; ++r) {
+                            int step = runs1.stride[r];
+                            int j1 = runs1.offset[r] + j2;
+                            for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                if (initialized) {
+                                    scanner.update(data[j1]);
+                                } else {
+                                    scanner.initialize(data[j1]);
+                                    initialized = true;
+                                }
                             }
                         }
                     }
@@ -285,7 +313,7 @@ public class SelectedDouble5D extends Double5D {
     @Override
     public double[] flatten(boolean forceCopy) {
         double[] out = new double[number];
-        int j = -1;
+        int j = 0;
         for (int i5 = 0; i5 < dim5; ++i5) {
             int j5 = idx5[i5];
             for (int i4 = 0; i4 < dim4; ++i4) {
@@ -294,9 +322,18 @@ public class SelectedDouble5D extends Double5D {
                     int j3 = idx3[i3] + j4;
                     for (int i2 = 0; i2 < dim2; ++i2) {
                         int j2 = idx2[i2] + j3;
-                        for (int i1 = 0; i1 < dim1; ++i1) {
-                            int j1 = idx1[i1] + j2;
-                            out[++j] = data[j1];
+                        for (int r = 0; r < runs1.count; ++r) {
+                            int step = runs1.stride[r];
+                            int j1 = runs1.offset[r] + j2;
+                            int n = runs1.length[r];
+                            if (step == 1) {
+                                System.arraycopy(data, j1, out, j, n);
+                                j += n;
+                            } else {
+                                for (; n > 0; --n, j1 += step) {
+                                    out[j++] = data[j1];
+                                }
+                            }
                         }
                     }
                 }
@@ -305,6 +342,47 @@ public class SelectedDouble5D extends Double5D {
         return out;
     }
 
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! shape.equals(arr.getShape())) {
+            throw new NonConformableArrayException("Source and destination must have the same shape.");
+        }
+        Double5D src;
+        if (arr.getType() == Traits.DOUBLE) {
+            src = (Double5D)arr;
+        } else {
+            src = (Double5D)arr.toDouble();
+        }
+        /* Copy the source in column-major order, run by run. */
+        double[] inp = src.flatten(false);
+        int j = 0;
+        for (int i5 = 0; i5 < dim5; ++i5) {
+            int j5 = idx5[i5];
+            for (int i4 = 0; i4 < dim4; ++i4) {
+                int j4 = idx4[i4] + j5;
+                for (int i3 = 0; i3 < dim3; ++i3) {
+                    int j3 = idx3[i3] + j4;
+                    for (int i2 = 0; i2 < dim2; ++i2) {
+                        int j2 = idx2[i2] + j3;
+                        for (int r = 0; r < runs1.count; ++r) {
+                            int step = runs1.stride[r];
+                            int j1 = runs1.offset[r] + j2;
+                            int n = runs1.length[r];
+                            if (step == 1) {
+                                System.arraycopy(inp, j, data, j1, n);
+                                j += n;
+                            } else {
+                                for (; n > 0; --n, j1 += step) {
+                                    data[j1] = inp[j++];
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     @Override
     public Double4D slice(int idx) {
         int[] sliceIndex1;
@@ -417,9 +495,12 @@ public class SelectedDouble5D extends Double5D {
                     int j3 = idx3[i3] + j4;
                     for (int i2 = 0; i2 < dim2; ++i2) {
                         int j2 = idx2[i2] + j3;
-                        for (int i1 = 0; i1 < dim1; ++i1) {
-                            int j1 = idx1[i1] + j2;
-                            idx[++j] = j1;
+                        for (int r = 0; r < runs1.count; ++r) {
+                            int step = runs1.stride[r];
+                            int j1 = runs1.offset[r] + j2;
+                            for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                idx[++j] = j1;
+                            }
                         }
                     }
                 }
@@ -428,6 +509,13 @@ public class SelectedDouble5D extends Double5D {
         return new SelectedDouble1D(data, idx);
     }
 
+    @Override
+    public Double5D permute(int... perm) {
+        /* The indirection tables are shared, not copied. */
+        int[][] permIdx = Helper.permute(new int[][]{idx1, idx2, idx3, idx4, idx5}, perm);
+        return new SelectedDouble5D(data, permIdx[0], permIdx[1], permIdx[2], permIdx[3], permIdx[4]);
+    }
+
 }
 
 /*
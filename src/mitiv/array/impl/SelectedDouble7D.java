@@ -32,13 +32,18 @@ import mitiv.base.indexing.Range;
 import mitiv.base.mapping.DoubleFunction;
 import mitiv.base.mapping.DoubleScanner;
 import mitiv.random.DoubleGenerator;
+import mitiv.array.ShapedArray;
+import mitiv.base.Traits;
+import mitiv.exception.NonConformableArrayException;
 
 
 /**
  * Selected implementation of 7-dimensional arrays of double's.
  *
  * This specific kind of arrays/views are accessed via indirection tables (one
- * for each dimension).
+ * for each dimension).  For bulk operations, the indirection table of the
+ * first dimension is compiled into runs of equally spaced indices (see
+ * {@link IndexRuns}) which are processed by strided loops.
  *
  * @author Éric Thiébaut.
  */
@@ -52,6 +57,7 @@ public class SelectedDouble7D extends Double7D {
     final int[] idx5;
     final int[] idx6;
     final int[] idx7;
+    final IndexRuns runs1;
 
     /**
      * Create a new instance of a view via lists of selected indices.
@@ -71,6 +77,7 @@ public class SelectedDouble7D extends Double7D {
         this.idx5 = idx5;
         this.idx6 = idx6;
         this.idx7 = idx7;
+        this.runs1 = new IndexRuns(idx1);
     }
 
     @Override
@@ -170,9 +177,12 @@ public class SelectedDouble7D extends Double7D {
                             int j3 = idx3[i3] + j4;
                             for (int i2 = 0; i2 < dim2; ++i2) {
                                 int j2 = idx2[i2] + j3;
-                                for (int i1 = 0; i1 < dim1; ++i1) {
-                                    int j1 = idx1[i1] + j2;
-                                    data[j1] = value;
+                                for (int r = 0; r < runs1.count; ++r) {
+                                    int step = runs1.stride[r];
+                                    int j1 = runs1.offset[r] + j2;
+                                    for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                        data[j1] = value;
+                                    }
                                 }
                             }
                         }
@@ -196,9 +206,12 @@ public class SelectedDouble7D extends Double7D {
                             int j3 = idx3[i3] + j4;
                             for (int i2 = 0; i2 < dim2; ++i2) {
                                 int j2 = idx2[i2] + j3;
-                                for (int i1 = 0; i1 < dim1; ++i1) {
-                                    int j1 = idx1[i1] + j2;
-                                    data[j1] = generator.nextDouble();
+                                for (int r = 0; r < runs1.count; ++r) {
+                                    int step = runs1.stride[r];
+                                    int j1 = runs1.offset[r] + j2;
+                                    for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                        data[j1] = generator.nextDouble();
+                                    }
                                 }
                             }
                         }
@@ -222,9 +235,12 @@ public class SelectedDouble7D extends Double7D {
                             int j3 = idx3[i3] + j4;
                             for (int i2 = 0; i2 < dim2; ++i2) {
                                 int j2 = idx2[i2] + j3;
-                                for (int i1 = 0; i1 < dim1; ++i1) {
-                                    int j1 = idx1[i1] + j2;
-                                    data[j1] += value;
+                                for (int r = 0; r < runs1.count; ++r) {
+                                    int step = runs1.stride[r];
+                                    int j1 = runs1.offset[r] + j2;
+                                    for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                        data[j1] += value;
+                                    }
                                 }
                             }
                         }
@@ -248,9 +264,12 @@ public class SelectedDouble7D extends Double7D {
                             int j3 = idx3[i3] + j4;
                             for (int i2 = 0; i2 < dim2; ++i2) {
                                 int j2 = idx2[i2] + j3;
-                                for (int i1 = 0; i1 < dim1; ++i1) {
-                                    int j1 = idx1[i1] + j2;
-                                    data[j1] -= value;
+                                for (int r = 0; r < runs1.count; ++r) {
+                                    int step = runs1.stride[r];
+                                    int j1 = runs1.offset[r] + j2;
+                                    for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                        data[j1] -= value;
+                                    }
                                 }
                             }
                         }
@@ -274,9 +293,12 @@ public class SelectedDouble7D extends Double7D {
                             int j3 = idx3[i3] + j4;
                             for (int i2 = 0; i2 < dim2; ++i2) {
                                 int j2 = idx2[i2] + j3;
-                                for (int i1 = 0; i1 < dim1; ++i1) {
-                                    int j1 = idx1[i1] + j2;
-                                    data[j1] *= value;
+                                for (int r = 0; r < runs1.count; ++r) {
+                                    int step = runs1.stride[r];
+                                    int j1 = runs1.offset[r] + j2;
+                                    for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                        data[j1] *= value;
+                                    }
                                 }
                             }
                         }
@@ -300,9 +322,12 @@ public class SelectedDouble7D extends Double7D {
                             int j3 = idx3[i3] + j4;
                             for (int i2 = 0; i2 < dim2; ++i2) {
                                 int j2 = idx2[i2] + j3;
-                                for (int i1 = 0; i1 < dim1; ++i1) {
-                                    int j1 = idx1[i1] + j2;
-                                    data[j1] = function.apply(data[j1]);
+                                for (int r = 0; r < runs1.count; ++r) {
+                                    int step = runs1.stride[r];
+                                    int j1 = runs1.offset[r] + j2;
+                                    for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                        data[j1] = function.apply(data[j1]);
+                                    }
                                 }
                             }
                         }
@@ -327,13 +352,16 @@ public class SelectedDouble7D extends Double7D {
                             int j3 = idx3[i3] + j4;
                             for (int i2 = 0; i2 < dim2; ++i2) {
                                 int j2 = idx2[i2] + j3;
-                                for (int i1 = 0; i1 < dim1; ++i1) {
-                                    int j1 = idx1[i1] + j2;
-                                    if (initialized) {
-                                        scanner.update(data[j1]);
-                                    } else {
-                                        scanner.initialize(data[j1]);
-                                        initialized = true;
+                                for (int r = 0; r < runs1.count; ++r) {
+                                    int step = runs1.stride[r];
+                                    int j1 = runs1.offset[r] + j2;
+                                    for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                        if (initialized) {
+                                            scanner.update(data[j1]);
+                                        } else {
+                                            scanner.initialize(data[j1]);
+                                            initialized = true;
+                                        }
                                     }
                                 }
                             }
@@ -347,7 +375,7 @@ public class SelectedDouble7D extends Double7D {
     @Override
     public double[] flatten(boolean forceCopy) {
         double[] out = new double[number];
-        int j = -1;
+        int j = 0;
         for (int i7 = 0; i7 < dim7; ++i7) {
             int j7 = idx7[i7];
             for (int i6 = 0; i6 < dim6; ++i6) {
@@ -360,9 +388,18 @@ public class SelectedDouble7D extends Double7D {
                             int j3 = idx3[i3] + j4;
                             for (int i2 = 0; i2 < dim2; ++i2) {
                                 int j2 = idx2[i2] + j3;
-                                for (int i1 = 0; i1 < dim1; ++i1) {
-                                    int j1 = idx1[i1] + j2;
-                                    out[++j] = data[j1];
+                                for (int r = 0; r < runs1.count; ++r) {
+                                    int step = runs1.stride[r];
+                                    int j1 = runs1.offset[r] + j2;
+                                    int n = runs1.length[r];
+                                    if (step == 1) {
+                                        System.arraycopy(data, j1, out, j, n);
+                                        j += n;
+                                    } else {
+                                        for (; n > 0; --n, j1 += step) {
+                                            out[j++] = data[j1];
+                                        }
+                                    }
                                 }
                             }
                         }
@@ -373,6 +410,53 @@ public class SelectedDouble7D extends Double7D {
         return out;
     }
 
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! shape.equals(arr.getShape())) {
+            throw new NonConformableArrayException("Source and destination must have the same shape.");
+        }
+        Double7D src;
+        if (arr.getType() == Traits.DOUBLE) {
+            src = (Double7D)arr;
+        } else {
+            src = (Double7D)arr.toDouble();
+        }
+        /* Copy the source in column-major order, run by run. */
+        double[] inp = src.flatten(false);
+        int j = 0;
+        for (int i7 = 0; i7 < dim7; ++i7) {
+            int j7 = idx7[i7];
+            for (int i6 = 0; i6 < dim6; ++i6) {
+                int j6 = idx6[i6] + j7;
+                for (int i5 = 0; i5 < dim5; ++i5) {
+                    int j5 = idx5[i5] + j6;
+                    for (int i4 = 0; i4 < dim4; ++i4) {
+                        int j4 = idx4[i4] + j5;
+                        for (int i3 = 0; i3 < dim3; ++i3) {
+                            int j3 = idx3[i3] + j4;
+                            for (int i2 = 0; i2 < dim2; ++i2) {
+                                int j2 = idx2[i2] + j3;
+                                for (int r = 0; r < runs1.count; ++r) {
+                                    int step = runs1.stride[r];
+                                    int j1 = runs1.offset[r] + j2;
+                                    int n = runs1.length[r];
+                                    if (step == 1) {
+                                        System.arraycopy(inp, j, data, j1, n);
+                                        j += n;
+                                    } else {
+                                        for (; n > 0; --n, j1 += step) {
+                                            data[j1] = inp[j++];
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     @Override
     public Double6D slice(int idx) {
         int[] sliceIndex1;
@@ -523,9 +607,12 @@ public class SelectedDouble7D extends Double7D {
                             int j3 = idx3[i3] + j4;
                             for (int i2 = 0; i2 < dim2; ++i2) {
                                 int j2 = idx2[i2] + j3;
-                                for (int i1 = 0; i1 < dim1; ++i1) {
-                                    int j1 = idx1[i1] + j2;
-                                    idx[++j] = j1;
+                                for (int r = 0; r < runs1.count; ++r) {
+                                    int step = runs1.stride[r];
+                                    int j1 = runs1.offset[r] + j2;
+                                    for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                        idx[++j] = j1;
+                                    }
                                 }
                             }
                         }
@@ -536,6 +623,13 @@ public class SelectedDouble7D extends Double7D {
         return new SelectedDouble1D(data, idx);
     }
 
+    @Override
+    public Double7D permute(int... perm) {
+        /* The indirection tables are shared, not copied. */
+        int[][] permIdx = Helper.permute(new int[][]{idx1, idx2, idx3, idx4, idx5, idx6, idx7}, perm);
+        return new SelectedDouble7D(data, permIdx[0], permIdx[1], permIdx[2], permIdx[3], permIdx[4], permIdx[5], permIdx[6]);
+    }
+
 }
 
 /*
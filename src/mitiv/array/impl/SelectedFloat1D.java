@@ -31,13 +31,18 @@ import mitiv.base.indexing.Range;
 import mitiv.base.mapping.FloatFunction;
 import mitiv.base.mapping.FloatScanner;
 import mitiv.random.FloatGenerator;
+import mitiv.array.ShapedArray;
+import mitiv.base.Traits;
+import mitiv.exception.NonConformableArrayException;
 
 
 /**
  * Selected implementation of 1-dimensional arrays of float's.
  *
  * This specific kind of arrays/views are accessed via indirection tables (one
- * for each dimension).
+ * for each dimension).  For bulk operations, the indirection table of the
+ * first dimension is compiled into runs of equally spaced indices (see
+ * {@link IndexRuns}) which are processed by strided loops.
  *
  * @author Éric Thiébaut.
  */
@@ -45,6 +50,7 @@ public class SelectedFloat1D extends Float1D {
     static final int order = NONSPECIFIC_ORDER;
     final float[] data;
     final int[] idx1;
+    final IndexRuns runs1;
 
     /**
      * Create a new instance of a view via lists of selected indices.
@@ -58,6 +64,7 @@ public class SelectedFloat1D extends Float1D {
         super(idx1.length);
         this.data = arr;
         this.idx1 = idx1;
+        this.runs1 = new IndexRuns(idx1);
     }
 
     @Override
@@ -97,62 +104,83 @@ public class SelectedFloat1D extends Float1D {
 
     @Override
     public void fill(float value) {
-        for (int i1 = 0; i1 < dim1; ++i1) {
-            int j1 = idx1[i1];
-            data[j1] = value;
+        for (int r = 0; r < runs1.count; ++r) {
+            int step = runs1.stride[r];
+            int j1 = runs1.offset[r];
+            for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                data[j1] = value;
+            }
         }
     }
 
     @Override
     public void fill(FloatGenerator generator) {
-        for (int i1 = 0; i1 < dim1; ++i1) {
-            int j1 = idx1[i1];
-            data[j1] = generator.nextFloat();
+        for (int r = 0; r < runs1.count; ++r) {
+            int step = runs1.stride[r];
+            int j1 = runs1.offset[r];
+            for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                data[j1] = generator.nextFloat();
+            }
         }
     }
 
     @Override
     public void increment(float value) {
-        for (int i1 = 0; i1 < dim1; ++i1) {
-            int j1 = idx1[i1];
-            data[j1] += value;
+        for (int r = 0; r < runs1.count; ++r) {
+            int step = runs1.stride[r];
+            int j1 = runs1.offset[r];
+            for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                data[j1] += value;
+            }
         }
     }
 
     @Override
     public void decrement(float value) {
-        for (int i1 = 0; i1 < dim1; ++i1) {
-            int j1 = idx1[i1];
-            data[j1] -= value;
+        for (int r = 0; r < runs1.count; ++r) {
+            int step = runs1.stride[r];
+            int j1 = runs1.offset[r];
+            for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                data[j1] -= value;
+            }
         }
     }
 
     @Override
     public void scale(float value) {
-        for (int i1 = 0; i1 < dim1; ++i1) {
-            int j1 = idx1[i1];
-            data[j1] *= value;
+        for (int r = 0; r < runs1.count; ++r) {
+            int step = runs1.stride[r];
+            int j1 = runs1.offset[r];
+            for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                data[j1] *= value;
+            }
         }
     }
 
     @Override
     public void map(FloatFunction function) {
-        for (int i1 = 0; i1 < dim1; ++i1) {
-            int j1 = idx1[i1];
-            data[j1] = function.apply(data[j1]);
+        for (int r = 0; r < runs1.count; ++r) {
+            int step = runs1.stride[r];
+            int j1 = runs1.offset[r];
+            for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                data[j1] = function.apply(data[j1]);
+            }
         }
     }
 
     @Override
     public void scan(FloatScanner scanner)  {
         boolean initialized = false;
-        for (int i1 = 0; i1 < dim1; ++i1) {
-            int j1 = idx1[i1];
-            if (initialized) {
-                scanner.update(data[j1]);
-            } else {
-                scanner.initialize(data[j1]);
-                initialized = true;
+        for (int r = 0; r < runs1.count; ++r) {
+            int step = runs1.stride[r];
+            int j1 = runs1.offset[r];
+            for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                if (initialized) {
+                    scanner.update(data[j1]);
+                } else {
+                    scanner.initialize(data[j1]);
+                    initialized = true;
+                }
             }
         }
     }
@@ -160,14 +188,52 @@ public class SelectedFloat1D extends Float1D {
     @Override
     public float[] flatten(boolean forceCopy) {
         float[] out = new float[number];
-        int j = -1;
-        for (int i1 = 0; i1 < dim1; ++i1) {
-            int j1 = idx1[i1];
-            out[++j] = data[j1];
+        int j = 0;
+        for (int r = 0; r < runs1.count; ++r) {
+            int step = runs1.stride[r];
+            int j1 = runs1.offset[r];
+            int n = runs1.length[r];
+            if (step == 1) {
+                System.arraycopy(data, j1, out, j, n);
+                j += n;
+            } else {
+                for (; n > 0; --n, j1 += step) {
+                    out[j++] = data[j1];
+                }
+            }
         }
         return out;
     }
 
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! shape.equals(arr.getShape())) {
+            throw new NonConformableArrayException("Source and destination must have the same shape.");
+        }
+        Float1D src;
+        if (arr.getType() == Traits.FLOAT) {
+            src = (Float1D)arr;
+        } else {
+            src = (Float1D)arr.toFloat();
+        }
+        /* Copy the source in column-major order, run by run. */
+        float[] inp = src.flatten(false);
+        int j = 0;
+        for (int r = 0; r < runs1.count; ++r) {
+            int step = runs1.stride[r];
+            int j1 = runs1.offset[r];
+            int n = runs1.length[r];
+            if (step == 1) {
+                System.arraycopy(inp, j, data, j1, n);
+                j += n;
+            } else {
+                for (; n > 0; --n, j1 += step) {
+                    data[j1] = inp[j++];
+                }
+            }
+        }
+    }
+
     @Override
     public FloatScalar slice(int idx) {
         return new FloatScalar(data, idx1[Helper.fixIndex(idx, dim1)]);
@@ -204,6 +270,13 @@ public class SelectedFloat1D extends Float1D {
         return this;
     }
 
+    @Override
+    public Float1D permute(int... perm) {
+        /* The indirection tables are shared, not copied. */
+        int[][] permIdx = Helper.permute(new int[][]{idx1}, perm);
+        return new SelectedFloat1D(data, permIdx[0]);
+    }
+
 }
 
 /*
@@ -32,13 +32,18 @@ import mitiv.base.indexing.Range;
 import mitiv.base.mapping.FloatFunction;
 import mitiv.base.mapping.FloatScanner;
 import mitiv.random.FloatGenerator;
+import mitiv.array.ShapedArray;
+import mitiv.base.Traits;
+import mitiv.exception.NonConformableArrayException;
 
 
 /**
  * Selected implementation of 8-dimensional arrays of float's.
  *
  * This specific kind of arrays/views are accessed via indirection tables (one
- * for each dimension).
+ * for each dimension).  For bulk operations, the indirection table of the
+ * first dimension is compiled into runs of equally spaced indices (see
+ * {@link IndexRuns}) which are processed by strided loops.
  *
  * @author Éric Thiébaut.
  */
@@ -53,6 +58,7 @@ public class SelectedFloat8D extends Float8D {
     final int[] idx6;
     final int[] idx7;
     final int[] idx8;
+    final IndexRuns runs1;
 
     /**
      * Create a new instance of a view via lists of selected indices.
@@ -73,6 +79,7 @@ public class SelectedFloat8D extends Float8D {
         this.idx6 = idx6;
         this.idx7 = idx7;
         this.idx8 = idx8;
+        this.runs1 = new IndexRuns(idx1);
     }
 
     @Override
@@ -182,9 +189,12 @@ public class SelectedFloat8D extends Float8D {
                                 int j3 = idx3[i3] + j4;
                                 for (int i2 = 0; i2 < dim2; ++i2) {
                                     int j2 = idx2[i2] + j3;
-                                    for (int i1 = 0; i1 < dim1; ++i1) {
-                                        int j1 = idx1[i1] + j2;
-                                        data[j1] = value;
+                                    for (int r = 0; r < runs1.count; ++r) {
+                                        int step = runs1.stride[r];
+                                        int j1 = runs1.offset[r] + j2;
+                                        for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                            data[j1] = value;
+                                        }
                                     }
                                 }
                             }
@@ -211,9 +221,12 @@ public class SelectedFloat8D extends Float8D {
                                 int j3 = idx3[i3] + j4;
                                 for (int i2 = 0; i2 < dim2; ++i2) {
                                     int j2 = idx2[i2] + j3;
-                                    for (int i1 = 0; i1 < dim1; ++i1) {
-                                        int j1 = idx1[i1] + j2;
-                                        data[j1] = generator.nextFloat();
+                                    for (int r = 0; r < runs1.count; ++r) {
+                                        int step = runs1.stride[r];
+                                        int j1 = runs1.offset[r] + j2;
+                                        for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                            data[j1] = generator.nextFloat();
+                                        }
                                     }
                                 }
                             }
@@ -240,9 +253,12 @@ public class SelectedFloat8D extends Float8D {
                                 int j3 = idx3[i3] + j4;
                                 for (int i2 = 0; i2 < dim2; ++i2) {
                                     int j2 = idx2[i2] + j3;
-                                    for (int i1 = 0; i1 < dim1; ++i1) {
-                                        int j1 = idx1[i1] + j2;
-                                        data[j1] += value;
+                                    for (int r = 0; r < runs1.count; ++r) {
+                                        int step = runs1.stride[r];
+                                        int j1 = runs1.offset[r] + j2;
+                                        for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                            data[j1] += value;
+                                        }
                                     }
                                 }
                             }
@@ -269,9 +285,12 @@ public class SelectedFloat8D extends Float8D {
                                 int j3 = idx3[i3] + j4;
                                 for (int i2 = 0; i2 < dim2; ++i2) {
                                     int j2 = idx2[i2] + j3;
-                                    for (int i1 = 0; i1 < dim1; ++i1) {
-                                        int j1 = idx1[i1] + j2;
-                                        data[j1] -= value;
+                                    for (int r = 0; r < runs1.count; ++r) {
+                                        int step = runs1.stride[r];
+                                        int j1 = runs1.offset[r] + j2;
+                                        for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                            data[j1] -= value;
+                                        }
                                     }
                                 }
                             }
@@ -298,9 +317,12 @@ public class SelectedFloat8D extends Float8D {
                                 int j3 = idx3[i3] + j4;
                                 for (int i2 = 0; i2 < dim2; ++i2) {
                                     int j2 = idx2[i2] + j3;
-                                    for (int i1 = 0; i1 < dim1; ++i1) {
-                                        int j1 = idx1[i1] + j2;
-                                        data[j1] *= value;
+                                    for (int r = 0; r < runs1.count; ++r) {
+                                        int step = runs1.stride[r];
+                                        int j1 = runs1.offset[r] + j2;
+                                        for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                            data[j1] *= value;
+                                        }
                                     }
                                 }
                             }
@@ -327,9 +349,12 @@ public class SelectedFloat8D extends Float8D {
                                 int j3 = idx3[i3] + j4;
                                 for (int i2 = 0; i2 < dim2; ++i2) {
                                     int j2 = idx2[i2] + j3;
-                                    for (int i1 = 0; i1 < dim1; ++i1) {
-                                        int j1 = idx1[i1] + j2;
-                                        data[j1] = function.apply(data[j1]);
+                                    for (int r = 0; r < runs1.count; ++r) {
+                                        int step = runs1.stride[r];
+                                        int j1 = runs1.offset[r] + j2;
+                                        for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                            data[j1] = function.apply(data[j1]);
+                                        }
                                     }
                                 }
                             }
@@ -357,13 +382,16 @@ public class SelectedFloat8D extends Float8D {
                                 int j3 = idx3[i3] + j4;
                                 for (int i2 = 0; i2 < dim2; ++i2) {
                                     int j2 = idx2[i2] + j3;
-                                    for (int i1 = 0; i1 < dim1; ++i1) {
-                                        int j1 = idx1[i1] + j2;
-                                        if (initialized) {
-                                            scanner.update(data[j1]);
-                                        } else {
-                                            scanner.initialize(data[j1]);
-                                            initialized = true;
+                                    for (int r = 0; r < runs1.count; ++r) {
+                                        int step = runs1.stride[r];
+                                        int j1 = runs1.offset[r] + j2;
+                                        for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                            if (initialized) {
+                                                scanner.update(data[j1]);
+                                            } else {
+                                                scanner.initialize(data[j1]);
+                                                initialized = true;
+                                            }
                                         }
                                     }
                                 }
@@ -378,7 +406,7 @@ public class SelectedFloat8D extends Float8D {
     @Override
     public float[] flatten(boolean forceCopy) {
         float[] out = new float[number];
-        int j = -1;
+        int j = 0;
         for (int i8 = 0; i8 < dim8; ++i8) {
             int j8 = idx8[i8];
             for (int i7 = 0; i7 < dim7; ++i7) {
@@ -393,9 +421,18 @@ public class SelectedFloat8D extends Float8D {
                                 int j3 = idx3[i3] + j4;
                                 for (int i2 = 0; i2 < dim2; ++i2) {
                                     int j2 = idx2[i2] + j3;
-                                    for (int i1 = 0; i1 < dim1; ++i1) {
-                                        int j1 = idx1[i1] + j2;
-                                        out[++j] = data[j1];
+                                    for (int r = 0; r < runs1.count; ++r) {
+                                        int step = runs1.stride[r];
+                                        int j1 = runs1.offset[r] + j2;
+                                        int n = runs1.length[r];
+                                        if (step == 1) {
+                                            System.arraycopy(data, j1, out, j, n);
+                                            j += n;
+                                        } else {
+                                            for (; n > 0; --n, j1 += step) {
+                                                out[j++] = data[j1];
+                                            }
+                                        }
                                     }
                                 }
                             }
@@ -407,6 +444,56 @@ public class SelectedFloat8D extends Float8D {
         return out;
     }
 
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! shape.equals(arr.getShape())) {
+            throw new NonConformableArrayException("Source and destination must have the same shape.");
+        }
+        Float8D src;
+        if (arr.getType() == Traits.FLOAT) {
+            src = (Float8D)arr;
+        } else {
+            src = (Float8D)arr.toFloat();
+        }
+        /* Copy the source in column-major order, run by run. */
+        float[] inp = src.flatten(false);
+        int j = 0;
+        for (int i8 = 0; i8 < dim8; ++i8) {
+            int j8 = idx8[i8];
+            for (int i7 = 0; i7 < dim7; ++i7) {
+                int j7 = idx7[i7] + j8;
+                for (int i6 = 0; i6 < dim6; ++i6) {
+                    int j6 = idx6[i6] + j7;
+                    for (int i5 = 0; i5 < dim5; ++i5) {
+                        int j5 = idx5[i5] + j6;
+                        for (int i4 = 0; i4 < dim4; ++i4) {
+                            int j4 = idx4[i4] + j5;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = idx3[i3] + j4;
+                                for (int i2 = 0; i2 < dim2; ++i2) {
+                                    int j2 = idx2[i2] + j3;
+                                    for (int r = 0; r < runs1.count; ++r) {
+                                        int step = runs1.stride[r];
+                                        int j1 = runs1.offset[r] + j2;
+                                        int n = runs1.length[r];
+                                        if (step == 1) {
+                                            System.arraycopy(inp, j, data, j1, n);
+                                            j += n;
+                                        } else {
+                                            for (; n > 0; --n, j1 += step) {
+                                                data[j1] = inp[j++];
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     @Override
     public Float7D slice(int idx) {
         int[] sliceIndex1;
@@ -579,9 +666,12 @@ public class SelectedFloat8D extends Float8D {
                                 int j3 = idx3[i3] + j4;
                                 for (int i2 = 0; i2 < dim2; ++i2) {
                                     int j2 = idx2[i2] + j3;
-                                    for (int i1 = 0; i1 < dim1; ++i1) {
-                                        int j1 = idx1[i1] + j2;
-                                        idx[++j] = j1;
+                                    for (int r = 0; r < runs1.count; ++r) {
+                                        int step = runs1.stride[r];
+                                        int j1 = runs1.offset[r] + j2;
+                                        for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                                            idx[++j] = j1;
+                                        }
                                     }
                                 }
                             }
@@ -593,6 +683,13 @@ public class SelectedFloat8D extends Float8D {
         return new SelectedFloat1D(data, idx);
     }
 
+    @Override
+    public Float8D permute(int... perm) {
+        /* The indirection tables are shared, not copied. */
+        int[][] permIdx = Helper.permute(new int[][]{idx1, idx2, idx3, idx4, idx5, idx6, idx7, idx8}, perm);
+        return new SelectedFloat8D(data, permIdx[0], permIdx[1], permIdx[2], permIdx[3], permIdx[4], permIdx[5], permIdx[6], permIdx[7]);
+    }
+
 }
 
 /*
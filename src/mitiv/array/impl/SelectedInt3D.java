@@ -32,13 +32,18 @@ import mitiv.base.indexing.Range;
 import mitiv.base.mapping.IntFunction;
 import mitiv.base.mapping.IntScanner;
 import mitiv.random.IntGenerator;
+import mitiv.array.ShapedArray;
+import mitiv.base.Traits;
+import mitiv.exception.NonConformableArrayException;
 
 
 /**
  * Selected implementation of 3-dimensional arrays of int's.
  *
  * This specific kind of arrays/views are accessed via indirection tables (one
- * for each dimension).
+ * for each dimension).  For bulk operations, the indirection table of the
+ * first dimension is compiled into runs of equally spaced indices (see
+ * {@link IndexRuns}) which are processed by strided loops.
  *
  * @author Éric Thiébaut.
  */
@@ -48,6 +53,7 @@ public class SelectedInt3D extends Int3D {
     final int[] idx1;
     final int[] idx2;
     final int[] idx3;
+    final IndexRuns runs1;
 
     /**
      * Create a new instance of a view via lists of selected indices.
@@ -63,6 +69,7 @@ public class SelectedInt3D extends Int3D {
         this.idx1 = idx1;
         this.idx2 = idx2;
         this.idx3 = idx3;
+        this.runs1 = new IndexRuns(idx1);
     }
 
     @Override
@@ -122,9 +129,12 @@ public class SelectedInt3D extends Int3D {
             int j3 = idx3[i3];
             for (int i2 = 0; i2 < dim2; ++i2) {
                 int j2 = idx2[i2] + j3;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = idx1[i1] + j2;
-                    data[j1] = value;
+                for (int r = 0; r < runs1.count; ++r) {
+                    int step = runs1.stride[r];
+                    int j1 = runs1.offset[r] + j2;
+                    for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                        data[j1] = value;
+                    }
                 }
             }
         }
@@ -136,9 +146,12 @@ public class SelectedInt3D extends Int3D {
             int j3 = idx3[i3];
             for (int i2 = 0; i2 < dim2; ++i2) {
                 int j2 = idx2[i2] + j3;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = idx1[i1] + j2;
-                    data[j1] = generator.nextInt();
+                for (int r = 0; r < runs1.count; ++r) {
+                    int step = runs1.stride[r];
+                    int j1 = runs1.offset[r] + j2;
+                    for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                        data[j1] = generator.nextInt();
+                    }
                 }
             }
         }
@@ -150,9 +163,12 @@ public class SelectedInt3D extends Int3D {
             int j3 = idx3[i3];
             for (int i2 = 0; i2 < dim2; ++i2) {
                 int j2 = idx2[i2] + j3;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = idx1[i1] + j2;
-                    data[j1] += value;
+                for (int r = 0; r < runs1.count; ++r) {
+                    int step = runs1.stride[r];
+                    int j1 = runs1.offset[r] + j2;
+                    for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                        data[j1] += value;
+                    }
                 }
             }
         }
@@ -164,9 +180,12 @@ public class SelectedInt3D extends Int3D {
             int j3 = idx3[i3];
             for (int i2 = 0; i2 < dim2; ++i2) {
                 int j2 = idx2[i2] + j3;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = idx1[i1] + j2;
-                    data[j1] -= value;
+                for (int r = 0; r < runs1.count; ++r) {
+                    int step = runs1.stride[r];
+                    int j1 = runs1.offset[r] + j2;
+                    for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                        data[j1] -= value;
+                    }
                 }
             }
         }
@@ -178,9 +197,12 @@ public class SelectedInt3D extends Int3D {
             int j3 = idx3[i3];
             for (int i2 = 0; i2 < dim2; ++i2) {
                 int j2 = idx2[i2] + j3;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = idx1[i1] + j2;
-                    data[j1] *= value;
+                for (int r = 0; r < runs1.count; ++r) {
+                    int step = runs1.stride[r];
+                    int j1 = runs1.offset[r] + j2;
+                    for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                        data[j1] *= value;
+                    }
                 }
             }
         }
@@ -192,9 +214,12 @@ public class SelectedInt3D extends Int3D {
             int j3 = idx3[i3];
             for (int i2 = 0; i2 < dim2; ++i2) {
                 int j2 = idx2[i2] + j3;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = idx1[i1] + j2;
-                    data[j1] = function.apply(data[j1]);
+                for (int r = 0; r < runs1.count; ++r) {
+                    int step = runs1.stride[r];
+                    int j1 = runs1.offset[r] + j2;
+                    for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                        data[j1] = function.apply(data[j1]);
+                    }
                 }
             }
         }
@@ -207,13 +232,16 @@ public class SelectedInt3D extends Int3D {
             int j3 = idx3[i3];
             for (int i2 = 0; i2 < dim2; ++i2) {
                 int j2 = idx2[i2] + j3;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = idx1[i1] + j2;
-                    if (initialized) {
-                        scanner.update(data[j1]);
-                    } else {
-                        scanner.initialize(data[j1]);
-                        initialized = true;
+                for (int r = 0; r < runs1.count; ++r) {
+                    int step = runs1.stride[r];
+                    int j1 = runs1.offset[r] + j2;
+                    for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                        if (initialized) {
+                            scanner.update(data[j1]);
+                        } else {
+                            scanner.initialize(data[j1]);
+                            initialized = true;
+                        }
                     }
                 }
             }
@@ -223,20 +251,64 @@ public class SelectedInt3D extends Int3D {
     @Override
     public int[] flatten(boolean forceCopy) {
         int[] out = new int[number];
-        int j = -1;
+        int j = 0;
         for (int i3 = 0; i3 < dim3; ++i3) {
             int j3 = idx3[i3];
             for (int i2 = 0; i2 < dim2; ++i2) {
                 int j2 = idx2[i2] + j3;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = idx1[i1] + j2;
-                    out[++j] = data[j1];
+                for (int r = 0; r < runs1.count; ++r) {
+                    int step = runs1.stride[r];
+                    int j1 = runs1.offset[r] + j2;
+                    int n = runs1.length[r];
+                    if (step == 1) {
+                        System.arraycopy(data, j1, out, j, n);
+                        j += n;
+                    } else {
+                        for (; n > 0; --n, j1 += step) {
+                            out[j++] = data[j1];
+                        }
+                    }
                 }
             }
         }
         return out;
     }
 
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! shape.equals(arr.getShape())) {
+            throw new NonConformableArrayException("Source and destination must have the same shape.");
+        }
+        Int3D src;
+        if (arr.getType() == Traits.INT) {
+            src = (Int3D)arr;
+        } else {
+            src = (Int3D)arr.toInt();
+        }
+        /* Copy the source in column-major order, run by run. */
+        int[] inp = src.flatten(false);
+        int j = 0;
+        for (int i3 = 0; i3 < dim3; ++i3) {
+            int j3 = idx3[i3];
+            for (int i2 = 0; i2 < dim2; ++i2) {
+                int j2 = idx2[i2] + j3;
+                for (int r = 0; r < runs1.count; ++r) {
+                    int step = runs1.stride[r];
+                    int j1 = runs1.offset[r] + j2;
+                    int n = runs1.length[r];
+                    if (step == 1) {
+                        System.arraycopy(inp, j, data, j1, n);
+                        j += n;
+                    } else {
+                        for (; n > 0; --n, j1 += step) {
+                            data[j1] = inp[j++];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     @Override
     public Int2D slice(int idx) {
         int[] sliceIndex1;
@@ -319,15 +391,25 @@ public class SelectedInt3D extends Int3D {
             int j3 = idx3[i3];
             for (int i2 = 0; i2 < dim2; ++i2) {
                 int j2 = idx2[i2] + j3;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = idx1[i1] + j2;
-                    idx[++j] = j1;
+                for (int r = 0; r < runs1.count; ++r) {
+                    int step = runs1.stride[r];
+                    int j1 = runs1.offset[r] + j2;
+                    for (int n = runs1.length[r]; n > 0; --n, j1 += step) {
+                        idx[++j] = j1;
+                    }
                 }
             }
         }
         return new SelectedInt1D(data, idx);
     }
 
+    @Override
+    public Int3D permute(int... perm) {
+        /* The indirection tables are shared, not copied. */
+        int[][] permIdx = Helper.permute(new int[][]{idx1, idx2, idx3}, perm);
+        return new SelectedInt3D(data, permIdx[0], permIdx[1], permIdx[2]);
+    }
+
 }
 
 /*
@@ -0,0 +1,70 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array.impl;
+
+/**
+ * Interface implemented by arrays whose elements are stored in a Java array
+ * of primitive type with an offset and a stride per dimension.
+ *
+ * <p>
+ * The element at position {@code (i1,i2,...)} of such an array is stored in
+ * {@code storage[offset + stride1*i1 + stride2*i2 + ...]}.  This is used by
+ * {@link BlockCopy} to move whole blocks of contiguous elements at once.
+ * </p>
+ */
+public interface StorageLayout {
+    /**
+     * Get the storage of the elements.
+     * @return The Java array (of a primitive type) where the elements are
+     *         stored.
+     */
+    public abstract Object getStorage();
+
+    /**
+     * Get the offset of the first element in the storage.
+     * @return The index of the element at position {@code (0,0,...)}.
+     */
+    public abstract int getStorageOffset();
+
+    /**
+     * Get the strides of the elements in the storage.
+     * @return A new array with the step between successive elements along
+     *         every dimension.
+     */
+    public abstract int[] getStorageStrides();
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
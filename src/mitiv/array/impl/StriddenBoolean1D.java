@@ -0,0 +1,190 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array.impl;
+
+import java.util.Arrays;
+
+import mitiv.array.Boolean1D;
+import mitiv.array.BooleanScalar;
+import mitiv.base.indexing.CompiledRange;
+import mitiv.base.indexing.Range;
+
+/**
+ * Stridden implementation of 1-dimensional arrays of booleans.
+ *
+ * <p>
+ * The values are bits of packed words (see {@link mitiv.array.BooleanArray})
+ * located by an offset and strides expressed in bits.  Slices and views
+ * defined by ranges share the same words.  Views defined by lists of
+ * indices are however copies.
+ * </p>
+ */
+public class StriddenBoolean1D extends Boolean1D {
+    final int order;
+    final long[] bits;
+    final int offset;
+    final int stride1;
+
+    public StriddenBoolean1D(long[] bits, int offset, int[] stride, int[] dims) {
+        super(dims);
+        if (stride.length != 1) {
+            throw new IllegalArgumentException("There must be as many strides as the rank.");
+        }
+        this.bits = bits;
+        this.offset = offset;
+        stride1 = stride[0];
+        this.order = Boolean1D.checkViewStrides(capacity(bits), offset, stride1, dim1);
+    }
+
+    public StriddenBoolean1D(long[] bits, int offset, int stride1, int dim1) {
+        super(dim1);
+        this.bits = bits;
+        this.offset = offset;
+        this.stride1 = stride1;
+        this.order = Boolean1D.checkViewStrides(capacity(bits), offset, stride1, dim1);
+    }
+
+    @Override
+    public void checkSanity() {
+        Boolean1D.checkViewStrides(capacity(bits), offset, stride1, dim1);
+    }
+
+    /* Number of bits available in the packed words (indices of bits must be
+     * representable by an int). */
+    private static int capacity(long[] bits) {
+        return (int)Math.min(64L*bits.length, Integer.MAX_VALUE);
+    }
+
+    /* Are the elements contiguous and in column-major order? */
+    private boolean isContiguous() {
+        return (stride1 == 1);
+    }
+
+    final int index(int i1) {
+        return offset + stride1*i1;
+    }
+
+    @Override
+    public final boolean get(int i1) {
+        int j = offset + stride1*i1;
+        return ((bits[j >>> 6] >>> j) & 1L) != 0L;
+    }
+
+    @Override
+    public final void set(int i1, boolean value) {
+        int j = offset + stride1*i1;
+        if (value) {
+            bits[j >>> 6] |= (1L << j);
+        } else {
+            bits[j >>> 6] &= ~(1L << j);
+        }
+    }
+
+    @Override
+    public long[] getBits(boolean forceCopy) {
+        if (offset == 0 && isContiguous()) {
+            /* The elements are packed in the same way as a flat array. */
+            return (forceCopy ? Arrays.copyOf(bits, (number + 63) >>> 6) : bits);
+        }
+        return super.getBits(forceCopy);
+    }
+
+    @Override
+    public final int getOrder() {
+        return order;
+    }
+
+    @Override
+    public Boolean1D permute(int... perm) {
+        return new StriddenBoolean1D(bits, offset,
+                Helper.permute(new int[]{stride1}, perm),
+                Helper.permute(shape.copyDimensions(), perm));
+    }
+
+    @Override
+    public BooleanScalar slice(int idx) {
+        return new BooleanScalar(bits, offset + stride1*Helper.fixIndex(idx, dim1));
+    }
+
+    @Override
+    public BooleanScalar slice(int idx, int dim) {
+        int sliceOffset;
+        if (dim < 0) {
+            /* A negative index is taken with respect to the end. */
+            dim += 1;
+        }
+        if (dim == 0) {
+            /* Slice along 1st dimension. */
+            sliceOffset = offset + stride1*Helper.fixIndex(idx, dim1);
+        } else {
+            throw new IndexOutOfBoundsException("Dimension index out of bounds.");
+        }
+        return new BooleanScalar(bits, sliceOffset);
+    }
+
+    @Override
+    public Boolean1D view(Range rng1) {
+        CompiledRange cr1 = new CompiledRange(rng1, dim1, offset, stride1);
+        if (cr1.doesNothing()) {
+            return this;
+        }
+        return new StriddenBoolean1D(this.bits,
+                cr1.getOffset(),
+                cr1.getStride(),
+                cr1.getNumber());
+    }
+
+    @Override
+    public Boolean1D view(int[] sel1) {
+        int[] idx1 = Helper.select(offset, stride1, dim1, sel1);
+        /* Selected elements are scattered in the packed words, make a copy. */
+        long[] arr = new long[(idx1.length + 63) >>> 6];
+        int j = -1;
+        for (int i1 = 0; i1 < idx1.length; ++i1) {
+            int j1 = idx1[i1];
+            arr[++j >>> 6] |= (((bits[j1 >>> 6] >>> j1) & 1L) << j);
+        }
+        return new FlatBoolean1D(arr, idx1.length);
+    }
+
+    @Override
+    public Boolean1D as1D() {
+        return this;
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,215 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array.impl;
+
+import java.util.Arrays;
+
+import mitiv.array.Boolean1D;
+import mitiv.array.Boolean2D;
+import mitiv.base.indexing.CompiledRange;
+import mitiv.base.indexing.Range;
+
+/**
+ * Stridden implementation of 2-dimensional arrays of booleans.
+ *
+ * <p>
+ * The values are bits of packed words (see {@link mitiv.array.BooleanArray})
+ * located by an offset and strides expressed in bits.  Slices and views
+ * defined by ranges share the same words.  Views defined by lists of
+ * indices are however copies.
+ * </p>
+ */
+public class StriddenBoolean2D extends Boolean2D {
+    final int order;
+    final long[] bits;
+    final int offset;
+    final int stride1;
+    final int stride2;
+
+    public StriddenBoolean2D(long[] bits, int offset, int[] stride, int[] dims) {
+        super(dims);
+        if (stride.length != 2) {
+            throw new IllegalArgumentException("There must be as many strides as the rank.");
+        }
+        this.bits = bits;
+        this.offset = offset;
+        stride1 = stride[0];
+        stride2 = stride[1];
+        this.order = Boolean2D.checkViewStrides(capacity(bits), offset, stride1, stride2, dim1, dim2);
+    }
+
+    public StriddenBoolean2D(long[] bits, int offset, int stride1, int stride2, int dim1, int dim2) {
+        super(dim1, dim2);
+        this.bits = bits;
+        this.offset = offset;
+        this.stride1 = stride1;
+        this.stride2 = stride2;
+        this.order = Boolean2D.checkViewStrides(capacity(bits), offset, stride1, stride2, dim1, dim2);
+    }
+
+    @Override
+    public void checkSanity() {
+        Boolean2D.checkViewStrides(capacity(bits), offset, stride1, stride2, dim1, dim2);
+    }
+
+    /* Number of bits available in the packed words (indices of bits must be
+     * representable by an int). */
+    private static int capacity(long[] bits) {
+        return (int)Math.min(64L*bits.length, Integer.MAX_VALUE);
+    }
+
+    /* Are the elements contiguous and in column-major order? */
+    private boolean isContiguous() {
+        return (stride1 == 1 && stride2 == dim1);
+    }
+
+    final int index(int i1, int i2) {
+        return offset + stride2*i2 + stride1*i1;
+    }
+
+    @Override
+    public final boolean get(int i1, int i2) {
+        int j = offset + stride2*i2 + stride1*i1;
+        return ((bits[j >>> 6] >>> j) & 1L) != 0L;
+    }
+
+    @Override
+    public final void set(int i1, int i2, boolean value) {
+        int j = offset + stride2*i2 + stride1*i1;
+        if (value) {
+            bits[j >>> 6] |= (1L << j);
+        } else {
+            bits[j >>> 6] &= ~(1L << j);
+        }
+    }
+
+    @Override
+    public long[] getBits(boolean forceCopy) {
+        if (offset == 0 && isContiguous()) {
+            /* The elements are packed in the same way as a flat array. */
+            return (forceCopy ? Arrays.copyOf(bits, (number + 63) >>> 6) : bits);
+        }
+        return super.getBits(forceCopy);
+    }
+
+    @Override
+    public final int getOrder() {
+        return order;
+    }
+
+    @Override
+    public Boolean2D permute(int... perm) {
+        return new StriddenBoolean2D(bits, offset,
+                Helper.permute(new int[]{stride1, stride2}, perm),
+                Helper.permute(shape.copyDimensions(), perm));
+    }
+
+    @Override
+    public Boolean1D slice(int idx) {
+        return new StriddenBoolean1D(bits,
+               offset + stride2*idx, // offset
+               stride1, // strides
+               dim1); // dimensions
+    }
+
+    @Override
+    public Boolean1D slice(int idx, int dim) {
+        int sliceOffset;
+        int sliceStride1;
+        int sliceDim1;
+        if (dim < 0) {
+            /* A negative index is taken with respect to the end. */
+            dim += 2;
+        }
+        if (dim == 0) {
+            /* Slice along 1st dimension. */
+            sliceOffset = offset + stride1*idx;
+            sliceStride1 = stride2;
+            sliceDim1 = dim2;
+        } else if (dim == 1) {
+            /* Slice along 2nd dimension. */
+            sliceOffset = offset + stride2*idx;
+            sliceStride1 = stride1;
+            sliceDim1 = dim1;
+        } else {
+            throw new IndexOutOfBoundsException("Dimension index out of bounds.");
+        }
+        return new StriddenBoolean1D(bits, sliceOffset,
+                sliceStride1,
+                sliceDim1);
+    }
+
+    @Override
+    public Boolean2D view(Range rng1, Range rng2) {
+        CompiledRange cr1 = new CompiledRange(rng1, dim1, offset, stride1);
+        CompiledRange cr2 = new CompiledRange(rng2, dim2, 0, stride2);
+        if (cr1.doesNothing() && cr2.doesNothing()) {
+            return this;
+        }
+        return new StriddenBoolean2D(this.bits,
+                cr1.getOffset() + cr2.getOffset(),
+                cr1.getStride(), cr2.getStride(),
+                cr1.getNumber(), cr2.getNumber());
+    }
+
+    @Override
+    public Boolean2D view(int[] sel1, int[] sel2) {
+        int[] idx1 = Helper.select(offset, stride1, dim1, sel1);
+        int[] idx2 = Helper.select(0, stride2, dim2, sel2);
+        /* Selected elements are scattered in the packed words, make a copy. */
+        long[] arr = new long[(idx1.length*idx2.length + 63) >>> 6];
+        int j = -1;
+        for (int i2 = 0; i2 < idx2.length; ++i2) {
+            int j2 = idx2[i2];
+            for (int i1 = 0; i1 < idx1.length; ++i1) {
+                int j1 = idx1[i1] + j2;
+                arr[++j >>> 6] |= (((bits[j1 >>> 6] >>> j1) & 1L) << j);
+            }
+        }
+        return new FlatBoolean2D(arr, idx1.length, idx2.length);
+    }
+
+    @Override
+    public Boolean1D as1D() {
+        if (isContiguous()) {
+            return new StriddenBoolean1D(bits, offset, 1, number);
+        }
+        return new FlatBoolean1D(getBits(true), number);
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -31,7 +31,15 @@ import mitiv.base.indexing.Range;
 import mitiv.base.mapping.ByteFunction;
 import mitiv.base.mapping.ByteScanner;
 import mitiv.random.ByteGenerator;
+import mitiv.array.Short1D;
+import mitiv.array.Int1D;
+import mitiv.array.Long1D;
+import mitiv.array.Float1D;
+import mitiv.array.Double1D;
+import mitiv.array.ShapedArray;
+import mitiv.base.Parallel;
 import mitiv.base.indexing.CompiledRange;
+import mitiv.base.mapping.ByteMergeableScanner;
 
 
 /**
@@ -39,7 +47,7 @@ import mitiv.base.indexing.CompiledRange;
  *
  * @author Éric Thiébaut.
  */
-public class StriddenByte1D extends Byte1D {
+public class StriddenByte1D extends Byte1D implements StorageLayout {
     final int order;
     final byte[] data;
     final int offset;
@@ -93,56 +101,127 @@ public class StriddenByte1D extends Byte1D {
     }
 
     @Override
-    public void fill(byte value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] = value;
+    public Object getStorage() {
+        return data;
+    }
+
+    @Override
+    public int getStorageOffset() {
+        return offset;
+    }
+
+    @Override
+    public int[] getStorageStrides() {
+        return new int[]{stride1};
+    }
+
+    @Override
+    public Byte1D permute(int... perm) {
+        return new StriddenByte1D(data, offset,
+                Helper.permute(getStorageStrides(), perm),
+                Helper.permute(shape.copyDimensions(), perm));
+    }
+
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! BlockCopy.copy(arr, this)) {
+            super.assign(arr);
+        }
+    }
+
+    /* Number of iterations of the outermost loop in memory order. */
+    private int getSplitLength() {
+        return dim1;
+    }
+
+    /* Number of iterations of the outermost loop per block. */
+    private int getSplitGrain() {
+        return Parallel.getGrain(getSplitLength(), number);
+    }
+
+    /* Index of the first element of a block. */
+    private int getSplitIndex(int first) {
+        return stride1*first + offset;
+    }
+
+    @Override
+    public void fill(final byte value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] = value;
+                }
             }
+        });
     }
 
     @Override
-    public void fill(ByteGenerator generator) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] = generator.nextByte();
+    public void increment(final byte value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] += value;
+                }
             }
+        });
     }
 
     @Override
-    public void increment(byte value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] += value;
+    public void decrement(final byte value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] -= value;
+                }
             }
+        });
     }
 
     @Override
-    public void decrement(byte value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] -= value;
+    public void scale(final byte value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] *= value;
+                }
             }
+        });
     }
 
     @Override
-    public void scale(byte value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] *= value;
+    public void map(final ByteFunction function) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] = function.apply(data[j1]);
+                }
             }
+        });
     }
 
     @Override
-    public void map(ByteFunction function) {
+    public void fill(ByteGenerator generator) {
+        /* Generators are sequential, this loop cannot be split. */
             for (int i1 = 0; i1 < dim1; ++i1) {
                 int j1 = stride1*i1 + offset;
-                data[j1] = function.apply(data[j1]);
+                data[j1] = generator.nextByte();
             }
     }
 
     @Override
     public void scan(ByteScanner scanner)  {
-        boolean initialized = false;
+        if (! (scanner instanceof ByteMergeableScanner)) {
+            boolean initialized = false;
             for (int i1 = 0; i1 < dim1; ++i1) {
                 int j1 = stride1*i1 + offset;
                 if (initialized) {
@@ -152,6 +231,219 @@ public class StriddenByte1D extends Byte1D {
                     initialized = true;
                 }
             }
+            return;
+        }
+        final ByteMergeableScanner root = (ByteMergeableScanner)scanner;
+        Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<ByteMergeableScanner>() {
+            @Override
+            public ByteMergeableScanner compute(int first, int last) {
+                ByteMergeableScanner scanner = (first == 0 ? root : root.spawn());
+                boolean initialized = false;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    if (initialized) {
+                        scanner.update(data[j1]);
+                    } else {
+                        scanner.initialize(data[j1]);
+                        initialized = true;
+                    }
+                }
+                return scanner;
+            }
+
+            @Override
+            public ByteMergeableScanner combine(ByteMergeableScanner left,
+                    ByteMergeableScanner right) {
+                left.merge(right);
+                return left;
+            }
+        });
+    }
+
+    @Override
+    public int min() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int minValue = (data[getSplitIndex(first)] & 0xFF);
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    int value = (data[j1] & 0xFF);
+                    if (value < minValue) {
+                        minValue = value;
+                    }
+                }
+                return minValue;
+            }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return (right < left ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public int max() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int maxValue = (data[getSplitIndex(first)] & 0xFF);
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    int value = (data[j1] & 0xFF);
+                    if (value > maxValue) {
+                        maxValue = value;
+                    }
+                }
+                return maxValue;
+            }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return (right > left ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public void getMinAndMax(int[] mm) {
+        int[] result = Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<int[]>() {
+            @Override
+            public int[] compute(int first, int last) {
+                int minValue = (data[getSplitIndex(first)] & 0xFF);
+                int maxValue = minValue;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    int value = (data[j1] & 0xFF);
+                    if (value < minValue) {
+                        minValue = value;
+                    }
+                    if (value > maxValue) {
+                        maxValue = value;
+                    }
+                }
+                return new int[]{minValue, maxValue};
+            }
+
+            @Override
+            public int[] combine(int[] left, int[] right) {
+                if (right[0] < left[0]) {
+                    left[0] = right[0];
+                }
+                if (right[1] > left[1]) {
+                    left[1] = right[1];
+                }
+                return left;
+            }
+        });
+        mm[0] = result[0];
+        mm[1] = result[1];
+    }
+
+    @Override
+    public int sum() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int totalValue = 0;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    totalValue += (data[j1] & 0xFF);
+                }
+                return totalValue;
+            }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return left + right;
+            }
+        });
+    }
+
+    @Override
+    public Short1D toShort() {
+        final short[] out = new short[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (short)data[j1];
+                }
+            }
+        });
+        return new FlatShort1D(out, shape);
+    }
+
+    @Override
+    public Int1D toInt() {
+        final int[] out = new int[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (int)data[j1];
+                }
+            }
+        });
+        return new FlatInt1D(out, shape);
+    }
+
+    @Override
+    public Long1D toLong() {
+        final long[] out = new long[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (long)data[j1];
+                }
+            }
+        });
+        return new FlatLong1D(out, shape);
+    }
+
+    @Override
+    public Float1D toFloat() {
+        final float[] out = new float[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (float)data[j1];
+                }
+            }
+        });
+        return new FlatFloat1D(out, shape);
+    }
+
+    @Override
+    public Double1D toDouble() {
+        final double[] out = new double[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (double)data[j1];
+                }
+            }
+        });
+        return new FlatDouble1D(out, shape);
     }
 
     @Override
@@ -160,11 +452,8 @@ public class StriddenByte1D extends Byte1D {
             return data;
         }
         byte[] out = new byte[number];
-        int j = -1;
-        for (int i1 = 0; i1 < dim1; ++i1) {
-            int j1 = stride1*i1 + offset;
-            out[++j] = data[j1];
-        }
+        BlockCopy.copy(data, offset, getStorageStrides(), out, 0,
+                new int[]{1}, shape.copyDimensions());
         return out;
     }
 
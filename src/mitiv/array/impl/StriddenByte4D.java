@@ -32,7 +32,15 @@ import mitiv.base.indexing.Range;
 import mitiv.base.mapping.ByteFunction;
 import mitiv.base.mapping.ByteScanner;
 import mitiv.random.ByteGenerator;
+import mitiv.array.Short4D;
+import mitiv.array.Int4D;
+import mitiv.array.Long4D;
+import mitiv.array.Float4D;
+import mitiv.array.Double4D;
+import mitiv.array.ShapedArray;
+import mitiv.base.Parallel;
 import mitiv.base.indexing.CompiledRange;
+import mitiv.base.mapping.ByteMergeableScanner;
 
 
 /**
@@ -40,7 +48,7 @@ import mitiv.base.indexing.CompiledRange;
  *
  * @author Éric Thiébaut.
  */
-public class StriddenByte4D extends Byte4D {
+public class StriddenByte4D extends Byte4D implements StorageLayout {
     final int order;
     final byte[] data;
     final int offset;
@@ -103,41 +111,247 @@ public class StriddenByte4D extends Byte4D {
     }
 
     @Override
-    public void fill(byte value) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    for (int i3 = 0; i3 < dim3; ++i3) {
-                        int j3 = stride3*i3 + j2;
-                        for (int i4 = 0; i4 < dim4; ++i4) {
-                            int j4 = stride4*i4 + j3;
-                            data[j4] = value;
+    public Object getStorage() {
+        return data;
+    }
+
+    @Override
+    public int getStorageOffset() {
+        return offset;
+    }
+
+    @Override
+    public int[] getStorageStrides() {
+        return new int[]{stride1, stride2, stride3, stride4};
+    }
+
+    @Override
+    public Byte4D permute(int... perm) {
+        return new StriddenByte4D(data, offset,
+                Helper.permute(getStorageStrides(), perm),
+                Helper.permute(shape.copyDimensions(), perm));
+    }
+
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! BlockCopy.copy(arr, this)) {
+            super.assign(arr);
+        }
+    }
+
+    /* Number of iterations of the outermost loop in memory order. */
+    private int getSplitLength() {
+        return (getOrder() == ROW_MAJOR ? dim1 : dim4);
+    }
+
+    /* Number of iterations of the outermost loop per block. */
+    private int getSplitGrain() {
+        return Parallel.getGrain(getSplitLength(), number);
+    }
+
+    /* Index of the first element of a block. */
+    private int getSplitIndex(int first) {
+        return (getOrder() == ROW_MAJOR ? stride1 : stride4)*first + offset;
+    }
+
+    @Override
+    public void fill(final byte value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    int j4 = stride4*i4 + j3;
+                                    data[j4] = value;
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i4 = first; i4 < last; ++i4) {
+                        int j4 = stride4*i4 + offset;
+                        for (int i3 = 0; i3 < dim3; ++i3) {
+                            int j3 = stride3*i3 + j4;
+                            for (int i2 = 0; i2 < dim2; ++i2) {
+                                int j2 = stride2*i2 + j3;
+                                for (int i1 = 0; i1 < dim1; ++i1) {
+                                    int j1 = stride1*i1 + j2;
+                                    data[j1] = value;
+                                }
+                            }
                         }
                     }
                 }
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i4 = 0; i4 < dim4; ++i4) {
-                int j4 = stride4*i4 + offset;
-                for (int i3 = 0; i3 < dim3; ++i3) {
-                    int j3 = stride3*i3 + j4;
-                    for (int i2 = 0; i2 < dim2; ++i2) {
-                        int j2 = stride2*i2 + j3;
-                        for (int i1 = 0; i1 < dim1; ++i1) {
-                            int j1 = stride1*i1 + j2;
-                            data[j1] = value;
+        });
+    }
+
+    @Override
+    public void increment(final byte value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    int j4 = stride4*i4 + j3;
+                                    data[j4] += value;
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i4 = first; i4 < last; ++i4) {
+                        int j4 = stride4*i4 + offset;
+                        for (int i3 = 0; i3 < dim3; ++i3) {
+                            int j3 = stride3*i3 + j4;
+                            for (int i2 = 0; i2 < dim2; ++i2) {
+                                int j2 = stride2*i2 + j3;
+                                for (int i1 = 0; i1 < dim1; ++i1) {
+                                    int j1 = stride1*i1 + j2;
+                                    data[j1] += value;
+                                }
+                            }
                         }
                     }
                 }
             }
-        }
+        });
+    }
+
+    @Override
+    public void decrement(final byte value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    int j4 = stride4*i4 + j3;
+                                    data[j4] -= value;
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i4 = first; i4 < last; ++i4) {
+                        int j4 = stride4*i4 + offset;
+                        for (int i3 = 0; i3 < dim3; ++i3) {
+                            int j3 = stride3*i3 + j4;
+                            for (int i2 = 0; i2 < dim2; ++i2) {
+                                int j2 = stride2*i2 + j3;
+                                for (int i1 = 0; i1 < dim1; ++i1) {
+                                    int j1 = stride1*i1 + j2;
+                                    data[j1] -= value;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void scale(final byte value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    int j4 = stride4*i4 + j3;
+                                    data[j4] *= value;
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i4 = first; i4 < last; ++i4) {
+                        int j4 = stride4*i4 + offset;
+                        for (int i3 = 0; i3 < dim3; ++i3) {
+                            int j3 = stride3*i3 + j4;
+                            for (int i2 = 0; i2 < dim2; ++i2) {
+                                int j2 = stride2*i2 + j3;
+                                for (int i1 = 0; i1 < dim1; ++i1) {
+                                    int j1 = stride1*i1 + j2;
+                                    data[j1] *= value;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void map(final ByteFunction function) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    int j4 = stride4*i4 + j3;
+                                    data[j4] = function.apply(data[j4]);
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i4 = first; i4 < last; ++i4) {
+                        int j4 = stride4*i4 + offset;
+                        for (int i3 = 0; i3 < dim3; ++i3) {
+                            int j3 = stride3*i3 + j4;
+                            for (int i2 = 0; i2 < dim2; ++i2) {
+                                int j2 = stride2*i2 + j3;
+                                for (int i1 = 0; i1 < dim1; ++i1) {
+                                    int j1 = stride1*i1 + j2;
+                                    data[j1] = function.apply(data[j1]);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        });
     }
 
     @Override
     public void fill(ByteGenerator generator) {
+        /* Generators are sequential, this loop cannot be split. */
         if (getOrder() == ROW_MAJOR) {
             for (int i1 = 0; i1 < dim1; ++i1) {
                 int j1 = stride1*i1 + offset;
@@ -171,184 +385,454 @@ public class StriddenByte4D extends Byte4D {
     }
 
     @Override
-    public void increment(byte value) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
+    public void scan(ByteScanner scanner)  {
+        if (! (scanner instanceof ByteMergeableScanner)) {
+            boolean initialized = false;
+            if (getOrder() == ROW_MAJOR) {
+                for (int i1 = 0; i1 < dim1; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    for (int i2 = 0; i2 < dim2; ++i2) {
+                        int j2 = stride2*i2 + j1;
+                        for (int i3 = 0; i3 < dim3; ++i3) {
+                            int j3 = stride3*i3 + j2;
+                            for (int i4 = 0; i4 < dim4; ++i4) {
+                                int j4 = stride4*i4 + j3;
+                                if (initialized) {
+                                    scanner.update(data[j4]);
+                                } else {
+                                    scanner.initialize(data[j4]);
+                                    initialized = true;
+                                }
+                            }
+                        }
+                    }
+                }
+            } else {
+                /* Assume column-major order. */
+                for (int i4 = 0; i4 < dim4; ++i4) {
+                    int j4 = stride4*i4 + offset;
                     for (int i3 = 0; i3 < dim3; ++i3) {
-                        int j3 = stride3*i3 + j2;
-                        for (int i4 = 0; i4 < dim4; ++i4) {
-                            int j4 = stride4*i4 + j3;
-                            data[j4] += value;
+                        int j3 = stride3*i3 + j4;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j3;
+                            for (int i1 = 0; i1 < dim1; ++i1) {
+                                int j1 = stride1*i1 + j2;
+                                if (initialized) {
+                                    scanner.update(data[j1]);
+                                } else {
+                                    scanner.initialize(data[j1]);
+                                    initialized = true;
+                                }
+                            }
                         }
                     }
                 }
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i4 = 0; i4 < dim4; ++i4) {
-                int j4 = stride4*i4 + offset;
-                for (int i3 = 0; i3 < dim3; ++i3) {
-                    int j3 = stride3*i3 + j4;
-                    for (int i2 = 0; i2 < dim2; ++i2) {
-                        int j2 = stride2*i2 + j3;
-                        for (int i1 = 0; i1 < dim1; ++i1) {
-                            int j1 = stride1*i1 + j2;
-                            data[j1] += value;
+            return;
+        }
+        final ByteMergeableScanner root = (ByteMergeableScanner)scanner;
+        Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<ByteMergeableScanner>() {
+            @Override
+            public ByteMergeableScanner compute(int first, int last) {
+                ByteMergeableScanner scanner = (first == 0 ? root : root.spawn());
+                boolean initialized = false;
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    int j4 = stride4*i4 + j3;
+                                    if (initialized) {
+                                        scanner.update(data[j4]);
+                                    } else {
+                                        scanner.initialize(data[j4]);
+                                        initialized = true;
+                                    }
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i4 = first; i4 < last; ++i4) {
+                        int j4 = stride4*i4 + offset;
+                        for (int i3 = 0; i3 < dim3; ++i3) {
+                            int j3 = stride3*i3 + j4;
+                            for (int i2 = 0; i2 < dim2; ++i2) {
+                                int j2 = stride2*i2 + j3;
+                                for (int i1 = 0; i1 < dim1; ++i1) {
+                                    int j1 = stride1*i1 + j2;
+                                    if (initialized) {
+                                        scanner.update(data[j1]);
+                                    } else {
+                                        scanner.initialize(data[j1]);
+                                        initialized = true;
+                                    }
+                                }
+                            }
                         }
                     }
                 }
+                return scanner;
             }
-        }
+
+            @Override
+            public ByteMergeableScanner combine(ByteMergeableScanner left,
+                    ByteMergeableScanner right) {
+                left.merge(right);
+                return left;
+            }
+        });
     }
 
     @Override
-    public void decrement(byte value) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    for (int i3 = 0; i3 < dim3; ++i3) {
-                        int j3 = stride3*i3 + j2;
-                        for (int i4 = 0; i4 < dim4; ++i4) {
-                            int j4 = stride4*i4 + j3;
-                            data[j4] -= value;
+    public int min() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int minValue = (data[getSplitIndex(first)] & 0xFF);
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    int j4 = stride4*i4 + j3;
+                                    int value = (data[j4] & 0xFF);
+                                    if (value < minValue) {
+                                        minValue = value;
+                                    }
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i4 = first; i4 < last; ++i4) {
+                        int j4 = stride4*i4 + offset;
+                        for (int i3 = 0; i3 < dim3; ++i3) {
+                            int j3 = stride3*i3 + j4;
+                            for (int i2 = 0; i2 < dim2; ++i2) {
+                                int j2 = stride2*i2 + j3;
+                                for (int i1 = 0; i1 < dim1; ++i1) {
+                                    int j1 = stride1*i1 + j2;
+                                    int value = (data[j1] & 0xFF);
+                                    if (value < minValue) {
+                                        minValue = value;
+                                    }
+                                }
+                            }
                         }
                     }
                 }
+                return minValue;
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i4 = 0; i4 < dim4; ++i4) {
-                int j4 = stride4*i4 + offset;
-                for (int i3 = 0; i3 < dim3; ++i3) {
-                    int j3 = stride3*i3 + j4;
-                    for (int i2 = 0; i2 < dim2; ++i2) {
-                        int j2 = stride2*i2 + j3;
-                        for (int i1 = 0; i1 < dim1; ++i1) {
-                            int j1 = stride1*i1 + j2;
-                            data[j1] -= value;
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return (right < left ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public int max() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int maxValue = (data[getSplitIndex(first)] & 0xFF);
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    int j4 = stride4*i4 + j3;
+                                    int value = (data[j4] & 0xFF);
+                                    if (value > maxValue) {
+                                        maxValue = value;
+                                    }
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i4 = first; i4 < last; ++i4) {
+                        int j4 = stride4*i4 + offset;
+                        for (int i3 = 0; i3 < dim3; ++i3) {
+                            int j3 = stride3*i3 + j4;
+                            for (int i2 = 0; i2 < dim2; ++i2) {
+                                int j2 = stride2*i2 + j3;
+                                for (int i1 = 0; i1 < dim1; ++i1) {
+                                    int j1 = stride1*i1 + j2;
+                                    int value = (data[j1] & 0xFF);
+                                    if (value > maxValue) {
+                                        maxValue = value;
+                                    }
+                                }
+                            }
                         }
                     }
                 }
+                return maxValue;
             }
-        }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return (right > left ? right : left);
+            }
+        });
     }
 
     @Override
-    public void scale(byte value) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    for (int i3 = 0; i3 < dim3; ++i3) {
-                        int j3 = stride3*i3 + j2;
-                        for (int i4 = 0; i4 < dim4; ++i4) {
-                            int j4 = stride4*i4 + j3;
-                            data[j4] *= value;
+    public void getMinAndMax(int[] mm) {
+        int[] result = Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<int[]>() {
+            @Override
+            public int[] compute(int first, int last) {
+                int minValue = (data[getSplitIndex(first)] & 0xFF);
+                int maxValue = minValue;
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    int j4 = stride4*i4 + j3;
+                                    int value = (data[j4] & 0xFF);
+                                    if (value < minValue) {
+                                        minValue = value;
+                                    }
+                                    if (value > maxValue) {
+                                        maxValue = value;
+                                    }
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i4 = first; i4 < last; ++i4) {
+                        int j4 = stride4*i4 + offset;
+                        for (int i3 = 0; i3 < dim3; ++i3) {
+                            int j3 = stride3*i3 + j4;
+                            for (int i2 = 0; i2 < dim2; ++i2) {
+                                int j2 = stride2*i2 + j3;
+                                for (int i1 = 0; i1 < dim1; ++i1) {
+                                    int j1 = stride1*i1 + j2;
+                                    int value = (data[j1] & 0xFF);
+                                    if (value < minValue) {
+                                        minValue = value;
+                                    }
+                                    if (value > maxValue) {
+                                        maxValue = value;
+                                    }
+                                }
+                            }
                         }
                     }
                 }
+                return new int[]{minValue, maxValue};
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i4 = 0; i4 < dim4; ++i4) {
-                int j4 = stride4*i4 + offset;
-                for (int i3 = 0; i3 < dim3; ++i3) {
-                    int j3 = stride3*i3 + j4;
-                    for (int i2 = 0; i2 < dim2; ++i2) {
-                        int j2 = stride2*i2 + j3;
-                        for (int i1 = 0; i1 < dim1; ++i1) {
-                            int j1 = stride1*i1 + j2;
-                            data[j1] *= value;
+
+            @Override
+            public int[] combine(int[] left, int[] right) {
+                if (right[0] < left[0]) {
+                    left[0] = right[0];
+                }
+                if (right[1] > left[1]) {
+                    left[1] = right[1];
+                }
+                return left;
+            }
+        });
+        mm[0] = result[0];
+        mm[1] = result[1];
+    }
+
+    @Override
+    public int sum() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int totalValue = 0;
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    int j4 = stride4*i4 + j3;
+                                    totalValue += (data[j4] & 0xFF);
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i4 = first; i4 < last; ++i4) {
+                        int j4 = stride4*i4 + offset;
+                        for (int i3 = 0; i3 < dim3; ++i3) {
+                            int j3 = stride3*i3 + j4;
+                            for (int i2 = 0; i2 < dim2; ++i2) {
+                                int j2 = stride2*i2 + j3;
+                                for (int i1 = 0; i1 < dim1; ++i1) {
+                                    int j1 = stride1*i1 + j2;
+                                    totalValue += (data[j1] & 0xFF);
+                                }
+                            }
                         }
                     }
                 }
+                return totalValue;
             }
-        }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return left + right;
+            }
+        });
     }
 
     @Override
-    public void map(ByteFunction function) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
+    public Short4D toShort() {
+        final short[] out = new short[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim4, Parallel.getGrain(dim4, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim4) - 1;
+                for (int i4 = first; i4 < last; ++i4) {
+                    int j4 = stride4*i4 + offset;
                     for (int i3 = 0; i3 < dim3; ++i3) {
-                        int j3 = stride3*i3 + j2;
-                        for (int i4 = 0; i4 < dim4; ++i4) {
-                            int j4 = stride4*i4 + j3;
-                            data[j4] = function.apply(data[j4]);
+                        int j3 = stride3*i3 + j4;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j3;
+                            for (int i1 = 0; i1 < dim1; ++i1) {
+                                int j1 = stride1*i1 + j2;
+                                out[++i] = (short)data[j1];
+                            }
                         }
                     }
                 }
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i4 = 0; i4 < dim4; ++i4) {
-                int j4 = stride4*i4 + offset;
-                for (int i3 = 0; i3 < dim3; ++i3) {
-                    int j3 = stride3*i3 + j4;
-                    for (int i2 = 0; i2 < dim2; ++i2) {
-                        int j2 = stride2*i2 + j3;
-                        for (int i1 = 0; i1 < dim1; ++i1) {
-                            int j1 = stride1*i1 + j2;
-                            data[j1] = function.apply(data[j1]);
+        });
+        return new FlatShort4D(out, shape);
+    }
+
+    @Override
+    public Int4D toInt() {
+        final int[] out = new int[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim4, Parallel.getGrain(dim4, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim4) - 1;
+                for (int i4 = first; i4 < last; ++i4) {
+                    int j4 = stride4*i4 + offset;
+                    for (int i3 = 0; i3 < dim3; ++i3) {
+                        int j3 = stride3*i3 + j4;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j3;
+                            for (int i1 = 0; i1 < dim1; ++i1) {
+                                int j1 = stride1*i1 + j2;
+                                out[++i] = (int)data[j1];
+                            }
                         }
                     }
                 }
             }
-        }
+        });
+        return new FlatInt4D(out, shape);
     }
 
     @Override
-    public void scan(ByteScanner scanner)  {
-        boolean initialized = false;
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
+    public Long4D toLong() {
+        final long[] out = new long[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim4, Parallel.getGrain(dim4, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim4) - 1;
+                for (int i4 = first; i4 < last; ++i4) {
+                    int j4 = stride4*i4 + offset;
                     for (int i3 = 0; i3 < dim3; ++i3) {
-                        int j3 = stride3*i3 + j2;
-                        for (int i4 = 0; i4 < dim4; ++i4) {
-                            int j4 = stride4*i4 + j3;
-                            if (initialized) {
-                                scanner.update(data[j4]);
-                            } else {
-                                scanner.initialize(data[j4]);
-                                initialized = true;
+                        int j3 = stride3*i3 + j4;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j3;
+                            for (int i1 = 0; i1 < dim1; ++i1) {
+                                int j1 = stride1*i1 + j2;
+                                out[++i] = (long)data[j1];
                             }
                         }
                     }
                 }
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i4 = 0; i4 < dim4; ++i4) {
-                int j4 = stride4*i4 + offset;
-                for (int i3 = 0; i3 < dim3; ++i3) {
-                    int j3 = stride3*i3 + j4;
-                    for (int i2 = 0; i2 < dim2; ++i2) {
-                        int j2 = stride2*i2 + j3;
-                        for (int i1 = 0; i1 < dim1; ++i1) {
-                            int j1 = stride1*i1 + j2;
-                            if (initialized) {
-                                scanner.update(data[j1]);
-                            } else {
-                                scanner.initialize(data[j1]);
-                                initialized = true;
+        });
+        return new FlatLong4D(out, shape);
+    }
+
+    @Override
+    public Float4D toFloat() {
+        final float[] out = new float[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim4, Parallel.getGrain(dim4, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim4) - 1;
+                for (int i4 = first; i4 < last; ++i4) {
+                    int j4 = stride4*i4 + offset;
+                    for (int i3 = 0; i3 < dim3; ++i3) {
+                        int j3 = stride3*i3 + j4;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j3;
+                            for (int i1 = 0; i1 < dim1; ++i1) {
+                                int j1 = stride1*i1 + j2;
+                                out[++i] = (float)data[j1];
                             }
                         }
                     }
                 }
             }
-        }
+        });
+        return new FlatFloat4D(out, shape);
+    }
+
+    @Override
+    public Double4D toDouble() {
+        final double[] out = new double[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim4, Parallel.getGrain(dim4, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim4) - 1;
+                for (int i4 = first; i4 < last; ++i4) {
+                    int j4 = stride4*i4 + offset;
+                    for (int i3 = 0; i3 < dim3; ++i3) {
+                        int j3 = stride3*i3 + j4;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j3;
+                            for (int i1 = 0; i1 < dim1; ++i1) {
+                                int j1 = stride1*i1 + j2;
+                                out[++i] = (double)data[j1];
+                            }
+                        }
+                    }
+                }
+            }
+        });
+        return new FlatDouble4D(out, shape);
     }
 
     @Override
@@ -357,20 +841,8 @@ public class StriddenByte4D extends Byte4D {
             return data;
         }
         byte[] out = new byte[number];
-        int j = -1;
-        for (int i4 = 0; i4 < dim4; ++i4) {
-            int j4 = stride4*i4 + offset;
-            for (int i3 = 0; i3 < dim3; ++i3) {
-                int j3 = stride3*i3 + j4;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j3;
-                    for (int i1 = 0; i1 < dim1; ++i1) {
-                        int j1 = stride1*i1 + j2;
-                        out[++j] = data[j1];
-                    }
-                }
-            }
-        }
+        BlockCopy.copy(data, offset, getStorageStrides(), out, 0,
+                new int[]{1, dim1, dim1*dim2, dim1*dim2*dim3}, shape.copyDimensions());
         return out;
     }
 
@@ -32,7 +32,15 @@ import mitiv.base.indexing.Range;
 import mitiv.base.mapping.ByteFunction;
 import mitiv.base.mapping.ByteScanner;
 import mitiv.random.ByteGenerator;
+import mitiv.array.Short9D;
+import mitiv.array.Int9D;
+import mitiv.array.Long9D;
+import mitiv.array.Float9D;
+import mitiv.array.Double9D;
+import mitiv.array.ShapedArray;
+import mitiv.base.Parallel;
 import mitiv.base.indexing.CompiledRange;
+import mitiv.base.mapping.ByteMergeableScanner;
 
 
 /**
@@ -40,7 +48,7 @@ import mitiv.base.indexing.CompiledRange;
  *
  * @author Éric Thiébaut.
  */
-public class StriddenByte9D extends Byte9D {
+public class StriddenByte9D extends Byte9D implements StorageLayout {
     final int order;
     final byte[] data;
     final int offset;
@@ -118,27 +126,106 @@ public class StriddenByte9D extends Byte9D {
     }
 
     @Override
-    public void fill(byte value) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    for (int i3 = 0; i3 < dim3; ++i3) {
-                        int j3 = stride3*i3 + j2;
-                        for (int i4 = 0; i4 < dim4; ++i4) {
-                            int j4 = stride4*i4 + j3;
-                            for (int i5 = 0; i5 < dim5; ++i5) {
-                                int j5 = stride5*i5 + j4;
+    public Object getStorage() {
+        return data;
+    }
+
+    @Override
+    public int getStorageOffset() {
+        return offset;
+    }
+
+    @Override
+    public int[] getStorageStrides() {
+        return new int[]{stride1, stride2, stride3, stride4, stride5, stride6, stride7, stride8, stride9};
+    }
+
+    @Override
+    public Byte9D permute(int... perm) {
+        return new StriddenByte9D(data, offset,
+                Helper.permute(getStorageStrides(), perm),
+                Helper.permute(shape.copyDimensions(), perm));
+    }
+
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! BlockCopy.copy(arr, this)) {
+            super.assign(arr);
+        }
+    }
+
+    /* Number of iterations of the outermost loop in memory order. */
+    private int getSplitLength() {
+        return (getOrder() == ROW_MAJOR ? dim1 : dim9);
+    }
+
+    /* Number of iterations of the outermost loop per block. */
+    private int getSplitGrain() {
+        return Parallel.getGrain(getSplitLength(), number);
+    }
+
+    /* Index of the first element of a block. */
+    private int getSplitIndex(int first) {
+        return (getOrder() == ROW_MAJOR ? stride1 : stride9)*first + offset;
+    }
+
+    @Override
+    public void fill(final byte value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    int j4 = stride4*i4 + j3;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j4;
+                                        for (int i6 = 0; i6 < dim6; ++i6) {
+                                            int j6 = stride6*i6 + j5;
+                                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                                int j7 = stride7*i7 + j6;
+                                                for (int i8 = 0; i8 < dim8; ++i8) {
+                                                    int j8 = stride8*i8 + j7;
+                                                    for (int i9 = 0; i9 < dim9; ++i9) {
+                                                        int j9 = stride9*i9 + j8;
+                                                        data[j9] = value;
+                                                    }
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i9 = first; i9 < last; ++i9) {
+                        int j9 = stride9*i9 + offset;
+                        for (int i8 = 0; i8 < dim8; ++i8) {
+                            int j8 = stride8*i8 + j9;
+                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                int j7 = stride7*i7 + j8;
                                 for (int i6 = 0; i6 < dim6; ++i6) {
-                                    int j6 = stride6*i6 + j5;
-                                    for (int i7 = 0; i7 < dim7; ++i7) {
-                                        int j7 = stride7*i7 + j6;
-                                        for (int i8 = 0; i8 < dim8; ++i8) {
-                                            int j8 = stride8*i8 + j7;
-                                            for (int i9 = 0; i9 < dim9; ++i9) {
-                                                int j9 = stride9*i9 + j8;
-                                                data[j9] = value;
+                                    int j6 = stride6*i6 + j7;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j6;
+                                        for (int i4 = 0; i4 < dim4; ++i4) {
+                                            int j4 = stride4*i4 + j5;
+                                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                                int j3 = stride3*i3 + j4;
+                                                for (int i2 = 0; i2 < dim2; ++i2) {
+                                                    int j2 = stride2*i2 + j3;
+                                                    for (int i1 = 0; i1 < dim1; ++i1) {
+                                                        int j1 = stride1*i1 + j2;
+                                                        data[j1] = value;
+                                                    }
+                                                }
                                             }
                                         }
                                     }
@@ -148,27 +235,66 @@ public class StriddenByte9D extends Byte9D {
                     }
                 }
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i9 = 0; i9 < dim9; ++i9) {
-                int j9 = stride9*i9 + offset;
-                for (int i8 = 0; i8 < dim8; ++i8) {
-                    int j8 = stride8*i8 + j9;
-                    for (int i7 = 0; i7 < dim7; ++i7) {
-                        int j7 = stride7*i7 + j8;
-                        for (int i6 = 0; i6 < dim6; ++i6) {
-                            int j6 = stride6*i6 + j7;
-                            for (int i5 = 0; i5 < dim5; ++i5) {
-                                int j5 = stride5*i5 + j6;
+        });
+    }
+
+    @Override
+    public void increment(final byte value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
                                 for (int i4 = 0; i4 < dim4; ++i4) {
-                                    int j4 = stride4*i4 + j5;
-                                    for (int i3 = 0; i3 < dim3; ++i3) {
-                                        int j3 = stride3*i3 + j4;
-                                        for (int i2 = 0; i2 < dim2; ++i2) {
-                                            int j2 = stride2*i2 + j3;
-                                            for (int i1 = 0; i1 < dim1; ++i1) {
-                                                int j1 = stride1*i1 + j2;
-                                                data[j1] = value;
+                                    int j4 = stride4*i4 + j3;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j4;
+                                        for (int i6 = 0; i6 < dim6; ++i6) {
+                                            int j6 = stride6*i6 + j5;
+                                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                                int j7 = stride7*i7 + j6;
+                                                for (int i8 = 0; i8 < dim8; ++i8) {
+                                                    int j8 = stride8*i8 + j7;
+                                                    for (int i9 = 0; i9 < dim9; ++i9) {
+                                                        int j9 = stride9*i9 + j8;
+                                                        data[j9] += value;
+                                                    }
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i9 = first; i9 < last; ++i9) {
+                        int j9 = stride9*i9 + offset;
+                        for (int i8 = 0; i8 < dim8; ++i8) {
+                            int j8 = stride8*i8 + j9;
+                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                int j7 = stride7*i7 + j8;
+                                for (int i6 = 0; i6 < dim6; ++i6) {
+                                    int j6 = stride6*i6 + j7;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j6;
+                                        for (int i4 = 0; i4 < dim4; ++i4) {
+                                            int j4 = stride4*i4 + j5;
+                                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                                int j3 = stride3*i3 + j4;
+                                                for (int i2 = 0; i2 < dim2; ++i2) {
+                                                    int j2 = stride2*i2 + j3;
+                                                    for (int i1 = 0; i1 < dim1; ++i1) {
+                                                        int j1 = stride1*i1 + j2;
+                                                        data[j1] += value;
+                                                    }
+                                                }
                                             }
                                         }
                                     }
@@ -178,11 +304,219 @@ public class StriddenByte9D extends Byte9D {
                     }
                 }
             }
-        }
+        });
+    }
+
+    @Override
+    public void decrement(final byte value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    int j4 = stride4*i4 + j3;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j4;
+                                        for (int i6 = 0; i6 < dim6; ++i6) {
+                                            int j6 = stride6*i6 + j5;
+                                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                                int j7 = stride7*i7 + j6;
+                                                for (int i8 = 0; i8 < dim8; ++i8) {
+                                                    int j8 = stride8*i8 + j7;
+                                                    for (int i9 = 0; i9 < dim9; ++i9) {
+                                                        int j9 = stride9*i9 + j8;
+                                                        data[j9] -= value;
+                                                    }
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i9 = first; i9 < last; ++i9) {
+                        int j9 = stride9*i9 + offset;
+                        for (int i8 = 0; i8 < dim8; ++i8) {
+                            int j8 = stride8*i8 + j9;
+                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                int j7 = stride7*i7 + j8;
+                                for (int i6 = 0; i6 < dim6; ++i6) {
+                                    int j6 = stride6*i6 + j7;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j6;
+                                        for (int i4 = 0; i4 < dim4; ++i4) {
+                                            int j4 = stride4*i4 + j5;
+                                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                                int j3 = stride3*i3 + j4;
+                                                for (int i2 = 0; i2 < dim2; ++i2) {
+                                                    int j2 = stride2*i2 + j3;
+                                                    for (int i1 = 0; i1 < dim1; ++i1) {
+                                                        int j1 = stride1*i1 + j2;
+                                                        data[j1] -= value;
+                                                    }
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void scale(final byte value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    int j4 = stride4*i4 + j3;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j4;
+                                        for (int i6 = 0; i6 < dim6; ++i6) {
+                                            int j6 = stride6*i6 + j5;
+                                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                                int j7 = stride7*i7 + j6;
+                                                for (int i8 = 0; i8 < dim8; ++i8) {
+                                                    int j8 = stride8*i8 + j7;
+                                                    for (int i9 = 0; i9 < dim9; ++i9) {
+                                                        int j9 = stride9*i9 + j8;
+                                                        data[j9] *= value;
+                                                    }
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i9 = first; i9 < last; ++i9) {
+                        int j9 = stride9*i9 + offset;
+                        for (int i8 = 0; i8 < dim8; ++i8) {
+                            int j8 = stride8*i8 + j9;
+                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                int j7 = stride7*i7 + j8;
+                                for (int i6 = 0; i6 < dim6; ++i6) {
+                                    int j6 = stride6*i6 + j7;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j6;
+                                        for (int i4 = 0; i4 < dim4; ++i4) {
+                                            int j4 = stride4*i4 + j5;
+                                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                                int j3 = stride3*i3 + j4;
+                                                for (int i2 = 0; i2 < dim2; ++i2) {
+                                                    int j2 = stride2*i2 + j3;
+                                                    for (int i1 = 0; i1 < dim1; ++i1) {
+                                                        int j1 = stride1*i1 + j2;
+                                                        data[j1] *= value;
+                                                    }
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void map(final ByteFunction function) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    int j4 = stride4*i4 + j3;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j4;
+                                        for (int i6 = 0; i6 < dim6; ++i6) {
+                                            int j6 = stride6*i6 + j5;
+                                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                                int j7 = stride7*i7 + j6;
+                                                for (int i8 = 0; i8 < dim8; ++i8) {
+                                                    int j8 = stride8*i8 + j7;
+                                                    for (int i9 = 0; i9 < dim9; ++i9) {
+                                                        int j9 = stride9*i9 + j8;
+                                                        data[j9] = function.apply(data[j9]);
+                                                    }
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i9 = first; i9 < last; ++i9) {
+                        int j9 = stride9*i9 + offset;
+                        for (int i8 = 0; i8 < dim8; ++i8) {
+                            int j8 = stride8*i8 + j9;
+                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                int j7 = stride7*i7 + j8;
+                                for (int i6 = 0; i6 < dim6; ++i6) {
+                                    int j6 = stride6*i6 + j7;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j6;
+                                        for (int i4 = 0; i4 < dim4; ++i4) {
+                                            int j4 = stride4*i4 + j5;
+                                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                                int j3 = stride3*i3 + j4;
+                                                for (int i2 = 0; i2 < dim2; ++i2) {
+                                                    int j2 = stride2*i2 + j3;
+                                                    for (int i1 = 0; i1 < dim1; ++i1) {
+                                                        int j1 = stride1*i1 + j2;
+                                                        data[j1] = function.apply(data[j1]);
+                                                    }
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        });
     }
 
     @Override
     public void fill(ByteGenerator generator) {
+        /* Generators are sequential, this loop cannot be split. */
         if (getOrder() == ROW_MAJOR) {
             for (int i1 = 0; i1 < dim1; ++i1) {
                 int j1 = stride1*i1 + offset;
@@ -246,27 +580,70 @@ public class StriddenByte9D extends Byte9D {
     }
 
     @Override
-    public void increment(byte value) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    for (int i3 = 0; i3 < dim3; ++i3) {
-                        int j3 = stride3*i3 + j2;
-                        for (int i4 = 0; i4 < dim4; ++i4) {
-                            int j4 = stride4*i4 + j3;
-                            for (int i5 = 0; i5 < dim5; ++i5) {
-                                int j5 = stride5*i5 + j4;
-                                for (int i6 = 0; i6 < dim6; ++i6) {
-                                    int j6 = stride6*i6 + j5;
-                                    for (int i7 = 0; i7 < dim7; ++i7) {
-                                        int j7 = stride7*i7 + j6;
-                                        for (int i8 = 0; i8 < dim8; ++i8) {
-                                            int j8 = stride8*i8 + j7;
-                                            for (int i9 = 0; i9 < dim9; ++i9) {
-                                                int j9 = stride9*i9 + j8;
-                                                data[j9] += value;
+    public void scan(ByteScanner scanner)  {
+        if (! (scanner instanceof ByteMergeableScanner)) {
+            boolean initialized = false;
+            if (getOrder() == ROW_MAJOR) {
+                for (int i1 = 0; i1 < dim1; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    for (int i2 = 0; i2 < dim2; ++i2) {
+                        int j2 = stride2*i2 + j1;
+                        for (int i3 = 0; i3 < dim3; ++i3) {
+                            int j3 = stride3*i3 + j2;
+                            for (int i4 = 0; i4 < dim4; ++i4) {
+                                int j4 = stride4*i4 + j3;
+                                for (int i5 = 0; i5 < dim5; ++i5) {
+                                    int j5 = stride5*i5 + j4;
+                                    for (int i6 = 0; i6 < dim6; ++i6) {
+                                        int j6 = stride6*i6 + j5;
+                                        for (int i7 = 0; i7 < dim7; ++i7) {
+                                            int j7 = stride7*i7 + j6;
+                                            for (int i8 = 0; i8 < dim8; ++i8) {
+                                                int j8 = stride8*i8 + j7;
+                                                for (int i9 = 0; i9 < dim9; ++i9) {
+                                                    int j9 = stride9*i9 + j8;
+                                                    if (initialized) {
+                                                        scanner.update(data[j9]);
+                                                    } else {
+                                                        scanner.initialize(data[j9]);
+                                                        initialized = true;
+                                                    }
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            } else {
+                /* Assume column-major order. */
+                for (int i9 = 0; i9 < dim9; ++i9) {
+                    int j9 = stride9*i9 + offset;
+                    for (int i8 = 0; i8 < dim8; ++i8) {
+                        int j8 = stride8*i8 + j9;
+                        for (int i7 = 0; i7 < dim7; ++i7) {
+                            int j7 = stride7*i7 + j8;
+                            for (int i6 = 0; i6 < dim6; ++i6) {
+                                int j6 = stride6*i6 + j7;
+                                for (int i5 = 0; i5 < dim5; ++i5) {
+                                    int j5 = stride5*i5 + j6;
+                                    for (int i4 = 0; i4 < dim4; ++i4) {
+                                        int j4 = stride4*i4 + j5;
+                                        for (int i3 = 0; i3 < dim3; ++i3) {
+                                            int j3 = stride3*i3 + j4;
+                                            for (int i2 = 0; i2 < dim2; ++i2) {
+                                                int j2 = stride2*i2 + j3;
+                                                for (int i1 = 0; i1 < dim1; ++i1) {
+                                                    int j1 = stride1*i1 + j2;
+                                                    if (initialized) {
+                                                        scanner.update(data[j1]);
+                                                    } else {
+                                                        scanner.initialize(data[j1]);
+                                                        initialized = true;
+                                                    }
+                                                }
                                             }
                                         }
                                     }
@@ -276,27 +653,76 @@ public class StriddenByte9D extends Byte9D {
                     }
                 }
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i9 = 0; i9 < dim9; ++i9) {
-                int j9 = stride9*i9 + offset;
-                for (int i8 = 0; i8 < dim8; ++i8) {
-                    int j8 = stride8*i8 + j9;
-                    for (int i7 = 0; i7 < dim7; ++i7) {
-                        int j7 = stride7*i7 + j8;
-                        for (int i6 = 0; i6 < dim6; ++i6) {
-                            int j6 = stride6*i6 + j7;
-                            for (int i5 = 0; i5 < dim5; ++i5) {
-                                int j5 = stride5*i5 + j6;
+            return;
+        }
+        final ByteMergeableScanner root = (ByteMergeableScanner)scanner;
+        Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<ByteMergeableScanner>() {
+            @Override
+            public ByteMergeableScanner compute(int first, int last) {
+                ByteMergeableScanner scanner = (first == 0 ? root : root.spawn());
+                boolean initialized = false;
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
                                 for (int i4 = 0; i4 < dim4; ++i4) {
-                                    int j4 = stride4*i4 + j5;
-                                    for (int i3 = 0; i3 < dim3; ++i3) {
-                                        int j3 = stride3*i3 + j4;
-                                        for (int i2 = 0; i2 < dim2; ++i2) {
-                                            int j2 = stride2*i2 + j3;
-                                            for (int i1 = 0; i1 < dim1; ++i1) {
-                                                int j1 = stride1*i1 + j2;
-                                                data[j1] += value;
+                                    int j4 = stride4*i4 + j3;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j4;
+                                        for (int i6 = 0; i6 < dim6; ++i6) {
+                                            int j6 = stride6*i6 + j5;
+                                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                                int j7 = stride7*i7 + j6;
+                                                for (int i8 = 0; i8 < dim8; ++i8) {
+                                                    int j8 = stride8*i8 + j7;
+                                                    for (int i9 = 0; i9 < dim9; ++i9) {
+                                                        int j9 = stride9*i9 + j8;
+                                                        if (initialized) {
+                                                            scanner.update(data[j9]);
+                                                        } else {
+                                                            scanner.initialize(data[j9]);
+                                                            initialized = true;
+                                                        }
+                                                    }
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i9 = first; i9 < last; ++i9) {
+                        int j9 = stride9*i9 + offset;
+                        for (int i8 = 0; i8 < dim8; ++i8) {
+                            int j8 = stride8*i8 + j9;
+                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                int j7 = stride7*i7 + j8;
+                                for (int i6 = 0; i6 < dim6; ++i6) {
+                                    int j6 = stride6*i6 + j7;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j6;
+                                        for (int i4 = 0; i4 < dim4; ++i4) {
+                                            int j4 = stride4*i4 + j5;
+                                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                                int j3 = stride3*i3 + j4;
+                                                for (int i2 = 0; i2 < dim2; ++i2) {
+                                                    int j2 = stride2*i2 + j3;
+                                                    for (int i1 = 0; i1 < dim1; ++i1) {
+                                                        int j1 = stride1*i1 + j2;
+                                                        if (initialized) {
+                                                            scanner.update(data[j1]);
+                                                        } else {
+                                                            scanner.initialize(data[j1]);
+                                                            initialized = true;
+                                                        }
+                                                    }
+                                                }
                                             }
                                         }
                                     }
@@ -305,32 +731,82 @@ public class StriddenByte9D extends Byte9D {
                         }
                     }
                 }
+                return scanner;
             }
-        }
+
+            @Override
+            public ByteMergeableScanner combine(ByteMergeableScanner left,
+                    ByteMergeableScanner right) {
+                left.merge(right);
+                return left;
+            }
+        });
     }
 
     @Override
-    public void decrement(byte value) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    for (int i3 = 0; i3 < dim3; ++i3) {
-                        int j3 = stride3*i3 + j2;
-                        for (int i4 = 0; i4 < dim4; ++i4) {
-                            int j4 = stride4*i4 + j3;
-                            for (int i5 = 0; i5 < dim5; ++i5) {
-                                int j5 = stride5*i5 + j4;
+    public int min() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int minValue = (data[getSplitIndex(first)] & 0xFF);
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    int j4 = stride4*i4 + j3;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j4;
+                                        for (int i6 = 0; i6 < dim6; ++i6) {
+                                            int j6 = stride6*i6 + j5;
+                                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                                int j7 = stride7*i7 + j6;
+                                                for (int i8 = 0; i8 < dim8; ++i8) {
+                                                    int j8 = stride8*i8 + j7;
+                                                    for (int i9 = 0; i9 < dim9; ++i9) {
+                                                        int j9 = stride9*i9 + j8;
+                                                        int value = (data[j9] & 0xFF);
+                                                        if (value < minValue) {
+                                                            minValue = value;
+                                                        }
+                                                    }
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i9 = first; i9 < last; ++i9) {
+                        int j9 = stride9*i9 + offset;
+                        for (int i8 = 0; i8 < dim8; ++i8) {
+                            int j8 = stride8*i8 + j9;
+                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                int j7 = stride7*i7 + j8;
                                 for (int i6 = 0; i6 < dim6; ++i6) {
-                                    int j6 = stride6*i6 + j5;
-                                    for (int i7 = 0; i7 < dim7; ++i7) {
-                                        int j7 = stride7*i7 + j6;
-                                        for (int i8 = 0; i8 < dim8; ++i8) {
-                                            int j8 = stride8*i8 + j7;
-                                            for (int i9 = 0; i9 < dim9; ++i9) {
-                                                int j9 = stride9*i9 + j8;
-                                                data[j9] -= value;
+                                    int j6 = stride6*i6 + j7;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j6;
+                                        for (int i4 = 0; i4 < dim4; ++i4) {
+                                            int j4 = stride4*i4 + j5;
+                                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                                int j3 = stride3*i3 + j4;
+                                                for (int i2 = 0; i2 < dim2; ++i2) {
+                                                    int j2 = stride2*i2 + j3;
+                                                    for (int i1 = 0; i1 < dim1; ++i1) {
+                                                        int j1 = stride1*i1 + j2;
+                                                        int value = (data[j1] & 0xFF);
+                                                        if (value < minValue) {
+                                                            minValue = value;
+                                                        }
+                                                    }
+                                                }
                                             }
                                         }
                                     }
@@ -339,28 +815,80 @@ public class StriddenByte9D extends Byte9D {
                         }
                     }
                 }
+                return minValue;
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i9 = 0; i9 < dim9; ++i9) {
-                int j9 = stride9*i9 + offset;
-                for (int i8 = 0; i8 < dim8; ++i8) {
-                    int j8 = stride8*i8 + j9;
-                    for (int i7 = 0; i7 < dim7; ++i7) {
-                        int j7 = stride7*i7 + j8;
-                        for (int i6 = 0; i6 < dim6; ++i6) {
-                            int j6 = stride6*i6 + j7;
-                            for (int i5 = 0; i5 < dim5; ++i5) {
-                                int j5 = stride5*i5 + j6;
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return (right < left ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public int max() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int maxValue = (data[getSplitIndex(first)] & 0xFF);
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
                                 for (int i4 = 0; i4 < dim4; ++i4) {
-                                    int j4 = stride4*i4 + j5;
-                                    for (int i3 = 0; i3 < dim3; ++i3) {
-                                        int j3 = stride3*i3 + j4;
-                                        for (int i2 = 0; i2 < dim2; ++i2) {
-                                            int j2 = stride2*i2 + j3;
-                                            for (int i1 = 0; i1 < dim1; ++i1) {
-                                                int j1 = stride1*i1 + j2;
-                                                data[j1] -= value;
+                                    int j4 = stride4*i4 + j3;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j4;
+                                        for (int i6 = 0; i6 < dim6; ++i6) {
+                                            int j6 = stride6*i6 + j5;
+                                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                                int j7 = stride7*i7 + j6;
+                                                for (int i8 = 0; i8 < dim8; ++i8) {
+                                                    int j8 = stride8*i8 + j7;
+                                                    for (int i9 = 0; i9 < dim9; ++i9) {
+                                                        int j9 = stride9*i9 + j8;
+                                                        int value = (data[j9] & 0xFF);
+                                                        if (value > maxValue) {
+                                                            maxValue = value;
+                                                        }
+                                                    }
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i9 = first; i9 < last; ++i9) {
+                        int j9 = stride9*i9 + offset;
+                        for (int i8 = 0; i8 < dim8; ++i8) {
+                            int j8 = stride8*i8 + j9;
+                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                int j7 = stride7*i7 + j8;
+                                for (int i6 = 0; i6 < dim6; ++i6) {
+                                    int j6 = stride6*i6 + j7;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j6;
+                                        for (int i4 = 0; i4 < dim4; ++i4) {
+                                            int j4 = stride4*i4 + j5;
+                                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                                int j3 = stride3*i3 + j4;
+                                                for (int i2 = 0; i2 < dim2; ++i2) {
+                                                    int j2 = stride2*i2 + j3;
+                                                    for (int i1 = 0; i1 < dim1; ++i1) {
+                                                        int j1 = stride1*i1 + j2;
+                                                        int value = (data[j1] & 0xFF);
+                                                        if (value > maxValue) {
+                                                            maxValue = value;
+                                                        }
+                                                    }
+                                                }
                                             }
                                         }
                                     }
@@ -369,32 +897,87 @@ public class StriddenByte9D extends Byte9D {
                         }
                     }
                 }
+                return maxValue;
             }
-        }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return (right > left ? right : left);
+            }
+        });
     }
 
     @Override
-    public void scale(byte value) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    for (int i3 = 0; i3 < dim3; ++i3) {
-                        int j3 = stride3*i3 + j2;
-                        for (int i4 = 0; i4 < dim4; ++i4) {
-                            int j4 = stride4*i4 + j3;
-                            for (int i5 = 0; i5 < dim5; ++i5) {
-                                int j5 = stride5*i5 + j4;
+    public void getMinAndMax(int[] mm) {
+        int[] result = Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<int[]>() {
+            @Override
+            public int[] compute(int first, int last) {
+                int minValue = (data[getSplitIndex(first)] & 0xFF);
+                int maxValue = minValue;
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
+                                for (int i4 = 0; i4 < dim4; ++i4) {
+                                    int j4 = stride4*i4 + j3;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j4;
+                                        for (int i6 = 0; i6 < dim6; ++i6) {
+                                            int j6 = stride6*i6 + j5;
+                                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                                int j7 = stride7*i7 + j6;
+                                                for (int i8 = 0; i8 < dim8; ++i8) {
+                                                    int j8 = stride8*i8 + j7;
+                                                    for (int i9 = 0; i9 < dim9; ++i9) {
+                                                        int j9 = stride9*i9 + j8;
+                                                        int value = (data[j9] & 0xFF);
+                                                        if (value < minValue) {
+                                                            minValue = value;
+                                                        }
+                                                        if (value > maxValue) {
+                                                            maxValue = value;
+                                                        }
+                                                    }
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i9 = first; i9 < last; ++i9) {
+                        int j9 = stride9*i9 + offset;
+                        for (int i8 = 0; i8 < dim8; ++i8) {
+                            int j8 = stride8*i8 + j9;
+                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                int j7 = stride7*i7 + j8;
                                 for (int i6 = 0; i6 < dim6; ++i6) {
-                                    int j6 = stride6*i6 + j5;
-                                    for (int i7 = 0; i7 < dim7; ++i7) {
-                                        int j7 = stride7*i7 + j6;
-                                        for (int i8 = 0; i8 < dim8; ++i8) {
-                                            int j8 = stride8*i8 + j7;
-                                            for (int i9 = 0; i9 < dim9; ++i9) {
-                                                int j9 = stride9*i9 + j8;
-                                                data[j9] *= value;
+                                    int j6 = stride6*i6 + j7;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j6;
+                                        for (int i4 = 0; i4 < dim4; ++i4) {
+                                            int j4 = stride4*i4 + j5;
+                                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                                int j3 = stride3*i3 + j4;
+                                                for (int i2 = 0; i2 < dim2; ++i2) {
+                                                    int j2 = stride2*i2 + j3;
+                                                    for (int i1 = 0; i1 < dim1; ++i1) {
+                                                        int j1 = stride1*i1 + j2;
+                                                        int value = (data[j1] & 0xFF);
+                                                        if (value < minValue) {
+                                                            minValue = value;
+                                                        }
+                                                        if (value > maxValue) {
+                                                            maxValue = value;
+                                                        }
+                                                    }
+                                                }
                                             }
                                         }
                                     }
@@ -403,28 +986,82 @@ public class StriddenByte9D extends Byte9D {
                         }
                     }
                 }
+                return new int[]{minValue, maxValue};
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i9 = 0; i9 < dim9; ++i9) {
-                int j9 = stride9*i9 + offset;
-                for (int i8 = 0; i8 < dim8; ++i8) {
-                    int j8 = stride8*i8 + j9;
-                    for (int i7 = 0; i7 < dim7; ++i7) {
-                        int j7 = stride7*i7 + j8;
-                        for (int i6 = 0; i6 < dim6; ++i6) {
-                            int j6 = stride6*i6 + j7;
-                            for (int i5 = 0; i5 < dim5; ++i5) {
-                                int j5 = stride5*i5 + j6;
+
+            @Override
+            public int[] combine(int[] left, int[] right) {
+                if (right[0] < left[0]) {
+                    left[0] = right[0];
+                }
+                if (right[1] > left[1]) {
+                    left[1] = right[1];
+                }
+                return left;
+            }
+        });
+        mm[0] = result[0];
+        mm[1] = result[1];
+    }
+
+    @Override
+    public int sum() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int totalValue = 0;
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                int j3 = stride3*i3 + j2;
                                 for (int i4 = 0; i4 < dim4; ++i4) {
-                                    int j4 = stride4*i4 + j5;
-                                    for (int i3 = 0; i3 < dim3; ++i3) {
-                                        int j3 = stride3*i3 + j4;
-                                        for (int i2 = 0; i2 < dim2; ++i2) {
-                                            int j2 = stride2*i2 + j3;
-                                            for (int i1 = 0; i1 < dim1; ++i1) {
-                                                int j1 = stride1*i1 + j2;
-                                                data[j1] *= value;
+                                    int j4 = stride4*i4 + j3;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j4;
+                                        for (int i6 = 0; i6 < dim6; ++i6) {
+                                            int j6 = stride6*i6 + j5;
+                                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                                int j7 = stride7*i7 + j6;
+                                                for (int i8 = 0; i8 < dim8; ++i8) {
+                                                    int j8 = stride8*i8 + j7;
+                                                    for (int i9 = 0; i9 < dim9; ++i9) {
+                                                        int j9 = stride9*i9 + j8;
+                                                        totalValue += (data[j9] & 0xFF);
+                                                    }
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i9 = first; i9 < last; ++i9) {
+                        int j9 = stride9*i9 + offset;
+                        for (int i8 = 0; i8 < dim8; ++i8) {
+                            int j8 = stride8*i8 + j9;
+                            for (int i7 = 0; i7 < dim7; ++i7) {
+                                int j7 = stride7*i7 + j8;
+                                for (int i6 = 0; i6 < dim6; ++i6) {
+                                    int j6 = stride6*i6 + j7;
+                                    for (int i5 = 0; i5 < dim5; ++i5) {
+                                        int j5 = stride5*i5 + j6;
+                                        for (int i4 = 0; i4 < dim4; ++i4) {
+                                            int j4 = stride4*i4 + j5;
+                                            for (int i3 = 0; i3 < dim3; ++i3) {
+                                                int j3 = stride3*i3 + j4;
+                                                for (int i2 = 0; i2 < dim2; ++i2) {
+                                                    int j2 = stride2*i2 + j3;
+                                                    for (int i1 = 0; i1 < dim1; ++i1) {
+                                                        int j1 = stride1*i1 + j2;
+                                                        totalValue += (data[j1] & 0xFF);
+                                                    }
+                                                }
                                             }
                                         }
                                     }
@@ -433,32 +1070,44 @@ public class StriddenByte9D extends Byte9D {
                         }
                     }
                 }
+                return totalValue;
             }
-        }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return left + right;
+            }
+        });
     }
 
     @Override
-    public void map(ByteFunction function) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    for (int i3 = 0; i3 < dim3; ++i3) {
-                        int j3 = stride3*i3 + j2;
-                        for (int i4 = 0; i4 < dim4; ++i4) {
-                            int j4 = stride4*i4 + j3;
-                            for (int i5 = 0; i5 < dim5; ++i5) {
-                                int j5 = stride5*i5 + j4;
-                                for (int i6 = 0; i6 < dim6; ++i6) {
-                                    int j6 = stride6*i6 + j5;
-                                    for (int i7 = 0; i7 < dim7; ++i7) {
-                                        int j7 = stride7*i7 + j6;
-                                        for (int i8 = 0; i8 < dim8; ++i8) {
-                                            int j8 = stride8*i8 + j7;
-                                            for (int i9 = 0; i9 < dim9; ++i9) {
-                                                int j9 = stride9*i9 + j8;
-                                                data[j9] = function.apply(data[j9]);
+    public Short9D toShort() {
+        final short[] out = new short[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim9, Parallel.getGrain(dim9, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim9) - 1;
+                for (int i9 = first; i9 < last; ++i9) {
+                    int j9 = stride9*i9 + offset;
+                    for (int i8 = 0; i8 < dim8; ++i8) {
+                        int j8 = stride8*i8 + j9;
+                        for (int i7 = 0; i7 < dim7; ++i7) {
+                            int j7 = stride7*i7 + j8;
+                            for (int i6 = 0; i6 < dim6; ++i6) {
+                                int j6 = stride6*i6 + j7;
+                                for (int i5 = 0; i5 < dim5; ++i5) {
+                                    int j5 = stride5*i5 + j6;
+                                    for (int i4 = 0; i4 < dim4; ++i4) {
+                                        int j4 = stride4*i4 + j5;
+                                        for (int i3 = 0; i3 < dim3; ++i3) {
+                                            int j3 = stride3*i3 + j4;
+                                            for (int i2 = 0; i2 < dim2; ++i2) {
+                                                int j2 = stride2*i2 + j3;
+                                                for (int i1 = 0; i1 < dim1; ++i1) {
+                                                    int j1 = stride1*i1 + j2;
+                                                    out[++i] = (short)data[j1];
+                                                }
                                             }
                                         }
                                     }
@@ -468,27 +1117,38 @@ public class StriddenByte9D extends Byte9D {
                     }
                 }
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i9 = 0; i9 < dim9; ++i9) {
-                int j9 = stride9*i9 + offset;
-                for (int i8 = 0; i8 < dim8; ++i8) {
-                    int j8 = stride8*i8 + j9;
-                    for (int i7 = 0; i7 < dim7; ++i7) {
-                        int j7 = stride7*i7 + j8;
-                        for (int i6 = 0; i6 < dim6; ++i6) {
-                            int j6 = stride6*i6 + j7;
-                            for (int i5 = 0; i5 < dim5; ++i5) {
-                                int j5 = stride5*i5 + j6;
-                                for (int i4 = 0; i4 < dim4; ++i4) {
-                                    int j4 = stride4*i4 + j5;
-                                    for (int i3 = 0; i3 < dim3; ++i3) {
-                                        int j3 = stride3*i3 + j4;
-                                        for (int i2 = 0; i2 < dim2; ++i2) {
-                                            int j2 = stride2*i2 + j3;
-                                            for (int i1 = 0; i1 < dim1; ++i1) {
-                                                int j1 = stride1*i1 + j2;
-                                                data[j1] = function.apply(data[j1]);
+        });
+        return new FlatShort9D(out, shape);
+    }
+
+    @Override
+    public Int9D toInt() {
+        final int[] out = new int[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim9, Parallel.getGrain(dim9, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim9) - 1;
+                for (int i9 = first; i9 < last; ++i9) {
+                    int j9 = stride9*i9 + offset;
+                    for (int i8 = 0; i8 < dim8; ++i8) {
+                        int j8 = stride8*i8 + j9;
+                        for (int i7 = 0; i7 < dim7; ++i7) {
+                            int j7 = stride7*i7 + j8;
+                            for (int i6 = 0; i6 < dim6; ++i6) {
+                                int j6 = stride6*i6 + j7;
+                                for (int i5 = 0; i5 < dim5; ++i5) {
+                                    int j5 = stride5*i5 + j6;
+                                    for (int i4 = 0; i4 < dim4; ++i4) {
+                                        int j4 = stride4*i4 + j5;
+                                        for (int i3 = 0; i3 < dim3; ++i3) {
+                                            int j3 = stride3*i3 + j4;
+                                            for (int i2 = 0; i2 < dim2; ++i2) {
+                                                int j2 = stride2*i2 + j3;
+                                                for (int i1 = 0; i1 < dim1; ++i1) {
+                                                    int j1 = stride1*i1 + j2;
+                                                    out[++i] = (int)data[j1];
+                                                }
                                             }
                                         }
                                     }
@@ -498,36 +1158,37 @@ public class StriddenByte9D extends Byte9D {
                     }
                 }
             }
-        }
+        });
+        return new FlatInt9D(out, shape);
     }
 
     @Override
-    public void scan(ByteScanner scanner)  {
-        boolean initialized = false;
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    for (int i3 = 0; i3 < dim3; ++i3) {
-                        int j3 = stride3*i3 + j2;
-                        for (int i4 = 0; i4 < dim4; ++i4) {
-                            int j4 = stride4*i4 + j3;
-                            for (int i5 = 0; i5 < dim5; ++i5) {
-                                int j5 = stride5*i5 + j4;
-                                for (int i6 = 0; i6 < dim6; ++i6) {
-                                    int j6 = stride6*i6 + j5;
-                                    for (int i7 = 0; i7 < dim7; ++i7) {
-                                        int j7 = stride7*i7 + j6;
-                                        for (int i8 = 0; i8 < dim8; ++i8) {
-                                            int j8 = stride8*i8 + j7;
-                                            for (int i9 = 0; i9 < dim9; ++i9) {
-                                                int j9 = stride9*i9 + j8;
-                                                if (initialized) {
-                                                    scanner.update(data[j9]);
-                                                } else {
-                                                    scanner.initialize(data[j9]);
-                                                    initialized = true;
+    public Long9D toLong() {
+        final long[] out = new long[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim9, Parallel.getGrain(dim9, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim9) - 1;
+                for (int i9 = first; i9 < last; ++i9) {
+                    int j9 = stride9*i9 + offset;
+                    for (int i8 = 0; i8 < dim8; ++i8) {
+                        int j8 = stride8*i8 + j9;
+                        for (int i7 = 0; i7 < dim7; ++i7) {
+                            int j7 = stride7*i7 + j8;
+                            for (int i6 = 0; i6 < dim6; ++i6) {
+                                int j6 = stride6*i6 + j7;
+                                for (int i5 = 0; i5 < dim5; ++i5) {
+                                    int j5 = stride5*i5 + j6;
+                                    for (int i4 = 0; i4 < dim4; ++i4) {
+                                        int j4 = stride4*i4 + j5;
+                                        for (int i3 = 0; i3 < dim3; ++i3) {
+                                            int j3 = stride3*i3 + j4;
+                                            for (int i2 = 0; i2 < dim2; ++i2) {
+                                                int j2 = stride2*i2 + j3;
+                                                for (int i1 = 0; i1 < dim1; ++i1) {
+                                                    int j1 = stride1*i1 + j2;
+                                                    out[++i] = (long)data[j1];
                                                 }
                                             }
                                         }
@@ -538,31 +1199,37 @@ public class StriddenByte9D extends Byte9D {
                     }
                 }
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i9 = 0; i9 < dim9; ++i9) {
-                int j9 = stride9*i9 + offset;
-                for (int i8 = 0; i8 < dim8; ++i8) {
-                    int j8 = stride8*i8 + j9;
-                    for (int i7 = 0; i7 < dim7; ++i7) {
-                        int j7 = stride7*i7 + j8;
-                        for (int i6 = 0; i6 < dim6; ++i6) {
-                            int j6 = stride6*i6 + j7;
-                            for (int i5 = 0; i5 < dim5; ++i5) {
-                                int j5 = stride5*i5 + j6;
-                                for (int i4 = 0; i4 < dim4; ++i4) {
-                                    int j4 = stride4*i4 + j5;
-                                    for (int i3 = 0; i3 < dim3; ++i3) {
-                                        int j3 = stride3*i3 + j4;
-                                        for (int i2 = 0; i2 < dim2; ++i2) {
-                                            int j2 = stride2*i2 + j3;
-                                            for (int i1 = 0; i1 < dim1; ++i1) {
-                                                int j1 = stride1*i1 + j2;
-                                                if (initialized) {
-                                                    scanner.update(data[j1]);
-                                                } else {
-                                                    scanner.initialize(data[j1]);
-                                                    initialized = true;
+        });
+        return new FlatLong9D(out, shape);
+    }
+
+    @Override
+    public Float9D toFloat() {
+        final float[] out = new float[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim9, Parallel.getGrain(dim9, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim9) - 1;
+                for (int i9 = first; i9 < last; ++i9) {
+                    int j9 = stride9*i9 + offset;
+                    for (int i8 = 0; i8 < dim8; ++i8) {
+                        int j8 = stride8*i8 + j9;
+                        for (int i7 = 0; i7 < dim7; ++i7) {
+                            int j7 = stride7*i7 + j8;
+                            for (int i6 = 0; i6 < dim6; ++i6) {
+                                int j6 = stride6*i6 + j7;
+                                for (int i5 = 0; i5 < dim5; ++i5) {
+                                    int j5 = stride5*i5 + j6;
+                                    for (int i4 = 0; i4 < dim4; ++i4) {
+                                        int j4 = stride4*i4 + j5;
+                                        for (int i3 = 0; i3 < dim3; ++i3) {
+                                            int j3 = stride3*i3 + j4;
+                                            for (int i2 = 0; i2 < dim2; ++i2) {
+                                                int j2 = stride2*i2 + j3;
+                                                for (int i1 = 0; i1 < dim1; ++i1) {
+                                                    int j1 = stride1*i1 + j2;
+                                                    out[++i] = (float)data[j1];
                                                 }
                                             }
                                         }
@@ -573,35 +1240,39 @@ public class StriddenByte9D extends Byte9D {
                     }
                 }
             }
-        }
+        });
+        return new FlatFloat9D(out, shape);
     }
 
     @Override
-    public byte[] flatten(boolean forceCopy) {
-        if (! forceCopy && isFlat()) {
-            return data;
-        }
-        byte[] out = new byte[number];
-        int j = -1;
-        for (int i9 = 0; i9 < dim9; ++i9) {
-            int j9 = stride9*i9 + offset;
-            for (int i8 = 0; i8 < dim8; ++i8) {
-                int j8 = stride8*i8 + j9;
-                for (int i7 = 0; i7 < dim7; ++i7) {
-                    int j7 = stride7*i7 + j8;
-                    for (int i6 = 0; i6 < dim6; ++i6) {
-                        int j6 = stride6*i6 + j7;
-                        for (int i5 = 0; i5 < dim5; ++i5) {
-                            int j5 = stride5*i5 + j6;
-                            for (int i4 = 0; i4 < dim4; ++i4) {
-                                int j4 = stride4*i4 + j5;
-                                for (int i3 = 0; i3 < dim3; ++i3) {
-                                    int j3 = stride3*i3 + j4;
-                                    for (int i2 = 0; i2 < dim2; ++i2) {
-                                        int j2 = stride2*i2 + j3;
-                                        for (int i1 = 0; i1 < dim1; ++i1) {
-                                            int j1 = stride1*i1 + j2;
-                                            out[++j] = data[j1];
+    public Double9D toDouble() {
+        final double[] out = new double[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim9, Parallel.getGrain(dim9, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim9) - 1;
+                for (int i9 = first; i9 < last; ++i9) {
+                    int j9 = stride9*i9 + offset;
+                    for (int i8 = 0; i8 < dim8; ++i8) {
+                        int j8 = stride8*i8 + j9;
+                        for (int i7 = 0; i7 < dim7; ++i7) {
+                            int j7 = stride7*i7 + j8;
+                            for (int i6 = 0; i6 < dim6; ++i6) {
+                                int j6 = stride6*i6 + j7;
+                                for (int i5 = 0; i5 < dim5; ++i5) {
+                                    int j5 = stride5*i5 + j6;
+                                    for (int i4 = 0; i4 < dim4; ++i4) {
+                                        int j4 = stride4*i4 + j5;
+                                        for (int i3 = 0; i3 < dim3; ++i3) {
+                                            int j3 = stride3*i3 + j4;
+                                            for (int i2 = 0; i2 < dim2; ++i2) {
+                                                int j2 = stride2*i2 + j3;
+                                                for (int i1 = 0; i1 < dim1; ++i1) {
+                                                    int j1 = stride1*i1 + j2;
+                                                    out[++i] = (double)data[j1];
+                                                }
+                                            }
                                         }
                                     }
                                 }
@@ -610,7 +1281,18 @@ public class StriddenByte9D extends Byte9D {
                     }
                 }
             }
+        });
+        return new FlatDouble9D(out, shape);
+    }
+
+    @Override
+    public byte[] flatten(boolean forceCopy) {
+        if (! forceCopy && isFlat()) {
+            return data;
         }
+        byte[] out = new byte[number];
+        BlockCopy.copy(data, offset, getStorageStrides(), out, 0,
+                new int[]{1, dim1, dim1*dim2, dim1*dim2*dim3, dim1*dim2*dim3*dim4, dim1*dim2*dim3*dim4*dim5, dim1*dim2*dim3*dim4*dim5*dim6, dim1*dim2*dim3*dim4*dim5*dim6*dim7, dim1*dim2*dim3*dim4*dim5*dim6*dim7*dim8}, shape.copyDimensions());
         return out;
     }
 
@@ -31,7 +31,15 @@ import mitiv.base.indexing.Range;
 import mitiv.base.mapping.DoubleFunction;
 import mitiv.base.mapping.DoubleScanner;
 import mitiv.random.DoubleGenerator;
+import mitiv.array.Byte1D;
+import mitiv.array.Short1D;
+import mitiv.array.Int1D;
+import mitiv.array.Long1D;
+import mitiv.array.Float1D;
+import mitiv.array.ShapedArray;
+import mitiv.base.Parallel;
 import mitiv.base.indexing.CompiledRange;
+import mitiv.base.mapping.DoubleMergeableScanner;
 
 
 /**
@@ -39,7 +47,7 @@ import mitiv.base.indexing.CompiledRange;
  *
  * @author Éric Thiébaut.
  */
-public class StriddenDouble1D extends Double1D {
+public class StriddenDouble1D extends Double1D implements StorageLayout {
     final int order;
     final double[] data;
     final int offset;
@@ -93,56 +101,127 @@ public class StriddenDouble1D extends Double1D {
     }
 
     @Override
-    public void fill(double value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] = value;
+    public Object getStorage() {
+        return data;
+    }
+
+    @Override
+    public int getStorageOffset() {
+        return offset;
+    }
+
+    @Override
+    public int[] getStorageStrides() {
+        return new int[]{stride1};
+    }
+
+    @Override
+    public Double1D permute(int... perm) {
+        return new StriddenDouble1D(data, offset,
+                Helper.permute(getStorageStrides(), perm),
+                Helper.permute(shape.copyDimensions(), perm));
+    }
+
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! BlockCopy.copy(arr, this)) {
+            super.assign(arr);
+        }
+    }
+
+    /* Number of iterations of the outermost loop in memory order. */
+    private int getSplitLength() {
+        return dim1;
+    }
+
+    /* Number of iterations of the outermost loop per block. */
+    private int getSplitGrain() {
+        return Parallel.getGrain(getSplitLength(), number);
+    }
+
+    /* Index of the first element of a block. */
+    private int getSplitIndex(int first) {
+        return stride1*first + offset;
+    }
+
+    @Override
+    public void fill(final double value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] = value;
+                }
             }
+        });
     }
 
     @Override
-    public void fill(DoubleGenerator generator) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] = generator.nextDouble();
+    public void increment(final double value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] += value;
+                }
             }
+        });
     }
 
     @Override
-    public void increment(double value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] += value;
+    public void decrement(final double value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] -= value;
+                }
             }
+        });
     }
 
     @Override
-    public void decrement(double value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] -= value;
+    public void scale(final double value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] *= value;
+                }
             }
+        });
     }
 
     @Override
-    public void scale(double value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] *= value;
+    public void map(final DoubleFunction function) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] = function.apply(data[j1]);
+                }
             }
+        });
     }
 
     @Override
-    public void map(DoubleFunction function) {
+    public void fill(DoubleGenerator generator) {
+        /* Generators are sequential, this loop cannot be split. */
             for (int i1 = 0; i1 < dim1; ++i1) {
                 int j1 = stride1*i1 + offset;
-                data[j1] = function.apply(data[j1]);
+                data[j1] = generator.nextDouble();
             }
     }
 
     @Override
     public void scan(DoubleScanner scanner)  {
-        boolean initialized = false;
+        if (! (scanner instanceof DoubleMergeableScanner)) {
+            boolean initialized = false;
             for (int i1 = 0; i1 < dim1; ++i1) {
                 int j1 = stride1*i1 + offset;
                 if (initialized) {
@@ -152,6 +231,233 @@ public class StriddenDouble1D extends Double1D {
                     initialized = true;
                 }
             }
+            return;
+        }
+        final DoubleMergeableScanner root = (DoubleMergeableScanner)scanner;
+        Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<DoubleMergeableScanner>() {
+            @Override
+            public DoubleMergeableScanner compute(int first, int last) {
+                DoubleMergeableScanner scanner = (first == 0 ? root : root.spawn());
+                boolean initialized = false;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    if (initialized) {
+                        scanner.update(data[j1]);
+                    } else {
+                        scanner.initialize(data[j1]);
+                        initialized = true;
+                    }
+                }
+                return scanner;
+            }
+
+            @Override
+            public DoubleMergeableScanner combine(DoubleMergeableScanner left,
+                    DoubleMergeableScanner right) {
+                left.merge(right);
+                return left;
+            }
+        });
+    }
+
+    @Override
+    public double min() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                double minValue = data[getSplitIndex(first)];
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    double value = data[j1];
+                    if (value < minValue || minValue != minValue) {
+                        minValue = value;
+                    }
+                }
+                return minValue;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return (right < left || Double.isNaN(left) ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public double max() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                double maxValue = data[getSplitIndex(first)];
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    double value = data[j1];
+                    if (value > maxValue || maxValue != maxValue) {
+                        maxValue = value;
+                    }
+                }
+                return maxValue;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return (right > left || Double.isNaN(left) ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public void getMinAndMax(double[] mm) {
+        double[] result = Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<double[]>() {
+            @Override
+            public double[] compute(int first, int last) {
+                double minValue = data[getSplitIndex(first)];
+                double maxValue = minValue;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    double value = data[j1];
+                    if (value < minValue || minValue != minValue) {
+                        minValue = value;
+                    }
+                    if (value > maxValue || maxValue != maxValue) {
+                        maxValue = value;
+                    }
+                }
+                return new double[]{minValue, maxValue};
+            }
+
+            @Override
+            public double[] combine(double[] left, double[] right) {
+                if (right[0] < left[0] || left[0] != left[0]) {
+                    left[0] = right[0];
+                }
+                if (right[1] > left[1] || left[1] != left[1]) {
+                    left[1] = right[1];
+                }
+                return left;
+            }
+        });
+        mm[0] = result[0];
+        mm[1] = result[1];
+    }
+
+    /* Sum of the elements with a double precision accumulator. */
+    private double sumOfElements() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                double totalValue = 0.0;
+                double compensation = 0.0;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    double value = data[j1] - compensation;
+                    double total = totalValue + value;
+                    compensation = (total - totalValue) - value;
+                    totalValue = total;
+                }
+                return totalValue - compensation;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return left + right;
+            }
+        });
+    }
+
+    @Override
+    public double sum() {
+        return sumOfElements();
+    }
+
+    @Override
+    public double average() {
+        return sumOfElements()/number;
+    }
+
+    @Override
+    public Byte1D toByte() {
+        final byte[] out = new byte[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (byte)data[j1];
+                }
+            }
+        });
+        return new FlatByte1D(out, shape);
+    }
+
+    @Override
+    public Short1D toShort() {
+        final short[] out = new short[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (short)data[j1];
+                }
+            }
+        });
+        return new FlatShort1D(out, shape);
+    }
+
+    @Override
+    public Int1D toInt() {
+        final int[] out = new int[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (int)data[j1];
+                }
+            }
+        });
+        return new FlatInt1D(out, shape);
+    }
+
+    @Override
+    public Long1D toLong() {
+        final long[] out = new long[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (long)data[j1];
+                }
+            }
+        });
+        return new FlatLong1D(out, shape);
+    }
+
+    @Override
+    public Float1D toFloat() {
+        final float[] out = new float[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (float)data[j1];
+                }
+            }
+        });
+        return new FlatFloat1D(out, shape);
     }
 
     @Override
@@ -160,11 +466,8 @@ public class StriddenDouble1D extends Double1D {
             return data;
         }
         double[] out = new double[number];
-        int j = -1;
-        for (int i1 = 0; i1 < dim1; ++i1) {
-            int j1 = stride1*i1 + offset;
-            out[++j] = data[j1];
-        }
+        BlockCopy.copy(data, offset, getStorageStrides(), out, 0,
+                new int[]{1}, shape.copyDimensions());
         return out;
     }
 
@@ -31,7 +31,15 @@ import mitiv.base.indexing.Range;
 import mitiv.base.mapping.FloatFunction;
 import mitiv.base.mapping.FloatScanner;
 import mitiv.random.FloatGenerator;
+import mitiv.array.Byte1D;
+import mitiv.array.Short1D;
+import mitiv.array.Int1D;
+import mitiv.array.Long1D;
+import mitiv.array.Double1D;
+import mitiv.array.ShapedArray;
+import mitiv.base.Parallel;
 import mitiv.base.indexing.CompiledRange;
+import mitiv.base.mapping.FloatMergeableScanner;
 
 
 /**
@@ -39,7 +47,7 @@ import mitiv.base.indexing.CompiledRange;
  *
  * @author Éric Thiébaut.
  */
-public class StriddenFloat1D extends Float1D {
+public class StriddenFloat1D extends Float1D implements StorageLayout {
     final int order;
     final float[] data;
     final int offset;
@@ -93,56 +101,127 @@ public class StriddenFloat1D extends Float1D {
     }
 
     @Override
-    public void fill(float value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] = value;
+    public Object getStorage() {
+        return data;
+    }
+
+    @Override
+    public int getStorageOffset() {
+        return offset;
+    }
+
+    @Override
+    public int[] getStorageStrides() {
+        return new int[]{stride1};
+    }
+
+    @Override
+    public Float1D permute(int... perm) {
+        return new StriddenFloat1D(data, offset,
+                Helper.permute(getStorageStrides(), perm),
+                Helper.permute(shape.copyDimensions(), perm));
+    }
+
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! BlockCopy.copy(arr, this)) {
+            super.assign(arr);
+        }
+    }
+
+    /* Number of iterations of the outermost loop in memory order. */
+    private int getSplitLength() {
+        return dim1;
+    }
+
+    /* Number of iterations of the outermost loop per block. */
+    private int getSplitGrain() {
+        return Parallel.getGrain(getSplitLength(), number);
+    }
+
+    /* Index of the first element of a block. */
+    private int getSplitIndex(int first) {
+        return stride1*first + offset;
+    }
+
+    @Override
+    public void fill(final float value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] = value;
+                }
             }
+        });
     }
 
     @Override
-    public void fill(FloatGenerator generator) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] = generator.nextFloat();
+    public void increment(final float value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] += value;
+                }
             }
+        });
     }
 
     @Override
-    public void increment(float value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] += value;
+    public void decrement(final float value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] -= value;
+                }
             }
+        });
     }
 
     @Override
-    public void decrement(float value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] -= value;
+    public void scale(final float value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] *= value;
+                }
             }
+        });
     }
 
     @Override
-    public void scale(float value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] *= value;
+    public void map(final FloatFunction function) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] = function.apply(data[j1]);
+                }
             }
+        });
     }
 
     @Override
-    public void map(FloatFunction function) {
+    public void fill(FloatGenerator generator) {
+        /* Generators are sequential, this loop cannot be split. */
             for (int i1 = 0; i1 < dim1; ++i1) {
                 int j1 = stride1*i1 + offset;
-                data[j1] = function.apply(data[j1]);
+                data[j1] = generator.nextFloat();
             }
     }
 
     @Override
     public void scan(FloatScanner scanner)  {
-        boolean initialized = false;
+        if (! (scanner instanceof FloatMergeableScanner)) {
+            boolean initialized = false;
             for (int i1 = 0; i1 < dim1; ++i1) {
                 int j1 = stride1*i1 + offset;
                 if (initialized) {
@@ -152,6 +231,229 @@ public class StriddenFloat1D extends Float1D {
                     initialized = true;
                 }
             }
+            return;
+        }
+        final FloatMergeableScanner root = (FloatMergeableScanner)scanner;
+        Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<FloatMergeableScanner>() {
+            @Override
+            public FloatMergeableScanner compute(int first, int last) {
+                FloatMergeableScanner scanner = (first == 0 ? root : root.spawn());
+                boolean initialized = false;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    if (initialized) {
+                        scanner.update(data[j1]);
+                    } else {
+                        scanner.initialize(data[j1]);
+                        initialized = true;
+                    }
+                }
+                return scanner;
+            }
+
+            @Override
+            public FloatMergeableScanner combine(FloatMergeableScanner left,
+                    FloatMergeableScanner right) {
+                left.merge(right);
+                return left;
+            }
+        });
+    }
+
+    @Override
+    public float min() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Float>() {
+            @Override
+            public Float compute(int first, int last) {
+                float minValue = data[getSplitIndex(first)];
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    float value = data[j1];
+                    if (value < minValue || minValue != minValue) {
+                        minValue = value;
+                    }
+                }
+                return minValue;
+            }
+
+            @Override
+            public Float combine(Float left, Float right) {
+                return (right < left || Float.isNaN(left) ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public float max() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Float>() {
+            @Override
+            public Float compute(int first, int last) {
+                float maxValue = data[getSplitIndex(first)];
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    float value = data[j1];
+                    if (value > maxValue || maxValue != maxValue) {
+                        maxValue = value;
+                    }
+                }
+                return maxValue;
+            }
+
+            @Override
+            public Float combine(Float left, Float right) {
+                return (right > left || Float.isNaN(left) ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public void getMinAndMax(float[] mm) {
+        float[] result = Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<float[]>() {
+            @Override
+            public float[] compute(int first, int last) {
+                float minValue = data[getSplitIndex(first)];
+                float maxValue = minValue;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    float value = data[j1];
+                    if (value < minValue || minValue != minValue) {
+                        minValue = value;
+                    }
+                    if (value > maxValue || maxValue != maxValue) {
+                        maxValue = value;
+                    }
+                }
+                return new float[]{minValue, maxValue};
+            }
+
+            @Override
+            public float[] combine(float[] left, float[] right) {
+                if (right[0] < left[0] || left[0] != left[0]) {
+                    left[0] = right[0];
+                }
+                if (right[1] > left[1] || left[1] != left[1]) {
+                    left[1] = right[1];
+                }
+                return left;
+            }
+        });
+        mm[0] = result[0];
+        mm[1] = result[1];
+    }
+
+    /* Sum of the elements with a double precision accumulator. */
+    private double sumOfElements() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                double totalValue = 0.0;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    totalValue += data[j1];
+                }
+                return totalValue;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return left + right;
+            }
+        });
+    }
+
+    @Override
+    public float sum() {
+        return (float)sumOfElements();
+    }
+
+    @Override
+    public double average() {
+        return sumOfElements()/number;
+    }
+
+    @Override
+    public Byte1D toByte() {
+        final byte[] out = new byte[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (byte)data[j1];
+                }
+            }
+        });
+        return new FlatByte1D(out, shape);
+    }
+
+    @Override
+    public Short1D toShort() {
+        final short[] out = new short[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (short)data[j1];
+                }
+            }
+        });
+        return new FlatShort1D(out, shape);
+    }
+
+    @Override
+    public Int1D toInt() {
+        final int[] out = new int[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (int)data[j1];
+                }
+            }
+        });
+        return new FlatInt1D(out, shape);
+    }
+
+    @Override
+    public Long1D toLong() {
+        final long[] out = new long[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (long)data[j1];
+                }
+            }
+        });
+        return new FlatLong1D(out, shape);
+    }
+
+    @Override
+    public Double1D toDouble() {
+        final double[] out = new double[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (double)data[j1];
+                }
+            }
+        });
+        return new FlatDouble1D(out, shape);
     }
 
     @Override
@@ -160,11 +462,8 @@ public class StriddenFloat1D extends Float1D {
             return data;
         }
         float[] out = new float[number];
-        int j = -1;
-        for (int i1 = 0; i1 < dim1; ++i1) {
-            int j1 = stride1*i1 + offset;
-            out[++j] = data[j1];
-        }
+        BlockCopy.copy(data, offset, getStorageStrides(), out, 0,
+                new int[]{1}, shape.copyDimensions());
         return out;
     }
 
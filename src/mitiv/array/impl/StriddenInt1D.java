@@ -31,7 +31,15 @@ import mitiv.base.indexing.Range;
 import mitiv.base.mapping.IntFunction;
 import mitiv.base.mapping.IntScanner;
 import mitiv.random.IntGenerator;
+import mitiv.array.Byte1D;
+import mitiv.array.Short1D;
+import mitiv.array.Long1D;
+import mitiv.array.Float1D;
+import mitiv.array.Double1D;
+import mitiv.array.ShapedArray;
+import mitiv.base.Parallel;
 import mitiv.base.indexing.CompiledRange;
+import mitiv.base.mapping.IntMergeableScanner;
 
 
 /**
@@ -39,7 +47,7 @@ import mitiv.base.indexing.CompiledRange;
  *
  * @author Éric Thiébaut.
  */
-public class StriddenInt1D extends Int1D {
+public class StriddenInt1D extends Int1D implements StorageLayout {
     final int order;
     final int[] data;
     final int offset;
@@ -93,56 +101,127 @@ public class StriddenInt1D extends Int1D {
     }
 
     @Override
-    public void fill(int value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] = value;
+    public Object getStorage() {
+        return data;
+    }
+
+    @Override
+    public int getStorageOffset() {
+        return offset;
+    }
+
+    @Override
+    public int[] getStorageStrides() {
+        return new int[]{stride1};
+    }
+
+    @Override
+    public Int1D permute(int... perm) {
+        return new StriddenInt1D(data, offset,
+                Helper.permute(getStorageStrides(), perm),
+                Helper.permute(shape.copyDimensions(), perm));
+    }
+
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! BlockCopy.copy(arr, this)) {
+            super.assign(arr);
+        }
+    }
+
+    /* Number of iterations of the outermost loop in memory order. */
+    private int getSplitLength() {
+        return dim1;
+    }
+
+    /* Number of iterations of the outermost loop per block. */
+    private int getSplitGrain() {
+        return Parallel.getGrain(getSplitLength(), number);
+    }
+
+    /* Index of the first element of a block. */
+    private int getSplitIndex(int first) {
+        return stride1*first + offset;
+    }
+
+    @Override
+    public void fill(final int value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] = value;
+                }
             }
+        });
     }
 
     @Override
-    public void fill(IntGenerator generator) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] = generator.nextInt();
+    public void increment(final int value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] += value;
+                }
             }
+        });
     }
 
     @Override
-    public void increment(int value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] += value;
+    public void decrement(final int value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] -= value;
+                }
             }
+        });
     }
 
     @Override
-    public void decrement(int value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] -= value;
+    public void scale(final int value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] *= value;
+                }
             }
+        });
     }
 
     @Override
-    public void scale(int value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] *= value;
+    public void map(final IntFunction function) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] = function.apply(data[j1]);
+                }
             }
+        });
     }
 
     @Override
-    public void map(IntFunction function) {
+    public void fill(IntGenerator generator) {
+        /* Generators are sequential, this loop cannot be split. */
             for (int i1 = 0; i1 < dim1; ++i1) {
                 int j1 = stride1*i1 + offset;
-                data[j1] = function.apply(data[j1]);
+                data[j1] = generator.nextInt();
             }
     }
 
     @Override
     public void scan(IntScanner scanner)  {
-        boolean initialized = false;
+        if (! (scanner instanceof IntMergeableScanner)) {
+            boolean initialized = false;
             for (int i1 = 0; i1 < dim1; ++i1) {
                 int j1 = stride1*i1 + offset;
                 if (initialized) {
@@ -152,6 +231,219 @@ public class StriddenInt1D extends Int1D {
                     initialized = true;
                 }
             }
+            return;
+        }
+        final IntMergeableScanner root = (IntMergeableScanner)scanner;
+        Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<IntMergeableScanner>() {
+            @Override
+            public IntMergeableScanner compute(int first, int last) {
+                IntMergeableScanner scanner = (first == 0 ? root : root.spawn());
+                boolean initialized = false;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    if (initialized) {
+                        scanner.update(data[j1]);
+                    } else {
+                        scanner.initialize(data[j1]);
+                        initialized = true;
+                    }
+                }
+                return scanner;
+            }
+
+            @Override
+            public IntMergeableScanner combine(IntMergeableScanner left,
+                    IntMergeableScanner right) {
+                left.merge(right);
+                return left;
+            }
+        });
+    }
+
+    @Override
+    public int min() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int minValue = data[getSplitIndex(first)];
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    int value = data[j1];
+                    if (value < minValue) {
+                        minValue = value;
+                    }
+                }
+                return minValue;
+            }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return (right < left ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public int max() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int maxValue = data[getSplitIndex(first)];
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    int value = data[j1];
+                    if (value > maxValue) {
+                        maxValue = value;
+                    }
+                }
+                return maxValue;
+            }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return (right > left ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public void getMinAndMax(int[] mm) {
+        int[] result = Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<int[]>() {
+            @Override
+            public int[] compute(int first, int last) {
+                int minValue = data[getSplitIndex(first)];
+                int maxValue = minValue;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    int value = data[j1];
+                    if (value < minValue) {
+                        minValue = value;
+                    }
+                    if (value > maxValue) {
+                        maxValue = value;
+                    }
+                }
+                return new int[]{minValue, maxValue};
+            }
+
+            @Override
+            public int[] combine(int[] left, int[] right) {
+                if (right[0] < left[0]) {
+                    left[0] = right[0];
+                }
+                if (right[1] > left[1]) {
+                    left[1] = right[1];
+                }
+                return left;
+            }
+        });
+        mm[0] = result[0];
+        mm[1] = result[1];
+    }
+
+    @Override
+    public int sum() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int totalValue = 0;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    totalValue += data[j1];
+                }
+                return totalValue;
+            }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return left + right;
+            }
+        });
+    }
+
+    @Override
+    public Byte1D toByte() {
+        final byte[] out = new byte[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (byte)data[j1];
+                }
+            }
+        });
+        return new FlatByte1D(out, shape);
+    }
+
+    @Override
+    public Short1D toShort() {
+        final short[] out = new short[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (short)data[j1];
+                }
+            }
+        });
+        return new FlatShort1D(out, shape);
+    }
+
+    @Override
+    public Long1D toLong() {
+        final long[] out = new long[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (long)data[j1];
+                }
+            }
+        });
+        return new FlatLong1D(out, shape);
+    }
+
+    @Override
+    public Float1D toFloat() {
+        final float[] out = new float[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (float)data[j1];
+                }
+            }
+        });
+        return new FlatFloat1D(out, shape);
+    }
+
+    @Override
+    public Double1D toDouble() {
+        final double[] out = new double[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (double)data[j1];
+                }
+            }
+        });
+        return new FlatDouble1D(out, shape);
     }
 
     @Override
@@ -160,11 +452,8 @@ public class StriddenInt1D extends Int1D {
             return data;
         }
         int[] out = new int[number];
-        int j = -1;
-        for (int i1 = 0; i1 < dim1; ++i1) {
-            int j1 = stride1*i1 + offset;
-            out[++j] = data[j1];
-        }
+        BlockCopy.copy(data, offset, getStorageStrides(), out, 0,
+                new int[]{1}, shape.copyDimensions());
         return out;
     }
 
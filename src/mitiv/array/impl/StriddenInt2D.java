@@ -31,7 +31,15 @@ import mitiv.base.indexing.Range;
 import mitiv.base.mapping.IntFunction;
 import mitiv.base.mapping.IntScanner;
 import mitiv.random.IntGenerator;
+import mitiv.array.Byte2D;
+import mitiv.array.Short2D;
+import mitiv.array.Long2D;
+import mitiv.array.Float2D;
+import mitiv.array.Double2D;
+import mitiv.array.ShapedArray;
+import mitiv.base.Parallel;
 import mitiv.base.indexing.CompiledRange;
+import mitiv.base.mapping.IntMergeableScanner;
 
 
 /**
@@ -39,7 +47,7 @@ import mitiv.base.indexing.CompiledRange;
  *
  * @author Éric Thiébaut.
  */
-public class StriddenInt2D extends Int2D {
+public class StriddenInt2D extends Int2D implements StorageLayout {
     final int order;
     final int[] data;
     final int offset;
@@ -96,29 +104,187 @@ public class StriddenInt2D extends Int2D {
     }
 
     @Override
-    public void fill(int value) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    data[j2] = value;
+    public Object getStorage() {
+        return data;
+    }
+
+    @Override
+    public int getStorageOffset() {
+        return offset;
+    }
+
+    @Override
+    public int[] getStorageStrides() {
+        return new int[]{stride1, stride2};
+    }
+
+    @Override
+    public Int2D permute(int... perm) {
+        return new StriddenInt2D(data, offset,
+                Helper.permute(getStorageStrides(), perm),
+                Helper.permute(shape.copyDimensions(), perm));
+    }
+
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! BlockCopy.copy(arr, this)) {
+            super.assign(arr);
+        }
+    }
+
+    /* Number of iterations of the outermost loop in memory order. */
+    private int getSplitLength() {
+        return (getOrder() == ROW_MAJOR ? dim1 : dim2);
+    }
+
+    /* Number of iterations of the outermost loop per block. */
+    private int getSplitGrain() {
+        return Parallel.getGrain(getSplitLength(), number);
+    }
+
+    /* Index of the first element of a block. */
+    private int getSplitIndex(int first) {
+        return (getOrder() == ROW_MAJOR ? stride1 : stride2)*first + offset;
+    }
+
+    @Override
+    public void fill(final int value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            data[j2] = value;
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            data[j1] = value;
+                        }
+                    }
                 }
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i2 = 0; i2 < dim2; ++i2) {
-                int j2 = stride2*i2 + offset;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = stride1*i1 + j2;
-                    data[j1] = value;
+        });
+    }
+
+    @Override
+    public void increment(final int value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            data[j2] += value;
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            data[j1] += value;
+                        }
+                    }
                 }
             }
-        }
+        });
+    }
+
+    @Override
+    public void decrement(final int value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            data[j2] -= value;
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            data[j1] -= value;
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void scale(final int value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            data[j2] *= value;
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            data[j1] *= value;
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void map(final IntFunction function) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            data[j2] = function.apply(data[j2]);
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            data[j1] = function.apply(data[j1]);
+                        }
+                    }
+                }
+            }
+        });
     }
 
     @Override
     public void fill(IntGenerator generator) {
+        /* Generators are sequential, this loop cannot be split. */
         if (getOrder() == ROW_MAJOR) {
             for (int i1 = 0; i1 < dim1; ++i1) {
                 int j1 = stride1*i1 + offset;
@@ -140,124 +306,352 @@ public class StriddenInt2D extends Int2D {
     }
 
     @Override
-    public void increment(int value) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
+    public void scan(IntScanner scanner)  {
+        if (! (scanner instanceof IntMergeableScanner)) {
+            boolean initialized = false;
+            if (getOrder() == ROW_MAJOR) {
+                for (int i1 = 0; i1 < dim1; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    for (int i2 = 0; i2 < dim2; ++i2) {
+                        int j2 = stride2*i2 + j1;
+                        if (initialized) {
+                            scanner.update(data[j2]);
+                        } else {
+                            scanner.initialize(data[j2]);
+                            initialized = true;
+                        }
+                    }
+                }
+            } else {
+                /* Assume column-major order. */
                 for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    data[j2] += value;
+                    int j2 = stride2*i2 + offset;
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        int j1 = stride1*i1 + j2;
+                        if (initialized) {
+                            scanner.update(data[j1]);
+                        } else {
+                            scanner.initialize(data[j1]);
+                            initialized = true;
+                        }
+                    }
                 }
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i2 = 0; i2 < dim2; ++i2) {
-                int j2 = stride2*i2 + offset;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = stride1*i1 + j2;
-                    data[j1] += value;
+            return;
+        }
+        final IntMergeableScanner root = (IntMergeableScanner)scanner;
+        Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<IntMergeableScanner>() {
+            @Override
+            public IntMergeableScanner compute(int first, int last) {
+                IntMergeableScanner scanner = (first == 0 ? root : root.spawn());
+                boolean initialized = false;
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            if (initialized) {
+                                scanner.update(data[j2]);
+                            } else {
+                                scanner.initialize(data[j2]);
+                                initialized = true;
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            if (initialized) {
+                                scanner.update(data[j1]);
+                            } else {
+                                scanner.initialize(data[j1]);
+                                initialized = true;
+                            }
+                        }
+                    }
                 }
+                return scanner;
             }
-        }
+
+            @Override
+            public IntMergeableScanner combine(IntMergeableScanner left,
+                    IntMergeableScanner right) {
+                left.merge(right);
+                return left;
+            }
+        });
     }
 
     @Override
-    public void decrement(int value) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    data[j2] -= value;
+    public int min() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int minValue = data[getSplitIndex(first)];
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            int value = data[j2];
+                            if (value < minValue) {
+                                minValue = value;
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            int value = data[j1];
+                            if (value < minValue) {
+                                minValue = value;
+                            }
+                        }
+                    }
                 }
+                return minValue;
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i2 = 0; i2 < dim2; ++i2) {
-                int j2 = stride2*i2 + offset;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = stride1*i1 + j2;
-                    data[j1] -= value;
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return (right < left ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public int max() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int maxValue = data[getSplitIndex(first)];
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            int value = data[j2];
+                            if (value > maxValue) {
+                                maxValue = value;
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            int value = data[j1];
+                            if (value > maxValue) {
+                                maxValue = value;
+                            }
+                        }
+                    }
                 }
+                return maxValue;
             }
-        }
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return (right > left ? right : left);
+            }
+        });
     }
 
     @Override
-    public void scale(int value) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    data[j2] *= value;
+    public void getMinAndMax(int[] mm) {
+        int[] result = Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<int[]>() {
+            @Override
+            public int[] compute(int first, int last) {
+                int minValue = data[getSplitIndex(first)];
+                int maxValue = minValue;
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            int value = data[j2];
+                            if (value < minValue) {
+                                minValue = value;
+                            }
+                            if (value > maxValue) {
+                                maxValue = value;
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            int value = data[j1];
+                            if (value < minValue) {
+                                minValue = value;
+                            }
+                            if (value > maxValue) {
+                                maxValue = value;
+                            }
+                        }
+                    }
                 }
+                return new int[]{minValue, maxValue};
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i2 = 0; i2 < dim2; ++i2) {
-                int j2 = stride2*i2 + offset;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = stride1*i1 + j2;
-                    data[j1] *= value;
+
+            @Override
+            public int[] combine(int[] left, int[] right) {
+                if (right[0] < left[0]) {
+                    left[0] = right[0];
                 }
+                if (right[1] > left[1]) {
+                    left[1] = right[1];
+                }
+                return left;
             }
-        }
+        });
+        mm[0] = result[0];
+        mm[1] = result[1];
     }
 
     @Override
-    public void map(IntFunction function) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    data[j2] = function.apply(data[j2]);
+    public int sum() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Integer>() {
+            @Override
+            public Integer compute(int first, int last) {
+                int totalValue = 0;
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            totalValue += data[j2];
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            totalValue += data[j1];
+                        }
+                    }
                 }
+                return totalValue;
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i2 = 0; i2 < dim2; ++i2) {
-                int j2 = stride2*i2 + offset;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = stride1*i1 + j2;
-                    data[j1] = function.apply(data[j1]);
+
+            @Override
+            public Integer combine(Integer left, Integer right) {
+                return left + right;
+            }
+        });
+    }
+
+    @Override
+    public Byte2D toByte() {
+        final byte[] out = new byte[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim2, Parallel.getGrain(dim2, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim2) - 1;
+                for (int i2 = first; i2 < last; ++i2) {
+                    int j2 = stride2*i2 + offset;
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        int j1 = stride1*i1 + j2;
+                        out[++i] = (byte)data[j1];
+                    }
                 }
             }
-        }
+        });
+        return new FlatByte2D(out, shape);
     }
 
     @Override
-    public void scan(IntScanner scanner)  {
-        boolean initialized = false;
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    if (initialized) {
-                        scanner.update(data[j2]);
-                    } else {
-                        scanner.initialize(data[j2]);
-                        initialized = true;
+    public Short2D toShort() {
+        final short[] out = new short[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim2, Parallel.getGrain(dim2, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim2) - 1;
+                for (int i2 = first; i2 < last; ++i2) {
+                    int j2 = stride2*i2 + offset;
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        int j1 = stride1*i1 + j2;
+                        out[++i] = (short)data[j1];
                     }
                 }
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i2 = 0; i2 < dim2; ++i2) {
-                int j2 = stride2*i2 + offset;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = stride1*i1 + j2;
-                    if (initialized) {
-                        scanner.update(data[j1]);
-                    } else {
-                        scanner.initialize(data[j1]);
-                        initialized = true;
+        });
+        return new FlatShort2D(out, shape);
+    }
+
+    @Override
+    public Long2D toLong() {
+        final long[] out = new long[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim2, Parallel.getGrain(dim2, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim2) - 1;
+                for (int i2 = first; i2 < last; ++i2) {
+                    int j2 = stride2*i2 + offset;
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        int j1 = stride1*i1 + j2;
+                        out[++i] = (long)data[j1];
                     }
                 }
             }
-        }
+        });
+        return new FlatLong2D(out, shape);
+    }
+
+    @Override
+    public Float2D toFloat() {
+        final float[] out = new float[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim2, Parallel.getGrain(dim2, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim2) - 1;
+                for (int i2 = first; i2 < last; ++i2) {
+                    int j2 = stride2*i2 + offset;
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        int j1 = stride1*i1 + j2;
+                        out[++i] = (float)data[j1];
+                    }
+                }
+            }
+        });
+        return new FlatFloat2D(out, shape);
+    }
+
+    @Override
+    public Double2D toDouble() {
+        final double[] out = new double[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim2, Parallel.getGrain(dim2, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim2) - 1;
+                for (int i2 = first; i2 < last; ++i2) {
+                    int j2 = stride2*i2 + offset;
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        int j1 = stride1*i1 + j2;
+                        out[++i] = (double)data[j1];
+                    }
+                }
+            }
+        });
+        return new FlatDouble2D(out, shape);
     }
 
     @Override
@@ -266,14 +660,8 @@ public class StriddenInt2D extends Int2D {
             return data;
         }
         int[] out = new int[number];
-        int j = -1;
-        for (int i2 = 0; i2 < dim2; ++i2) {
-            int j2 = stride2*i2 + offset;
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + j2;
-                out[++j] = data[j1];
-            }
-        }
+        BlockCopy.copy(data, offset, getStorageStrides(), out, 0,
+                new int[]{1, dim1}, shape.copyDimensions());
         return out;
     }
 
@@ -31,7 +31,15 @@ import mitiv.base.indexing.Range;
 import mitiv.base.mapping.LongFunction;
 import mitiv.base.mapping.LongScanner;
 import mitiv.random.LongGenerator;
+import mitiv.array.Byte1D;
+import mitiv.array.Short1D;
+import mitiv.array.Int1D;
+import mitiv.array.Float1D;
+import mitiv.array.Double1D;
+import mitiv.array.ShapedArray;
+import mitiv.base.Parallel;
 import mitiv.base.indexing.CompiledRange;
+import mitiv.base.mapping.LongMergeableScanner;
 
 
 /**
@@ -39,7 +47,7 @@ import mitiv.base.indexing.CompiledRange;
  *
  * @author Éric Thiébaut.
  */
-public class StriddenLong1D extends Long1D {
+public class StriddenLong1D extends Long1D implements StorageLayout {
     final int order;
     final long[] data;
     final int offset;
@@ -93,56 +101,127 @@ public class StriddenLong1D extends Long1D {
     }
 
     @Override
-    public void fill(long value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] = value;
+    public Object getStorage() {
+        return data;
+    }
+
+    @Override
+    public int getStorageOffset() {
+        return offset;
+    }
+
+    @Override
+    public int[] getStorageStrides() {
+        return new int[]{stride1};
+    }
+
+    @Override
+    public Long1D permute(int... perm) {
+        return new StriddenLong1D(data, offset,
+                Helper.permute(getStorageStrides(), perm),
+                Helper.permute(shape.copyDimensions(), perm));
+    }
+
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! BlockCopy.copy(arr, this)) {
+            super.assign(arr);
+        }
+    }
+
+    /* Number of iterations of the outermost loop in memory order. */
+    private int getSplitLength() {
+        return dim1;
+    }
+
+    /* Number of iterations of the outermost loop per block. */
+    private int getSplitGrain() {
+        return Parallel.getGrain(getSplitLength(), number);
+    }
+
+    /* Index of the first element of a block. */
+    private int getSplitIndex(int first) {
+        return stride1*first + offset;
+    }
+
+    @Override
+    public void fill(final long value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] = value;
+                }
             }
+        });
     }
 
     @Override
-    public void fill(LongGenerator generator) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] = generator.nextLong();
+    public void increment(final long value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] += value;
+                }
             }
+        });
     }
 
     @Override
-    public void increment(long value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] += value;
+    public void decrement(final long value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] -= value;
+                }
             }
+        });
     }
 
     @Override
-    public void decrement(long value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] -= value;
+    public void scale(final long value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] *= value;
+                }
             }
+        });
     }
 
     @Override
-    public void scale(long value) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                data[j1] *= value;
+    public void map(final LongFunction function) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    data[j1] = function.apply(data[j1]);
+                }
             }
+        });
     }
 
     @Override
-    public void map(LongFunction function) {
+    public void fill(LongGenerator generator) {
+        /* Generators are sequential, this loop cannot be split. */
             for (int i1 = 0; i1 < dim1; ++i1) {
                 int j1 = stride1*i1 + offset;
-                data[j1] = function.apply(data[j1]);
+                data[j1] = generator.nextLong();
             }
     }
 
     @Override
     public void scan(LongScanner scanner)  {
-        boolean initialized = false;
+        if (! (scanner instanceof LongMergeableScanner)) {
+            boolean initialized = false;
             for (int i1 = 0; i1 < dim1; ++i1) {
                 int j1 = stride1*i1 + offset;
                 if (initialized) {
@@ -152,6 +231,219 @@ public class StriddenLong1D extends Long1D {
                     initialized = true;
                 }
             }
+            return;
+        }
+        final LongMergeableScanner root = (LongMergeableScanner)scanner;
+        Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<LongMergeableScanner>() {
+            @Override
+            public LongMergeableScanner compute(int first, int last) {
+                LongMergeableScanner scanner = (first == 0 ? root : root.spawn());
+                boolean initialized = false;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    if (initialized) {
+                        scanner.update(data[j1]);
+                    } else {
+                        scanner.initialize(data[j1]);
+                        initialized = true;
+                    }
+                }
+                return scanner;
+            }
+
+            @Override
+            public LongMergeableScanner combine(LongMergeableScanner left,
+                    LongMergeableScanner right) {
+                left.merge(right);
+                return left;
+            }
+        });
+    }
+
+    @Override
+    public long min() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Long>() {
+            @Override
+            public Long compute(int first, int last) {
+                long minValue = data[getSplitIndex(first)];
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    long value = data[j1];
+                    if (value < minValue) {
+                        minValue = value;
+                    }
+                }
+                return minValue;
+            }
+
+            @Override
+            public Long combine(Long left, Long right) {
+                return (right < left ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public long max() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Long>() {
+            @Override
+            public Long compute(int first, int last) {
+                long maxValue = data[getSplitIndex(first)];
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    long value = data[j1];
+                    if (value > maxValue) {
+                        maxValue = value;
+                    }
+                }
+                return maxValue;
+            }
+
+            @Override
+            public Long combine(Long left, Long right) {
+                return (right > left ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public void getMinAndMax(long[] mm) {
+        long[] result = Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<long[]>() {
+            @Override
+            public long[] compute(int first, int last) {
+                long minValue = data[getSplitIndex(first)];
+                long maxValue = minValue;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    long value = data[j1];
+                    if (value < minValue) {
+                        minValue = value;
+                    }
+                    if (value > maxValue) {
+                        maxValue = value;
+                    }
+                }
+                return new long[]{minValue, maxValue};
+            }
+
+            @Override
+            public long[] combine(long[] left, long[] right) {
+                if (right[0] < left[0]) {
+                    left[0] = right[0];
+                }
+                if (right[1] > left[1]) {
+                    left[1] = right[1];
+                }
+                return left;
+            }
+        });
+        mm[0] = result[0];
+        mm[1] = result[1];
+    }
+
+    @Override
+    public long sum() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Long>() {
+            @Override
+            public Long compute(int first, int last) {
+                long totalValue = 0;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    totalValue += data[j1];
+                }
+                return totalValue;
+            }
+
+            @Override
+            public Long combine(Long left, Long right) {
+                return left + right;
+            }
+        });
+    }
+
+    @Override
+    public Byte1D toByte() {
+        final byte[] out = new byte[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (byte)data[j1];
+                }
+            }
+        });
+        return new FlatByte1D(out, shape);
+    }
+
+    @Override
+    public Short1D toShort() {
+        final short[] out = new short[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (short)data[j1];
+                }
+            }
+        });
+        return new FlatShort1D(out, shape);
+    }
+
+    @Override
+    public Int1D toInt() {
+        final int[] out = new int[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (int)data[j1];
+                }
+            }
+        });
+        return new FlatInt1D(out, shape);
+    }
+
+    @Override
+    public Float1D toFloat() {
+        final float[] out = new float[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (float)data[j1];
+                }
+            }
+        });
+        return new FlatFloat1D(out, shape);
+    }
+
+    @Override
+    public Double1D toDouble() {
+        final double[] out = new double[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim1, Parallel.getGrain(dim1, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first - 1;
+                for (int i1 = first; i1 < last; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    out[++i] = (double)data[j1];
+                }
+            }
+        });
+        return new FlatDouble1D(out, shape);
     }
 
     @Override
@@ -160,11 +452,8 @@ public class StriddenLong1D extends Long1D {
             return data;
         }
         long[] out = new long[number];
-        int j = -1;
-        for (int i1 = 0; i1 < dim1; ++i1) {
-            int j1 = stride1*i1 + offset;
-            out[++j] = data[j1];
-        }
+        BlockCopy.copy(data, offset, getStorageStrides(), out, 0,
+                new int[]{1}, shape.copyDimensions());
         return out;
     }
 
@@ -31,7 +31,15 @@ import mitiv.base.indexing.Range;
 import mitiv.base.mapping.LongFunction;
 import mitiv.base.mapping.LongScanner;
 import mitiv.random.LongGenerator;
+import mitiv.array.Byte2D;
+import mitiv.array.Short2D;
+import mitiv.array.Int2D;
+import mitiv.array.Float2D;
+import mitiv.array.Double2D;
+import mitiv.array.ShapedArray;
+import mitiv.base.Parallel;
 import mitiv.base.indexing.CompiledRange;
+import mitiv.base.mapping.LongMergeableScanner;
 
 
 /**
@@ -39,7 +47,7 @@ import mitiv.base.indexing.CompiledRange;
  *
  * @author Éric Thiébaut.
  */
-public class StriddenLong2D extends Long2D {
+public class StriddenLong2D extends Long2D implements StorageLayout {
     final int order;
     final long[] data;
     final int offset;
@@ -96,29 +104,187 @@ public class StriddenLong2D extends Long2D {
     }
 
     @Override
-    public void fill(long value) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    data[j2] = value;
+    public Object getStorage() {
+        return data;
+    }
+
+    @Override
+    public int getStorageOffset() {
+        return offset;
+    }
+
+    @Override
+    public int[] getStorageStrides() {
+        return new int[]{stride1, stride2};
+    }
+
+    @Override
+    public Long2D permute(int... perm) {
+        return new StriddenLong2D(data, offset,
+                Helper.permute(getStorageStrides(), perm),
+                Helper.permute(shape.copyDimensions(), perm));
+    }
+
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! BlockCopy.copy(arr, this)) {
+            super.assign(arr);
+        }
+    }
+
+    /* Number of iterations of the outermost loop in memory order. */
+    private int getSplitLength() {
+        return (getOrder() == ROW_MAJOR ? dim1 : dim2);
+    }
+
+    /* Number of iterations of the outermost loop per block. */
+    private int getSplitGrain() {
+        return Parallel.getGrain(getSplitLength(), number);
+    }
+
+    /* Index of the first element of a block. */
+    private int getSplitIndex(int first) {
+        return (getOrder() == ROW_MAJOR ? stride1 : stride2)*first + offset;
+    }
+
+    @Override
+    public void fill(final long value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            data[j2] = value;
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            data[j1] = value;
+                        }
+                    }
                 }
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i2 = 0; i2 < dim2; ++i2) {
-                int j2 = stride2*i2 + offset;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = stride1*i1 + j2;
-                    data[j1] = value;
+        });
+    }
+
+    @Override
+    public void increment(final long value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            data[j2] += value;
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            data[j1] += value;
+                        }
+                    }
                 }
             }
-        }
+        });
+    }
+
+    @Override
+    public void decrement(final long value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            data[j2] -= value;
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            data[j1] -= value;
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void scale(final long value) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            data[j2] *= value;
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            data[j1] *= value;
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void map(final LongFunction function) {
+        Parallel.run(getSplitLength(), getSplitGrain(), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            data[j2] = function.apply(data[j2]);
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            data[j1] = function.apply(data[j1]);
+                        }
+                    }
+                }
+            }
+        });
     }
 
     @Override
     public void fill(LongGenerator generator) {
+        /* Generators are sequential, this loop cannot be split. */
         if (getOrder() == ROW_MAJOR) {
             for (int i1 = 0; i1 < dim1; ++i1) {
                 int j1 = stride1*i1 + offset;
@@ -140,124 +306,352 @@ public class StriddenLong2D extends Long2D {
     }
 
     @Override
-    public void increment(long value) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
+    public void scan(LongScanner scanner)  {
+        if (! (scanner instanceof LongMergeableScanner)) {
+            boolean initialized = false;
+            if (getOrder() == ROW_MAJOR) {
+                for (int i1 = 0; i1 < dim1; ++i1) {
+                    int j1 = stride1*i1 + offset;
+                    for (int i2 = 0; i2 < dim2; ++i2) {
+                        int j2 = stride2*i2 + j1;
+                        if (initialized) {
+                            scanner.update(data[j2]);
+                        } else {
+                            scanner.initialize(data[j2]);
+                            initialized = true;
+                        }
+                    }
+                }
+            } else {
+                /* Assume column-major order. */
                 for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    data[j2] += value;
+                    int j2 = stride2*i2 + offset;
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        int j1 = stride1*i1 + j2;
+                        if (initialized) {
+                            scanner.update(data[j1]);
+                        } else {
+                            scanner.initialize(data[j1]);
+                            initialized = true;
+                        }
+                    }
                 }
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i2 = 0; i2 < dim2; ++i2) {
-                int j2 = stride2*i2 + offset;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = stride1*i1 + j2;
-                    data[j1] += value;
+            return;
+        }
+        final LongMergeableScanner root = (LongMergeableScanner)scanner;
+        Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<LongMergeableScanner>() {
+            @Override
+            public LongMergeableScanner compute(int first, int last) {
+                LongMergeableScanner scanner = (first == 0 ? root : root.spawn());
+                boolean initialized = false;
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            if (initialized) {
+                                scanner.update(data[j2]);
+                            } else {
+                                scanner.initialize(data[j2]);
+                                initialized = true;
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            if (initialized) {
+                                scanner.update(data[j1]);
+                            } else {
+                                scanner.initialize(data[j1]);
+                                initialized = true;
+                            }
+                        }
+                    }
                 }
+                return scanner;
             }
-        }
+
+            @Override
+            public LongMergeableScanner combine(LongMergeableScanner left,
+                    LongMergeableScanner right) {
+                left.merge(right);
+                return left;
+            }
+        });
     }
 
     @Override
-    public void decrement(long value) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    data[j2] -= value;
+    public long min() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Long>() {
+            @Override
+            public Long compute(int first, int last) {
+                long minValue = data[getSplitIndex(first)];
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            long value = data[j2];
+                            if (value < minValue) {
+                                minValue = value;
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            long value = data[j1];
+                            if (value < minValue) {
+                                minValue = value;
+                            }
+                        }
+                    }
                 }
+                return minValue;
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i2 = 0; i2 < dim2; ++i2) {
-                int j2 = stride2*i2 + offset;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = stride1*i1 + j2;
-                    data[j1] -= value;
+
+            @Override
+            public Long combine(Long left, Long right) {
+                return (right < left ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public long max() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Long>() {
+            @Override
+            public Long compute(int first, int last) {
+                long maxValue = data[getSplitIndex(first)];
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            long value = data[j2];
+                            if (value > maxValue) {
+                                maxValue = value;
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            long value = data[j1];
+                            if (value > maxValue) {
+                                maxValue = value;
+                            }
+                        }
+                    }
                 }
+                return maxValue;
             }
-        }
+
+            @Override
+            public Long combine(Long left, Long right) {
+                return (right > left ? right : left);
+            }
+        });
     }
 
     @Override
-    public void scale(long value) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    data[j2] *= value;
+    public void getMinAndMax(long[] mm) {
+        long[] result = Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<long[]>() {
+            @Override
+            public long[] compute(int first, int last) {
+                long minValue = data[getSplitIndex(first)];
+                long maxValue = minValue;
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            long value = data[j2];
+                            if (value < minValue) {
+                                minValue = value;
+                            }
+                            if (value > maxValue) {
+                                maxValue = value;
+                            }
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            long value = data[j1];
+                            if (value < minValue) {
+                                minValue = value;
+                            }
+                            if (value > maxValue) {
+                                maxValue = value;
+                            }
+                        }
+                    }
                 }
+                return new long[]{minValue, maxValue};
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i2 = 0; i2 < dim2; ++i2) {
-                int j2 = stride2*i2 + offset;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = stride1*i1 + j2;
-                    data[j1] *= value;
+
+            @Override
+            public long[] combine(long[] left, long[] right) {
+                if (right[0] < left[0]) {
+                    left[0] = right[0];
                 }
+                if (right[1] > left[1]) {
+                    left[1] = right[1];
+                }
+                return left;
             }
-        }
+        });
+        mm[0] = result[0];
+        mm[1] = result[1];
     }
 
     @Override
-    public void map(LongFunction function) {
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    data[j2] = function.apply(data[j2]);
+    public long sum() {
+        return Parallel.reduce(getSplitLength(), getSplitGrain(), new Parallel.Reduction<Long>() {
+            @Override
+            public Long compute(int first, int last) {
+                long totalValue = 0;
+                if (getOrder() == ROW_MAJOR) {
+                    for (int i1 = first; i1 < last; ++i1) {
+                        int j1 = stride1*i1 + offset;
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            int j2 = stride2*i2 + j1;
+                            totalValue += data[j2];
+                        }
+                    }
+                } else {
+                    /* Assume column-major order. */
+                    for (int i2 = first; i2 < last; ++i2) {
+                        int j2 = stride2*i2 + offset;
+                        for (int i1 = 0; i1 < dim1; ++i1) {
+                            int j1 = stride1*i1 + j2;
+                            totalValue += data[j1];
+                        }
+                    }
                 }
+                return totalValue;
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i2 = 0; i2 < dim2; ++i2) {
-                int j2 = stride2*i2 + offset;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = stride1*i1 + j2;
-                    data[j1] = function.apply(data[j1]);
+
+            @Override
+            public Long combine(Long left, Long right) {
+                return left + right;
+            }
+        });
+    }
+
+    @Override
+    public Byte2D toByte() {
+        final byte[] out = new byte[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim2, Parallel.getGrain(dim2, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim2) - 1;
+                for (int i2 = first; i2 < last; ++i2) {
+                    int j2 = stride2*i2 + offset;
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        int j1 = stride1*i1 + j2;
+                        out[++i] = (byte)data[j1];
+                    }
                 }
             }
-        }
+        });
+        return new FlatByte2D(out, shape);
     }
 
     @Override
-    public void scan(LongScanner scanner)  {
-        boolean initialized = false;
-        if (getOrder() == ROW_MAJOR) {
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + offset;
-                for (int i2 = 0; i2 < dim2; ++i2) {
-                    int j2 = stride2*i2 + j1;
-                    if (initialized) {
-                        scanner.update(data[j2]);
-                    } else {
-                        scanner.initialize(data[j2]);
-                        initialized = true;
+    public Short2D toShort() {
+        final short[] out = new short[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim2, Parallel.getGrain(dim2, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim2) - 1;
+                for (int i2 = first; i2 < last; ++i2) {
+                    int j2 = stride2*i2 + offset;
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        int j1 = stride1*i1 + j2;
+                        out[++i] = (short)data[j1];
                     }
                 }
             }
-        } else {
-            /* Assume column-major order. */
-            for (int i2 = 0; i2 < dim2; ++i2) {
-                int j2 = stride2*i2 + offset;
-                for (int i1 = 0; i1 < dim1; ++i1) {
-                    int j1 = stride1*i1 + j2;
-                    if (initialized) {
-                        scanner.update(data[j1]);
-                    } else {
-                        scanner.initialize(data[j1]);
-                        initialized = true;
+        });
+        return new FlatShort2D(out, shape);
+    }
+
+    @Override
+    public Int2D toInt() {
+        final int[] out = new int[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim2, Parallel.getGrain(dim2, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim2) - 1;
+                for (int i2 = first; i2 < last; ++i2) {
+                    int j2 = stride2*i2 + offset;
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        int j1 = stride1*i1 + j2;
+                        out[++i] = (int)data[j1];
                     }
                 }
             }
-        }
+        });
+        return new FlatInt2D(out, shape);
+    }
+
+    @Override
+    public Float2D toFloat() {
+        final float[] out = new float[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim2, Parallel.getGrain(dim2, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim2) - 1;
+                for (int i2 = first; i2 < last; ++i2) {
+                    int j2 = stride2*i2 + offset;
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        int j1 = stride1*i1 + j2;
+                        out[++i] = (float)data[j1];
+                    }
+                }
+            }
+        });
+        return new FlatFloat2D(out, shape);
+    }
+
+    @Override
+    public Double2D toDouble() {
+        final double[] out = new double[number];
+        /* The result is in column-major order, split the last dimension. */
+        Parallel.run(dim2, Parallel.getGrain(dim2, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                int i = first*(number/dim2) - 1;
+                for (int i2 = first; i2 < last; ++i2) {
+                    int j2 = stride2*i2 + offset;
+                    for (int i1 = 0; i1 < dim1; ++i1) {
+                        int j1 = stride1*i1 + j2;
+                        out[++i] = (double)data[j1];
+                    }
+                }
+            }
+        });
+        return new FlatDouble2D(out, shape);
     }
 
     @Override
@@ -266,14 +660,8 @@ public class StriddenLong2D extends Long2D {
             return data;
         }
         long[] out = new long[number];
-        int j = -1;
-        for (int i2 = 0; i2 < dim2; ++i2) {
-            int j2 = stride2*i2 + offset;
-            for (int i1 = 0; i1 < dim1; ++i1) {
-                int j1 = stride1*i1 + j2;
-                out[++j] = data[j1];
-            }
-        }
+        BlockCopy.copy(data, offset, getStorageStrides(), out, 0,
+                new int[]{1, dim1}, shape.copyDimensions());
         return out;
     }
 
@@ -0,0 +1,653 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.array.impl;
+
+import mitiv.array.Float1D;
+import mitiv.array.Float2D;
+import mitiv.array.Float3D;
+import mitiv.base.indexing.Range;
+import mitiv.base.mapping.FloatFunction;
+import mitiv.base.mapping.FloatScanner;
+import mitiv.random.FloatGenerator;
+import mitiv.array.FloatArray;
+import mitiv.array.ShapedArray;
+import mitiv.base.Parallel;
+import mitiv.base.Shape;
+import mitiv.base.Summation;
+import mitiv.base.Traits;
+import mitiv.exception.NonConformableArrayException;
+
+
+/**
+ * Tiled implementation of 3-dimensional arrays of float's.
+ *
+ * <p>
+ * The elements are stored by cubic bricks of {@code B×B×B} elements with
+ * {@code B = 2^bits} (8×8×8 by default, see {@link #DEFAULT_BRICK_BITS}).
+ * The bricks are stored one after the other in column-major order and so
+ * are the elements of a brick.  The dimensions are rounded up to a multiple
+ * of {@code B}, the padding elements are never used.  Compared to the flat
+ * layout, neighbors along the 2nd and 3rd dimensions are much closer in
+ * memory which avoids cache misses for stencils along these dimensions and
+ * for slices of large volumes.
+ * </p><p>
+ * Element-wise operations and reductions process the array brick by brick
+ * (in parallel).  The conversions to and from the flat layout (see
+ * {@link #tile}, {@link #assign} and {@link #flatten}) copy contiguous runs
+ * of elements.  Custom kernels can walk through the bricks thanks to
+ * {@link #getData}, {@link #getBrickBits} and {@link #brickOffset}.
+ * Slices, views and permutations share the storage of the tiled array, they
+ * are {@code Selected} arrays whose indirection tables follow the bricks.
+ * </p>
+ */
+public class TiledFloat3D extends Float3D {
+    /**
+     * The default base 2 logarithm of the size of the bricks.
+     */
+    public static final int DEFAULT_BRICK_BITS = 3;
+
+    static final int order = NONSPECIFIC_ORDER;
+    final float[] data;
+    final int bits;   // base 2 logarithm of the size of the bricks
+    final int size;   // number of elements of a brick along a dimension
+    final int mask;   // size - 1
+    final int shift;  // base 2 logarithm of the number of elements of a brick
+    final int nb1, nb2, nb3; // number of bricks along the dimensions
+    final int bricks; // total number of bricks
+
+    public TiledFloat3D(int dim1, int dim2, int dim3) {
+        this(Shape.make(dim1, dim2, dim3), DEFAULT_BRICK_BITS);
+    }
+
+    public TiledFloat3D(int dim1, int dim2, int dim3, int bits) {
+        this(Shape.make(dim1, dim2, dim3), bits);
+    }
+
+    public TiledFloat3D(int[] dims) {
+        this(Shape.make(dims), DEFAULT_BRICK_BITS);
+    }
+
+    public TiledFloat3D(Shape shape) {
+        this(shape, DEFAULT_BRICK_BITS);
+    }
+
+    /**
+     * Create a tiled 3-dimensional array.
+     * @param shape - The shape of the array.
+     * @param bits  - The base 2 logarithm of the size of the bricks (from 1
+     *                to 6, that is bricks from 2×2×2 to 64×64×64 elements).
+     */
+    public TiledFloat3D(Shape shape, int bits) {
+        super(shape);
+        if (bits < 1 || bits > 6) {
+            throw new IllegalArgumentException("Invalid brick size.");
+        }
+        this.bits = bits;
+        size = (1 << bits);
+        mask = size - 1;
+        shift = 3*bits;
+        nb1 = (dim1 + mask) >> bits;
+        nb2 = (dim2 + mask) >> bits;
+        nb3 = (dim3 + mask) >> bits;
+        long length = ((long)nb1*(long)nb2*(long)nb3) << shift;
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Total number of elements is too large.");
+        }
+        bricks = nb1*nb2*nb3;
+        data = new float[(int)length];
+    }
+
+    /**
+     * Convert an array to a tiled array with the default brick size.
+     * @param arr - The source array, must be 3-dimensional.
+     * @return A new tiled array with the values of {@code arr}.
+     */
+    public static TiledFloat3D tile(ShapedArray arr) {
+        return tile(arr, DEFAULT_BRICK_BITS);
+    }
+
+    /**
+     * Convert an array to a tiled array.
+     * @param arr  - The source array, must be 3-dimensional.
+     * @param bits - The base 2 logarithm of the size of the bricks.
+     * @return A new tiled array with the values of {@code arr}.
+     */
+    public static TiledFloat3D tile(ShapedArray arr, int bits) {
+        TiledFloat3D dst = new TiledFloat3D(arr.getShape(), bits);
+        dst.assign(arr);
+        return dst;
+    }
+
+    @Override
+    public void checkSanity() {
+        if (data == null) {
+           throw new NonConformableArrayException("Tiled storage is null.");
+        }
+        if (data.length < (bricks << shift)) {
+            throw new NonConformableArrayException("Tiled storage is too small.");
+        }
+    }
+
+    /**
+     * Get the storage of the elements of this array.
+     * @return The array of elements stored by bricks.
+     */
+    public float[] getData() {
+        return data;
+    }
+
+    /**
+     * Get the base 2 logarithm of the size of the bricks.
+     * @return The number of bits {@code b} such that the bricks have
+     *         {@code 2^b} elements along every dimension.
+     */
+    public int getBrickBits() {
+        return bits;
+    }
+
+    /**
+     * Get the size of the bricks.
+     * @return The number of elements of a brick along every dimension.
+     */
+    public int getBrickSize() {
+        return size;
+    }
+
+    /**
+     * Get the offset of a brick in the storage.
+     *
+     * <p>
+     * The element at position {@code (i1,i2,i3)} of the brick (with
+     * {@code 0 ≤ i1,i2,i3 < getBrickSize()}) is stored at index
+     * {@code brickOffset(b1,b2,b3) + ((i3*B + i2)*B + i1)} with {@code B}
+     * the size of the bricks.
+     * </p>
+     * @param b1 - The index of the brick along the 1st dimension.
+     * @param b2 - The index of the brick along the 2nd dimension.
+     * @param b3 - The index of the brick along the 3rd dimension.
+     * @return The index of the first element of the brick.
+     */
+    public final int brickOffset(int b1, int b2, int b3) {
+        return ((b3*nb2 + b2)*nb1 + b1) << shift;
+    }
+
+    final int index(int i1, int i2, int i3) {
+        int b = ((i3 >> bits)*nb2 + (i2 >> bits))*nb1 + (i1 >> bits);
+        return (((b << bits | (i3 & mask)) << bits | (i2 & mask)) << bits) | (i1 & mask);
+    }
+
+    @Override
+    public final float get(int i1, int i2, int i3) {
+        return data[index(i1, i2, i3)];
+    }
+
+    @Override
+    public final void set(int i1, int i2, int i3, float value) {
+        data[index(i1, i2, i3)] = value;
+    }
+
+    @Override
+    public final int getOrder() {
+        return order;
+    }
+
+    /* The number of bricks per block of parallel loops. */
+    private int grain() {
+        return Parallel.getGrain(bricks, number);
+    }
+
+    /*
+     * Loop over a range of bricks.  For each brick, method process() is
+     * called with the offset of the brick, the position of its first element
+     * and the number of its elements inside the array along each dimension.
+     */
+    private abstract class BrickLoop extends Parallel.Loop {
+        @Override
+        public final void run(int first, int last) {
+            for (int b = first; b < last; ++b) {
+                int q = b/nb1;
+                int j1 = (b - q*nb1) << bits;
+                int j2 = (q % nb2) << bits;
+                int j3 = (q / nb2) << bits;
+                process(b << shift, j1, j2, j3,
+                        Math.min(size, dim1 - j1),
+                        Math.min(size, dim2 - j2),
+                        Math.min(size, dim3 - j3));
+            }
+        }
+
+        abstract void process(int offset, int j1, int j2, int j3,
+                int n1, int n2, int n3);
+    }
+
+    /*
+     * Loop over the contiguous runs of elements of a range of bricks.  A
+     * complete brick is a single run, otherwise the runs are along the 1st
+     * dimension.
+     */
+    private abstract class RunLoop extends BrickLoop {
+        @Override
+        final void process(int offset, int j1, int j2, int j3,
+                int n1, int n2, int n3) {
+            if (n1 == size && n2 == size && n3 == size) {
+                process(offset, offset + (1 << shift));
+            } else {
+                for (int i3 = 0; i3 < n3; ++i3) {
+                    for (int i2 = 0; i2 < n2; ++i2) {
+                        int j = offset + ((i3 << bits | i2) << bits);
+                        process(j, j + n1);
+                    }
+                }
+            }
+        }
+
+        /* Process elements data[first], ..., data[last-1]. */
+        abstract void process(int first, int last);
+    }
+
+    /* Copy elements between this array and a flat array in column-major
+     * order. */
+    private void copyRuns(final float[] flat, final boolean toFlat) {
+        Parallel.run(bricks, grain(), new BrickLoop() {
+            @Override
+            void process(int offset, int j1, int j2, int j3,
+                    int n1, int n2, int n3) {
+                for (int i3 = 0; i3 < n3; ++i3) {
+                    for (int i2 = 0; i2 < n2; ++i2) {
+                        int j = offset + ((i3 << bits | i2) << bits);
+                        int k = j1 + dim1*(j2 + i2 + dim2*(j3 + i3));
+                        if (toFlat) {
+                            System.arraycopy(data, j, flat, k, n1);
+                        } else {
+                            System.arraycopy(flat, k, data, j, n1);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void fill(final float value) {
+        Parallel.run(bricks, grain(), new RunLoop() {
+            @Override
+            void process(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    data[j] = value;
+                }
+            }
+        });
+    }
+
+    @Override
+    public void increment(final float value) {
+        Parallel.run(bricks, grain(), new RunLoop() {
+            @Override
+            void process(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    data[j] += value;
+                }
+            }
+        });
+    }
+
+    @Override
+    public void decrement(final float value) {
+        Parallel.run(bricks, grain(), new RunLoop() {
+            @Override
+            void process(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    data[j] -= value;
+                }
+            }
+        });
+    }
+
+    @Override
+    public void scale(final float value) {
+        Parallel.run(bricks, grain(), new RunLoop() {
+            @Override
+            void process(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    data[j] *= value;
+                }
+            }
+        });
+    }
+
+    @Override
+    public void map(final FloatFunction function) {
+        Parallel.run(bricks, grain(), new RunLoop() {
+            @Override
+            void process(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    data[j] = function.apply(data[j]);
+                }
+            }
+        });
+    }
+
+    @Override
+    public float min() {
+        return Parallel.reduce(bricks, grain(), new Parallel.Reduction<Float>() {
+            @Override
+            public Float compute(int first, int last) {
+                /* The first element of a brick is always in the array. */
+                final float[] result = new float[]{data[first << shift]};
+                new RunLoop() {
+                    @Override
+                    void process(int first, int last) {
+                        float minValue = result[0];
+                        for (int j = first; j < last; ++j) {
+                            float value = data[j];
+                            if (value < minValue || minValue != minValue) {
+                                minValue = value;
+                            }
+                        }
+                        result[0] = minValue;
+                    }
+                }.run(first, last);
+                return result[0];
+            }
+
+            @Override
+            public Float combine(Float left, Float right) {
+                return (right < left || Float.isNaN(left) ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public float max() {
+        return Parallel.reduce(bricks, grain(), new Parallel.Reduction<Float>() {
+            @Override
+            public Float compute(int first, int last) {
+                /* The first element of a brick is always in the array. */
+                final float[] result = new float[]{data[first << shift]};
+                new RunLoop() {
+                    @Override
+                    void process(int first, int last) {
+                        float maxValue = result[0];
+                        for (int j = first; j < last; ++j) {
+                            float value = data[j];
+                            if (value > maxValue || maxValue != maxValue) {
+                                maxValue = value;
+                            }
+                        }
+                        result[0] = maxValue;
+                    }
+                }.run(first, last);
+                return result[0];
+            }
+
+            @Override
+            public Float combine(Float left, Float right) {
+                return (right > left || Float.isNaN(left) ? right : left);
+            }
+        });
+    }
+
+    @Override
+    public void getMinAndMax(float[] mm) {
+        float[] result = Parallel.reduce(bricks, grain(), new Parallel.Reduction<float[]>() {
+            @Override
+            public float[] compute(int first, int last) {
+                float value = data[first << shift];
+                final float[] result = new float[]{value, value};
+                new RunLoop() {
+                    @Override
+                    void process(int first, int last) {
+                        float minValue = result[0];
+                        float maxValue = result[1];
+                        for (int j = first; j < last; ++j) {
+                            float value = data[j];
+                            if (value < minValue || minValue != minValue) {
+                                minValue = value;
+                            }
+                            if (value > maxValue || maxValue != maxValue) {
+                                maxValue = value;
+                            }
+                        }
+                        result[0] = minValue;
+                        result[1] = maxValue;
+                    }
+                }.run(first, last);
+                return result;
+            }
+
+            @Override
+            public float[] combine(float[] left, float[] right) {
+                if (right[0] < left[0] || left[0] != left[0]) {
+                    left[0] = right[0];
+                }
+                if (right[1] > left[1] || left[1] != left[1]) {
+                    left[1] = right[1];
+                }
+                return left;
+            }
+        });
+        mm[0] = result[0];
+        mm[1] = result[1];
+    }
+
+    /* Sum of the elements by pairwise summation of the runs of each brick. */
+    private double sumOfElements() {
+        return Parallel.reduce(bricks, grain(), new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                final double[] result = new double[1];
+                new RunLoop() {
+                    @Override
+                    void process(int first, int last) {
+                        result[0] += Summation.pairwiseSum(data, first, last);
+                    }
+                }.run(first, last);
+                return result[0];
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return left + right;
+            }
+        });
+    }
+
+    @Override
+    public float sum() {
+        return (float)sumOfElements();
+    }
+
+    @Override
+    public double average() {
+        return sumOfElements()/number;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The elements of a tiled array are not stored in column-major order,
+     * a new array is therefore always returned.
+     * </p>
+     */
+    @Override
+    public float[] flatten(boolean forceCopy) {
+        float[] result = new float[number];
+        copyRuns(result, true);
+        return result;
+    }
+
+    /**
+     * Convert this array to a flat array.
+     * @return A new array with the same values as this one and a flat
+     *         layout.
+     */
+    public Float3D toFlat() {
+        return new FlatFloat3D(flatten(), shape);
+    }
+
+    @Override
+    public void assign(ShapedArray arr) {
+        if (! getShape().equals(arr.getShape())) {
+            throw new NonConformableArrayException("Source and destination must have the same shape.");
+        }
+        if (arr instanceof TiledFloat3D && ((TiledFloat3D)arr).bits == bits) {
+            float[] src = ((TiledFloat3D)arr).data;
+            if (src != data) {
+                System.arraycopy(src, 0, data, 0, data.length);
+            }
+        } else if (arr.getType() == Traits.FLOAT) {
+            copyRuns(((FloatArray)arr).flatten(false), false);
+        } else {
+            copyRuns(arr.toFloat().flatten(false), false);
+        }
+    }
+
+    @Override
+    public Float3D copy() {
+        TiledFloat3D result = new TiledFloat3D(shape, bits);
+        System.arraycopy(data, 0, result.data, 0, data.length);
+        return result;
+    }
+
+    /*
+     * Build the table of offsets along a dimension.  The index of an element
+     * in the storage is the sum of the offsets of its coordinates along
+     * every dimension (see index()), the bit fields of the offsets do not
+     * overlap.  Slices and views are therefore Selected arrays sharing the
+     * storage of the tiled array.
+     */
+    private int[] offsets(int dim) {
+        int n, step, inner;
+        if (dim == 0) {
+            n = dim1;
+            step = 1 << shift;
+            inner = 0;
+        } else if (dim == 1) {
+            n = dim2;
+            step = nb1 << shift;
+            inner = bits;
+        } else {
+            n = dim3;
+            step = (nb1*nb2) << shift;
+            inner = 2*bits;
+        }
+        int[] off = new int[n];
+        for (int i = 0; i < n; ++i) {
+            off[i] = (i >> bits)*step + ((i & mask) << inner);
+        }
+        return off;
+    }
+
+    /* Add an offset to a table of offsets. */
+    private static int[] addOffset(int[] off, int offset) {
+        int n = off.length;
+        int[] result = new int[n];
+        for (int i = 0; i < n; ++i) {
+            result[i] = off[i] + offset;
+        }
+        return result;
+    }
+
+    @Override
+    public Float2D slice(int idx) {
+        return slice(idx, 2);
+    }
+
+    @Override
+    public Float2D slice(int idx, int dim) {
+        dim = Helper.fixSliceIndex(dim, 3);
+        if (dim == 0) {
+            /* Slice along 1st dimension. */
+            int offset = offsets(0)[Helper.fixIndex(idx, dim1)];
+            return new SelectedFloat2D(data, addOffset(offsets(1), offset), offsets(2));
+        } else if (dim == 1) {
+            /* Slice along 2nd dimension. */
+            int offset = offsets(1)[Helper.fixIndex(idx, dim2)];
+            return new SelectedFloat2D(data, addOffset(offsets(0), offset), offsets(2));
+        } else {
+            /* Slice along 3rd dimension. */
+            int offset = offsets(2)[Helper.fixIndex(idx, dim3)];
+            return new SelectedFloat2D(data, addOffset(offsets(0), offset), offsets(1));
+        }
+    }
+
+    @Override
+    public Float3D view(Range rng1, Range rng2, Range rng3) {
+        if (rng1 == null && rng2 == null && rng3 == null) {
+            return this;
+        }
+        return new SelectedFloat3D(data,
+                Helper.select(offsets(0), rng1),
+                Helper.select(offsets(1), rng2),
+                Helper.select(offsets(2), rng3));
+    }
+
+    @Override
+    public Float3D view(int[] sel1, int[] sel2, int[] sel3) {
+        return new SelectedFloat3D(data,
+                Helper.select(offsets(0), sel1),
+                Helper.select(offsets(1), sel2),
+                Helper.select(offsets(2), sel3));
+    }
+
+    @Override
+    public Float1D as1D() {
+        int[] off1 = offsets(0);
+        int[] off2 = offsets(1);
+        int[] off3 = offsets(2);
+        int[] idx = new int[number];
+        int j = -1;
+        for (int i3 = 0; i3 < dim3; ++i3) {
+            for (int i2 = 0; i2 < dim2; ++i2) {
+                int j2 = off2[i2] + off3[i3];
+                for (int i1 = 0; i1 < dim1; ++i1) {
+                    idx[++j] = off1[i1] + j2;
+                }
+            }
+        }
+        return new SelectedFloat1D(data, idx);
+    }
+
+    @Override
+    public Float3D permute(int... perm) {
+        int[][] off = Helper.permute(new int[][]{offsets(0), offsets(1), offsets(2)}, perm);
+        return new SelectedFloat3D(data, off[0], off[1], off[2]);
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
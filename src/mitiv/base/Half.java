@@ -0,0 +1,200 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.base;
+
+/**
+ * Conversions between single precision and half precision floating-point
+ * values.
+ *
+ * <p>
+ * Half precision (IEEE 754 binary16) values have 1 sign bit, 5 exponent
+ * bits and 10 mantissa bits; they are stored as {@code short}'s.  They are
+ * meant for compact storage: computations are carried out in {@code float}
+ * (or {@code double}) after conversion.  The relative precision is about
+ * 1e-3 and the largest finite magnitude is 65504.
+ * </p><p>
+ * Decoding uses a table of the 65536 possible values.  Encoding rounds to
+ * the nearest representable value (ties to even), values too large in
+ * magnitude become infinite and NaN's are preserved.
+ * </p>
+ */
+public final class Half {
+    /** Largest finite half precision value. */
+    public static final float MAX_VALUE = 65504.0F;
+
+    /** Smallest positive normal half precision value (2^-14). */
+    public static final float MIN_NORMAL = 6.1035156E-5F;
+
+    /** Smallest positive (subnormal) half precision value (2^-24). */
+    public static final float MIN_VALUE = 5.9604645E-8F;
+
+    /** Relative precision of half precision values (2^-10). */
+    public static final float EPSILON = 9.765625E-4F;
+
+    private static final float[] table = new float[65536];
+    static {
+        for (int h = 0; h < 65536; ++h) {
+            table[h] = decode(h);
+        }
+    }
+
+    /* Make this class non instantiable. */
+    private Half() {
+    }
+
+    /* Decode a half precision value given its 16 bits. */
+    private static float decode(int h) {
+        int sign = (h & 0x8000) << 16;
+        int e = (h >>> 10) & 0x1F;
+        int m = (h & 0x3FF);
+        if (e == 0) {
+            /* Zero or subnormal. */
+            float value = m*MIN_VALUE;
+            return (sign != 0 ? -value : value);
+        } else if (e == 31) {
+            /* Infinite or NaN. */
+            return Float.intBitsToFloat(sign | 0x7F800000 | (m << 13));
+        } else {
+            return Float.intBitsToFloat(sign | ((e + 112) << 23) | (m << 13));
+        }
+    }
+
+    /**
+     * Convert a half precision value into a single precision one.
+     * @param h - The half precision value.
+     * @return The value as a float (the conversion is exact).
+     */
+    public static float toFloat(short h) {
+        return table[h & 0xFFFF];
+    }
+
+    /**
+     * Convert a single precision value into a half precision one.
+     * @param value - The value to convert.
+     * @return The nearest half precision value.
+     */
+    public static short fromFloat(float value) {
+        int f = Float.floatToRawIntBits(value);
+        int sign = (f >>> 16) & 0x8000;
+        int a = (f & 0x7FFFFFFF);
+        if (a >= 0x7F800000) {
+            /* Infinite or NaN (keep a quiet NaN). */
+            return (short)(sign | 0x7C00 | (a > 0x7F800000 ? 0x200 | ((a >>> 13) & 0x3FF) : 0));
+        }
+        if (a >= 0x47800000) {
+            /* Overflow (|value| >= 2^16). */
+            return (short)(sign | 0x7C00);
+        }
+        if (a >= 0x38800000) {
+            /* Normal result, rebias the exponent and round the mantissa to
+             * nearest even (a carry may yield infinity which is correct). */
+            int h = (a - 0x38000000) >>> 13;
+            int r = (a & 0x1FFF);
+            if (r > 0x1000 || (r == 0x1000 && (h & 1) != 0)) {
+                ++h;
+            }
+            return (short)(sign | h);
+        }
+        if (a > 0x33000000) {
+            /* Subnormal result (a carry may yield the smallest normal
+             * value which is correct). */
+            int mant = (a & 0x7FFFFF) | 0x800000;
+            int shift = 126 - (a >>> 23);
+            int h = mant >>> shift;
+            int r = mant & ((1 << shift) - 1);
+            int half = 1 << (shift - 1);
+            if (r > half || (r == half && (h & 1) != 0)) {
+                ++h;
+            }
+            return (short)(sign | h);
+        }
+        /* Underflow (|value| <= 2^-25). */
+        return (short)sign;
+    }
+
+    /**
+     * Convert half precision values into single precision ones.
+     * @param src       - The source array of half precision values.
+     * @param srcOffset - The index of the first value to convert in the
+     *                    source.
+     * @param dst       - The destination array.
+     * @param dstOffset - The index of the first converted value in the
+     *                    destination.
+     * @param length    - The number of values to convert.
+     */
+    public static void toFloat(short[] src, int srcOffset,
+            float[] dst, int dstOffset, int length) {
+        for (int j = 0; j < length; ++j) {
+            dst[dstOffset + j] = table[src[srcOffset + j] & 0xFFFF];
+        }
+    }
+
+    /**
+     * Convert single precision values into half precision ones.
+     * @param src       - The source array of single precision values.
+     * @param srcOffset - The index of the first value to convert in the
+     *                    source.
+     * @param dst       - The destination array.
+     * @param dstOffset - The index of the first converted value in the
+     *                    destination.
+     * @param length    - The number of values to convert.
+     */
+    public static void fromFloat(float[] src, int srcOffset,
+            short[] dst, int dstOffset, int length) {
+        for (int j = 0; j < length; ++j) {
+            dst[dstOffset + j] = fromFloat(src[srcOffset + j]);
+        }
+    }
+
+    /**
+     * Convert double precision values into half precision ones.
+     * @param src       - The source array of double precision values.
+     * @param srcOffset - The index of the first value to convert in the
+     *                    source.
+     * @param dst       - The destination array.
+     * @param dstOffset - The index of the first converted value in the
+     *                    destination.
+     * @param length    - The number of values to convert.
+     */
+    public static void fromDouble(double[] src, int srcOffset,
+            short[] dst, int dstOffset, int length) {
+        for (int j = 0; j < length; ++j) {
+            dst[dstOffset + j] = fromFloat((float)src[srcOffset + j]);
+        }
+    }
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,340 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.base;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join execution of loops and reductions.
+ *
+ * <p>
+ * The iterations {@code 0, 1, ..., length - 1} of a loop are split in
+ * consecutive blocks of {@code grain} iterations (the last block may be
+ * shorter).  The blocks are recursively bisected and processed by a shared
+ * fork/join pool.  For a reduction, the partial results of the blocks are
+ * combined pairwise following the bisection tree.  As the decomposition only
+ * depends on the length of the loop and on the grain (not on the number of
+ * threads), the result of a reduction is exactly the same whatever the number
+ * of threads, including when the computations are done by the calling thread
+ * alone.
+ * </p><p>
+ * When there is a single block or when the number of threads is one, the
+ * loop is directly executed by the calling thread.
+ * </p>
+ */
+public final class Parallel {
+
+    /** Default number of elements per block. */
+    public static final int DEFAULT_BLOCK_SIZE = 32768;
+
+    private static volatile int numberOfThreads = Runtime.getRuntime().availableProcessors();
+    private static volatile int blockSize = DEFAULT_BLOCK_SIZE;
+    private static ForkJoinPool pool = null;
+
+    /**
+     * Make this class non instantiable.
+     */
+    private Parallel() {
+    }
+
+    /**
+     * Get the number of threads used for parallel computations.
+     * @return The number of threads, 1 means that all computations are done
+     *         by the calling thread.
+     */
+    public static int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Set the number of threads used for parallel computations.
+     * @param n - The number of threads, 1 to disable parallel execution,
+     *            0 (or less) to use as many threads as available processors.
+     */
+    public static synchronized void setNumberOfThreads(int n) {
+        if (n < 1) {
+            n = Runtime.getRuntime().availableProcessors();
+        }
+        if (n != numberOfThreads) {
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+            }
+            numberOfThreads = n;
+        }
+    }
+
+    /**
+     * Get the number of elements per block.
+     * @return The number of elements per block for the loops on all the
+     *         elements of an array.
+     */
+    public static int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Set the number of elements per block.
+     * <p>
+     * Changing the block size changes the decomposition of the reductions
+     * and thus the rounding errors of their results.
+     * </p>
+     * @param size - The number of elements per block (must be at least 1).
+     */
+    public static synchronized void setBlockSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Block size must be at least 1.");
+        }
+        blockSize = size;
+    }
+
+    /**
+     * Get the grain of an outer loop.
+     * <p>
+     * This is the number of iterations of an outer loop such that a block
+     * has about {@link #getBlockSize()} elements.
+     * </p>
+     * @param length - The number of iterations of the outer loop.
+     * @param number - The total number of elements processed by the loop.
+     * @return The grain, at least 1.
+     */
+    public static int getGrain(int length, long number) {
+        if (length < 1 || number <= length) {
+            return blockSize;
+        }
+        long grain = (blockSize*(long)length)/number;
+        return (grain < 1 ? 1 : (int)grain);
+    }
+
+    /**
+     * Get the number of blocks of a loop.
+     * @param length - The number of iterations of the loop.
+     * @param grain  - The number of iterations per block.
+     * @return The number of blocks.
+     */
+    public static int getNumberOfBlocks(int length, int grain) {
+        if (length <= 0) {
+            return 0;
+        }
+        return (grain >= length ? 1 : (length - 1)/grain + 1);
+    }
+
+    /**
+     * The body of a loop.
+     */
+    public static abstract class Loop {
+        /**
+         * Execute iterations {@code first, first + 1, ..., last - 1}.
+         * <p>
+         * This method may be called concurrently on disjoint ranges of
+         * iterations.
+         * </p>
+         * @param first - The first iteration (inclusive).
+         * @param last  - The last iteration (exclusive).
+         */
+        public abstract void run(int first, int last);
+    }
+
+    /**
+     * The body of a reduction.
+     */
+    public static abstract class Reduction<T> {
+        /**
+         * Reduce iterations {@code first, first + 1, ..., last - 1}.
+         * <p>
+         * This method may be called concurrently on disjoint ranges of
+         * iterations.
+         * </p>
+         * @param first - The first iteration (inclusive).
+         * @param last  - The last iteration (exclusive).
+         * @return The partial result for the given range.
+         */
+        public abstract T compute(int first, int last);
+
+        /**
+         * Combine two partial results.
+         * @param left  - The result for a range of iterations.
+         * @param right - The result for the range of iterations which
+         *                immediately follows the one of {@code left}.
+         * @return The result for the union of the two ranges (this may
+         *         be {@code left} updated in-place).
+         */
+        public abstract T combine(T left, T right);
+    }
+
+    /**
+     * Execute a loop whose iterations process a single element each.
+     * @param length - The number of iterations.
+     * @param loop   - The body of the loop.
+     */
+    public static void run(int length, Loop loop) {
+        run(length, blockSize, loop);
+    }
+
+    /**
+     * Execute a loop.
+     * @param length - The number of iterations.
+     * @param grain  - The number of iterations per block.
+     * @param loop   - The body of the loop.
+     */
+    public static void run(int length, int grain, Loop loop) {
+        if (grain < 1) {
+            grain = 1;
+        }
+        int count = getNumberOfBlocks(length, grain);
+        if (count > 1 && numberOfThreads > 1) {
+            execute(new LoopTask(loop, length, grain, 0, count));
+        } else if (count >= 1) {
+            loop.run(0, length);
+        }
+    }
+
+    /**
+     * Execute a reduction whose iterations process a single element each.
+     * @param length    - The number of iterations (at least 1).
+     * @param reduction - The body of the reduction.
+     * @return The result of the reduction.
+     */
+    public static <T> T reduce(int length, Reduction<T> reduction) {
+        return reduce(length, blockSize, reduction);
+    }
+
+    /**
+     * Execute a reduction.
+     * @param length    - The number of iterations (at least 1).
+     * @param grain     - The number of iterations per block.
+     * @param reduction - The body of the reduction.
+     * @return The result of the reduction.
+     */
+    public static <T> T reduce(int length, int grain, Reduction<T> reduction) {
+        if (grain < 1) {
+            grain = 1;
+        }
+        int count = getNumberOfBlocks(length, grain);
+        if (count < 1) {
+            throw new IllegalArgumentException("Nothing to reduce.");
+        }
+        ReductionTask<T> task = new ReductionTask<T>(reduction, length, grain, 0, count);
+        if (count > 1 && numberOfThreads > 1) {
+            return execute(task);
+        } else {
+            /* Same decomposition, but by the calling thread. */
+            return task.compute();
+        }
+    }
+
+    private static <T> T execute(ForkJoinTask<T> task) {
+        if (ForkJoinTask.inForkJoinPool()) {
+            /* Nested parallelism: use the pool of the current worker. */
+            return task.invoke();
+        }
+        return getPool().invoke(task);
+    }
+
+    private static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(numberOfThreads);
+        }
+        return pool;
+    }
+
+    private static final class LoopTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Loop loop;
+        private final int length, grain, lo, hi;
+
+        LoopTask(Loop loop, int length, int grain, int lo, int hi) {
+            this.loop = loop;
+            this.length = length;
+            this.grain = grain;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                LoopTask left = new LoopTask(loop, length, grain, lo, mid);
+                left.fork();
+                new LoopTask(loop, length, grain, mid, hi).compute();
+                left.join();
+            } else {
+                int first = lo*grain;
+                loop.run(first, Math.min(first + grain, length));
+            }
+        }
+    }
+
+    private static final class ReductionTask<T> extends RecursiveTask<T> {
+        private static final long serialVersionUID = 1L;
+        private final Reduction<T> reduction;
+        private final int length, grain, lo, hi;
+
+        ReductionTask(Reduction<T> reduction, int length, int grain, int lo, int hi) {
+            this.reduction = reduction;
+            this.length = length;
+            this.grain = grain;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected T compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                ReductionTask<T> left = new ReductionTask<T>(reduction, length, grain, lo, mid);
+                ReductionTask<T> right = new ReductionTask<T>(reduction, length, grain, mid, hi);
+                if (numberOfThreads > 1 && inForkJoinPool()) {
+                    left.fork();
+                    T r = right.compute();
+                    return reduction.combine(left.join(), r);
+                } else {
+                    T l = left.compute();
+                    return reduction.combine(l, right.compute());
+                }
+            } else {
+                int first = lo*grain;
+                return reduction.compute(first, Math.min(first + grain, length));
+            }
+        }
+    }
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,185 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.base;
+
+/**
+ * Accurate summation of arrays of floating-point values.
+ *
+ * <p>
+ * The values are summed by pairwise (cascade) summation with a double
+ * precision accumulator: runs of at most {@link #RUN_LENGTH} values are
+ * summed with a few interleaved partial sums and the partial results are
+ * recursively added by halves.  The rounding error thus grows as the
+ * logarithm of the number of values instead of linearly as for a simple
+ * loop, and the interleaved partial sums let the processor pipeline the
+ * additions.
+ * </p><p>
+ * Long ranges are split in blocks processed in parallel by
+ * {@link Parallel#reduce(int, int, Parallel.Reduction)}.  As the partial
+ * sums of the blocks are combined following a decomposition which only
+ * depends on the length of the range and on the block size, the result does
+ * not depend on the number of threads.
+ * </p>
+ */
+public final class Summation {
+    /** Maximum number of values summed by a simple loop. */
+    public static final int RUN_LENGTH = 128;
+
+    private Summation() {
+    }
+
+    /**
+     * Sum all the values of an array.
+     * @param x - The array of values.
+     * @return The sum of the values.
+     */
+    public static double sum(float[] x) {
+        return sum(x, 0, x.length);
+    }
+
+    /**
+     * Sum a range of values of an array.
+     * @param x     - The array of values.
+     * @param first - The index of the first value to sum (inclusive).
+     * @param last  - The index of the last value to sum (exclusive).
+     * @return The sum of the values, zero if the range is empty.
+     */
+    public static double sum(final float[] x, final int first, int last) {
+        if (last - first <= Parallel.getBlockSize()) {
+            return pairwiseSum(x, first, last);
+        }
+        return Parallel.reduce(last - first, new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int i, int j) {
+                return pairwiseSum(x, first + i, first + j);
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return left + right;
+            }
+        });
+    }
+
+    /**
+     * Sum all the values of an array.
+     * @param x - The array of values.
+     * @return The sum of the values.
+     */
+    public static double sum(double[] x) {
+        return sum(x, 0, x.length);
+    }
+
+    /**
+     * Sum a range of values of an array.
+     * @param x     - The array of values.
+     * @param first - The index of the first value to sum (inclusive).
+     * @param last  - The index of the last value to sum (exclusive).
+     * @return The sum of the values, zero if the range is empty.
+     */
+    public static double sum(final double[] x, final int first, int last) {
+        if (last - first <= Parallel.getBlockSize()) {
+            return pairwiseSum(x, first, last);
+        }
+        return Parallel.reduce(last - first, new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int i, int j) {
+                return pairwiseSum(x, first + i, first + j);
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return left + right;
+            }
+        });
+    }
+
+    /**
+     * Sum a range of values of an array by the calling thread.
+     * @param x     - The array of values.
+     * @param first - The index of the first value to sum (inclusive).
+     * @param last  - The index of the last value to sum (exclusive).
+     * @return The sum of the values, zero if the range is empty.
+     */
+    public static double pairwiseSum(float[] x, int first, int last) {
+        int n = last - first;
+        if (n > RUN_LENGTH) {
+            int mid = first + (n >>> 1);
+            return pairwiseSum(x, first, mid) + pairwiseSum(x, mid, last);
+        }
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        int i = first;
+        for (int stop = last - 3; i < stop; i += 4) {
+            s0 += x[i];
+            s1 += x[i+1];
+            s2 += x[i+2];
+            s3 += x[i+3];
+        }
+        for (; i < last; ++i) {
+            s0 += x[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Sum a range of values of an array by the calling thread.
+     * @param x     - The array of values.
+     * @param first - The index of the first value to sum (inclusive).
+     * @param last  - The index of the last value to sum (exclusive).
+     * @return The sum of the values, zero if the range is empty.
+     */
+    public static double pairwiseSum(double[] x, int first, int last) {
+        int n = last - first;
+        if (n > RUN_LENGTH) {
+            int mid = first + (n >>> 1);
+            return pairwiseSum(x, first, mid) + pairwiseSum(x, mid, last);
+        }
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        int i = first;
+        for (int stop = last - 3; i < stop; i += 4) {
+            s0 += x[i];
+            s1 += x[i+1];
+            s2 += x[i+2];
+            s3 += x[i+3];
+        }
+        for (; i < last; ++i) {
+            s0 += x[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -99,6 +99,13 @@ public interface Traits {
     /** Non-primitive object. */
     static final int OBJECT = 8;
 
+    /**
+     * Index for the half precision (16-bit) floating-point type.  This is
+     * not a Java primitive, the values are stored as {@code short}'s (see
+     * {@link Half}) and do not appear in the above arrays.
+     */
+    static final int HALF = 9;
+
 
     public static final int BIG_ENDIAN    = 4321;
     public static final int LITTLE_ENDIAN = 1234;
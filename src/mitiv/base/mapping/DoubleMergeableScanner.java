@@ -0,0 +1,66 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.base.mapping;
+
+/**
+ * A DoubleMergeableScanner is a scanner whose partial results can be merged.
+ *
+ * <p>
+ * Such a scanner can be used to scan a collection in parallel: the
+ * collection is split in consecutive parts, each part is scanned by its own
+ * scanner (obtained by the {@link #spawn} method) and the results of the
+ * scanners are then merged (by the {@link #merge} method) in the order of
+ * the parts.  The {@link #merge} method must be associative, but needs not
+ * be commutative.  The {@link #spawn} method may be called concurrently.
+ * </p>
+ */
+public interface DoubleMergeableScanner extends DoubleScanner {
+    /**
+     * Create a new scanner of the same kind.
+     * @return A new scanner, not yet initialized, which is independent from
+     *         this one.
+     */
+    public abstract DoubleMergeableScanner spawn();
+
+    /**
+     * Merge the result of another scanner into this one.
+     * @param other - A scanner which has scanned the values which follow
+     *                those scanned by this scanner.
+     */
+    public abstract void merge(DoubleMergeableScanner other);
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
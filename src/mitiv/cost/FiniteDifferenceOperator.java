@@ -353,6 +353,18 @@ public class FiniteDifferenceOperator extends LinearOperator {
         }
     }
 
+    /*
+     * In 3D, the rows along the 2nd dimension are processed by blocks which
+     * are swept through all the planes, so that the part of the previous
+     * plane used by a block is still in the cache.
+     */
+    private static final int BLOCK_SIZE = 8192;
+
+    /* Number of rows along the 2nd dimension per block. */
+    private static int blockRows(int n1) {
+        return Math.max(1, BLOCK_SIZE/n1);
+    }
+
     private final void apply3D(double[] x, double[] y, boolean transpose) {
         int[] prev1 = index[0]; // index to previous position along 1st dimension
         int n1 = prev1.length;  // length of 1st dimension
@@ -361,40 +373,47 @@ public class FiniteDifferenceOperator extends LinearOperator {
         int[] prev3 = index[2]; // index to previous position along 3rd dimension
         int n3 = prev3.length;  // length of 3rd dimension
         int n1n2 = n1*n2;       // stride along 3rd dimension
+        int rows = blockRows(n1); // number of rows per block
         if (transpose) {
-            for (int i3 = 0; i3 < n3; ++i3) {
-                int j3 = n1n2*i3;
-                int k3 = n1n2*(prev3[i3] - i3); // offset to previous element along 3rd dimension
-                for (int i2 = 0; i2 < n2; ++i2) {
-                    int j2 = n1*i2 + j3;
-                    int k2 = n1*(prev2[i2] - i2); // offset to previous element along 2nd dimension
-                    for (int i1 = 0; i1 < n1; ++i1) {
-                        int j1 = i1 + j2;
-                        int k1 = prev1[i1] - i1; // offset to previous element along 1st dimension
-                        int l1 = 3*j1;
-                        double x1 = x[l1], x2 = x[l1 + 1], x3 = x[l1 + 2];
-                        y[j1] += x1 + x2 + x3;
-                        y[j1 + k1] -= x1;
-                        y[j1 + k2] -= x2;
-                        y[j1 + k3] -= x3;
+            for (int first2 = 0; first2 < n2; first2 += rows) {
+                int last2 = Math.min(first2 + rows, n2);
+                for (int i3 = 0; i3 < n3; ++i3) {
+                    int j3 = n1n2*i3;
+                    int k3 = n1n2*(prev3[i3] - i3); // offset to previous element along 3rd dimension
+                    for (int i2 = first2; i2 < last2; ++i2) {
+                        int j2 = n1*i2 + j3;
+                        int k2 = n1*(prev2[i2] - i2); // offset to previous element along 2nd dimension
+                        for (int i1 = 0; i1 < n1; ++i1) {
+                            int j1 = i1 + j2;
+                            int k1 = prev1[i1] - i1; // offset to previous element along 1st dimension
+                            int l1 = 3*j1;
+                            double x1 = x[l1], x2 = x[l1 + 1], x3 = x[l1 + 2];
+                            y[j1] += x1 + x2 + x3;
+                            y[j1 + k1] -= x1;
+                            y[j1 + k2] -= x2;
+                            y[j1 + k3] -= x3;
+                        }
                     }
                 }
             }
         } else {
-            for (int i3 = 0; i3 < n3; ++i3) {
-                int j3 = n1n2*i3;
-                int k3 = n1n2*(prev3[i3] - i3); // offset to previous element along 3rd dimension
-                for (int i2 = 0; i2 < n2; ++i2) {
-                    int j2 = n1*i2 + j3;
-                    int k2 = n1*(prev2[i2] - i2); // offset to previous element along 2nd dimension
-                    for (int i1 = 0; i1 < n1; ++i1) {
-                        int j1 = i1 + j2;
-                        int k1 = prev1[i1] - i1; // offset to previous element along 1st dimension
-                        int l1 = 3*j1;
-                        double x_j1 = x[j1];
-                        y[l1]     = x_j1 - x[j1 + k1];
-                        y[l1 + 1] = x_j1 - x[j1 + k2];
-                        y[l1 + 2] = x_j1 - x[j1 + k3];
+            for (int first2 = 0; first2 < n2; first2 += rows) {
+                int last2 = Math.min(first2 + rows, n2);
+                for (int i3 = 0; i3 < n3; ++i3) {
+                    int j3 = n1n2*i3;
+                    int k3 = n1n2*(prev3[i3] - i3); // offset to previous element along 3rd dimension
+                    for (int i2 = first2; i2 < last2; ++i2) {
+                        int j2 = n1*i2 + j3;
+                        int k2 = n1*(prev2[i2] - i2); // offset to previous element along 2nd dimension
+                        for (int i1 = 0; i1 < n1; ++i1) {
+                            int j1 = i1 + j2;
+                            int k1 = prev1[i1] - i1; // offset to previous element along 1st dimension
+                            int l1 = 3*j1;
+                            double x_j1 = x[j1];
+                            y[l1]     = x_j1 - x[j1 + k1];
+                            y[l1 + 1] = x_j1 - x[j1 + k2];
+                            y[l1 + 2] = x_j1 - x[j1 + k3];
+                        }
                     }
                 }
             }
@@ -599,40 +618,47 @@ public class FiniteDifferenceOperator extends LinearOperator {
         int[] prev3 = index[2]; // index to previous position along 3rd dimension
         int n3 = prev3.length;  // length of 3rd dimension
         int n1n2 = n1*n2;       // stride along 3rd dimension
+        int rows = blockRows(n1); // number of rows per block
         if (transpose) {
-            for (int i3 = 0; i3 < n3; ++i3) {
-                int j3 = n1n2*i3;
-                int k3 = n1n2*(prev3[i3] - i3); // offset to previous element along 3rd dimension
-                for (int i2 = 0; i2 < n2; ++i2) {
-                    int j2 = n1*i2 + j3;
-                    int k2 = n1*(prev2[i2] - i2); // offset to previous element along 2nd dimension
-                    for (int i1 = 0; i1 < n1; ++i1) {
-                        int j1 = i1 + j2;
-                        int k1 = prev1[i1] - i1; // offset to previous element along 1st dimension
-                        int l1 = 3*j1;
-                        float x1 = x[l1], x2 = x[l1 + 1], x3 = x[l1 + 2];
-                        y[j1] += x1 + x2 + x3;
-                        y[j1 + k1] -= x1;
-                        y[j1 + k2] -= x2;
-                        y[j1 + k3] -= x3;
+            for (int first2 = 0; first2 < n2; first2 += rows) {
+                int last2 = Math.min(first2 + rows, n2);
+                for (int i3 = 0; i3 < n3; ++i3) {
+                    int j3 = n1n2*i3;
+                    int k3 = n1n2*(prev3[i3] - i3); // offset to previous element along 3rd dimension
+                    for (int i2 = first2; i2 < last2; ++i2) {
+                        int j2 = n1*i2 + j3;
+                        int k2 = n1*(prev2[i2] - i2); // offset to previous element along 2nd dimension
+                        for (int i1 = 0; i1 < n1; ++i1) {
+                            int j1 = i1 + j2;
+                            int k1 = prev1[i1] - i1; // offset to previous element along 1st dimension
+                            int l1 = 3*j1;
+                            float x1 = x[l1], x2 = x[l1 + 1], x3 = x[l1 + 2];
+                            y[j1] += x1 + x2 + x3;
+                            y[j1 + k1] -= x1;
+                            y[j1 + k2] -= x2;
+                            y[j1 + k3] -= x3;
+                        }
                     }
                 }
             }
         } else {
-            for (int i3 = 0; i3 < n3; ++i3) {
-                int j3 = n1n2*i3;
-                int k3 = n1n2*(prev3[i3] - i3); // offset to previous element along 3rd dimension
-                for (int i2 = 0; i2 < n2; ++i2) {
-                    int j2 = n1*i2 + j3;
-                    int k2 = n1*(prev2[i2] - i2); // offset to previous element along 2nd dimension
-                    for (int i1 = 0; i1 < n1; ++i1) {
-                        int j1 = i1 + j2;
-                        int k1 = prev1[i1] - i1; // offset to previous element along 1st dimension
-                        int l1 = 3*j1;
-                        float x_j1 = x[j1];
-                        y[l1]     = x_j1 - x[j1 + k1];
-                        y[l1 + 1] = x_j1 - x[j1 + k2];
-                        y[l1 + 2] = x_j1 - x[j1 + k3];
+            for (int first2 = 0; first2 < n2; first2 += rows) {
+                int last2 = Math.min(first2 + rows, n2);
+                for (int i3 = 0; i3 < n3; ++i3) {
+                    int j3 = n1n2*i3;
+                    int k3 = n1n2*(prev3[i3] - i3); // offset to previous element along 3rd dimension
+                    for (int i2 = first2; i2 < last2; ++i2) {
+                        int j2 = n1*i2 + j3;
+                        int k2 = n1*(prev2[i2] - i2); // offset to previous element along 2nd dimension
+                        for (int i1 = 0; i1 < n1; ++i1) {
+                            int j1 = i1 + j2;
+                            int k1 = prev1[i1] - i1; // offset to previous element along 1st dimension
+                            int l1 = 3*j1;
+                            float x_j1 = x[j1];
+                            y[l1]     = x_j1 - x[j1 + k1];
+                            y[l1 + 1] = x_j1 - x[j1 + k2];
+                            y[l1 + 2] = x_j1 - x[j1 + k3];
+                        }
                     }
                 }
             }
@@ -25,9 +25,12 @@
 
 package mitiv.cost;
 
+import mitiv.base.Parallel;
 import mitiv.base.Shape;
 import mitiv.linalg.Vector;
 import mitiv.linalg.VectorSpace;
+import mitiv.linalg.shaped.DoubleShapedVector;
+import mitiv.linalg.shaped.FloatShapedVector;
 import mitiv.linalg.shaped.ShapedVectorSpace;
 
 /**
@@ -37,6 +40,11 @@ import mitiv.linalg.shaped.ShapedVectorSpace;
  * cost function which can also be used to implement edge-preserving smoothness.
  * The current implementation is also isotropic.
  * 
+ * The cost and its gradient are computed directly on the arrays of the
+ * shaped vectors, by slabs along the last dimension which are processed in
+ * parallel (see {@link Parallel}).  Vectors which are neither float nor
+ * double shaped vectors are copied into a temporary array of doubles.
+ * 
  * @author Lucie Thiébaut
  */
 public class HyperbolicTotalVariation implements DifferentiableCostFunction {
@@ -121,13 +129,112 @@ public class HyperbolicTotalVariation implements DifferentiableCostFunction {
         if (gx != null && clr) {
             gx.fill(0.0);
         }
-        if (rank == 2) {
-            return computeCostAndGradient2D(alpha, x, gx);
-        } else if (rank == 3) {
-            return computeCostAndGradient3D(alpha, x, gx);
-        } else {
+        if (rank != 2 && rank != 3) {
             throw new IllegalArgumentException("Unsupported number of dimensions for Total Variation.");
         }
+        if (x instanceof FloatShapedVector
+                && (gx == null || gx instanceof FloatShapedVector)) {
+            float[] xData = ((FloatShapedVector)x).getData();
+            float[] gData = (gx == null ? null : ((FloatShapedVector)gx).getData());
+            if (rank == 2) {
+                return computeCostAndGradient2D(alpha, xData, gData);
+            } else {
+                return computeCostAndGradient3D(alpha, xData, gData);
+            }
+        } else if (x instanceof DoubleShapedVector
+                && (gx == null || gx instanceof DoubleShapedVector)) {
+            double[] xData = ((DoubleShapedVector)x).getData();
+            double[] gData = (gx == null ? null : ((DoubleShapedVector)gx).getData());
+            if (rank == 2) {
+                return computeCostAndGradient2D(alpha, xData, gData);
+            } else {
+                return computeCostAndGradient3D(alpha, xData, gData);
+            }
+        } else {
+            /* Other vectors (e.g. half precision ones) are read and
+             * updated with their get() and set() methods. */
+            final int n = x.getNumber();
+            double[] xData = new double[n];
+            for (int j = 0; j < n; ++j) {
+                xData[j] = x.get(j);
+            }
+            double[] gData = (gx == null ? null : new double[n]);
+            double cost;
+            if (rank == 2) {
+                cost = computeCostAndGradient2D(alpha, xData, gData);
+            } else {
+                cost = computeCostAndGradient3D(alpha, xData, gData);
+            }
+            if (gx != null) {
+                for (int j = 0; j < n; ++j) {
+                    gx.set(j, gx.get(j) + gData[j]);
+                }
+            }
+            return cost;
+        }
+    }
+
+    /*
+     * The cells (2x2 blocs in 2D, 2x2x2 blocs in 3D) are processed by slabs
+     * along the last dimension.  The cells between the planes i-1 and i
+     * along the last dimension are numbered i (i = 1, 2, ..., n-1 with n the
+     * last dimension).  The cost of a slab only depends on X, so the slabs
+     * can be processed in parallel; but two consecutive slabs integrate the
+     * gradient in their shared boundary plane.  When the gradient is
+     * required, the slabs are therefore processed in two passes: even slabs
+     * first, then odd slabs.  Slabs processed during the same pass never
+     * share a plane.  The partial costs are summed in the order of the
+     * slabs and the decomposition only depends on the dimensions (see
+     * {@link Parallel}), so the result does not depend on the number of
+     * threads.
+     */
+    private static abstract class Slabs {
+        /* Process the cells numbered first+1 to last and return their
+           (unbiased) cost. */
+        public abstract double compute(int first, int last);
+    }
+
+    private static double computeSlabs(final int cells, long number,
+            boolean computeGradient, final Slabs slabs) {
+        final int grain = Parallel.getGrain(cells, number);
+        final int count = Parallel.getNumberOfBlocks(cells, grain);
+        if (count <= 1) {
+            return (cells >= 1 ? slabs.compute(0, cells) : 0.0);
+        }
+        final double[] partial = new double[count];
+        final int step = (computeGradient ? 2 : 1);
+        for (int pass = 0; pass < step; ++pass) {
+            final int offset = pass;
+            Parallel.run((count - offset + step - 1)/step, 1, new Parallel.Loop() {
+                @Override
+                public void run(int first, int last) {
+                    for (int k = first; k < last; ++k) {
+                        int b = k*step + offset;
+                        int lo = b*grain;
+                        partial[b] = slabs.compute(lo, Math.min(lo + grain, cells));
+                    }
+                }
+            });
+        }
+        double sum = 0.0;
+        for (int b = 0; b < count; ++b) {
+            sum += partial[b];
+        }
+        return sum;
+    }
+
+    /*
+     * Within a slab of a 3D array, the cells are processed by blocks of rows
+     * (along the 2nd dimension) through all the planes of the slab.  The
+     * parts of two consecutive planes used by a block stay in the cache
+     * while the whole planes of a large volume do not.  The blocks only
+     * depend on the dimensions, so does the order of the operations.
+     */
+    private static final int BLOCK_SIZE = 8192;
+
+    /* Number of rows of the blocks of cells. */
+    private static int blockRows(int dim1) {
+        return Math.max(1, BLOCK_SIZE/dim1);
     }
 
     // The quadratic norm of the spatial gradient is the sum along all
@@ -162,109 +269,155 @@ public class HyperbolicTotalVariation implements DifferentiableCostFunction {
     //     w2 = 1/(2*delta2^2)
     //     s = eps^2
     private final double
-    computeCostAndGradient2D(double alpha, Vector x, Vector gx)
+    computeCostAndGradient2D(final double alpha, final double[] x, final double[] gx)
     {
         // Note that ALPHA is not taken into account when summing FCOST (this
         // is done at the end) while ALPHA is taken into account when
         // integrating the gradient GCOST.
-        final boolean computeGradient = (gx != null);
         final int dim1 = shape.dimension(0);
         final int dim2 = shape.dimension(1);
         final double w1 = 1.0/(2.0*square(delta[0]));
         final double w2 = 1.0/(2.0*square(delta[1]));
         final double s = square(epsilon);
+        double fcost = computeSlabs(dim2 - 1, (long)dim1*dim2, gx != null, new Slabs() {
+            @Override
+            public double compute(int first, int last) {
+                return slabs2D(alpha, x, gx, dim1, w1, w2, s, first + 1, last + 1);
+            }
+        });
 
+        /* Remove the "bias" and make sure the result is non-negative (it
+           can only be negative due to rounding errors). */
+        fcost -= (double)(dim1 - 1)*(double)(dim2 - 1)*epsilon;
+        if (fcost < 0.0) {
+            fcost = 0.0;
+        }
+        return alpha*fcost;
+    }
+
+    private final double
+    computeCostAndGradient2D(final double alpha, final float[] x, final float[] gx)
+    {
+        final int dim1 = shape.dimension(0);
+        final int dim2 = shape.dimension(1);
+        final double w1 = 1.0/(2.0*square(delta[0]));
+        final double w2 = 1.0/(2.0*square(delta[1]));
+        final double s = square(epsilon);
+        double fcost = computeSlabs(dim2 - 1, (long)dim1*dim2, gx != null, new Slabs() {
+            @Override
+            public double compute(int first, int last) {
+                return slabs2D(alpha, x, gx, dim1, w1, w2, s, first + 1, last + 1);
+            }
+        });
+        fcost -= (double)(dim1 - 1)*(double)(dim2 - 1)*epsilon;
+        if (fcost < 0.0) {
+            fcost = 0.0;
+        }
+        return alpha*fcost;
+    }
+
+    /* Process the 2x2 blocs of rows i2 = start, ..., stop - 1. */
+    private static double slabs2D(double alpha, double[] x, double[] gx,
+            int dim1, double w1, double w2, double s, int start, int stop)
+    {
+        final boolean computeGradient = (gx != null);
         double fcost = 0.0;
         double x1, x2, x3, x4;
         int j1, j2, j3, j4;
-        if (w1 == w2) /* same weights along all directions */ {
-            final double w = w1;
-            for (int i2 = 1; i2 < dim2; ++i2) {
-                j2 = (i2 - 1)*dim1;
-                j4 = i2*dim1;
-                x2 = x.get(j2);
-                x4 = x.get(j4);
-                for (int i1 = 1; i1 < dim1; ++i1) {
-                    j1 = j2++;
-                    j3 = j4++;
-                    x1 = x2;
-                    x2 = x.get(j2);
-                    x3 = x4;
-                    x4 = x.get(j4);
-                    double y21 = x2 - x1;
-                    double y43 = x4 - x3;
-                    double y31 = x3 - x1;
-                    double y42 = x4 - x2;
-                    double r = Math.sqrt((square(y21) + square(y43)
-                            + square(y31) + square(y42))*w + s);
-                    fcost += r;
-                    if (computeGradient) {
-                        double p = alpha*w/r;
-                        gx.set(j1, gx.get(j1) - (y21 + y31)*p);
-                        gx.set(j2, gx.get(j2) + (y21 - y42)*p);
-                        gx.set(j3, gx.get(j3) - (y43 - y31)*p);
-                        gx.set(j4, gx.get(j4) + (y43 + y42)*p);
-                    }
-                }
-            }
-        } else /* not same weights along all directions */ {
-            for (int i2 = 1; i2 < dim2; ++i2) {
-                // Put 2x2 bloc at start of a new line.  In the code, (i1,i2) is
-                // 2D coordinates, j1, j2, j3 and j4 are the 1D indices of the 2x2
-                // elements.
-                j2 = (i2 - 1)*dim1;
-                j4 = i2*dim1;
-                x2 = x.get(j2);
-                x4 = x.get(j4);
-                for (int i1 = 1; i1 < dim1; ++i1) {
-                    // Move to next 2x2 bloc.
-                    // +---+---+
-                    // | 3 | 4 |
-                    // +---+---+
-                    // | 1 | 2 |
-                    // +---+---+
-                    j1 = j2++;
-                    x1 = x2;
-                    x2 = x.get(j2);
-                    j3 = j4++;
-                    x3 = x4;
-                    x4 = x.get(j4);
-
-                    // Compute horizontal and vertical differences.
-                    double y21 = x2 - x1;
-                    double y43 = x4 - x3;
-                    double y31 = x3 - x1;
-                    double y42 = x4 - x2;
-
-                    // Compute hyperbolic approximation of L2 norm of
-                    // the spatial gradient.
-                    double r = Math.sqrt((square(y21) + square(y43))*w1 +
-                            (square(y31) + square(y42))*w2 + s);
-                    fcost += r;
-                    if (computeGradient) {
-                        double q = alpha/r;
-                        double p1 = w1*q;
-                        y21 *= p1;
-                        y43 *= p1;
-                        double p2 = w2*q;
-                        y31 *= p2;
-                        y42 *= p2;
-                        gx.set(j1, gx.get(j1) - (y21 + y31));
-                        gx.set(j2, gx.get(j2) + (y21 - y42));
-                        gx.set(j3, gx.get(j3) - (y43 - y31));
-                        gx.set(j4, gx.get(j4) + (y43 + y42));
-                    }
+        for (int i2 = start; i2 < stop; ++i2) {
+            // Put 2x2 bloc at start of a new line.  In the code, (i1,i2) is
+            // 2D coordinates, j1, j2, j3 and j4 are the 1D indices of the 2x2
+            // elements.
+            j2 = (i2 - 1)*dim1;
+            j4 = i2*dim1;
+            x2 = x[j2];
+            x4 = x[j4];
+            for (int i1 = 1; i1 < dim1; ++i1) {
+                // Move to next 2x2 bloc.
+                // +---+---+
+                // | 3 | 4 |
+                // +---+---+
+                // | 1 | 2 |
+                // +---+---+
+                j1 = j2++;
+                x1 = x2;
+                x2 = x[j2];
+                j3 = j4++;
+                x3 = x4;
+                x4 = x[j4];
+
+                // Compute horizontal and vertical differences.
+                double y21 = x2 - x1;
+                double y43 = x4 - x3;
+                double y31 = x3 - x1;
+                double y42 = x4 - x2;
+
+                // Compute hyperbolic approximation of L2 norm of
+                // the spatial gradient.
+                double r = Math.sqrt((square(y21) + square(y43))*w1 +
+                        (square(y31) + square(y42))*w2 + s);
+                fcost += r;
+                if (computeGradient) {
+                    double q = alpha/r;
+                    double p1 = w1*q;
+                    y21 *= p1;
+                    y43 *= p1;
+                    double p2 = w2*q;
+                    y31 *= p2;
+                    y42 *= p2;
+                    gx[j1] -= (y21 + y31);
+                    gx[j2] += (y21 - y42);
+                    gx[j3] -= (y43 - y31);
+                    gx[j4] += (y43 + y42);
                 }
             }
         }
+        return fcost;
+    }
 
-        /* Remove the "bias" and make sure the result is non-negative (it
-           can only be negative due to rounding errors). */
-        fcost -= (dim1 - 1)*(dim2 - 1)*epsilon;
-        if (fcost < 0.0) {
-            fcost = 0.0;
+    /* Process the 2x2 blocs of rows i2 = start, ..., stop - 1. */
+    private static double slabs2D(double alpha, float[] x, float[] gx,
+            int dim1, double w1, double w2, double s, int start, int stop)
+    {
+        final boolean computeGradient = (gx != null);
+        double fcost = 0.0;
+        double x1, x2, x3, x4;
+        int j1, j2, j3, j4;
+        for (int i2 = start; i2 < stop; ++i2) {
+            j2 = (i2 - 1)*dim1;
+            j4 = i2*dim1;
+            x2 = x[j2];
+            x4 = x[j4];
+            for (int i1 = 1; i1 < dim1; ++i1) {
+                j1 = j2++;
+                x1 = x2;
+                x2 = x[j2];
+                j3 = j4++;
+                x3 = x4;
+                x4 = x[j4];
+                double y21 = x2 - x1;
+                double y43 = x4 - x3;
+                double y31 = x3 - x1;
+                double y42 = x4 - x2;
+                double r = Math.sqrt((square(y21) + square(y43))*w1 +
+                        (square(y31) + square(y42))*w2 + s);
+                fcost += r;
+                if (computeGradient) {
+                    double q = alpha/r;
+                    double p1 = w1*q;
+                    y21 *= p1;
+                    y43 *= p1;
+                    double p2 = w2*q;
+                    y31 *= p2;
+                    y42 *= p2;
+                    gx[j1] -= (y21 + y31);
+                    gx[j2] += (y21 - y42);
+                    gx[j3] -= (y43 - y31);
+                    gx[j4] += (y43 + y42);
+                }
+            }
         }
-        return alpha*fcost;
+        return fcost;
     }
 
     /*
@@ -284,12 +437,11 @@ public class HyperbolicTotalVariation implements DifferentiableCostFunction {
      *
      */
     private final double
-    computeCostAndGradient3D(double alpha, Vector x, Vector gx)
+    computeCostAndGradient3D(final double alpha, final double[] x, final double[] gx)
     {
         // Note that ALPHA is not taken into account when summing FCOST (this
         // is done at the end) while ALPHA is taken into account when
         // integrating the gradient GCOST.
-        final boolean computeGradient = (gx != null);
         final int dim1 = shape.dimension(0);
         final int dim2 = shape.dimension(1);
         final int dim3 = shape.dimension(2);
@@ -297,98 +449,226 @@ public class HyperbolicTotalVariation implements DifferentiableCostFunction {
         final double w2 = 1.0/(2.0*square(delta[1]));
         final double w3 = 1.0/(2.0*square(delta[2]));
         final double s = square(epsilon);
+        double fcost = computeSlabs(dim3 - 1, (long)dim1*dim2*dim3, gx != null, new Slabs() {
+            @Override
+            public double compute(int first, int last) {
+                return slabs3D(alpha, x, gx, dim1, dim2, w1, w2, w3, s, first + 1, last + 1);
+            }
+        });
+
+        /* Remove the "bias" and make sure the result is non-negative (it
+           can only be negative due to rounding errors). */
+        fcost -= (double)(dim1 - 1)*(double)(dim2 - 1)*(double)(dim3 - 1)*epsilon;
+        if (fcost < 0.0) {
+            fcost = 0.0;
+        }
+        return alpha*fcost;
+    }
+
+    private final double
+    computeCostAndGradient3D(final double alpha, final float[] x, final float[] gx)
+    {
+        final int dim1 = shape.dimension(0);
+        final int dim2 = shape.dimension(1);
+        final int dim3 = shape.dimension(2);
+        final double w1 = 1.0/(2.0*square(delta[0]));
+        final double w2 = 1.0/(2.0*square(delta[1]));
+        final double w3 = 1.0/(2.0*square(delta[2]));
+        final double s = square(epsilon);
+        double fcost = computeSlabs(dim3 - 1, (long)dim1*dim2*dim3, gx != null, new Slabs() {
+            @Override
+            public double compute(int first, int last) {
+                return slabs3D(alpha, x, gx, dim1, dim2, w1, w2, w3, s, first + 1, last + 1);
+            }
+        });
+        fcost -= (double)(dim1 - 1)*(double)(dim2 - 1)*(double)(dim3 - 1)*epsilon;
+        if (fcost < 0.0) {
+            fcost = 0.0;
+        }
+        return alpha*fcost;
+    }
 
+    /* Process the 2x2x2 blocs of planes i3 = start, ..., stop - 1 by blocks
+       of rows. */
+    private static double slabs3D(double alpha, double[] x, double[] gx,
+            int dim1, int dim2, double w1, double w2, double w3, double s,
+            int start, int stop)
+    {
+        final boolean computeGradient = (gx != null);
         double fcost = 0.0;
         double x1, x2, x3, x4, x5, x6, x7, x8;
         int j1, j2, j3, j4, j5, j6, j7, j8;
-        for (int i3 = 1; i3 < dim3; ++i3) {
-            for (int i2 = 1; i2 < dim2; ++i2) {
-                // Put 2x2x2 bloc such that 8th point is at coordinates (0,i2,i3).
-                j2 = (i2 - 1 + (i3 - 1)*dim2)*dim1; // (0,i2-1,i3-1)
-                j4 = (i2     + (i3 - 1)*dim2)*dim1; // (0,i2,i3-1)
-                j6 = (i2 - 1 + (i3    )*dim2)*dim1; // (0,i2-1,i3)
-                j8 = (i2     + (i3    )*dim2)*dim1; // (0,i2,i3)
-                x2 = x.get(j2);
-                x4 = x.get(j4);
-                x6 = x.get(j6);
-                x8 = x.get(j8);
-                for (int i1 = 1; i1 < dim1; ++i1) {
-                    // Move to next 2x2x2 bloc.
-                    j1 = j2++;
-                    x1 = x2;
-                    x2 = x.get(j2);
-                    j3 = j4++;
-                    x3 = x4;
-                    x4 = x.get(j4);
-                    j5 = j6++;
-                    x5 = x6;
-                    x6 = x.get(j6);
-                    j7 = j8++;
-                    x7 = x8;
-                    x8 = x.get(j8);
-
-                    // Compute differences along 1st dimension.
-                    double y21 = x2 - x1;
-                    double y43 = x4 - x3;
-                    double y65 = x6 - x5;
-                    double y87 = x8 - x7;
-                    double r1 = square(y21) + square(y43) + square(y65) + square(y87);
-
-                    // Compute differences along 2nd dimension.
-                    double y31 = x3 - x1;
-                    double y42 = x4 - x2;
-                    double y75 = x7 - x5;
-                    double y86 = x8 - x6;
-                    double r2 = square(y31) + square(y42) + square(y75) + square(y86);
-
-                    // Compute differences along 3rd dimension.
-                    double y51 = x5 - x1;
-                    double y62 = x6 - x2;
-                    double y73 = x7 - x3;
-                    double y84 = x8 - x4;
-                    double r3 = square(y51) + square(y62) + square(y73) + square(y84);
-
-                    // Compute hyperbolic approximation of L2 norm of
-                    // the spatial gradient.
-                    double r = Math.sqrt(w1*r1 + w2*r2 + w3*r3 + s);
-                    fcost += r;
-                    if (computeGradient) {
-                        double q = alpha/r;
-                        double p1 = w1*q;
-                        y21 *= p1;
-                        y43 *= p1;
-                        y65 *= p1;
-                        y87 *= p1;
-                        double p2 = w2*q;
-                        y31 *= p2;
-                        y42 *= p2;
-                        y75 *= p2;
-                        y86 *= p2;
-                        double p3 = w3*q;
-                        y51 *= p3;
-                        y62 *= p3;
-                        y73 *= p3;
-                        y84 *= p3;
-                        gx.set(j1, gx.get(j1) - (y21 + y31 + y51));
-                        gx.set(j2, gx.get(j2) + (y21 - y42 - y62));
-                        gx.set(j3, gx.get(j3) - (y43 - y31 + y73));
-                        gx.set(j4, gx.get(j4) + (y43 + y42 - y84));
-                        gx.set(j5, gx.get(j5) - (y65 + y75 - y51));
-                        gx.set(j6, gx.get(j6) + (y65 - y86 + y62));
-                        gx.set(j7, gx.get(j7) - (y87 - y75 - y73));
-                        gx.set(j8, gx.get(j8) + (y87 + y86 + y84));
+        final int rows = blockRows(dim1);
+        for (int first2 = 1; first2 < dim2; first2 += rows) {
+            int last2 = Math.min(first2 + rows, dim2);
+            for (int i3 = start; i3 < stop; ++i3) {
+                for (int i2 = first2; i2 < last2; ++i2) {
+                    // Put 2x2x2 bloc such that 8th point is at coordinates (0,i2,i3).
+                    j2 = (i2 - 1 + (i3 - 1)*dim2)*dim1; // (0,i2-1,i3-1)
+                    j4 = (i2     + (i3 - 1)*dim2)*dim1; // (0,i2,i3-1)
+                    j6 = (i2 - 1 + (i3    )*dim2)*dim1; // (0,i2-1,i3)
+                    j8 = (i2     + (i3    )*dim2)*dim1; // (0,i2,i3)
+                    x2 = x[j2];
+                    x4 = x[j4];
+                    x6 = x[j6];
+                    x8 = x[j8];
+                    for (int i1 = 1; i1 < dim1; ++i1) {
+                        // Move to next 2x2x2 bloc.
+                        j1 = j2++;
+                        x1 = x2;
+                        x2 = x[j2];
+                        j3 = j4++;
+                        x3 = x4;
+                        x4 = x[j4];
+                        j5 = j6++;
+                        x5 = x6;
+                        x6 = x[j6];
+                        j7 = j8++;
+                        x7 = x8;
+                        x8 = x[j8];
+
+                        // Compute differences along 1st dimension.
+                        double y21 = x2 - x1;
+                        double y43 = x4 - x3;
+                        double y65 = x6 - x5;
+                        double y87 = x8 - x7;
+                        double r1 = square(y21) + square(y43) + square(y65) + square(y87);
+
+                        // Compute differences along 2nd dimension.
+                        double y31 = x3 - x1;
+                        double y42 = x4 - x2;
+                        double y75 = x7 - x5;
+                        double y86 = x8 - x6;
+                        double r2 = square(y31) + square(y42) + square(y75) + square(y86);
+
+                        // Compute differences along 3rd dimension.
+                        double y51 = x5 - x1;
+                        double y62 = x6 - x2;
+                        double y73 = x7 - x3;
+                        double y84 = x8 - x4;
+                        double r3 = square(y51) + square(y62) + square(y73) + square(y84);
+
+                        // Compute hyperbolic approximation of L2 norm of
+                        // the spatial gradient.
+                        double r = Math.sqrt(w1*r1 + w2*r2 + w3*r3 + s);
+                        fcost += r;
+                        if (computeGradient) {
+                            double q = alpha/r;
+                            double p1 = w1*q;
+                            y21 *= p1;
+                            y43 *= p1;
+                            y65 *= p1;
+                            y87 *= p1;
+                            double p2 = w2*q;
+                            y31 *= p2;
+                            y42 *= p2;
+                            y75 *= p2;
+                            y86 *= p2;
+                            double p3 = w3*q;
+                            y51 *= p3;
+                            y62 *= p3;
+                            y73 *= p3;
+                            y84 *= p3;
+                            gx[j1] -= (y21 + y31 + y51);
+                            gx[j2] += (y21 - y42 - y62);
+                            gx[j3] -= (y43 - y31 + y73);
+                            gx[j4] += (y43 + y42 - y84);
+                            gx[j5] -= (y65 + y75 - y51);
+                            gx[j6] += (y65 - y86 + y62);
+                            gx[j7] -= (y87 - y75 - y73);
+                            gx[j8] += (y87 + y86 + y84);
+                        }
                     }
                 }
             }
         }
+        return fcost;
+    }
 
-        /* Remove the "bias" and make sure the result is non-negative (it
-           can only be negative due to rounding errors). */
-        fcost -= (dim1 - 1)*(dim2 - 1)*(dim3 - 1)*epsilon;
-        if (fcost < 0.0) {
-            fcost = 0.0;
+    /* Process the 2x2x2 blocs of planes i3 = start, ..., stop - 1 by blocks
+       of rows. */
+    private static double slabs3D(double alpha, float[] x, float[] gx,
+            int dim1, int dim2, double w1, double w2, double w3, double s,
+            int start, int stop)
+    {
+        final boolean computeGradient = (gx != null);
+        double fcost = 0.0;
+        double x1, x2, x3, x4, x5, x6, x7, x8;
+        int j1, j2, j3, j4, j5, j6, j7, j8;
+        final int rows = blockRows(dim1);
+        for (int first2 = 1; first2 < dim2; first2 += rows) {
+            int last2 = Math.min(first2 + rows, dim2);
+            for (int i3 = start; i3 < stop; ++i3) {
+                for (int i2 = first2; i2 < last2; ++i2) {
+                    j2 = (i2 - 1 + (i3 - 1)*dim2)*dim1; // (0,i2-1,i3-1)
+                    j4 = (i2     + (i3 - 1)*dim2)*dim1; // (0,i2,i3-1)
+                    j6 = (i2 - 1 + (i3    )*dim2)*dim1; // (0,i2-1,i3)
+                    j8 = (i2     + (i3    )*dim2)*dim1; // (0,i2,i3)
+                    x2 = x[j2];
+                    x4 = x[j4];
+                    x6 = x[j6];
+                    x8 = x[j8];
+                    for (int i1 = 1; i1 < dim1; ++i1) {
+                        j1 = j2++;
+                        x1 = x2;
+                        x2 = x[j2];
+                        j3 = j4++;
+                        x3 = x4;
+                        x4 = x[j4];
+                        j5 = j6++;
+                        x5 = x6;
+                        x6 = x[j6];
+                        j7 = j8++;
+                        x7 = x8;
+                        x8 = x[j8];
+                        double y21 = x2 - x1;
+                        double y43 = x4 - x3;
+                        double y65 = x6 - x5;
+                        double y87 = x8 - x7;
+                        double r1 = square(y21) + square(y43) + square(y65) + square(y87);
+                        double y31 = x3 - x1;
+                        double y42 = x4 - x2;
+                        double y75 = x7 - x5;
+                        double y86 = x8 - x6;
+                        double r2 = square(y31) + square(y42) + square(y75) + square(y86);
+                        double y51 = x5 - x1;
+                        double y62 = x6 - x2;
+                        double y73 = x7 - x3;
+                        double y84 = x8 - x4;
+                        double r3 = square(y51) + square(y62) + square(y73) + square(y84);
+                        double r = Math.sqrt(w1*r1 + w2*r2 + w3*r3 + s);
+                        fcost += r;
+                        if (computeGradient) {
+                            double q = alpha/r;
+                            double p1 = w1*q;
+                            y21 *= p1;
+                            y43 *= p1;
+                            y65 *= p1;
+                            y87 *= p1;
+                            double p2 = w2*q;
+                            y31 *= p2;
+                            y42 *= p2;
+                            y75 *= p2;
+                            y86 *= p2;
+                            double p3 = w3*q;
+                            y51 *= p3;
+                            y62 *= p3;
+                            y73 *= p3;
+                            y84 *= p3;
+                            gx[j1] -= (y21 + y31 + y51);
+                            gx[j2] += (y21 - y42 - y62);
+                            gx[j3] -= (y43 - y31 + y73);
+                            gx[j4] += (y43 + y42 - y84);
+                            gx[j5] -= (y65 + y75 - y51);
+                            gx[j6] += (y65 - y86 + y62);
+                            gx[j7] -= (y87 - y75 - y73);
+                            gx[j8] += (y87 + y86 + y84);
+                        }
+                    }
+                }
+            }
         }
-        return alpha*fcost;
+        return fcost;
     }
 
     static final private double square(double a) {
@@ -27,8 +27,10 @@ package mitiv.cost;
 
 import mitiv.exception.IncorrectSpaceException;
 import mitiv.linalg.LinearOperator;
+import mitiv.linalg.NormalOperator;
 import mitiv.linalg.Vector;
 import mitiv.linalg.VectorSpace;
+import mitiv.linalg.Workspace;
 
 /**
  * Implementation of a quadratic cost function.
@@ -40,6 +42,23 @@ import mitiv.linalg.VectorSpace;
  * where {@code H} and {@code W} are linear operators and {@code y} is a vector
  * of the the output space of {@code H}.
  * 
+ * <p>
+ * When there are no weights ({@code W} is {@code null}) and {@code H}
+ * implements {@link NormalOperator}, the cost and its gradient can be
+ * computed in <i>normal mode</i> (see {@link #setNormalMode}) as:
+ * <pre>
+ *     f(x) = x'.H'.H.x - 2 x'.H'.y + y'.y
+ *     g(x) = 2 (H'.H.x - H'.y)
+ * </pre>
+ * where {@code H'.y} and {@code y'.y} are precomputed.  For a convolution,
+ * this saves half the FFT's.
+ * </p><p>
+ * The temporary vectors (residuals, weighted residuals, etc.) are borrowed
+ * from a {@link Workspace} for the duration of a call and given back
+ * afterwards, so that they can be shared with other cost functions and
+ * operators.
+ * </p>
+ * 
  * @author Éric Thiébaut <eric.thiebaut@univ-lyon1.fr>
  */
 public class QuadraticCost implements DifferentiableCostFunction {
@@ -55,17 +74,21 @@ public class QuadraticCost implements DifferentiableCostFunction {
     /** The "data" or "prior" vector {@code y}. */
     protected Vector y = null;
 
-    /** Cached vector to store the (anti-)residuals.
+    /** The workspace where temporary vectors are borrowed. */
+    protected Workspace workspace = Workspace.getDefault();
+
+    /** Vector to store the (anti-)residuals.
      * The (anti-)residuals are: {@code r = H.x - y}.  If {@code H} and {@code y} are
      * {@code null} then {@code r = x} and the same storage can be used for {@code r}
      * and {@code x} however {@code r} is not writable in this case and thus not usable
-     * for {@code Wr} unless {@code W} is also {@code null} and thus {@Wr = r}. */
+     * for {@code Wr} unless {@code W} is also {@code null} and thus {@Wr = r}.
+     * Temporaries are only set during a call. */
     protected Vector r = null;
 
-    /** Cached vector to store the weighted (anti-)residuals: {@code Wr = W.r = W.(H.x - y)} */
+    /** Vector to store the weighted (anti-)residuals: {@code Wr = W.r = W.(H.x - y)} */
     protected Vector Wr = null;
 
-    /** Cached vector to store the quasi gradient: {@code HtWr = H'.Wr = H'.W.r = H'.W.(H.x - y)} */
+    /** Vector to store the quasi gradient: {@code HtWr = H'.Wr = H'.W.r = H'.W.(H.x - y)} */
     protected Vector HtWr = null;
 
     protected boolean quickResiduals;         // H and y are null, thus r = x
@@ -73,6 +96,18 @@ public class QuadraticCost implements DifferentiableCostFunction {
     protected boolean quickQuasiGradient;     // H is null, thus H'.W.r = W.r
     protected boolean shareMemory;            // share storage between residuals r and quasi-gradients HtWr
 
+    /** Use the normal operator of {@code H} to compute the gradient? */
+    protected boolean normalMode = false;
+
+    /** Cached vector to store {@code H'.y} in normal mode. */
+    protected Vector Hty = null;
+
+    /** Cached value of {@code y'.y} in normal mode. */
+    protected double yty = 0.0;
+
+    /** Vector to store {@code H'.H.x} in normal mode. */
+    protected Vector HtHx = null;
+
     /** Constructor for a general quadratic cost function.
      * 
      * Create an instance of the differentiable cost function:
@@ -176,17 +211,79 @@ public class QuadraticCost implements DifferentiableCostFunction {
         quickWeightedResiduals = (W == null);
         quickQuasiGradient = (H == null);
         shareMemory = (! quickResiduals && inputSpace == outputSpace);
-        if (r != null && (quickResiduals || ! r.belongsTo(outputSpace))) {
-            r = null;
-        }
-        if (Wr != null && (quickWeightedResiduals || ! Wr.belongsTo(outputSpace))) {
-            Wr = null;
+        r = null;
+        Wr = null;
+        HtWr = null;
+        if (normalMode && ! canUseNormalMode()) {
+            normalMode = false;
         }
-        if (shareMemory) {
-            HtWr = r;
-        } else if (HtWr != null && (quickQuasiGradient || ! HtWr.belongsTo(inputSpace))) {
-            HtWr = null;
+        Hty = null;
+        HtHx = null;
+    }
+
+    /**
+     * Get the workspace of the cost function.
+     * @return The workspace where temporary vectors are borrowed.
+     */
+    public Workspace getWorkspace() {
+        return workspace;
+    }
+
+    /**
+     * Set the workspace of the cost function.
+     * @param workspace - The workspace where temporary vectors are
+     *                    borrowed, {@code null} for the default one.
+     */
+    public void setWorkspace(Workspace workspace) {
+        this.workspace = (workspace == null ? Workspace.getDefault() : workspace);
+    }
+
+    /**
+     * Check whether the normal mode can be used.
+     * @return True if there are no weights and if the operator {@code H}
+     *         can directly apply its normal operator.
+     */
+    public boolean canUseNormalMode() {
+        return (W == null && H != null && H instanceof NormalOperator &&
+                ((NormalOperator)H).canApplyNormal());
+    }
+
+    /**
+     * Choose whether to compute the gradient with the normal operator.
+     * <p>
+     * In normal mode, {@link #computeCostAndGradient} only applies the
+     * normal operator {@code H'.H} (instead of {@code H} and then its
+     * adjoint) and uses precomputed values of {@code H'.y} and {@code y'.y}.
+     * These values are computed the first time they are needed after
+     * calling this method or {@link #setComponents}, you must call one of
+     * these methods again if you change the contents of {@code y} or the
+     * operator {@code H}.  As the cost is computed by expanding the squared
+     * norm of the residuals, its relative precision is worse than in the
+     * standard mode when the residuals are small compared to the data.
+     * </p><p>
+     * If the normal operator of {@code H} cannot be applied (for instance,
+     * because weights have been set into {@code H}), the standard mode is
+     * used.
+     * </p>
+     * @param enable - True to use the normal mode.
+     * @throws IllegalArgumentException if the normal mode is requested but
+     *         cannot be used (see {@link #canUseNormalMode}).
+     */
+    public void setNormalMode(boolean enable) {
+        if (enable && ! canUseNormalMode()) {
+            throw new IllegalArgumentException("Normal mode requires no weights and an operator H which can apply its normal operator");
         }
+        normalMode = enable;
+        Hty = null;
+        HtHx = null;
+    }
+
+    /**
+     * Check whether the normal mode is used.
+     * @return True if the normal mode is enabled.
+     */
+    public boolean getNormalMode() {
+        return normalMode;
     }
 
     @Override
@@ -203,15 +300,13 @@ public class QuadraticCost implements DifferentiableCostFunction {
 
         /* Form the (anti-)residuals : r = H.x - y, their weighted counterpart Wr = W.r
          * and compute the quadratic cost q. */
-        formResiduals(x);
-        double q = r.dot(Wr);
-
-        /* Cleanup any alias made so far. */
-        if (quickResiduals) {
-            r = null;
-        }
-        if (quickWeightedResiduals) {
-            Wr = null;
+        double q;
+        try {
+            formResiduals(x);
+            q = r.dot(Wr);
+        } finally {
+            /* Give back temporaries and cleanup any alias made so far. */
+            releaseResiduals();
         }
 
         /* Return the scaled cost. */
@@ -227,41 +322,74 @@ public class QuadraticCost implements DifferentiableCostFunction {
             }
             return 0.0;
         }
+        if (normalMode && ((NormalOperator)H).canApplyNormal()) {
+            return computeNormalCostAndGradient(alpha, x, gx, clr);
+        }
 
-        /* Form the residuals and compute the quadratic cost. */
-        formResiduals(x);
-        double q = r.dot(Wr);
+        double q;
+        try {
+            /* Form the residuals and compute the quadratic cost. */
+            formResiduals(x);
+            q = r.dot(Wr);
 
-        /* Compute/integrate the gradients. */
-        if (quickQuasiGradient) {
-            HtWr = Wr;
-        } else {
-            if (HtWr == null || ! HtWr.belongsTo(inputSpace)) {
-                /* Create/find workspace to store HtWr = H'.W.r with the constraints that
-                 * HtWr must be writable (thus not x) and must not be Wr as operator H is
-                 * not warranted to be applicable in-place. */
+            /* Compute/integrate the gradients. */
+            if (quickQuasiGradient) {
+                HtWr = Wr;
+            } else {
+                /* Find storage for HtWr = H'.W.r with the constraints that
+                 * HtWr must be writable (thus not x) and must not be Wr as
+                 * operator H is not warranted to be applicable in-place. */
                 if (shareMemory) {
                     HtWr = r;
                 } else {
-                    HtWr = inputSpace.create();
+                    HtWr = workspace.borrow(inputSpace);
                 }
+                H.apply(Wr, HtWr, LinearOperator.ADJOINT);
             }
-            H.apply(Wr, HtWr, LinearOperator.ADJOINT);
+            inputSpace.axpby((clr ? 0.0 : 1.0), gx, 2.0*alpha, HtWr, gx);
+        } finally {
+            /* Give back temporaries and cleanup any alias made so far. */
+            if (! quickQuasiGradient && ! shareMemory) {
+                workspace.giveBack(HtWr);
+            }
+            HtWr = null;
+            releaseResiduals();
         }
-        inputSpace.axpby((clr ? 0.0 : 1.0), gx, 2.0*alpha, HtWr, gx);
 
-        /* Cleanup any alias made so far. */
-        if (quickResiduals) {
-            r = null;
+        /* Return the quadratic cost times the multiplier. */
+        return alpha*q;
+    }
+
+    /* Compute the cost and its gradient in normal mode. */
+    private double computeNormalCostAndGradient(double alpha, Vector x, Vector gx, boolean clr) {
+        /* Precompute H'.y and y'.y if not yet done. */
+        if (y != null && Hty == null) {
+            Hty = inputSpace.create();
+            H.apply(y, Hty, LinearOperator.ADJOINT);
+            yty = y.dot(y);
         }
-        if (quickWeightedResiduals) {
-            Wr = null;
+        HtHx = workspace.borrow(inputSpace);
+        double q;
+        try {
+            /* Apply the normal operator, compute the cost and integrate the
+             * gradient. */
+            ((NormalOperator)H).applyNormal(x, HtHx);
+            q = x.dot(HtHx);
+            if (y == null) {
+                inputSpace.axpby((clr ? 0.0 : 1.0), gx, 2.0*alpha, HtHx, gx);
+            } else {
+                q += yty - 2.0*x.dot(Hty);
+                inputSpace.axpbypcz((clr ? 0.0 : 1.0), gx, 2.0*alpha, HtHx,
+                                    -2.0*alpha, Hty, gx);
+            }
+        } finally {
+            workspace.giveBack(HtHx);
+            HtHx = null;
         }
-        if (quickQuasiGradient) {
-            HtWr = null;
+        if (q < 0.0) {
+            /* Only possible because of rounding errors. */
+            q = 0.0;
         }
-
-        /* Return the quadratic cost times the multiplier. */
         return alpha*q;
     }
 
@@ -294,9 +422,7 @@ public class QuadraticCost implements DifferentiableCostFunction {
             r = x;
         } else {
             /* The (anti-)residuals are: r = x - y, or r = H.x, or r = H.x - y. */
-            if (r == null || ! r.belongsTo(innerSpace)) {
-                r = innerSpace.create();
-            }
+            r = workspace.borrow(innerSpace);
             if (H == null) {
                 /* The (anti-)residuals are: r = x - y. */
                 innerSpace.axpby(1.0, x, -1.0, y, r);
@@ -315,12 +441,22 @@ public class QuadraticCost implements DifferentiableCostFunction {
              * are just an alias to r. */
             Wr = r;
         } else {
-            if (Wr == null || ! Wr.belongsTo(innerSpace)) {
-                Wr = innerSpace.create();
-            }
+            Wr = workspace.borrow(innerSpace);
             W.apply(r, Wr);
         }
     }
+
+    /** Give back the (anti-)residuals and their weighted counterpart. */
+    private void releaseResiduals() {
+        if (! quickResiduals) {
+            workspace.giveBack(r);
+        }
+        if (! quickWeightedResiduals) {
+            workspace.giveBack(Wr);
+        }
+        r = null;
+        Wr = null;
+    }
 }
 
 /*
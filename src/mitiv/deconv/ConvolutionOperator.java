@@ -28,6 +28,7 @@ package mitiv.deconv;
 import mitiv.base.Traits;
 import mitiv.exception.IncorrectSpaceException;
 import mitiv.exception.NotImplementedException;
+import mitiv.linalg.NormalOperator;
 import mitiv.linalg.Vector;
 import mitiv.linalg.shaped.DoubleShapedVector;
 import mitiv.linalg.shaped.FloatShapedVector;
@@ -44,15 +45,34 @@ import mitiv.linalg.shaped.ShapedVectorSpace;
  *   H = F'.diag(F.h).F</pre>
  * with {@code F} the FFT (Fast Fourier Transform) operator and {@code h} the
  * PSF (Point Spread Function).
+ * </p><p>
+ * The FFT operator may be in half-spectrum mode (see
+ * {@link RealComplexFFT#RealComplexFFT(ShapedVectorSpace, boolean)}) to save
+ * memory and computations, the MTF then belongs to the space of half-spectra.
+ * </p><p>
+ * The normal operator {@code H'.H} is the convolution by the squared modulus
+ * of the MTF, it can be applied with a single forward and a single backward
+ * FFT (see {@link #applyNormal}).
+ * </p>
  * 
  * @author Jonathan Léger
  */
-public class ConvolutionOperator extends ShapedLinearOperator {
+public class ConvolutionOperator extends ShapedLinearOperator implements NormalOperator {
 
     protected RealComplexFFT FFT = null;
     protected Vector mtf;
-    protected Vector tmp;
+
+    /**
+     * Formerly the workspace of the operator in the frequency space.
+     * @deprecated The temporary vector is borrowed from the workspace of
+     *             the operator (see {@link #setWorkspace}) while it is
+     *             applied, this field is no longer allocated.
+     */
+    @Deprecated
+    protected Vector tmp = null;
+
     protected final int number; // number of values in the direct space
+    private final int complexNumber; // number of complex values in the frequency space
     private final boolean single;
 
     /**
@@ -107,8 +127,8 @@ public class ConvolutionOperator extends ShapedLinearOperator {
             this.mtf = mtf;
         }
         this.FFT = FFT;
-        tmp = complexSpace.create();
         number = realSpace.getNumber();
+        complexNumber = complexSpace.getNumber()/2;
         int type = realSpace.getType();
         single = (type == Traits.FLOAT);
         if (! single && type != Traits.DOUBLE) {
@@ -122,63 +142,112 @@ public class ConvolutionOperator extends ShapedLinearOperator {
             throw new NotImplementedException("For now we do not implement inverse convolution operations "+
                     "(talk to Éric if you ignore the dangers of doing that!)");
         }
-        FFT.apply(src, tmp, DIRECT);
-        if (single) {
-            /* Single precision version. */
-            float[] h = ((FloatShapedVector)mtf).getData();
-            float[] z = ((FloatShapedVector)tmp).getData();
-            if (job == DIRECT) {
-                for (int k = 0; k < number; ++k) {
-                    int real = k + k;
-                    int imag = real + 1;
-                    float h_re = h[real];
-                    float h_im = h[imag];
-                    float z_re = z[real];
-                    float z_im = z[imag];
-                    z[real] = h_re*z_re - h_im*z_im;
-                    z[imag] = h_re*z_im + h_im*z_re;
+        Vector tmp = workspace.borrow(FFT.getOutputSpace());
+        try {
+            FFT.apply(src, tmp, DIRECT);
+            if (single) {
+                /* Single precision version. */
+                float[] h = ((FloatShapedVector)mtf).getData();
+                float[] z = ((FloatShapedVector)tmp).getData();
+                if (job == DIRECT) {
+                    for (int k = 0; k < complexNumber; ++k) {
+                        int real = k + k;
+                        int imag = real + 1;
+                        float h_re = h[real];
+                        float h_im = h[imag];
+                        float z_re = z[real];
+                        float z_im = z[imag];
+                        z[real] = h_re*z_re - h_im*z_im;
+                        z[imag] = h_re*z_im + h_im*z_re;
+                    }
+                } else {
+                    for (int k = 0; k < complexNumber; ++k) {
+                        int real = k + k;
+                        int imag = real + 1;
+                        float h_re = h[real];
+                        float h_im = h[imag];
+                        float z_re = z[real];
+                        float z_im = z[imag];
+                        z[real] = h_re*z_re + h_im*z_im;
+                        z[imag] = h_re*z_im - h_im*z_re;
+                    }
                 }
             } else {
-                for (int k = 0; k < number; ++k) {
-                    int real = k + k;
-                    int imag = real + 1;
-                    float h_re = h[real];
-                    float h_im = h[imag];
-                    float z_re = z[real];
-                    float z_im = z[imag];
-                    z[real] = h_re*z_re + h_im*z_im;
-                    z[imag] = h_re*z_im - h_im*z_re;
+                /* Double precision version. */
+                double[] h = ((DoubleShapedVector)mtf).getData();
+                double[] z = ((DoubleShapedVector)tmp).getData();
+                if (job == DIRECT) {
+                    for (int k = 0; k < complexNumber; ++k) {
+                        int real = k + k;
+                        int imag = real + 1;
+                        double h_re = h[real];
+                        double h_im = h[imag];
+                        double z_re = z[real];
+                        double z_im = z[imag];
+                        z[real] = h_re*z_re - h_im*z_im;
+                        z[imag] = h_re*z_im + h_im*z_re;
+                    }
+                } else {
+                    for (int k = 0; k < complexNumber; ++k) {
+                        int real = k + k;
+                        int imag = real + 1;
+                        double h_re = h[real];
+                        double h_im = h[imag];
+                        double z_re = z[real];
+                        double z_im = z[imag];
+                        z[real] = h_re*z_re + h_im*z_im;
+                        z[imag] = h_re*z_im - h_im*z_re;
+                    }
                 }
             }
-        } else {
-            /* Double precision version. */
-            double[] h = ((DoubleShapedVector)mtf).getData();
-            double[] z = ((DoubleShapedVector)tmp).getData();
-            if (job == DIRECT) {
-                for (int k = 0; k < number; ++k) {
+            FFT.apply(tmp, dst, INVERSE);
+        } finally {
+            workspace.giveBack(tmp);
+        }
+    }
+
+    @Override
+    public boolean canApplyNormal() {
+        return true;
+    }
+
+    @Override
+    public void applyNormal(Vector src, Vector dst) {
+        if (! src.belongsTo(inputSpace) || ! dst.belongsTo(inputSpace)) {
+            throw new IncorrectSpaceException();
+        }
+        Vector tmp = workspace.borrow(FFT.getOutputSpace());
+        try {
+            FFT.apply(src, tmp, DIRECT);
+            if (single) {
+                float[] h = ((FloatShapedVector)mtf).getData();
+                float[] z = ((FloatShapedVector)tmp).getData();
+                for (int k = 0; k < complexNumber; ++k) {
                     int real = k + k;
                     int imag = real + 1;
-                    double h_re = h[real];
-                    double h_im = h[imag];
-                    double z_re = z[real];
-                    double z_im = z[imag];
-                    z[real] = h_re*z_re - h_im*z_im;
-                    z[imag] = h_re*z_im + h_im*z_re;
+                    float h_re = h[real];
+                    float h_im = h[imag];
+                    float q = h_re*h_re + h_im*h_im;
+                    z[real] *= q;
+                    z[imag] *= q;
                 }
             } else {
-                for (int k = 0; k < number; ++k) {
+                double[] h = ((DoubleShapedVector)mtf).getData();
+                double[] z = ((DoubleShapedVector)tmp).getData();
+                for (int k = 0; k < complexNumber; ++k) {
                     int real = k + k;
                     int imag = real + 1;
                     double h_re = h[real];
                     double h_im = h[imag];
-                    double z_re = z[real];
-                    double z_im = z[imag];
-                    z[real] = h_re*z_re + h_im*z_im;
-                    z[imag] = h_re*z_im - h_im*z_re;
+                    double q = h_re*h_re + h_im*h_im;
+                    z[real] *= q;
+                    z[imag] *= q;
                 }
             }
+            FFT.apply(tmp, dst, INVERSE);
+        } finally {
+            workspace.giveBack(tmp);
         }
-        FFT.apply(tmp, dst, INVERSE);
     }
 }
 
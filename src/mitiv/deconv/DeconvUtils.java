@@ -39,6 +39,7 @@ import mitiv.linalg.shaped.FloatShapedVectorSpace;
 import mitiv.linalg.shaped.ShapedVector;
 import mitiv.linalg.shaped.ShapedVectorSpace;
 import mitiv.utils.CommonUtils;
+import mitiv.utils.FFTPlanCache;
 
 import org.jtransforms.fft.DoubleFFT_1D;
 import org.jtransforms.fft.DoubleFFT_3D;
@@ -421,28 +422,28 @@ public class DeconvUtils {
      */
     public void FFT1D(double[] array) {
         if(fft1D == null){
-            fft1D = new DoubleFFT_1D(width*height);
+            fft1D = FFTPlanCache.getDoubleFFT_1D(width*height);
         }
         fft1D.realForwardFull(array);
     }
 
     public void FFT1DComplex(double[] array) {
         if(fft1D == null){
-            fft1D = new DoubleFFT_1D(width*height);
+            fft1D = FFTPlanCache.getDoubleFFT_1D(width*height);
         }
         fft1D.complexForward(array);
     }
 
     public void FFT3D(double[] array) {
         if(fft3D == null){
-            fft3D = new DoubleFFT_3D(sizeZ,height,width);
+            fft3D = FFTPlanCache.getDoubleFFT_3D(sizeZ,height,width);
         }
         fft3D.realForwardFull(array);
     }
 
     public void FFT3DComplex(double[] array) {
         if(fft3D == null){
-            fft3D = new DoubleFFT_3D(sizeZ,height,width);
+            fft3D = FFTPlanCache.getDoubleFFT_3D(sizeZ,height,width);
         }
         fft3D.complexForward(array);
     }
@@ -458,7 +459,7 @@ public class DeconvUtils {
      */
     public void FFT1D(float[] array) {
         if(fft1DFloat == null){
-            fft1DFloat = new FloatFFT_1D(width*height);
+            fft1DFloat = FFTPlanCache.getFloatFFT_1D(width*height);
         }
         fft1DFloat.realForwardFull(array);
     }
@@ -496,7 +497,7 @@ public class DeconvUtils {
             float[] array = vectorFloat.getData();
             int size = imageSpace.getNumber();
             if(fft1DFloat == null){
-                fft1DFloat = new FloatFFT_1D(size);
+                fft1DFloat = FFTPlanCache.getFloatFFT_1D(size);
             }
             fft1DFloat.realForwardFull(array);
         } else {
@@ -504,7 +505,7 @@ public class DeconvUtils {
             double[] array = vectorDouble.getData();
             int size = imageSpace.getNumber();
             if(fft1D == null){
-                fft1D = new DoubleFFT_1D(size);
+                fft1D = FFTPlanCache.getDoubleFFT_1D(size);
             }
             fft1D.realForwardFull(array);
         }
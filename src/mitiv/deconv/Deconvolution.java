@@ -319,7 +319,7 @@ public class Deconvolution{
         utils.PadImageAndPSF(coef);//Multiply utils.{width,height,sizeZ} by coef
         
         space = new DoubleShapedVectorSpace(utils.width, utils.height, utils.sizeZ);
-        fft = new RealComplexFFT(space);
+        fft = new RealComplexFFT(space, true); // only store half of the spectrum
         complexSpace = (DoubleShapedVectorSpace) fft.getOutputSpace();
         vectorPsf = space.wrap(psfArray.toDouble().flatten());
         vectorImage = space.wrap(imgArray.toDouble().flatten());
@@ -335,7 +335,7 @@ public class Deconvolution{
         DoubleShapedVector out = complexSpace.wrap(wiener.wiener3D(alpha, psfComplex.getData(), imgComplex.getData() , wgtComplex.getData() ,utils.width,utils.height, utils.sizeZ, coef));
         //DoubleShapedVector out = complexSpace.clone(imgComplex);
         DoubleShapedVector outReal = space.create();
-        fft.apply(out, outReal, RealComplexFFT.ADJOINT);
+        inverseSimple3D(out, outReal);
         
         return Double3D.wrap(outReal.getData(), space.getShape());
         //return utils.arrayToIcyImage3D(outReal.getData(), correction,false);
@@ -388,11 +388,23 @@ public class Deconvolution{
         DoubleShapedVector out = complexSpace.wrap(wiener.wiener3D(alpha));
         //DoubleShapedVector out = complexSpace.clone(vector_image);
         DoubleShapedVector outReal = space.create();
-        fft.apply(out, outReal, RealComplexFFT.ADJOINT);
+        inverseSimple3D(out, outReal);
         return Double3D.wrap(outReal.getData(), space.getShape());
         //return utils.arrayToIcyImage3D(outReal.getData(), correction,false);
     }
 
+    /**
+     * Unnormalized inverse FFT of the result of the Wiener filter.
+     * <p>
+     * The half-spectrum FFT is used, the result is the same as the adjoint
+     * of the full complex FFT (that is, {@code number} times the inverse FFT).
+     * </p>
+     */
+    private void inverseSimple3D(DoubleShapedVector out, DoubleShapedVector outReal) {
+        fft.apply(out, outReal, RealComplexFFT.INVERSE);
+        outReal.scale(space.getNumber());
+    }
+
     private ShapedArray firstDeconvolutionVector(double alpha){
         vectorImage = (DoubleShapedVector) utils.cloneImageVect();
         vectorPsf = (DoubleShapedVector) utils.getPsfPadVect();
@@ -127,9 +127,11 @@ public class Filter{
      */
     public double[] wiener3D(double alpha) {
         double a,b,c,d,q,wr,wi;
-        double[]out = new double[2*sizeZ*width*height];
+        /* The number of frequencies is taken from the arrays as they may
+         * only store half of the spectrum. */
+        double[]out = new double[psfFFT1D.length];
         int pos;
-        for(int i = 0; i < sizeZ*width*height; i++){
+        for(int i = 0; i < psfFFT1D.length/2; i++){
             pos = 2*i;
             a = psfFFT1D[pos  ];
             b = psfFFT1D[pos+1];
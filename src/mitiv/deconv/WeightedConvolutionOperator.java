@@ -36,6 +36,7 @@ import mitiv.deconv.impl.ConvolutionFloat1D;
 import mitiv.deconv.impl.ConvolutionFloat2D;
 import mitiv.deconv.impl.ConvolutionFloat3D;
 import mitiv.exception.IllegalTypeException;
+import mitiv.linalg.NormalOperator;
 import mitiv.linalg.shaped.ShapedLinearOperator;
 import mitiv.linalg.shaped.ShapedVector;
 import mitiv.linalg.shaped.ShapedVectorSpace;
@@ -138,10 +139,13 @@ import mitiv.utils.Timer;
  * If <b><i>u</i></b> is unspecified (or if all elements of <b><i>u</i></b>
  * are equal to 1) and if the output and input vector spaces are the same,
  * then operator <b>A</b> is just the cyclic convolution operator <b>H</b>.
+ * In that case, the normal operator <b>A</b>'.<b>A</b> can be directly
+ * applied by {@link #applyNormal} with half the number of FFT's.
  * </p>
  * @author Éric Thiébaut
  */
-public abstract class WeightedConvolutionOperator extends ShapedLinearOperator {
+public abstract class WeightedConvolutionOperator extends ShapedLinearOperator
+    implements NormalOperator {
 
     /**
      * The following constructors make this class non instantiable, but still
@@ -406,6 +410,22 @@ public abstract class WeightedConvolutionOperator extends ShapedLinearOperator {
      * @return The offset of the output in the complex workspace.
      */
     protected static int outputOffset(int rank, Shape inputShape, Shape outputShape, int[] first) {
+        int[] position = outputPosition(rank, inputShape, outputShape, first);
+        int offset = 0;
+        int stride = 2; // stride1
+        for (int k = 0; k < rank; ++k) {
+            offset += stride*position[k];
+            stride *= inputShape.dimension(k);
+        }
+        return offset;
+    }
+
+    /**
+     * Check rank and dimensions.
+     * @return The coordinates of the first output element in the input
+     *         space.
+     */
+    protected static int[] outputPosition(int rank, Shape inputShape, Shape outputShape, int[] first) {
         if (inputShape.rank() != rank) {
             throw new IllegalArgumentException("Bad rank for input space.");
         }
@@ -415,8 +435,7 @@ public abstract class WeightedConvolutionOperator extends ShapedLinearOperator {
         if (first != null && first.length != rank) {
             throw new IllegalArgumentException("Bad number of coordinates for the first position");
         }
-        int offset = 0;
-        int stride = 2; // stride1
+        int[] position = new int[rank];
         for (int k = 0; k < rank; ++k) {
             int inpDim = inputShape.dimension(k);
             int outDim = outputShape.dimension(k);
@@ -433,11 +452,9 @@ public abstract class WeightedConvolutionOperator extends ShapedLinearOperator {
                 }
 
             }
-            offset += stride*index;
-            stride *= inpDim;
+            position[k] = index;
         }
-
-        return offset;
+        return position;
     }
 
     /**
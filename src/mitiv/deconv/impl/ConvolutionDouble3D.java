@@ -25,9 +25,12 @@
 
 package mitiv.deconv.impl;
 
+import java.util.Arrays;
+
 import mitiv.array.ArrayUtils;
 import mitiv.array.DoubleArray;
 import mitiv.array.ShapedArray;
+import mitiv.base.Parallel;
 import mitiv.base.Shape;
 import mitiv.base.Traits;
 import mitiv.deconv.WeightedConvolutionOperator;
@@ -37,8 +40,9 @@ import mitiv.linalg.Vector;
 import mitiv.linalg.shaped.DoubleShapedVector;
 import mitiv.linalg.shaped.ShapedVector;
 import mitiv.linalg.shaped.ShapedVectorSpace;
+import mitiv.utils.FFTPlanCache;
 
-import org.jtransforms.fft.DoubleFFT_3D;
+import org.jtransforms.fft.DoubleFFT_1D;
 
 /**
  * Implements a FFT-based weighted convolution for 3D arrays of double's.
@@ -49,6 +53,15 @@ import org.jtransforms.fft.DoubleFFT_3D;
  * {@link  WeightedConvolutionOperator}.{@code build()}.  Have a look at the
  * documentation of {@link  WeightedConvolutionOperator} for a description
  * of what exaclty does this kind of operator.
+ * </p><p>
+ * As the convolved arrays are real, only the non-redundant half of their
+ * discrete Fourier transform (and of the MTF) is computed and stored.  The
+ * complex workspace has {@code n1/2 + 1} complex values along the 1st
+ * dimension (with {@code n1} the 1st dimension of the input space) and the
+ * same dimensions as the input space along the other dimensions.  Real-to-complex (resp. complex-to-real) transforms are
+ * applied along the 1st dimension, complex transforms along the other ones.
+ * Before a real-to-complex transform, the real values are stored at the
+ * beginning of each line of the workspace along the 1st dimension.
  * </p>
  * @author Éric Thiébaut
  *
@@ -56,11 +69,12 @@ import org.jtransforms.fft.DoubleFFT_3D;
  */
 public class ConvolutionDouble3D extends WeightedConvolutionOperator {
 
-    /* FFT operator and workspace arrays. */
-    private DoubleFFT_3D fft = null;
-    private double[] tmp = null;   // complex workspace
+    /* FFT operators and workspace arrays. */
+    private DoubleFFT_1D fft1 = null; // FFT along 1st dimension
+    private DoubleFFT_1D fft2 = null; // FFT along 2nd dimension
+    private DoubleFFT_1D fft3 = null; // FFT along 3rd dimension
     private double[] wgt = null;   // array of weights (can be null)
-    private double[] mtf = null;   // complex MTF
+    private double[] mtf = null;   // half-complex MTF
 
     /* Attributes that remains constant after creation. */
     private final int number; // number of values in the direct space
@@ -68,8 +82,14 @@ public class ConvolutionDouble3D extends WeightedConvolutionOperator {
     private final int dim1; // 1st output dimension
     private final int dim2; // 2nd output dimension
     private final int dim3; // 3rd output dimension
-    private final int offset; // offset of first output element in complex workspace
-    private static final int stride1 = 2; // stride along 1st input dimension
+    private final int inpDim1; // 1st input dimension
+    private final int inpDim2; // 2nd input dimension
+    private final int inpDim3; // 3rd input dimension
+    private final int halfDim1; // number of complex values along 1st dimension of workspace
+    private final int lines; // number of lines along 1st dimension
+    private final int halfNumber; // number of complex values in workspace
+    private final int offset; // offset of first output element in workspace
+    private static final int stride1 = 1; // stride along 1st input dimension
     private final int stride2; // stride along 2nd input dimension
     private final int stride3; // stride along 3rd input dimension
 
@@ -92,13 +112,20 @@ public class ConvolutionDouble3D extends WeightedConvolutionOperator {
         /* Check rank and dimensions. */
         Shape inputShape = inputSpace.getShape();
         Shape outputShape = outputSpace.getShape();
-        offset = outputOffset(rank, inputShape, outputShape, first);
+        int[] position = outputPosition(rank, inputShape, outputShape, first);
         number = (int)inputShape.number();
         dim1 = outputShape.dimension(0);
         dim2 = outputShape.dimension(1);
         dim3 = outputShape.dimension(2);
-        stride2 = stride1*inputShape.dimension(0);
-        stride3 = stride2*inputShape.dimension(1);
+        inpDim1 = inputShape.dimension(0);
+        inpDim2 = inputShape.dimension(1);
+        inpDim3 = inputShape.dimension(2);
+        halfDim1 = inpDim1/2 + 1;
+        lines = number/inpDim1;
+        halfNumber = halfDim1*lines;
+        stride2 = 2*halfDim1;
+        stride3 = stride2*inpDim2;
+        offset = stride1*position[0] + stride2*position[1] + stride3*position[2];
     }
 
     @Override
@@ -123,16 +150,10 @@ public class ConvolutionDouble3D extends WeightedConvolutionOperator {
     }
 
     private final void computeMTF(double[] psf) {
-        final double zero = 0;
         if (mtf == null) {
-            mtf = new double[2*number];
-        }
-        for (int k = 0; k < number; ++k) {
-            int real = k + k;
-            int imag = real + 1;
-            mtf[real] = psf[k];
-            mtf[imag] = zero;
+            mtf = new double[2*halfNumber];
         }
+        expand(psf, mtf);
         forwardFFT(mtf);
     }
 
@@ -152,36 +173,136 @@ public class ConvolutionDouble3D extends WeightedConvolutionOperator {
         wgt = checkWeights(arr.toDouble().flatten(copy), false);
     }
 
-    /** Create low-level FFT operator. */
+    /** Create low-level FFT operators. */
     private final void createFFT() {
-        if (fft == null) {
-            Shape shape = getInputSpace().getShape();
+        if (fft1 == null) {
             timerForFFT.resume();
-            fft = new DoubleFFT_3D(shape.dimension(2), shape.dimension(1), shape.dimension(0));
+            fft1 = FFTPlanCache.getDoubleFFT_1D(inpDim1);
+            fft2 = FFTPlanCache.getDoubleFFT_1D(inpDim2);
+            fft3 = FFTPlanCache.getDoubleFFT_1D(inpDim3);
             timerForFFT.stop();
         }
     }
 
-    /** Apply forward complex FFT. */
-    private final void forwardFFT(double[] z) {
-        if (fft == null) {
+    /** Store real values at the beginning of the lines of the workspace. */
+    private final void expand(double[] x, double[] z) {
+        for (int line = 0; line < lines; ++line) {
+            System.arraycopy(x, inpDim1*line, z, 2*halfDim1*line, inpDim1);
+        }
+    }
+
+    /** Extract real values from the beginning of the lines of the workspace. */
+    private final void shrink(double[] z, double[] x) {
+        for (int line = 0; line < lines; ++line) {
+            System.arraycopy(z, 2*halfDim1*line, x, inpDim1*line, inpDim1);
+        }
+    }
+
+    /** Apply forward real-to-complex FFT in-place. */
+    private final void forwardFFT(final double[] z) {
+        if (fft1 == null) {
             createFFT();
         }
         timerForFFT.resume();
-        fft.complexForward(z);
+        Parallel.run(lines, Parallel.getGrain(lines, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int line = first; line < last; ++line) {
+                    int off = 2*halfDim1*line;
+                    fft1.realForward(z, off);
+                    /* Unpack the result: the real part of the last frequency
+                     * (even length) or the imaginary part of the last
+                     * frequency (odd length) is stored in the slot of the
+                     * imaginary part of the 0-th frequency. */
+                    if (inpDim1 > 1) {
+                        z[off + inpDim1] = z[off + 1];
+                    }
+                    z[off + 1] = 0;
+                    if (inpDim1%2 == 0) {
+                        z[off + inpDim1 + 1] = 0;
+                    }
+                }
+            }
+        });
+        transform(z, fft2, inpDim2, stride2, true);
+        transform(z, fft3, inpDim3, stride3, true);
         timerForFFT.stop();
     }
 
-    /** Apply backward precision complex FFT. */
-    private final void backwardFFT(double[] z) {
-        if (fft == null) {
+    /**
+     * Apply backward complex-to-real FFT in-place.
+     *
+     * The transform along the 1st dimension is normalized because the
+     * scaling of the unnormalized real inverse FFT of JTransforms depends
+     * on whether the length is a power of two or not.  The transforms along
+     * the other dimensions are not normalized, the result must therefore be
+     * scaled by {@code 1/lines}.
+     */
+    private final void backwardFFT(final double[] z) {
+        if (fft1 == null) {
             createFFT();
         }
         timerForFFT.resume();
-        fft.complexInverse(z, false);
+        transform(z, fft3, inpDim3, stride3, false);
+        transform(z, fft2, inpDim2, stride2, false);
+        Parallel.run(lines, Parallel.getGrain(lines, number), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int line = first; line < last; ++line) {
+                    int off = 2*halfDim1*line;
+                    /* Pack the line (see forwardFFT). */
+                    if (inpDim1 > 1) {
+                        z[off + 1] = z[off + inpDim1];
+                    }
+                    fft1.realInverse(z, off, true);
+                }
+            }
+        });
         timerForFFT.stop();
     }
 
+    /**
+     * Apply complex FFT's along a dimension other than the 1st one.
+     *
+     * @param z       - The workspace.
+     * @param xform   - The 1D complex FFT.
+     * @param n       - The length of the dimension.
+     * @param stride  - The stride (in units of double's) along the dimension.
+     * @param forward - True for the forward transform, false for the
+     *                  backward one.
+     */
+    private final void transform(final double[] z, final DoubleFFT_1D xform,
+                                 final int n, final int stride,
+                                 final boolean forward) {
+        if (n <= 1) {
+            return;
+        }
+        final int inner = stride/2; // number of transforms per slab
+        final int count = halfNumber/n; // total number of transforms
+        Parallel.run(count, Parallel.getGrain(count, halfNumber), new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                double[] buf = new double[2*n];
+                for (int j = first; j < last; ++j) {
+                    int base = 2*(j%inner) + (j/inner)*stride*n;
+                    for (int k = 0, i = base; k < 2*n; k += 2, i += stride) {
+                        buf[k] = z[i];
+                        buf[k+1] = z[i+1];
+                    }
+                    if (forward) {
+                        xform.complexForward(buf);
+                    } else {
+                        xform.complexInverse(buf, false);
+                    }
+                    for (int k = 0, i = base; k < 2*n; k += 2, i += stride) {
+                        z[i] = buf[k];
+                        z[i+1] = buf[k+1];
+                    }
+                }
+            }
+        });
+    }
+
     @Override
     protected void privApply(Vector src, Vector dst, int job) {
         if (job != DIRECT && job != ADJOINT) {
@@ -191,41 +312,92 @@ public class ConvolutionDouble3D extends WeightedConvolutionOperator {
         if (mtf == null) {
             throw new IllegalArgumentException("You must set the PSF or the MTF first.");
         }
-        if (fft == null) {
+        if (fft1 == null) {
             createFFT();
         }
-        if (tmp == null) {
-            tmp = new double[2*number];
+        /* Half-complex workspace. */
+        double[] tmp = workspace.borrowDoubles(2*halfNumber);
+        try {
+            timer.resume();
+            if (job == DIRECT) {
+                applyDirect(mtf, wgt, ((DoubleShapedVector)src).getData(),
+                            ((DoubleShapedVector)dst).getData(), tmp);
+            } else {
+                applyAdjoint(mtf, wgt, ((DoubleShapedVector)dst).getData(),
+                             ((DoubleShapedVector)src).getData(), tmp);
+            }
+            timer.stop();
+        } finally {
+            workspace.giveBack(tmp);
         }
-        timer.resume();
-        if (job == DIRECT) {
-            applyDirect(mtf, wgt, ((DoubleShapedVector)src).getData(),
+    }
+
+    @Override
+    public boolean canApplyNormal() {
+        return (wgt == null && number == getOutputSpace().getNumber());
+    }
+
+    @Override
+    public void applyNormal(Vector src, Vector dst) {
+        if (! src.belongsTo(getInputSpace()) || ! dst.belongsTo(getInputSpace())) {
+            throw new IncorrectSpaceException();
+        }
+        if (! canApplyNormal()) {
+            throw new IllegalArgumentException("The normal operator cannot be directly applied with weights or a smaller output space.");
+        }
+        if (mtf == null) {
+            throw new IllegalArgumentException("You must set the PSF or the MTF first.");
+        }
+        double[] tmp = workspace.borrowDoubles(2*halfNumber);
+        try {
+            timer.resume();
+            applyNormal(mtf, ((DoubleShapedVector)src).getData(),
                         ((DoubleShapedVector)dst).getData(), tmp);
-        } else {
-            applyAdjoint(mtf, wgt, ((DoubleShapedVector)dst).getData(),
-                         ((DoubleShapedVector)src).getData(), tmp);
+            timer.stop();
+        } finally {
+            workspace.giveBack(tmp);
         }
-        timer.stop();
     }
 
-    /** Direct operator for single precision variables. */
-    private final void applyDirect(double[] h, double[] w, double[] x,
-                                   double[] y, double[] z) {
-        final double zero = 0;
+    /** Normal operator (convolution by the squared modulus of the MTF). */
+    private final void applyNormal(double[] h, double[] x, double[] y,
+                                   double[] z) {
         final double one = 1;
 
-        /* Copy input array in workspace and make it complex. */
-        for (int k = 0; k < number; ++k) {
+        /* Apply forward FFT, multiply by the squared modulus of the MTF and
+         * apply backward FFT. */
+        expand(x, z);
+        forwardFFT(z);
+        for (int k = 0; k < halfNumber; ++k) {
             int real = k + k;
             int imag = real + 1;
-            z[real] = x[k];
-            z[imag] = zero;
+            double h_re = h[real];
+            double h_im = h[imag];
+            double q = h_re*h_re + h_im*h_im;
+            z[real] *= q;
+            z[imag] *= q;
         }
+        backwardFFT(z);
 
-        /* Apply forward complex FFT, multiply by the MTF and
-         * apply backward FFT. */
-        forwardFFT(z);
+        /* Extract and scale. */
+        shrink(z, y);
+        final double s = one/lines;
         for (int k = 0; k < number; ++k) {
+            y[k] *= s;
+        }
+    }
+
+    /** Direct operator for single precision variables. */
+    private final void applyDirect(double[] h, double[] w, double[] x,
+                                   double[] y, double[] z) {
+        final double one = 1;
+
+        /* Copy input array in workspace. */
+        expand(x, z);
+
+        /* Apply forward FFT, multiply by the MTF and apply backward FFT. */
+        forwardFFT(z);
+        for (int k = 0; k < halfNumber; ++k) {
             int real = k + k;
             int imag = real + 1;
             double h_re = h[real];
@@ -238,7 +410,7 @@ public class ConvolutionDouble3D extends WeightedConvolutionOperator {
         backwardFFT(z);
 
         /* Select and scale. */
-        final double s = one/number;
+        final double s = one/lines;
         if (w == null) {
             int i = -1;
             for (int i3 = 0; i3 < dim3; ++i3) {
@@ -271,16 +443,11 @@ public class ConvolutionDouble3D extends WeightedConvolutionOperator {
         final double zero = 0;
         final double one = 1;
 
-        /* Zero-fill workspace. (FIXME: improve this part.) */
-        for (int k = 0; k < number; ++k) {
-            int real = k + k;
-            int imag = real + 1;
-            z[real] = zero;
-            z[imag] = zero;
-        }
+        /* Zero-fill workspace. */
+        Arrays.fill(z, zero);
 
         /* Scale and expand. */
-        final double s = one/number;
+        final double s = one/lines;
         if (w == null) {
             int i = -1;
             for (int i3 = 0; i3 < dim3; ++i3) {
@@ -309,7 +476,7 @@ public class ConvolutionDouble3D extends WeightedConvolutionOperator {
         /* Apply forward FFT, multiply by the conjugate of the MTF and
          * apply backward FFT. */
         forwardFFT(z);
-        for (int k = 0; k < number; ++k) {
+        for (int k = 0; k < halfNumber; ++k) {
             int real = k + k;
             int imag = real + 1;
             double h_re = h[real];
@@ -321,12 +488,8 @@ public class ConvolutionDouble3D extends WeightedConvolutionOperator {
         }
         backwardFFT(z);
 
-        /* Copy real part of workspace into output array. */
-        for (int k = 0; k < number; ++k) {
-            int real = k + k;
-            x[k] = z[real];
-        }
-
+        /* Copy workspace into output array. */
+        shrink(z, x);
     }
 
 }
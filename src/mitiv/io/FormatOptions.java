@@ -28,10 +28,12 @@ package mitiv.io;
 import mitiv.array.ByteArray;
 import mitiv.array.DoubleArray;
 import mitiv.array.FloatArray;
+import mitiv.array.Histogram;
 import mitiv.array.IntArray;
 import mitiv.array.LongArray;
 import mitiv.array.ShapedArray;
 import mitiv.array.ShortArray;
+import mitiv.array.Statistics;
 import mitiv.base.Traits;
 import mitiv.exception.IllegalTypeException;
 
@@ -48,6 +50,10 @@ public class FormatOptions {
     private double maxValue = 0.0;
     private boolean maxValueGiven = false;
 
+    private double lowerQuantile = 0.0;
+    private double upperQuantile = 1.0;
+    private boolean quantilesGiven = false;
+
     private ColorModel colorModel = null;
 
     private DataFormat dataFormat = null;
@@ -83,6 +89,52 @@ public class FormatOptions {
         maxValueGiven = false;
     }
 
+    /**
+     * Get the fraction of values below the minimum data value.
+     * @return The lower quantile for robust scaling, NaN if not set.
+     */
+    public double getLowerQuantile() {
+        return (quantilesGiven ? lowerQuantile : Double.NaN);
+    }
+
+    /**
+     * Get the fraction of values below the maximum data value.
+     * @return The upper quantile for robust scaling, NaN if not set.
+     */
+    public double getUpperQuantile() {
+        return (quantilesGiven ? upperQuantile : Double.NaN);
+    }
+
+    /**
+     * Set the quantiles for robust scaling.
+     * <p>
+     * When the quantiles are set, the minimum and maximum data values which
+     * are not explicitly given are the corresponding quantiles of the data
+     * (for instance 0.001 and 0.999 to ignore the 0.1% darkest and
+     * brightest values).  The quantiles are approximated from a
+     * {@link Histogram} of the data, no sorting is needed.
+     * </p>
+     * @param lower - The fraction of values below the minimum.
+     * @param upper - The fraction of values below the maximum.
+     */
+    public void setQuantiles(double lower, double upper) {
+        if (! (0.0 <= lower && lower < upper && upper <= 1.0)) {
+            throw new IllegalArgumentException("Invalid quantiles.");
+        }
+        lowerQuantile = lower;
+        upperQuantile = upper;
+        quantilesGiven = true;
+    }
+
+    /**
+     * Unset the quantiles for robust scaling.
+     */
+    public void unsetQuantiles() {
+        lowerQuantile = 0.0;
+        upperQuantile = 1.0;
+        quantilesGiven = false;
+    }
+
     /**
      * Get the chosen color model.
      * @return The color model or {@code null} if not set.
@@ -137,7 +189,12 @@ public class FormatOptions {
             return new double[]{1.0, 0.0};
         }
         double dataMin, dataMax;
-        if (minValueGiven && maxValueGiven) {
+        if (quantilesGiven && ! (minValueGiven && maxValueGiven)) {
+            /* Robust scaling by a few linear passes, no sorting. */
+            double[] q = Histogram.quantiles(arr, null, lowerQuantile, upperQuantile);
+            dataMin = (minValueGiven ? minValue : q[0]);
+            dataMax = (maxValueGiven ? maxValue : q[1]);
+        } else if (minValueGiven && maxValueGiven) {
             dataMin = minValue;
             dataMax = maxValue;
         } else if (minValueGiven) {
@@ -233,6 +290,27 @@ public class FormatOptions {
         return computeScalingFactors(dataMin, dataMax, fileMin, fileMax);
     }
 
+    /**
+     * Compute the scaling factors given the statistics of the data.
+     * <p>
+     * This is the same as {@link #getScaling(ShapedArray, double, double)}
+     * except that the extreme data values not set in the options are taken
+     * from already computed statistics instead of scanning the data again.
+     * </p>
+     * @param stats   - The statistics of the data values.
+     * @param fileMin - The minimum file value.
+     * @param fileMax - The maximum file value.
+     * @return The scaling factors SCALE and BIAS (in that order).
+     */
+    public double[] getScaling(Statistics stats, double fileMin, double fileMax) {
+        if (stats == null || stats.getCount() < 1) {
+            return new double[]{1.0, 0.0};
+        }
+        double dataMin = (minValueGiven ? minValue : stats.getMin());
+        double dataMax = (maxValueGiven ? maxValue : stats.getMax());
+        return computeScalingFactors(dataMin, dataMax, fileMin, fileMax);
+    }
+
     /*=======================================================================*/
     /* BRIGHTNESS SCALING FACTORS */
 
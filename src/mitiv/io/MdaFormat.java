@@ -29,18 +29,28 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 
 import mitiv.array.Array3D;
 import mitiv.array.ArrayFactory;
 import mitiv.array.ByteArray;
+import mitiv.array.ChunkedArray;
+import mitiv.array.ChunkedDoubleArray;
+import mitiv.array.ChunkedFloatArray;
 import mitiv.array.DoubleArray;
 import mitiv.array.Float3D;
 import mitiv.array.FloatArray;
 import mitiv.array.IntArray;
 import mitiv.array.LongArray;
+import mitiv.array.MappedChunkedArray;
 import mitiv.array.ShapedArray;
 import mitiv.array.ShortArray;
+import mitiv.array.impl.ChunkCursor;
+import mitiv.array.impl.MappedStorage;
+import mitiv.base.Shape;
 import mitiv.base.Traits;
 import mitiv.exception.DataFormatException;
 import mitiv.exception.RecoverableFormatException;
@@ -315,6 +325,235 @@ public class MdaFormat {
         return obj;
     }
 
+    /**
+     * Map a multi-dimensional array stored in MDA format into memory.
+     * <p>
+     * Contrarily to {@link #load(String)}, the data part is not read: the
+     * file is mapped in memory and the returned array reads its elements on
+     * demand.  The cost of this method does not depend on the size of the
+     * data.  Slices and views of the result share their elements with the
+     * file.  The returned array is read-only.
+     * </p><p>
+     * Mapped arrays are indexed by {@code int}'s, files with more than
+     * {@link Integer#MAX_VALUE} elements must be mapped by
+     * {@link #mapChunked(String, boolean)}.
+     * </p>
+     * @param fileName - The name of the input file.
+     * @return A {@link #ShapedArray} which can be safely casted according to its
+     *         type and/or rank.  See {@link #load(BufferedInputDataStream)} for
+     *         more details.
+     * @throws FileNotFoundException, IOException, DataFormatException
+     */
+    public static ShapedArray map(String fileName)
+            throws FileNotFoundException, IOException, DataFormatException {
+        return map(fileName, false);
+    }
+
+    /**
+     * Map a multi-dimensional array stored in MDA format into memory.
+     * <p>
+     * See {@link #map(String)} for details.  If the file is mapped for
+     * writing, modifying the elements of the returned array modifies the
+     * contents of the file (call {@link MappedStorage#force()} to make sure
+     * the changes are written).
+     * </p>
+     * @param fileName - The name of the input file.
+     * @param writable - Map the file for reading and writing?
+     * @return A {@link #ShapedArray} which can be safely casted according to its
+     *         type and/or rank.
+     * @throws FileNotFoundException, IOException, DataFormatException
+     */
+    public static ShapedArray map(String fileName, boolean writable)
+            throws FileNotFoundException, IOException, DataFormatException {
+        RandomAccessFile file = new RandomAccessFile(fileName, (writable ? "rw" : "r"));
+        try {
+            FileChannel channel = file.getChannel();
+            Header hdr = readHeader(channel);
+            if (hdr.dims.length > 9) {
+                throw new DataFormatException("unsupported rank for mapped MDA data (rank = " + hdr.dims.length + ")");
+            }
+            if (hdr.number > Integer.MAX_VALUE) {
+                throw new DataFormatException("number of elements too large in MDA data (number = " + hdr.number
+                        + "), use mapChunked");
+            }
+            MappedStorage storage = new MappedStorage(channel, hdr.offset, hdr.type,
+                    (int)hdr.number, hdr.order, writable);
+            return ArrayFactory.wrap(storage, hdr.dims);
+        } finally {
+            /* The mapping remains valid after closing the file. */
+            file.close();
+        }
+    }
+
+    /**
+     * Map a multi-dimensional array stored in MDA format into memory as a
+     * chunked array.
+     * <p>
+     * This is the counterpart of {@link #map(String, boolean)} for arrays
+     * which may have more than {@link Integer#MAX_VALUE} elements.  As for
+     * {@link #map(String, boolean)}, the data part is not read and the
+     * chunks and slabs of the result are mapped arrays which share their
+     * elements with the file.
+     * </p>
+     * @param fileName - The name of the input file.
+     * @param writable - Map the file for reading and writing?
+     * @return A chunked array whose type is that of the stored elements.
+     * @throws FileNotFoundException, IOException, DataFormatException
+     */
+    public static MappedChunkedArray mapChunked(String fileName, boolean writable)
+            throws FileNotFoundException, IOException, DataFormatException {
+        return mapChunked(fileName, writable, ChunkedArray.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Map a multi-dimensional array stored in MDA format into memory as a
+     * chunked array.
+     * @param fileName  - The name of the input file.
+     * @param writable  - Map the file for reading and writing?
+     * @param chunkSize - The maximum number of elements per chunk.
+     * @return A chunked array whose type is that of the stored elements.
+     * @throws FileNotFoundException, IOException, DataFormatException
+     * @see #mapChunked(String, boolean)
+     */
+    public static MappedChunkedArray mapChunked(String fileName, boolean writable,
+            int chunkSize)
+            throws FileNotFoundException, IOException, DataFormatException {
+        RandomAccessFile file = new RandomAccessFile(fileName, (writable ? "rw" : "r"));
+        try {
+            FileChannel channel = file.getChannel();
+            Header hdr = readHeader(channel);
+            return new MappedChunkedArray(channel, hdr.offset, hdr.type,
+                    Shape.make(hdr.dims), hdr.order, writable, chunkSize);
+        } finally {
+            /* The mapping remains valid after closing the file. */
+            file.close();
+        }
+    }
+
+    /**
+     * Read a multi-dimensional array in MDA format into a chunked array.
+     * <p>
+     * This method is intended for arrays which may have more than
+     * {@link Integer#MAX_VALUE} elements.  The data part is read chunk by
+     * chunk directly into the storage of the result.
+     * </p>
+     * @param fileName - The name of the input file.
+     * @return A {@link ChunkedFloatArray} or a {@link ChunkedDoubleArray}
+     *         depending on the type of the stored elements.
+     * @throws FileNotFoundException, IOException, DataFormatException
+     */
+    public static ChunkedArray loadChunked(String fileName)
+            throws FileNotFoundException, IOException, DataFormatException {
+        return loadChunked(fileName, ChunkedArray.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Read a multi-dimensional array in MDA format into a chunked array.
+     * @param fileName  - The name of the input file.
+     * @param chunkSize - The maximum number of elements per chunk.
+     * @return A {@link ChunkedFloatArray} or a {@link ChunkedDoubleArray}
+     *         depending on the type of the stored elements.
+     * @throws FileNotFoundException, IOException, DataFormatException
+     * @see #loadChunked(String)
+     */
+    public static ChunkedArray loadChunked(String fileName, int chunkSize)
+            throws FileNotFoundException, IOException, DataFormatException {
+        FileInputStream fileStream = new FileInputStream(fileName);
+        BufferedInputDataStream dataStream = null;
+        try {
+            FileChannel channel = fileStream.getChannel();
+            Header hdr = readHeader(channel);
+            channel.position(hdr.offset);
+            dataStream = new BufferedInputDataStream(fileStream);
+            dataStream.setByteOrder(hdr.order);
+            Shape shape = Shape.make(hdr.dims);
+            if (hdr.type == Traits.FLOAT) {
+                ChunkedFloatArray arr = new ChunkedFloatArray(shape, chunkSize);
+                for (int c = 0; c < arr.getNumberOfChunks(); ++c) {
+                    int length = arr.getChunkLength(c);
+                    if (dataStream.read(arr.getChunkData(c), 0, length) != length) {
+                        throw new DataFormatException("short MDA data (some elements cannot be read)");
+                    }
+                }
+                return arr;
+            } else if (hdr.type == Traits.DOUBLE) {
+                ChunkedDoubleArray arr = new ChunkedDoubleArray(shape, chunkSize);
+                for (int c = 0; c < arr.getNumberOfChunks(); ++c) {
+                    int length = arr.getChunkLength(c);
+                    if (dataStream.read(arr.getChunkData(c), 0, length) != length) {
+                        throw new DataFormatException("short MDA data (some elements cannot be read)");
+                    }
+                }
+                return arr;
+            } else {
+                throw new DataFormatException("only float and double MDA data can be loaded into chunked arrays");
+            }
+        } finally {
+            if (dataStream != null) {
+                dataStream.close();
+            }
+            fileStream.close();
+        }
+    }
+
+    /* Parsed header of a MDA file. */
+    private static final class Header {
+        ByteOrder order;
+        int type;
+        int[] dims;
+        long number;
+        long offset; // position of the data part
+    }
+
+    /* Read and check the header of a MDA file, also check that the data part
+       is complete. */
+    private static Header readHeader(FileChannel channel)
+            throws IOException, DataFormatException {
+        Header hdr = new Header();
+        ByteBuffer id = ByteBuffer.allocate(4);
+        if (channel.read(id, 0) != 4) {
+            throw new DataFormatException("insufficient data for getting 4-byte MDA identifier");
+        }
+        int info;
+        if (id.get(0) == MDA_HDR0 && id.get(1) == MDA_HDR1 && id.get(2) == MDA_HDR2) {
+            hdr.order = ByteOrder.BIG_ENDIAN;
+            info = id.get(3) & 0xFF;
+        } else if (id.get(3) == MDA_HDR0 && id.get(2) == MDA_HDR1 && id.get(1) == MDA_HDR2) {
+            hdr.order = ByteOrder.LITTLE_ENDIAN;
+            info = id.get(0) & 0xFF;
+        } else {
+            throw new DataFormatException("unrecognized MDA header {" + (id.get(0)&0xFF) + ","
+                    + (id.get(1)&0xFF) + ","+ (id.get(2)&0xFF) + ","+ (id.get(3)&0xFF) + "}");
+        }
+        hdr.type = getPrimitiveType((info >> 4) & 0xF);
+        if (hdr.type == Traits.VOID) {
+            throw new DataFormatException("bad type in MDA header");
+        }
+        int rank = (info & 0xF);
+        if (rank < 1) {
+            throw new DataFormatException("bad rank in MDA header");
+        }
+        ByteBuffer buf = ByteBuffer.allocate(4*rank).order(hdr.order);
+        if (channel.read(buf, 4) != 4*rank) {
+            throw new DataFormatException("short MDA stream (missing some dimensions)");
+        }
+        hdr.dims = new int[rank];
+        hdr.number = 1L;
+        for (int k = 0; k < rank; ++k) {
+            int length = buf.getInt(4*k);
+            if (length <= 0) {
+                throw new DataFormatException("bad dimension in MDA header (dim" + (k+1) + " = " + length + ")");
+            }
+            hdr.dims[k] = length;
+            hdr.number *= length;
+        }
+        hdr.offset = 4 + 4*rank;
+        if (channel.size() < hdr.offset + hdr.number*Traits.sizes[hdr.type]) {
+            throw new DataFormatException("short MDA data (some elements cannot be read)");
+        }
+        return hdr;
+    }
+
     public static void save(ShapedArray obj, String fileName)
             throws FileNotFoundException, IOException {
         save(obj, fileName, ByteOrder.nativeOrder());
@@ -337,6 +576,76 @@ public class MdaFormat {
         }
     }
 
+    /**
+     * Save a chunked array in MDA format.
+     * @param obj      - The chunked array to save.
+     * @param fileName - The name of the output file.
+     * @throws FileNotFoundException, IOException
+     */
+    public static void save(ChunkedArray obj, String fileName)
+            throws FileNotFoundException, IOException {
+        save(obj, fileName, ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Save a chunked array in MDA format with a given byte order.
+     * <p>
+     * The elements are written chunk by chunk, no copy of the data is made.
+     * </p>
+     * @param obj      - The chunked array to save.
+     * @param fileName - The name of the output file.
+     * @param order    - The byte order of the file.
+     * @throws FileNotFoundException, IOException
+     */
+    public static void save(ChunkedArray obj, String fileName, ByteOrder order)
+            throws FileNotFoundException, IOException {
+        int rank = obj.getRank();
+        if (rank <= 0 || rank > MDA_MAX_RANK) {
+            throw new IllegalArgumentException("illegal rank for MDA data");
+        }
+        int type = obj.getType();
+        int mdaType;
+        if (type == Traits.FLOAT) {
+            mdaType = MDA_FLOAT;
+        } else if (type == Traits.DOUBLE) {
+            mdaType = MDA_DOUBLE;
+        } else {
+            throw new IllegalArgumentException("unsupported data type");
+        }
+        FileOutputStream fileStream = new FileOutputStream(fileName);
+        BufferedOutputDataStream dataStream = new BufferedOutputDataStream(fileStream);
+        dataStream.setByteOrder(order);
+        try {
+            /* Write the header data as a single array of int's. */
+            int headerCount = 1 + rank;
+            int[] headerData = new int[headerCount];
+            headerData[0] = MDA_HDR | ((mdaType << 4) | rank);
+            for (int k = 0; k < rank; ++k) {
+                headerData[k + 1] = obj.getDimension(k);
+            }
+            if (dataStream.write(headerData, 0, headerCount) != headerCount) {
+                throw new IOException("failed to write MDA header part");
+            }
+
+            /* Write the data part. */
+            for (int c = 0; c < obj.getNumberOfChunks(); ++c) {
+                int length = obj.getChunkLength(c);
+                int transfered;
+                if (type == Traits.FLOAT) {
+                    transfered = dataStream.write(((ChunkedFloatArray)obj).getChunkData(c), 0, length);
+                } else {
+                    transfered = dataStream.write(((ChunkedDoubleArray)obj).getChunkData(c), 0, length);
+                }
+                if (transfered != length) {
+                    throw new IOException("failed to write MDA data part");
+                }
+            }
+        } finally {
+            dataStream.close();
+            fileStream.close();
+        }
+    }
+
     public static void save(ShapedArray obj, BufferedOutputDataStream dataStream)
             throws IOException {
         int rank = obj.getRank();
@@ -380,26 +689,30 @@ public class MdaFormat {
             throw new IOException("failed to write MDA header part");
         }
 
-        /* Write the data part. */
+        /* Write the data part, chunk by chunk to avoid copying the
+           elements when they are contiguous in the storage of the array. */
+        ChunkCursor chunks = new ChunkCursor(obj);
+        if (! chunks.isContiguous()) {
+            chunks = new ChunkCursor(obj.copy());
+        }
         int transfered = 0;
-        if (type == Traits.BYTE) {
-            byte[] arr = ((ByteArray)obj).flatten();
-            transfered = dataStream.write(arr, 0, number);
-        } else if (type == Traits.SHORT) {
-            short[] arr = ((ShortArray)obj).flatten();
-            transfered = dataStream.write(arr, 0, number);
-        } else if (type == Traits.INT) {
-            int[] arr = ((IntArray)obj).flatten();
-            transfered = dataStream.write(arr, 0, number);
-        } else if (type == Traits.LONG) {
-            long[] arr = ((LongArray)obj).flatten();
-            transfered = dataStream.write(arr, 0, number);
-        } else if (type == Traits.FLOAT) {
-            float[] arr = ((FloatArray)obj).flatten();
-            transfered = dataStream.write(arr, 0, number);
-        } else if (type == Traits.DOUBLE) {
-            double[] arr = ((DoubleArray)obj).flatten();
-            transfered = dataStream.write(arr, 0, number);
+        Object data = chunks.getStorage();
+        int length = chunks.getLength();
+        while (chunks.next()) {
+            int offset = chunks.getOffset();
+            if (type == Traits.BYTE) {
+                transfered += dataStream.write((byte[])data, offset, length);
+            } else if (type == Traits.SHORT) {
+                transfered += dataStream.write((short[])data, offset, length);
+            } else if (type == Traits.INT) {
+                transfered += dataStream.write((int[])data, offset, length);
+            } else if (type == Traits.LONG) {
+                transfered += dataStream.write((long[])data, offset, length);
+            } else if (type == Traits.FLOAT) {
+                transfered += dataStream.write((float[])data, offset, length);
+            } else if (type == Traits.DOUBLE) {
+                transfered += dataStream.write((double[])data, offset, length);
+            }
         }
         if (transfered != number) {
             throw new IOException("failed to write MDA data part");
@@ -446,23 +759,25 @@ public class MdaFormat {
                     order = "native";
                 }
                 System.out.println("test file \"" + name + "\" written in " + order + " byte order");
-                ShapedArray tmp = MdaFormat.load(name);
-                System.out.println("test file \"" + name + "\" successfully read");
-                Float3D cpy = (Float3D)tmp;
-                int errors = 0;
-                for (int i3 = 0; i3 < dim3; ++i3) {
-                    for (int i2 = 0; i2 < dim2; ++i2) {
-                        for (int i1 = 0; i1 < dim1; ++i1) {
-                            if (cpy.get(i1, i2, i3) != orig.get(i1,i2,i3)) {
-                                ++errors;
-                                System.err.println("copy.get("+i1+","+i2+","+i3+") = "
-                                        + cpy.get(i1, i2, i3) + " != " + orig.get(i1,i2,i3));
+                for (int pass = 0; pass < 2; ++pass) {
+                    ShapedArray tmp = (pass == 0 ? MdaFormat.load(name) : MdaFormat.map(name));
+                    System.out.println("test file \"" + name + "\" successfully " + (pass == 0 ? "read" : "mapped"));
+                    Float3D cpy = (Float3D)tmp;
+                    int errors = 0;
+                    for (int i3 = 0; i3 < dim3; ++i3) {
+                        for (int i2 = 0; i2 < dim2; ++i2) {
+                            for (int i1 = 0; i1 < dim1; ++i1) {
+                                if (cpy.get(i1, i2, i3) != orig.get(i1,i2,i3)) {
+                                    ++errors;
+                                    System.err.println("copy.get("+i1+","+i2+","+i3+") = "
+                                            + cpy.get(i1, i2, i3) + " != " + orig.get(i1,i2,i3));
+                                }
                             }
                         }
                     }
-                }
-                if (errors == 0) {
-                    System.out.println("identical contents for test file \"" + name + "\"");
+                    if (errors == 0) {
+                        System.out.println("identical contents for test file \"" + name + "\"");
+                    }
                 }
 
             }
@@ -26,7 +26,10 @@
 package mitiv.linalg;
 
 import java.io.PrintStream;
+import java.util.Arrays;
 
+import mitiv.base.Parallel;
+import mitiv.base.Summation;
 import mitiv.exception.NonConformableArrayException;
 
 
@@ -36,6 +39,11 @@ import mitiv.exception.NonConformableArrayException;
  * The main purpose of this class is to collect basic vectorized operations
  * (static methods) which are useful elsewhere.
  *
+ * The operations on 1D arrays are executed in parallel by {@link Parallel}.
+ * The reductions (dot products and norms) split the arrays in blocks which
+ * only depend on the length of the arrays and combine the partial results
+ * pairwise, hence their results do not depend on the number of threads.
+ *
  * TODO: The code for most static methods should be automatically written from
  *       template code (easier maintenance and less bugs).
  * 
@@ -382,51 +390,55 @@ public class ArrayOps {
     /*-----------------------------------------------------------------------*/
     /* SUM OF VALUES */
 
+    /* The sums are computed by pairwise summation in double precision, see
+       Summation. */
+
+    private static final double accurateSum(final float[] x) {
+        return (x == null ? 0.0 : Summation.sum(x));
+    }
+
+    private static final double accurateSum(final double[] x) {
+        return (x == null ? 0.0 : Summation.sum(x));
+    }
+
     /* FLOAT VERSION */
 
     public static final float sum(final float[] x) {
-        float s = 0.0F;
-        int n = getLength(x);
-        for (int i = 1; i < n; ++i) {
-            s += x[i];
-        }
-        return s;
+        return (float)accurateSum(x);
     }
 
     public static final float sum(final float[][] x) {
-        float s = 0.0F;
+        double s = 0.0;
         int n = getLength(x);
-        for (int i = 1; i < n; ++i) {
-            s += sum(x[i]);
+        for (int i = 0; i < n; ++i) {
+            s += accurateSum(x[i]);
         }
-        return s;
+        return (float)s;
     }
 
     public static final float sum(final float[][][] x) {
-        float s = 0.0F;
+        double s = 0.0;
         int n = getLength(x);
-        for (int i = 1; i < n; ++i) {
-            s += sum(x[i]);
+        for (int i = 0; i < n; ++i) {
+            int m = getLength(x[i]);
+            for (int j = 0; j < m; ++j) {
+                s += accurateSum(x[i][j]);
+            }
         }
-        return s;
+        return (float)s;
     }
 
     /* DOUBLE VERSION */
 
     public static final double sum(final double[] x) {
-        double s = 0.0;
-        int n = getLength(x);
-        for (int i = 1; i < n; ++i) {
-            s += x[i];
-        }
-        return s;
+        return accurateSum(x);
     }
 
     public static final double sum(final double[][] x) {
         double s = 0.0;
         int n = getLength(x);
-        for (int i = 1; i < n; ++i) {
-            s += sum(x[i]);
+        for (int i = 0; i < n; ++i) {
+            s += accurateSum(x[i]);
         }
         return s;
     }
@@ -434,7 +446,7 @@ public class ArrayOps {
     public static final double sum(final double[][][] x) {
         double s = 0.0;
         int n = getLength(x);
-        for (int i = 1; i < n; ++i) {
+        for (int i = 0; i < n; ++i) {
             s += sum(x[i]);
         }
         return s;
@@ -455,37 +467,89 @@ public class ArrayOps {
      * @return
      */
     public static final double dot(int n, final double[] x, final double[] y) {
-        double result = 0.0;
-        for (int i = 0; i < n; ++i) {
-            result += x[i] * y[i];
-        }
-        return result;
+        if (n <= 0) {
+            return 0.0;
+        }
+        return Parallel.reduce(n, new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                double result = 0.0;
+                for (int i = first; i < last; ++i) {
+                    result += x[i]*y[i];
+                }
+                return result;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return left + right;
+            }
+        });
     }
 
     public static final double dot(int n, final float[] x, final float[] y) {
-        float result = 0.0F;
-        for (int i = 0; i < n; ++i) {
-            result += x[i] * y[i];
-        }
-        return result;
+        if (n <= 0) {
+            return 0.0;
+        }
+        return Parallel.reduce(n, new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                double result = 0.0;
+                for (int i = first; i < last; ++i) {
+                    result += (double)x[i]*y[i];
+                }
+                return result;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return left + right;
+            }
+        });
     }
 
     public static final double dot(int n, final double[] w, final double[] x,
             final double[] y) {
-        double result = 0.0;
-        for (int i = 0; i < n; ++i) {
-            result += w[i] * x[i] * y[i];
-        }
-        return result;
+        if (n <= 0) {
+            return 0.0;
+        }
+        return Parallel.reduce(n, new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                double result = 0.0;
+                for (int i = first; i < last; ++i) {
+                    result += w[i]*x[i]*y[i];
+                }
+                return result;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return left + right;
+            }
+        });
     }
 
     public static final double dot(int n, final float[] w, final float[] x,
             final float[] y) {
-        float result = 0.0F;
-        for (int i = 0; i < n; ++i) {
-            result += w[i] * x[i] * y[i];
-        }
-        return result;
+        if (n <= 0) {
+            return 0.0;
+        }
+        return Parallel.reduce(n, new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                double result = 0.0;
+                for (int i = first; i < last; ++i) {
+                    result += (double)w[i]*x[i]*y[i];
+                }
+                return result;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return left + right;
+            }
+        });
     }
 
     /**
@@ -608,11 +672,26 @@ public class ArrayOps {
      * @return The square root of the sum of squared elements of x.
      */
     public static double norm2(final double[] x) {
-        double s = 0.0;
         int n = x.length;
-        for (int i = 0; i < n; ++i) {
-            s += x[i]*x[i];
-        }
+        if (n <= 0) {
+            return 0.0;
+        }
+        double s = Parallel.reduce(n, new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                double s = 0.0;
+                for (int i = first; i < last; ++i) {
+                    double r = x[i];
+                    s += r*r;
+                }
+                return s;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return left + right;
+            }
+        });
         return Math.sqrt(s);
     }
 
@@ -624,11 +703,25 @@ public class ArrayOps {
      * @return The sum of absolute values of x.
      */
     public static double norm1(final double[] x) {
-        double s = 0.0;
         int n = x.length;
-        for (int i = 0; i < n; ++i) {
-            s += Math.abs(x[i]);
-        }
+        if (n <= 0) {
+            return 0.0;
+        }
+        double s = Parallel.reduce(n, new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                double s = 0.0;
+                for (int i = first; i < last; ++i) {
+                    s += Math.abs(x[i]);
+                }
+                return s;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return left + right;
+            }
+        });
         return s;
     }
 
@@ -640,15 +733,28 @@ public class ArrayOps {
      * @return The maximum absolute value of x.
      */
     public static double normInf(final double[] x) {
-        double s = 0.0;
         int n = x.length;
-        for (int i = 0; i < n; ++i) {
-            double r = Math.abs(x[i]);
-            if (r > s) {
-                s = r;
+        if (n <= 0) {
+            return 0.0;
+        }
+        return Parallel.reduce(n, new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                double s = 0.0;
+                for (int i = first; i < last; ++i) {
+                    double r = Math.abs(x[i]);
+                    if (r > s) {
+                        s = r;
+                    }
+                }
+                return s;
             }
-        }
-        return s;
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return (right > left ? right : left);
+            }
+        });
     }
 
     /**
@@ -659,11 +765,26 @@ public class ArrayOps {
      * @return The square root of the sum of squared elements of x.
      */
     public static float norm2(final float[] x) {
-        float s = 0.0F;
         int n = x.length;
-        for (int i = 0; i < n; ++i) {
-            s += x[i]*x[i];
-        }
+        if (n <= 0) {
+            return 0.0F;
+        }
+        double s = Parallel.reduce(n, new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                double s = 0.0;
+                for (int i = first; i < last; ++i) {
+                    double r = x[i];
+                    s += r*r;
+                }
+                return s;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return left + right;
+            }
+        });
         return (float)Math.sqrt(s);
     }
 
@@ -675,11 +796,25 @@ public class ArrayOps {
      * @return The sum of absolute values of x.
      */
     public static double norm1(final float[] x) {
-        float s = 0.0F;
         int n = x.length;
-        for (int i = 0; i < n; ++i) {
-            s += Math.abs(x[i]);
-        }
+        if (n <= 0) {
+            return 0.0;
+        }
+        double s = Parallel.reduce(n, new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                double s = 0.0;
+                for (int i = first; i < last; ++i) {
+                    s += Math.abs(x[i]);
+                }
+                return s;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return left + right;
+            }
+        });
         return s;
     }
 
@@ -691,15 +826,28 @@ public class ArrayOps {
      * @return The maximum absolute value of x.
      */
     public static float normInf(final float[] x) {
-        float s = 0.0F;
         int n = x.length;
-        for (int i = 0; i < n; ++i) {
-            float r = Math.abs(x[i]);
-            if (r > s) {
-                s = r;
+        if (n <= 0) {
+            return 0.0F;
+        }
+        return Parallel.reduce(n, new Parallel.Reduction<Float>() {
+            @Override
+            public Float compute(int first, int last) {
+                float s = 0.0F;
+                for (int i = first; i < last; ++i) {
+                    float r = Math.abs(x[i]);
+                    if (r > s) {
+                        s = r;
+                    }
+                }
+                return s;
             }
-        }
-        return s;
+
+            @Override
+            public Float combine(Float left, Float right) {
+                return (right > left ? right : left);
+            }
+        });
     }
 
     /*-----------------------------------------------------------------------*/
@@ -749,16 +897,22 @@ public class ArrayOps {
         }
     }
 
-    public static void copy(int n, final double[] src, double[] dst) {
-        for (int i = 0; i < n; ++i) {
-            dst[i] = src[i];
-        }
+    public static void copy(int n, final double[] src, final double[] dst) {
+        Parallel.run(n, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                System.arraycopy(src, first, dst, first, last - first);
+            }
+        });
     }
 
-    public static void copy(int n, final float[] src, float[] dst) {
-        for (int i = 0; i < n; ++i) {
-            dst[i] = src[i];
-        }
+    public static void copy(int n, final float[] src, final float[] dst) {
+        Parallel.run(n, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                System.arraycopy(src, first, dst, first, last - first);
+            }
+        });
     }
 
     public static void copy(final double[] src, double[] dst) {
@@ -786,39 +940,56 @@ public class ArrayOps {
     /*-----------------------------------------------------------------------*/
     /* FILL */
 
-    public static void fill(int n, double[] x, double alpha) {
-        for (int i = 0; i < n; ++i) {
-            x[i] = alpha;
-        }
+    public static void fill(int n, final double[] x, double alpha) {
+        final double a = alpha;
+        Parallel.run(n, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                Arrays.fill(x, first, last, a);
+            }
+        });
     }
 
-    public static void fill(int n, float[] x, double alpha) {
-        float a = (float)alpha;
-        for (int i = 0; i < n; ++i) {
-            x[i] = a;
-        }
+    public static void fill(int n, final float[] x, double alpha) {
+        final float a = (float)alpha;
+        Parallel.run(n, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                Arrays.fill(x, first, last, a);
+            }
+        });
     }
 
     /*-----------------------------------------------------------------------*/
     /* ALPHA*X + BETA*Y */
 
-    public static void axpby(int n, double alpha, final double[] x,
+    public static void axpby(int n, final double alpha, final double[] x,
+            final double beta, final double[] y) {
+        Parallel.run(n, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                axpbyBlock(first, last, alpha, x, beta, y);
+            }
+        });
+    }
+
+    private static void axpbyBlock(int first, int last, double alpha, final double[] x,
             double beta, double[] y) {
         if (beta == 1.0) {
             /* Job: Y += ALPHA*X */
             if (alpha == 1.0) {
                 /* Job: Y += X */
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] += x[i];
                 }
             } else if (alpha == -1.0) {
                 /* Job: Y -= X */
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] -= x[i];
                 }
             } else if (alpha != 0.0) {
                 /* Job: Y += ALPHA*X (nothing to do if ALPHA = 0) */
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] += alpha * x[i];
                 }
             }
@@ -826,18 +997,18 @@ public class ArrayOps {
             /* Job: Y = ALPHA*X */
             if (alpha == 1.0) {
                 /* Job: Y = X */
-                copy(n, x, y);
+                System.arraycopy(x, first, y, first, last - first);
             } else if (alpha == 0.0) {
                 /* Job: Y = 0 */
-                zero(n, y);
+                Arrays.fill(y, first, last, 0.0);
             } else if (alpha == -1.0) {
                 /* Job: Y = -X */
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] = -x[i];
                 }
             } else {
                 /* Job: Y = ALPHA*X */
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] = alpha * x[i];
                 }
             }
@@ -845,110 +1016,118 @@ public class ArrayOps {
             /* Job: Y = ALPHA*X - Y */
             if (alpha == 1.0) {
                 /* Job: Y = ALPHA*X - Y */
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] = x[i] - y[i];
                 }
             } else if (alpha == 0.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] = -y[i];
                 }
             } else if (alpha == -1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] = -x[i] - y[i];
                 }
             } else {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] = alpha * x[i] - y[i];
                 }
             }
         } else {
             if (alpha == 1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] = x[i] + beta * y[i];
                 }
             } else if (alpha == -1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] = beta * y[i] - x[i];
                 }
             } else if (alpha == 0.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] *= beta;
                 }
             } else {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] = alpha * x[i] + beta * y[i];
                 }
             }
         }
     }
 
-    public static void axpby(int n, double alpha, final double[] x,
+    public static void axpby(int n, final double alpha, final double[] x,
+            final double beta, final double[] y, final double[] dst) {
+        Parallel.run(n, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                axpbyBlock(first, last, alpha, x, beta, y, dst);
+            }
+        });
+    }
+
+    private static void axpbyBlock(int first, int last, double alpha, final double[] x,
             double beta, final double[] y, double[] dst) {
         if (beta == 1.0) {
             if (alpha == 1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = y[i] + x[i];
                 }
             } else if (alpha == -1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = y[i] - x[i];
                 }
             } else if (alpha == 0.0) {
-                for (int i = 0; i < n; ++i) {
-                    copy(n, y, dst);
-                }
+                System.arraycopy(y, first, dst, first, last - first);
             } else {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = alpha*x[i] + y[i];
                 }
             }
         } else if (beta == -1.0) {
             if (alpha == 1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = x[i] - y[i];
                 }
             } else if (alpha == -1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = -x[i] - y[i];
                 }
             } else if (alpha == 0.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = -y[i];
                 }
             } else {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = alpha*x[i] - y[i];
                 }
             }
         } else if (beta == 0.0) {
             if (alpha == 1.0) {
-                copy(n, x, dst);
+                System.arraycopy(x, first, dst, first, last - first);
             } else if (alpha == -1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = -x[i];
                 }
             } else if (alpha == 0.0) {
-                zero(n, dst);
+                Arrays.fill(dst, first, last, 0.0);
             } else {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = alpha*x[i];
                 }
             }
         } else {
             if (alpha == 1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = x[i] + beta*y[i];
                 }
             } else if (alpha == -1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = beta*y[i] - x[i];
                 }
             } else if (alpha == 0.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = beta*y[i];
                 }
             } else {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = alpha*x[i] + beta*y[i];
                 }
             }
@@ -965,24 +1144,34 @@ public class ArrayOps {
         axpby(getLength(x, y, dst), alpha, x, beta, y, dst);
     }
 
-    public static void axpby(int n, double alpha, final float[] x,
+    public static void axpby(int n, final double alpha, final float[] x,
+            final double beta, final float[] y) {
+        Parallel.run(n, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                axpbyBlock(first, last, alpha, x, beta, y);
+            }
+        });
+    }
+
+    private static void axpbyBlock(int first, int last, double alpha, final float[] x,
             double beta, float[] y) {
         if (beta == 1.0) {
             /* Job: Y += ALPHA*X */
             if (alpha == 1.0) {
                 /* Job: Y += X */
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] += x[i];
                 }
             } else if (alpha == -1.0) {
                 /* Job: Y -= X */
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] -= x[i];
                 }
             } else if (alpha != 0.0) {
                 /* Job: Y += ALPHA*X (nothing to do if ALPHA = 0) */
                 float a = (float)alpha;
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] += a * x[i];
                 }
             }
@@ -990,19 +1179,19 @@ public class ArrayOps {
             /* Job: Y = ALPHA*X */
             if (alpha == 1.0) {
                 /* Job: Y = X */
-                copy(n, x, y);
+                System.arraycopy(x, first, y, first, last - first);
             } else if (alpha == 0.0) {
                 /* Job: Y = 0 */
-                zero(n, y);
+                Arrays.fill(y, first, last, 0.0F);
             } else if (alpha == -1.0) {
                 /* Job: Y = -X */
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] = -x[i];
                 }
             } else {
                 /* Job: Y = ALPHA*X */
                 float a = (float)alpha;
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] = a*x[i];
                 }
             }
@@ -1010,118 +1199,126 @@ public class ArrayOps {
             /* Job: Y = ALPHA*X - Y */
             if (alpha == 1.0) {
                 /* Job: Y = ALPHA*X - Y */
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] = x[i] - y[i];
                 }
             } else if (alpha == 0.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] = -y[i];
                 }
             } else if (alpha == -1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] = -x[i] - y[i];
                 }
             } else {
                 float a = (float)alpha;
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] = a* x[i] - y[i];
                 }
             }
         } else {
             float b = (float)beta;
             if (alpha == 1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] = x[i] + b*y[i];
                 }
             } else if (alpha == -1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] = b*y[i] - x[i];
                 }
             } else if (alpha == 0.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] *= b;
                 }
             } else {
                 float a = (float)alpha;
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     y[i] = a*x[i] + b*y[i];
                 }
             }
         }
     }
 
-    public static void axpby(int n, double alpha, final float[] x,
+    public static void axpby(int n, final double alpha, final float[] x,
+            final double beta, final float[] y, final float[] dst) {
+        Parallel.run(n, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                axpbyBlock(first, last, alpha, x, beta, y, dst);
+            }
+        });
+    }
+
+    private static void axpbyBlock(int first, int last, double alpha, final float[] x,
             double beta, final float[] y, float[] dst) {
         if (beta == 1.0) {
             if (alpha == 1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = y[i] + x[i];
                 }
             } else if (alpha == -1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = y[i] - x[i];
                 }
             } else if (alpha == 0.0) {
-                for (int i = 0; i < n; ++i) {
-                    copy(n, y, dst);
-                }
+                System.arraycopy(y, first, dst, first, last - first);
             } else {
                 float a = (float)alpha;
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = a*x[i] + y[i];
                 }
             }
         } else if (beta == -1.0) {
             if (alpha == 1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = x[i] - y[i];
                 }
             } else if (alpha == -1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = -x[i] - y[i];
                 }
             } else if (alpha == 0.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = -y[i];
                 }
             } else {
                 float a = (float)alpha;
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = a*x[i] - y[i];
                 }
             }
         } else if (beta == 0.0) {
             if (alpha == 1.0) {
-                copy(n, x, dst);
+                System.arraycopy(x, first, dst, first, last - first);
             } else if (alpha == -1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = -x[i];
                 }
             } else if (alpha == 0.0) {
-                zero(n, dst);
+                Arrays.fill(dst, first, last, 0.0F);
             } else {
                 float a = (float)alpha;
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = a*x[i];
                 }
             }
         } else {
             float b = (float)beta;
             if (alpha == 1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = x[i] + b*y[i];
                 }
             } else if (alpha == -1.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = b*y[i] - x[i];
                 }
             } else if (alpha == 0.0) {
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = b*y[i];
                 }
             } else {
                 float a = (float)alpha;
-                for (int i = 0; i < n; ++i) {
+                for (int i = first; i < last; ++i) {
                     dst[i] = a*x[i] + b*y[i];
                 }
             }
@@ -1140,10 +1337,10 @@ public class ArrayOps {
     /* ALPHA*X + BETA*Y + GAMMA*Z */
 
     public static void axpbypcz(int n,
-            double alpha, final double[] x,
-            double beta,  final double[] y,
-            double gamma, final double[] z,
-            double[] dst)
+            final double alpha, final double[] x,
+            final double beta,  final double[] y,
+            final double gamma, final double[] z,
+            final double[] dst)
     {
         if (alpha == 0.0) {
             axpby(beta, y, gamma, z, dst);
@@ -1152,9 +1349,14 @@ public class ArrayOps {
         } else if (gamma == 0.0) {
             axpby(alpha, x, beta, y, dst);
         } else {
-            for (int i = 0; i < n; ++i) {
-                dst[i] = alpha*x[i] + beta*y[i] + gamma*z[i];
-            }
+            Parallel.run(n, new Parallel.Loop() {
+                @Override
+                public void run(int first, int last) {
+                    for (int i = first; i < last; ++i) {
+                        dst[i] = alpha*x[i] + beta*y[i] + gamma*z[i];
+                    }
+                }
+            });
         }
     }
 
@@ -1167,7 +1369,7 @@ public class ArrayOps {
             double alpha, final float[] x,
             double beta,  final float[] y,
             double gamma, final float[] z,
-            float[] dst)
+            final float[] dst)
     {
         if (alpha == 0.0) {
             axpby(beta, y, gamma, z, dst);
@@ -1176,12 +1378,17 @@ public class ArrayOps {
         } else if (gamma == 0.0) {
             axpby(alpha, x, beta, y, dst);
         } else {
-            float a = (float)alpha;
-            float b = (float)beta;
-            float c = (float)gamma;
-            for (int i = 0; i < n; ++i) {
-                dst[i] = a*x[i] + b*y[i] + c*z[i];
-            }
+            final float a = (float)alpha;
+            final float b = (float)beta;
+            final float c = (float)gamma;
+            Parallel.run(n, new Parallel.Loop() {
+                @Override
+                public void run(int first, int last) {
+                    for (int i = first; i < last; ++i) {
+                        dst[i] = a*x[i] + b*y[i] + c*z[i];
+                    }
+                }
+            });
         }
     }
 
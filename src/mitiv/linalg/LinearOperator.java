@@ -32,6 +32,8 @@ public abstract class LinearOperator {
     protected VectorSpace inputSpace;
     protected VectorSpace outputSpace;
 
+    /** The workspace where temporaries are borrowed. */
+    protected Workspace workspace = Workspace.getDefault();
 
     public static int DIRECT = 0;
     public static int ADJOINT = 1;
@@ -84,6 +86,26 @@ public abstract class LinearOperator {
         return outputSpace;
     }
 
+    /**
+     * Get the workspace of a linear operator.
+     *
+     * @return The workspace where the operator borrows its temporaries.
+     */
+    public Workspace getWorkspace() {
+        return workspace;
+    }
+
+    /**
+     * Set the workspace of a linear operator.
+     *
+     * @param workspace - The workspace where the operator borrows its
+     *                    temporaries, {@code null} for the default one (see
+     *                    {@link Workspace#getDefault}).
+     */
+    public void setWorkspace(Workspace workspace) {
+        this.workspace = (workspace == null ? Workspace.getDefault() : workspace);
+    }
+
     /**
      * Check whether a linear operator is an endomorphism.
      * @return true is the input and output spaces of the linear operator are the same; false otherwise.
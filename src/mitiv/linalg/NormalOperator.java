@@ -0,0 +1,77 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.linalg;
+
+/**
+ * Interface for linear operators which can directly apply their normal
+ * operator.
+ *
+ * <p>
+ * The normal operator of a linear operator {@code A} is {@code A'.A}.  For
+ * some operators, applying {@code A'.A} in a single pass is much cheaper than
+ * applying {@code A} and then its adjoint.  For instance, for a convolution
+ * {@code A'.A} is the convolution by the squared modulus of the MTF which
+ * only requires one forward and one backward FFT instead of two of each.
+ * </p>
+ */
+public interface NormalOperator {
+    /**
+     * Check whether the normal operator can be applied.
+     * <p>
+     * This may depend on the current settings of the operator (for
+     * instance, weights may prevent a direct application of the normal
+     * operator).
+     * </p>
+     * @return True if {@link #applyNormal} can be used.
+     */
+    public abstract boolean canApplyNormal();
+
+    /**
+     * Apply the normal operator.
+     * <p>
+     * This method computes {@code dst = A'.A.src}.
+     * </p>
+     * @param src - The source vector, it must belong to the input space of
+     *              the operator.
+     * @param dst - The destination vector, it must belong to the input space
+     *              of the operator.
+     * @throws IllegalArgumentException if the normal operator cannot be
+     *         applied (see {@link #canApplyNormal}).
+     */
+    public abstract void applyNormal(Vector src, Vector dst);
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,324 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.linalg;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+import mitiv.linalg.shaped.DoubleShapedVector;
+import mitiv.linalg.shaped.DoubleShapedVectorSpace;
+import mitiv.linalg.shaped.FloatShapedVector;
+import mitiv.linalg.shaped.FloatShapedVectorSpace;
+
+/**
+ * A workspace is an arena of temporary arrays and vectors.
+ *
+ * <p>
+ * Operators and cost functions need temporaries which are only used while
+ * they are applied.  Instead of owning private buffers, they can borrow
+ * them from a workspace and give them back when done; the memory used by
+ * temporaries is then that of the buffers which are simultaneously in use,
+ * not the sum of the buffers of all operators.  The idiom is:
+ * <pre>
+ *     float[] w = workspace.borrowFloats(n);
+ *     try {
+ *         // use w ...
+ *     } finally {
+ *         workspace.giveBack(w);
+ *     }</pre>
+ * The contents of a borrowed buffer are undefined.  A buffer must not be
+ * used after it has been given back, nor be given back twice.  A buffer
+ * which is not given back (e.g. because an exception was thrown) is simply
+ * left to the garbage collector.
+ * </p><p>
+ * Arrays are pooled by type and length.  Vectors of the shaped vector spaces
+ * of {@code float} or {@code double} are built on top of pooled arrays so
+ * that spaces with the same type and number of elements share their
+ * temporaries; other vectors are pooled by vector space.  A workspace can be
+ * used concurrently by several threads.
+ * </p><p>
+ * Pooled arrays and vectors are only softly referenced, they are reclaimed
+ * by the garbage collector when memory is needed.  The size of the pooled
+ * arrays is also limited (by default to one eighth of the memory available
+ * to the virtual machine, see {@link #setMaximumBytes}).
+ * </p>
+ */
+public final class Workspace {
+    private static final Workspace defaultWorkspace = new Workspace();
+
+    private final HashMap<Integer, ArrayList<PooledArray>> floats
+        = new HashMap<Integer, ArrayList<PooledArray>>();
+    private final HashMap<Integer, ArrayList<PooledArray>> doubles
+        = new HashMap<Integer, ArrayList<PooledArray>>();
+    private final ReferenceQueue<Object> reclaimed = new ReferenceQueue<Object>();
+    private final IdentityHashMap<VectorSpace, ArrayList<SoftReference<Vector>>> vectors
+        = new IdentityHashMap<VectorSpace, ArrayList<SoftReference<Vector>>>();
+    private long cachedBytes = 0; // size of the pooled arrays
+    private long maximumBytes = getDefaultMaximumBytes();
+
+    /* A soft reference to a pooled array.  The size of the array is kept
+       to account for the arrays reclaimed by the garbage collector. */
+    private static final class PooledArray extends SoftReference<Object> {
+        final ArrayList<PooledArray> list; // the list where it is pooled
+        final long bytes;
+        boolean counted = true; // is it counted in cachedBytes?
+
+        PooledArray(Object arr, long bytes, ArrayList<PooledArray> list,
+                ReferenceQueue<Object> queue) {
+            super(arr, queue);
+            this.list = list;
+            this.bytes = bytes;
+        }
+    }
+
+    /* Get the default maximum size of the pooled arrays. */
+    private static long getDefaultMaximumBytes() {
+        Runtime runtime = Runtime.getRuntime();
+        long memory = runtime.maxMemory();
+        if (memory == Long.MAX_VALUE) {
+            /* No limit, use the current size of the heap. */
+            memory = runtime.totalMemory();
+        }
+        return memory/8;
+    }
+
+    /**
+     * Create a new, empty, workspace.
+     */
+    public Workspace() {
+    }
+
+    /**
+     * Get the default workspace.
+     * @return The workspace shared by all operators which have not been
+     *         given a specific one.
+     */
+    public static Workspace getDefault() {
+        return defaultWorkspace;
+    }
+
+    /**
+     * Borrow an array of {@code float}'s.
+     * @param length - The number of elements.
+     * @return An array of {@code length} elements with undefined contents.
+     */
+    public float[] borrowFloats(int length) {
+        Object arr = borrow(floats, length);
+        return (arr != null ? (float[])arr : new float[length]);
+    }
+
+    /**
+     * Give back a borrowed array of {@code float}'s.
+     * @param arr - The array (may be {@code null}).
+     */
+    public void giveBack(float[] arr) {
+        if (arr != null) {
+            giveBack(floats, arr, arr.length, 4L*arr.length);
+        }
+    }
+
+    /**
+     * Borrow an array of {@code double}'s.
+     * @param length - The number of elements.
+     * @return An array of {@code length} elements with undefined contents.
+     */
+    public double[] borrowDoubles(int length) {
+        Object arr = borrow(doubles, length);
+        return (arr != null ? (double[])arr : new double[length]);
+    }
+
+    /**
+     * Give back a borrowed array of {@code double}'s.
+     * @param arr - The array (may be {@code null}).
+     */
+    public void giveBack(double[] arr) {
+        if (arr != null) {
+            giveBack(doubles, arr, arr.length, 8L*arr.length);
+        }
+    }
+
+    /* Take a pooled array of a given length, null if there are none. */
+    private synchronized Object borrow(HashMap<Integer, ArrayList<PooledArray>> pool,
+            int length) {
+        forgetReclaimed();
+        ArrayList<PooledArray> list = pool.get(length);
+        while (list != null && list.size() > 0) {
+            PooledArray ref = list.remove(list.size() - 1);
+            uncount(ref);
+            Object arr = ref.get();
+            if (arr != null) {
+                ref.clear();
+                return arr;
+            }
+        }
+        return null;
+    }
+
+    private synchronized void giveBack(HashMap<Integer, ArrayList<PooledArray>> pool,
+            Object arr, int length, long bytes) {
+        forgetReclaimed();
+        if (cachedBytes + bytes > maximumBytes) {
+            return;
+        }
+        ArrayList<PooledArray> list = pool.get(length);
+        if (list == null) {
+            list = new ArrayList<PooledArray>();
+            pool.put(length, list);
+        }
+        list.add(new PooledArray(arr, bytes, list, reclaimed));
+        cachedBytes += bytes;
+    }
+
+    /* Remove the arrays reclaimed by the garbage collector from the pool. */
+    private void forgetReclaimed() {
+        Reference<?> ref;
+        while ((ref = reclaimed.poll()) != null) {
+            PooledArray pooled = (PooledArray)ref;
+            if (pooled.counted) {
+                uncount(pooled);
+                pooled.list.remove(pooled);
+            }
+        }
+    }
+
+    private void uncount(PooledArray ref) {
+        if (ref.counted) {
+            ref.counted = false;
+            cachedBytes -= ref.bytes;
+        }
+    }
+
+    /**
+     * Borrow a vector.
+     * @param space - The vector space of the vector.
+     * @return A vector of {@code space} with undefined contents.
+     */
+    public Vector borrow(VectorSpace space) {
+        if (space instanceof FloatShapedVectorSpace) {
+            return ((FloatShapedVectorSpace)space).wrap(borrowFloats(space.getNumber()));
+        }
+        if (space instanceof DoubleShapedVectorSpace) {
+            return ((DoubleShapedVectorSpace)space).wrap(borrowDoubles(space.getNumber()));
+        }
+        synchronized (this) {
+            ArrayList<SoftReference<Vector>> list = vectors.get(space);
+            while (list != null && list.size() > 0) {
+                Vector vec = list.remove(list.size() - 1).get();
+                if (vec != null) {
+                    return vec;
+                }
+            }
+        }
+        return space.create();
+    }
+
+    /**
+     * Give back a borrowed vector.
+     * @param vec - The vector (may be {@code null}).
+     */
+    public void giveBack(Vector vec) {
+        if (vec instanceof FloatShapedVector) {
+            giveBack(((FloatShapedVector)vec).getData());
+        } else if (vec instanceof DoubleShapedVector) {
+            giveBack(((DoubleShapedVector)vec).getData());
+        } else if (vec != null) {
+            synchronized (this) {
+                VectorSpace space = vec.getSpace();
+                ArrayList<SoftReference<Vector>> list = vectors.get(space);
+                if (list == null) {
+                    list = new ArrayList<SoftReference<Vector>>();
+                    vectors.put(space, list);
+                }
+                list.add(new SoftReference<Vector>(vec));
+            }
+        }
+    }
+
+    /**
+     * Drop all pooled buffers.
+     */
+    public synchronized void clear() {
+        clear(floats);
+        clear(doubles);
+        vectors.clear();
+    }
+
+    private void clear(HashMap<Integer, ArrayList<PooledArray>> pool) {
+        for (ArrayList<PooledArray> list : pool.values()) {
+            for (PooledArray ref : list) {
+                uncount(ref);
+            }
+        }
+        pool.clear();
+    }
+
+    /**
+     * Get the size of the pooled arrays.
+     * @return The number of bytes of the arrays which are available for
+     *         borrowing.
+     */
+    public synchronized long getCachedBytes() {
+        forgetReclaimed();
+        return cachedBytes;
+    }
+
+    /**
+     * Limit the size of the pooled arrays.
+     * <p>
+     * Arrays given back while the pool is full are left to the garbage
+     * collector.  The default limit is one eighth of the maximum memory of
+     * the virtual machine.
+     * </p>
+     * @param size - The maximum number of bytes of the pooled arrays.
+     */
+    public synchronized void setMaximumBytes(long size) {
+        maximumBytes = Math.max(size, 0L);
+    }
+
+    /**
+     * Get the maximum size of the pooled arrays.
+     * @return The maximum number of bytes of the pooled arrays.
+     */
+    public synchronized long getMaximumBytes() {
+        return maximumBytes;
+    }
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
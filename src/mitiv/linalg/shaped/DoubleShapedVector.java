@@ -25,7 +25,12 @@
 
 package mitiv.linalg.shaped;
 
+import java.util.Spliterator;
+
 import mitiv.array.ShapedArray;
+import mitiv.array.impl.ChunkCursor;
+import mitiv.array.impl.ChunkSpliterator;
+import mitiv.array.impl.FlatDouble1D;
 import mitiv.linalg.ArrayOps;
 import mitiv.random.DoubleGenerator;
 
@@ -134,6 +139,11 @@ public class DoubleShapedVector extends ShapedVector {
             System.arraycopy(arrData, 0, data, 0, getNumber());
         }
     }
+
+    @Override
+    public Spliterator.OfDouble spliterator() {
+        return new ChunkSpliterator.OfDouble(new ChunkCursor(new FlatDouble1D(data, number)));
+    }
 }
 
 /*
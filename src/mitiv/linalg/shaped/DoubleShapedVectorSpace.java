@@ -25,6 +25,7 @@
 
 package mitiv.linalg.shaped;
 
+import mitiv.array.ArrayUtils;
 import mitiv.array.DoubleArray;
 import mitiv.array.ShapedArray;
 import mitiv.base.Shape;
@@ -85,8 +86,26 @@ public class DoubleShapedVectorSpace extends ShapedVectorSpace {
         /* Verify shape, then convert to correct data type and avoid forcing a
          * copy if conversion yields a different array. */
         checkShape(arr);
-        DoubleArray tmp = arr.toDouble();
-        return new DoubleShapedVector(this, tmp.flatten(forceCopy && tmp == arr));
+        if (arr.getType() == DOUBLE) {
+            return new DoubleShapedVector(this, ((DoubleArray)arr).flatten(forceCopy));
+        }
+        if (arr.getType() == BYTE) {
+            /* Bytes are converted as signed values by toDouble(), unlike
+             * ArrayUtils.convert which assumes they are unsigned. */
+            return new DoubleShapedVector(this, arr.toDouble().flatten(false));
+        }
+        /* Convert directly into the storage of the new vector. */
+        DoubleShapedVector vec = new DoubleShapedVector(this);
+        ArrayUtils.convert(arr, vec);
+        return vec;
+    }
+
+    @Override
+    public DoubleShapedVector create(ShapedArray arr, double scale, double bias) {
+        checkShape(arr);
+        DoubleShapedVector vec = new DoubleShapedVector(this);
+        ArrayUtils.convert(arr, vec, scale, bias);
+        return vec;
     }
 
     /**
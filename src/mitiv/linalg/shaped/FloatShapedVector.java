@@ -25,7 +25,12 @@
 
 package mitiv.linalg.shaped;
 
+import java.util.Spliterator;
+
 import mitiv.array.ShapedArray;
+import mitiv.array.impl.ChunkCursor;
+import mitiv.array.impl.ChunkSpliterator;
+import mitiv.array.impl.FlatFloat1D;
 import mitiv.linalg.ArrayOps;
 import mitiv.random.FloatGenerator;
 
@@ -147,6 +152,11 @@ public class FloatShapedVector extends ShapedVector {
         }
     }
 
+    @Override
+    public Spliterator.OfDouble spliterator() {
+        return new ChunkSpliterator.OfFloat(new ChunkCursor(new FlatFloat1D(data, number)));
+    }
+
 }
 
 /*
@@ -25,6 +25,7 @@
 
 package mitiv.linalg.shaped;
 
+import mitiv.array.ArrayUtils;
 import mitiv.array.FloatArray;
 import mitiv.array.ShapedArray;
 import mitiv.base.Shape;
@@ -85,8 +86,26 @@ public class FloatShapedVectorSpace extends ShapedVectorSpace {
         /* Verify shape, then convert to correct data type and avoid forcing a
          * copy if conversion yields a different array. */
         checkShape(arr);
-        FloatArray tmp = arr.toFloat();
-        return new FloatShapedVector(this, tmp.flatten(forceCopy && tmp == arr));
+        if (arr.getType() == FLOAT) {
+            return new FloatShapedVector(this, ((FloatArray)arr).flatten(forceCopy));
+        }
+        if (arr.getType() == BYTE) {
+            /* Bytes are converted as signed values by toFloat(), unlike
+             * ArrayUtils.convert which assumes they are unsigned. */
+            return new FloatShapedVector(this, arr.toFloat().flatten(false));
+        }
+        /* Convert directly into the storage of the new vector. */
+        FloatShapedVector vec = new FloatShapedVector(this);
+        ArrayUtils.convert(arr, vec);
+        return vec;
+    }
+
+    @Override
+    public FloatShapedVector create(ShapedArray arr, double scale, double bias) {
+        checkShape(arr);
+        FloatShapedVector vec = new FloatShapedVector(this);
+        ArrayUtils.convert(arr, vec, scale, bias);
+        return vec;
     }
 
     /**
@@ -0,0 +1,150 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.linalg.shaped;
+
+import java.util.Spliterator;
+
+import mitiv.array.HalfArray;
+import mitiv.array.ShapedArray;
+import mitiv.array.impl.ChunkCursor;
+import mitiv.array.impl.ChunkSpliterator;
+import mitiv.array.impl.FlatShort1D;
+import mitiv.base.Half;
+import mitiv.base.Parallel;
+
+/**
+ * Class for vectors which belongs to an instance of the
+ * HalfShapedVectorSpace class.
+ *
+ * Implements (flat) vectors of reals stored in half precision (see
+ * {@link Half}).
+ */
+public class HalfShapedVector extends ShapedVector {
+    protected short[] data;
+
+    /**
+     * Create a new instance of a HalfShapedVector with its own storage.
+     *
+     * @param owner   The vector space of the result.
+     */
+    public HalfShapedVector(HalfShapedVectorSpace owner) {
+        super(owner);
+        data = new short[owner.getNumber()];
+    }
+
+    /**
+     * Wrap an array of half precision values into a HalfShapedVector.
+     *
+     * The created vector will share its storage with the provided array.
+     *
+     * @param owner  The vector space of the result.
+     * @param data   The input data.
+     * @throws IllegalArgumentException The length of the input array does not match
+     *                                  the size of the vector space.
+     */
+    public HalfShapedVector(HalfShapedVectorSpace owner, short[] data) {
+        super(owner);
+        if (data == null || data.length != owner.getNumber()) {
+            throw new IllegalArgumentException("Array size not compatible with vector space.");
+        }
+        this.data = data;
+    }
+
+    @Override
+    public HalfShapedVectorSpace getOwner() {
+        return (HalfShapedVectorSpace)space;
+    }
+
+    @Override
+    public HalfShapedVectorSpace getSpace() {
+        return getOwner();
+    }
+
+    @Override
+    public final double get(int i) {
+        return Half.toFloat(data[i]);
+    }
+
+    @Override
+    public final void set(int i, double value) {
+        data[i] = Half.fromFloat((float)value);
+    }
+
+    /**
+     * Get the array of half precision values which store the coefficients
+     * of the vector.
+     *
+     * @return the array of vector coefficients.
+     */
+    public short[] getData() {
+        return data;
+    }
+
+    /**
+     * Get the coefficients of the vector as a half precision array.
+     *
+     * @return A half precision array which shares its storage with the
+     *         vector.
+     */
+    public HalfArray asHalfArray() {
+        return new HalfArray(data, getShape());
+    }
+
+    @Override
+    public HalfShapedVector clone() {
+        return ((HalfShapedVectorSpace)space)._clone(this);
+    }
+
+    @Override
+    public void assign(ShapedArray arr) {
+        ((ShapedVectorSpace)space).checkShape(arr);
+        final float[] arrData = arr.toFloat().flatten(false);
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                Half.fromFloat(arrData, first, data, first, last - first);
+            }
+        });
+    }
+
+    @Override
+    public Spliterator.OfDouble spliterator() {
+        return new ChunkSpliterator.OfHalf(new ChunkCursor(new FlatShort1D(data, number)));
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
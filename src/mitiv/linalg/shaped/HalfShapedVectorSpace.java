@@ -0,0 +1,350 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.linalg.shaped;
+
+import mitiv.array.ArrayUtils;
+import mitiv.array.ShapedArray;
+import mitiv.base.Half;
+import mitiv.base.Parallel;
+import mitiv.base.Shape;
+import mitiv.linalg.Vector;
+
+/**
+ * Class vector spaces which own instances of the HalfShapedVector class.
+ *
+ * <p>
+ * The coefficients of the vectors are stored in half precision (see
+ * {@link Half}), which takes half the memory of single precision and
+ * halves the memory bandwidth of the vector operations.  The operations
+ * convert the values on the fly: linear combinations are computed in
+ * single precision and rounded to half precision when stored, dot products
+ * and norms are accumulated in double precision.
+ * </p>
+ */
+public class HalfShapedVectorSpace extends ShapedVectorSpace {
+
+    public HalfShapedVectorSpace(Shape shape) {
+        super(HALF, shape);
+    }
+
+    public HalfShapedVectorSpace(int[] dims) {
+        super(HALF, dims);
+    }
+
+    public HalfShapedVectorSpace(int dim1) {
+        super(HALF, dim1);
+    }
+
+    public HalfShapedVectorSpace(int dim1, int dim2) {
+        super(HALF, dim1, dim2);
+    }
+
+    public HalfShapedVectorSpace(int dim1, int dim2, int dim3) {
+        super(HALF, dim1, dim2, dim3);
+    }
+
+    public HalfShapedVectorSpace(int dim1, int dim2, int dim3, int dim4) {
+        super(HALF, dim1, dim2, dim3, dim4);
+    }
+
+    @Override
+    public HalfShapedVector create() {
+        return new HalfShapedVector(this);
+    }
+
+    @Override
+    public HalfShapedVector create(double value) {
+        HalfShapedVector v = new HalfShapedVector(this);
+        _fill(v, value);
+        return v;
+    }
+
+    @Override
+    public HalfShapedVector create(ShapedArray arr) {
+        HalfShapedVector v = new HalfShapedVector(this);
+        v.assign(arr);
+        return v;
+    }
+
+    /**
+     * Create a new vector initialized with the contents of an array.
+     *
+     * <p>
+     * The values are always copied (and rounded to half precision) whatever
+     * the value of {@code forceCopy}.
+     * </p>
+     */
+    @Override
+    public HalfShapedVector create(ShapedArray arr, boolean forceCopy) {
+        return create(arr);
+    }
+
+    @Override
+    public HalfShapedVector create(ShapedArray arr, double scale, double bias) {
+        checkShape(arr);
+        HalfShapedVector v = new HalfShapedVector(this);
+        ArrayUtils.convert(arr, v, scale, bias);
+        return v;
+    }
+
+    public HalfShapedVector clone(HalfShapedVector vec) {
+        check(vec);
+        return _clone(vec);
+    }
+
+    protected HalfShapedVector _clone(HalfShapedVector vec) {
+        HalfShapedVector cpy = new HalfShapedVector(this);
+        _copy(vec, cpy);
+        return cpy;
+    }
+
+    @Override
+    public HalfShapedVector clone(Vector vec) {
+        check(vec);
+        return _clone(vec);
+    }
+
+    @Override
+    protected HalfShapedVector _clone(Vector vec) {
+        return _clone((HalfShapedVector)vec);
+    }
+
+    @Override
+    protected HalfShapedVector _clone(ShapedVector vec) {
+        return _clone((HalfShapedVector)vec);
+    }
+
+    public HalfShapedVector wrap(short[] x) {
+        return new HalfShapedVector(this, x);
+    }
+
+    private static short[] getData(Vector v) {
+        return ((HalfShapedVector)v).getData();
+    }
+
+    @Override
+    protected void _copy(Vector src, Vector dst) {
+        System.arraycopy(getData(src), 0, getData(dst), 0, number);
+    }
+
+    @Override
+    protected void _swap(Vector vx, Vector vy) {
+        short[] x = getData(vx);
+        short[] y = getData(vy);
+        for (int j = 0; j < number; ++j) {
+            short a = x[j];
+            x[j] = y[j];
+            y[j] = a;
+        }
+    }
+
+    @Override
+    protected void _fill(Vector vx, double alpha) {
+        final short[] x = getData(vx);
+        final short value = Half.fromFloat((float)alpha);
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    x[j] = value;
+                }
+            }
+        });
+    }
+
+    @Override
+    protected double _dot(Vector vx, Vector vy) {
+        final short[] x = getData(vx);
+        final short[] y = getData(vy);
+        return Parallel.reduce(number, new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                double result = 0.0;
+                for (int j = first; j < last; ++j) {
+                    result += (double)Half.toFloat(x[j])*Half.toFloat(y[j]);
+                }
+                return result;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return left + right;
+            }
+        });
+    }
+
+    @Override
+    protected double _norm2(Vector vx) {
+        final short[] x = getData(vx);
+        double s = Parallel.reduce(number, new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                double result = 0.0;
+                for (int j = first; j < last; ++j) {
+                    double value = Half.toFloat(x[j]);
+                    result += value*value;
+                }
+                return result;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return left + right;
+            }
+        });
+        return Math.sqrt(s);
+    }
+
+    @Override
+    protected double _norm1(Vector vx) {
+        final short[] x = getData(vx);
+        return Parallel.reduce(number, new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                double result = 0.0;
+                for (int j = first; j < last; ++j) {
+                    result += Math.abs(Half.toFloat(x[j]));
+                }
+                return result;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return left + right;
+            }
+        });
+    }
+
+    @Override
+    protected double _normInf(Vector vx) {
+        final short[] x = getData(vx);
+        return Parallel.reduce(number, new Parallel.Reduction<Double>() {
+            @Override
+            public Double compute(int first, int last) {
+                float result = 0.0F;
+                for (int j = first; j < last; ++j) {
+                    float value = Math.abs(Half.toFloat(x[j]));
+                    if (value > result) {
+                        result = value;
+                    }
+                }
+                return (double)result;
+            }
+
+            @Override
+            public Double combine(Double left, Double right) {
+                return Math.max(left, right);
+            }
+        });
+    }
+
+    @Override
+    protected void _axpby(double alpha, Vector x, double beta, Vector y) {
+        _axpby(alpha, x, beta, y, y);
+    }
+
+    @Override
+    protected void _axpby(double alpha, Vector vx, double beta, Vector vy,
+            Vector vdst) {
+        final short[] x = getData(vx);
+        final short[] y = getData(vy);
+        final short[] dst = getData(vdst);
+        final float a = (float)alpha;
+        final float b = (float)beta;
+        if (beta == 0.0) {
+            /* Job: DST = ALPHA*X (the contents of Y is ignored) */
+            if (alpha == 1.0) {
+                if (dst != x) {
+                    System.arraycopy(x, 0, dst, 0, number);
+                }
+                return;
+            }
+            Parallel.run(number, new Parallel.Loop() {
+                @Override
+                public void run(int first, int last) {
+                    for (int j = first; j < last; ++j) {
+                        dst[j] = Half.fromFloat(a*Half.toFloat(x[j]));
+                    }
+                }
+            });
+        } else if (alpha == 0.0) {
+            /* Job: DST = BETA*Y (the contents of X is ignored) */
+            Parallel.run(number, new Parallel.Loop() {
+                @Override
+                public void run(int first, int last) {
+                    for (int j = first; j < last; ++j) {
+                        dst[j] = Half.fromFloat(b*Half.toFloat(y[j]));
+                    }
+                }
+            });
+        } else {
+            Parallel.run(number, new Parallel.Loop() {
+                @Override
+                public void run(int first, int last) {
+                    for (int j = first; j < last; ++j) {
+                        dst[j] = Half.fromFloat(a*Half.toFloat(x[j])
+                                              + b*Half.toFloat(y[j]));
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    protected void _axpbypcz(double alpha, Vector vx, double beta, Vector vy,
+            double gamma, Vector vz, Vector vdst) {
+        final short[] x = getData(vx);
+        final short[] y = getData(vy);
+        final short[] z = getData(vz);
+        final short[] dst = getData(vdst);
+        final float a = (float)alpha;
+        final float b = (float)beta;
+        final float c = (float)gamma;
+        Parallel.run(number, new Parallel.Loop() {
+            @Override
+            public void run(int first, int last) {
+                for (int j = first; j < last; ++j) {
+                    dst[j] = Half.fromFloat(a*Half.toFloat(x[j])
+                                          + b*Half.toFloat(y[j])
+                                          + c*Half.toFloat(z[j]));
+                }
+            }
+        });
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
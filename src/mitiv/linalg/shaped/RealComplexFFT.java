@@ -27,6 +27,7 @@ package mitiv.linalg.shaped;
 import mitiv.base.Shape;
 import mitiv.linalg.LinearOperator;
 import mitiv.linalg.Vector;
+import mitiv.utils.FFTPlanCache;
 
 /* The following lines are for the 3.0 version of JTransforms. */
 import org.jtransforms.fft.DoubleFFT_1D;
@@ -46,22 +47,53 @@ import org.jtransforms.fft.FloatFFT_3D;
 
 /**
  * Emulate real-complex FFT-1D/2D/3D.
- * 
+ *
+ * <p>
+ * By default, the output space has the same dimensions as the input space
+ * except that the first one is doubled to store the real and imaginary parts
+ * of all the frequencies.  In <i>half-spectrum</i> mode (see
+ * {@link #RealComplexFFT(ShapedVectorSpace, boolean)}), the Hermitian
+ * symmetry of the transform of real data is exploited and only the
+ * frequencies {@code 0, 1, ..., dim1/2} along the first dimension are
+ * stored (with interleaved real and imaginary parts), the output space is
+ * given by {@link #halfComplexSpace(ShapedVectorSpace)}.  This roughly halves
+ * the memory and the number of operations.
+ * </p><p>
+ * In half-spectrum mode, the {@code INVERSE} operation assumes that its
+ * argument is the transform of real data.  The {@code ADJOINT} operation is
+ * the true adjoint of the {@code DIRECT} operation for the usual inner
+ * product of the half-spectrum vectors, hence the frequencies which stand
+ * for two frequencies of the full spectrum have weights of 1/2.
+ * </p>
+ *
  * @author Éric and Jonathan
  */
 public class RealComplexFFT extends ShapedLinearOperator {
 
     private Object xform = null;
-    private double[] tempDouble = null;
-    private float[] tempFloat = null;
     private final int number; // number of values in the direct space
     private final int rank; // number of dimensions
     private final Shape shape; // shape in the direct space
     private final boolean single;
+    private final boolean half; // only store half of the spectrum?
+    private final int dim1; // first dimension in the direct space
+    private final int halfDim1; // first (complex) dimension of the half spectrum
+    private Object[] halfXform = null; // 1D transforms for each dimension
     public boolean useSystemArrayCopy = false;
 
     public RealComplexFFT(ShapedVectorSpace space) {
-        super(space, complexSpace(space));
+        this(space, false);
+    }
+
+    /**
+     * Create a real-complex FFT operator.
+     *
+     * @param space        - The input space (of real values).
+     * @param halfSpectrum - True to only store the non-redundant half of
+     *                       the spectrum.
+     */
+    public RealComplexFFT(ShapedVectorSpace space, boolean halfSpectrum) {
+        super(space, (halfSpectrum ? halfComplexSpace(space) : complexSpace(space)));
         this.number = space.getNumber();
         this.shape = space.getShape();
         single = (space.getType() == FLOAT);
@@ -69,6 +101,17 @@ public class RealComplexFFT extends ShapedLinearOperator {
         if (this.rank < 1 || this.rank > 3) {
             throw new IllegalArgumentException("Only 1D, 2D or 3D transforms supported");
         }
+        half = halfSpectrum;
+        dim1 = shape.dimension(0);
+        halfDim1 = dim1/2 + 1;
+    }
+
+    /**
+     * Check whether only half of the spectrum is stored.
+     * @return True if the operator is in half-spectrum mode.
+     */
+    public boolean isHalfSpectrum() {
+        return half;
     }
 
     static private ShapedVectorSpace complexSpace(ShapedVectorSpace realSpace) {
@@ -91,55 +134,91 @@ public class RealComplexFFT extends ShapedLinearOperator {
         return complexSpace;
     }
 
+    /**
+     * Get the space of half-spectra for a given space of real values.
+     *
+     * @param realSpace - The space of real values.
+     * @return A vector space with the same dimensions as {@code realSpace}
+     *         except the first one which is {@code 2*(dim1/2 + 1)} (real and
+     *         imaginary parts of the non-redundant frequencies).
+     */
+    public static ShapedVectorSpace halfComplexSpace(ShapedVectorSpace realSpace) {
+        if (realSpace.getRank() < 1) {
+            throw new IllegalArgumentException("Rank must be at least 1 for the FFT.");
+        }
+        int[] complexDims = realSpace.getShape().copyDimensions();
+        complexDims[0] = 2*(complexDims[0]/2 + 1);
+        Shape complexShape = Shape.make(complexDims);
+        int type = realSpace.getType();
+        if (type == FLOAT) {
+            return new FloatShapedVectorSpace(complexShape);
+        } else if (type == DOUBLE) {
+            return new DoubleShapedVectorSpace(complexShape);
+        } else {
+            throw new IllegalArgumentException("Only float or double supported");
+        }
+    }
+
     @Override
     protected void privApply(Vector src, Vector dst, int job) {
+        if (half) {
+            if (single) {
+                applyHalf(((FloatShapedVector)src).getData(),
+                        ((FloatShapedVector)dst).getData(), job);
+            } else {
+                applyHalf(((DoubleShapedVector)src).getData(),
+                        ((DoubleShapedVector)dst).getData(), job);
+            }
+            return;
+        }
         if (single) {
             /* Single precision version of the code. */
             if (xform == null) {
                 /* Create low-level FFT operator. */
                 if (rank == 1) {
-                    xform = new FloatFFT_1D(shape.dimension(0));
+                    xform = FFTPlanCache.getFloatFFT_1D(shape.dimension(0));
                 } else if (rank == 2) {
-                    xform = new FloatFFT_2D(shape.dimension(1), shape.dimension(0));
+                    xform = FFTPlanCache.getFloatFFT_2D(shape.dimension(1), shape.dimension(0));
                 } else {
-                    xform = new FloatFFT_3D(shape.dimension(2), shape.dimension(1), shape.dimension(0));
+                    xform = FFTPlanCache.getFloatFFT_3D(shape.dimension(2), shape.dimension(1), shape.dimension(0));
                 }
             }
-            if (tempFloat == null) {
-                tempFloat = new float[2*number];
-            }
-            float[] w = tempFloat;
             float[] x = ((FloatShapedVector)src).getData();
             float[] y = ((FloatShapedVector)dst).getData();
             if (job == LinearOperator.ADJOINT || job == LinearOperator.INVERSE) {
-                if (useSystemArrayCopy) {
-                    System.arraycopy(x, 0, w, 0, 2*number);
-                } else {
-                    for (int k = 0; k < number; ++k) {
-                        int real = k + k;
-                        int imag = real + 1;
-                        w[real] = x[real];
-                        w[imag] = x[imag];
+                float[] w = workspace.borrowFloats(2*number);
+                try {
+                    if (useSystemArrayCopy) {
+                        System.arraycopy(x, 0, w, 0, 2*number);
+                    } else {
+                        for (int k = 0; k < number; ++k) {
+                            int real = k + k;
+                            int imag = real + 1;
+                            w[real] = x[real];
+                            w[imag] = x[imag];
+                        }
                     }
-                }
-                if (rank == 1) {
-                    ((FloatFFT_1D)xform).complexInverse(w, false);
-                } else if (rank == 2) {
-                    ((FloatFFT_2D)xform).complexInverse(w, false);
-                } else {
-                    ((FloatFFT_3D)xform).complexInverse(w, false);
-                }
-                if (job == LinearOperator.INVERSE) {
-                    /* Copy real part with scaling in the destination array. */
-                    float s = 1.0F/number;
-                    for (int k = 0; k < number; ++k) {
-                        y[k] = s*w[2*k];
+                    if (rank == 1) {
+                        ((FloatFFT_1D)xform).complexInverse(w, false);
+                    } else if (rank == 2) {
+                        ((FloatFFT_2D)xform).complexInverse(w, false);
+                    } else {
+                        ((FloatFFT_3D)xform).complexInverse(w, false);
                     }
-                } else {
-                    /* Copy real part in the destination array. */
-                    for (int k = 0; k < number; ++k) {
-                        y[k] = w[2*k];
+                    if (job == LinearOperator.INVERSE) {
+                        /* Copy real part with scaling in the destination array. */
+                        float s = 1.0F/number;
+                        for (int k = 0; k < number; ++k) {
+                            y[k] = s*w[2*k];
+                        }
+                    } else {
+                        /* Copy real part in the destination array. */
+                        for (int k = 0; k < number; ++k) {
+                            y[k] = w[2*k];
+                        }
                     }
+                } finally {
+                    workspace.giveBack(w);
                 }
             } else {
                 if (job == LinearOperator.DIRECT) {
@@ -168,48 +247,49 @@ public class RealComplexFFT extends ShapedLinearOperator {
             if (xform == null) {
                 /* Create low-level FFT operator. */
                 if (rank == 1) {
-                    xform = new DoubleFFT_1D(shape.dimension(0));
+                    xform = FFTPlanCache.getDoubleFFT_1D(shape.dimension(0));
                 } else if (rank == 2) {
-                    xform = new DoubleFFT_2D(shape.dimension(1), shape.dimension(0));
+                    xform = FFTPlanCache.getDoubleFFT_2D(shape.dimension(1), shape.dimension(0));
                 } else {
-                    xform = new DoubleFFT_3D(shape.dimension(2), shape.dimension(1), shape.dimension(0));
+                    xform = FFTPlanCache.getDoubleFFT_3D(shape.dimension(2), shape.dimension(1), shape.dimension(0));
                 }
             }
-            if (tempDouble == null) {
-                tempDouble = new double[2*number];
-            }
-            double[] w = tempDouble;
             double[] x = ((DoubleShapedVector)src).getData();
             double[] y = ((DoubleShapedVector)dst).getData();
             if (job == LinearOperator.ADJOINT || job == LinearOperator.INVERSE) {
-                if (useSystemArrayCopy) {
-                    System.arraycopy(x, 0, w, 0, 2*number);
-                } else {
-                    for (int k = 0; k < number; ++k) {
-                        int real = k + k;
-                        int imag = real + 1;
-                        w[real] = x[real];
-                        w[imag] = x[imag];
+                double[] w = workspace.borrowDoubles(2*number);
+                try {
+                    if (useSystemArrayCopy) {
+                        System.arraycopy(x, 0, w, 0, 2*number);
+                    } else {
+                        for (int k = 0; k < number; ++k) {
+                            int real = k + k;
+                            int imag = real + 1;
+                            w[real] = x[real];
+                            w[imag] = x[imag];
+                        }
                     }
-                }
-                if (rank == 1) {
-                    ((DoubleFFT_1D)xform).complexInverse(w, false);
-                } else if (rank == 2) {
-                    ((DoubleFFT_2D)xform).complexInverse(w, false);
-                } else {
-                    ((DoubleFFT_3D)xform).complexInverse(w, false);
-                }
-                if (job == LinearOperator.INVERSE) {
-                    /* Copy real part with scaling in the destination array. */
-                    double s = 1.0/number;
-                    for (int k = 0; k < number; ++k) {
-                        y[k] = s*w[2*k];
+                    if (rank == 1) {
+                        ((DoubleFFT_1D)xform).complexInverse(w, false);
+                    } else if (rank == 2) {
+                        ((DoubleFFT_2D)xform).complexInverse(w, false);
+                    } else {
+                        ((DoubleFFT_3D)xform).complexInverse(w, false);
                     }
-                } else {
-                    /* Copy real part in the destination array. */
-                    for (int k = 0; k < number; ++k) {
-                        y[k] = w[2*k];
+                    if (job == LinearOperator.INVERSE) {
+                        /* Copy real part with scaling in the destination array. */
+                        double s = 1.0/number;
+                        for (int k = 0; k < number; ++k) {
+                            y[k] = s*w[2*k];
+                        }
+                    } else {
+                        /* Copy real part in the destination array. */
+                        for (int k = 0; k < number; ++k) {
+                            y[k] = w[2*k];
+                        }
                     }
+                } finally {
+                    workspace.giveBack(w);
                 }
             } else {
                 if (job == LinearOperator.DIRECT) {
@@ -235,6 +315,240 @@ public class RealComplexFFT extends ShapedLinearOperator {
             }
         }
     }
+
+    /* Half-spectrum transform of float's (x is the source, y the destination). */
+    private void applyHalf(float[] x, float[] y, int job) {
+        if (halfXform == null) {
+            halfXform = new Object[rank];
+            for (int k = 0; k < rank; ++k) {
+                halfXform[k] = FFTPlanCache.getFloatFFT_1D(shape.dimension(k));
+            }
+        }
+        FloatFFT_1D xform1 = (FloatFFT_1D)halfXform[0];
+        int lines = number/dim1;
+        int length = 2*halfDim1;
+        if (job == LinearOperator.ADJOINT || job == LinearOperator.INVERSE) {
+            /* Complex-to-real transform. */
+            float[] w = workspace.borrowFloats(length*lines);
+            try {
+                System.arraycopy(x, 0, w, 0, length*lines);
+                if (job == LinearOperator.ADJOINT) {
+                    weightHalf(w, 0.5F);
+                }
+                transformOtherDimensions(w, false);
+                for (int line = 0; line < lines; ++line) {
+                    int offset = length*line;
+                    if (dim1 > 1) {
+                        /* Pack the real part of the last frequency or the
+                         * imaginary part of the last frequency (depending on
+                         * the parity of the length) in the slot of the
+                         * imaginary part of the 0-th frequency. */
+                        w[offset + 1] = w[offset + dim1];
+                    }
+                    xform1.realInverse(w, offset, true);
+                    System.arraycopy(w, offset, y, dim1*line, dim1);
+                }
+            } finally {
+                workspace.giveBack(w);
+            }
+            /* The real inverse FFT along the 1st dimension is normalized
+             * (its unnormalized version does not scale the result in the
+             * same way for lengths which are powers of two), the complex
+             * ones along the other dimensions are not. */
+            float s = (job == LinearOperator.INVERSE ? 1.0F/lines : (float)dim1);
+            for (int k = 0; k < number; ++k) {
+                y[k] *= s;
+            }
+        } else {
+            /* Real-to-complex transform. */
+            for (int line = 0; line < lines; ++line) {
+                int offset = length*line;
+                System.arraycopy(x, dim1*line, y, offset, dim1);
+                xform1.realForward(y, offset);
+                /* Unpack the result (see the packing above). */
+                if (dim1 > 1) {
+                    y[offset + dim1] = y[offset + 1];
+                }
+                y[offset + 1] = 0.0F;
+                if (dim1%2 == 0) {
+                    y[offset + dim1 + 1] = 0.0F;
+                }
+            }
+            transformOtherDimensions(y, true);
+            if (job != LinearOperator.DIRECT) {
+                /* Scale for the adjoint of the inverse. */
+                int size = length*lines;
+                float s = 1.0F/number;
+                for (int k = 0; k < size; ++k) {
+                    y[k] *= s;
+                }
+                weightHalf(y, 2.0F);
+            }
+        }
+    }
+
+    /* Multiply the frequencies which stand for two frequencies of the full
+     * spectrum by a given factor. */
+    private void weightHalf(float[] z, float factor) {
+        int lines = number/dim1;
+        int length = 2*halfDim1;
+        int last = (dim1%2 == 0 ? halfDim1 - 1 : halfDim1);
+        for (int line = 0; line < lines; ++line) {
+            int offset = length*line;
+            for (int k = 2; k < 2*last; ++k) {
+                z[offset + k] *= factor;
+            }
+        }
+    }
+
+    /* Apply complex transforms along all dimensions but the first one. */
+    private void transformOtherDimensions(float[] z, boolean forward) {
+        int stride = halfDim1; // stride (in complex values) along dimension k
+        int total = halfDim1*(number/dim1); // total number of complex values
+        for (int k = 1; k < rank; ++k) {
+            int n = shape.dimension(k);
+            if (n > 1) {
+                FloatFFT_1D xform = (FloatFFT_1D)halfXform[k];
+                float[] buf = new float[2*n];
+                int step = stride*n;
+                for (int outer = 0; outer < total; outer += step) {
+                    for (int inner = outer; inner < outer + stride; ++inner) {
+                        for (int j = 0, i = 2*inner; j < 2*n; j += 2, i += 2*stride) {
+                            buf[j] = z[i];
+                            buf[j+1] = z[i+1];
+                        }
+                        if (forward) {
+                            xform.complexForward(buf);
+                        } else {
+                            xform.complexInverse(buf, false);
+                        }
+                        for (int j = 0, i = 2*inner; j < 2*n; j += 2, i += 2*stride) {
+                            z[i] = buf[j];
+                            z[i+1] = buf[j+1];
+                        }
+                    }
+                }
+            }
+            stride *= n;
+        }
+    }
+
+    /* Half-spectrum transform of double's (x is the source, y the destination). */
+    private void applyHalf(double[] x, double[] y, int job) {
+        if (halfXform == null) {
+            halfXform = new Object[rank];
+            for (int k = 0; k < rank; ++k) {
+                halfXform[k] = FFTPlanCache.getDoubleFFT_1D(shape.dimension(k));
+            }
+        }
+        DoubleFFT_1D xform1 = (DoubleFFT_1D)halfXform[0];
+        int lines = number/dim1;
+        int length = 2*halfDim1;
+        if (job == LinearOperator.ADJOINT || job == LinearOperator.INVERSE) {
+            /* Complex-to-real transform. */
+            double[] w = workspace.borrowDoubles(length*lines);
+            try {
+                System.arraycopy(x, 0, w, 0, length*lines);
+                if (job == LinearOperator.ADJOINT) {
+                    weightHalf(w, 0.5);
+                }
+                transformOtherDimensions(w, false);
+                for (int line = 0; line < lines; ++line) {
+                    int offset = length*line;
+                    if (dim1 > 1) {
+                        /* Pack the real part of the last frequency or the
+                         * imaginary part of the last frequency (depending on
+                         * the parity of the length) in the slot of the
+                         * imaginary part of the 0-th frequency. */
+                        w[offset + 1] = w[offset + dim1];
+                    }
+                    xform1.realInverse(w, offset, true);
+                    System.arraycopy(w, offset, y, dim1*line, dim1);
+                }
+            } finally {
+                workspace.giveBack(w);
+            }
+            /* The real inverse FFT along the 1st dimension is normalized
+             * (its unnormalized version does not scale the result in the
+             * same way for lengths which are powers of two), the complex
+             * ones along the other dimensions are not. */
+            double s = (job == LinearOperator.INVERSE ? 1.0/lines : dim1);
+            for (int k = 0; k < number; ++k) {
+                y[k] *= s;
+            }
+        } else {
+            /* Real-to-complex transform. */
+            for (int line = 0; line < lines; ++line) {
+                int offset = length*line;
+                System.arraycopy(x, dim1*line, y, offset, dim1);
+                xform1.realForward(y, offset);
+                /* Unpack the result (see the packing above). */
+                if (dim1 > 1) {
+                    y[offset + dim1] = y[offset + 1];
+                }
+                y[offset + 1] = 0.0;
+                if (dim1%2 == 0) {
+                    y[offset + dim1 + 1] = 0.0;
+                }
+            }
+            transformOtherDimensions(y, true);
+            if (job != LinearOperator.DIRECT) {
+                /* Scale for the adjoint of the inverse. */
+                int size = length*lines;
+                double s = 1.0/number;
+                for (int k = 0; k < size; ++k) {
+                    y[k] *= s;
+                }
+                weightHalf(y, 2.0);
+            }
+        }
+    }
+
+    /* Multiply the frequencies which stand for two frequencies of the full
+     * spectrum by a given factor. */
+    private void weightHalf(double[] z, double factor) {
+        int lines = number/dim1;
+        int length = 2*halfDim1;
+        int last = (dim1%2 == 0 ? halfDim1 - 1 : halfDim1);
+        for (int line = 0; line < lines; ++line) {
+            int offset = length*line;
+            for (int k = 2; k < 2*last; ++k) {
+                z[offset + k] *= factor;
+            }
+        }
+    }
+
+    /* Apply complex transforms along all dimensions but the first one. */
+    private void transformOtherDimensions(double[] z, boolean forward) {
+        int stride = halfDim1; // stride (in complex values) along dimension k
+        int total = halfDim1*(number/dim1); // total number of complex values
+        for (int k = 1; k < rank; ++k) {
+            int n = shape.dimension(k);
+            if (n > 1) {
+                DoubleFFT_1D xform = (DoubleFFT_1D)halfXform[k];
+                double[] buf = new double[2*n];
+                int step = stride*n;
+                for (int outer = 0; outer < total; outer += step) {
+                    for (int inner = outer; inner < outer + stride; ++inner) {
+                        for (int j = 0, i = 2*inner; j < 2*n; j += 2, i += 2*stride) {
+                            buf[j] = z[i];
+                            buf[j+1] = z[i+1];
+                        }
+                        if (forward) {
+                            xform.complexForward(buf);
+                        } else {
+                            xform.complexInverse(buf, false);
+                        }
+                        for (int j = 0, i = 2*inner; j < 2*n; j += 2, i += 2*stride) {
+                            z[i] = buf[j];
+                            z[i+1] = buf[j+1];
+                        }
+                    }
+                }
+            }
+            stride *= n;
+        }
+    }
 }
 
 /*
@@ -25,6 +25,10 @@
 
 package mitiv.linalg.shaped;
 
+import java.util.Spliterator;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
 import mitiv.array.ShapedArray;
 import mitiv.base.ArrayDescriptor;
 import mitiv.base.Shape;
@@ -93,6 +97,28 @@ public abstract class ShapedVector extends Vector implements Shaped, Typed {
      */
     public abstract void assign(ShapedArray arr);
 
+    /**
+     * Get a spliterator over the coefficients of the vector.
+     *
+     * @return A new spliterator which visits the coefficients in order and
+     *         splits them in contiguous halves.
+     */
+    public abstract Spliterator.OfDouble spliterator();
+
+    /**
+     * Get a stream of the coefficients of the vector.
+     *
+     * <p>
+     * The returned stream is sequential, call its {@code parallel()} method
+     * to process the coefficients by several threads.
+     * </p>
+     *
+     * @return A new stream over the coefficients.
+     */
+    public DoubleStream stream() {
+        return StreamSupport.doubleStream(spliterator(), false);
+    }
+
 }
 
 /*
@@ -179,6 +179,23 @@ public abstract class ShapedVectorSpace extends VectorSpace implements Shaped, T
      */
     public abstract ShapedVector create(ShapedArray arr, boolean forceCopy);
 
+    /**
+     * Create a new vector initialized with the corrected contents of an
+     * array.
+     *
+     * <p>
+     * The values of the vector are {@code scale*x + bias} where {@code x}
+     * are the values of the array.  The conversion is done in a single
+     * parallel pass directly into the storage of the new vector (this is
+     * meant to apply gain and dark corrections to raw data).
+     * </p>
+     * @param arr   - The input array.
+     * @param scale - The factor applied to the values of the array.
+     * @param bias  - The offset added to the scaled values.
+     * @return A new shaped vector of this space.
+     */
+    public abstract ShapedVector create(ShapedArray arr, double scale, double bias);
+
 }
 
 
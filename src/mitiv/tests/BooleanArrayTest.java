@@ -0,0 +1,246 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.tests;
+
+import java.util.Random;
+
+import mitiv.array.Boolean1D;
+import mitiv.array.Boolean2D;
+import mitiv.array.Boolean3D;
+import mitiv.array.BooleanScalar;
+import mitiv.array.Byte3D;
+import mitiv.array.Double1D;
+import mitiv.array.Float3D;
+import mitiv.base.indexing.Range;
+import mitiv.base.mapping.FloatScanner;
+
+/**
+ * Check the boolean arrays and their use as masks.
+ */
+public class BooleanArrayTest {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        Random random = new Random(1);
+        int dim1 = 37, dim2 = 11, dim3 = 5;
+        int number = dim1*dim2*dim3;
+
+        /* Logical operations. */
+        Boolean3D m = Boolean3D.create(dim1, dim2, dim3);
+        boolean[] ref = new boolean[number];
+        int count = 0;
+        for (int i3 = 0; i3 < dim3; ++i3) {
+            for (int i2 = 0; i2 < dim2; ++i2) {
+                for (int i1 = 0; i1 < dim1; ++i1) {
+                    boolean value = (random.nextInt(3) == 0);
+                    m.set(i1, i2, i3, value);
+                    ref[i1 + dim1*(i2 + dim2*i3)] = value;
+                    if (value) {
+                        ++count;
+                    }
+                }
+            }
+        }
+        check(m.count() == count, "count");
+        boolean[] flat = m.flatten();
+        boolean same = true;
+        for (int j = 0; j < number; ++j) {
+            same &= (flat[j] == ref[j]);
+        }
+        check(same, "flatten");
+        Boolean3D m2 = m.copy();
+        m2.not();
+        check(m2.count() == number - count, "not");
+        m2.or(m);
+        check(m2.all(), "or/all");
+        m2.xor(m);
+        check(m2.count() == number - count, "xor");
+        m2.and(m);
+        check(! m2.any(), "and/any");
+
+        /* Views, slices and selections. */
+        Boolean3D v = m.view(new Range(1, -1, 2), null, new Range(-1, 0, -1));
+        same = true;
+        for (int i3 = 0; i3 < v.getDimension(2); ++i3) {
+            for (int i2 = 0; i2 < dim2; ++i2) {
+                for (int i1 = 0; i1 < v.getDimension(0); ++i1) {
+                    same &= (v.get(i1, i2, i3) == m.get(1 + 2*i1, i2, dim3 - 1 - i3));
+                }
+            }
+        }
+        check(same, "view");
+        check(v.copy().count() == v.count(), "count of a view");
+        Boolean2D s = m.slice(2);
+        s.fill(true);
+        same = true;
+        for (int i2 = 0; i2 < dim2; ++i2) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                same &= m.get(i1, i2, 2);
+            }
+        }
+        check(same, "fill of a slice");
+        BooleanScalar scalar = m.slice(1, 1).slice(3).slice(0);
+        scalar.set(false);
+        check(! m.get(0, 1, 3), "scalar view");
+        Boolean3D sel = m.view(new int[] {3, 1}, new int[] {0, 4, 2}, new int[] {4});
+        check(sel.get(1, 2, 0) == m.get(1, 2, 4), "selection");
+
+        /* Masked operations. */
+        count = m.count();
+        ref = m.flatten();
+        Float3D f = Float3D.create(dim1, dim2, dim3);
+        float[] data = f.flatten();
+        double sum = 0;
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (int j = 0; j < number; ++j) {
+            data[j] = random.nextFloat() - 0.5F;
+            if (ref[j]) {
+                sum += data[j];
+                min = Math.min(min, data[j]);
+                max = Math.max(max, data[j]);
+            }
+        }
+        check(Math.abs(f.sum(m) - sum) < 1e-4, "masked sum");
+        check(f.min(m) == min, "masked min");
+        check(f.max(m) == max, "masked max");
+        f.fill(7.0F, m);
+        same = true;
+        for (int j = 0; j < number; ++j) {
+            same &= (! ref[j] || data[j] == 7.0F);
+        }
+        check(same, "masked fill");
+        Float3D fv = f.view(null, null, new Range(-1, 0, -1));
+        Boolean3D mv = m.view(null, null, new Range(-1, 0, -1));
+        check(Math.abs(fv.sum(mv) - f.sum(m)) < 1e-3, "masked sum of a view");
+        fv.fill(3.0F, mv);
+        check(f.min(m) == 3.0F && f.max(m) == 3.0F, "masked fill of a view");
+        Boolean3D empty = Boolean3D.create(dim1, dim2, dim3);
+        check(f.sum(empty) == 0.0F, "sum with an empty mask");
+        boolean thrown = false;
+        try {
+            f.min(empty);
+        } catch (IllegalArgumentException ex) {
+            thrown = true;
+        }
+        check(thrown, "min with an empty mask");
+
+        /* Dense mask with whole words of selected values. */
+        Boolean3D dense = Boolean3D.create(dim1, dim2, dim3);
+        float[] g = new float[number];
+        for (int j = 0; j < number; ++j) {
+            data[j] = random.nextFloat() - 0.5F;
+        }
+        min = Float.POSITIVE_INFINITY;
+        max = Float.NEGATIVE_INFINITY;
+        int selected = 0;
+        for (int i3 = 0; i3 < dim3; ++i3) {
+            for (int i2 = 0; i2 < dim2; ++i2) {
+                for (int i1 = 0; i1 < dim1; ++i1) {
+                    int j = i1 + dim1*(i2 + dim2*i3);
+                    if (j < 1000 || i1%4 == 0) {
+                        dense.set(i1, i2, i3, true);
+                        min = Math.min(min, data[j]);
+                        max = Math.max(max, data[j]);
+                        g[selected++] = data[j];
+                    }
+                }
+            }
+        }
+        check(f.min(dense) == min && f.max(dense) == max, "min and max with a dense mask");
+        final float[] scanned = new float[selected];
+        f.scan(new FloatScanner() {
+            int k = 0;
+
+            @Override
+            public void initialize(float arg) {
+                k = 0;
+                scanned[k++] = arg;
+            }
+
+            @Override
+            public void update(float arg) {
+                scanned[k++] = arg;
+            }
+        }, dense);
+        same = true;
+        for (int k = 0; k < selected; ++k) {
+            same &= (scanned[k] == g[k]);
+        }
+        check(same, "scan with a dense mask");
+
+        /* Conversions. */
+        Byte3D b = m.toByte();
+        check(b.sum() == count, "conversion to bytes");
+        Boolean3D m3 = Boolean3D.create(dim1, dim2, dim3);
+        m3.assign(b);
+        m3.xor(m);
+        check(! m3.any(), "assignment from bytes");
+
+        /* Sparse mask on a large array. */
+        int n = 1 << 22;
+        Double1D big = Double1D.create(n);
+        double[] bigData = big.flatten();
+        Boolean1D sparse = Boolean1D.create(n);
+        double bigSum = 0;
+        for (int j = 0; j < n; ++j) {
+            bigData[j] = j;
+            if (j%1000 == 0) {
+                sparse.set(j, true);
+                bigSum += j;
+            }
+        }
+        check(big.sum(sparse) == bigSum, "sum with a sparse mask");
+        check(big.max(sparse) == (n - 1)/1000*1000.0, "max with a sparse mask");
+
+        if (failures > 0) {
+            System.out.println(failures + " test(s) failed");
+            System.exit(1);
+        }
+        System.out.println("All tests passed");
+    }
+
+    private static void check(boolean ok, String what) {
+        if (! ok) {
+            ++failures;
+            System.out.println("FAILED: " + what);
+        }
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
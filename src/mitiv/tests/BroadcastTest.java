@@ -0,0 +1,152 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.tests;
+
+import mitiv.array.ArrayUtils;
+import mitiv.array.Byte1D;
+import mitiv.array.Double2D;
+import mitiv.array.Double3D;
+import mitiv.array.Float1D;
+import mitiv.array.Float3D;
+import mitiv.array.Int1D;
+import mitiv.array.Int2D;
+import mitiv.array.ShapedArray;
+import mitiv.base.Shape;
+import mitiv.base.indexing.Range;
+import mitiv.exception.NonConformableArrayException;
+
+/**
+ * Check the element-wise operations between arrays with broadcasting.
+ */
+public class BroadcastTest {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        int dim1 = 64, dim2 = 50, dim3 = 40;
+        float[] s = new float[dim1*dim2*dim3];
+        for (int i = 0; i < s.length; ++i) {
+            s[i] = 1 + (i%97);
+        }
+        Float3D stack = Float3D.wrap(s, dim1, dim2, dim3);
+
+        /* A 2D gain applied to every plane, the result is promoted. */
+        double[] g = new double[dim1*dim2];
+        for (int i = 0; i < g.length; ++i) {
+            g[i] = 0.5 + (i%13);
+        }
+        ShapedArray r = ArrayUtils.mul(stack, Double2D.wrap(g, dim1, dim2));
+        check(r instanceof Double3D && r.getShape().equals(stack.getShape()), "type and shape of the result");
+        boolean same = true;
+        for (int i3 = 0; i3 < dim3; ++i3) {
+            for (int i2 = 0; i2 < dim2; ++i2) {
+                for (int i1 = 0; i1 < dim1; ++i1) {
+                    same &= (((Double3D)r).get(i1, i2, i3) ==
+                             (double)stack.get(i1, i2, i3)*g[i1 + dim1*i2]);
+                }
+            }
+        }
+        check(same, "multiplication by a plane");
+
+        /* In-place division by a row broadcast along other dimensions. */
+        Float3D c = stack.copy();
+        float[] row = new float[dim2];
+        for (int i = 0; i < dim2; ++i) {
+            row[i] = i + 1;
+        }
+        ArrayUtils.div(c, c, Float3D.wrap(row, 1, dim2, 1));
+        same = true;
+        for (int i3 = 0; i3 < dim3; ++i3) {
+            for (int i2 = 0; i2 < dim2; ++i2) {
+                for (int i1 = 0; i1 < dim1; ++i1) {
+                    same &= (c.get(i1, i2, i3) == stack.get(i1, i2, i3)/row[i2]);
+                }
+            }
+        }
+        check(same, "in-place division by a row");
+
+        /* Fused multiply-add into a region of interest. */
+        Float3D big = Float3D.create(dim1 + 4, dim2, dim3);
+        Float3D roi = big.view(new Range(2, dim1 + 1), null, null);
+        ArrayUtils.fma(roi, stack, stack, stack);
+        same = true;
+        for (int i3 = 0; i3 < dim3; ++i3) {
+            for (int i2 = 0; i2 < dim2; ++i2) {
+                for (int i1 = 0; i1 < dim1; ++i1) {
+                    float v = stack.get(i1, i2, i3);
+                    same &= (roi.get(i1, i2, i3) == v*v + v);
+                }
+            }
+            same &= (big.get(0, 0, i3) == 0.0F && big.get(dim1 + 3, dim2 - 1, i3) == 0.0F);
+        }
+        check(same, "fused multiply-add into a view");
+
+        /* Unsigned bytes, trailing dimensions and shapes. */
+        Byte1D m = (Byte1D)ArrayUtils.max(Byte1D.wrap(new byte[] {(byte)200, 10, (byte)130}, 3),
+                                          Byte1D.wrap(new byte[] {(byte)100, (byte)250, (byte)130}, 3));
+        check((m.get(0) & 0xFF) == 200 && (m.get(1) & 0xFF) == 250 && (m.get(2) & 0xFF) == 130,
+              "maximum of unsigned bytes");
+        Int2D d = (Int2D)ArrayUtils.sub(Int1D.wrap(new int[] {5, 7}, 2),
+                                        Int2D.wrap(new int[] {1, 2, 3, 4}, 2, 2));
+        int[] dv = d.flatten();
+        check(dv[0] == 4 && dv[1] == 5 && dv[2] == 2 && dv[3] == 3, "broadcast of a vector");
+        check(ArrayUtils.broadcast(Shape.make(new int[] {3, 1}), Shape.make(new int[] {1, 4, 2}))
+              .equals(Shape.make(new int[] {3, 4, 2})), "broadcast of shapes");
+        boolean thrown = false;
+        try {
+            ArrayUtils.add(stack, Float1D.create(3));
+        } catch (NonConformableArrayException ex) {
+            thrown = true;
+        }
+        check(thrown, "non-conformable operands");
+
+        if (failures > 0) {
+            System.out.println(failures + " test(s) failed");
+            System.exit(1);
+        }
+        System.out.println("All tests passed");
+    }
+
+    private static void check(boolean ok, String what) {
+        if (! ok) {
+            ++failures;
+            System.out.println("FAILED: " + what);
+        }
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
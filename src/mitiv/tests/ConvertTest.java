@@ -0,0 +1,130 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.tests;
+
+import mitiv.array.Byte2D;
+import mitiv.array.Double2D;
+import mitiv.array.Float2D;
+import mitiv.array.Int2D;
+import mitiv.base.indexing.Range;
+import mitiv.linalg.shaped.DoubleShapedVector;
+import mitiv.linalg.shaped.DoubleShapedVectorSpace;
+import mitiv.linalg.shaped.FloatShapedVector;
+import mitiv.linalg.shaped.FloatShapedVectorSpace;
+
+/**
+ * Check the conversion of arrays into existing arrays and vectors.
+ */
+public class ConvertTest {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        int dim1 = 5, dim2 = 4;
+        byte[] bytes = new byte[dim1*dim2];
+        for (int i = 0; i < bytes.length; ++i) {
+            bytes[i] = (byte)(13*i);
+        }
+        Byte2D b = Byte2D.wrap(bytes, dim1, dim2);
+
+        /* Bytes are unsigned for convertInto. */
+        Float2D f = Float2D.create(dim1, dim2);
+        b.convertInto(f);
+        float[] fData = f.flatten();
+        boolean ok = true;
+        for (int i = 0; i < bytes.length; ++i) {
+            ok &= (fData[i] == (bytes[i] & 0xFF));
+        }
+        report(ok, "bytes into a float array");
+
+        /* Non-flat source and destination. */
+        Double2D d = Double2D.create(dim1 + 2, dim2 + 1);
+        Range r1 = new Range(1, dim1), r2 = new Range(0, dim2 - 1);
+        b.convertInto(d.view(r1, r2));
+        ok = (d.get(0, 0) == 0.0 && d.get(dim1 + 1, dim2) == 0.0);
+        for (int i2 = 0; i2 < dim2; ++i2) {
+            for (int i1 = 0; i1 < dim1; ++i1) {
+                ok &= (d.get(i1 + 1, i2) == (b.get(i1, i2) & 0xFF));
+            }
+        }
+        report(ok, "bytes into a view");
+        Float2D g = Float2D.create(dim1, dim2);
+        d.view(r1, r2).convertInto(g);
+        report(g.toDouble().flatten()[7] == (bytes[7] & 0xFF), "view into a float array");
+
+        /* Affine correction with rounding and saturation. */
+        Float2D x = Float2D.wrap(new float[] {0.2F, -1.7F, 1e10F, Float.NaN}, 2, 2);
+        Int2D n = Int2D.create(2, 2);
+        x.convertInto(n, 2.0, 1.0);
+        int[] nData = n.flatten();
+        report(nData[0] == 1 && nData[1] == -2 && nData[2] == Integer.MAX_VALUE
+                && nData[3] == 0, "affine correction into an int array");
+
+        /* Conversion into vectors. */
+        FloatShapedVectorSpace fspace = new FloatShapedVectorSpace(dim1, dim2);
+        FloatShapedVector fv = fspace.create();
+        b.convertInto(fv, 0.5, -1.0);
+        ok = true;
+        for (int i = 0; i < bytes.length; ++i) {
+            ok &= (fv.get(i) == 0.5*(bytes[i] & 0xFF) - 1.0);
+        }
+        report(ok, "bytes into a float vector");
+        DoubleShapedVectorSpace dspace = new DoubleShapedVectorSpace(dim1, dim2);
+        DoubleShapedVector dv = dspace.create();
+        f.convertInto(dv);
+        report(dv.get(19) == (bytes[19] & 0xFF), "floats into a double vector");
+
+        /* Vector spaces keep the signed conversion of bytes. */
+        report(fspace.create(b).get(10) == bytes[10]
+                && dspace.create(b).get(10) == bytes[10], "signed bytes in vector spaces");
+
+        if (failures > 0) {
+            System.out.println(failures + " test(s) failed");
+            System.exit(1);
+        }
+        System.out.println("All tests passed");
+    }
+
+    private static void report(boolean ok, String what) {
+        if (! ok) {
+            ++failures;
+            System.out.println("FAILED: " + what);
+        }
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,254 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.tests;
+
+import java.util.Random;
+
+import mitiv.deconv.WeightedConvolutionOperator;
+import mitiv.linalg.LinearOperator;
+import mitiv.linalg.shaped.DoubleShapedVector;
+import mitiv.linalg.shaped.DoubleShapedVectorSpace;
+import mitiv.linalg.shaped.FloatShapedVector;
+import mitiv.linalg.shaped.FloatShapedVectorSpace;
+
+import org.jtransforms.fft.DoubleFFT_1D;
+
+/**
+ * Check the real-to-complex FFT convolution operators against a convolution
+ * computed with full complex FFT's.
+ * <p>
+ * Even (including powers of two) and odd dimensions are tested for every
+ * rank because the real inverse FFT of JTransforms is not scaled in the same
+ * way in these cases.  The direct, adjoint and normal operators are checked.
+ * </p>
+ */
+public class ConvolutionTest {
+
+    private static final Random random = new Random(1234L);
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        int[][] shapes = new int[][] {
+                {8}, {12}, {7}, {1},
+                {8, 4}, {6, 10}, {7, 5}, {8, 5}, {5, 8},
+                {4, 8, 2}, {6, 4, 10}, {5, 3, 7}, {3, 8, 5}
+        };
+        for (int[] dims : shapes) {
+            check(dims);
+        }
+        if (failures > 0) {
+            System.out.println(failures + " test(s) failed");
+            System.exit(1);
+        }
+        System.out.println("All tests passed");
+    }
+
+    private static void check(int[] dims) {
+        int number = 1;
+        for (int k = 0; k < dims.length; ++k) {
+            number *= dims[k];
+        }
+        double[] x = randomArray(number);
+        double[] y = randomArray(number);
+        double[] h = randomArray(number);
+        double[] hx = convolve(h, x, dims, false);
+        double[] hty = convolve(h, y, dims, true);
+        double[] htHx = convolve(h, hx, dims, true);
+        String name = shapeToString(dims);
+
+        /* Double precision operator. */
+        DoubleShapedVectorSpace dsp = new DoubleShapedVectorSpace(dims);
+        WeightedConvolutionOperator dop = WeightedConvolutionOperator.build(dsp);
+        dop.setPSF(dsp.wrap(h));
+        DoubleShapedVector dx = dsp.wrap(x);
+        DoubleShapedVector dy = dsp.wrap(y);
+        DoubleShapedVector dz = dsp.create();
+        dop.apply(dx, dz, LinearOperator.DIRECT);
+        compare("double direct " + name, dz.getData(), hx, 1e-12);
+        dop.apply(dy, dz, LinearOperator.ADJOINT);
+        compare("double adjoint " + name, dz.getData(), hty, 1e-12);
+        if (dop.canApplyNormal()) {
+            dop.applyNormal(dx, dz);
+            compare("double normal " + name, dz.getData(), htHx, 1e-12);
+        }
+
+        /* Single precision operator. */
+        FloatShapedVectorSpace fsp = new FloatShapedVectorSpace(dims);
+        WeightedConvolutionOperator fop = WeightedConvolutionOperator.build(fsp);
+        fop.setPSF(fsp.wrap(toFloat(h)));
+        FloatShapedVector fx = fsp.wrap(toFloat(x));
+        FloatShapedVector fy = fsp.wrap(toFloat(y));
+        FloatShapedVector fz = fsp.create();
+        fop.apply(fx, fz, LinearOperator.DIRECT);
+        compare("float direct " + name, fz.getData(), hx, 1e-5);
+        fop.apply(fy, fz, LinearOperator.ADJOINT);
+        compare("float adjoint " + name, fz.getData(), hty, 1e-5);
+        if (fop.canApplyNormal()) {
+            fop.applyNormal(fx, fz);
+            compare("float normal " + name, fz.getData(), htHx, 1e-5);
+        }
+    }
+
+    /**
+     * Compute the periodic convolution (or correlation) of {@code x} by
+     * {@code h} with full complex FFT's along every dimension.
+     */
+    private static double[] convolve(double[] h, double[] x, int[] dims,
+            boolean adjoint) {
+        int number = x.length;
+        double[] zh = new double[2*number];
+        double[] zx = new double[2*number];
+        for (int j = 0; j < number; ++j) {
+            zh[2*j] = h[j];
+            zx[2*j] = x[j];
+        }
+        fft(zh, dims, true);
+        fft(zx, dims, true);
+        for (int j = 0; j < number; ++j) {
+            int re = 2*j;
+            int im = re + 1;
+            double h_re = zh[re];
+            double h_im = (adjoint ? -zh[im] : zh[im]);
+            double x_re = zx[re];
+            double x_im = zx[im];
+            zx[re] = h_re*x_re - h_im*x_im;
+            zx[im] = h_re*x_im + h_im*x_re;
+        }
+        fft(zx, dims, false);
+        double[] y = new double[number];
+        for (int j = 0; j < number; ++j) {
+            y[j] = zx[2*j];
+        }
+        return y;
+    }
+
+    /** Apply a scaled complex FFT along every dimension (in-place). */
+    private static void fft(double[] z, int[] dims, boolean forward) {
+        int stride = 1;
+        int number = z.length/2;
+        for (int k = 0; k < dims.length; ++k) {
+            int n = dims[k];
+            DoubleFFT_1D xform = new DoubleFFT_1D(n);
+            double[] buf = new double[2*n];
+            int outer = number/(n*stride);
+            for (int j2 = 0; j2 < outer; ++j2) {
+                for (int j1 = 0; j1 < stride; ++j1) {
+                    int base = j1 + j2*n*stride;
+                    for (int i = 0; i < n; ++i) {
+                        int j = 2*(base + i*stride);
+                        buf[2*i] = z[j];
+                        buf[2*i + 1] = z[j + 1];
+                    }
+                    if (forward) {
+                        xform.complexForward(buf);
+                    } else {
+                        xform.complexInverse(buf, true);
+                    }
+                    for (int i = 0; i < n; ++i) {
+                        int j = 2*(base + i*stride);
+                        z[j] = buf[2*i];
+                        z[j + 1] = buf[2*i + 1];
+                    }
+                }
+            }
+            stride *= n;
+        }
+    }
+
+    private static void compare(String what, double[] a, double[] b,
+            double tol) {
+        report(what, maxRelativeError(a, b), tol);
+    }
+
+    private static void compare(String what, float[] a, double[] b,
+            double tol) {
+        double[] c = new double[a.length];
+        for (int j = 0; j < a.length; ++j) {
+            c[j] = a[j];
+        }
+        report(what, maxRelativeError(c, b), tol);
+    }
+
+    private static void report(String what, double err, double tol) {
+        boolean ok = (err <= tol);
+        if (! ok) {
+            ++failures;
+        }
+        System.out.format("%-30s  max. rel. error = %9.2e  %s\n",
+                what, err, (ok ? "ok" : "FAILED"));
+    }
+
+    private static double maxRelativeError(double[] a, double[] b) {
+        double amax = 0.0;
+        double emax = 0.0;
+        for (int j = 0; j < b.length; ++j) {
+            amax = Math.max(amax, Math.abs(b[j]));
+            emax = Math.max(emax, Math.abs(a[j] - b[j]));
+        }
+        return (amax > 0.0 ? emax/amax : emax);
+    }
+
+    private static double[] randomArray(int number) {
+        double[] arr = new double[number];
+        for (int j = 0; j < number; ++j) {
+            arr[j] = random.nextGaussian();
+        }
+        return arr;
+    }
+
+    private static float[] toFloat(double[] arr) {
+        float[] out = new float[arr.length];
+        for (int j = 0; j < arr.length; ++j) {
+            out[j] = (float)arr[j];
+        }
+        return out;
+    }
+
+    private static String shapeToString(int[] dims) {
+        StringBuilder buf = new StringBuilder();
+        for (int k = 0; k < dims.length; ++k) {
+            if (k > 0) {
+                buf.append('x');
+            }
+            buf.append(dims[k]);
+        }
+        return buf.toString();
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,152 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.tests;
+
+import static mitiv.array.Expression.expr;
+
+import java.util.Random;
+
+import mitiv.array.Byte3D;
+import mitiv.array.Double3D;
+import mitiv.array.Float2D;
+import mitiv.array.Float3D;
+import mitiv.base.indexing.Range;
+
+/**
+ * Check the evaluation of element-wise expressions into flat arrays, views,
+ * permuted arrays and selections.
+ */
+public class ExpressionTest {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        int dim1 = 67, dim2 = 45, dim3 = 23;
+        Random random = new Random(5);
+        float[] aData = new float[dim1*dim2*dim3];
+        byte[] bData = new byte[dim1*dim2*dim3];
+        for (int i = 0; i < aData.length; ++i) {
+            aData[i] = (float)random.nextGaussian();
+            bData[i] = (byte)random.nextInt(256);
+        }
+        Float3D a = Float3D.wrap(aData, dim1, dim2, dim3);
+        Byte3D b = Byte3D.wrap(bData, dim1, dim2, dim3);
+
+        /* Flat operands and destination. */
+        Double3D c = Double3D.create(dim1, dim2, dim3);
+        expr(a).mul(b).sub(1.5).abs().into(c);
+        check(a, b, c, "flat arrays");
+
+        /* Views and permuted arrays. */
+        Range r1 = new Range(3, 40), r2 = new Range(1, 44, 2), r3 = new Range(20, 2, -3);
+        Float3D av = a.view(r1, r2, r3);
+        Byte3D bv = b.view(r1, r2, r3);
+        int[] dims = av.getShape().copyDimensions();
+        Double3D cv = Double3D.create(dims[0] + 1, dims[1] + 2, dims[2]).view(
+                new Range(1, dims[0]), new Range(2, dims[1] + 1), new Range(0, dims[2] - 1));
+        expr(av).mul(bv).sub(1.5).abs().into(cv);
+        check(av, bv, cv, "views");
+        Double3D cp = Double3D.create(dims[2], dims[0], dims[1]).permute(1, 2, 0);
+        expr(av).mul(bv).sub(1.5).abs().into(cp);
+        check(av, bv, cp, "permuted destination");
+        Float3D ap = a.permute(2, 0, 1);
+        Byte3D bp = b.permute(2, 0, 1);
+        Double3D cq = Double3D.create(dim3, dim1, dim2);
+        expr(ap).mul(bp).sub(1.5).abs().into(cq);
+        check(ap, bp, cq, "permuted operands");
+
+        /* Runs longer than a block. */
+        Float2D f = Float2D.wrap(aData, 3, aData.length/3);
+        Float2D g = Float2D.create(aData.length/3, 3);
+        expr(f.permute(1, 0)).neg().into(g);
+        boolean ok = true;
+        for (int i2 = 0; i2 < 3; ++i2) {
+            for (int i1 = 0; i1 < aData.length/3; ++i1) {
+                ok &= (g.get(i1, i2) == -f.get(i2, i1));
+            }
+        }
+        report(ok, "long runs");
+
+        /* Selections are neither read nor written in place. */
+        int[] idx1 = {4, 0, 9, 2}, idx2 = {1, 3, 44}, idx3 = {22, 0};
+        Float3D as = a.view(idx1, idx2, idx3);
+        Byte3D bs = b.view(idx1, idx2, idx3);
+        Double3D cs = c.view(idx1, idx2, idx3);
+        expr(as).mul(bs).sub(1.5).abs().into(cs);
+        check(as, bs, cs, "selections");
+
+        /* The destination may be an operand, with the same layout or not. */
+        Float3D d = a.copy();
+        expr(d).mul(2.0).into(d);
+        report(d.get(5, 6, 7) == 2*a.get(5, 6, 7) && d.get(66, 44, 22) == 2*a.get(66, 44, 22),
+                "destination used as operand");
+        Float2D e = Float2D.wrap(new float[] {1, 2, 3, 4, 5, 6, 7, 8, 9}, 3, 3);
+        expr(e.permute(1, 0)).into(e);
+        float[] t = e.flatten();
+        report(t[1] == 4 && t[3] == 2 && t[5] == 8 && t[7] == 6 && t[4] == 5,
+                "transposition in place");
+
+        if (failures > 0) {
+            System.out.println(failures + " test(s) failed");
+            System.exit(1);
+        }
+        System.out.println("All tests passed");
+    }
+
+    /* Check that c = |a*b - 1.5| (bytes are unsigned). */
+    private static void check(Float3D a, Byte3D b, Double3D c, String what) {
+        boolean ok = true;
+        for (int i3 = 0; i3 < a.getDimension(2); ++i3) {
+            for (int i2 = 0; i2 < a.getDimension(1); ++i2) {
+                for (int i1 = 0; i1 < a.getDimension(0); ++i1) {
+                    double x = Math.abs((double)a.get(i1, i2, i3)*(b.get(i1, i2, i3) & 0xFF) - 1.5);
+                    ok &= (c.get(i1, i2, i3) == x);
+                }
+            }
+        }
+        report(ok, what);
+    }
+
+    private static void report(boolean ok, String what) {
+        if (! ok) {
+            ++failures;
+            System.out.println("FAILED: " + what);
+        }
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,188 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.tests;
+
+import java.util.Random;
+
+import mitiv.array.Float1D;
+import mitiv.array.Float2D;
+import mitiv.array.HalfArray;
+import mitiv.base.Half;
+import mitiv.cost.HyperbolicTotalVariation;
+import mitiv.linalg.shaped.FloatShapedVector;
+import mitiv.linalg.shaped.FloatShapedVectorSpace;
+import mitiv.linalg.shaped.HalfShapedVector;
+import mitiv.linalg.shaped.HalfShapedVectorSpace;
+
+/**
+ * Check the conversions between half and single precision floating-point
+ * values and the half precision arrays and vectors.
+ */
+public class HalfTest {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        checkConversions();
+        checkRounding();
+        checkArraysAndVectors();
+        checkTotalVariation();
+        if (failures > 0) {
+            System.out.println(failures + " test(s) failed");
+            System.exit(1);
+        }
+        System.out.println("All tests passed");
+    }
+
+    private static void check(boolean ok, String what) {
+        if (! ok) {
+            ++failures;
+            System.out.println("FAILED: " + what);
+        }
+    }
+
+    /** Every half precision value must survive a round trip. */
+    private static void checkConversions() {
+        int errors = 0;
+        for (int h = 0; h < 65536; ++h) {
+            float f = Half.toFloat((short)h);
+            if (Float.isNaN(f)) {
+                if (! Float.isNaN(Half.toFloat(Half.fromFloat(f)))) {
+                    ++errors;
+                }
+            } else if (Half.fromFloat(f) != (short)h) {
+                ++errors;
+            }
+        }
+        check(errors == 0, "round trip of half precision values");
+        check(Half.toFloat(Half.fromFloat(65504.0F)) == 65504.0F, "largest value");
+        check(Half.toFloat(Half.fromFloat(65519.0F)) == 65504.0F, "rounding to largest value");
+        check(Float.isInfinite(Half.toFloat(Half.fromFloat(65520.0F))), "overflow");
+        check(Half.toFloat(Half.fromFloat(Half.MIN_VALUE)) == Half.MIN_VALUE, "smallest subnormal");
+        check(Half.toFloat(Half.fromFloat(0.5F*Half.MIN_VALUE)) == 0.0F, "ties to even");
+        check(Half.toFloat(Half.fromFloat(0.51F*Half.MIN_VALUE)) == Half.MIN_VALUE, "subnormal rounding");
+    }
+
+    /** Conversion must round to the nearest half precision value. */
+    private static void checkRounding() {
+        Random random = new Random(3);
+        int errors = 0;
+        for (int t = 0; t < 200000; ++t) {
+            float f = (float)((random.nextDouble() - 0.5)*Math.pow(2, random.nextInt(44) - 26));
+            if (Math.abs(f) >= 65504.0F) {
+                continue;
+            }
+            short h = Half.fromFloat(f);
+            double err = Math.abs((double)Half.toFloat(h) - f);
+            for (int d = -1; d <= 1; d += 2) {
+                int neighbor = (h & 0xFFFF) + d;
+                if (neighbor < 0 || neighbor > 0xFFFF) {
+                    continue;
+                }
+                float g = Half.toFloat((short)neighbor);
+                if (Float.isNaN(g) || Float.isInfinite(g)) {
+                    continue;
+                }
+                if (err > Math.abs((double)g - f)) {
+                    ++errors;
+                }
+            }
+        }
+        check(errors == 0, "rounding to nearest");
+    }
+
+    private static void checkArraysAndVectors() {
+        int n = 100000;
+        Float1D f = Float1D.create(n);
+        float[] data = f.flatten();
+        for (int j = 0; j < n; ++j) {
+            data[j] = (float)Math.sin(j);
+        }
+        float[] back = HalfArray.create(f).flatten();
+        double err = 0.0;
+        for (int j = 0; j < n; ++j) {
+            err = Math.max(err, Math.abs(back[j] - data[j]));
+        }
+        check(err < 1e-3, "array conversion");
+
+        HalfShapedVectorSpace space = new HalfShapedVectorSpace(n);
+        HalfShapedVector x = space.create(f);
+        HalfShapedVector y = space.create(1.0);
+        double sum = 0.0;
+        for (int j = 0; j < n; ++j) {
+            sum += back[j];
+        }
+        check(Math.abs(space.dot(x, y) - sum) < 1e-9, "dot product");
+        space.axpby(2.0, x, -1.0, y);
+        check(Math.abs(y.get(5) - (2*back[5] - 1)) < 2e-3, "axpby");
+        HalfShapedVector z = y.clone();
+        check(space.norm2(z) == space.norm2(y), "clone");
+        space.scale(z, 0.5);
+        check(Math.abs(z.get(7) - 0.5*y.get(7)) < 1e-3, "scale");
+        Float1D g = Float1D.create(n);
+        g.assign(x);
+        check(g.get(11) == back[11] && g.get(n - 1) == back[n - 1], "assign");
+    }
+
+    /** Cost functions must accept half precision vectors. */
+    private static void checkTotalVariation() {
+        int dim1 = 32, dim2 = 24;
+        Float2D f = Float2D.create(dim1, dim2);
+        float[] data = f.flatten();
+        for (int j = 0; j < data.length; ++j) {
+            data[j] = Half.toFloat(Half.fromFloat((float)Math.sin(0.3*j)));
+        }
+        HalfShapedVectorSpace hspace = new HalfShapedVectorSpace(dim1, dim2);
+        FloatShapedVectorSpace fspace = new FloatShapedVectorSpace(dim1, dim2);
+        HalfShapedVector hx = hspace.create(f);
+        HalfShapedVector hg = hspace.create();
+        FloatShapedVector fx = fspace.create(f);
+        FloatShapedVector fg = fspace.create();
+        double hcost = new HyperbolicTotalVariation(hspace, 0.1)
+                .computeCostAndGradient(1.0, hx, hg, true);
+        double fcost = new HyperbolicTotalVariation(fspace, 0.1)
+                .computeCostAndGradient(1.0, fx, fg, true);
+        double err = 0.0;
+        for (int j = 0; j < data.length; ++j) {
+            err = Math.max(err, Math.abs(hg.get(j) - fg.get(j)));
+        }
+        check(Math.abs(hcost - fcost) <= 1e-6*fcost, "total variation cost");
+        check(err < 1e-2, "total variation gradient");
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
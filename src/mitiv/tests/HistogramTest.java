@@ -0,0 +1,145 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.tests;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import mitiv.array.Boolean1D;
+import mitiv.array.Byte1D;
+import mitiv.array.Double1D;
+import mitiv.array.Float1D;
+import mitiv.array.Histogram;
+import mitiv.base.Parallel;
+
+/**
+ * Check the histograms and the approximate quantiles against the quantiles
+ * given by sorting the values.
+ */
+public class HistogramTest {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        int number = 1000000;
+        double[] x = new double[number];
+        Random random = new Random(2);
+        for (int i = 0; i < number; ++i) {
+            x[i] = random.nextGaussian();
+        }
+        x[5] = 1e6;
+        x[6] = Double.NaN;
+        Double1D arr = Double1D.wrap(x, number);
+        double[] sorted = x.clone();
+        Arrays.sort(sorted); // NaN's are sorted last
+        int valid = number - 1;
+
+        /* Histogram over the range of the values. */
+        Histogram h = Histogram.compute(arr, 4096);
+        check(h.getTotalCount() == valid && h.getNaNCount() == 1, "counts");
+        check(h.getQuantile(0.0) == sorted[0], "minimum");
+        check(h.getQuantile(1.0) == sorted[valid - 1], "maximum");
+        check(Math.abs(h.getQuantile(0.5) - sorted[valid/2]) <= h.getBinWidth(), "median");
+
+        /* Fixed bins. */
+        Histogram h2 = new Histogram(-5.0, 5.0, 10000);
+        h2.add(arr);
+        long below = 0, above = 0;
+        for (double v : x) {
+            if (v < -5.0) {
+                ++below;
+            } else if (v > 5.0) {
+                ++above;
+            }
+        }
+        check(h2.getUnderflowCount() == below && h2.getOverflowCount() == above, "underflow and overflow");
+        for (double p : new double[] {0.001, 0.5, 0.999}) {
+            double exact = sorted[(int)Math.round(p*(valid - 1))];
+            check(Math.abs(h2.getQuantile(p) - exact) <= h2.getBinWidth(),
+                  "quantile " + p + " with fixed bins");
+        }
+
+        /* The counts must not depend on the number of threads. */
+        int threads = Parallel.getNumberOfThreads();
+        try {
+            Parallel.setNumberOfThreads(1);
+            Histogram h3 = new Histogram(-5.0, 5.0, 10000);
+            h3.add(arr);
+            check(Arrays.equals(h2.getCounts(), h3.getCounts()), "independence of the number of threads");
+        } finally {
+            Parallel.setNumberOfThreads(threads);
+        }
+
+        /* Refined quantiles are precise despite the outlier. */
+        double[] p = new double[] {0.0, 0.001, 0.5, 0.999, 1.0};
+        double[] q = Histogram.quantiles(arr, null, p);
+        for (int i = 0; i < p.length; ++i) {
+            double exact = sorted[(int)Math.round(p[i]*(valid - 1))];
+            check(Math.abs(q[i] - exact) <= 1e-3, "refined quantile " + p[i]);
+        }
+
+        /* Masks, constant values and unsigned bytes. */
+        Boolean1D mask = Boolean1D.create(number);
+        long selected = 0;
+        for (int i = 0; i < number; i += 2) {
+            mask.set(i, true);
+            if (! Double.isNaN(x[i])) {
+                ++selected;
+            }
+        }
+        check(Histogram.compute(arr, mask, 100).getTotalCount() == selected, "masked histogram");
+        Histogram hc = Histogram.compute(Float1D.wrap(new float[] {3, 3, 3}, 3), 10);
+        check(hc.getQuantile(0.5) == 3.0, "constant values");
+        Histogram hb = Histogram.compute(Byte1D.wrap(new byte[] {(byte)250, 0, 10}, 3), 256);
+        check(hb.getQuantile(1.0) == 250.0, "unsigned bytes");
+
+        if (failures > 0) {
+            System.out.println(failures + " test(s) failed");
+            System.exit(1);
+        }
+        System.out.println("All tests passed");
+    }
+
+    private static void check(boolean ok, String what) {
+        if (! ok) {
+            ++failures;
+            System.out.println("FAILED: " + what);
+        }
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,241 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.tests;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import mitiv.array.Double3D;
+import mitiv.array.Float3D;
+import mitiv.array.impl.TiledFloat3D;
+import mitiv.base.Parallel;
+import mitiv.base.indexing.Range;
+
+/**
+ * Check the parallel loops and reductions and that the parallel array
+ * kernels do not depend on the number of threads nor on the block size.
+ */
+public class ParallelTest {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        int threads = Parallel.getNumberOfThreads();
+        int blockSize = Parallel.getBlockSize();
+        try {
+            for (int n : new int[] {1, 2, 4, 8}) {
+                Parallel.setNumberOfThreads(n);
+                for (int b : new int[] {1, 7, 1000, Parallel.DEFAULT_BLOCK_SIZE}) {
+                    Parallel.setBlockSize(b);
+                    checkLoops(n, b);
+                }
+            }
+            checkKernels();
+            checkNaN();
+        } finally {
+            Parallel.setNumberOfThreads(threads);
+            Parallel.setBlockSize(blockSize);
+        }
+        if (failures > 0) {
+            System.out.println(failures + " test(s) failed");
+            System.exit(1);
+        }
+        System.out.println("All tests passed");
+    }
+
+    private static void check(boolean ok, String what) {
+        if (! ok) {
+            ++failures;
+            System.out.println("FAILED: " + what);
+        }
+    }
+
+    private static void checkLoops(int threads, int blockSize) {
+        String ctx = " (threads = " + threads + ", block size = " + blockSize + ")";
+        for (int length : new int[] {0, 1, 5, 1000, 12345}) {
+            for (int grain : new int[] {1, 3, 100, 100000}) {
+                /* Every iteration must be executed exactly once. */
+                final int[] count = new int[length];
+                Parallel.run(length, grain, new Parallel.Loop() {
+                    @Override
+                    public void run(int first, int last) {
+                        for (int i = first; i < last; ++i) {
+                            ++count[i];
+                        }
+                    }
+                });
+                boolean ok = true;
+                for (int i = 0; i < length; ++i) {
+                    ok &= (count[i] == 1);
+                }
+                check(ok, "run, length = " + length + ", grain = " + grain + ctx);
+
+                /* Partial results must be combined in order. */
+                if (length > 0) {
+                    long[] range = Parallel.reduce(length, grain, new Parallel.Reduction<long[]>() {
+                        @Override
+                        public long[] compute(int first, int last) {
+                            long sum = 0;
+                            for (int i = first; i < last; ++i) {
+                                sum += i;
+                            }
+                            return new long[] {first, last, sum};
+                        }
+                        @Override
+                        public long[] combine(long[] left, long[] right) {
+                            if (left[1] != right[0]) {
+                                left[2] = -1;
+                            } else if (left[2] >= 0 && right[2] >= 0) {
+                                left[2] += right[2];
+                            }
+                            left[1] = right[1];
+                            return left;
+                        }
+                    });
+                    check(range[0] == 0 && range[1] == length &&
+                          range[2] == (length - 1L)*length/2,
+                          "reduce, length = " + length + ", grain = " + grain + ctx);
+                }
+            }
+        }
+        boolean thrown = false;
+        try {
+            Parallel.reduce(0, new Parallel.Reduction<Object>() {
+                @Override
+                public Object compute(int first, int last) {
+                    return null;
+                }
+                @Override
+                public Object combine(Object left, Object right) {
+                    return null;
+                }
+            });
+        } catch (IllegalArgumentException ex) {
+            thrown = true;
+        }
+        check(thrown, "reduce of nothing" + ctx);
+    }
+
+    /**
+     * The results of the array kernels must not depend on the number of
+     * threads (the rounding errors of the sums depend on the block size).
+     */
+    private static void checkKernels() {
+        int dim1 = 37, dim2 = 23, dim3 = 19;
+        double[] data = new double[dim1*dim2*dim3];
+        Random random = new Random(1);
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = 100*random.nextGaussian();
+        }
+        for (int b : new int[] {97, Parallel.DEFAULT_BLOCK_SIZE}) {
+            Parallel.setBlockSize(b);
+            String reference = null;
+            for (int n : new int[] {1, 2, 3, 8}) {
+                Parallel.setNumberOfThreads(n);
+                Double3D arr = Double3D.wrap(data.clone(), dim1, dim2, dim3);
+                Double3D sub = arr.view(new Range(1, 30, 2), null, new Range(18, 0, -3));
+                StringBuilder buf = new StringBuilder();
+                for (Double3D a : new Double3D[] {arr, sub}) {
+                    a.scale(0.5);
+                    a.increment(1.0);
+                    double[] mm = a.getMinAndMax();
+                    buf.append(a.min()).append(' ').append(a.max()).append(' ')
+                       .append(mm[0]).append(' ').append(mm[1]).append(' ')
+                       .append(a.sum()).append(' ').append(a.toFloat().sum())
+                       .append(' ').append(a.toInt().sum()).append('\n');
+                    double min = Double.POSITIVE_INFINITY;
+                    double max = Double.NEGATIVE_INFINITY;
+                    for (double v : a.flatten()) {
+                        min = Math.min(min, v);
+                        max = Math.max(max, v);
+                    }
+                    check(a.min() == min && a.max() == max &&
+                          mm[0] == min && mm[1] == max,
+                          "min/max (threads = " + n + ", block size = " + b + ")");
+                }
+                String result = buf.toString();
+                if (reference == null) {
+                    reference = result;
+                } else {
+                    check(result.equals(reference),
+                          "kernels (threads = " + n + ", block size = " + b + ")");
+                }
+            }
+        }
+    }
+
+    /**
+     * NaN values must be ignored by min and max whatever the number of
+     * threads and the block size (i.e. wherever the blocks start).
+     */
+    private static void checkNaN() {
+        int dim1 = 31, dim2 = 17, dim3 = 11;
+        float[] data = new float[dim1*dim2*dim3];
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        Random random = new Random(2);
+        for (int i = 0; i < data.length; ++i) {
+            if (i%7 == 0 || i%64 == 0) {
+                data[i] = Float.NaN;
+            } else {
+                data[i] = random.nextFloat() - 0.5F;
+                min = Math.min(min, data[i]);
+                max = Math.max(max, data[i]);
+            }
+        }
+        Float3D arr = Float3D.wrap(data, dim1, dim2, dim3);
+        Float3D sub = arr.view(new Range(0, -1), null, null);
+        Float3D[] arrays = new Float3D[] {arr, sub, TiledFloat3D.tile(arr, 2), arr.permute(2, 0, 1)};
+        for (int n : new int[] {1, 4}) {
+            Parallel.setNumberOfThreads(n);
+            for (int b : new int[] {1, 7, 64, 1000}) {
+                Parallel.setBlockSize(b);
+                for (Float3D a : arrays) {
+                    float[] mm = a.getMinAndMax();
+                    check(a.min() == min && a.max() == max &&
+                          mm[0] == min && mm[1] == max,
+                          "min/max with NaN's, " + a.getClass().getSimpleName() +
+                          " (threads = " + n + ", block size = " + b + ")");
+                }
+            }
+        }
+        Arrays.fill(data, Float.NaN);
+        check(Float.isNaN(arr.min()) && Float.isNaN(arr.max()), "min/max of NaN's");
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
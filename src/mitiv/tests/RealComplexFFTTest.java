@@ -0,0 +1,178 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.tests;
+
+import java.util.Random;
+
+import mitiv.linalg.LinearOperator;
+import mitiv.linalg.Vector;
+import mitiv.linalg.VectorSpace;
+import mitiv.linalg.shaped.DoubleShapedVectorSpace;
+import mitiv.linalg.shaped.FloatShapedVectorSpace;
+import mitiv.linalg.shaped.RealComplexFFT;
+import mitiv.linalg.shaped.ShapedVectorSpace;
+
+/**
+ * Check the real-complex FFT operator in full and half-spectrum modes.
+ * <p>
+ * For even (including powers of two) and odd dimensions, check that the
+ * {@code INVERSE} operation gives back the input of the {@code DIRECT}
+ * one, that the {@code ADJOINT} operation is the adjoint of the
+ * {@code DIRECT} one and that the half spectrum is the non-redundant part
+ * of the full spectrum.
+ * </p>
+ */
+public class RealComplexFFTTest {
+
+    private static final Random random = new Random(4321L);
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        int[][] shapes = new int[][] {
+                {8}, {12}, {7}, {1},
+                {8, 4}, {6, 10}, {7, 5}, {8, 5}, {5, 8},
+                {4, 8, 2}, {6, 4, 10}, {5, 3, 7}, {3, 8, 5}
+        };
+        for (int[] dims : shapes) {
+            check(new DoubleShapedVectorSpace(dims), 1e-12);
+            check(new FloatShapedVectorSpace(dims), 1e-5);
+        }
+        if (failures > 0) {
+            System.out.println(failures + " test(s) failed");
+            System.exit(1);
+        }
+        System.out.println("All tests passed");
+    }
+
+    private static void check(ShapedVectorSpace space, double tol) {
+        String name = (space instanceof FloatShapedVectorSpace ? "float " : "double ")
+                + shapeToString(space);
+        RealComplexFFT full = new RealComplexFFT(space, false);
+        RealComplexFFT half = new RealComplexFFT(space, true);
+        Vector x = randomVector(space);
+        Vector fx = full.getOutputSpace().create();
+        Vector hx = half.getOutputSpace().create();
+        Vector z = space.create();
+
+        /* Round trips. */
+        full.apply(x, fx, LinearOperator.DIRECT);
+        full.apply(fx, z, LinearOperator.INVERSE);
+        compare("full inverse " + name, z, x, tol);
+        half.apply(x, hx, LinearOperator.DIRECT);
+        half.apply(hx, z, LinearOperator.INVERSE);
+        compare("half inverse " + name, z, x, tol);
+
+        /* Half spectrum versus full spectrum. */
+        int dim1 = space.getShape().dimension(0);
+        int halfDim1 = dim1/2 + 1;
+        int lines = space.getNumber()/dim1;
+        double err = 0.0;
+        double amax = 0.0;
+        for (int line = 0; line < lines; ++line) {
+            for (int k = 0; k < 2*halfDim1; ++k) {
+                double a = fx.get(2*dim1*line + k);
+                double b = hx.get(2*halfDim1*line + k);
+                err = Math.max(err, Math.abs(a - b));
+                amax = Math.max(amax, Math.abs(a));
+            }
+        }
+        report("half spectrum " + name, err/amax, tol);
+
+        /* Adjoints. */
+        checkAdjoint("full adjoint " + name, full, tol);
+        checkAdjoint("half adjoint " + name, half, tol);
+    }
+
+    /**
+     * Check that {@code <A.x,y> = <x,A'.y>} for random vectors (the error is
+     * relative to {@code ||A.x||.||y||}).
+     */
+    private static void checkAdjoint(String what, LinearOperator op,
+            double tol) {
+        Vector x = randomVector(op.getInputSpace());
+        Vector y = randomVector(op.getOutputSpace());
+        Vector ax = op.getOutputSpace().create();
+        Vector aty = op.getInputSpace().create();
+        op.apply(x, ax, LinearOperator.DIRECT);
+        op.apply(y, aty, LinearOperator.ADJOINT);
+        double a = ax.dot(y);
+        double b = x.dot(aty);
+        report(what, Math.abs(a - b)/(ax.norm2()*y.norm2()), tol);
+    }
+
+    private static void compare(String what, Vector a, Vector b,
+            double tol) {
+        double amax = 0.0;
+        double emax = 0.0;
+        for (int j = 0; j < b.getNumber(); ++j) {
+            amax = Math.max(amax, Math.abs(b.get(j)));
+            emax = Math.max(emax, Math.abs(a.get(j) - b.get(j)));
+        }
+        report(what, (amax > 0.0 ? emax/amax : emax), tol);
+    }
+
+    private static void report(String what, double err, double tol) {
+        boolean ok = (err <= tol);
+        if (! ok) {
+            ++failures;
+        }
+        System.out.format("%-30s  rel. error = %9.2e  %s\n",
+                what, err, (ok ? "ok" : "FAILED"));
+    }
+
+    private static Vector randomVector(VectorSpace space) {
+        Vector v = space.create();
+        for (int j = 0; j < v.getNumber(); ++j) {
+            v.set(j, random.nextGaussian());
+        }
+        return v;
+    }
+
+    private static String shapeToString(ShapedVectorSpace space) {
+        StringBuilder buf = new StringBuilder();
+        for (int k = 0; k < space.getRank(); ++k) {
+            if (k > 0) {
+                buf.append('x');
+            }
+            buf.append(space.getShape().dimension(k));
+        }
+        return buf.toString();
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,159 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.tests;
+
+import java.util.Random;
+
+import mitiv.array.Array2D;
+import mitiv.array.Byte1D;
+import mitiv.array.Byte2D;
+import mitiv.array.Double2D;
+import mitiv.array.Float3D;
+import mitiv.array.ShapedArray;
+import mitiv.base.indexing.Range;
+
+/**
+ * Check the reductions of arrays along a dimension for flat arrays, views,
+ * permutations and selections.
+ */
+public class ReductionTest {
+
+    private static int failures = 0;
+
+    private static final String[] names = new String[] {
+        "sum", "mean", "min", "max", "argmax", "variance"
+    };
+
+    public static void main(String[] args) {
+        int dim1 = 37, dim2 = 21, dim3 = 13;
+        float[] data = new float[dim1*dim2*dim3];
+        Random random = new Random(1);
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = random.nextInt(1000)/7.0F;
+        }
+        Float3D a = Float3D.wrap(data, dim1, dim2, dim3);
+        check(a, "flat array");
+        check(a.view(new Range(2, 30), new Range(1, 19), new Range(0, 12, 2)), "view");
+        check(a.permute(2, 0, 1), "permuted array");
+        check(a.view(new int[] {5, 3, 1}, new int[] {0, 4, 2, 7}, new int[] {1, 2, 3}), "selection");
+
+        /* Unsigned bytes and negative axis. */
+        Byte2D b = Byte2D.wrap(new byte[] {(byte)200, 10, (byte)130, 5}, 2, 2);
+        Byte1D bmax = (Byte1D)b.reduce(0, ShapedArray.MAX);
+        report((bmax.get(0) & 0xFF) == 200 && (bmax.get(1) & 0xFF) == 130, "maximum of unsigned bytes");
+        double[] bsum = b.reduce(-1, ShapedArray.SUM).toDouble().flatten();
+        report(bsum[0] == 330.0 && bsum[1] == 15.0, "sum along the last dimension");
+
+        /* NaN values are ignored by MIN, MAX and ARGMAX. */
+        double nan = Double.NaN;
+        Double2D c = Double2D.wrap(new double[] {nan, 1, 3, nan, nan, nan, nan, nan}, 4, 2);
+        double[] cmin = c.reduce(0, ShapedArray.MIN).toDouble().flatten();
+        double[] cmax = c.reduce(0, ShapedArray.MAX).toDouble().flatten();
+        double[] carg = c.reduce(0, ShapedArray.ARGMAX).toDouble().flatten();
+        report(cmin[0] == 1.0 && Double.isNaN(cmin[1]), "minimum with NaN values");
+        report(cmax[0] == 3.0 && Double.isNaN(cmax[1]), "maximum with NaN values");
+        report(carg[0] == 2.0 && carg[1] == 0.0, "argmax with NaN values");
+        carg = c.toFloat().permute(1, 0).reduce(1, ShapedArray.ARGMAX).toDouble().flatten();
+        report(carg[0] == 2.0 && carg[1] == 0.0, "argmax with NaN values of a permuted array");
+
+        if (failures > 0) {
+            System.out.println(failures + " test(s) failed");
+            System.exit(1);
+        }
+        System.out.println("All tests passed");
+    }
+
+    private static void check(Float3D a, String what) {
+        int[] dims = a.getShape().copyDimensions();
+        for (int axis = 0; axis < 3; ++axis) {
+            int p = (axis == 0 ? 1 : 0);
+            int q = (axis == 2 ? 1 : 2);
+            int n = dims[axis];
+            for (int op = ShapedArray.SUM; op <= ShapedArray.VARIANCE; ++op) {
+                Array2D r = a.reduce(axis, op);
+                double[] result = r.toDouble().flatten();
+                boolean ok = (r.getDimension(0) == dims[p] && r.getDimension(1) == dims[q]);
+                for (int v = 0; ok && v < dims[q]; ++v) {
+                    for (int u = 0; u < dims[p]; ++u) {
+                        double sum = 0.0;
+                        double min = Double.POSITIVE_INFINITY;
+                        double max = Double.NEGATIVE_INFINITY;
+                        int argmax = -1;
+                        double[] values = new double[n];
+                        int[] i = new int[3];
+                        i[p] = u;
+                        i[q] = v;
+                        for (int k = 0; k < n; ++k) {
+                            i[axis] = k;
+                            double x = a.get(i[0], i[1], i[2]);
+                            values[k] = x;
+                            sum += x;
+                            min = Math.min(min, x);
+                            if (x > max) {
+                                max = x;
+                                argmax = k;
+                            }
+                        }
+                        double mean = sum/n;
+                        double var = 0.0;
+                        for (double x : values) {
+                            var += (x - mean)*(x - mean);
+                        }
+                        var /= (n - 1);
+                        double expected = (op == ShapedArray.SUM ? sum :
+                                           op == ShapedArray.MEAN ? mean :
+                                           op == ShapedArray.MIN ? min :
+                                           op == ShapedArray.MAX ? max :
+                                           op == ShapedArray.ARGMAX ? argmax : var);
+                        double got = result[u + dims[p]*v];
+                        ok &= (Math.abs(got - expected) <= 1e-6*Math.max(1.0, Math.abs(expected)));
+                    }
+                }
+                report(ok, names[op] + " along dimension " + axis + " of " + what);
+            }
+        }
+    }
+
+    private static void report(boolean ok, String what) {
+        if (! ok) {
+            ++failures;
+            System.out.println("FAILED: " + what);
+        }
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,160 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.tests;
+
+import java.util.Random;
+
+import mitiv.array.Boolean3D;
+import mitiv.array.Byte1D;
+import mitiv.array.Float3D;
+import mitiv.array.Statistics;
+import mitiv.base.Parallel;
+import mitiv.linalg.shaped.FloatShapedVectorSpace;
+
+/**
+ * Check the single pass statistics against a two pass computation.
+ */
+public class StatisticsTest {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        int dim1 = 60, dim2 = 70, dim3 = 80;
+        int number = dim1*dim2*dim3;
+        float[] x = new float[number];
+        Random random = new Random(1);
+        for (int i = 0; i < number; ++i) {
+            x[i] = (float)(3 + 2*random.nextGaussian());
+        }
+        x[12345] = Float.NaN;
+        x[777] = Float.POSITIVE_INFINITY;
+        x[99999] = -50.0F;
+        x[number - 2] = 60.0F;
+        Float3D arr = Float3D.wrap(x, dim1, dim2, dim3);
+
+        /* Two pass reference. */
+        long count = 0;
+        double mean = 0.0;
+        for (float v : x) {
+            if (! Float.isNaN(v) && ! Float.isInfinite(v)) {
+                mean += v;
+                ++count;
+            }
+        }
+        mean /= count;
+        double m2 = 0.0, m3 = 0.0, m4 = 0.0;
+        for (float v : x) {
+            if (! Float.isNaN(v) && ! Float.isInfinite(v)) {
+                double d = v - mean;
+                m2 += d*d;
+                m3 += d*d*d;
+                m4 += d*d*d*d;
+            }
+        }
+
+        Statistics s = Statistics.compute(arr, true);
+        check(s.getCount() == count, "count");
+        check(s.getNaNCount() == 1, "number of NaN's");
+        check(s.getInfiniteCount() == 1, "number of infinites");
+        check(close(s.getMean(), mean, 1e-12), "mean");
+        check(close(s.getSum(), mean*count, 1e-12), "sum");
+        check(close(s.getVariance(), m2/(count - 1), 1e-10), "variance");
+        check(close(s.getSkewness(), Math.sqrt(count)*m3/Math.pow(m2, 1.5), 1e-8), "skewness");
+        check(close(s.getKurtosis(), count*m4/(m2*m2) - 3, 1e-8), "kurtosis");
+        check(s.getMin() == -50.0 && s.getMinIndex() == 99999, "minimum");
+        check(s.getMax() == 60.0 && s.getMaxIndex() == number - 2, "maximum");
+        int[] pos = s.getMaxPosition();
+        check(pos[0] == (number - 2)%dim1 && pos[1] == ((number - 2)/dim1)%dim2 &&
+              pos[2] == (number - 2)/(dim1*dim2), "position of the maximum");
+
+        /* The result must not depend on the number of threads. */
+        int threads = Parallel.getNumberOfThreads();
+        try {
+            Parallel.setNumberOfThreads(1);
+            Statistics s1 = Statistics.compute(arr, true);
+            check(s1.getVariance() == s.getVariance() &&
+                  s1.getKurtosis() == s.getKurtosis(), "independence of the number of threads");
+        } finally {
+            Parallel.setNumberOfThreads(threads);
+        }
+
+        /* Non-flat array. */
+        Statistics st = Statistics.compute(arr.transpose());
+        pos = st.getMinPosition();
+        check(st.getMin() == -50.0 && pos[2] == 99999%dim1 &&
+              pos[1] == (99999/dim1)%dim2 && pos[0] == 99999/(dim1*dim2),
+              "position of the minimum in a transposed array");
+        check(close(st.getMean(), mean, 1e-12), "mean of a transposed array");
+
+        /* Masked statistics. */
+        Boolean3D mask = Boolean3D.create(dim1, dim2, dim3);
+        double sum = 0.0;
+        for (int i = 0; i < dim1; ++i) {
+            mask.set(i, 0, 0, true);
+            sum += x[i];
+        }
+        Statistics sm = Statistics.compute(arr, mask);
+        check(sm.getCount() == dim1 && close(sm.getMean(), sum/dim1, 1e-12), "masked statistics");
+
+        /* Unsigned bytes, vectors and empty selections. */
+        Statistics sb = Statistics.compute(Byte1D.wrap(new byte[] {(byte)200, 1, 5}, 3));
+        check(sb.getMin() == 1.0 && sb.getMax() == 200.0 && sb.getMean() == 206.0/3.0, "bytes");
+        FloatShapedVectorSpace space = new FloatShapedVectorSpace(dim1, dim2, dim3);
+        check(close(Statistics.compute(space.wrap(x)).getMean(), mean, 1e-12), "vector");
+        Statistics se = Statistics.compute(arr, Boolean3D.create(dim1, dim2, dim3));
+        check(se.getCount() == 0 && Double.isNaN(se.getMin()), "empty selection");
+
+        if (failures > 0) {
+            System.out.println(failures + " test(s) failed");
+            System.exit(1);
+        }
+        System.out.println("All tests passed");
+    }
+
+    private static boolean close(double a, double b, double tol) {
+        return Math.abs(a - b) <= tol*Math.max(1.0, Math.abs(b));
+    }
+
+    private static void check(boolean ok, String what) {
+        if (! ok) {
+            ++failures;
+            System.out.println("FAILED: " + what);
+        }
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
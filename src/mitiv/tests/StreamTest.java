@@ -0,0 +1,136 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.tests;
+
+import java.util.Spliterator;
+
+import mitiv.array.Byte1D;
+import mitiv.array.DoubleScalar;
+import mitiv.array.Float3D;
+import mitiv.base.indexing.Range;
+import mitiv.linalg.shaped.FloatShapedVector;
+import mitiv.linalg.shaped.FloatShapedVectorSpace;
+import mitiv.linalg.shaped.HalfShapedVector;
+import mitiv.linalg.shaped.HalfShapedVectorSpace;
+
+/**
+ * Check the streams and spliterators over the elements of arrays and
+ * vectors (sequential and parallel, flat arrays and views).
+ */
+public class StreamTest {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        int dim1 = 300, dim2 = 200, dim3 = 50;
+        float[] data = new float[dim1*dim2*dim3];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (i%1000)*0.5F;
+        }
+        Float3D a = Float3D.wrap(data, dim1, dim2, dim3);
+        Float3D[] arrays = new Float3D[] {
+                a,
+                a.view(new Range(3, 250), new Range(1, 150), new Range(2, 40)),
+                a.permute(2, 0, 1),
+                a.view(new Range(0, 299, 3), null, null),
+                a.view(new int[] {5, 3, 1, 7}, new int[] {2, 0}, new int[] {0, 9, 4})
+        };
+        for (Float3D arr : arrays) {
+            String name = arr.getClass().getSimpleName();
+            float[] ref = arr.flatten();
+            double sum = 0.0;
+            for (float v : ref) {
+                sum += v;
+            }
+            check(arr.stream().count() == ref.length &&
+                  arr.stream().parallel().count() == ref.length, "count " + name);
+            check(close(arr.stream().sum(), sum), "sequential sum " + name);
+            check(close(arr.stream().parallel().sum(), sum), "parallel sum " + name);
+            double[] values = arr.stream().parallel().toArray();
+            boolean same = (values.length == ref.length);
+            for (int i = 0; same && i < ref.length; ++i) {
+                same = (values[i] == ref[i]);
+            }
+            check(same, "order of the elements " + name);
+
+            /* Mix single steps, splitting and bulk traversal. */
+            final double[] acc = new double[] {0.0};
+            Spliterator.OfDouble sp = arr.spliterator();
+            check(sp.hasCharacteristics(Spliterator.SIZED|Spliterator.SUBSIZED|Spliterator.ORDERED),
+                  "characteristics " + name);
+            for (int i = 0; i < 5; ++i) {
+                sp.tryAdvance((double v) -> acc[0] += v);
+            }
+            Spliterator.OfDouble prefix = sp.trySplit();
+            if (prefix != null) {
+                prefix.forEachRemaining((double v) -> acc[0] += v);
+            }
+            while (sp.tryAdvance((double v) -> acc[0] += v)) {
+                continue;
+            }
+            check(close(acc[0], sum), "mixed traversal " + name);
+        }
+        check(Byte1D.wrap(new byte[] {(byte)200, 1, (byte)255}, 3).stream().sum() == 456,
+              "unsigned bytes");
+        check(new DoubleScalar(3.5).stream().sum() == 3.5, "scalar");
+        FloatShapedVector vec = new FloatShapedVectorSpace(1000, 100).create();
+        vec.fill(1.0);
+        check(vec.stream().parallel().sum() == 100000.0, "float vector");
+        HalfShapedVector half = new HalfShapedVectorSpace(5000).create();
+        half.fill(0.5);
+        check(half.stream().parallel().sum() == 2500.0, "half vector");
+
+        if (failures > 0) {
+            System.out.println(failures + " test(s) failed");
+            System.exit(1);
+        }
+        System.out.println("All tests passed");
+    }
+
+    private static boolean close(double a, double b) {
+        return Math.abs(a - b) <= 1e-12*Math.abs(b);
+    }
+
+    private static void check(boolean ok, String what) {
+        if (! ok) {
+            ++failures;
+            System.out.println("FAILED: " + what);
+        }
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
@@ -0,0 +1,150 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.tests;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import mitiv.array.Float1D;
+import mitiv.array.Float2D;
+import mitiv.array.Float3D;
+import mitiv.array.impl.TiledDouble3D;
+import mitiv.array.impl.TiledFloat3D;
+import mitiv.base.indexing.Range;
+
+/**
+ * Check the tiled arrays against flat arrays, in particular that their
+ * slices, views and permutations share their storage.
+ */
+public class TiledArrayTest {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        int dim1 = 37, dim2 = 20, dim3 = 19;
+        Random random = new Random(1);
+        float[] x = new float[dim1*dim2*dim3];
+        for (int i = 0; i < x.length; ++i) {
+            x[i] = random.nextFloat() - 0.3F;
+        }
+        Float3D f = Float3D.wrap(x, dim1, dim2, dim3);
+        for (int bits = 1; bits <= 4; ++bits) {
+            String ctx = " (" + (1 << bits) + "×" + (1 << bits) + "×" + (1 << bits) + " bricks)";
+            TiledFloat3D t = TiledFloat3D.tile(f, bits);
+
+            /* Conversions and reductions. */
+            check(Arrays.equals(t.flatten(), x), "flatten" + ctx);
+            check(t.min() == f.min() && t.max() == f.max(), "min and max" + ctx);
+            check(Math.abs(t.sum() - f.sum()) <= 1e-2, "sum" + ctx);
+            check(TiledDouble3D.tile(f, bits).max() == (double)f.max(), "conversion to double" + ctx);
+            Float3D c = t.copy();
+            c.scale(2.0F);
+            c.increment(1.0F);
+            float[] z = c.flatten();
+            boolean same = true;
+            for (int i = 0; i < x.length; ++i) {
+                same &= (z[i] == 2.0F*x[i] + 1.0F);
+            }
+            check(same, "element-wise operations" + ctx);
+
+            /* Slices and views have the same values as for a flat array. */
+            for (int dim = 0; dim < 3; ++dim) {
+                check(Arrays.equals(t.slice(3, dim).flatten(), f.slice(3, dim).flatten()),
+                      "slice along dimension " + dim + ctx);
+            }
+            Range[] ranges = new Range[] {new Range(1, -2, 3), new Range(-1, 0, -4), null};
+            for (Range rng : ranges) {
+                check(Arrays.equals(t.view(rng, new Range(0, 10), rng).flatten(),
+                                    f.view(rng, new Range(0, 10), rng).flatten()), "view" + ctx);
+            }
+            int[] sel1 = new int[] {4, 0, 36};
+            int[] sel2 = new int[] {19, 3};
+            int[] sel3 = new int[] {2, 18, 9};
+            check(Arrays.equals(t.view(sel1, sel2, sel3).flatten(), f.view(sel1, sel2, sel3).flatten()),
+                  "selection" + ctx);
+            check(Arrays.equals(t.as1D().flatten(), x), "1D view" + ctx);
+            int[][] perms = new int[][] {{2, 0, 1}, {1, 2, 0}, {0, 2, 1}};
+            for (int[] perm : perms) {
+                Float3D p = t.permute(perm);
+                check(Arrays.equals(p.flatten(), f.permute(perm).flatten()),
+                      "permutation" + ctx);
+                check(Arrays.equals(p.permute(perm).flatten(), f.permute(perm).permute(perm).flatten()),
+                      "permutation of a permutation" + ctx);
+            }
+
+            /* Writes through slices and views are seen by the tiled array. */
+            Float2D s = t.slice(5, 2);
+            s.set(4, 7, 42.0F);
+            check(t.get(4, 7, 5) == 42.0F, "write through a slice" + ctx);
+            s = t.slice(6, 0);
+            s.set(3, 2, 43.0F);
+            check(t.get(6, 3, 2) == 43.0F, "write through a slice" + ctx);
+            t.view(new Range(1, -2, 3), new Range(0, 10), null).fill(-1.0F);
+            same = true;
+            for (int i3 = 0; i3 < dim3; ++i3) {
+                for (int i2 = 0; i2 <= 10; ++i2) {
+                    for (int i1 = 1; i1 <= dim1 - 2; i1 += 3) {
+                        same &= (t.get(i1, i2, i3) == -1.0F);
+                    }
+                }
+            }
+            check(same, "write through a view" + ctx);
+            t.view(sel1, sel2, sel3).set(1, 0, 1, 99.0F);
+            check(t.get(0, 19, 18) == 99.0F, "write through a selection" + ctx);
+            Float1D v = t.as1D();
+            v.set(5 + dim1*(4 + dim2*3), 77.0F);
+            check(t.get(5, 4, 3) == 77.0F, "write through a 1D view" + ctx);
+            t.transpose().set(2, 8, 1, 55.0F);
+            check(t.get(1, 8, 2) == 55.0F, "write through a transposed array" + ctx);
+        }
+
+        if (failures > 0) {
+            System.out.println(failures + " test(s) failed");
+            System.exit(1);
+        }
+        System.out.println("All tests passed");
+    }
+
+    private static void check(boolean ok, String what) {
+        if (! ok) {
+            ++failures;
+            System.out.println("FAILED: " + what);
+        }
+    }
+
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */
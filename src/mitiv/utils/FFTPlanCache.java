@@ -0,0 +1,270 @@
+/*
+ * This file is part of TiPi (a Toolkit for Inverse Problems and Imaging)
+ * developed by the MitiV project.
+ *
+ * Copyright (c) 2014 the MiTiV project, http://mitiv.univ-lyon1.fr/
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package mitiv.utils;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jtransforms.fft.DoubleFFT_1D;
+import org.jtransforms.fft.DoubleFFT_2D;
+import org.jtransforms.fft.DoubleFFT_3D;
+import org.jtransforms.fft.FloatFFT_1D;
+import org.jtransforms.fft.FloatFFT_2D;
+import org.jtransforms.fft.FloatFFT_3D;
+
+/**
+ * Process-wide cache of FFT plans.
+ *
+ * <p>
+ * Creating a FFT object (a "plan") computes tables of twiddle factors and
+ * of indices which only depend on the dimensions of the transform and on
+ * the precision of the values.  This class keeps the most recently used
+ * plans so that all the operators working on arrays of the same shape share
+ * the same plan instead of building their own.  Plans are indexed by their
+ * dimensions (in the order of the constructors of JTransforms, that is the
+ * slowest varying dimension first) and precision.  The cache is bounded,
+ * when it is full the least recently used plan is evicted (operators
+ * which still hold a reference to an evicted plan can keep on using it).
+ * </p><p>
+ * The FFT objects of JTransforms only store precomputed tables and can be
+ * used concurrently, the same plan may therefore be returned to different
+ * callers.  Callers must not assume that they own the returned plan.
+ * </p>
+ */
+public final class FFTPlanCache {
+
+    /** Default maximum number of plans in the cache. */
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private static final int FLOAT = 0;
+    private static final int DOUBLE = 1;
+
+    private static int capacity = DEFAULT_CAPACITY;
+
+    private static final LinkedHashMap<Key,Object> cache =
+            new LinkedHashMap<Key,Object>(16, 0.75F, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key,Object> eldest) {
+            return size() > capacity;
+        }
+    };
+
+    /**
+     * Make this class non instantiable.
+     */
+    private FFTPlanCache() {
+    }
+
+    /**
+     * Get the maximum number of plans in the cache.
+     * @return The capacity of the cache.
+     */
+    public static synchronized int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Set the maximum number of plans in the cache.
+     * <p>
+     * If the cache holds more plans than the new capacity, the least
+     * recently used ones are evicted.
+     * </p>
+     * @param n - The maximum number of plans, 0 to disable caching.
+     */
+    public static synchronized void setCapacity(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Capacity must be nonnegative.");
+        }
+        capacity = n;
+        while (cache.size() > capacity) {
+            cache.remove(cache.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Get the current number of plans in the cache.
+     * @return The number of cached plans.
+     */
+    public static synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * Evict all plans from the cache.
+     */
+    public static synchronized void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Get a plan for 1D transforms of float's.
+     * @param n - The length of the transform.
+     * @return A shared FFT object.
+     */
+    public static FloatFFT_1D getFloatFFT_1D(long n) {
+        Key key = new Key(FLOAT, n);
+        Object plan = lookup(key);
+        if (plan == null) {
+            plan = store(key, new FloatFFT_1D(n));
+        }
+        return (FloatFFT_1D)plan;
+    }
+
+    /**
+     * Get a plan for 2D transforms of float's.
+     * @param rows    - The number of rows (slowest varying dimension).
+     * @param columns - The number of columns (fastest varying dimension).
+     * @return A shared FFT object.
+     */
+    public static FloatFFT_2D getFloatFFT_2D(long rows, long columns) {
+        Key key = new Key(FLOAT, rows, columns);
+        Object plan = lookup(key);
+        if (plan == null) {
+            plan = store(key, new FloatFFT_2D(rows, columns));
+        }
+        return (FloatFFT_2D)plan;
+    }
+
+    /**
+     * Get a plan for 3D transforms of float's.
+     * @param slices  - The number of slices (slowest varying dimension).
+     * @param rows    - The number of rows.
+     * @param columns - The number of columns (fastest varying dimension).
+     * @return A shared FFT object.
+     */
+    public static FloatFFT_3D getFloatFFT_3D(long slices, long rows, long columns) {
+        Key key = new Key(FLOAT, slices, rows, columns);
+        Object plan = lookup(key);
+        if (plan == null) {
+            plan = store(key, new FloatFFT_3D(slices, rows, columns));
+        }
+        return (FloatFFT_3D)plan;
+    }
+
+    /**
+     * Get a plan for 1D transforms of double's.
+     * @param n - The length of the transform.
+     * @return A shared FFT object.
+     */
+    public static DoubleFFT_1D getDoubleFFT_1D(long n) {
+        Key key = new Key(DOUBLE, n);
+        Object plan = lookup(key);
+        if (plan == null) {
+            plan = store(key, new DoubleFFT_1D(n));
+        }
+        return (DoubleFFT_1D)plan;
+    }
+
+    /**
+     * Get a plan for 2D transforms of double's.
+     * @param rows    - The number of rows (slowest varying dimension).
+     * @param columns - The number of columns (fastest varying dimension).
+     * @return A shared FFT object.
+     */
+    public static DoubleFFT_2D getDoubleFFT_2D(long rows, long columns) {
+        Key key = new Key(DOUBLE, rows, columns);
+        Object plan = lookup(key);
+        if (plan == null) {
+            plan = store(key, new DoubleFFT_2D(rows, columns));
+        }
+        return (DoubleFFT_2D)plan;
+    }
+
+    /**
+     * Get a plan for 3D transforms of double's.
+     * @param slices  - The number of slices (slowest varying dimension).
+     * @param rows    - The number of rows.
+     * @param columns - The number of columns (fastest varying dimension).
+     * @return A shared FFT object.
+     */
+    public static DoubleFFT_3D getDoubleFFT_3D(long slices, long rows, long columns) {
+        Key key = new Key(DOUBLE, slices, rows, columns);
+        Object plan = lookup(key);
+        if (plan == null) {
+            plan = store(key, new DoubleFFT_3D(slices, rows, columns));
+        }
+        return (DoubleFFT_3D)plan;
+    }
+
+    private static synchronized Object lookup(Key key) {
+        return cache.get(key);
+    }
+
+    /* Plans are built outside of the lock, if another thread has stored a
+     * plan for the same key in the meantime, this latter one is returned. */
+    private static synchronized Object store(Key key, Object plan) {
+        Object other = cache.get(key);
+        if (other != null) {
+            return other;
+        }
+        if (capacity > 0) {
+            cache.put(key, plan);
+        }
+        return plan;
+    }
+
+    private static final class Key {
+        private final int precision;
+        private final long[] dims;
+
+        Key(int precision, long... dims) {
+            this.precision = precision;
+            this.dims = dims;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (! (obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key)obj;
+            return (precision == other.precision && Arrays.equals(dims, other.dims));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31*Arrays.hashCode(dims) + precision;
+        }
+    }
+}
+
+/*
+ * Local Variables:
+ * mode: Java
+ * tab-width: 8
+ * indent-tabs-mode: nil
+ * c-basic-offset: 4
+ * fill-column: 78
+ * coding: utf-8
+ * ispell-local-dictionary: "american"
+ * End:
+ */